@@ -39,29 +39,19 @@ import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
 import java.util.Arrays;
-import java.util.Hashtable;
 import java.util.Vector;
 
-import javax.imageio.ImageIO;
-
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.ephesoft.dcma.barcode.BarcodeDecoder;
 import com.ephesoft.dcma.barcodeextraction.BarcodeExtractionReader.BarcodeReaderTypes;
 import com.ephesoft.dcma.batch.schema.Document;
 import com.ephesoft.dcma.batch.schema.Page;
 import com.ephesoft.dcma.core.exception.DCMAApplicationException;
 import com.ephesoft.dcma.core.threadpool.AbstractRunnable;
 import com.google.zxing.BarcodeFormat;
-import com.google.zxing.BinaryBitmap;
-import com.google.zxing.DecodeHintType;
-import com.google.zxing.LuminanceSource;
-import com.google.zxing.MultiFormatReader;
-import com.google.zxing.ReaderException;
 import com.google.zxing.Result;
-import com.google.zxing.client.j2se.BufferedImageLuminanceSource;
-import com.google.zxing.common.HybridBinarizer;
-import com.google.zxing.multi.GenericMultipleBarcodeReader;
 
 /**
  * This class performs the functionality of barcode extraction for documents.
@@ -97,6 +87,10 @@ public class BarcodeExtractionExecutor extends AbstractRunnable {
 	 * To store Page.
 	 */
 	private final Page page;
+	/**
+	 * The decoder used to read the barcodes.
+	 */
+	private final BarcodeDecoder barcodeDecoder;
 
 	/**
 	 * A logger instance.
@@ -112,11 +106,30 @@ public class BarcodeExtractionExecutor extends AbstractRunnable {
 	 * @param document {@link Document}
 	 */
 	public BarcodeExtractionExecutor(final String sourcePath, final String fileName, final String[] newAppReaderTypes, final Page page, final Document document) {
+		this(sourcePath, fileName, newAppReaderTypes, page, document, null);
+	}
+
+	/**
+	 * Parameterized constructor.
+	 * @param sourcePath {@link String}
+	 * @param fileName {@link String}
+	 * @param newAppReaderTypes {@link String []}
+	 * @param page {@link Page}
+	 * @param document {@link Document}
+	 * @param barcodeDecoder {@link BarcodeDecoder}, null to decode the full page only
+	 */
+	public BarcodeExtractionExecutor(final String sourcePath, final String fileName, final String[] newAppReaderTypes, final Page page,
+			final Document document, final BarcodeDecoder barcodeDecoder) {
 		super();
 		this.sourcePath = sourcePath;
 		this.fileName = fileName;
 		this.page = page;
 		this.document = document;
+		if (barcodeDecoder == null) {
+			this.barcodeDecoder = new BarcodeDecoder();
+		} else {
+			this.barcodeDecoder = barcodeDecoder;
+		}
 		if(newAppReaderTypes == null){
 			this.appReaderTypes = new String[0];
 		} else {
@@ -132,22 +145,14 @@ public class BarcodeExtractionExecutor extends AbstractRunnable {
 	@Override
 	public void run() {
 		LOGGER.info("Running barcode for the file " + fileName);
-		BufferedImage sourceImage = null;
 		Result[] codeResults = null;
 		Vector<BarcodeFormat> barCodeFormatVector = new Vector<BarcodeFormat>(); // NOPMD . Required to work with Vector for Barcode
 		try {
-			if (sourcePath != null && !sourcePath.isEmpty()) {
-				sourceImage = ImageIO.read(new File(sourcePath));
-			} else {
+			if (sourcePath == null || sourcePath.isEmpty()) {
 				LOGGER.error("No valid extensions are specified in resources");
 				setDcmaApplicationException(new DCMAApplicationException("No valid extensions are specified in resources"));
 				return; // NOPMD
 			}
-			if (sourceImage == null) {
-				LOGGER.error("Source image is null for image : " + sourcePath);
-				setDcmaApplicationException(new DCMAApplicationException("Source image is null for image : " + sourcePath));
-				return; // NOPMD
-			}
 			if (appReaderTypes != null && appReaderTypes.length > 0) {
 				for (final String appReaderType : appReaderTypes) {
 
@@ -171,7 +176,7 @@ public class BarcodeExtractionExecutor extends AbstractRunnable {
 						barCodeFormatVector.add(BarcodeFormat.EAN_13);
 					}
 				}
-				codeResults = getBarCodeResults(sourceImage, fileName, barCodeFormatVector);
+				codeResults = barcodeDecoder.decode(new File(sourcePath), barCodeFormatVector);
 				barCodeResults = setBarcodeResults(codeResults);
 
 			}
@@ -182,13 +187,10 @@ public class BarcodeExtractionExecutor extends AbstractRunnable {
 			}
 
 		} catch (final IOException e) {
-			LOGGER.error("Could not read sourceImage " + sourcePath);
+			LOGGER.error("Could not read sourceImage " + sourcePath, e);
 			setDcmaApplicationException(new DCMAApplicationException("Could not read sourceImage " + sourcePath));
 		} finally {
-			if (sourceImage != null) {
-				sourceImage.flush();
-				barCodeFormatVector = null; // NOPMD
-			}
+			barCodeFormatVector = null; // NOPMD
 		}
 	}
 
@@ -202,28 +204,8 @@ public class BarcodeExtractionExecutor extends AbstractRunnable {
 	 */
 	public Result[] getBarCodeResults(final BufferedImage sourceImage, final String fileName,
 			final Vector<BarcodeFormat> barCodeFormatVector) { // NOPMD .
-		Result[] codeResults = null;
-		final LuminanceSource source = new BufferedImageLuminanceSource(sourceImage);
-		final BinaryBitmap bitmap = new BinaryBitmap(new HybridBinarizer(source));
-		Hashtable<DecodeHintType, Object> hints = new Hashtable<DecodeHintType, Object>(); // NOPMD . Required to work with Hashtable for Barcode
-
-		final MultiFormatReader mfr = new MultiFormatReader();
-
-		hints.put(DecodeHintType.TRY_HARDER, Boolean.TRUE);
-		hints.put(DecodeHintType.POSSIBLE_FORMATS, barCodeFormatVector);
-
-		final GenericMultipleBarcodeReader genericReader = new GenericMultipleBarcodeReader(mfr);
-		try {
-
-			codeResults = genericReader.decodeMultiple(bitmap, hints);
-		} catch (final ReaderException re) {
-			LOGGER.info("The image was not of types defined in the system" + re.getMessage());
-		} catch (final Exception re) {
-			LOGGER.info("Barcode Reader could not read image file: " + fileName);
-		} finally {
-			hints = null; // NOPMD
-		}
-		return codeResults;
+		LOGGER.debug("Reading barcodes of image file: " + fileName);
+		return barcodeDecoder.decode(sourceImage, barCodeFormatVector);
 	}
 
 	/**
@@ -48,6 +48,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Component;
 
+import com.ephesoft.dcma.barcode.BarcodeDecoder;
 import com.ephesoft.dcma.barcodeextraction.constant.BarcodeExtractionConstant;
 import com.ephesoft.dcma.batch.schema.Batch;
 import com.ephesoft.dcma.batch.schema.Coordinates;
@@ -132,6 +133,11 @@ public class BarcodeExtractionReader implements ICommonConstants {
 	 */
 	private transient String firstPage;
 
+	/**
+	 * Decoder used to read the barcodes of each page, null to decode the full page only.
+	 */
+	private BarcodeDecoder barcodeDecoder;
+
 	/**
 	 * @return the batchSchemaService
 	 */
@@ -157,6 +163,20 @@ public class BarcodeExtractionReader implements ICommonConstants {
 		this.firstPage = firstPage;
 	}
 
+	/**
+	 * @return the barcodeDecoder
+	 */
+	public BarcodeDecoder getBarcodeDecoder() {
+		return barcodeDecoder;
+	}
+
+	/**
+	 * @param barcodeDecoder the barcodeDecoder to set
+	 */
+	public void setBarcodeDecoder(final BarcodeDecoder barcodeDecoder) {
+		this.barcodeDecoder = barcodeDecoder;
+	}
+
 	/**
 	 * setter for BatchSchemaService.
 	 * 
@@ -422,7 +442,7 @@ public class BarcodeExtractionReader implements ICommonConstants {
 				if (isFileValid) {
 					LOGGER.info("Calling Zxing library for image :" + eachPage);
 					final BarcodeExtractionExecutor barcodeExecutor = new BarcodeExtractionExecutor(actualFolderLocation
-							+ File.separator + eachPage, eachPage, appReaderTypes, page, document);
+							+ File.separator + eachPage, eachPage, appReaderTypes, page, document, barcodeDecoder);
 					barcodeExecutorList.add(barcodeExecutor);
 					batchInstanceThread.add(barcodeExecutor);
 					LOGGER.info("Done with Zxing library for image : " + eachPage);
@@ -493,7 +513,7 @@ public class BarcodeExtractionReader implements ICommonConstants {
 			LOGGER.info("Calling Zxing library for image :" + imageName);
 			LOGGER.error("*************folder location is " + folderLocation);
 			final BarcodeExtractionExecutor barcodeExecutor = new BarcodeExtractionExecutor(folderLocation + File.separator + imageName,
-					imageName, appReaderTypes, null, null);
+					imageName, appReaderTypes, null, null, barcodeDecoder);
 			barcodeExecutorList.add(barcodeExecutor);
 			LOGGER.info("Done with Zxing library for image : " + imageName);
 		} else {
@@ -0,0 +1,377 @@
+/********************************************************************************* 
+* Ephesoft is a Intelligent Document Capture and Mailroom Automation program 
+* developed by Ephesoft, Inc. Copyright (C) 2010-2012 Ephesoft Inc. 
+* 
+* This program is free software; you can redistribute it and/or modify it under 
+* the terms of the GNU Affero General Public License version 3 as published by the 
+* Free Software Foundation with the addition of the following permission added 
+* to Section 15 as permitted in Section 7(a): FOR ANY PART OF THE COVERED WORK 
+* IN WHICH THE COPYRIGHT IS OWNED BY EPHESOFT, EPHESOFT DISCLAIMS THE WARRANTY 
+* OF NON INFRINGEMENT OF THIRD PARTY RIGHTS. 
+* 
+* This program is distributed in the hope that it will be useful, but WITHOUT 
+* ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+* FOR A PARTICULAR PURPOSE.  See the GNU Affero General Public License for more 
+* details. 
+* 
+* You should have received a copy of the GNU Affero General Public License along with 
+* this program; if not, see http://www.gnu.org/licenses or write to the Free 
+* Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 
+* 02110-1301 USA. 
+* 
+* You can contact Ephesoft, Inc. headquarters at 111 Academy Way, 
+* Irvine, CA 92617, USA. or at email address info@ephesoft.com. 
+* 
+* The interactive user interfaces in modified source and object code versions 
+* of this program must display Appropriate Legal Notices, as required under 
+* Section 5 of the GNU Affero General Public License version 3. 
+* 
+* In accordance with Section 7(b) of the GNU Affero General Public License version 3, 
+* these Appropriate Legal Notices must retain the display of the "Ephesoft" logo. 
+* If the display of the logo is not reasonably feasible for 
+* technical reasons, the Appropriate Legal Notices must display the words 
+* "Powered by Ephesoft". 
+********************************************************************************/ 
+
+
+package com.ephesoft.dcma.barcode;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Hashtable;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.Vector;
+
+import javax.imageio.IIOException;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.BinaryBitmap;
+import com.google.zxing.DecodeHintType;
+import com.google.zxing.LuminanceSource;
+import com.google.zxing.MultiFormatReader;
+import com.google.zxing.ReaderException;
+import com.google.zxing.Result;
+import com.google.zxing.ResultPoint;
+import com.google.zxing.client.j2se.BufferedImageLuminanceSource;
+import com.google.zxing.common.HybridBinarizer;
+import com.google.zxing.multi.GenericMultipleBarcodeReader;
+
+/**
+ * This class decodes the barcodes of an image file. It first decodes a subsampled copy of the page and then the configured zones of
+ * the page at full resolution, and stops as soon as these cheaper passes found the number of barcodes expected on a page, one by
+ * default as a separator sheet carries one barcode. Otherwise the full page is decoded with TRY_HARDER, as the barcode plugins
+ * always did, and only its results are returned, so a page without barcode, or with a barcode too fine for the subsampled pass and
+ * outside the zones, gives the same results as the full page pass. The image file is read through an {@link ImageReader}, so the
+ * cheaper passes never load the full page raster. The points of the results are always in the coordinates of the full page. One
+ * zxing reader is kept per thread.
+ * 
+ * A page holding more barcodes than expected may lose the ones the cheaper passes did not reach, so the expected count should be
+ * raised, or set to 0 to always decode the full page, for batch classes reading several barcodes per page. A decoder with
+ * subsampling 1 and no zones only does the full page pass.
+ * 
+ * @author Ephesoft
+ * @version 1.0
+ * @see com.ephesoft.dcma.barcode.BarcodeExecutor
+ */
+public class BarcodeDecoder {
+
+	/**
+	 * Instance of this class used for logging.
+	 */
+	private static final Logger LOGGER = LoggerFactory.getLogger(BarcodeDecoder.class);
+
+	/**
+	 * Separator between zones.
+	 */
+	private static final String ZONE_SEPARATOR = ";";
+
+	/**
+	 * Separator between the values of a zone.
+	 */
+	private static final String ZONE_VALUE_SEPARATOR = ",";
+
+	/**
+	 * Number of values of a zone: x, y, width and height.
+	 */
+	private static final int ZONE_VALUES = 4;
+
+	/**
+	 * zxing reader of the current thread.
+	 */
+	private static final ThreadLocal<MultiFormatReader> MULTI_FORMAT_READER = new ThreadLocal<MultiFormatReader>() {
+
+		@Override
+		protected MultiFormatReader initialValue() {
+			return new MultiFormatReader();
+		}
+	};
+
+	/**
+	 * Subsampling of the first pass, 1 to skip it.
+	 */
+	private int subsampling = 1;
+
+	/**
+	 * Zones of the second pass as fractions {x, y, width, height} of the page.
+	 */
+	private List<float[]> zones = new ArrayList<float[]>();
+
+	/**
+	 * Number of barcodes expected on a page, 0 if unknown. The cheaper passes are only used when it is known.
+	 */
+	private int expectedCount = 1;
+
+	/**
+	 * setter for subsampling.
+	 * 
+	 * @param subsampling int, read every n-th pixel of every n-th row in the first pass, 1 to skip the pass
+	 */
+	public void setSubsampling(final int subsampling) {
+		this.subsampling = Math.max(1, subsampling);
+	}
+
+	/**
+	 * getter for subsampling.
+	 * 
+	 * @return int
+	 */
+	public int getSubsampling() {
+		return subsampling;
+	}
+
+	/**
+	 * setter for expectedCount.
+	 * 
+	 * @param expectedCount int, number of barcodes expected on a page, 1 by default, 0 if unknown so that the full page is always
+	 *            decoded
+	 */
+	public void setExpectedCount(final int expectedCount) {
+		this.expectedCount = Math.max(0, expectedCount);
+	}
+
+	/**
+	 * getter for expectedCount.
+	 * 
+	 * @return int
+	 */
+	public int getExpectedCount() {
+		return expectedCount;
+	}
+
+	/**
+	 * setter for zones.
+	 * 
+	 * @param zones {@link String}, zones separated by ";", each given as "x,y,width,height" in fractions of the page, e.g.
+	 *            "0,0,1,0.25;0,0.75,1,0.25" for the top and bottom quarter of the page
+	 */
+	public void setZones(final String zones) {
+		final List<float[]> parsedZones = new ArrayList<float[]>();
+		if (zones != null) {
+			for (final String zone : zones.split(ZONE_SEPARATOR)) {
+				if (zone.trim().length() > 0) {
+					parsedZones.add(parseZone(zone));
+				}
+			}
+		}
+		this.zones = parsedZones;
+	}
+
+	/**
+	 * API to decode the barcodes of an image file.
+	 * 
+	 * @param imageFile {@link File}
+	 * @param barCodeFormatVector {@link Vector<BarcodeFormat>} the formats to look for
+	 * @return {@link Result[]} the barcodes found, null if none is found
+	 * @throws IOException if the image file cannot be read
+	 */
+	public Result[] decode(final File imageFile, final Vector<BarcodeFormat> barCodeFormatVector) throws IOException { // NOPMD
+		Result[] codeResults = null;
+		if (!imageFile.canRead()) {
+			throw new IIOException("Can't read input file " + imageFile);
+		}
+		final ImageInputStream inputStream = ImageIO.createImageInputStream(imageFile);
+		if (inputStream == null) {
+			throw new IIOException("Could not open image file " + imageFile);
+		}
+		ImageReader imageReader = null;
+		try {
+			final Iterator<ImageReader> imageReaders = ImageIO.getImageReaders(inputStream);
+			if (!imageReaders.hasNext()) {
+				throw new IIOException("No image reader found for " + imageFile);
+			}
+			imageReader = imageReaders.next();
+			imageReader.setInput(inputStream, true, true);
+			if (expectedCount > 0) {
+				codeResults = decodeCheapPasses(imageReader, barCodeFormatVector);
+			}
+			if (codeResults == null) {
+				final BufferedImage sourceImage = imageReader.read(0);
+				try {
+					codeResults = decode(sourceImage, barCodeFormatVector);
+				} finally {
+					sourceImage.flush();
+				}
+			} else {
+				LOGGER.debug("Barcodes found without a full page pass for " + imageFile);
+			}
+		} finally {
+			if (imageReader != null) {
+				imageReader.dispose();
+			}
+			inputStream.close();
+		}
+		return codeResults;
+	}
+
+	/**
+	 * API to decode the barcodes of a full page image with TRY_HARDER.
+	 * 
+	 * @param sourceImage {@link BufferedImage}
+	 * @param barCodeFormatVector {@link Vector<BarcodeFormat>} the formats to look for
+	 * @return {@link Result[]} the barcodes found, null if none is found
+	 */
+	public Result[] decode(final BufferedImage sourceImage, final Vector<BarcodeFormat> barCodeFormatVector) { // NOPMD
+		return decodeMultiple(sourceImage, barCodeFormatVector, true);
+	}
+
+	private Result[] decodeCheapPasses(final ImageReader imageReader, final Vector<BarcodeFormat> barCodeFormatVector) // NOPMD
+			throws IOException {
+		final List<Result> cheapResults = new ArrayList<Result>();
+		final Set<String> foundBarcodes = new HashSet<String>();
+		if (subsampling > 1) {
+			addNewResults(decodeSubsampled(imageReader, barCodeFormatVector), cheapResults, foundBarcodes);
+		}
+		if (cheapResults.size() < expectedCount && !zones.isEmpty()) {
+			addNewResults(decodeZones(imageReader, barCodeFormatVector), cheapResults, foundBarcodes);
+		}
+		Result[] codeResults = null;
+		if (cheapResults.size() >= expectedCount) {
+			codeResults = cheapResults.toArray(new Result[cheapResults.size()]);
+		}
+		return codeResults;
+	}
+
+	private void addNewResults(final Result[] codeResults, final List<Result> results, final Set<String> foundBarcodes) {
+		if (codeResults != null) {
+			for (final Result codeResult : codeResults) {
+				// passes and zones may overlap, keep a barcode found twice once.
+				if (foundBarcodes.add(codeResult.getBarcodeFormat().getName() + ZONE_SEPARATOR + codeResult.getText())) {
+					results.add(codeResult);
+				}
+			}
+		}
+	}
+
+	private Result[] decodeSubsampled(final ImageReader imageReader, final Vector<BarcodeFormat> barCodeFormatVector) // NOPMD
+			throws IOException {
+		final ImageReadParam readParam = imageReader.getDefaultReadParam();
+		readParam.setSourceSubsampling(subsampling, subsampling, 0, 0);
+		final BufferedImage image = imageReader.read(0, readParam);
+		Result[] codeResults = null;
+		try {
+			codeResults = toPageCoordinates(decodeMultiple(image, barCodeFormatVector, false), subsampling, 0, 0);
+		} finally {
+			image.flush();
+		}
+		return codeResults;
+	}
+
+	private Result[] decodeZones(final ImageReader imageReader, final Vector<BarcodeFormat> barCodeFormatVector) // NOPMD
+			throws IOException {
+		final int pageWidth = imageReader.getWidth(0);
+		final int pageHeight = imageReader.getHeight(0);
+		final List<Result> zoneResults = new ArrayList<Result>();
+		final Set<String> foundBarcodes = new HashSet<String>();
+		for (final float[] zone : zones) {
+			final Rectangle region = new Rectangle((int) (zone[0] * pageWidth), (int) (zone[1] * pageHeight),
+					(int) Math.ceil(zone[2] * pageWidth), (int) Math.ceil(zone[3] * pageHeight)).intersection(new Rectangle(pageWidth,
+					pageHeight));
+			if (region.isEmpty()) {
+				continue;
+			}
+			final ImageReadParam readParam = imageReader.getDefaultReadParam();
+			readParam.setSourceRegion(region);
+			final BufferedImage image = imageReader.read(0, readParam);
+			try {
+				addNewResults(toPageCoordinates(decodeMultiple(image, barCodeFormatVector, false), 1, region.x, region.y),
+						zoneResults, foundBarcodes);
+			} finally {
+				image.flush();
+			}
+		}
+		Result[] codeResults = null;
+		if (!zoneResults.isEmpty()) {
+			codeResults = zoneResults.toArray(new Result[zoneResults.size()]);
+		}
+		return codeResults;
+	}
+
+	private Result[] decodeMultiple(final BufferedImage image, final Vector<BarcodeFormat> barCodeFormatVector, // NOPMD
+			final boolean tryHarder) {
+		Result[] codeResults = null;
+		final LuminanceSource source = new BufferedImageLuminanceSource(image);
+		final BinaryBitmap bitmap = new BinaryBitmap(new HybridBinarizer(source));
+		final Hashtable<DecodeHintType, Object> hints = new Hashtable<DecodeHintType, Object>(); // NOPMD
+		if (tryHarder) {
+			hints.put(DecodeHintType.TRY_HARDER, Boolean.TRUE);
+		}
+		hints.put(DecodeHintType.POSSIBLE_FORMATS, barCodeFormatVector);
+		final GenericMultipleBarcodeReader genericReader = new GenericMultipleBarcodeReader(MULTI_FORMAT_READER.get());
+		try {
+			codeResults = genericReader.decodeMultiple(bitmap, hints);
+		} catch (final ReaderException re) {
+			LOGGER.info("The image was not of types defined in the system" + re.getMessage());
+		} catch (final Exception re) {
+			LOGGER.info("Barcode Reader could not read image: " + re.getMessage());
+		}
+		if (codeResults != null && codeResults.length == 0) {
+			codeResults = null;
+		}
+		return codeResults;
+	}
+
+	private Result[] toPageCoordinates(final Result[] codeResults, final int scale, final int offsetX, final int offsetY) {
+		Result[] pageResults = null;
+		if (codeResults != null) {
+			pageResults = new Result[codeResults.length];
+			for (int i = 0; i < codeResults.length; i++) {
+				final ResultPoint[] points = codeResults[i].getResultPoints();
+				ResultPoint[] pagePoints = null;
+				if (points != null) {
+					pagePoints = new ResultPoint[points.length];
+					for (int j = 0; j < points.length; j++) {
+						pagePoints[j] = new ResultPoint(points[j].getX() * scale + offsetX, points[j].getY() * scale + offsetY);
+					}
+				}
+				pageResults[i] = new Result(codeResults[i].getText(), codeResults[i].getRawBytes(), pagePoints, codeResults[i]
+						.getBarcodeFormat());
+			}
+		}
+		return pageResults;
+	}
+
+	private float[] parseZone(final String zone) {
+		final String[] values = zone.split(ZONE_VALUE_SEPARATOR);
+		if (values.length != ZONE_VALUES) {
+			throw new IllegalArgumentException("Barcode zone should be x,y,width,height but was : " + zone);
+		}
+		final float[] parsedZone = new float[ZONE_VALUES];
+		for (int i = 0; i < ZONE_VALUES; i++) {
+			parsedZone[i] = Float.parseFloat(values[i].trim());
+		}
+		return parsedZone;
+	}
+}
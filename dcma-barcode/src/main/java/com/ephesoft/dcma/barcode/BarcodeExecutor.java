@@ -39,24 +39,14 @@ import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
 import java.util.Arrays;
-import java.util.Hashtable;
 import java.util.Vector;
-import javax.imageio.ImageIO;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import com.ephesoft.dcma.barcode.BarcodeReader.BarcodeReaderTypes;
 import com.ephesoft.dcma.core.exception.DCMAApplicationException;
 import com.ephesoft.dcma.core.threadpool.AbstractRunnable;
 import com.google.zxing.BarcodeFormat;
-import com.google.zxing.BinaryBitmap;
-import com.google.zxing.DecodeHintType;
-import com.google.zxing.LuminanceSource;
-import com.google.zxing.MultiFormatReader;
-import com.google.zxing.ReaderException;
 import com.google.zxing.Result;
-import com.google.zxing.client.j2se.BufferedImageLuminanceSource;
-import com.google.zxing.common.HybridBinarizer;
-import com.google.zxing.multi.GenericMultipleBarcodeReader;
 
 /**
  * This class is used to perform barcode extraction processes.
@@ -83,6 +73,10 @@ public class BarcodeExecutor extends AbstractRunnable {
 	 * To store barcode results.
 	 */
 	private BarcodeResult[] barCodeResults;
+	/**
+	 * The decoder used to read the barcodes.
+	 */
+	private final BarcodeDecoder barcodeDecoder;
 
 	/**
 	 * Instance of this class used for logging.
@@ -97,9 +91,25 @@ public class BarcodeExecutor extends AbstractRunnable {
 	 * 
 	 */
 	public BarcodeExecutor(String sourcePath, String fileName, final String[] tempAppReaderTypes) {
+		this(sourcePath, fileName, tempAppReaderTypes, null);
+	}
+
+	/**
+	 * Parameterized constructor.
+	 * @param sourcePath {@link String}
+	 * @param fileName {@link String}
+	 * @param tempAppReaderTypes {@link String []}
+	 * @param barcodeDecoder {@link BarcodeDecoder}, null to decode the full page only
+	 */
+	public BarcodeExecutor(String sourcePath, String fileName, final String[] tempAppReaderTypes, final BarcodeDecoder barcodeDecoder) {
 		super();
 		this.sourcePath = sourcePath;
 		this.fileName = fileName;
+		if (barcodeDecoder == null) {
+			this.barcodeDecoder = new BarcodeDecoder();
+		} else {
+			this.barcodeDecoder = barcodeDecoder;
+		}
 		if(tempAppReaderTypes == null){
 			this.appReaderTypes = new String[0];
 		} else {
@@ -114,14 +124,10 @@ public class BarcodeExecutor extends AbstractRunnable {
 	@Override
 	public void run() {
 		LOGGER.info("Running barcode for the file " + fileName);
-		BufferedImage sourceImage = null;
 		Result[] codeResults = null;
 		Vector<BarcodeFormat> barCodeFormatVector = new Vector<BarcodeFormat>(); //NOPMD
 		try {
 			if (sourcePath != null && !sourcePath.isEmpty()) {
-				sourceImage = ImageIO.read(new File(sourcePath));
-			}
-			if (sourceImage != null) {
 				if (appReaderTypes != null && appReaderTypes.length > 0) {
 					for (String appReaderType : appReaderTypes) {
 
@@ -145,7 +151,7 @@ public class BarcodeExecutor extends AbstractRunnable {
 							barCodeFormatVector.add(BarcodeFormat.EAN_13);
 						}
 					}
-					codeResults = getBarCodeResults(sourceImage, fileName, barCodeFormatVector);
+					codeResults = barcodeDecoder.decode(new File(sourcePath), barCodeFormatVector);
 					barCodeResults = setBarcodeResults(codeResults);
 
 				} else {
@@ -157,12 +163,8 @@ public class BarcodeExecutor extends AbstractRunnable {
 				setDcmaApplicationException(new DCMAApplicationException("Source image is null for image : " + sourcePath));
 			}
 		} catch (IOException e) {
-			LOGGER.error("Could not read sourceImage " + sourcePath);
+			LOGGER.error("Could not read sourceImage " + sourcePath, e);
 			setDcmaApplicationException(new DCMAApplicationException("Could not read sourceImage " + sourcePath));
-		} finally {
-			if (sourceImage != null) {
-				sourceImage.flush();
-			}
 		}
 	}
 
@@ -176,25 +178,8 @@ public class BarcodeExecutor extends AbstractRunnable {
 	 */
 	public Result[] getBarCodeResults(final BufferedImage sourceImage, final String fileName,
 			final Vector<BarcodeFormat> barCodeFormatVector) { //NOPMD
-		Result[] codeResults = null;
-		LuminanceSource source = new BufferedImageLuminanceSource(sourceImage);
-		BinaryBitmap bitmap = new BinaryBitmap(new HybridBinarizer(source));
-		Hashtable<DecodeHintType, Object> hints = new Hashtable<DecodeHintType, Object>(); //NOPMD
-
-		MultiFormatReader mfr = new MultiFormatReader();
-
-		hints.put(DecodeHintType.TRY_HARDER, Boolean.TRUE);
-		hints.put(DecodeHintType.POSSIBLE_FORMATS, barCodeFormatVector);
-
-		GenericMultipleBarcodeReader genericReader = new GenericMultipleBarcodeReader(mfr);
-		try {
-			codeResults = genericReader.decodeMultiple(bitmap, hints);
-		} catch (ReaderException re) {
-			LOGGER.info("The image was not of types defined in the system" + re.getMessage());
-		} catch (Exception re) {
-			LOGGER.info("Barcode Reader could not read image file: " + fileName);
-		}
-		return codeResults;
+		LOGGER.debug("Reading barcodes of image file: " + fileName);
+		return barcodeDecoder.decode(sourceImage, barCodeFormatVector);
 	}
 
 	/**
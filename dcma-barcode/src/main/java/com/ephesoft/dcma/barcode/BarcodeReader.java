@@ -115,6 +115,11 @@ public class BarcodeReader implements ICommonConstants {
 	 */
 	private transient String firstPage;
 
+	/**
+	 * Decoder used to read the barcodes of each page, null to decode the full page only.
+	 */
+	private BarcodeDecoder barcodeDecoder;
+
 	/**
 	 * setter for barcode name.
 	 * @param barcodeName {@link String}
@@ -123,6 +128,22 @@ public class BarcodeReader implements ICommonConstants {
 		this.barcodeName = barcodeName;
 	}
 
+	/**
+	 * getter for barcodeDecoder.
+	 * @return {@link BarcodeDecoder}
+	 */
+	public BarcodeDecoder getBarcodeDecoder() {
+		return barcodeDecoder;
+	}
+
+	/**
+	 * setter for barcodeDecoder.
+	 * @param barcodeDecoder {@link BarcodeDecoder}
+	 */
+	public void setBarcodeDecoder(final BarcodeDecoder barcodeDecoder) {
+		this.barcodeDecoder = barcodeDecoder;
+	}
+
 	/**
 	 * getter for batchSchemaService.
 	 * @return {@link BatchSchemaService} the batchSchemaService
@@ -325,7 +346,7 @@ public class BarcodeReader implements ICommonConstants {
 				if (isFileValid) {
 					LOGGER.info("Calling Zxing library for image :" + eachPage);
 					final BarcodeExecutor barcodeExecutor = new BarcodeExecutor(workingDir + File.separator + eachPage, eachPage,
-							appReaderTypes);
+							appReaderTypes, barcodeDecoder);
 					barcodeExecutorList.add(barcodeExecutor);
 					batchInstanceThread.add(barcodeExecutor);
 					LOGGER.info("Done with Zxing library for image : " + eachPage);
@@ -416,7 +437,7 @@ public class BarcodeReader implements ICommonConstants {
 					if (isFileValid) {
 						LOGGER.info("Calling Zxing library for image :" + eachPage);
 						final BarcodeExecutor barcodeExecutor = new BarcodeExecutor(actualFolderLocation + File.separator + eachPage,
-								eachPage, appReaderTypes);
+								eachPage, appReaderTypes, barcodeDecoder);
 						barcodeExecutorList.add(barcodeExecutor);
 						batchInstanceThread.add(barcodeExecutor);
 						LOGGER.info("Done with Zxing library for image : " + eachPage);
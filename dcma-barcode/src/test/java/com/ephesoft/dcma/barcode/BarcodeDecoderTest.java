@@ -0,0 +1,307 @@
+/********************************************************************************* 
+* Ephesoft is a Intelligent Document Capture and Mailroom Automation program 
+* developed by Ephesoft, Inc. Copyright (C) 2010-2012 Ephesoft Inc. 
+* 
+* This program is free software; you can redistribute it and/or modify it under 
+* the terms of the GNU Affero General Public License version 3 as published by the 
+* Free Software Foundation with the addition of the following permission added 
+* to Section 15 as permitted in Section 7(a): FOR ANY PART OF THE COVERED WORK 
+* IN WHICH THE COPYRIGHT IS OWNED BY EPHESOFT, EPHESOFT DISCLAIMS THE WARRANTY 
+* OF NON INFRINGEMENT OF THIRD PARTY RIGHTS. 
+* 
+* This program is distributed in the hope that it will be useful, but WITHOUT 
+* ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+* FOR A PARTICULAR PURPOSE.  See the GNU Affero General Public License for more 
+* details. 
+* 
+* You should have received a copy of the GNU Affero General Public License along with 
+* this program; if not, see http://www.gnu.org/licenses or write to the Free 
+* Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 
+* 02110-1301 USA. 
+* 
+* You can contact Ephesoft, Inc. headquarters at 111 Academy Way, 
+* Irvine, CA 92617, USA. or at email address info@ephesoft.com. 
+* 
+* The interactive user interfaces in modified source and object code versions 
+* of this program must display Appropriate Legal Notices, as required under 
+* Section 5 of the GNU Affero General Public License version 3. 
+* 
+* In accordance with Section 7(b) of the GNU Affero General Public License version 3, 
+* these Appropriate Legal Notices must retain the display of the "Ephesoft" logo. 
+* If the display of the logo is not reasonably feasible for 
+* technical reasons, the Appropriate Legal Notices must display the words 
+* "Powered by Ephesoft". 
+********************************************************************************/ 
+
+
+package com.ephesoft.dcma.barcode;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Vector;
+
+import javax.imageio.ImageIO;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.MultiFormatWriter;
+import com.google.zxing.Result;
+import com.google.zxing.ResultPoint;
+import com.google.zxing.WriterException;
+import com.google.zxing.common.BitMatrix;
+
+/**
+ * This is Junit test for BarcodeDecoder. It decodes the sample pages and generated pages holding several barcodes and compares the
+ * results with the full page decode that the barcode plugins always did.
+ * 
+ * @author Ephesoft
+ * @version 1.0
+ * @see com.ephesoft.dcma.barcode.BarcodeDecoder
+ */
+public class BarcodeDecoderTest {
+
+	/**
+	 * Width of the generated pages, a letter page at 150 dpi.
+	 */
+	private static final int PAGE_WIDTH = 1275;
+
+	/**
+	 * Height of the generated pages, a letter page at 150 dpi.
+	 */
+	private static final int PAGE_HEIGHT = 1650;
+
+	/**
+	 * Size of the barcodes of the multi barcode page.
+	 */
+	private static final int BARCODE_SIZE = 200;
+
+	/**
+	 * Zones of the production configuration, the top and bottom quarters of the page.
+	 */
+	private static final String DEFAULT_ZONES = "0,0,1,0.25;0,0.75,1,0.25";
+
+	/**
+	 * Subsampling of the production configuration.
+	 */
+	private static final int DEFAULT_SUBSAMPLING = 2;
+
+	/**
+	 * Sample pages, the pages of batch 13 hold the QR code "India Invoice" in the middle of the page and page 56 holds no barcode.
+	 */
+	private static final String[] SAMPLE_PAGES = {"samples/13/13_Group3.png", "samples/13/13_Group3.tif",
+			"samples/13/13_Group4Compression.tif", "samples/56/56_10.png"};
+
+	/**
+	 * Formats looked for.
+	 */
+	private final Vector<BarcodeFormat> barcodeFormats = new Vector<BarcodeFormat>();
+
+	/**
+	 * Page with a barcode in the top quarter, one in the middle and one in the bottom quarter.
+	 */
+	private File multiBarcodePage;
+
+	/**
+	 * Page with a single barcode too fine to be read from a subsampled copy.
+	 */
+	private File fineBarcodePage;
+
+	/**
+	 * This method generates the sample pages.
+	 * 
+	 * @throws IOException if a page cannot be written
+	 * @throws WriterException if a barcode cannot be encoded
+	 */
+	@Before
+	public void setUp() throws IOException, WriterException {
+		barcodeFormats.add(BarcodeFormat.QR_CODE);
+
+		BufferedImage page = createPage();
+		drawBarcode(page, "PAGE-TOP", BARCODE_SIZE, 100, 50);
+		drawBarcode(page, "PAGE-MIDDLE", BARCODE_SIZE, 500, 725);
+		drawBarcode(page, "PAGE-BOTTOM", BARCODE_SIZE, 900, 1400);
+		multiBarcodePage = writePage(page);
+
+		page = createPage();
+		// version 1 with the quiet zone is 29 modules wide, so 58 pixels gives 2 pixel modules.
+		drawBarcode(page, "FINE", 58, 600, 800);
+		fineBarcodePage = writePage(page);
+	}
+
+	/**
+	 * This method deletes the sample pages.
+	 */
+	@After
+	public void tearDown() {
+		multiBarcodePage.delete();
+		fineBarcodePage.delete();
+	}
+
+	/**
+	 * This method tests that the production configuration, expecting one barcode per page, gives the texts and formats of the full
+	 * page decode on the sample pages, and points within a few pixels of its points.
+	 * 
+	 * @throws IOException if a page cannot be read
+	 * @throws URISyntaxException if a sample page cannot be located
+	 */
+	@Test
+	public void testSamplePagesMatchFullDecode() throws IOException, URISyntaxException {
+		BarcodeDecoder barcodeDecoder = new BarcodeDecoder();
+		assertEquals(1, barcodeDecoder.getExpectedCount());
+		barcodeDecoder.setSubsampling(DEFAULT_SUBSAMPLING);
+		barcodeDecoder.setZones(DEFAULT_ZONES);
+		for (String samplePage : SAMPLE_PAGES) {
+			File pageFile = new File(BarcodeDecoderTest.class.getClassLoader().getResource(samplePage).toURI());
+			Result[] baselineResults = new BarcodeDecoder().decode(ImageIO.read(pageFile), barcodeFormats);
+			List<String> baseline = toSortedList(baselineResults);
+			if (samplePage.startsWith("samples/13/")) {
+				assertEquals(samplePage, Collections.singletonList("QR_CODE;India Invoice"), baseline);
+			} else {
+				assertTrue(samplePage, baseline.isEmpty());
+			}
+
+			Result[] codeResults = barcodeDecoder.decode(pageFile, barcodeFormats);
+			assertEquals(samplePage, baseline, toSortedList(codeResults));
+			if (codeResults != null) {
+				ResultPoint[] baselinePoints = baselineResults[0].getResultPoints();
+				ResultPoint[] points = codeResults[0].getResultPoints();
+				assertEquals(samplePage, baselinePoints.length, points.length);
+				for (int i = 0; i < points.length; i++) {
+					assertEquals(samplePage, baselinePoints[i].getX(), points[i].getX(), 4 * DEFAULT_SUBSAMPLING);
+					assertEquals(samplePage, baselinePoints[i].getY(), points[i].getY(), 4 * DEFAULT_SUBSAMPLING);
+				}
+			}
+		}
+	}
+
+	/**
+	 * This method tests that a decoder with no expected count gives the results of the full page decode.
+	 * 
+	 * @throws IOException if a page cannot be read
+	 */
+	@Test
+	public void testNoExpectedCountMatchesFullDecode() throws IOException {
+		List<String> baseline = decodeFullPage(multiBarcodePage);
+		assertEquals(3, baseline.size());
+		assertTrue(baseline.contains("QR_CODE;PAGE-MIDDLE"));
+
+		BarcodeDecoder barcodeDecoder = new BarcodeDecoder();
+		barcodeDecoder.setSubsampling(DEFAULT_SUBSAMPLING);
+		barcodeDecoder.setZones(DEFAULT_ZONES);
+		barcodeDecoder.setExpectedCount(0);
+		assertEquals(baseline, toSortedList(barcodeDecoder.decode(multiBarcodePage, barcodeFormats)));
+	}
+
+	/**
+	 * This method tests that the full page is decoded when the zones find fewer barcodes than expected, so the barcode outside the
+	 * zones is not lost.
+	 * 
+	 * @throws IOException if a page cannot be read
+	 */
+	@Test
+	public void testFallsThroughWhenZonesMissBarcodes() throws IOException {
+		BarcodeDecoder barcodeDecoder = new BarcodeDecoder();
+		barcodeDecoder.setZones(DEFAULT_ZONES);
+		barcodeDecoder.setExpectedCount(3);
+		assertEquals(decodeFullPage(multiBarcodePage), toSortedList(barcodeDecoder.decode(multiBarcodePage, barcodeFormats)));
+	}
+
+	/**
+	 * This method tests that the full page is decoded when the barcode cannot be resolved from the subsampled copy.
+	 * 
+	 * @throws IOException if a page cannot be read
+	 */
+	@Test
+	public void testFallsThroughWhenSubsamplingMissesBarcodes() throws IOException {
+		List<String> baseline = decodeFullPage(fineBarcodePage);
+		assertEquals(Collections.singletonList("QR_CODE;FINE"), baseline);
+
+		BarcodeDecoder barcodeDecoder = new BarcodeDecoder();
+		barcodeDecoder.setSubsampling(4);
+		barcodeDecoder.setExpectedCount(1);
+		assertEquals(baseline, toSortedList(barcodeDecoder.decode(fineBarcodePage, barcodeFormats)));
+	}
+
+	/**
+	 * This method tests that the zones are enough when they find the expected number of barcodes, and that the points are given in
+	 * page coordinates.
+	 * 
+	 * @throws IOException if a page cannot be read
+	 */
+	@Test
+	public void testStopsWhenZonesFindExpectedCount() throws IOException {
+		BarcodeDecoder barcodeDecoder = new BarcodeDecoder();
+		barcodeDecoder.setZones(DEFAULT_ZONES);
+		barcodeDecoder.setExpectedCount(2);
+		Result[] codeResults = barcodeDecoder.decode(multiBarcodePage, barcodeFormats);
+		List<String> expected = new ArrayList<String>();
+		expected.add("QR_CODE;PAGE-BOTTOM");
+		expected.add("QR_CODE;PAGE-TOP");
+		assertEquals(expected, toSortedList(codeResults));
+		for (Result codeResult : codeResults) {
+			if ("PAGE-BOTTOM".equals(codeResult.getText())) {
+				for (ResultPoint point : codeResult.getResultPoints()) {
+					assertTrue(point.getY() >= 1400 && point.getY() <= 1400 + BARCODE_SIZE);
+				}
+			}
+		}
+	}
+
+	private List<String> decodeFullPage(File pageFile) throws IOException {
+		BufferedImage page = ImageIO.read(pageFile);
+		assertNotNull(page);
+		return toSortedList(new BarcodeDecoder().decode(page, barcodeFormats));
+	}
+
+	private List<String> toSortedList(Result[] codeResults) {
+		List<String> barcodes = new ArrayList<String>();
+		if (codeResults != null) {
+			for (Result codeResult : codeResults) {
+				barcodes.add(codeResult.getBarcodeFormat().getName() + ';' + codeResult.getText());
+			}
+		}
+		Collections.sort(barcodes);
+		return barcodes;
+	}
+
+	private BufferedImage createPage() {
+		BufferedImage page = new BufferedImage(PAGE_WIDTH, PAGE_HEIGHT, BufferedImage.TYPE_BYTE_GRAY);
+		Graphics2D graphics = page.createGraphics();
+		try {
+			graphics.setColor(Color.WHITE);
+			graphics.fillRect(0, 0, PAGE_WIDTH, PAGE_HEIGHT);
+		} finally {
+			graphics.dispose();
+		}
+		return page;
+	}
+
+	private void drawBarcode(BufferedImage page, String text, int size, int left, int top) throws WriterException {
+		BitMatrix matrix = new MultiFormatWriter().encode(text, BarcodeFormat.QR_CODE, size, size);
+		for (int y = 0; y < matrix.getHeight(); y++) {
+			for (int x = 0; x < matrix.getWidth(); x++) {
+				page.setRGB(left + x, top + y, matrix.get(x, y) ? Color.BLACK.getRGB() : Color.WHITE.getRGB());
+			}
+		}
+	}
+
+	private File writePage(BufferedImage page) throws IOException {
+		File pageFile = File.createTempFile("barcode-decoder", ".png");
+		ImageIO.write(page, "png", pageFile);
+		return pageFile;
+	}
+}
@@ -35,13 +35,18 @@
 
 package com.ephesoft.dcma.batch.dao.xml;
 
+import java.io.Serializable;
+
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Repository;
 
 import com.ephesoft.dcma.batch.schema.Batch;
+import com.ephesoft.dcma.batch.schema.Document;
+import com.ephesoft.dcma.core.component.ICommonConstants;
 import com.ephesoft.dcma.core.component.JAXB2Template;
 import com.ephesoft.dcma.core.dao.xml.XmlDao;
+import com.ephesoft.dcma.core.dao.xml.XmlObjectCache;
 
 /**
  * This class is used to read the JAXB2 object.
@@ -60,6 +65,20 @@ public class BatchSchemaDao extends XmlDao<Batch> {
 	@Qualifier("batchJAXB2Template")
 	private JAXB2Template jaxb2Template;
 
+	/**
+	 * batchXmlObjectCache XmlObjectCache.
+	 */
+	@Autowired
+	@Qualifier("batchXmlObjectCache")
+	private XmlObjectCache batchXmlObjectCache;
+
+	/**
+	 * batchSegmentStore BatchSegmentStore.
+	 */
+	@Autowired
+	@Qualifier("batchSegmentStore")
+	private BatchSegmentStore batchSegmentStore;
+
 	/**
 	 * To get JAXB2 object.
 	 * @return JAXB2Template
@@ -69,4 +88,95 @@ public class BatchSchemaDao extends XmlDao<Batch> {
 		return this.jaxb2Template;
 	}
 
+	/**
+	 * To get the cache of batch objects.
+	 * @return XmlObjectCache
+	 */
+	@Override
+	protected XmlObjectCache getXmlObjectCache() {
+		return this.batchXmlObjectCache;
+	}
+
+	/**
+	 * To get a single document of the batch. Only the document is read when the batch is stored as segments.
+	 * @param identifier Serializable
+	 * @param documentIdentifier String
+	 * @param localFolder String
+	 * @return Document the document, or null if the batch has no such document
+	 */
+	public Document getDocument(Serializable identifier, String documentIdentifier, String localFolder) {
+		Document document = null;
+		if (!getXmlObjectCache().isDeferred(identifier)) {
+			document = batchSegmentStore.readDocument(identifier.toString(), documentIdentifier, localFolder);
+		}
+		if (document == null) {
+			Batch batch = get(identifier, localFolder);
+			if (batch != null && batch.getDocuments() != null) {
+				for (Document batchDocument : batch.getDocuments().getDocument()) {
+					if (documentIdentifier.equals(batchDocument.getIdentifier())) {
+						document = batchDocument;
+						break;
+					}
+				}
+			}
+		}
+		return document;
+	}
+
+	/**
+	 * To bring the batch xml up to date with the segments of the batch, for the code reading the batch xml straight from disk.
+	 * @param identifier Serializable
+	 * @param localFolder String
+	 */
+	public void writeBatchXml(Serializable identifier, String localFolder) {
+		Batch batch = batchSegmentStore.read(identifier.toString(), localFolder);
+		if (batch != null) {
+			super.write(batch, identifier, ICommonConstants.UNDERSCORE_BATCH_XML, null, false, localFolder);
+			XmlObjectCache cache = getXmlObjectCache();
+			if (cache.isEnabled()) {
+				cache.putWritten(getFilePath(identifier, ICommonConstants.UNDERSCORE_BATCH_XML, localFolder), batch);
+			}
+		}
+	}
+
+	/**
+	 * To read the batch, from its segments if they are newer than the batch xml.
+	 * @param identifier Serializable
+	 * @param pageId String
+	 * @param fileName String
+	 * @param localFolder String
+	 * @return Batch
+	 */
+	@Override
+	protected Batch read(Serializable identifier, String pageId, String fileName, String localFolder) {
+		Batch batch = null;
+		if (null == pageId && ICommonConstants.UNDERSCORE_BATCH_XML.equals(fileName)) {
+			batch = batchSegmentStore.read(identifier.toString(), localFolder);
+		}
+		if (batch == null) {
+			batch = super.read(identifier, pageId, fileName, localFolder);
+		}
+		return batch;
+	}
+
+	/**
+	 * To write the batch, only its changed segments if the segmented storage mode is on.
+	 * @param batch Batch
+	 * @param identifier Serializable
+	 * @param fileName String
+	 * @param pageId String
+	 * @param isFirstTimeUpdate boolean
+	 * @param localFolder String
+	 */
+	@Override
+	protected void write(Batch batch, Serializable identifier, String fileName, String pageId, boolean isFirstTimeUpdate,
+			String localFolder) {
+		if (batchSegmentStore.isSegmented() && !isFirstTimeUpdate && null == pageId
+				&& ICommonConstants.UNDERSCORE_BATCH_XML.equals(fileName)) {
+			batchSegmentStore.write(batch, identifier.toString(), localFolder);
+		} else {
+			super.write(batch, identifier, fileName, pageId, isFirstTimeUpdate, localFolder);
+		}
+	}
+
 }
@@ -0,0 +1,548 @@
+/********************************************************************************* 
+* Ephesoft is a Intelligent Document Capture and Mailroom Automation program 
+* developed by Ephesoft, Inc. Copyright (C) 2010-2012 Ephesoft Inc. 
+* 
+* This program is free software; you can redistribute it and/or modify it under 
+* the terms of the GNU Affero General Public License version 3 as published by the 
+* Free Software Foundation with the addition of the following permission added 
+* to Section 15 as permitted in Section 7(a): FOR ANY PART OF THE COVERED WORK 
+* IN WHICH THE COPYRIGHT IS OWNED BY EPHESOFT, EPHESOFT DISCLAIMS THE WARRANTY 
+* OF NON INFRINGEMENT OF THIRD PARTY RIGHTS. 
+* 
+* This program is distributed in the hope that it will be useful, but WITHOUT 
+* ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+* FOR A PARTICULAR PURPOSE.  See the GNU Affero General Public License for more 
+* details. 
+* 
+* You should have received a copy of the GNU Affero General Public License along with 
+* this program; if not, see http://www.gnu.org/licenses or write to the Free 
+* Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 
+* 02110-1301 USA. 
+* 
+* You can contact Ephesoft, Inc. headquarters at 111 Academy Way, 
+* Irvine, CA 92617, USA. or at email address info@ephesoft.com. 
+* 
+* The interactive user interfaces in modified source and object code versions 
+* of this program must display Appropriate Legal Notices, as required under 
+* Section 5 of the GNU Affero General Public License version 3. 
+* 
+* In accordance with Section 7(b) of the GNU Affero General Public License version 3, 
+* these Appropriate Legal Notices must retain the display of the "Ephesoft" logo. 
+* If the display of the logo is not reasonably feasible for 
+* technical reasons, the Appropriate Legal Notices must display the words 
+* "Powered by Ephesoft". 
+********************************************************************************/ 
+
+
+package com.ephesoft.dcma.batch.dao.xml;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+
+import javax.xml.bind.JAXBElement;
+import javax.xml.bind.JAXBException;
+import javax.xml.namespace.QName;
+import javax.xml.transform.stream.StreamResult;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.ephesoft.dcma.batch.schema.Batch;
+import com.ephesoft.dcma.batch.schema.Document;
+import com.ephesoft.dcma.batch.schema.Batch.Documents;
+import com.ephesoft.dcma.core.common.DCMABusinessException;
+import com.ephesoft.dcma.core.component.ICommonConstants;
+import com.ephesoft.dcma.core.component.JAXB2Template;
+import com.ephesoft.dcma.core.dao.xml.FileStamp;
+import com.ephesoft.dcma.util.XMLUtil;
+
+/**
+ * This class stores a batch as separately addressable segments instead of one batch xml. The batch header and every document are
+ * marshalled into their own file inside the <code>&lt;id&gt;_batch_segments</code> folder. Segment files are named after a digest of
+ * their content, so an update only writes the documents which changed, followed by a small index file listing the segments in order.
+ * 
+ * <p>
+ * The index remembers the {@link FileStamp} of the batch xml it was written against. The segments are only used while the batch xml
+ * is unchanged since, so anything writing the batch xml directly wins over the segments, even when it keeps its length and last
+ * modified time. {@link BatchSchemaDao#writeBatchXml} brings the batch xml up to date for the code reading it straight from disk.
+ * </p>
+ * 
+ * @author Ephesoft
+ * @version 1.0
+ * @see com.ephesoft.dcma.batch.dao.xml.BatchSchemaDao
+ */
+public class BatchSegmentStore {
+
+	/**
+	 * LOGGER to print the logging information.
+	 */
+	private static final Logger LOGGER = LoggerFactory.getLogger(BatchSegmentStore.class);
+
+	/**
+	 * Storage mode writing the whole batch xml on every update.
+	 */
+	public static final String SINGLE_MODE = "single";
+
+	/**
+	 * Storage mode writing the changed segments only.
+	 */
+	public static final String SEGMENTED_MODE = "segmented";
+
+	/**
+	 * SEGMENTS_FOLDER_SUFFIX String.
+	 */
+	private static final String SEGMENTS_FOLDER_SUFFIX = "_batch_segments";
+
+	/**
+	 * INDEX_FILE_PREFIX String.
+	 */
+	private static final String INDEX_FILE_PREFIX = "segments_";
+
+	/**
+	 * INDEX_FILE_EXT String.
+	 */
+	private static final String INDEX_FILE_EXT = ".index";
+
+	/**
+	 * SEGMENT_FILE_EXT String.
+	 */
+	private static final String SEGMENT_FILE_EXT = ".xml";
+
+	/**
+	 * TEMP_FILE_EXT String.
+	 */
+	private static final String TEMP_FILE_EXT = ".tmp";
+
+	/**
+	 * HEADER_SEGMENT String.
+	 */
+	private static final String HEADER_SEGMENT = "header";
+
+	/**
+	 * BASE_STAMP_KEY String.
+	 */
+	private static final String BASE_STAMP_KEY = "base.stamp";
+
+	/**
+	 * HEADER_KEY String.
+	 */
+	private static final String HEADER_KEY = "header";
+
+	/**
+	 * DOCUMENT_COUNT_KEY String.
+	 */
+	private static final String DOCUMENT_COUNT_KEY = "document.count";
+
+	/**
+	 * DOCUMENT_KEY_PREFIX String.
+	 */
+	private static final String DOCUMENT_KEY_PREFIX = "document.";
+
+	/**
+	 * DOCUMENT_ID_KEY_SUFFIX String.
+	 */
+	private static final String DOCUMENT_ID_KEY_SUFFIX = ".id";
+
+	/**
+	 * DOCUMENT_ELEMENT String.
+	 */
+	private static final String DOCUMENT_ELEMENT = "Document";
+
+	/**
+	 * DIGEST_ALGORITHM String.
+	 */
+	private static final String DIGEST_ALGORITHM = "MD5";
+
+	/**
+	 * Number of lock stripes used to serialize the updates of one batch.
+	 */
+	private static final int LOCK_STRIPES = 32;
+
+	/**
+	 * jaxb2Template JAXB2Template.
+	 */
+	private final JAXB2Template jaxb2Template;
+
+	/**
+	 * True if the segmented storage mode is switched on.
+	 */
+	private final boolean segmented;
+
+	/**
+	 * Locks serializing the access to the segments of one batch.
+	 */
+	private final Object[] locks = new Object[LOCK_STRIPES];
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param jaxb2Template JAXB2Template
+	 * @param storageMode String either {@link #SINGLE_MODE} or {@link #SEGMENTED_MODE}
+	 */
+	public BatchSegmentStore(final JAXB2Template jaxb2Template, final String storageMode) {
+		this.jaxb2Template = jaxb2Template;
+		this.segmented = SEGMENTED_MODE.equalsIgnoreCase(storageMode == null ? null : storageMode.trim());
+		for (int index = 0; index < LOCK_STRIPES; index++) {
+			locks[index] = new Object();
+		}
+		LOGGER.info("Batch xml storage mode is " + (segmented ? SEGMENTED_MODE : SINGLE_MODE));
+	}
+
+	/**
+	 * To check whether the segmented storage mode is switched on.
+	 * 
+	 * @return boolean
+	 */
+	public boolean isSegmented() {
+		return segmented;
+	}
+
+	/**
+	 * To check whether the segments of a batch exist and are newer than its batch xml.
+	 * 
+	 * @param identifier String batch instance identifier
+	 * @param localFolder String
+	 * @return boolean
+	 */
+	public boolean isCurrent(final String identifier, final String localFolder) {
+		synchronized (getLock(identifier)) {
+			return getCurrentIndex(identifier, localFolder) != null;
+		}
+	}
+
+	/**
+	 * To read the whole batch from its segments.
+	 * 
+	 * @param identifier String batch instance identifier
+	 * @param localFolder String
+	 * @return {@link Batch} the batch, or null if the segments are not current
+	 */
+	public Batch read(final String identifier, final String localFolder) {
+		Batch batch = null;
+		synchronized (getLock(identifier)) {
+			Properties index = getCurrentIndex(identifier, localFolder);
+			if (index != null) {
+				File segmentsFolder = getSegmentsFolder(identifier, localFolder);
+				batch = (Batch) unmarshal(new File(segmentsFolder, index.getProperty(HEADER_KEY)), null);
+				Documents documents = new Documents();
+				int documentCount = Integer.parseInt(index.getProperty(DOCUMENT_COUNT_KEY));
+				for (int position = 0; position < documentCount; position++) {
+					File segmentFile = new File(segmentsFolder, index.getProperty(DOCUMENT_KEY_PREFIX + position));
+					documents.getDocument().add((Document) unmarshal(segmentFile, Document.class));
+				}
+				batch.setDocuments(documents);
+			}
+		}
+		return batch;
+	}
+
+	/**
+	 * To read a single document of the batch from its segment without loading the rest of the batch.
+	 * 
+	 * @param identifier String batch instance identifier
+	 * @param documentIdentifier String
+	 * @param localFolder String
+	 * @return {@link Document} the document, or null if the segments are not current or the document is not present
+	 */
+	public Document readDocument(final String identifier, final String documentIdentifier, final String localFolder) {
+		Document document = null;
+		synchronized (getLock(identifier)) {
+			Properties index = getCurrentIndex(identifier, localFolder);
+			if (index != null) {
+				int documentCount = Integer.parseInt(index.getProperty(DOCUMENT_COUNT_KEY));
+				for (int position = 0; position < documentCount; position++) {
+					if (documentIdentifier.equals(index.getProperty(DOCUMENT_KEY_PREFIX + position + DOCUMENT_ID_KEY_SUFFIX))) {
+						File segmentFile = new File(getSegmentsFolder(identifier, localFolder), index.getProperty(DOCUMENT_KEY_PREFIX
+								+ position));
+						document = (Document) unmarshal(segmentFile, Document.class);
+						break;
+					}
+				}
+			}
+		}
+		return document;
+	}
+
+	/**
+	 * To write the batch as segments. Only the segments whose content changed are written. The documents of the batch are detached
+	 * while its header is marshalled, so the batch must not be shared with other threads meanwhile.
+	 * 
+	 * @param batch {@link Batch}
+	 * @param identifier String batch instance identifier
+	 * @param localFolder String
+	 */
+	public void write(final Batch batch, final String identifier, final String localFolder) {
+		synchronized (getLock(identifier)) {
+			File segmentsFolder = getSegmentsFolder(identifier, localFolder);
+			if (!segmentsFolder.exists() && !segmentsFolder.mkdirs()) {
+				throw new DCMABusinessException("Unable to create the batch segments folder " + segmentsFolder.getAbsolutePath());
+			}
+			Properties index = new Properties();
+			Set<String> segmentNames = new HashSet<String>();
+			int writtenSegments = 0;
+
+			Documents documents = batch.getDocuments();
+			batch.setDocuments(new Documents());
+			byte[] header = null;
+			try {
+				header = marshal(batch);
+			} finally {
+				batch.setDocuments(documents);
+			}
+			String headerName = getSegmentName(HEADER_SEGMENT, header);
+			writtenSegments += writeSegment(segmentsFolder, headerName, header);
+			segmentNames.add(headerName);
+			index.setProperty(HEADER_KEY, headerName);
+
+			int documentCount = 0;
+			if (documents != null) {
+				List<Document> documentList = documents.getDocument();
+				for (Document document : documentList) {
+					byte[] segment = marshal(new JAXBElement<Document>(new QName(DOCUMENT_ELEMENT), Document.class, document));
+					String segmentName = getSegmentName(document.getIdentifier(), segment);
+					writtenSegments += writeSegment(segmentsFolder, segmentName, segment);
+					segmentNames.add(segmentName);
+					index.setProperty(DOCUMENT_KEY_PREFIX + documentCount, segmentName);
+					index.setProperty(DOCUMENT_KEY_PREFIX + documentCount + DOCUMENT_ID_KEY_SUFFIX, document.getIdentifier());
+					documentCount++;
+				}
+			}
+			index.setProperty(DOCUMENT_COUNT_KEY, String.valueOf(documentCount));
+			index.setProperty(BASE_STAMP_KEY, getBatchXmlStamp(identifier, localFolder));
+
+			String indexName = INDEX_FILE_PREFIX + (getLatestIndexVersion(segmentsFolder) + 1) + INDEX_FILE_EXT;
+			writeIndex(segmentsFolder, indexName, index);
+			segmentNames.add(indexName);
+			deleteUnreferencedFiles(segmentsFolder, segmentNames);
+			LOGGER.info("Batch " + identifier + " saved as segments. Segments written: " + writtenSegments + " of "
+					+ (documentCount + 1));
+		}
+	}
+
+	/**
+	 * To delete the segments of a batch.
+	 * 
+	 * @param identifier String batch instance identifier
+	 * @param localFolder String
+	 */
+	public void delete(final String identifier, final String localFolder) {
+		synchronized (getLock(identifier)) {
+			File segmentsFolder = getSegmentsFolder(identifier, localFolder);
+			if (segmentsFolder.exists()) {
+				deleteUnreferencedFiles(segmentsFolder, new HashSet<String>());
+				if (!segmentsFolder.delete()) {
+					LOGGER.info("Unable to delete the batch segments folder " + segmentsFolder.getAbsolutePath());
+				}
+			}
+		}
+	}
+
+	private Properties getCurrentIndex(final String identifier, final String localFolder) {
+		Properties index = null;
+		File segmentsFolder = getSegmentsFolder(identifier, localFolder);
+		if (segmentsFolder.isDirectory()) {
+			int version = getLatestIndexVersion(segmentsFolder);
+			if (version > 0) {
+				Properties latestIndex = readIndex(new File(segmentsFolder, INDEX_FILE_PREFIX + version + INDEX_FILE_EXT));
+				long[] baseStamp = parseStamp(latestIndex.getProperty(BASE_STAMP_KEY));
+				if (FileStamp.isCurrent(baseStamp, getBatchXmlPath(identifier, localFolder))) {
+					index = latestIndex;
+				}
+			}
+		}
+		return index;
+	}
+
+	private int getLatestIndexVersion(final File segmentsFolder) {
+		int latestVersion = 0;
+		String[] fileNames = segmentsFolder.list();
+		if (fileNames != null) {
+			for (String fileName : fileNames) {
+				if (fileName.startsWith(INDEX_FILE_PREFIX) && fileName.endsWith(INDEX_FILE_EXT)) {
+					try {
+						int version = Integer.parseInt(fileName.substring(INDEX_FILE_PREFIX.length(), fileName.length()
+								- INDEX_FILE_EXT.length()));
+						latestVersion = Math.max(latestVersion, version);
+					} catch (NumberFormatException e) {
+						LOGGER.info("Ignoring unexpected file " + fileName + " in " + segmentsFolder.getAbsolutePath());
+					}
+				}
+			}
+		}
+		return latestVersion;
+	}
+
+	private Properties readIndex(final File indexFile) {
+		Properties index = new Properties();
+		InputStream inputStream = null;
+		try {
+			inputStream = new FileInputStream(indexFile);
+			index.load(inputStream);
+		} catch (IOException e) {
+			throw new DCMABusinessException("Unable to read the batch segments index " + indexFile.getAbsolutePath(), e);
+		} finally {
+			closeStream(inputStream);
+		}
+		return index;
+	}
+
+	private void writeIndex(final File segmentsFolder, final String indexName, final Properties index) {
+		File tempFile = new File(segmentsFolder, indexName + TEMP_FILE_EXT);
+		OutputStream outputStream = null;
+		try {
+			outputStream = new FileOutputStream(tempFile);
+			index.store(outputStream, null);
+		} catch (IOException e) {
+			throw new DCMABusinessException("Unable to write the batch segments index " + tempFile.getAbsolutePath(), e);
+		} finally {
+			closeStream(outputStream);
+		}
+		renameFile(tempFile, new File(segmentsFolder, indexName));
+	}
+
+	private int writeSegment(final File segmentsFolder, final String segmentName, final byte[] content) {
+		int written = 0;
+		File segmentFile = new File(segmentsFolder, segmentName);
+		if (!segmentFile.exists()) {
+			File tempFile = new File(segmentsFolder, segmentName + TEMP_FILE_EXT);
+			OutputStream outputStream = null;
+			try {
+				outputStream = new FileOutputStream(tempFile);
+				outputStream.write(content);
+			} catch (IOException e) {
+				throw new DCMABusinessException("Unable to write the batch segment " + tempFile.getAbsolutePath(), e);
+			} finally {
+				closeStream(outputStream);
+			}
+			renameFile(tempFile, segmentFile);
+			written = 1;
+		}
+		return written;
+	}
+
+	private void renameFile(final File source, final File target) {
+		if (!source.renameTo(target)) {
+			throw new DCMABusinessException("Unable to rename " + source.getAbsolutePath() + " to " + target.getName());
+		}
+	}
+
+	private void deleteUnreferencedFiles(final File segmentsFolder, final Set<String> referencedNames) {
+		File[] files = segmentsFolder.listFiles();
+		if (files != null) {
+			for (File file : files) {
+				if (!referencedNames.contains(file.getName()) && !file.delete()) {
+					LOGGER.info("Unable to delete the stale batch segment " + file.getAbsolutePath());
+				}
+			}
+		}
+	}
+
+	private byte[] marshal(final Object object) {
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		jaxb2Template.getJaxb2Marshaller().marshal(object, new StreamResult(outputStream));
+		return outputStream.toByteArray();
+	}
+
+	private Object unmarshal(final File segmentFile, final Class<?> declaredType) {
+		InputStream inputStream = null;
+		try {
+			inputStream = new FileInputStream(segmentFile);
+			Object object = null;
+			if (declaredType == null) {
+				object = jaxb2Template.getJaxb2Marshaller().unmarshal(XMLUtil.createSourceFromStream(inputStream));
+			} else {
+				object = jaxb2Template.getJaxb2Marshaller().getJaxbContext().createUnmarshaller().unmarshal(
+						XMLUtil.createSourceFromStream(inputStream), declaredType).getValue();
+			}
+			return object;
+		} catch (IOException e) {
+			throw new DCMABusinessException("Unable to read the batch segment " + segmentFile.getAbsolutePath(), e);
+		} catch (JAXBException e) {
+			throw new DCMABusinessException("Unable to read the batch segment " + segmentFile.getAbsolutePath(), e);
+		} finally {
+			closeStream(inputStream);
+		}
+	}
+
+	private String getSegmentName(final String name, final byte[] content) {
+		StringBuilder segmentName = new StringBuilder(name);
+		segmentName.append(ICommonConstants.UNDERSCORE);
+		try {
+			byte[] digest = MessageDigest.getInstance(DIGEST_ALGORITHM).digest(content);
+			for (byte digestByte : digest) {
+				segmentName.append(Character.forDigit((digestByte >> 4) & 0xF, 16));
+				segmentName.append(Character.forDigit(digestByte & 0xF, 16));
+			}
+		} catch (NoSuchAlgorithmException e) {
+			throw new DCMABusinessException("Digest algorithm " + DIGEST_ALGORITHM + " is not available.", e);
+		}
+		return segmentName.append(SEGMENT_FILE_EXT).toString();
+	}
+
+	private String getBatchXmlStamp(final String identifier, final String localFolder) {
+		long[] diskStamp = FileStamp.capture(getBatchXmlPath(identifier, localFolder));
+		StringBuilder stamp = new StringBuilder();
+		for (long value : diskStamp) {
+			if (stamp.length() > 0) {
+				stamp.append(',');
+			}
+			stamp.append(value);
+		}
+		return stamp.toString();
+	}
+
+	private long[] parseStamp(final String stampValue) {
+		long[] stamp = null;
+		if (stampValue != null) {
+			String[] values = stampValue.split(",");
+			stamp = new long[values.length];
+			try {
+				for (int index = 0; index < values.length; index++) {
+					stamp[index] = Long.parseLong(values[index]);
+				}
+			} catch (NumberFormatException e) {
+				LOGGER.info("Ignoring invalid batch xml stamp " + stampValue);
+				stamp = null;
+			}
+		}
+		return stamp;
+	}
+
+	private String getBatchXmlPath(final String identifier, final String localFolder) {
+		return getBatchFolder(identifier, localFolder) + File.separator + identifier + ICommonConstants.UNDERSCORE_BATCH_XML;
+	}
+
+	private File getSegmentsFolder(final String identifier, final String localFolder) {
+		return new File(getBatchFolder(identifier, localFolder), identifier + SEGMENTS_FOLDER_SUFFIX);
+	}
+
+	private String getBatchFolder(final String identifier, final String localFolder) {
+		return localFolder + File.separator + identifier;
+	}
+
+	private Object getLock(final String identifier) {
+		return locks[(identifier.hashCode() & Integer.MAX_VALUE) % LOCK_STRIPES];
+	}
+
+	private void closeStream(final Closeable closeable) {
+		if (closeable != null) {
+			try {
+				closeable.close();
+			} catch (IOException e) {
+				LOGGER.info("Exception in closing batch segment stream. " + e.getMessage());
+			}
+		}
+	}
+}
@@ -0,0 +1,447 @@
+/********************************************************************************* 
+* Ephesoft is a Intelligent Document Capture and Mailroom Automation program 
+* developed by Ephesoft, Inc. Copyright (C) 2010-2012 Ephesoft Inc. 
+* 
+* This program is free software; you can redistribute it and/or modify it under 
+* the terms of the GNU Affero General Public License version 3 as published by the 
+* Free Software Foundation with the addition of the following permission added 
+* to Section 15 as permitted in Section 7(a): FOR ANY PART OF THE COVERED WORK 
+* IN WHICH THE COPYRIGHT IS OWNED BY EPHESOFT, EPHESOFT DISCLAIMS THE WARRANTY 
+* OF NON INFRINGEMENT OF THIRD PARTY RIGHTS. 
+* 
+* This program is distributed in the hope that it will be useful, but WITHOUT 
+* ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+* FOR A PARTICULAR PURPOSE.  See the GNU Affero General Public License for more 
+* details. 
+* 
+* You should have received a copy of the GNU Affero General Public License along with 
+* this program; if not, see http://www.gnu.org/licenses or write to the Free 
+* Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 
+* 02110-1301 USA. 
+* 
+* You can contact Ephesoft, Inc. headquarters at 111 Academy Way, 
+* Irvine, CA 92617, USA. or at email address info@ephesoft.com. 
+* 
+* The interactive user interfaces in modified source and object code versions 
+* of this program must display Appropriate Legal Notices, as required under 
+* Section 5 of the GNU Affero General Public License version 3. 
+* 
+* In accordance with Section 7(b) of the GNU Affero General Public License version 3, 
+* these Appropriate Legal Notices must retain the display of the "Ephesoft" logo. 
+* If the display of the logo is not reasonably feasible for 
+* technical reasons, the Appropriate Legal Notices must display the words 
+* "Powered by Ephesoft". 
+********************************************************************************/ 
+
+
+package com.ephesoft.dcma.batch.dao.xml;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.math.BigInteger;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.ephesoft.dcma.batch.schema.Coordinates;
+import com.ephesoft.dcma.batch.schema.HocrPages;
+import com.ephesoft.dcma.batch.schema.HocrPages.HocrPage;
+import com.ephesoft.dcma.batch.schema.HocrPages.HocrPage.Spans;
+import com.ephesoft.dcma.batch.schema.HocrPages.HocrPage.Spans.Span;
+import com.ephesoft.dcma.core.dao.xml.FileStamp;
+
+/**
+ * This class stores hOCR pages in a compact binary file next to their HOCR xml. The file holds a table of the distinct strings of the
+ * pages, followed for every page by primitive int arrays of the string indexes of its span values and of the x0, y0, x1 and y1
+ * coordinates of its spans. Reading it is a single sequential pass without any xml parsing, the distinct words and the small
+ * coordinates being shared between the spans.
+ * 
+ * <p>
+ * The binary file remembers the {@link FileStamp} of the HOCR xml it was written with and is only used while that xml is unchanged, so
+ * anything writing the HOCR xml directly falls back to the xml. Once the xml is old enough for its stamp to need no checksum, the stamp
+ * in the binary file is replaced by the one without checksum so that later reads do not read the xml at all.
+ * </p>
+ * 
+ * @author Ephesoft
+ * @version 1.0
+ * @see com.ephesoft.dcma.batch.dao.xml.HocrSchemaDao
+ */
+public class HocrBinaryStore {
+
+	/**
+	 * Extension of the binary file, replacing the .xml extension of the HOCR xml.
+	 */
+	public static final String BINARY_FILE_EXTENSION = ".bin";
+
+	/**
+	 * Extension of the HOCR xml.
+	 */
+	private static final String XML_FILE_EXTENSION = ".xml";
+
+	/**
+	 * Marker written at the start of a binary file.
+	 */
+	private static final int FILE_MAGIC = 0x45484F43;
+
+	/**
+	 * Version of the binary file format.
+	 */
+	private static final int FILE_VERSION = 2;
+
+	/**
+	 * Offset of the stamp of the HOCR xml in a binary file, following the marker and the version.
+	 */
+	private static final int STAMP_OFFSET = 8;
+
+	/**
+	 * String index of a null string.
+	 */
+	private static final int NULL_INDEX = -1;
+
+	/**
+	 * Coordinate value of a missing coordinate.
+	 */
+	private static final int NO_COORDINATE = Integer.MIN_VALUE;
+
+	/**
+	 * Number of int columns stored per span, the string index of its value and its four coordinates.
+	 */
+	private static final int SPAN_COLUMNS = 5;
+
+	/**
+	 * Number of bytes of an int.
+	 */
+	private static final int INT_BYTES = 4;
+
+	/**
+	 * Number of bits of an int coordinate.
+	 */
+	private static final int INT_BITS = 31;
+
+	/**
+	 * Coordinates below this value share one BigInteger instance.
+	 */
+	private static final int SHARED_COORDINATES = 8192;
+
+	/**
+	 * Shared BigInteger instances of the small coordinates, filled lazily. BigInteger being immutable they can be shared freely.
+	 */
+	private static final BigInteger[] SHARED_VALUES = new BigInteger[SHARED_COORDINATES];
+
+	/**
+	 * Character set of the strings.
+	 */
+	private static final String UTF_8 = "UTF-8";
+
+	/**
+	 * An instance of Logger for proper logging in this file.
+	 */
+	private static final Logger LOGGER = LoggerFactory.getLogger(HocrBinaryStore.class);
+
+	/**
+	 * Whether the binary files are written and read.
+	 */
+	private final boolean enabled;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param enabled boolean whether the binary files are written and read
+	 */
+	public HocrBinaryStore(final boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	/**
+	 * To check whether the binary files are written and read.
+	 * 
+	 * @return boolean
+	 */
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * To get the path of the binary file of a HOCR xml.
+	 * 
+	 * @param xmlFilePath String
+	 * @return String
+	 */
+	public static String getBinaryFilePath(final String xmlFilePath) {
+		String basePath = xmlFilePath;
+		if (basePath.endsWith(XML_FILE_EXTENSION)) {
+			basePath = basePath.substring(0, basePath.length() - XML_FILE_EXTENSION.length());
+		}
+		return basePath + BINARY_FILE_EXTENSION;
+	}
+
+	/**
+	 * To read the hOCR pages from the binary file of a HOCR xml.
+	 * 
+	 * @param xmlFilePath String
+	 * @return HocrPages the pages, or null if the binary file is missing or older than the HOCR xml
+	 */
+	public HocrPages read(final String xmlFilePath) {
+		HocrPages hocrPages = null;
+		File binaryFile = new File(getBinaryFilePath(xmlFilePath));
+		if (enabled && binaryFile.exists()) {
+			try {
+				ByteBuffer buffer = readFully(binaryFile);
+				long[] stamp = readStamp(buffer);
+				long[] currentStamp = FileStamp.refresh(stamp, xmlFilePath);
+				if (currentStamp != null) {
+					hocrPages = decode(buffer);
+					if (!Arrays.equals(stamp, currentStamp)) {
+						writeStamp(binaryFile, currentStamp);
+					}
+				}
+			} catch (IOException e) {
+				LOGGER.error("Unable to read the binary hOCR file " + binaryFile + ". " + e.getMessage(), e);
+			} catch (BufferUnderflowException e) {
+				LOGGER.error("Binary hOCR file " + binaryFile + " is truncated.");
+			}
+			if (hocrPages == null) {
+				LOGGER.debug("Binary hOCR file " + binaryFile + " is not current, reading " + xmlFilePath);
+			}
+		}
+		return hocrPages;
+	}
+
+	/**
+	 * To write the binary file of a HOCR xml. It must be called after the HOCR xml has been written. Pages which cannot be stored are
+	 * left to the HOCR xml.
+	 * 
+	 * @param hocrPages HocrPages
+	 * @param xmlFilePath String
+	 */
+	public void write(final HocrPages hocrPages, final String xmlFilePath) {
+		if (enabled && hocrPages != null) {
+			File binaryFile = new File(getBinaryFilePath(xmlFilePath));
+			File tempFile = new File(binaryFile.getPath() + ".tmp");
+			try {
+				if (encode(hocrPages, FileStamp.capture(xmlFilePath), tempFile)) {
+					if (binaryFile.exists() && !binaryFile.delete() || !tempFile.renameTo(binaryFile)) {
+						LOGGER.error("Unable to store the binary hOCR file " + binaryFile);
+					}
+				} else {
+					binaryFile.delete();
+				}
+			} catch (IOException e) {
+				LOGGER.error("Unable to write the binary hOCR file " + binaryFile + ". " + e.getMessage(), e);
+				binaryFile.delete();
+			} finally {
+				tempFile.delete();
+			}
+		}
+	}
+
+	private static ByteBuffer readFully(final File binaryFile) throws IOException {
+		FileInputStream inputStream = new FileInputStream(binaryFile);
+		try {
+			FileChannel channel = inputStream.getChannel();
+			ByteBuffer buffer = ByteBuffer.allocate((int) channel.size());
+			while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+				continue;
+			}
+			buffer.flip();
+			return buffer;
+		} finally {
+			inputStream.close();
+		}
+	}
+
+	private static long[] readStamp(final ByteBuffer buffer) {
+		long[] stamp = null;
+		if (buffer.getInt() == FILE_MAGIC && buffer.getInt() == FILE_VERSION) {
+			stamp = new long[FileStamp.STAMP_LENGTH];
+			for (int index = 0; index < stamp.length; index++) {
+				stamp[index] = buffer.getLong();
+			}
+		}
+		return stamp;
+	}
+
+	private static void writeStamp(final File binaryFile, final long[] stamp) {
+		try {
+			RandomAccessFile file = new RandomAccessFile(binaryFile, "rw");
+			try {
+				file.seek(STAMP_OFFSET);
+				for (long stampValue : stamp) {
+					file.writeLong(stampValue);
+				}
+			} finally {
+				file.close();
+			}
+		} catch (IOException e) {
+			LOGGER.debug("Unable to update the stamp of the binary hOCR file " + binaryFile + ". " + e.getMessage());
+		}
+	}
+
+	private static HocrPages decode(final ByteBuffer buffer) throws IOException {
+		String[] strings = new String[buffer.getInt()];
+		byte[] bytes = buffer.array();
+		for (int index = 0; index < strings.length; index++) {
+			int length = buffer.getInt();
+			strings[index] = new String(bytes, buffer.arrayOffset() + buffer.position(), length, UTF_8);
+			buffer.position(buffer.position() + length);
+		}
+		HocrPages hocrPages = new HocrPages();
+		List<HocrPage> pageList = hocrPages.getHocrPage();
+		int pageCount = buffer.getInt();
+		for (int pageIndex = 0; pageIndex < pageCount; pageIndex++) {
+			HocrPage hocrPage = new HocrPage();
+			hocrPage.setPageID(getString(strings, buffer.getInt()));
+			hocrPage.setTitle(getString(strings, buffer.getInt()));
+			hocrPage.setHocrContent(getString(strings, buffer.getInt()));
+			int spanCount = buffer.getInt();
+			if (spanCount != NULL_INDEX) {
+				int[] values = getInts(buffer, spanCount);
+				int[] x0 = getInts(buffer, spanCount);
+				int[] y0 = getInts(buffer, spanCount);
+				int[] x1 = getInts(buffer, spanCount);
+				int[] y1 = getInts(buffer, spanCount);
+				Spans spans = new Spans();
+				List<Span> spanList = spans.getSpan();
+				for (int spanIndex = 0; spanIndex < spanCount; spanIndex++) {
+					Span span = new Span();
+					span.setValue(getString(strings, values[spanIndex]));
+					if (x0[spanIndex] != NO_COORDINATE || y0[spanIndex] != NO_COORDINATE || x1[spanIndex] != NO_COORDINATE
+							|| y1[spanIndex] != NO_COORDINATE) {
+						Coordinates coordinates = new Coordinates();
+						coordinates.setX0(toBigInteger(x0[spanIndex]));
+						coordinates.setY0(toBigInteger(y0[spanIndex]));
+						coordinates.setX1(toBigInteger(x1[spanIndex]));
+						coordinates.setY1(toBigInteger(y1[spanIndex]));
+						span.setCoordinates(coordinates);
+					}
+					spanList.add(span);
+				}
+				hocrPage.setSpans(spans);
+			}
+			pageList.add(hocrPage);
+		}
+		return hocrPages;
+	}
+
+	private static boolean encode(final HocrPages hocrPages, final long[] xmlDiskStamp, final File file) throws IOException {
+		Map<String, Integer> stringIndexes = new HashMap<String, Integer>();
+		List<String> strings = new ArrayList<String>();
+		List<int[]> pageValues = new ArrayList<int[]>();
+		for (HocrPage hocrPage : hocrPages.getHocrPage()) {
+			pageValues.add(new int[] {getIndex(hocrPage.getPageID(), stringIndexes, strings),
+					getIndex(hocrPage.getTitle(), stringIndexes, strings), getIndex(hocrPage.getHocrContent(), stringIndexes, strings)});
+			if (hocrPage.getSpans() != null) {
+				List<Span> spanList = hocrPage.getSpans().getSpan();
+				int[] spanColumns = new int[spanList.size() * SPAN_COLUMNS];
+				int offset = 0;
+				for (Span span : spanList) {
+					spanColumns[offset++] = getIndex(span.getValue(), stringIndexes, strings);
+					Coordinates coordinates = span.getCoordinates();
+					BigInteger[] coordinateValues = new BigInteger[SPAN_COLUMNS - 1];
+					if (coordinates != null) {
+						coordinateValues = new BigInteger[] {coordinates.getX0(), coordinates.getY0(), coordinates.getX1(),
+								coordinates.getY1()};
+					}
+					for (BigInteger value : coordinateValues) {
+						if (value != null && (value.bitLength() > INT_BITS || value.intValue() == NO_COORDINATE)) {
+							return false;
+						}
+						spanColumns[offset++] = value == null ? NO_COORDINATE : value.intValue();
+					}
+				}
+				pageValues.add(spanColumns);
+			} else {
+				pageValues.add(null);
+			}
+		}
+
+		DataOutputStream outputStream = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+		try {
+			outputStream.writeInt(FILE_MAGIC);
+			outputStream.writeInt(FILE_VERSION);
+			for (long stampValue : xmlDiskStamp) {
+				outputStream.writeLong(stampValue);
+			}
+			outputStream.writeInt(strings.size());
+			for (String string : strings) {
+				byte[] bytes = string.getBytes(UTF_8);
+				outputStream.writeInt(bytes.length);
+				outputStream.write(bytes);
+			}
+			outputStream.writeInt(hocrPages.getHocrPage().size());
+			for (int index = 0; index < pageValues.size(); index += 2) {
+				for (int value : pageValues.get(index)) {
+					outputStream.writeInt(value);
+				}
+				int[] spanColumns = pageValues.get(index + 1);
+				if (spanColumns == null) {
+					outputStream.writeInt(NULL_INDEX);
+				} else {
+					int spanCount = spanColumns.length / SPAN_COLUMNS;
+					outputStream.writeInt(spanCount);
+					for (int column = 0; column < SPAN_COLUMNS; column++) {
+						for (int spanIndex = 0; spanIndex < spanCount; spanIndex++) {
+							outputStream.writeInt(spanColumns[spanIndex * SPAN_COLUMNS + column]);
+						}
+					}
+				}
+			}
+		} finally {
+			outputStream.close();
+		}
+		return true;
+	}
+
+	private static int getIndex(final String string, final Map<String, Integer> stringIndexes, final List<String> strings) {
+		int index = NULL_INDEX;
+		if (string != null) {
+			Integer existingIndex = stringIndexes.get(string);
+			if (existingIndex == null) {
+				index = strings.size();
+				strings.add(string);
+				stringIndexes.put(string, Integer.valueOf(index));
+			} else {
+				index = existingIndex.intValue();
+			}
+		}
+		return index;
+	}
+
+	private static String getString(final String[] strings, final int index) {
+		return index == NULL_INDEX ? null : strings[index];
+	}
+
+	private static int[] getInts(final ByteBuffer buffer, final int count) {
+		int[] values = new int[count];
+		buffer.asIntBuffer().get(values);
+		buffer.position(buffer.position() + count * INT_BYTES);
+		return values;
+	}
+
+	private static BigInteger toBigInteger(final int value) {
+		BigInteger bigInteger = null;
+		if (value >= 0 && value < SHARED_COORDINATES) {
+			bigInteger = SHARED_VALUES[value];
+			if (bigInteger == null) {
+				bigInteger = BigInteger.valueOf(value);
+				SHARED_VALUES[value] = bigInteger;
+			}
+		} else if (value != NO_COORDINATE) {
+			bigInteger = BigInteger.valueOf(value);
+		}
+		return bigInteger;
+	}
+}
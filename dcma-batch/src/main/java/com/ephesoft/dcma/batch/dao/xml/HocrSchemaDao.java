@@ -35,16 +35,21 @@
 
 package com.ephesoft.dcma.batch.dao.xml;
 
+import java.io.File;
+import java.io.Serializable;
+
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Repository;
 
 import com.ephesoft.dcma.batch.schema.HocrPages;
+import com.ephesoft.dcma.core.component.ICommonConstants;
 import com.ephesoft.dcma.core.component.JAXB2Template;
 import com.ephesoft.dcma.core.dao.xml.XmlDao;
 
 /**
- * This class is used to read HOCR object.
+ * This class is used to read HOCR object. Every HOCR xml of a page is accompanied by a compact binary file, which is read instead of
+ * the xml while the xml is unchanged.
  * 
  * @author Ephesoft
  * @version 1.0
@@ -60,6 +65,13 @@ public class HocrSchemaDao extends XmlDao<HocrPages> {
 	@Qualifier("hocrJAXB2Template")
 	private JAXB2Template jaxb2Template;
 
+	/**
+	 * hocrBinaryStore HocrBinaryStore.
+	 */
+	@Autowired
+	@Qualifier("hocrBinaryStore")
+	private HocrBinaryStore hocrBinaryStore;
+
 	/**
 	 * To get JAXB2 object.
 	 * @return JAXB2Template
@@ -69,4 +81,66 @@ public class HocrSchemaDao extends XmlDao<HocrPages> {
 		return this.jaxb2Template;
 	}
 
+	/**
+	 * To create the HOCR xml and its binary file.
+	 * @param hocrPages HocrPages
+	 * @param identifier Serializable
+	 * @param pageId String
+	 * @param fileName String
+	 * @param isFirstTimeUpdate boolean
+	 * @param localFolderPath String
+	 */
+	@Override
+	public void create(HocrPages hocrPages, Serializable identifier, String pageId, String fileName, boolean isFirstTimeUpdate,
+			String localFolderPath) {
+		super.create(hocrPages, identifier, pageId, fileName, isFirstTimeUpdate, localFolderPath);
+		hocrBinaryStore.write(hocrPages, getFilePath(identifier, pageId, fileName, localFolderPath));
+	}
+
+	/**
+	 * To read the HOCR pages, from the binary file if it is current. A missing binary file is written from the xml.
+	 * @param identifier Serializable
+	 * @param pageId String
+	 * @param fileName String
+	 * @param localFolder String
+	 * @return HocrPages
+	 */
+	@Override
+	protected HocrPages read(Serializable identifier, String pageId, String fileName, String localFolder) {
+		String filePath = getFilePath(identifier, pageId, fileName, localFolder);
+		HocrPages hocrPages = hocrBinaryStore.read(filePath);
+		if (hocrPages == null) {
+			hocrPages = super.read(identifier, pageId, fileName, localFolder);
+			hocrBinaryStore.write(hocrPages, filePath);
+		}
+		return hocrPages;
+	}
+
+	/**
+	 * To write the HOCR xml and its binary file.
+	 * @param hocrPages HocrPages
+	 * @param identifier Serializable
+	 * @param fileName String
+	 * @param pageId String
+	 * @param isFirstTimeUpdate boolean
+	 * @param localFolder String
+	 */
+	@Override
+	protected void write(HocrPages hocrPages, Serializable identifier, String fileName, String pageId, boolean isFirstTimeUpdate,
+			String localFolder) {
+		super.write(hocrPages, identifier, fileName, pageId, isFirstTimeUpdate, localFolder);
+		hocrBinaryStore.write(hocrPages, getFilePath(identifier, pageId, fileName, localFolder));
+	}
+
+	private String getFilePath(Serializable identifier, String pageId, String fileName, String localFolder) {
+		String filePath = null;
+		if (null == pageId) {
+			filePath = getFilePath(identifier, fileName, localFolder);
+		} else {
+			filePath = localFolder + File.separator + identifier + File.separator + identifier + ICommonConstants.UNDERSCORE + pageId
+					+ fileName;
+		}
+		return filePath;
+	}
+
 }
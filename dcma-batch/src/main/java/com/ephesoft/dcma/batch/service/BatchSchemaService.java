@@ -49,6 +49,7 @@ import javax.xml.xpath.XPathExpressionException;
 import org.xml.sax.SAXException;
 
 import com.ephesoft.dcma.batch.schema.Batch;
+import com.ephesoft.dcma.batch.schema.Document;
 import com.ephesoft.dcma.batch.schema.HocrPages;
 import com.ephesoft.dcma.batch.schema.Document.DocumentLevelFields;
 import com.ephesoft.dcma.batch.schema.HocrPages.HocrPage;
@@ -228,6 +229,47 @@ public interface BatchSchemaService {
 	 */
 	void updateBatch(Batch batch, boolean isFirstTimeUpdate);
 
+	/**
+	 * An API to keep the updates of the Batch object in memory till {@link #endBatchWriteBehind(String)} is called. Has no effect
+	 * unless write-behind of the batch xml cache is switched on.
+	 * 
+	 * @param batchInstanceIdentifier {@link String}
+	 */
+	void beginBatchWriteBehind(String batchInstanceIdentifier);
+
+	/**
+	 * An API to stop keeping the updates of the Batch object in memory and write the pending updates. In the segmented storage mode
+	 * only the changed segments and the index are written.
+	 * 
+	 * @param batchInstanceIdentifier {@link String}
+	 */
+	void endBatchWriteBehind(String batchInstanceIdentifier);
+
+	/**
+	 * An API to write the pending updates of the Batch object. In the segmented storage mode only the changed segments and the index
+	 * are written.
+	 * 
+	 * @param batchInstanceIdentifier {@link String}
+	 */
+	void flushBatch(String batchInstanceIdentifier);
+
+	/**
+	 * An API to write the pending updates of the Batch object and bring the batch xml up to date with the segments of the batch, for
+	 * code reading the batch xml straight from disk. Writes nothing when the batch xml is up to date already.
+	 * 
+	 * @param batchInstanceIdentifier {@link String}
+	 */
+	void writeBatchXml(String batchInstanceIdentifier);
+
+	/**
+	 * An API to get a single Document of the batch. Only the document is read when the batch is stored as segments.
+	 * 
+	 * @param batchInstanceIdentifier {@link String}
+	 * @param documentIdentifier {@link String}
+	 * @return {@link Document} the document, or null if the batch has no such document
+	 */
+	Document getDocument(String batchInstanceIdentifier, String documentIdentifier);
+
 	/**
 	 * An API to fetch BatchClass by id.
 	 * 
@@ -544,11 +586,12 @@ public interface BatchSchemaService {
 	String getTestKVExtractionFolderPath(BatchClassID batchClassID, boolean createDirectory);
 
 	/**
-	 * This API is used to generate the HocrPage object for input hocr file.
+	 * This API is used to generate the HocrPage object for input hocr file. The hocr file is read in one streaming pass, no
+	 * intermediate file is written.
 	 * 
 	 * @param pageName {@link String}
 	 * @param pathOfHOCRFile {@link String}
-	 * @param outputFilePath {@link String}
+	 * @param outputFilePath {@link String} must not be null, kept for compatibility
 	 * @param batchClassIdentifier
 	 * @param ocrEngineName
 	 * @return {@link HocrPage}
@@ -41,7 +41,6 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Serializable;
-import java.math.BigInteger;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.ArrayList;
@@ -53,14 +52,10 @@ import javax.xml.transform.TransformerException;
 import javax.xml.xpath.XPathExpressionException;
 
 import org.apache.commons.io.FileUtils;
-import org.apache.commons.io.IOUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
-import org.w3c.dom.NamedNodeMap;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
 import org.xml.sax.SAXException;
 
 import com.ephesoft.dcma.batch.constant.BatchConstants;
@@ -68,7 +63,6 @@ import com.ephesoft.dcma.batch.dao.impl.BatchPluginPropertyContainer.BatchPlugin
 import com.ephesoft.dcma.batch.dao.xml.BatchSchemaDao;
 import com.ephesoft.dcma.batch.dao.xml.HocrSchemaDao;
 import com.ephesoft.dcma.batch.schema.Batch;
-import com.ephesoft.dcma.batch.schema.Coordinates;
 import com.ephesoft.dcma.batch.schema.DocField;
 import com.ephesoft.dcma.batch.schema.Document;
 import com.ephesoft.dcma.batch.schema.Field;
@@ -78,8 +72,6 @@ import com.ephesoft.dcma.batch.schema.DocField.AlternateValues;
 import com.ephesoft.dcma.batch.schema.Document.DocumentLevelFields;
 import com.ephesoft.dcma.batch.schema.Document.Pages;
 import com.ephesoft.dcma.batch.schema.HocrPages.HocrPage;
-import com.ephesoft.dcma.batch.schema.HocrPages.HocrPage.Spans;
-import com.ephesoft.dcma.batch.schema.HocrPages.HocrPage.Spans.Span;
 import com.ephesoft.dcma.batch.schema.Page.PageLevelFields;
 import com.ephesoft.dcma.core.DCMAException;
 import com.ephesoft.dcma.core.EphesoftProperty;
@@ -111,10 +103,8 @@ import com.ephesoft.dcma.util.CustomFileFilter;
 import com.ephesoft.dcma.util.FileFormatException;
 import com.ephesoft.dcma.util.FileNameFormatter;
 import com.ephesoft.dcma.util.IUtilCommonConstants;
-import com.ephesoft.dcma.util.OCREngineUtil;
 import com.ephesoft.dcma.util.PDFUtil;
 import com.ephesoft.dcma.util.TIFFUtil;
-import com.ephesoft.dcma.util.XMLUtil;
 import com.itextpdf.text.DocumentException;
 
 /**
@@ -483,6 +473,99 @@ public class BatchSchemaServiceImpl implements BatchSchemaService {
 		}
 	}
 
+	/**
+	 * An API to keep the updates of the Batch object in memory till {@link #endBatchWriteBehind(String)} is called.
+	 * 
+	 * @param batchInstanceIdentifier String
+	 */
+	@Override
+	public void beginBatchWriteBehind(final String batchInstanceIdentifier) {
+		if (null == batchInstanceIdentifier) {
+			LOGGER.info(BatchConstants.BATCH_INSTANCE_ID_NULL);
+		} else {
+			this.batchSchemaDao.beginDeferredWrites(batchInstanceIdentifier);
+		}
+	}
+
+	/**
+	 * An API to stop keeping the updates of the Batch object in memory and write the pending updates. In the segmented storage mode
+	 * only the changed segments and the index are written.
+	 * 
+	 * @param batchInstanceIdentifier String
+	 */
+	@Override
+	public void endBatchWriteBehind(final String batchInstanceIdentifier) {
+		if (null == batchInstanceIdentifier) {
+			LOGGER.info(BatchConstants.BATCH_INSTANCE_ID_NULL);
+		} else {
+			this.batchSchemaDao.endDeferredWrites(batchInstanceIdentifier);
+		}
+	}
+
+	/**
+	 * An API to write the pending updates of the Batch object. In the segmented storage mode only the changed segments and the index
+	 * are written.
+	 * 
+	 * @param batchInstanceIdentifier String
+	 */
+	@Override
+	public void flushBatch(final String batchInstanceIdentifier) {
+		if (null == batchInstanceIdentifier) {
+			LOGGER.info(BatchConstants.BATCH_INSTANCE_ID_NULL);
+		} else {
+			this.batchSchemaDao.flush(batchInstanceIdentifier);
+		}
+	}
+
+	/**
+	 * An API to write the pending updates of the Batch object and bring the batch xml up to date with the segments of the batch, for
+	 * code reading the batch xml straight from disk.
+	 * 
+	 * @param batchInstanceIdentifier String
+	 */
+	@Override
+	public void writeBatchXml(final String batchInstanceIdentifier) {
+		if (null == batchInstanceIdentifier) {
+			LOGGER.info(BatchConstants.BATCH_INSTANCE_ID_NULL);
+		} else {
+			this.batchSchemaDao.flush(batchInstanceIdentifier);
+			this.batchSchemaDao.writeBatchXml(batchInstanceIdentifier, batchInstanceService
+					.getSystemFolderForBatchInstanceId(batchInstanceIdentifier));
+		}
+	}
+
+	/**
+	 * An API to get a single Document of the batch.
+	 * 
+	 * @param batchInstanceIdentifier String
+	 * @param documentIdentifier String
+	 * @return Document
+	 */
+	@Override
+	public Document getDocument(final String batchInstanceIdentifier, final String documentIdentifier) {
+		Document document = null;
+		if (null == batchInstanceIdentifier || null == documentIdentifier) {
+			LOGGER.info(BatchConstants.BATCH_INSTANCE_ID_NULL);
+		} else {
+			document = this.batchSchemaDao.getDocument(batchInstanceIdentifier, documentIdentifier, batchInstanceService
+					.getSystemFolderForBatchInstanceId(batchInstanceIdentifier));
+		}
+		return document;
+	}
+
+	/**
+	 * To write the pending updates of the batch before its batch xml is read straight from disk.
+	 * 
+	 * @param batchInstanceIdentifier String
+	 * @param fileName String
+	 */
+	private void flushBatchXmlFile(final String batchInstanceIdentifier, final String fileName) {
+		if (null != batchInstanceIdentifier && null != fileName
+				&& fileName.startsWith(batchInstanceIdentifier + ICommonConstants.UNDERSCORE_BATCH_XML)) {
+			writeBatchXml(batchInstanceIdentifier);
+		}
+	}
+
 	/**
 	 * An API to store all files to base folder location.
 	 * 
@@ -589,6 +672,7 @@ public class BatchSchemaServiceImpl implements BatchSchemaService {
 			throw new DCMABusinessException(errMsg);
 		}
 
+		flushBatchXmlFile(batchInstanceIdentifier, fileName);
 		URL url = null;
 		final String pathName = getBatchFolderURL(batchInstanceIdentifier) + BatchConstants.SLASH + batchInstanceIdentifier
 				+ BatchConstants.SLASH + fileName;
@@ -622,6 +706,7 @@ public class BatchSchemaServiceImpl implements BatchSchemaService {
 			throw new DCMABusinessException(errMsg);
 		}
 
+		flushBatchXmlFile(batchInstanceIdentifier, fileName);
 		File file = null;
 		final String pathName = batchInstanceService.getSystemFolderForBatchInstanceId(batchInstanceIdentifier) + File.separator
 				+ batchInstanceIdentifier + File.separator + fileName;
@@ -660,6 +745,7 @@ public class BatchSchemaServiceImpl implements BatchSchemaService {
 		String errMsg = null;
 
 		InputStream inputStream = null;
+		flushBatchXmlFile(batchInstanceIdentifier, fileName);
 		final String pathName = batchInstanceService.getSystemFolderForBatchInstanceId(batchInstanceIdentifier) + File.separator
 				+ batchInstanceIdentifier + File.separator + fileName;
 
@@ -2190,21 +2276,15 @@ public class BatchSchemaServiceImpl implements BatchSchemaService {
 				+ File.separator + batchInstanceIdentifier + File.separator;
 
 		final Batch batch = getBatch(batchInstanceIdentifier);
-		String outputFileName = "tempFile";
-		String outputFilePath = null;
 
 		final List<Document> xmlDocuments = batch.getDocuments().getDocument();
 		final BatchInstanceThread batchInstanceThread = new BatchInstanceThread(batchInstanceIdentifier);
-		outputFilePath = actualFolderLocation + outputFileName;
-		String outputFilePathLocal = null;
 		if (null != xmlDocuments) {
 			for (final Document document : xmlDocuments) {
 				final List<Page> listOfPages = document.getPages().getPage();
 				if (null != listOfPages) {
 					for (final Page page : listOfPages) {
-						outputFilePathLocal = outputFilePath + page.getIdentifier();
-						hOCRGenerationUsingThreadpool(batchInstanceThread, batchInstanceIdentifier, actualFolderLocation,
-								outputFilePathLocal, page);
+						hOCRGenerationUsingThreadpool(batchInstanceThread, batchInstanceIdentifier, actualFolderLocation, page);
 					}
 				}
 			}
@@ -2223,7 +2303,7 @@ public class BatchSchemaServiceImpl implements BatchSchemaService {
 	}
 
 	private void hOCRGenerationUsingThreadpool(final BatchInstanceThread batchInstanceThread, final String batchInstanceIdentifier,
-			final String actualFolderLocation, final String outputFilePath, final Page page) {
+			final String actualFolderLocation, final Page page) {
 		batchInstanceThread.add(new AbstractRunnable() {
 
 			@Override
@@ -2231,7 +2311,6 @@ public class BatchSchemaServiceImpl implements BatchSchemaService {
 				String pageID;
 				String hocrFileName;
 				String pathOfHOCRFile;
-				FileInputStream inputStream = null;
 				final HocrPages hocrPages = new HocrPages();
 				final List<HocrPage> hocrPageList = hocrPages.getHocrPage();
 
@@ -2243,27 +2322,13 @@ public class BatchSchemaServiceImpl implements BatchSchemaService {
 				pathOfHOCRFile = actualFolderLocation + hocrFileName;
 				LOGGER.info("Creating hOCR for page : " + pageID);
 				try {
-					inputStream = hocrGenerationInternal(actualFolderLocation, outputFilePath, pageID, pathOfHOCRFile, hocrPage);
+					hocrGenerationInternal(pathOfHOCRFile, hocrPage);
 				} catch (final IOException e) {
 					LOGGER.error(e.getMessage(), e);
 				} catch (final Exception e) {
 					LOGGER.error(e.getMessage(), e);
-				} finally {
-					try {
-						if (inputStream != null) {
-							inputStream.close();
-						}
-					} catch (final IOException e) {
-						LOGGER.error(e.getMessage(), e);
-					}
 				}
 				createHocr(hocrPages, batchInstanceIdentifier, pageID);
-				try {
-					LOGGER.info("Deleting temp file : " + outputFilePath);
-					FileUtils.forceDelete(new File(outputFilePath));
-				} catch (final IOException e) {
-					LOGGER.info("Deleting the temp file." + e.getMessage());
-				}
 			}
 
 		});
@@ -2287,99 +2352,28 @@ public class BatchSchemaServiceImpl implements BatchSchemaService {
 	public void hocrGenerationAPI(final String workingDir, final String pageID, final String pathOfHOCRFile, final HocrPage hocrPage)
 			throws FileNotFoundException, IOException, XPathExpressionException, TransformerException, ParserConfigurationException,
 			SAXException {
-		final String outputFilePath = workingDir + File.separator + "tempFile" + pageID;
-		FileInputStream fileInputStream = null;
-		try {
-			fileInputStream = hocrGenerationInternal(workingDir, outputFilePath, pageID, pathOfHOCRFile, hocrPage);
-		} finally {
-			if (fileInputStream != null) {
-				fileInputStream.close();
-			}
-		}
+		hocrGenerationInternal(pathOfHOCRFile, hocrPage);
 	}
 
 	/**
-	 * Method extracted to be reused for Ephesoft Web Services.
+	 * Method extracted to be reused for Ephesoft Web Services. The hOCR is read in one streaming pass, in the format written by
+	 * Tesseract 3.
 	 * 
-	 * @param actualFolderLocation
-	 * @param outputFilePath
-	 * @param pageID
 	 * @param pathOfHOCRFile
 	 * @param hocrPage
-	 * @return FileInputStream
 	 * @throws IOException
-	 * @throws TransformerException
-	 * @throws XPathExpressionException
-	 * @throws SAXException
-	 * @throws ParserConfigurationException
 	 */
-	private FileInputStream hocrGenerationInternal(final String actualFolderLocation, final String outputFilePath,
-			final String pageID, final String pathOfHOCRFile, final HocrPage hocrPage) throws XPathExpressionException,
-			TransformerException, IOException, ParserConfigurationException, SAXException {
-
-		XMLUtil.htmlOutputStream(pathOfHOCRFile, outputFilePath);
-		OCREngineUtil.formatHOCRForTesseract(outputFilePath, actualFolderLocation, pageID);
-
-		final FileInputStream inputStream = new FileInputStream(outputFilePath);
-		final org.w3c.dom.Document doc = XMLUtil.createDocumentFrom(inputStream);
-		final NodeList titleNodeList = doc.getElementsByTagName(BatchConstants.TITLE);
-		if (null != titleNodeList) {
-			for (int index = 0; index < titleNodeList.getLength(); index++) {
-				final Node node = titleNodeList.item(index);
-				final NodeList childNodeList = node.getChildNodes();
-				final Node nodeChild = childNodeList.item(BatchConstants.ZERO);
-				if (null != nodeChild) {
-					final String value = nodeChild.getNodeValue();
-					if (value != null) {
-						hocrPage.setTitle(value);
-						break;
-					}
-				}
-			}
-		}
-
-		final NodeList spanNodeList = doc.getElementsByTagName("span");
-		final Spans spans = new Spans();
-		hocrPage.setSpans(spans);
-		final List<Span> spanList = spans.getSpan();
-		if (null != spanNodeList) {
-			final StringBuilder hocrContent = new StringBuilder();
-			for (int index = BatchConstants.ZERO; index < spanNodeList.getLength(); index++) {
-				final Node node = spanNodeList.item(index);
-				final NodeList childNodeList = node.getChildNodes();
-				final Node nodeChild = childNodeList.item(BatchConstants.ZERO);
-				final Span span = new Span();
-				if (null != nodeChild) {
-					final String value = nodeChild.getNodeValue();
-					span.setValue(value);
-					hocrContent.append(value);
-					hocrContent.append(BatchConstants.SPACE);
-				}
-				spanList.add(span);
-				final NamedNodeMap map = node.getAttributes();
-				final Node nMap = map.getNamedItem(BatchConstants.TITLE);
-				Coordinates hocrCoordinates = null;
-				hocrCoordinates = getHOCRCoordinates(nMap, hocrCoordinates);
-				if (null == hocrCoordinates) {
-					hocrCoordinates = new Coordinates();
-					hocrCoordinates.setX0(BigInteger.ZERO);
-					hocrCoordinates.setX1(BigInteger.ZERO);
-					hocrCoordinates.setY0(BigInteger.ZERO);
-					hocrCoordinates.setY1(BigInteger.ZERO);
-				}
-				span.setCoordinates(hocrCoordinates);
-			}
-			hocrPage.setHocrContent(hocrContent.toString());
-		}
-		return inputStream;
+	private void hocrGenerationInternal(final String pathOfHOCRFile, final HocrPage hocrPage) throws IOException {
+		HocrReader.read(pathOfHOCRFile, hocrPage, true);
 	}
 
 	/**
-	 * This API is used to generate the HocrPage object for input hocr file.
+	 * This API is used to generate the HocrPage object for input hocr file. The hocr file is read in one streaming pass, no
+	 * intermediate file is written.
 	 * 
 	 * @param pageName {@link String}
 	 * @param pathOfHOCRFile {@link String}
-	 * @param outputFilePath {@link String}
+	 * @param outputFilePath {@link String} must not be null, kept for compatibility
 	 * @param batchClassIdentifier {@link String}
 	 * @param ocrEngineName {@link String}
 	 * @return {@link HocrPage}
@@ -2401,95 +2395,18 @@ public class BatchSchemaServiceImpl implements BatchSchemaService {
 		}
 		final HocrPage hocrPage = new HocrPage();
 		hocrPage.setPageID(pageName);
-		FileInputStream inputStream = null;
 		try {
-			if (ocrEngineName.equalsIgnoreCase(IUtilCommonConstants.TESSERACT_HOCR_PLUGIN)
-					&& tesseractVersion.equalsIgnoreCase(TesseractVersionProperty.TESSERACT_VERSION_3.getPropertyKey())) {
-				XMLUtil.htmlOutputStream(pathOfHOCRFile, outputFilePath);
-				final String actualFolderLocation = new File(outputFilePath).getParent();
-				OCREngineUtil.formatHOCRForTesseract(outputFilePath, actualFolderLocation, pageName);
-			} else {
-				XMLUtil.htmlOutputStream(pathOfHOCRFile, outputFilePath);
-			}
-			inputStream = new FileInputStream(outputFilePath);
-			final org.w3c.dom.Document doc = XMLUtil.createDocumentFrom(inputStream);
-			final NodeList titleNodeList = doc.getElementsByTagName(BatchConstants.TITLE);
-			if (null != titleNodeList) {
-				for (int index = BatchConstants.ZERO; index < titleNodeList.getLength(); index++) {
-					final Node node = titleNodeList.item(index);
-					final NodeList childNodeList = node.getChildNodes();
-					final Node nodeChild = childNodeList.item(BatchConstants.ZERO);
-					if (null != nodeChild) {
-						final String value = nodeChild.getNodeValue();
-						if (value != null) {
-							hocrPage.setTitle(value);
-							break;
-						}
-					}
-				}
-			}
-
-			final NodeList spanNodeList = doc.getElementsByTagName("span");
-			final Spans spans = new Spans();
-			hocrPage.setSpans(spans);
-			final List<Span> spanList = spans.getSpan();
-			if (null != spanNodeList) {
-				final StringBuilder hocrContent = new StringBuilder();
-				for (int index = 0; index < spanNodeList.getLength(); index++) {
-					final Node node = spanNodeList.item(index);
-					final NodeList childNodeList = node.getChildNodes();
-					final Node nodeChild = childNodeList.item(BatchConstants.ZERO);
-					final Span span = new Span();
-					if (null != nodeChild) {
-						final String value = nodeChild.getNodeValue();
-						span.setValue(value);
-						hocrContent.append(value);
-						hocrContent.append(BatchConstants.SPACE);
-					}
-					spanList.add(span);
-					final NamedNodeMap map = node.getAttributes();
-					final Node nMap = map.getNamedItem(BatchConstants.TITLE);
-					Coordinates hocrCoordinates = null;
-					hocrCoordinates = getHOCRCoordinates(nMap, hocrCoordinates);
-					if (null == hocrCoordinates) {
-						hocrCoordinates = new Coordinates();
-						hocrCoordinates.setX0(BigInteger.ZERO);
-						hocrCoordinates.setX1(BigInteger.ZERO);
-						hocrCoordinates.setY0(BigInteger.ZERO);
-						hocrCoordinates.setY1(BigInteger.ZERO);
-					}
-					span.setCoordinates(hocrCoordinates);
-				}
-				hocrPage.setHocrContent(hocrContent.toString());
-			}
+			final boolean isTesseractFormat = ocrEngineName.equalsIgnoreCase(IUtilCommonConstants.TESSERACT_HOCR_PLUGIN)
+					&& tesseractVersion.equalsIgnoreCase(TesseractVersionProperty.TESSERACT_VERSION_3.getPropertyKey());
+			HocrReader.read(pathOfHOCRFile, hocrPage, isTesseractFormat);
 		} catch (final IOException e) {
 			LOGGER.error(e.getMessage(), e);
 		} catch (final Exception e) {
 			LOGGER.error(e.getMessage(), e);
-		} finally {
-			IOUtils.closeQuietly(inputStream);
 		}
 		return hocrPage;
 	}
 
-	private Coordinates getHOCRCoordinates(final Node nMap, Coordinates hocrCoordinates) {
-		Coordinates localHocrCoordinates = hocrCoordinates;
-		try {
-			final String coordinates = nMap.getNodeValue();
-			final String[] arr = coordinates.split(BatchConstants.SPACE);
-			if (null != arr && arr.length >= 4) {
-				localHocrCoordinates = new Coordinates();
-				localHocrCoordinates.setX0(new BigInteger(arr[1]));
-				localHocrCoordinates.setX1(new BigInteger(arr[3]));
-				localHocrCoordinates.setY0(new BigInteger(arr[2]));
-				localHocrCoordinates.setY1(new BigInteger(arr[4]));
-			}
-		} catch (final Exception e) {
-			LOGGER.error(e.getMessage(), e);
-		}
-		return localHocrCoordinates;
-	}
-
 	/**
 	 * An API to fetch the image URL's excluding the imagename.
 	 * 
@@ -0,0 +1,517 @@
+/********************************************************************************* 
+* Ephesoft is a Intelligent Document Capture and Mailroom Automation program 
+* developed by Ephesoft, Inc. Copyright (C) 2010-2012 Ephesoft Inc. 
+* 
+* This program is free software; you can redistribute it and/or modify it under 
+* the terms of the GNU Affero General Public License version 3 as published by the 
+* Free Software Foundation with the addition of the following permission added 
+* to Section 15 as permitted in Section 7(a): FOR ANY PART OF THE COVERED WORK 
+* IN WHICH THE COPYRIGHT IS OWNED BY EPHESOFT, EPHESOFT DISCLAIMS THE WARRANTY 
+* OF NON INFRINGEMENT OF THIRD PARTY RIGHTS. 
+* 
+* This program is distributed in the hope that it will be useful, but WITHOUT 
+* ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+* FOR A PARTICULAR PURPOSE.  See the GNU Affero General Public License for more 
+* details. 
+* 
+* You should have received a copy of the GNU Affero General Public License along with 
+* this program; if not, see http://www.gnu.org/licenses or write to the Free 
+* Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 
+* 02110-1301 USA. 
+* 
+* You can contact Ephesoft, Inc. headquarters at 111 Academy Way, 
+* Irvine, CA 92617, USA. or at email address info@ephesoft.com. 
+* 
+* The interactive user interfaces in modified source and object code versions 
+* of this program must display Appropriate Legal Notices, as required under 
+* Section 5 of the GNU Affero General Public License version 3. 
+* 
+* In accordance with Section 7(b) of the GNU Affero General Public License version 3, 
+* these Appropriate Legal Notices must retain the display of the "Ephesoft" logo. 
+* If the display of the logo is not reasonably feasible for 
+* technical reasons, the Appropriate Legal Notices must display the words 
+* "Powered by Ephesoft". 
+********************************************************************************/ 
+
+
+package com.ephesoft.dcma.batch.service;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.apache.commons.io.IOUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.ephesoft.dcma.batch.constant.BatchConstants;
+import com.ephesoft.dcma.batch.schema.Coordinates;
+import com.ephesoft.dcma.batch.schema.HocrPages.HocrPage;
+import com.ephesoft.dcma.batch.schema.HocrPages.HocrPage.Spans;
+import com.ephesoft.dcma.batch.schema.HocrPages.HocrPage.Spans.Span;
+import com.ephesoft.dcma.util.XMLUtil;
+
+/**
+ * This class reads the html hOCR output of an OCR engine straight into a {@link HocrPage} in one streaming pass, without building a DOM
+ * or writing intermediate files. The hOCR is parsed as it is when it is well formed xhtml, otherwise it is first cleaned in memory by
+ * the html parser configured for the application.
+ * 
+ * In Tesseract format only the words of the ocr_page divs are read, a word taking the text of its nested xocr_word or ocrx_word span,
+ * which is the result the former DOM based formatting for Tesseract produced.
+ * 
+ * @author Ephesoft
+ * @version 1.0
+ * @see com.ephesoft.dcma.batch.service.BatchSchemaServiceImpl
+ */
+public final class HocrReader {
+
+	/**
+	 * An instance of Logger for proper logging in this file.
+	 */
+	private static final Logger LOGGER = LoggerFactory.getLogger(HocrReader.class);
+
+	/**
+	 * Span element name.
+	 */
+	private static final String SPAN = "span";
+
+	/**
+	 * Div element name.
+	 */
+	private static final String DIV = "div";
+
+	/**
+	 * Class attribute name.
+	 */
+	private static final String CLASS_ATTR = "class";
+
+	/**
+	 * Id attribute name.
+	 */
+	private static final String ID_ATTR = "id";
+
+	/**
+	 * Class of the page divs.
+	 */
+	private static final String OCR_PAGE = "ocr_page";
+
+	/**
+	 * Class of the Tesseract word spans.
+	 */
+	private static final String OCR_WORD = "ocr_word";
+
+	/**
+	 * Class of the word text spans of Tesseract 3.00.
+	 */
+	private static final String XOCR_WORD = "xocr_word";
+
+	/**
+	 * Class of the word text spans of Tesseract 3.01 and later.
+	 */
+	private static final String OCRX_WORD = "ocrx_word";
+
+	/**
+	 * Number of values of a bounding box.
+	 */
+	private static final int BOX_VALUES = 4;
+
+	/**
+	 * Factory of the stream readers, configured not to load any DTD.
+	 */
+	private static final XMLInputFactory INPUT_FACTORY = createInputFactory();
+
+	private HocrReader() {
+		// Utility class.
+	}
+
+	private static XMLInputFactory createInputFactory() {
+		XMLInputFactory factory = XMLInputFactory.newInstance();
+		factory.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+		factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+		factory.setProperty(XMLInputFactory.IS_COALESCING, Boolean.TRUE);
+		return factory;
+	}
+
+	/**
+	 * API to read the title, spans and content of a html hOCR file into the hOCR page.
+	 * 
+	 * @param pathOfHOCRFile {@link String}
+	 * @param hocrPage {@link HocrPage}
+	 * @param isTesseractFormat boolean true if the hOCR is written by Tesseract 3
+	 * @throws IOException if the file cannot be read or parsed
+	 */
+	public static void read(final String pathOfHOCRFile, final HocrPage hocrPage, final boolean isTesseractFormat)
+			throws IOException {
+		InputStream inputStream = new BufferedInputStream(new FileInputStream(pathOfHOCRFile));
+		boolean isRead = false;
+		try {
+			isRead = read(inputStream, hocrPage, isTesseractFormat);
+		} finally {
+			IOUtils.closeQuietly(inputStream);
+		}
+		if (!isRead) {
+			LOGGER.debug("hOCR file is not well formed, cleaning it : " + pathOfHOCRFile);
+			ByteArrayOutputStream cleanHtml = new ByteArrayOutputStream();
+			inputStream = new BufferedInputStream(new FileInputStream(pathOfHOCRFile));
+			try {
+				XMLUtil.htmlOutputStream(inputStream, cleanHtml);
+			} finally {
+				IOUtils.closeQuietly(inputStream);
+			}
+			if (!read(new ByteArrayInputStream(cleanHtml.toByteArray()), hocrPage, isTesseractFormat)) {
+				throw new IOException("Unable to parse hOCR file " + pathOfHOCRFile);
+			}
+		}
+	}
+
+	/**
+	 * API to read the title, spans and content of a well formed xhtml hOCR stream into the hOCR page. Nothing is set on the page if
+	 * the stream is not well formed.
+	 * 
+	 * @param inputStream {@link InputStream}
+	 * @param hocrPage {@link HocrPage}
+	 * @param isTesseractFormat boolean true if the hOCR is written by Tesseract 3
+	 * @return boolean false if the stream is not well formed
+	 */
+	public static boolean read(final InputStream inputStream, final HocrPage hocrPage, final boolean isTesseractFormat) {
+		boolean isRead = false;
+		XMLStreamReader reader = null;
+		try {
+			reader = INPUT_FACTORY.createXMLStreamReader(inputStream);
+			new PageParser(isTesseractFormat).parse(reader, hocrPage);
+			isRead = true;
+		} catch (XMLStreamException e) {
+			LOGGER.debug("Unable to parse hOCR stream : " + e.getMessage());
+		} finally {
+			if (reader != null) {
+				try {
+					reader.close();
+				} catch (XMLStreamException e) {
+					LOGGER.debug(e.getMessage());
+				}
+			}
+		}
+		return isRead;
+	}
+
+	/**
+	 * API to get the coordinates of the bounding box of a hOCR title attribute, e.g. "bbox 10 20 110 40; x_wconf 90".
+	 * 
+	 * @param title {@link String}
+	 * @return {@link Coordinates} all 0 if the title has no bounding box
+	 */
+	public static Coordinates getCoordinates(final String title) {
+		final long[] values = new long[BOX_VALUES];
+		boolean isValid = false;
+		if (title != null) {
+			int valueIndex = -1;
+			int index = 0;
+			final int length = title.length();
+			isValid = true;
+			while (valueIndex < BOX_VALUES && index < length && isValid) {
+				while (index < length && Character.isWhitespace(title.charAt(index))) {
+					index++;
+				}
+				final int start = index;
+				while (index < length && !Character.isWhitespace(title.charAt(index))) {
+					index++;
+				}
+				if (start < index && valueIndex >= 0) {
+					int end = index;
+					if (title.charAt(end - 1) == ';') {
+						end--;
+					}
+					isValid = end > start;
+					long value = 0;
+					for (int charIndex = start; charIndex < end && isValid; charIndex++) {
+						final int digit = Character.digit(title.charAt(charIndex), 10);
+						isValid = digit >= 0;
+						value = value * 10 + digit;
+					}
+					values[valueIndex] = value;
+				}
+				if (start < index) {
+					valueIndex++;
+				}
+			}
+			isValid = isValid && valueIndex == BOX_VALUES;
+		}
+		final Coordinates coordinates = new Coordinates();
+		coordinates.setX0(isValid ? BigInteger.valueOf(values[0]) : BigInteger.ZERO);
+		coordinates.setY0(isValid ? BigInteger.valueOf(values[1]) : BigInteger.ZERO);
+		coordinates.setX1(isValid ? BigInteger.valueOf(values[2]) : BigInteger.ZERO);
+		coordinates.setY1(isValid ? BigInteger.valueOf(values[3]) : BigInteger.ZERO);
+		return coordinates;
+	}
+
+	/**
+	 * The state of one pass over a hOCR stream.
+	 */
+	private static final class PageParser {
+
+		/**
+		 * true if the hOCR is written by Tesseract 3.
+		 */
+		private final boolean isTesseractFormat;
+
+		/**
+		 * Spans in document order.
+		 */
+		private final List<SpanState> spanStates = new ArrayList<SpanState>();
+
+		/**
+		 * Spans currently open, innermost first.
+		 */
+		private final LinkedList<SpanState> openSpans = new LinkedList<SpanState>();
+
+		/**
+		 * Title of the page.
+		 */
+		private String title;
+
+		/**
+		 * Text of the title element being read, null if none.
+		 */
+		private StringBuilder titleText;
+
+		/**
+		 * Depth of the title element being read.
+		 */
+		private int titleDepth = -1;
+
+		/**
+		 * Depth of the Tesseract page div being read, -1 if none.
+		 */
+		private int pageDepth = -1;
+
+		/**
+		 * Depth of the current element.
+		 */
+		private int depth;
+
+		PageParser(final boolean isTesseractFormat) {
+			this.isTesseractFormat = isTesseractFormat;
+		}
+
+		void parse(final XMLStreamReader reader, final HocrPage hocrPage) throws XMLStreamException {
+			while (reader.hasNext()) {
+				switch (reader.next()) {
+					case XMLStreamConstants.START_ELEMENT:
+						startElement(reader);
+						break;
+					case XMLStreamConstants.END_ELEMENT:
+						endElement();
+						break;
+					case XMLStreamConstants.CHARACTERS:
+					case XMLStreamConstants.CDATA:
+					case XMLStreamConstants.SPACE:
+						characters(reader);
+						break;
+					default:
+						break;
+				}
+			}
+			if (title != null) {
+				hocrPage.setTitle(title);
+			}
+			final Spans spans = new Spans();
+			hocrPage.setSpans(spans);
+			final List<Span> spanList = spans.getSpan();
+			final StringBuilder hocrContent = new StringBuilder();
+			for (SpanState spanState : spanStates) {
+				final String value = spanState.getValue();
+				if (value != null) {
+					spanState.span.setValue(value);
+					hocrContent.append(value);
+					hocrContent.append(BatchConstants.SPACE);
+				}
+				spanList.add(spanState.span);
+			}
+			hocrPage.setHocrContent(hocrContent.toString());
+		}
+
+		private void startElement(final XMLStreamReader reader) {
+			depth++;
+			if (titleText != null) {
+				endTitle();
+			}
+			final SpanState parentSpan = openSpans.peek();
+			if (parentSpan != null) {
+				parentSpan.childStarted();
+			}
+			final String name = reader.getLocalName();
+			if (SPAN.equals(name)) {
+				startSpan(reader, parentSpan);
+			} else if (DIV.equals(name)) {
+				if (isTesseractFormat && pageDepth < 0 && OCR_PAGE.equals(reader.getAttributeValue(null, CLASS_ATTR))
+						&& reader.getAttributeValue(null, ID_ATTR) != null) {
+					pageDepth = depth;
+				}
+			} else if (title == null && titleDepth < 0 && BatchConstants.TITLE.equals(name)) {
+				titleText = new StringBuilder();
+				titleDepth = depth;
+			}
+		}
+
+		private void startSpan(final XMLStreamReader reader, final SpanState parentSpan) {
+			if (pageDepth < 0) {
+				openSpan(reader, false);
+			} else {
+				final String spanClass = reader.getAttributeValue(null, CLASS_ATTR);
+				final SpanState wordSpan = getOpenWordSpan();
+				if (wordSpan == null) {
+					if (OCR_WORD.equals(spanClass) || OCRX_WORD.equals(spanClass)) {
+						openSpan(reader, true);
+					}
+				} else if (wordSpan.wordTextDepth < 0 && wordSpan.wordText == null
+						&& (XOCR_WORD.equals(spanClass) || OCRX_WORD.equals(spanClass))) {
+					wordSpan.wordText = new StringBuilder();
+					wordSpan.wordTextDepth = depth;
+				}
+			}
+		}
+
+		private SpanState getOpenWordSpan() {
+			SpanState wordSpan = null;
+			for (SpanState spanState : openSpans) {
+				if (spanState.isWord) {
+					wordSpan = spanState;
+					break;
+				}
+			}
+			return wordSpan;
+		}
+
+		private void openSpan(final XMLStreamReader reader, final boolean isWord) {
+			final Span span = new Span();
+			span.setCoordinates(getCoordinates(reader.getAttributeValue(null, BatchConstants.TITLE)));
+			final SpanState spanState = new SpanState(span, depth, isWord);
+			spanStates.add(spanState);
+			openSpans.addFirst(spanState);
+		}
+
+		private void endElement() {
+			if (titleText != null) {
+				endTitle();
+			}
+			if (titleDepth == depth) {
+				titleDepth = -1;
+			}
+			final SpanState spanState = openSpans.peek();
+			if (spanState != null && spanState.depth == depth) {
+				openSpans.removeFirst();
+			}
+			final SpanState wordSpan = getOpenWordSpan();
+			if (wordSpan != null && wordSpan.wordTextDepth == depth) {
+				wordSpan.wordTextDepth = -1;
+			}
+			if (pageDepth == depth) {
+				pageDepth = -1;
+			}
+			depth--;
+		}
+
+		private void endTitle() {
+			if (titleText.length() > 0) {
+				title = titleText.toString();
+			}
+			titleText = null;
+		}
+
+		private void characters(final XMLStreamReader reader) {
+			if (titleText != null) {
+				titleText.append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+			}
+			final SpanState spanState = openSpans.peek();
+			if (spanState != null) {
+				spanState.characters(reader);
+			}
+			final SpanState wordSpan = getOpenWordSpan();
+			if (wordSpan != null && wordSpan.wordTextDepth >= 0) {
+				wordSpan.wordText.append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+			}
+		}
+	}
+
+	/**
+	 * The state of one span while it is read.
+	 */
+	private static final class SpanState {
+
+		/**
+		 * The span read.
+		 */
+		private final Span span;
+
+		/**
+		 * Depth of the span element.
+		 */
+		private final int depth;
+
+		/**
+		 * true if the span is a Tesseract word.
+		 */
+		private final boolean isWord;
+
+		/**
+		 * Text of the span up to its first child element, null if none.
+		 */
+		private StringBuilder text;
+
+		/**
+		 * true once the first child element of the span started.
+		 */
+		private boolean isChildStarted;
+
+		/**
+		 * Text of the nested word text span of a Tesseract word, null if none.
+		 */
+		private StringBuilder wordText;
+
+		/**
+		 * Depth of the nested word text span being read, -1 if none.
+		 */
+		private int wordTextDepth = -1;
+
+		SpanState(final Span span, final int depth, final boolean isWord) {
+			this.span = span;
+			this.depth = depth;
+			this.isWord = isWord;
+		}
+
+		void childStarted() {
+			isChildStarted = true;
+		}
+
+		void characters(final XMLStreamReader reader) {
+			if (!isChildStarted) {
+				if (text == null) {
+					text = new StringBuilder();
+				}
+				text.append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+			}
+		}
+
+		String getValue() {
+			String value = null;
+			if (wordText != null) {
+				value = wordText.toString();
+			} else if (text != null) {
+				value = text.toString();
+			}
+			return value;
+		}
+	}
+}
@@ -0,0 +1,502 @@
+/********************************************************************************* 
+* Ephesoft is a Intelligent Document Capture and Mailroom Automation program 
+* developed by Ephesoft, Inc. Copyright (C) 2010-2012 Ephesoft Inc. 
+* 
+* This program is free software; you can redistribute it and/or modify it under 
+* the terms of the GNU Affero General Public License version 3 as published by the 
+* Free Software Foundation with the addition of the following permission added 
+* to Section 15 as permitted in Section 7(a): FOR ANY PART OF THE COVERED WORK 
+* IN WHICH THE COPYRIGHT IS OWNED BY EPHESOFT, EPHESOFT DISCLAIMS THE WARRANTY 
+* OF NON INFRINGEMENT OF THIRD PARTY RIGHTS. 
+* 
+* This program is distributed in the hope that it will be useful, but WITHOUT 
+* ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+* FOR A PARTICULAR PURPOSE.  See the GNU Affero General Public License for more 
+* details. 
+* 
+* You should have received a copy of the GNU Affero General Public License along with 
+* this program; if not, see http://www.gnu.org/licenses or write to the Free 
+* Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 
+* 02110-1301 USA. 
+* 
+* You can contact Ephesoft, Inc. headquarters at 111 Academy Way, 
+* Irvine, CA 92617, USA. or at email address info@ephesoft.com. 
+* 
+* The interactive user interfaces in modified source and object code versions 
+* of this program must display Appropriate Legal Notices, as required under 
+* Section 5 of the GNU Affero General Public License version 3. 
+* 
+* In accordance with Section 7(b) of the GNU Affero General Public License version 3, 
+* these Appropriate Legal Notices must retain the display of the "Ephesoft" logo. 
+* If the display of the logo is not reasonably feasible for 
+* technical reasons, the Appropriate Legal Notices must display the words 
+* "Powered by Ephesoft". 
+********************************************************************************/ 
+
+
+package com.ephesoft.dcma.common;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.ephesoft.dcma.batch.constant.BatchConstants;
+import com.ephesoft.dcma.batch.schema.Coordinates;
+import com.ephesoft.dcma.batch.schema.HocrPages.HocrPage;
+import com.ephesoft.dcma.batch.schema.HocrPages.HocrPage.Spans;
+import com.ephesoft.dcma.batch.schema.HocrPages.HocrPage.Spans.Span;
+
+/**
+ * Spatial index over the spans of one hOCR page. The spans are sorted and grouped into lines once, the row and span coordinates
+ * are kept as primitives and the rows are bucketed in a uniform grid on the y axis, so that zone queries only look at the rows
+ * lying around the zone instead of walking all the lines of the page for every key and field.
+ * 
+ * <p>
+ * Indexes are cached per {@link HocrPage} instance and width of line, so key value extraction, zonal extraction and table
+ * extraction running over the same page share a single index. An index is rebuilt when the span list of the page is replaced or
+ * resized.
+ * 
+ * <p>
+ * The index answers region queries only, there is no nearest neighbour query. The location finders look for the value nearest to
+ * the key among the spans of the key line or of a zone which match the value pattern, so the pattern has to be applied to every
+ * candidate span anyway and a nearest neighbour query on the coordinates alone would not spare that scan.
+ * 
+ * @author Ephesoft
+ * @version 1.0
+ * @see com.ephesoft.dcma.common.HocrUtil
+ */
+public final class HocrSpanIndex {
+
+	/**
+	 * LOGGER to print the logging information.
+	 */
+	private static final Logger LOGGER = LoggerFactory.getLogger(HocrSpanIndex.class);
+
+	/**
+	 * Shift used to get the grid cell of a y coordinate, i.e. each cell covers 64 pixels.
+	 */
+	private static final int CELL_SHIFT = 6;
+
+	/**
+	 * Indexes of the pages, weakly keyed on the page instance.
+	 */
+	private static final Map<HocrPage, List<HocrSpanIndex>> INDEX_CACHE = new WeakHashMap<HocrPage, List<HocrSpanIndex>>();
+
+	/**
+	 * Span list of the page the index was built from.
+	 */
+	private final List<Span> sourceSpanList;
+
+	/**
+	 * Size of the span list of the page when the index was built.
+	 */
+	private final int sourceSize;
+
+	/**
+	 * pageID String.
+	 */
+	private final String pageID;
+
+	/**
+	 * widthOfLine int.
+	 */
+	private final int widthOfLine;
+
+	/**
+	 * Spans of each line in reading order.
+	 */
+	private final List<List<Span>> lineSpanLists;
+
+	/**
+	 * Row y coordinates of each line.
+	 */
+	private final int[] rowY0;
+
+	private final int[] rowY1;
+
+	/**
+	 * Span coordinates of each line, indexed by line and then by the position of the span in the line.
+	 */
+	private final int[][] spanX0;
+
+	private final int[][] spanY0;
+
+	private final int[][] spanX1;
+
+	private final int[][] spanY1;
+
+	/**
+	 * Minimum y coordinate of the rows, i.e. origin of the grid.
+	 */
+	private final int gridMinY;
+
+	/**
+	 * Maximum y coordinate of the rows.
+	 */
+	private final int gridMaxY;
+
+	/**
+	 * Line indexes of the rows intersecting each grid cell, in ascending order.
+	 */
+	private final int[][] gridCells;
+
+	/**
+	 * Line indexes of the rows which could not be placed in the grid.
+	 */
+	private final int[] irregularRows;
+
+	/**
+	 * Line indexes of the spans keyed on their x0 and x1 coordinates, built on first use.
+	 */
+	private Map<Long, List<Integer>> spanColumnMap;
+
+	private HocrSpanIndex(final Spans spans, final String pageID, final int widthOfLine) {
+		this.sourceSpanList = spans == null ? null : spans.getSpan();
+		this.sourceSize = sourceSpanList == null ? BatchConstants.ZERO : sourceSpanList.size();
+		this.pageID = pageID;
+		this.widthOfLine = widthOfLine;
+
+		final List<LineDataCarrier> lineDataCarrierList = HocrUtil.getLineDataCarrierList(spans, pageID, widthOfLine);
+		final int lineCount = lineDataCarrierList.size();
+		lineSpanLists = new ArrayList<List<Span>>(lineCount);
+		rowY0 = new int[lineCount];
+		rowY1 = new int[lineCount];
+		spanX0 = new int[lineCount][];
+		spanY0 = new int[lineCount][];
+		spanX1 = new int[lineCount][];
+		spanY1 = new int[lineCount][];
+
+		int minY = Integer.MAX_VALUE;
+		int maxY = Integer.MIN_VALUE;
+		for (int lineIndex = BatchConstants.ZERO; lineIndex < lineCount; lineIndex++) {
+			final LineDataCarrier lineDataCarrier = lineDataCarrierList.get(lineIndex);
+			final List<Span> spanList = Collections.unmodifiableList(lineDataCarrier.getSpanList());
+			lineSpanLists.add(spanList);
+			final Coordinates rowCoordinates = lineDataCarrier.getRowCoordinates();
+			rowY0[lineIndex] = rowCoordinates.getY0().intValue();
+			rowY1[lineIndex] = rowCoordinates.getY1().intValue();
+			if (rowY0[lineIndex] <= rowY1[lineIndex]) {
+				minY = Math.min(minY, rowY0[lineIndex]);
+				maxY = Math.max(maxY, rowY1[lineIndex]);
+			}
+
+			final int spanCount = spanList.size();
+			spanX0[lineIndex] = new int[spanCount];
+			spanY0[lineIndex] = new int[spanCount];
+			spanX1[lineIndex] = new int[spanCount];
+			spanY1[lineIndex] = new int[spanCount];
+			for (int spanIndex = BatchConstants.ZERO; spanIndex < spanCount; spanIndex++) {
+				final Coordinates coordinates = spanList.get(spanIndex).getCoordinates();
+				spanX0[lineIndex][spanIndex] = coordinates.getX0().intValue();
+				spanY0[lineIndex][spanIndex] = coordinates.getY0().intValue();
+				spanX1[lineIndex][spanIndex] = coordinates.getX1().intValue();
+				spanY1[lineIndex][spanIndex] = coordinates.getY1().intValue();
+			}
+		}
+		if (minY > maxY) {
+			minY = BatchConstants.ZERO;
+			maxY = -BatchConstants.ONE;
+		}
+		gridMinY = minY;
+		gridMaxY = maxY;
+
+		// Two passes over the rows: count the rows of each cell and then fill the cells.
+		final int cellCount = maxY < minY ? BatchConstants.ZERO : getCell(maxY) + BatchConstants.ONE;
+		final int[] cellSizes = new int[cellCount];
+		int irregularCount = BatchConstants.ZERO;
+		for (int lineIndex = BatchConstants.ZERO; lineIndex < lineCount; lineIndex++) {
+			if (rowY0[lineIndex] <= rowY1[lineIndex]) {
+				for (int cell = getCell(rowY0[lineIndex]); cell <= getCell(rowY1[lineIndex]); cell++) {
+					cellSizes[cell]++;
+				}
+			} else {
+				irregularCount++;
+			}
+		}
+		gridCells = new int[cellCount][];
+		for (int cell = BatchConstants.ZERO; cell < cellCount; cell++) {
+			gridCells[cell] = new int[cellSizes[cell]];
+			cellSizes[cell] = BatchConstants.ZERO;
+		}
+		irregularRows = new int[irregularCount];
+		irregularCount = BatchConstants.ZERO;
+		for (int lineIndex = BatchConstants.ZERO; lineIndex < lineCount; lineIndex++) {
+			if (rowY0[lineIndex] <= rowY1[lineIndex]) {
+				for (int cell = getCell(rowY0[lineIndex]); cell <= getCell(rowY1[lineIndex]); cell++) {
+					gridCells[cell][cellSizes[cell]++] = lineIndex;
+				}
+			} else {
+				irregularRows[irregularCount++] = lineIndex;
+			}
+		}
+	}
+
+	/**
+	 * API to get the index for the spans of the hocr page, building it if the page has not been indexed yet for the width of line.
+	 * 
+	 * @param hocrPage {@link HocrPage}
+	 * @param widthOfLine int
+	 * @return {@link HocrSpanIndex}
+	 */
+	public static HocrSpanIndex getIndex(final HocrPage hocrPage, final int widthOfLine) {
+		HocrSpanIndex spanIndex = null;
+		if (hocrPage == null) {
+			spanIndex = new HocrSpanIndex(null, null, widthOfLine);
+		} else {
+			synchronized (INDEX_CACHE) {
+				final List<HocrSpanIndex> pageIndexes = INDEX_CACHE.get(hocrPage);
+				if (pageIndexes != null) {
+					for (final Iterator<HocrSpanIndex> iterator = pageIndexes.iterator(); iterator.hasNext();) {
+						final HocrSpanIndex pageIndex = iterator.next();
+						if (!pageIndex.isValidFor(hocrPage)) {
+							iterator.remove();
+						} else if (pageIndex.widthOfLine == widthOfLine) {
+							spanIndex = pageIndex;
+						}
+					}
+				}
+			}
+			if (spanIndex == null) {
+				LOGGER.debug("Building span index for page id : " + hocrPage.getPageID() + " and width of line : " + widthOfLine);
+				spanIndex = new HocrSpanIndex(hocrPage.getSpans(), hocrPage.getPageID(), widthOfLine);
+				synchronized (INDEX_CACHE) {
+					List<HocrSpanIndex> pageIndexes = INDEX_CACHE.get(hocrPage);
+					if (pageIndexes == null) {
+						pageIndexes = new ArrayList<HocrSpanIndex>(BatchConstants.ONE);
+						INDEX_CACHE.put(hocrPage, pageIndexes);
+					}
+					pageIndexes.add(spanIndex);
+				}
+			}
+		}
+		return spanIndex;
+	}
+
+	private boolean isValidFor(final HocrPage hocrPage) {
+		final Spans spans = hocrPage.getSpans();
+		final List<Span> spanList = spans == null ? null : spans.getSpan();
+		final int size = spanList == null ? BatchConstants.ZERO : spanList.size();
+		final String hocrPageID = hocrPage.getPageID();
+		return spanList == sourceSpanList && size == sourceSize
+				&& (hocrPageID == null ? pageID == null : hocrPageID.equals(pageID));
+	}
+
+	private int getCell(final int yCoordinate) {
+		return (yCoordinate - gridMinY) >> CELL_SHIFT;
+	}
+
+	/**
+	 * To get the width of line the spans were grouped with.
+	 * 
+	 * @return int
+	 */
+	public int getWidthOfLine() {
+		return widthOfLine;
+	}
+
+	/**
+	 * To get the number of lines of the page.
+	 * 
+	 * @return int
+	 */
+	public int getLineCount() {
+		return lineSpanLists.size();
+	}
+
+	/**
+	 * API to get the spans of the page in reading order.
+	 * 
+	 * @return List<Span>
+	 */
+	public List<Span> getSortedSpanList() {
+		final List<Span> sortedSpanList = new ArrayList<Span>(sourceSize);
+		for (final List<Span> spanList : lineSpanLists) {
+			sortedSpanList.addAll(spanList);
+		}
+		return sortedSpanList;
+	}
+
+	/**
+	 * API to get the lines of the page. A new list of line data carriers is returned on each call, so callers are free to modify
+	 * it; line indexes of the returned list are the line indexes used by this index.
+	 * 
+	 * @return List<LineDataCarrier>
+	 */
+	public List<LineDataCarrier> getLineDataCarrierList() {
+		final List<LineDataCarrier> lineDataCarrierList = new ArrayList<LineDataCarrier>(lineSpanLists.size());
+		for (final List<Span> spanList : lineSpanLists) {
+			lineDataCarrierList.add(new LineDataCarrier(new ArrayList<Span>(spanList), pageID));
+		}
+		return lineDataCarrierList;
+	}
+
+	/**
+	 * API to check whether the row at the line index is valid with respect to the rectangular zone coordinates. Same as
+	 * {@link HocrUtil#isValidRowForZone(Coordinates, Coordinates)} for the row coordinates of the line.
+	 * 
+	 * @param lineIndex int
+	 * @param zoneCoordinates {@link Coordinates}
+	 * @return boolean
+	 */
+	public boolean isValidRowForZone(final int lineIndex, final Coordinates zoneCoordinates) {
+		boolean isValidRow = false;
+		if (zoneCoordinates != null && lineIndex >= BatchConstants.ZERO && lineIndex < rowY0.length) {
+			isValidRow = isValidRow(lineIndex, zoneCoordinates.getY0().intValue(), zoneCoordinates.getY1().intValue());
+		}
+		return isValidRow;
+	}
+
+	private boolean isValidRow(final int lineIndex, final int zoneY0, final int zoneY1) {
+		final int rowY0 = this.rowY0[lineIndex];
+		final int rowY1 = this.rowY1[lineIndex];
+		return (rowY0 >= zoneY0 && rowY0 <= zoneY1) || (rowY1 >= zoneY0 && rowY1 <= zoneY1) || (rowY0 <= zoneY0 && rowY1 >= zoneY1);
+	}
+
+	/**
+	 * API to get the line indexes of the rows valid with respect to the rectangular zone coordinates, in ascending order.
+	 * 
+	 * @param zoneCoordinates {@link Coordinates}
+	 * @return int[]
+	 */
+	public int[] getValidRowIndexes(final Coordinates zoneCoordinates) {
+		int[] validRows = new int[BatchConstants.ZERO];
+		if (zoneCoordinates != null && !lineSpanLists.isEmpty()) {
+			final int zoneY0 = zoneCoordinates.getY0().intValue();
+			final int zoneY1 = zoneCoordinates.getY1().intValue();
+			final int lineCount = lineSpanLists.size();
+			final boolean[] isCandidate = new boolean[lineCount];
+			if (zoneY0 > zoneY1) {
+				// An inverted zone can only be matched by rows enclosing it, check all of them.
+				Arrays.fill(isCandidate, true);
+			} else {
+				if (zoneY1 >= gridMinY && zoneY0 <= gridMaxY) {
+					final int firstCell = getCell(Math.max(zoneY0, gridMinY));
+					final int lastCell = getCell(Math.min(zoneY1, gridMaxY));
+					for (int cell = firstCell; cell <= lastCell; cell++) {
+						for (final int lineIndex : gridCells[cell]) {
+							isCandidate[lineIndex] = true;
+						}
+					}
+				}
+				for (final int lineIndex : irregularRows) {
+					isCandidate[lineIndex] = true;
+				}
+			}
+			final int[] rows = new int[lineCount];
+			int rowCount = BatchConstants.ZERO;
+			for (int lineIndex = BatchConstants.ZERO; lineIndex < lineCount; lineIndex++) {
+				if (isCandidate[lineIndex] && isValidRow(lineIndex, zoneY0, zoneY1)) {
+					rows[rowCount++] = lineIndex;
+				}
+			}
+			validRows = Arrays.copyOf(rows, rowCount);
+		}
+		return validRows;
+	}
+
+	/**
+	 * API to get valid rows from rows list with respect to the rectangular zone coordinates. The rows list is expected to be the one
+	 * returned by {@link #getLineDataCarrierList()}.
+	 * 
+	 * @param lineDataCarrierList {@link List<{@link LineDataCarrier}>}
+	 * @param zoneCoordinates {@link Coordinates}
+	 * @return List<LineDataCarrier>
+	 */
+	public List<LineDataCarrier> getValidRowsForZone(final List<LineDataCarrier> lineDataCarrierList,
+			final Coordinates zoneCoordinates) {
+		final List<LineDataCarrier> validLineDataCarrierList = new ArrayList<LineDataCarrier>();
+		if (lineDataCarrierList != null && lineDataCarrierList.size() == lineSpanLists.size()) {
+			for (final int lineIndex : getValidRowIndexes(zoneCoordinates)) {
+				validLineDataCarrierList.add(lineDataCarrierList.get(lineIndex));
+			}
+		} else {
+			validLineDataCarrierList.addAll(HocrUtil.getValidRowsForZone(lineDataCarrierList, zoneCoordinates));
+		}
+		return validLineDataCarrierList;
+	}
+
+	/**
+	 * API to get the spans of the line lying inside the zone, in the order of the line. Same as checking
+	 * {@link HocrUtil#isInsideZone(Coordinates, Coordinates)} for each span of the line.
+	 * 
+	 * @param lineIndex int
+	 * @param zoneCoordinates {@link Coordinates}
+	 * @return List<Span>
+	 */
+	public List<Span> getSpansInsideZone(final int lineIndex, final Coordinates zoneCoordinates) {
+		final List<Span> spansInsideZone = new ArrayList<Span>();
+		if (zoneCoordinates != null && lineIndex >= BatchConstants.ZERO && lineIndex < lineSpanLists.size()) {
+			final int zoneX0 = zoneCoordinates.getX0().intValue();
+			final int zoneY0 = zoneCoordinates.getY0().intValue();
+			final int zoneX1 = zoneCoordinates.getX1().intValue();
+			final int zoneY1 = zoneCoordinates.getY1().intValue();
+			final boolean isRegularZone = zoneX0 <= zoneX1 && zoneY0 <= zoneY1;
+			final List<Span> spanList = lineSpanLists.get(lineIndex);
+			for (int spanIndex = BatchConstants.ZERO; spanIndex < spanList.size(); spanIndex++) {
+				final int x0 = spanX0[lineIndex][spanIndex];
+				final int y0 = spanY0[lineIndex][spanIndex];
+				final int x1 = spanX1[lineIndex][spanIndex];
+				final int y1 = spanY1[lineIndex][spanIndex];
+
+				// A span inside a regular zone always overlaps it, skip the others without the complete check.
+				if (isRegularZone && x0 <= x1 && y0 <= y1 && (x1 < zoneX0 || x0 > zoneX1 || y1 < zoneY0 || y0 > zoneY1)) {
+					continue;
+				}
+				final Span span = spanList.get(spanIndex);
+				if (HocrUtil.isInsideZone(span.getCoordinates(), zoneCoordinates)) {
+					spansInsideZone.add(span);
+				}
+			}
+		}
+		return spansInsideZone;
+	}
+
+	/**
+	 * API to get the line index of each span having the same x0 and x1 coordinates as the passed coordinates. A line index is
+	 * returned once per matching span, in the order of the lines and the spans.
+	 * 
+	 * @param coordinates {@link Coordinates}
+	 * @return List<Integer>
+	 */
+	public List<Integer> getLineIndexesOfSpans(final Coordinates coordinates) {
+		List<Integer> lineIndexes = null;
+		if (coordinates != null && coordinates.getX0() != null && coordinates.getX1() != null) {
+			lineIndexes = getSpanColumnMap().get(getColumnKey(coordinates.getX0().intValue(), coordinates.getX1().intValue()));
+		}
+		if (lineIndexes == null) {
+			lineIndexes = Collections.emptyList();
+		}
+		return Collections.unmodifiableList(lineIndexes);
+	}
+
+	private synchronized Map<Long, List<Integer>> getSpanColumnMap() {
+		if (spanColumnMap == null) {
+			final Map<Long, List<Integer>> columnMap = new HashMap<Long, List<Integer>>();
+			for (int lineIndex = BatchConstants.ZERO; lineIndex < spanX0.length; lineIndex++) {
+				for (int spanIndex = BatchConstants.ZERO; spanIndex < spanX0[lineIndex].length; spanIndex++) {
+					final Long key = getColumnKey(spanX0[lineIndex][spanIndex], spanX1[lineIndex][spanIndex]);
+					List<Integer> lineIndexes = columnMap.get(key);
+					if (lineIndexes == null) {
+						lineIndexes = new ArrayList<Integer>(BatchConstants.ONE);
+						columnMap.put(key, lineIndexes);
+					}
+					lineIndexes.add(lineIndex);
+				}
+			}
+			spanColumnMap = columnMap;
+		}
+		return spanColumnMap;
+	}
+
+	private static Long getColumnKey(final int x0, final int x1) {
+		return Long.valueOf(((long) x0 << Integer.SIZE) | (x1 & 0xFFFFFFFFL));
+	}
+}
@@ -74,57 +74,85 @@ public class HocrUtil {
 	 */
 	public static List<LineDataCarrier> getLineDataCarrierList(final Spans spans, final String pageID, final int widthOfLine) {
 		LOGGER.info("Entering method getLineDataCarrierList...");
-		List<Span> mainSpanList = null;
 		final List<LineDataCarrier> lineDataCarriers = new ArrayList<LineDataCarrier>();
+		final List<Span> sortedSpanList = getSortedSpanList(spans, widthOfLine);
+		if (!sortedSpanList.isEmpty()) {
+			LOGGER.debug("width of line = " + widthOfLine);
+			LineDataCarrier lineDataCarrier = new LineDataCarrier(pageID);
+			lineDataCarriers.add(lineDataCarrier);
+			List<Span> spanList = lineDataCarrier.getSpanList();
+			int lastSpanY1 = BatchConstants.ZERO;
+
+			for (final Span span : sortedSpanList) {
+				final int spanY1 = span.getCoordinates().getY1().intValue();
+				if (spanList.isEmpty()) {
+					spanList.add(span);
+				} else {
+					final int compare = lastSpanY1 - spanY1;
+					if (compare >= -widthOfLine && compare <= widthOfLine) {
+						spanList.add(span);
+					} else {
+						lineDataCarrier = new LineDataCarrier(pageID);
+						lineDataCarriers.add(lineDataCarrier);
+						spanList = lineDataCarrier.getSpanList();
+						spanList.add(span);
+					}
+				}
+				lastSpanY1 = spanY1;
+			}
+		}
+		LOGGER.info("Exiting method getLineDataCarrierList...");
+		return lineDataCarriers;
+	}
+
+	/**
+	 * API to get the spans of a page in reading order, i.e. sorted on y1 and, for spans lying on the same line with respect to the
+	 * width of line, on x1. Spans comparing equal to an already sorted span are dropped.
+	 * 
+	 * @param spans {@link Spans}
+	 * @param widthOfLine int
+	 * @return List<Span>
+	 */
+	public static List<Span> getSortedSpanList(final Spans spans, final int widthOfLine) {
+		final List<Span> sortedSpanList = new ArrayList<Span>();
 		if (spans != null) {
-			mainSpanList = spans.getSpan();
+			final List<Span> mainSpanList = spans.getSpan();
 			if (null != mainSpanList && !mainSpanList.isEmpty()) {
-				LOGGER.debug("width of line = " + widthOfLine);
 
-				final Set<Span> set = new TreeSet<Span>(new Comparator<Span>() {
+				// Coordinates are read once per span so that sorting does not go through BigInteger for each comparison.
+				final Set<SortableSpan> set = new TreeSet<SortableSpan>(new Comparator<SortableSpan>() {
 
-					public int compare(final Span firstSpan, final Span secSpan) {
-						final BigInteger s1Y1 = firstSpan.getCoordinates().getY1();
-						final BigInteger s2Y1 = secSpan.getCoordinates().getY1();
+					public int compare(final SortableSpan firstSpan, final SortableSpan secSpan) {
 						int returnValue = BatchConstants.ZERO;
-						final int compare = s1Y1.intValue() - s2Y1.intValue();
+						final int compare = firstSpan.spanY1 - secSpan.spanY1;
 						if (compare >= -widthOfLine && compare <= widthOfLine) {
-							final BigInteger s1X1 = firstSpan.getCoordinates().getX1();
-							final BigInteger s2X1 = secSpan.getCoordinates().getX1();
-							returnValue = s1X1.compareTo(s2X1);
+							returnValue = compareInt(firstSpan.spanX1, secSpan.spanX1);
 						} else {
-							returnValue = s1Y1.compareTo(s2Y1);
+							returnValue = compareInt(firstSpan.spanY1, secSpan.spanY1);
 						}
 						return returnValue;
 					}
 				});
 
-				set.addAll(mainSpanList);
-
-				LineDataCarrier lineDataCarrier = new LineDataCarrier(pageID);
-				lineDataCarriers.add(lineDataCarrier);
-				List<Span> spanList = lineDataCarrier.getSpanList();
-
-				for (final Span span : set) {
-					if (spanList.isEmpty()) {
-						spanList.add(span);
-					} else {
-						final Span lastSpan = spanList.get(spanList.size() - BatchConstants.ONE);
-						final int compare = lastSpan.getCoordinates().getY1().intValue() - span.getCoordinates().getY1().intValue();
-						if (compare >= -widthOfLine && compare <= widthOfLine) {
-							spanList.add(span);
-						} else {
-							lineDataCarrier = new LineDataCarrier(pageID);
-							lineDataCarriers.add(lineDataCarrier);
-							spanList = lineDataCarrier.getSpanList();
-							spanList.add(span);
-						}
-					}
+				for (final Span span : mainSpanList) {
+					set.add(new SortableSpan(span));
+				}
+				for (final SortableSpan sortableSpan : set) {
+					sortedSpanList.add(sortableSpan.span);
 				}
 			}
 		}
-		LOGGER.info("Exiting method getLineDataCarrierList...");
-		return lineDataCarriers;
+		return sortedSpanList;
+	}
+
+	private static int compareInt(final int firstValue, final int secValue) {
+		int returnValue = BatchConstants.ZERO;
+		if (firstValue < secValue) {
+			returnValue = -BatchConstants.ONE;
+		} else if (firstValue > secValue) {
+			returnValue = BatchConstants.ONE;
+		}
+		return returnValue;
 	}
 
 	/**
@@ -278,4 +306,31 @@ public class HocrUtil {
 		}
 		return isInsideZone;
 	}
+
+	/**
+	 * Span along with the primitive coordinates used while sorting.
+	 */
+	private static final class SortableSpan {
+
+		/**
+		 * span {@link Span}.
+		 */
+		private final Span span;
+
+		/**
+		 * spanX1 int.
+		 */
+		private final int spanX1;
+
+		/**
+		 * spanY1 int.
+		 */
+		private final int spanY1;
+
+		SortableSpan(final Span span) {
+			this.span = span;
+			this.spanX1 = span.getCoordinates().getX1().intValue();
+			this.spanY1 = span.getCoordinates().getY1().intValue();
+		}
+	}
 }
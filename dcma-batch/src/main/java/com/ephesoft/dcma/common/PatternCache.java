@@ -0,0 +1,157 @@
+/********************************************************************************* 
+* Ephesoft is a Intelligent Document Capture and Mailroom Automation program 
+* developed by Ephesoft, Inc. Copyright (C) 2010-2012 Ephesoft Inc. 
+* 
+* This program is free software; you can redistribute it and/or modify it under 
+* the terms of the GNU Affero General Public License version 3 as published by the 
+* Free Software Foundation with the addition of the following permission added 
+* to Section 15 as permitted in Section 7(a): FOR ANY PART OF THE COVERED WORK 
+* IN WHICH THE COPYRIGHT IS OWNED BY EPHESOFT, EPHESOFT DISCLAIMS THE WARRANTY 
+* OF NON INFRINGEMENT OF THIRD PARTY RIGHTS. 
+* 
+* This program is distributed in the hope that it will be useful, but WITHOUT 
+* ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+* FOR A PARTICULAR PURPOSE.  See the GNU Affero General Public License for more 
+* details. 
+* 
+* You should have received a copy of the GNU Affero General Public License along with 
+* this program; if not, see http://www.gnu.org/licenses or write to the Free 
+* Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 
+* 02110-1301 USA. 
+* 
+* You can contact Ephesoft, Inc. headquarters at 111 Academy Way, 
+* Irvine, CA 92617, USA. or at email address info@ephesoft.com. 
+* 
+* The interactive user interfaces in modified source and object code versions 
+* of this program must display Appropriate Legal Notices, as required under 
+* Section 5 of the GNU Affero General Public License version 3. 
+* 
+* In accordance with Section 7(b) of the GNU Affero General Public License version 3, 
+* these Appropriate Legal Notices must retain the display of the "Ephesoft" logo. 
+* If the display of the logo is not reasonably feasible for 
+* technical reasons, the Appropriate Legal Notices must display the words 
+* "Powered by Ephesoft". 
+********************************************************************************/ 
+
+
+package com.ephesoft.dcma.common;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Bounded cache of compiled regular expressions keyed on the pattern text and the compile flags. Field, key and value patterns are
+ * configured per batch class and applied to every span of every page, so compiling them once per pattern instead of once per span
+ * saves most of the regex cost of the extraction plugins. {@link Pattern} instances are immutable and safe to share between threads;
+ * each caller still creates its own {@link java.util.regex.Matcher}.
+ * 
+ * @author Ephesoft
+ * @version 1.0
+ * @see java.util.regex.Pattern
+ */
+public final class PatternCache {
+
+	/**
+	 * Maximum number of compiled patterns kept in the cache.
+	 */
+	private static final int MAX_SIZE = 1024;
+
+	/**
+	 * Compiled patterns in access order, guarded by the map itself.
+	 */
+	private static final Map<PatternKey, Pattern> PATTERNS = new LinkedHashMap<PatternKey, Pattern>(64, 0.75f, true) {
+
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(final Map.Entry<PatternKey, Pattern> eldest) {
+			return size() > MAX_SIZE;
+		}
+	};
+
+	private PatternCache() {
+		// Utility class.
+	}
+
+	/**
+	 * API to get the compiled pattern for the regular expression.
+	 * 
+	 * @param regex {@link String}
+	 * @return {@link Pattern}
+	 * @throws java.util.regex.PatternSyntaxException if the expression's syntax is invalid
+	 */
+	public static Pattern getPattern(final String regex) {
+		return getPattern(regex, 0);
+	}
+
+	/**
+	 * API to get the compiled pattern for the regular expression and flags. Invalid expressions are not cached and throw the same
+	 * exception as {@link Pattern#compile(String, int)} on every call.
+	 * 
+	 * @param regex {@link String}
+	 * @param flags int match flags as accepted by {@link Pattern#compile(String, int)}
+	 * @return {@link Pattern}
+	 * @throws java.util.regex.PatternSyntaxException if the expression's syntax is invalid
+	 */
+	public static Pattern getPattern(final String regex, final int flags) {
+		final PatternKey key = new PatternKey(regex, flags);
+		Pattern pattern = null;
+		synchronized (PATTERNS) {
+			pattern = PATTERNS.get(key);
+		}
+		if (pattern == null) {
+			// Compiled outside the lock, two threads may compile the same expression once each.
+			pattern = Pattern.compile(regex, flags);
+			synchronized (PATTERNS) {
+				PATTERNS.put(key, pattern);
+			}
+		}
+		return pattern;
+	}
+
+	/**
+	 * API to remove all the compiled patterns from the cache.
+	 */
+	public static void clear() {
+		synchronized (PATTERNS) {
+			PATTERNS.clear();
+		}
+	}
+
+	/**
+	 * Key of a compiled pattern.
+	 */
+	private static final class PatternKey {
+
+		/**
+		 * regex String.
+		 */
+		private final String regex;
+
+		/**
+		 * flags int.
+		 */
+		private final int flags;
+
+		PatternKey(final String regex, final int flags) {
+			this.regex = regex;
+			this.flags = flags;
+		}
+
+		@Override
+		public int hashCode() {
+			return regex.hashCode() * 31 + flags;
+		}
+
+		@Override
+		public boolean equals(final Object object) {
+			boolean isEqual = false;
+			if (object instanceof PatternKey) {
+				final PatternKey key = (PatternKey) object;
+				isEqual = flags == key.flags && regex.equals(key.regex);
+			}
+			return isEqual;
+		}
+	}
+}
@@ -97,8 +97,8 @@ public class PatternMatcherUtil {
 					} catch (NumberFormatException nfe) {
 						LOGGER.error(nfe.getMessage(), nfe);
 					}
-					// Compile and use regular expression
-					final Pattern pattern = Pattern.compile(patternStr);
+					// Get the compiled regular expression and use it
+					final Pattern pattern = PatternCache.getPattern(patternStr);
 					final Matcher matcher = pattern.matcher(inputStr);
 					while (matcher.find()) {
 						// Get all groups for this match
@@ -150,8 +150,8 @@ public class PatternMatcherUtil {
 				} catch (NumberFormatException nfe) {
 					LOGGER.error(nfe.getMessage(), nfe);
 				}
-				// Compile and use regular expression
-				final Pattern pattern = Pattern.compile(patternStr);
+				// Get the compiled regular expression and use it
+				final Pattern pattern = PatternCache.getPattern(patternStr);
 				final Matcher matcher = pattern.matcher(inputStr);
 				// boolean matchFound = matcher.find();
 				while (matcher.find()) {
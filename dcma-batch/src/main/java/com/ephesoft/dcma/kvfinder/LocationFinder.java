@@ -37,6 +37,7 @@ package com.ephesoft.dcma.kvfinder;
 
 import java.math.BigInteger;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.Iterator;
@@ -48,6 +49,7 @@ import org.slf4j.LoggerFactory;
 import com.ephesoft.dcma.batch.constant.BatchConstants;
 import com.ephesoft.dcma.batch.schema.Coordinates;
 import com.ephesoft.dcma.batch.schema.HocrPages.HocrPage.Spans.Span;
+import com.ephesoft.dcma.common.HocrSpanIndex;
 import com.ephesoft.dcma.common.HocrUtil;
 import com.ephesoft.dcma.common.LineDataCarrier;
 import com.ephesoft.dcma.common.PatternMatcherUtil;
@@ -86,6 +88,11 @@ public class LocationFinder {
 	 */
 	private float confidenceScoreFloat = KVFinderConstants.DEFAULT_CONFIDENCE_SCORE;
 
+	/**
+	 * Span index of the page the lines belong to.
+	 */
+	private HocrSpanIndex spanIndex;
+
 	/**
 	 * @return the widthOfLine
 	 */
@@ -121,6 +128,20 @@ public class LocationFinder {
 		this.confidenceScoreFloat = confidenceFloat;
 	}
 
+	/**
+	 * @return the spanIndex
+	 */
+	public final HocrSpanIndex getSpanIndex() {
+		return spanIndex;
+	}
+
+	/**
+	 * @param spanIndex the spanIndex to set
+	 */
+	public final void setSpanIndex(final HocrSpanIndex spanIndex) {
+		this.spanIndex = spanIndex;
+	}
+
 	/**
 	 * Right location finder. Method will search to the right of the key word.
 	 * 
@@ -939,7 +960,12 @@ public class LocationFinder {
 		Coordinates valueZone = createValueZone(keyCoordinate, inputDataCarrier.getXoffset(), inputDataCarrier.getYoffset(),
 				inputDataCarrier.getLength(), inputDataCarrier.getWidth());
 		if (isValidZone(valueZone)) {
-			List<LineDataCarrier> zonalLineList = getZonalLineList(lineDataCarrierList, currentLineIndex, valueZone);
+			List<LineDataCarrier> zonalLineList = null;
+			if (spanIndex != null && spanIndex.getLineCount() == lineDataCarrierList.size()) {
+				zonalLineList = getIndexedZonalLineList(lineDataCarrierList, currentLineIndex, valueZone);
+			} else {
+				zonalLineList = getZonalLineList(lineDataCarrierList, currentLineIndex, valueZone);
+			}
 			createOutputDataCarrierList(zonalLineList, inputDataCarrier, outputDataCarrierList, valueZone);
 		}
 	}
@@ -990,6 +1016,57 @@ public class LocationFinder {
 		return zonalLineList;
 	}
 
+	/**
+	 * Same as {@link #getZonalLineList(List, int, Coordinates)}, using the span index to reach the rows valid for the zone and the
+	 * spans inside it.
+	 * 
+	 * @param lineDataCarrierList
+	 * @param currentLineIndex
+	 * @param valueZone
+	 * @return
+	 */
+	private List<LineDataCarrier> getIndexedZonalLineList(final List<LineDataCarrier> lineDataCarrierList,
+			final int currentLineIndex, final Coordinates valueZone) {
+		LOGGER.info("Entering method getIndexedZonalLineList....");
+		List<LineDataCarrier> zonalLineList = new ArrayList<LineDataCarrier>();
+		LineDataCarrier validLineDataCarrier = null;
+		final int[] validRowIndexes = spanIndex.getValidRowIndexes(valueZone);
+
+		// Nearest valid row at or above the current line, then all the adjacent valid rows upwards.
+		int position = Arrays.binarySearch(validRowIndexes, currentLineIndex);
+		if (position < BatchConstants.ZERO) {
+			position = -position - BatchConstants.TWO;
+		}
+		if (position >= BatchConstants.ZERO) {
+			for (int index = validRowIndexes[position]; index >= BatchConstants.ZERO
+					&& spanIndex.isValidRowForZone(index, valueZone); index--) {
+				getValidZonalData(valueZone, index, lineDataCarrierList.get(index), zonalLineList);
+				zonalLineList.add(BatchConstants.ZERO, validLineDataCarrier);
+			}
+		}
+
+		// Nearest valid row below the current line, then all the adjacent valid rows downwards.
+		position = Arrays.binarySearch(validRowIndexes, currentLineIndex + BatchConstants.ONE);
+		if (position < BatchConstants.ZERO) {
+			position = -position - BatchConstants.ONE;
+		}
+		if (position < validRowIndexes.length) {
+			for (int index = validRowIndexes[position]; index < lineDataCarrierList.size()
+					&& spanIndex.isValidRowForZone(index, valueZone); index++) {
+				getValidZonalData(valueZone, index, lineDataCarrierList.get(index), zonalLineList);
+			}
+		}
+		LOGGER.info("Exiting method getIndexedZonalLineList....");
+		return zonalLineList;
+	}
+
+	private void getValidZonalData(final Coordinates valueZone, final int lineIndex, final LineDataCarrier lineDataCarrier,
+			final List<LineDataCarrier> zonalLineList) {
+		LineDataCarrier validLineDataCarrier = new LineDataCarrier(lineDataCarrier.getPageID());
+		validLineDataCarrier.getSpanList().addAll(spanIndex.getSpansInsideZone(lineIndex, valueZone));
+		zonalLineList.add(validLineDataCarrier);
+	}
+
 	private void getValidZonalData(final Coordinates valueZone, LineDataCarrier lineDataCarrier, List<LineDataCarrier> zonalLineList) {
 		List<Span> spanList;
 		LineDataCarrier validLineDataCarrier;
@@ -49,6 +49,7 @@ import com.ephesoft.dcma.batch.schema.Coordinates;
 import com.ephesoft.dcma.batch.schema.HocrPages.HocrPage;
 import com.ephesoft.dcma.batch.schema.HocrPages.HocrPage.Spans;
 import com.ephesoft.dcma.batch.schema.HocrPages.HocrPage.Spans.Span;
+import com.ephesoft.dcma.common.HocrSpanIndex;
 import com.ephesoft.dcma.common.HocrUtil;
 import com.ephesoft.dcma.common.LineDataCarrier;
 import com.ephesoft.dcma.common.PatternMatcherUtil;
@@ -159,10 +160,13 @@ public class KVFinderServiceImpl implements KVFinderService {
 			} catch (NumberFormatException nfe) {
 				LOGGER.error("Invalid value for widthOfLine specified. Setting it to its default value 15.");
 			}
-			final List<LineDataCarrier> lineDataCarrierList = HocrUtil.getLineDataCarrierList(spans, pageID, widthOfLineInt);
+			// Lines and span coordinates of the page are indexed once and shared by all the key value rules run on the page.
+			final HocrSpanIndex spanIndex = HocrSpanIndex.getIndex(hocrPage, widthOfLineInt);
+			final List<LineDataCarrier> lineDataCarrierList = spanIndex.getLineDataCarrierList();
 
 			locationFinder.setConfidenceScore(getConfidenceScore());
 			locationFinder.setWidthOfLine(getWidthOfLine());
+			locationFinder.setSpanIndex(spanIndex);
 
 			for (InputDataCarrier inputDataCarrier : inputDataCarrierList) {
 				boolean useExistingKey = inputDataCarrier.isUseExistingField();
@@ -179,7 +183,7 @@ public class KVFinderServiceImpl implements KVFinderService {
 				if (useExistingKey) {
 					LOGGER.info("Extracting data using existing field as key. Field name : " + keyPattern);
 					extractKVUsingExistingField(inputDataCarrier, locationFinder, outputDataCarrierList, fieldTypeKVMap, keyPattern,
-							pageID, lineDataCarrierList, maxResults, keyValueFieldCarrier);
+							pageID, lineDataCarrierList, spanIndex, maxResults, keyValueFieldCarrier);
 				} else {
 					extractKey(keyValueFieldCarrier, maxResults, outputDataCarrierList, pageID, locationFinder, lineDataCarrierList,
 							inputDataCarrier, keyPattern);
@@ -280,7 +284,7 @@ public class KVFinderServiceImpl implements KVFinderService {
 
 	private void extractKVUsingExistingField(final InputDataCarrier inputDataCarrier, final LocationFinder locationFinder,
 			final CustomList outputDataCarrierList, final Map<String, KeyValueFieldCarrier> fieldTypeKVMap, String keyPattern,
-			final String pageID, final List<LineDataCarrier> lineDataCarrierList, final int maxResults,
+			final String pageID, final List<LineDataCarrier> lineDataCarrierList, final HocrSpanIndex spanIndex, final int maxResults,
 			final KeyValueFieldCarrier keyValueFieldCarrier) {
 		LOGGER.info("Entering method extractKVUsingExistingField .....");
 		try {
@@ -293,31 +297,22 @@ public class KVFinderServiceImpl implements KVFinderService {
 					for (KeyValueProperties keyValueProperties : keyValuePropertiesList) {
 						LOGGER.info("Getting KeyCoordinates for page id : " + pageID);
 						Coordinates keyCoordinates = keyValueProperties.getValueCoordinates();
-						for (int currentLineIndex = BatchConstants.ZERO; currentLineIndex < lineDataCarrierList.size(); currentLineIndex++) {
-							LineDataCarrier lineDataCarrier = lineDataCarrierList.get(currentLineIndex);
-							List<Span> spanList = lineDataCarrier.getSpanList();
-							for (Span span : spanList) {
-								if (span == null || span.getCoordinates() == null) {
-									continue;
-								}
-								Coordinates spanCoord = span.getCoordinates();
-								if (spanCoord.getX0().compareTo(keyCoordinates.getX0()) == BatchConstants.ZERO
-										&& spanCoord.getX1().compareTo(keyCoordinates.getX1()) == BatchConstants.ZERO) {
-									// Value Coordinates for the previous field is now the key coordinate for this field.
-									performValueExtraction(maxResults, locationFinder, outputDataCarrierList, inputDataCarrier,
-											lineDataCarrierList, currentLineIndex, keyCoordinates);
-									List<OutputDataCarrier> outDataList = outputDataCarrierList.getList();
-									List<Coordinates> coordinatesList = new ArrayList<Coordinates>();
-									for (OutputDataCarrier outDataCarrier : outDataList) {
-										coordinatesList.add(outDataCarrier.getSpan().getCoordinates());
-									}
-									Coordinates recCoord = HocrUtil.getRectangleCoordinates(coordinatesList);
-									if (keyValueFieldCarrier != null) {
-										KeyValueProperties newKeyValueProperties = keyValueFieldCarrier.new KeyValueProperties();
-										newKeyValueProperties.setValueCoordinates(recCoord);
-										keyValueFieldCarrier.addKeyValueDataToPage(pageID, newKeyValueProperties);
-									}
-								}
+
+						// Lines having a span with the same x0 and x1 as the key, once per matching span.
+						for (Integer currentLineIndex : spanIndex.getLineIndexesOfSpans(keyCoordinates)) {
+							// Value Coordinates for the previous field is now the key coordinate for this field.
+							performValueExtraction(maxResults, locationFinder, outputDataCarrierList, inputDataCarrier,
+									lineDataCarrierList, currentLineIndex, keyCoordinates);
+							List<OutputDataCarrier> outDataList = outputDataCarrierList.getList();
+							List<Coordinates> coordinatesList = new ArrayList<Coordinates>();
+							for (OutputDataCarrier outDataCarrier : outDataList) {
+								coordinatesList.add(outDataCarrier.getSpan().getCoordinates());
+							}
+							Coordinates recCoord = HocrUtil.getRectangleCoordinates(coordinatesList);
+							if (keyValueFieldCarrier != null) {
+								KeyValueProperties newKeyValueProperties = keyValueFieldCarrier.new KeyValueProperties();
+								newKeyValueProperties.setValueCoordinates(recCoord);
+								keyValueFieldCarrier.addKeyValueDataToPage(pageID, newKeyValueProperties);
 							}
 						}
 					}
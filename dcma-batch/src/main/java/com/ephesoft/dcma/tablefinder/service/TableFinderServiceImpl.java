@@ -37,16 +37,12 @@ package com.ephesoft.dcma.tablefinder.service;
 
 import java.math.BigInteger;
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.HashMap;
 import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.Locale;
 import java.util.Map;
-import java.util.Set;
-import java.util.TreeSet;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -66,8 +62,10 @@ import com.ephesoft.dcma.batch.schema.Field.CoordinatesList;
 import com.ephesoft.dcma.batch.schema.HocrPages.HocrPage;
 import com.ephesoft.dcma.batch.schema.HocrPages.HocrPage.Spans;
 import com.ephesoft.dcma.batch.schema.HocrPages.HocrPage.Spans.Span;
+import com.ephesoft.dcma.common.HocrSpanIndex;
 import com.ephesoft.dcma.common.HocrUtil;
 import com.ephesoft.dcma.common.LineDataCarrier;
+import com.ephesoft.dcma.common.PatternCache;
 import com.ephesoft.dcma.core.common.ExpressionEvaluator;
 import com.ephesoft.dcma.core.common.TableExtractionTechnique;
 import com.ephesoft.dcma.core.exception.DCMAApplicationException;
@@ -985,7 +983,7 @@ public class TableFinderServiceImpl implements TableFinderService {
 		LineDataCarrier lineDataCarrier = new LineDataCarrier(pageID);
 		// lineDataCarrierList.add(lineDataCarrier);
 		if (null != spans) {
-			final List<Span> linkedList = getSortedSpanList(spans);
+			final List<Span> linkedList = getSortedSpanList(hocrPage);
 			if (null == linkedList || linkedList.isEmpty()) {
 				LOGGER.info("Return linked list is null for the page id = " + pageID);
 				return;
@@ -1090,8 +1088,8 @@ public class TableFinderServiceImpl implements TableFinderService {
 				errMsg = "Invalid input pattern sequence.";
 				throw new DCMAApplicationException(errMsg);
 			}
-			// Compile and use regular expression
-			final Pattern pattern = Pattern.compile(patternStr);
+			// Get the compiled regular expression and use it
+			final Pattern pattern = PatternCache.getPattern(patternStr);
 			final Matcher matcher = pattern.matcher(inputStr);
 			while (matcher.find()) {
 				// Get all groups for this match
@@ -1136,8 +1134,8 @@ public class TableFinderServiceImpl implements TableFinderService {
 				errMsg = "Invalid input pattern sequence.";
 				throw new DCMAApplicationException(errMsg);
 			}
-			// Compile and use regular expression
-			final Pattern pattern = Pattern.compile(patternStr);
+			// Get the compiled regular expression and use it
+			final Pattern pattern = PatternCache.getPattern(patternStr);
 			final Matcher matcher = pattern.matcher(inputStr);
 			while (matcher.find()) {
 				// Get all groups for this match
@@ -1165,11 +1163,10 @@ public class TableFinderServiceImpl implements TableFinderService {
 	/**
 	 * API to get the sorted span list.
 	 * 
-	 * @param spans {@link Spans}
-	 * @return linkedList {@link List<Span>}
+	 * @param hocrPage {@link HocrPage}
+	 * @return {@link List<Span>}
 	 */
-	private List<Span> getSortedSpanList(final Spans spans) {
-		final List<Span> spanList = spans.getSpan();
+	private List<Span> getSortedSpanList(final HocrPage hocrPage) {
 		int defaultValue = TableExtractionConstants.TWENTY;
 		try {
 			defaultValue = Integer.parseInt(getWidthOfLine());
@@ -1177,30 +1174,8 @@ public class TableFinderServiceImpl implements TableFinderService {
 			LOGGER.error(nfe.getMessage(), nfe);
 			defaultValue = TableExtractionConstants.TWENTY;
 		}
-		final int lineWidth = defaultValue;
-		final Set<Span> set = new TreeSet<Span>(new Comparator<Span>() {
-
-			public int compare(final Span firstSpan, final Span secSpan) {
-				final BigInteger s1Y1 = firstSpan.getCoordinates().getY1();
-				final BigInteger s2Y1 = secSpan.getCoordinates().getY1();
-				int returnValue = 0;
-				final int compare = s1Y1.intValue() - s2Y1.intValue();
-				if (compare >= -lineWidth && compare <= lineWidth) {
-					final BigInteger s1X1 = firstSpan.getCoordinates().getX1();
-					final BigInteger s2X1 = secSpan.getCoordinates().getX1();
-					returnValue = s1X1.compareTo(s2X1);
-				} else {
-					returnValue = s1Y1.compareTo(s2Y1);
-				}
-				return returnValue;
-			}
-		});
-		set.addAll(spanList);
-		final List<Span> linkedList = new LinkedList<Span>();
-		linkedList.addAll(set);
-		// TODO add the clear method to remove all elements of set since it not required after adding it to linked list.
-		// set.clear();
-		return linkedList;
+		// Sorted spans are taken from the span index of the page, shared with the other tables and the key value extraction.
+		return HocrSpanIndex.getIndex(hocrPage, defaultValue).getSortedSpanList();
 	}
 
 	/**
@@ -1226,8 +1201,8 @@ public class TableFinderServiceImpl implements TableFinderService {
 			if (null == colHeaderInfo || null == colHeaderInfo.getValue() || KVFinderConstants.EMPTY.equals(colHeaderInfo.getValue())) {
 				errMsg = "Invalid input pattern sequence.";
 			} else {
-				// Compile and use regular expression
-				final Pattern pattern = Pattern.compile(colHeaderInfo.getValue());
+				// Get the compiled regular expression and use it
+				final Pattern pattern = PatternCache.getPattern(colHeaderInfo.getValue());
 				final Matcher matcher = pattern.matcher(inputStr);
 				while (matcher.find()) {
 					// Get all groups for this match
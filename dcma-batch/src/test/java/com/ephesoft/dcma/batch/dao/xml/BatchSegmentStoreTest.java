@@ -0,0 +1,210 @@
+/********************************************************************************* 
+* Ephesoft is a Intelligent Document Capture and Mailroom Automation program 
+* developed by Ephesoft, Inc. Copyright (C) 2010-2012 Ephesoft Inc. 
+* 
+* This program is free software; you can redistribute it and/or modify it under 
+* the terms of the GNU Affero General Public License version 3 as published by the 
+* Free Software Foundation with the addition of the following permission added 
+* to Section 15 as permitted in Section 7(a): FOR ANY PART OF THE COVERED WORK 
+* IN WHICH THE COPYRIGHT IS OWNED BY EPHESOFT, EPHESOFT DISCLAIMS THE WARRANTY 
+* OF NON INFRINGEMENT OF THIRD PARTY RIGHTS. 
+* 
+* This program is distributed in the hope that it will be useful, but WITHOUT 
+* ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+* FOR A PARTICULAR PURPOSE.  See the GNU Affero General Public License for more 
+* details. 
+* 
+* You should have received a copy of the GNU Affero General Public License along with 
+* this program; if not, see http://www.gnu.org/licenses or write to the Free 
+* Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 
+* 02110-1301 USA. 
+* 
+* You can contact Ephesoft, Inc. headquarters at 111 Academy Way, 
+* Irvine, CA 92617, USA. or at email address info@ephesoft.com. 
+* 
+* The interactive user interfaces in modified source and object code versions 
+* of this program must display Appropriate Legal Notices, as required under 
+* Section 5 of the GNU Affero General Public License version 3. 
+* 
+* In accordance with Section 7(b) of the GNU Affero General Public License version 3, 
+* these Appropriate Legal Notices must retain the display of the "Ephesoft" logo. 
+* If the display of the logo is not reasonably feasible for 
+* technical reasons, the Appropriate Legal Notices must display the words 
+* "Powered by Ephesoft". 
+********************************************************************************/ 
+
+
+package com.ephesoft.dcma.batch.dao.xml;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.oxm.jaxb.Jaxb2Marshaller;
+
+import com.ephesoft.dcma.batch.schema.Batch;
+import com.ephesoft.dcma.batch.schema.Document;
+import com.ephesoft.dcma.batch.schema.Batch.Documents;
+import com.ephesoft.dcma.core.component.ICommonConstants;
+import com.ephesoft.dcma.core.component.JAXB2Template;
+
+/**
+ * This is Junit test for BatchSegmentStore. It checks that a batch written as segments is read back unchanged, that a single
+ * document can be read from its segment and that the segments are ignored once the batch xml changes, even when it keeps its length and
+ * last modified time.
+ * 
+ * @author Ephesoft
+ * @version 1.0
+ * @see com.ephesoft.dcma.batch.dao.xml.BatchSegmentStore
+ */
+public class BatchSegmentStoreTest {
+
+	/**
+	 * Identifier of the batch instance used by the tests.
+	 */
+	private static final String BATCH_INSTANCE_ID = "BI1";
+
+	/**
+	 * Local folder holding the batch instance folder.
+	 */
+	private File localFolder;
+
+	/**
+	 * Store under test.
+	 */
+	private BatchSegmentStore segmentStore;
+
+	/**
+	 * This method creates the local folder and the store in segmented mode.
+	 * 
+	 * @throws Exception if the marshaller cannot be initialised
+	 */
+	@Before
+	public void setUp() throws Exception {
+		localFolder = File.createTempFile("batch-segment-store", "");
+		localFolder.delete();
+		new File(localFolder, BATCH_INSTANCE_ID).mkdirs();
+		Jaxb2Marshaller marshaller = new Jaxb2Marshaller();
+		marshaller.setContextPath("com.ephesoft.dcma.batch.schema");
+		marshaller.afterPropertiesSet();
+		segmentStore = new BatchSegmentStore(new JAXB2Template(marshaller, localFolder.getPath()),
+				BatchSegmentStore.SEGMENTED_MODE);
+	}
+
+	/**
+	 * This method deletes the local folder.
+	 */
+	@After
+	public void tearDown() {
+		segmentStore.delete(BATCH_INSTANCE_ID, localFolder.getPath());
+		deleteFolder(localFolder);
+	}
+
+	/**
+	 * This method tests that the batch and its documents are read back as written, including after a document is updated.
+	 */
+	@Test
+	public void testReadYourWrites() {
+		assertTrue(segmentStore.isSegmented());
+		assertFalse(segmentStore.isCurrent(BATCH_INSTANCE_ID, localFolder.getPath()));
+
+		Batch batch = createBatch("DOC1", "DOC2");
+		segmentStore.write(batch, BATCH_INSTANCE_ID, localFolder.getPath());
+		assertTrue(segmentStore.isCurrent(BATCH_INSTANCE_ID, localFolder.getPath()));
+		assertEquals(2, batch.getDocuments().getDocument().size());
+
+		Batch readBatch = segmentStore.read(BATCH_INSTANCE_ID, localFolder.getPath());
+		assertNotNull(readBatch);
+		assertEquals(BATCH_INSTANCE_ID, readBatch.getBatchInstanceIdentifier());
+		assertEquals("Test batch", readBatch.getBatchName());
+		assertEquals(2, readBatch.getDocuments().getDocument().size());
+		assertEquals("DOC1", readBatch.getDocuments().getDocument().get(0).getIdentifier());
+		assertEquals("DOC2", readBatch.getDocuments().getDocument().get(1).getIdentifier());
+
+		batch.getDocuments().getDocument().get(1).setType("Invoice");
+		segmentStore.write(batch, BATCH_INSTANCE_ID, localFolder.getPath());
+		Document document = segmentStore.readDocument(BATCH_INSTANCE_ID, "DOC2", localFolder.getPath());
+		assertNotNull(document);
+		assertEquals("Invoice", document.getType());
+		assertEquals("Unknown", segmentStore.readDocument(BATCH_INSTANCE_ID, "DOC1", localFolder.getPath()).getType());
+		assertNull(segmentStore.readDocument(BATCH_INSTANCE_ID, "DOC3", localFolder.getPath()));
+	}
+
+	/**
+	 * This method tests that the segments are not used once the batch xml is rewritten outside the store.
+	 * 
+	 * @throws IOException if the batch xml cannot be written
+	 */
+	@Test
+	public void testStaleAfterBatchXmlChange() throws IOException {
+		segmentStore.write(createBatch("DOC1"), BATCH_INSTANCE_ID, localFolder.getPath());
+		assertTrue(segmentStore.isCurrent(BATCH_INSTANCE_ID, localFolder.getPath()));
+
+		writeBatchXml("<Batch/>");
+		assertFalse(segmentStore.isCurrent(BATCH_INSTANCE_ID, localFolder.getPath()));
+		assertNull(segmentStore.read(BATCH_INSTANCE_ID, localFolder.getPath()));
+		assertNull(segmentStore.readDocument(BATCH_INSTANCE_ID, "DOC1", localFolder.getPath()));
+	}
+
+	/**
+	 * This method tests that the segments are not used once the batch xml is rewritten with the same length and last modified time.
+	 * 
+	 * @throws IOException if the batch xml cannot be written
+	 */
+	@Test
+	public void testStaleAfterSameLengthRewriteInSameSecond() throws IOException {
+		File batchXml = writeBatchXml("<Batch><BatchName>aaaa</BatchName></Batch>");
+		long lastModified = batchXml.lastModified();
+		segmentStore.write(createBatch("DOC1"), BATCH_INSTANCE_ID, localFolder.getPath());
+		assertTrue(segmentStore.isCurrent(BATCH_INSTANCE_ID, localFolder.getPath()));
+
+		writeBatchXml("<Batch><BatchName>bbbb</BatchName></Batch>");
+		assertTrue(batchXml.setLastModified(lastModified));
+		assertFalse(segmentStore.isCurrent(BATCH_INSTANCE_ID, localFolder.getPath()));
+	}
+
+	private File writeBatchXml(String content) throws IOException {
+		File batchXml = new File(new File(localFolder, BATCH_INSTANCE_ID), BATCH_INSTANCE_ID + ICommonConstants.UNDERSCORE_BATCH_XML);
+		FileWriter writer = new FileWriter(batchXml);
+		try {
+			writer.write(content);
+		} finally {
+			writer.close();
+		}
+		return batchXml;
+	}
+
+	private Batch createBatch(String... documentIdentifiers) {
+		Batch batch = new Batch();
+		batch.setBatchInstanceIdentifier(BATCH_INSTANCE_ID);
+		batch.setBatchName("Test batch");
+		Documents documents = new Documents();
+		for (String documentIdentifier : documentIdentifiers) {
+			Document document = new Document();
+			document.setIdentifier(documentIdentifier);
+			document.setType("Unknown");
+			documents.getDocument().add(document);
+		}
+		batch.setDocuments(documents);
+		return batch;
+	}
+
+	private void deleteFolder(File folder) {
+		File[] files = folder.listFiles();
+		if (files != null) {
+			for (File file : files) {
+				deleteFolder(file);
+			}
+		}
+		folder.delete();
+	}
+}
@@ -0,0 +1,301 @@
+/********************************************************************************* 
+* Ephesoft is a Intelligent Document Capture and Mailroom Automation program 
+* developed by Ephesoft, Inc. Copyright (C) 2010-2012 Ephesoft Inc. 
+* 
+* This program is free software; you can redistribute it and/or modify it under 
+* the terms of the GNU Affero General Public License version 3 as published by the 
+* Free Software Foundation with the addition of the following permission added 
+* to Section 15 as permitted in Section 7(a): FOR ANY PART OF THE COVERED WORK 
+* IN WHICH THE COPYRIGHT IS OWNED BY EPHESOFT, EPHESOFT DISCLAIMS THE WARRANTY 
+* OF NON INFRINGEMENT OF THIRD PARTY RIGHTS. 
+* 
+* This program is distributed in the hope that it will be useful, but WITHOUT 
+* ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+* FOR A PARTICULAR PURPOSE.  See the GNU Affero General Public License for more 
+* details. 
+* 
+* You should have received a copy of the GNU Affero General Public License along with 
+* this program; if not, see http://www.gnu.org/licenses or write to the Free 
+* Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 
+* 02110-1301 USA. 
+* 
+* You can contact Ephesoft, Inc. headquarters at 111 Academy Way, 
+* Irvine, CA 92617, USA. or at email address info@ephesoft.com. 
+* 
+* The interactive user interfaces in modified source and object code versions 
+* of this program must display Appropriate Legal Notices, as required under 
+* Section 5 of the GNU Affero General Public License version 3. 
+* 
+* In accordance with Section 7(b) of the GNU Affero General Public License version 3, 
+* these Appropriate Legal Notices must retain the display of the "Ephesoft" logo. 
+* If the display of the logo is not reasonably feasible for 
+* technical reasons, the Appropriate Legal Notices must display the words 
+* "Powered by Ephesoft". 
+********************************************************************************/ 
+
+
+package com.ephesoft.dcma.batch.dao.xml;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.math.BigInteger;
+import java.util.List;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.ephesoft.dcma.batch.schema.Coordinates;
+import com.ephesoft.dcma.batch.schema.HocrPages;
+import com.ephesoft.dcma.batch.schema.HocrPages.HocrPage;
+import com.ephesoft.dcma.batch.schema.HocrPages.HocrPage.Spans;
+import com.ephesoft.dcma.batch.schema.HocrPages.HocrPage.Spans.Span;
+import com.ephesoft.dcma.core.dao.xml.FileStamp;
+
+/**
+ * This is Junit test for HocrBinaryStore. It checks that hOCR pages written to the binary file are read back as the HOCR xml is
+ * parsed, and that the binary file is ignored once the HOCR xml changes.
+ * 
+ * @author Ephesoft
+ * @version 1.0
+ * @see com.ephesoft.dcma.batch.dao.xml.HocrBinaryStore
+ */
+public class HocrBinaryStoreTest {
+
+	/**
+	 * Offset of the checksum of the stamp in a binary file, following the marker, the version and four stamp values.
+	 */
+	private static final int CHECKSUM_OFFSET = 40;
+
+	/**
+	 * Folder of the test files.
+	 */
+	private File folder;
+
+	/**
+	 * Path of the HOCR xml.
+	 */
+	private String xmlFilePath;
+
+	/**
+	 * JAXB context of the hOCR pages.
+	 */
+	private JAXBContext context;
+
+	/**
+	 * Store under test.
+	 */
+	private HocrBinaryStore binaryStore;
+
+	/**
+	 * This method creates the folder of the test files and the store.
+	 * 
+	 * @throws Exception if the folder or the JAXB context cannot be created
+	 */
+	@Before
+	public void setUp() throws Exception {
+		folder = File.createTempFile("hocr-binary-store", "");
+		folder.delete();
+		folder.mkdirs();
+		xmlFilePath = new File(folder, "BI1_PG0_HOCR.xml").getPath();
+		context = JAXBContext.newInstance(HocrPages.class);
+		binaryStore = new HocrBinaryStore(true);
+	}
+
+	/**
+	 * This method deletes the folder of the test files.
+	 */
+	@After
+	public void tearDown() {
+		for (File file : folder.listFiles()) {
+			file.delete();
+		}
+		folder.delete();
+	}
+
+	/**
+	 * This method tests that the pages read from the binary file equal the pages parsed from the HOCR xml.
+	 * 
+	 * @throws JAXBException if the HOCR xml cannot be written or parsed
+	 */
+	@Test
+	public void testRoundTrip() throws JAXBException {
+		HocrPages hocrPages = createHocrPages();
+		writeXml(hocrPages);
+		binaryStore.write(hocrPages, xmlFilePath);
+		assertTrue(new File(HocrBinaryStore.getBinaryFilePath(xmlFilePath)).exists());
+
+		HocrPages readPages = binaryStore.read(xmlFilePath);
+		assertNotNull(readPages);
+		assertSamePages(readXml(), readPages);
+		assertSamePages(hocrPages, readPages);
+	}
+
+	/**
+	 * This method tests that the binary file is ignored once the HOCR xml is rewritten, even with the same length and last modified
+	 * time.
+	 * 
+	 * @throws Exception if the HOCR xml cannot be written
+	 */
+	@Test
+	public void testStaleAfterXmlRewrite() throws Exception {
+		HocrPages hocrPages = createHocrPages();
+		writeXml(hocrPages);
+		binaryStore.write(hocrPages, xmlFilePath);
+		File xmlFile = new File(xmlFilePath);
+		long lastModified = xmlFile.lastModified();
+		long length = xmlFile.length();
+
+		hocrPages.getHocrPage().get(0).getSpans().getSpan().get(0).setValue("Tnvoice");
+		writeXml(hocrPages);
+		xmlFile.setLastModified(lastModified);
+		assertEquals(length, xmlFile.length());
+		assertNull(binaryStore.read(xmlFilePath));
+
+		binaryStore.write(hocrPages, xmlFilePath);
+		assertEquals("Tnvoice", binaryStore.read(xmlFilePath).getHocrPage().get(0).getSpans().getSpan().get(0).getValue());
+	}
+
+	/**
+	 * This method tests that the checksum in the binary file is dropped once the HOCR xml is old enough, so that later reads do not
+	 * read the xml.
+	 * 
+	 * @throws Exception if the files cannot be read
+	 */
+	@Test
+	public void testChecksumDroppedOnceXmlIsOld() throws Exception {
+		HocrPages hocrPages = createHocrPages();
+		writeXml(hocrPages);
+		binaryStore.write(hocrPages, xmlFilePath);
+		assertFalse(FileStamp.NO_CHECKSUM == readChecksum());
+
+		Thread.sleep(FileStamp.RACY_WINDOW_MILLIS + 100);
+		assertNotNull(binaryStore.read(xmlFilePath));
+		assertEquals(FileStamp.NO_CHECKSUM, readChecksum());
+		assertSamePages(hocrPages, binaryStore.read(xmlFilePath));
+	}
+
+	/**
+	 * This method tests that pages with a coordinate too large for the binary file are left to the HOCR xml.
+	 * 
+	 * @throws JAXBException if the HOCR xml cannot be written
+	 */
+	@Test
+	public void testLargeCoordinateLeftToXml() throws JAXBException {
+		HocrPages hocrPages = createHocrPages();
+		hocrPages.getHocrPage().get(0).getSpans().getSpan().get(0).getCoordinates().setX1(BigInteger.valueOf(Long.MAX_VALUE));
+		writeXml(hocrPages);
+		binaryStore.write(hocrPages, xmlFilePath);
+		assertFalse(new File(HocrBinaryStore.getBinaryFilePath(xmlFilePath)).exists());
+		assertNull(binaryStore.read(xmlFilePath));
+	}
+
+	/**
+	 * This method tests that a disabled store neither writes nor reads binary files.
+	 * 
+	 * @throws JAXBException if the HOCR xml cannot be written
+	 */
+	@Test
+	public void testDisabled() throws JAXBException {
+		HocrPages hocrPages = createHocrPages();
+		writeXml(hocrPages);
+		new HocrBinaryStore(true).write(hocrPages, xmlFilePath);
+		HocrBinaryStore disabledStore = new HocrBinaryStore(false);
+		assertFalse(disabledStore.isEnabled());
+		assertNull(disabledStore.read(xmlFilePath));
+	}
+
+	private HocrPages createHocrPages() {
+		HocrPages hocrPages = new HocrPages();
+		HocrPage hocrPage = new HocrPage();
+		hocrPage.setPageID("PG0");
+		hocrPage.setTitle("Invoice page");
+		hocrPage.setHocrContent("Invoice No: 5432000 Invoice ");
+		Spans spans = new Spans();
+		spans.getSpan().add(createSpan("Invoice", 1150, 394, 1306, 434));
+		spans.getSpan().add(createSpan("No:", 1323, 396, 1395, 435));
+		spans.getSpan().add(createSpan("5432000", 9789, 397, 9983, 436));
+		spans.getSpan().add(createSpan("Invoice", 1150, 457, 1306, 497));
+		Span emptySpan = new Span();
+		spans.getSpan().add(emptySpan);
+		hocrPage.setSpans(spans);
+		hocrPages.getHocrPage().add(hocrPage);
+		HocrPage emptyPage = new HocrPage();
+		emptyPage.setPageID("PG1");
+		hocrPages.getHocrPage().add(emptyPage);
+		return hocrPages;
+	}
+
+	private Span createSpan(String value, long x0, long y0, long x1, long y1) {
+		Span span = new Span();
+		span.setValue(value);
+		Coordinates coordinates = new Coordinates();
+		coordinates.setX0(BigInteger.valueOf(x0));
+		coordinates.setY0(BigInteger.valueOf(y0));
+		coordinates.setX1(BigInteger.valueOf(x1));
+		coordinates.setY1(BigInteger.valueOf(y1));
+		span.setCoordinates(coordinates);
+		return span;
+	}
+
+	private void writeXml(HocrPages hocrPages) throws JAXBException {
+		context.createMarshaller().marshal(hocrPages, new File(xmlFilePath));
+	}
+
+	private HocrPages readXml() throws JAXBException {
+		return (HocrPages) context.createUnmarshaller().unmarshal(new File(xmlFilePath));
+	}
+
+	private long readChecksum() throws IOException {
+		RandomAccessFile file = new RandomAccessFile(HocrBinaryStore.getBinaryFilePath(xmlFilePath), "r");
+		try {
+			file.seek(CHECKSUM_OFFSET);
+			return file.readLong();
+		} finally {
+			file.close();
+		}
+	}
+
+	private void assertSamePages(HocrPages expectedPages, HocrPages hocrPages) {
+		List<HocrPage> expectedList = expectedPages.getHocrPage();
+		List<HocrPage> pageList = hocrPages.getHocrPage();
+		assertEquals(expectedList.size(), pageList.size());
+		for (int pageIndex = 0; pageIndex < pageList.size(); pageIndex++) {
+			HocrPage expectedPage = expectedList.get(pageIndex);
+			HocrPage hocrPage = pageList.get(pageIndex);
+			assertEquals(expectedPage.getPageID(), hocrPage.getPageID());
+			assertEquals(expectedPage.getTitle(), hocrPage.getTitle());
+			assertEquals(expectedPage.getHocrContent(), hocrPage.getHocrContent());
+			assertEquals(expectedPage.getSpans() == null, hocrPage.getSpans() == null);
+			if (expectedPage.getSpans() != null) {
+				List<Span> expectedSpans = expectedPage.getSpans().getSpan();
+				List<Span> spans = hocrPage.getSpans().getSpan();
+				assertEquals(expectedSpans.size(), spans.size());
+				for (int spanIndex = 0; spanIndex < spans.size(); spanIndex++) {
+					assertEquals(expectedSpans.get(spanIndex).getValue(), spans.get(spanIndex).getValue());
+					assertSameCoordinates(expectedSpans.get(spanIndex).getCoordinates(), spans.get(spanIndex).getCoordinates());
+				}
+			}
+		}
+	}
+
+	private void assertSameCoordinates(Coordinates expected, Coordinates coordinates) {
+		assertEquals(expected == null, coordinates == null);
+		if (expected != null) {
+			assertEquals(expected.getX0(), coordinates.getX0());
+			assertEquals(expected.getY0(), coordinates.getY0());
+			assertEquals(expected.getX1(), coordinates.getX1());
+			assertEquals(expected.getY1(), coordinates.getY1());
+		}
+	}
+}
@@ -0,0 +1,227 @@
+/********************************************************************************* 
+* Ephesoft is a Intelligent Document Capture and Mailroom Automation program 
+* developed by Ephesoft, Inc. Copyright (C) 2010-2012 Ephesoft Inc. 
+* 
+* This program is free software; you can redistribute it and/or modify it under 
+* the terms of the GNU Affero General Public License version 3 as published by the 
+* Free Software Foundation with the addition of the following permission added 
+* to Section 15 as permitted in Section 7(a): FOR ANY PART OF THE COVERED WORK 
+* IN WHICH THE COPYRIGHT IS OWNED BY EPHESOFT, EPHESOFT DISCLAIMS THE WARRANTY 
+* OF NON INFRINGEMENT OF THIRD PARTY RIGHTS. 
+* 
+* This program is distributed in the hope that it will be useful, but WITHOUT 
+* ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+* FOR A PARTICULAR PURPOSE.  See the GNU Affero General Public License for more 
+* details. 
+* 
+* You should have received a copy of the GNU Affero General Public License along with 
+* this program; if not, see http://www.gnu.org/licenses or write to the Free 
+* Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 
+* 02110-1301 USA. 
+* 
+* You can contact Ephesoft, Inc. headquarters at 111 Academy Way, 
+* Irvine, CA 92617, USA. or at email address info@ephesoft.com. 
+* 
+* The interactive user interfaces in modified source and object code versions 
+* of this program must display Appropriate Legal Notices, as required under 
+* Section 5 of the GNU Affero General Public License version 3. 
+* 
+* In accordance with Section 7(b) of the GNU Affero General Public License version 3, 
+* these Appropriate Legal Notices must retain the display of the "Ephesoft" logo. 
+* If the display of the logo is not reasonably feasible for 
+* technical reasons, the Appropriate Legal Notices must display the words 
+* "Powered by Ephesoft". 
+********************************************************************************/ 
+
+
+package com.ephesoft.dcma.batch.service;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.math.BigInteger;
+import java.util.List;
+
+import org.apache.commons.io.IOUtils;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+import com.ephesoft.dcma.batch.constant.BatchConstants;
+import com.ephesoft.dcma.batch.schema.Coordinates;
+import com.ephesoft.dcma.batch.schema.HocrPages.HocrPage;
+import com.ephesoft.dcma.batch.schema.HocrPages.HocrPage.Spans;
+import com.ephesoft.dcma.batch.schema.HocrPages.HocrPage.Spans.Span;
+import com.ephesoft.dcma.util.OCREngineUtil;
+import com.ephesoft.dcma.util.XMLUtil;
+
+/**
+ * This class benchmarks the generation of a hOCR page from a html hOCR file. It compares the former path, which cleaned the html into
+ * a temp file, formatted it for Tesseract and walked a DOM, with the streaming {@link HocrReader}, and prints the time and the heap
+ * allocated per page for both.
+ * 
+ * Usage : HocrReaderBenchmark <html hOCR file> [iterations]
+ * 
+ * @author Ephesoft
+ * @version 1.0
+ * @see com.ephesoft.dcma.batch.service.HocrReader
+ */
+public final class HocrReaderBenchmark {
+
+	/**
+	 * Default number of measured iterations.
+	 */
+	private static final int DEFAULT_ITERATIONS = 50;
+
+	/**
+	 * Nano seconds per milli second.
+	 */
+	private static final double NANOS_PER_MILLI = 1000000.0;
+
+	/**
+	 * Bytes per kilo byte.
+	 */
+	private static final double BYTES_PER_KB = 1024.0;
+
+	/**
+	 * Number of values in a hOCR bounding box title.
+	 */
+	private static final int BOX_TOKENS = 5;
+
+	private HocrReaderBenchmark() {
+		// Benchmark entry point only.
+	}
+
+	/**
+	 * Entry point of the benchmark.
+	 * 
+	 * @param args String[] the html hOCR file and optionally the number of iterations
+	 * @throws Exception if the hOCR cannot be read
+	 */
+	public static void main(final String[] args) throws Exception {
+		if (args.length < 1) {
+			System.out.println("Usage : HocrReaderBenchmark <html hOCR file> [iterations]");
+			return;
+		}
+		final File hocrFile = new File(args[0]);
+		final int iterations = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_ITERATIONS;
+		final File workingFolder = hocrFile.getAbsoluteFile().getParentFile();
+
+		final Runnable domReader = new Runnable() {
+
+			@Override
+			public void run() {
+				try {
+					readWithDom(hocrFile, workingFolder, true);
+				} catch (final Exception e) {
+					throw new IllegalStateException(e);
+				}
+			}
+		};
+		final Runnable streamingReader = new Runnable() {
+
+			@Override
+			public void run() {
+				try {
+					HocrReader.read(hocrFile.getPath(), new HocrPage(), true);
+				} catch (final IOException e) {
+					throw new IllegalStateException(e);
+				}
+			}
+		};
+		measure("DOM with temp file", domReader, iterations);
+		measure("Streaming", streamingReader, iterations);
+	}
+
+	private static void measure(final String name, final Runnable reader, final int iterations) {
+		for (int index = 0; index < iterations; index++) {
+			reader.run();
+		}
+		final ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+		final long allocatedBefore = getAllocatedBytes(threadBean);
+		final long start = System.nanoTime();
+		for (int index = 0; index < iterations; index++) {
+			reader.run();
+		}
+		final long elapsed = System.nanoTime() - start;
+		final long allocatedAfter = getAllocatedBytes(threadBean);
+		final StringBuilder result = new StringBuilder(name);
+		result.append(" : ").append(elapsed / NANOS_PER_MILLI / iterations).append(" ms/page");
+		if (allocatedBefore >= 0 && allocatedAfter >= 0) {
+			result.append(", ").append((allocatedAfter - allocatedBefore) / BYTES_PER_KB / iterations).append(" KB allocated/page");
+		}
+		System.out.println(result);
+	}
+
+	private static long getAllocatedBytes(final ThreadMXBean threadBean) {
+		long allocatedBytes = -1;
+		if (threadBean instanceof com.sun.management.ThreadMXBean) {
+			allocatedBytes = ((com.sun.management.ThreadMXBean) threadBean).getThreadAllocatedBytes(Thread.currentThread().getId());
+		}
+		return allocatedBytes;
+	}
+
+	/**
+	 * To read a html hOCR file the former way, also used by {@link HocrReaderTest} as the reference for the streaming reader.
+	 * 
+	 * @param hocrFile {@link File} the html hOCR file
+	 * @param workingFolder {@link File} folder of the temp file
+	 * @param isTesseractFormat boolean true if the hOCR is written by Tesseract 3
+	 * @return {@link HocrPage}
+	 * @throws Exception if the hOCR cannot be read
+	 */
+	static HocrPage readWithDom(final File hocrFile, final File workingFolder, final boolean isTesseractFormat) throws Exception {
+		final String outputFilePath = new File(workingFolder, "tempFileBenchmark").getPath();
+		XMLUtil.htmlOutputStream(hocrFile.getPath(), outputFilePath);
+		if (isTesseractFormat) {
+			OCREngineUtil.formatHOCRForTesseract(outputFilePath, workingFolder.getPath(), "Benchmark");
+		}
+		final HocrPage hocrPage = new HocrPage();
+		final FileInputStream inputStream = new FileInputStream(outputFilePath);
+		try {
+			final org.w3c.dom.Document doc = XMLUtil.createDocumentFrom(inputStream);
+			final NodeList titleNodeList = doc.getElementsByTagName(BatchConstants.TITLE);
+			for (int index = 0; index < titleNodeList.getLength(); index++) {
+				final Node nodeChild = titleNodeList.item(index).getFirstChild();
+				if (null != nodeChild && nodeChild.getNodeValue() != null) {
+					hocrPage.setTitle(nodeChild.getNodeValue());
+					break;
+				}
+			}
+			final NodeList spanNodeList = doc.getElementsByTagName("span");
+			final Spans spans = new Spans();
+			hocrPage.setSpans(spans);
+			final List<Span> spanList = spans.getSpan();
+			final StringBuilder hocrContent = new StringBuilder();
+			for (int index = 0; index < spanNodeList.getLength(); index++) {
+				final Node node = spanNodeList.item(index);
+				final Node nodeChild = node.getFirstChild();
+				final Span span = new Span();
+				if (null != nodeChild) {
+					span.setValue(nodeChild.getNodeValue());
+					hocrContent.append(nodeChild.getNodeValue());
+					hocrContent.append(BatchConstants.SPACE);
+				}
+				spanList.add(span);
+				final NamedNodeMap map = node.getAttributes();
+				final Node titleNode = map.getNamedItem(BatchConstants.TITLE);
+				final Coordinates coordinates = new Coordinates();
+				final String[] values = titleNode == null ? new String[0] : titleNode.getNodeValue().split(BatchConstants.SPACE);
+				if (values.length >= BOX_TOKENS) {
+					coordinates.setX0(new BigInteger(values[1]));
+					coordinates.setY0(new BigInteger(values[2]));
+					coordinates.setX1(new BigInteger(values[3]));
+					coordinates.setY1(new BigInteger(values[4]));
+				}
+				span.setCoordinates(coordinates);
+			}
+			hocrPage.setHocrContent(hocrContent.toString());
+		} finally {
+			IOUtils.closeQuietly(inputStream);
+			new File(outputFilePath).delete();
+		}
+		return hocrPage;
+	}
+}
@@ -0,0 +1,188 @@
+/********************************************************************************* 
+* Ephesoft is a Intelligent Document Capture and Mailroom Automation program 
+* developed by Ephesoft, Inc. Copyright (C) 2010-2012 Ephesoft Inc. 
+* 
+* This program is free software; you can redistribute it and/or modify it under 
+* the terms of the GNU Affero General Public License version 3 as published by the 
+* Free Software Foundation with the addition of the following permission added 
+* to Section 15 as permitted in Section 7(a): FOR ANY PART OF THE COVERED WORK 
+* IN WHICH THE COPYRIGHT IS OWNED BY EPHESOFT, EPHESOFT DISCLAIMS THE WARRANTY 
+* OF NON INFRINGEMENT OF THIRD PARTY RIGHTS. 
+* 
+* This program is distributed in the hope that it will be useful, but WITHOUT 
+* ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+* FOR A PARTICULAR PURPOSE.  See the GNU Affero General Public License for more 
+* details. 
+* 
+* You should have received a copy of the GNU Affero General Public License along with 
+* this program; if not, see http://www.gnu.org/licenses or write to the Free 
+* Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 
+* 02110-1301 USA. 
+* 
+* You can contact Ephesoft, Inc. headquarters at 111 Academy Way, 
+* Irvine, CA 92617, USA. or at email address info@ephesoft.com. 
+* 
+* The interactive user interfaces in modified source and object code versions 
+* of this program must display Appropriate Legal Notices, as required under 
+* Section 5 of the GNU Affero General Public License version 3. 
+* 
+* In accordance with Section 7(b) of the GNU Affero General Public License version 3, 
+* these Appropriate Legal Notices must retain the display of the "Ephesoft" logo. 
+* If the display of the logo is not reasonably feasible for 
+* technical reasons, the Appropriate Legal Notices must display the words 
+* "Powered by Ephesoft". 
+********************************************************************************/ 
+
+
+package com.ephesoft.dcma.batch.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.ephesoft.dcma.batch.schema.Coordinates;
+import com.ephesoft.dcma.batch.schema.HocrPages.HocrPage;
+import com.ephesoft.dcma.batch.schema.HocrPages.HocrPage.Spans.Span;
+import com.ephesoft.dcma.util.XMLUtil;
+
+/**
+ * This is Junit test for HocrReader. It reads the sample html hOCR files with the streaming reader and with the former DOM parser
+ * and compares the title, the content and the value and coordinates of every span.
+ * 
+ * @author Ephesoft
+ * @version 1.0
+ * @see com.ephesoft.dcma.batch.service.HocrReader
+ */
+public class HocrReaderTest {
+
+	/**
+	 * Folder of the sample hOCR files on the class path.
+	 */
+	private static final String SAMPLE_FOLDER = "hocr";
+
+	/**
+	 * Sample hOCR files.
+	 */
+	private static final String[] SAMPLE_FILES = {"28_AA-US-Invoice.html", "28_Application-Checklist_000.html",
+			"28_Workers-Comp-02_001.html"};
+
+	/**
+	 * Working folder of the test.
+	 */
+	private File workingFolder;
+
+	/**
+	 * This method creates the working folder.
+	 */
+	@Before
+	public void setUp() {
+		workingFolder = new File(System.getProperty("java.io.tmpdir"), "HocrReaderTest" + System.nanoTime());
+		assertTrue(workingFolder.mkdirs());
+	}
+
+	/**
+	 * This method deletes the working folder.
+	 */
+	@After
+	public void tearDown() {
+		FileUtils.deleteQuietly(workingFolder);
+	}
+
+	/**
+	 * This method tests that the html samples, which are not well formed and so are cleaned first, are read as the DOM parser reads
+	 * them.
+	 * 
+	 * @throws Exception if a sample cannot be read
+	 */
+	@Test
+	public void testHtmlSamples() throws Exception {
+		for (String sampleFile : SAMPLE_FILES) {
+			File hocrFile = getSample(sampleFile);
+			HocrPage expectedPage = HocrReaderBenchmark.readWithDom(hocrFile, workingFolder, false);
+			HocrPage hocrPage = new HocrPage();
+			HocrReader.read(hocrFile.getPath(), hocrPage, false);
+			assertSamePage(sampleFile, expectedPage, hocrPage);
+		}
+	}
+
+	/**
+	 * This method tests that the well formed xhtml of the samples is read directly as the DOM parser reads it.
+	 * 
+	 * @throws Exception if a sample cannot be read
+	 */
+	@Test
+	public void testXhtmlSamples() throws Exception {
+		for (String sampleFile : SAMPLE_FILES) {
+			File xhtmlFile = new File(workingFolder, sampleFile);
+			InputStream inputStream = new FileInputStream(getSample(sampleFile));
+			OutputStream outputStream = new FileOutputStream(xhtmlFile);
+			try {
+				XMLUtil.htmlOutputStream(inputStream, outputStream);
+			} finally {
+				IOUtils.closeQuietly(inputStream);
+				IOUtils.closeQuietly(outputStream);
+			}
+			HocrPage expectedPage = HocrReaderBenchmark.readWithDom(xhtmlFile, workingFolder, false);
+			HocrPage hocrPage = new HocrPage();
+			inputStream = new FileInputStream(xhtmlFile);
+			try {
+				assertTrue(sampleFile, HocrReader.read(inputStream, hocrPage, false));
+			} finally {
+				IOUtils.closeQuietly(inputStream);
+			}
+			assertSamePage(sampleFile, expectedPage, hocrPage);
+		}
+	}
+
+	/**
+	 * This method tests the coordinates of the hOCR title attributes.
+	 */
+	@Test
+	public void testGetCoordinates() {
+		assertCoordinates(HocrReader.getCoordinates("bbox 578 246 882 305"), 578, 246, 882, 305);
+		assertCoordinates(HocrReader.getCoordinates("bbox 10 20 110 40; x_wconf 90"), 10, 20, 110, 40);
+		assertCoordinates(HocrReader.getCoordinates("file ../name_of_the_file.tif"), 0, 0, 0, 0);
+		assertCoordinates(HocrReader.getCoordinates(null), 0, 0, 0, 0);
+	}
+
+	private File getSample(String sampleFile) throws Exception {
+		return new File(getClass().getClassLoader().getResource(SAMPLE_FOLDER + "/" + sampleFile).toURI());
+	}
+
+	private void assertSamePage(String sampleFile, HocrPage expectedPage, HocrPage hocrPage) {
+		assertEquals(sampleFile, expectedPage.getTitle(), hocrPage.getTitle());
+		assertEquals(sampleFile, expectedPage.getHocrContent(), hocrPage.getHocrContent());
+		List<Span> expectedSpans = expectedPage.getSpans().getSpan();
+		List<Span> spans = hocrPage.getSpans().getSpan();
+		assertTrue(sampleFile, expectedSpans.size() > 0);
+		assertEquals(sampleFile, expectedSpans.size(), spans.size());
+		for (int index = 0; index < spans.size(); index++) {
+			String message = sampleFile + " span " + index;
+			Span expectedSpan = expectedSpans.get(index);
+			Span span = spans.get(index);
+			assertEquals(message, expectedSpan.getValue(), span.getValue());
+			Coordinates expected = expectedSpan.getCoordinates();
+			assertCoordinates(span.getCoordinates(), expected.getX0().longValue(), expected.getY0().longValue(), expected.getX1()
+					.longValue(), expected.getY1().longValue());
+		}
+	}
+
+	private void assertCoordinates(Coordinates coordinates, long x0, long y0, long x1, long y1) {
+		assertEquals(x0, coordinates.getX0().longValue());
+		assertEquals(y0, coordinates.getY0().longValue());
+		assertEquals(x1, coordinates.getX1().longValue());
+		assertEquals(y1, coordinates.getY1().longValue());
+	}
+}
@@ -0,0 +1,311 @@
+/********************************************************************************* 
+* Ephesoft is a Intelligent Document Capture and Mailroom Automation program 
+* developed by Ephesoft, Inc. Copyright (C) 2010-2012 Ephesoft Inc. 
+* 
+* This program is free software; you can redistribute it and/or modify it under 
+* the terms of the GNU Affero General Public License version 3 as published by the 
+* Free Software Foundation with the addition of the following permission added 
+* to Section 15 as permitted in Section 7(a): FOR ANY PART OF THE COVERED WORK 
+* IN WHICH THE COPYRIGHT IS OWNED BY EPHESOFT, EPHESOFT DISCLAIMS THE WARRANTY 
+* OF NON INFRINGEMENT OF THIRD PARTY RIGHTS. 
+* 
+* This program is distributed in the hope that it will be useful, but WITHOUT 
+* ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+* FOR A PARTICULAR PURPOSE.  See the GNU Affero General Public License for more 
+* details. 
+* 
+* You should have received a copy of the GNU Affero General Public License along with 
+* this program; if not, see http://www.gnu.org/licenses or write to the Free 
+* Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 
+* 02110-1301 USA. 
+* 
+* You can contact Ephesoft, Inc. headquarters at 111 Academy Way, 
+* Irvine, CA 92617, USA. or at email address info@ephesoft.com. 
+* 
+* The interactive user interfaces in modified source and object code versions 
+* of this program must display Appropriate Legal Notices, as required under 
+* Section 5 of the GNU Affero General Public License version 3. 
+* 
+* In accordance with Section 7(b) of the GNU Affero General Public License version 3, 
+* these Appropriate Legal Notices must retain the display of the "Ephesoft" logo. 
+* If the display of the logo is not reasonably feasible for 
+* technical reasons, the Appropriate Legal Notices must display the words 
+* "Powered by Ephesoft". 
+********************************************************************************/ 
+
+
+package com.ephesoft.dcma.common;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.ephesoft.dcma.batch.schema.Coordinates;
+import com.ephesoft.dcma.batch.schema.HocrPages.HocrPage;
+import com.ephesoft.dcma.batch.schema.HocrPages.HocrPage.Spans;
+import com.ephesoft.dcma.batch.schema.HocrPages.HocrPage.Spans.Span;
+
+/**
+ * This is Junit test for HocrSpanIndex. It checks that the lines, zone queries and span lookups of the index give the results of
+ * the full scans of {@link HocrUtil} on a generated page, and that indexes are shared per page and width of line.
+ * 
+ * @author Ephesoft
+ * @version 1.0
+ * @see com.ephesoft.dcma.common.HocrSpanIndex
+ */
+public class HocrSpanIndexTest {
+
+	/**
+	 * Width of line used by key value extraction.
+	 */
+	private static final int WIDTH_OF_LINE = 15;
+
+	/**
+	 * Number of generated zones checked against the full scans.
+	 */
+	private static final int ZONE_COUNT = 500;
+
+	/**
+	 * Generated page.
+	 */
+	private HocrPage hocrPage;
+
+	/**
+	 * Random numbers with a fixed seed, so that every run checks the same page and zones.
+	 */
+	private Random random;
+
+	/**
+	 * This method generates the page.
+	 */
+	@Before
+	public void setUp() {
+		random = new Random(2012L);
+		hocrPage = new HocrPage();
+		hocrPage.setPageID("PG0");
+		Spans spans = new Spans();
+		for (int line = 0; line < 60; line++) {
+			int lineY1 = 100 + line * 50;
+
+			// Some lines are much taller than a grid cell, e.g. logos or stamps.
+			int height = line % 7 == 0 ? 60 + random.nextInt(200) : 20 + random.nextInt(20);
+			int x0 = random.nextInt(200);
+			for (int word = random.nextInt(8); word >= 0; word--) {
+				int x1 = x0 + 20 + random.nextInt(150);
+				int y1 = lineY1 + random.nextInt(7) - 3;
+				spans.getSpan().add(createSpan("W" + line + '_' + word, x0, y1 - height, x1, y1));
+				x0 = x1 + 5 + random.nextInt(60);
+			}
+		}
+
+		// Spans with inverted coordinates make rows which cannot be placed in the grid.
+		spans.getSpan().add(createSpan("Inverted", 500, 1600, 600, 1400));
+		spans.getSpan().add(createSpan("Far", 100, 3300, 400, 3250));
+		hocrPage.setSpans(spans);
+	}
+
+	/**
+	 * This method tests that the index groups the spans into the lines of
+	 * {@link HocrUtil#getLineDataCarrierList(Spans, String, int)} for several widths of line.
+	 */
+	@Test
+	public void testLinesMatchHocrUtil() {
+		for (int widthOfLine : new int[] {0, 5, WIDTH_OF_LINE, 100}) {
+			HocrSpanIndex spanIndex = HocrSpanIndex.getIndex(hocrPage, widthOfLine);
+			assertEquals(widthOfLine, spanIndex.getWidthOfLine());
+			List<LineDataCarrier> expectedLines = HocrUtil.getLineDataCarrierList(hocrPage.getSpans(), "PG0", widthOfLine);
+			List<LineDataCarrier> lines = spanIndex.getLineDataCarrierList();
+			assertEquals(expectedLines.size(), spanIndex.getLineCount());
+			assertEquals(expectedLines.size(), lines.size());
+			for (int lineIndex = 0; lineIndex < lines.size(); lineIndex++) {
+				assertEquals("PG0", lines.get(lineIndex).getPageID());
+				assertSameSpans(expectedLines.get(lineIndex).getSpanList(), lines.get(lineIndex).getSpanList());
+			}
+			assertSameSpans(HocrUtil.getSortedSpanList(hocrPage.getSpans(), widthOfLine), spanIndex.getSortedSpanList());
+		}
+
+		// The returned lines are copies, changing them does not change the index.
+		HocrSpanIndex spanIndex = HocrSpanIndex.getIndex(hocrPage, WIDTH_OF_LINE);
+		spanIndex.getLineDataCarrierList().get(0).getSpanList().clear();
+		assertFalse(spanIndex.getLineDataCarrierList().get(0).getSpanList().isEmpty());
+	}
+
+	/**
+	 * This method tests that the rows valid for a zone are the rows found by {@link HocrUtil#isValidRowForZone(Coordinates,
+	 * Coordinates)} on every line, including inverted zones and zones outside the page.
+	 */
+	@Test
+	public void testValidRowsMatchFullScan() {
+		HocrSpanIndex spanIndex = HocrSpanIndex.getIndex(hocrPage, WIDTH_OF_LINE);
+		List<LineDataCarrier> lines = spanIndex.getLineDataCarrierList();
+		for (int zoneIndex = 0; zoneIndex < ZONE_COUNT; zoneIndex++) {
+			Coordinates zoneCoordinates = createZone();
+			List<Integer> expectedRows = new ArrayList<Integer>();
+			for (int lineIndex = 0; lineIndex < lines.size(); lineIndex++) {
+				boolean isValidRow = HocrUtil.isValidRowForZone(lines.get(lineIndex).getRowCoordinates(), zoneCoordinates);
+				assertEquals(isValidRow, spanIndex.isValidRowForZone(lineIndex, zoneCoordinates));
+				if (isValidRow) {
+					expectedRows.add(lineIndex);
+				}
+			}
+			int[] validRows = spanIndex.getValidRowIndexes(zoneCoordinates);
+			assertArrayEquals(toArray(expectedRows), validRows);
+
+			List<LineDataCarrier> validLines = spanIndex.getValidRowsForZone(lines, zoneCoordinates);
+			assertEquals(validRows.length, validLines.size());
+			for (int row = 0; row < validRows.length; row++) {
+				assertSame(lines.get(validRows[row]), validLines.get(row));
+			}
+		}
+		assertEquals(0, spanIndex.getValidRowIndexes(null).length);
+		assertFalse(spanIndex.isValidRowForZone(-1, createZone()));
+		assertFalse(spanIndex.isValidRowForZone(lines.size(), createZone()));
+
+		// Lines not built by the index fall back to the full scan.
+		List<LineDataCarrier> otherLines = HocrUtil.getLineDataCarrierList(hocrPage.getSpans(), "PG0", 5);
+		Coordinates zoneCoordinates = createCoordinates(0, 300, 1000, 900);
+		assertEquals(HocrUtil.getValidRowsForZone(otherLines, zoneCoordinates), spanIndex.getValidRowsForZone(otherLines,
+				zoneCoordinates));
+	}
+
+	/**
+	 * This method tests that the spans of a line inside a zone are the spans found by {@link HocrUtil#isInsideZone(Coordinates,
+	 * Coordinates)}, in the order of the line.
+	 */
+	@Test
+	public void testSpansInsideZoneMatchFullScan() {
+		HocrSpanIndex spanIndex = HocrSpanIndex.getIndex(hocrPage, WIDTH_OF_LINE);
+		List<LineDataCarrier> lines = spanIndex.getLineDataCarrierList();
+		int spansFound = 0;
+		for (int zoneIndex = 0; zoneIndex < ZONE_COUNT; zoneIndex++) {
+			Coordinates zoneCoordinates = createZone();
+			for (int lineIndex = 0; lineIndex < lines.size(); lineIndex++) {
+				List<Span> expectedSpans = new ArrayList<Span>();
+				for (Span span : lines.get(lineIndex).getSpanList()) {
+					if (HocrUtil.isInsideZone(span.getCoordinates(), zoneCoordinates)) {
+						expectedSpans.add(span);
+					}
+				}
+				assertSameSpans(expectedSpans, spanIndex.getSpansInsideZone(lineIndex, zoneCoordinates));
+				spansFound += expectedSpans.size();
+			}
+		}
+		assertTrue(spansFound > 0);
+		assertTrue(spanIndex.getSpansInsideZone(0, null).isEmpty());
+		assertTrue(spanIndex.getSpansInsideZone(lines.size(), createZone()).isEmpty());
+	}
+
+	/**
+	 * This method tests that the lines of the spans having the x0 and x1 coordinates of a span are found, once per matching span.
+	 */
+	@Test
+	public void testLineIndexesOfSpans() {
+		Span copiedSpan = hocrPage.getSpans().getSpan().get(10);
+		Coordinates copiedCoordinates = copiedSpan.getCoordinates();
+		hocrPage.getSpans().getSpan().add(createSpan("Copy", copiedCoordinates.getX0().longValue(), 3000,
+				copiedCoordinates.getX1().longValue(), 3030));
+		HocrSpanIndex spanIndex = HocrSpanIndex.getIndex(hocrPage, WIDTH_OF_LINE);
+		List<LineDataCarrier> lines = spanIndex.getLineDataCarrierList();
+		for (Span span : spanIndex.getSortedSpanList()) {
+			List<Integer> expectedLineIndexes = new ArrayList<Integer>();
+			for (int lineIndex = 0; lineIndex < lines.size(); lineIndex++) {
+				for (Span lineSpan : lines.get(lineIndex).getSpanList()) {
+					if (lineSpan.getCoordinates().getX0().equals(span.getCoordinates().getX0())
+							&& lineSpan.getCoordinates().getX1().equals(span.getCoordinates().getX1())) {
+						expectedLineIndexes.add(lineIndex);
+					}
+				}
+			}
+			assertEquals(expectedLineIndexes, spanIndex.getLineIndexesOfSpans(span.getCoordinates()));
+		}
+		assertEquals(2, spanIndex.getLineIndexesOfSpans(copiedCoordinates).size());
+		assertTrue(spanIndex.getLineIndexesOfSpans(createCoordinates(-5, 0, -1, 10)).isEmpty());
+		assertTrue(spanIndex.getLineIndexesOfSpans(null).isEmpty());
+	}
+
+	/**
+	 * This method tests that the index of a page is shared for a width of line and rebuilt once the spans or the page id of the page
+	 * change.
+	 */
+	@Test
+	public void testIndexIsCachedPerPage() {
+		HocrSpanIndex spanIndex = HocrSpanIndex.getIndex(hocrPage, WIDTH_OF_LINE);
+		assertSame(spanIndex, HocrSpanIndex.getIndex(hocrPage, WIDTH_OF_LINE));
+		HocrSpanIndex otherWidthIndex = HocrSpanIndex.getIndex(hocrPage, 5);
+		assertNotSame(spanIndex, otherWidthIndex);
+		assertSame(spanIndex, HocrSpanIndex.getIndex(hocrPage, WIDTH_OF_LINE));
+		assertSame(otherWidthIndex, HocrSpanIndex.getIndex(hocrPage, 5));
+
+		int spanCount = spanIndex.getSortedSpanList().size();
+		hocrPage.getSpans().getSpan().add(createSpan("Added", 100, 5000, 200, 5030));
+		HocrSpanIndex addedSpanIndex = HocrSpanIndex.getIndex(hocrPage, WIDTH_OF_LINE);
+		assertNotSame(spanIndex, addedSpanIndex);
+		assertEquals(spanCount + 1, addedSpanIndex.getSortedSpanList().size());
+		assertSame(addedSpanIndex, HocrSpanIndex.getIndex(hocrPage, WIDTH_OF_LINE));
+
+		Spans spans = new Spans();
+		spans.getSpan().addAll(hocrPage.getSpans().getSpan());
+		hocrPage.setSpans(spans);
+		HocrSpanIndex replacedSpansIndex = HocrSpanIndex.getIndex(hocrPage, WIDTH_OF_LINE);
+		assertNotSame(addedSpanIndex, replacedSpansIndex);
+
+		hocrPage.setPageID("PG1");
+		HocrSpanIndex renamedPageIndex = HocrSpanIndex.getIndex(hocrPage, WIDTH_OF_LINE);
+		assertNotSame(replacedSpansIndex, renamedPageIndex);
+		assertEquals("PG1", renamedPageIndex.getLineDataCarrierList().get(0).getPageID());
+
+		HocrSpanIndex emptyIndex = HocrSpanIndex.getIndex(null, WIDTH_OF_LINE);
+		assertEquals(0, emptyIndex.getLineCount());
+		assertTrue(emptyIndex.getSortedSpanList().isEmpty());
+		assertEquals(0, emptyIndex.getValidRowIndexes(createZone()).length);
+		assertEquals(0, HocrSpanIndex.getIndex(new HocrPage(), WIDTH_OF_LINE).getLineCount());
+	}
+
+	private Coordinates createZone() {
+		int x0 = random.nextInt(1500) - 100;
+		int y0 = random.nextInt(3400) - 100;
+		return createCoordinates(x0, y0, x0 + random.nextInt(1000) - 200, y0 + random.nextInt(800) - 150);
+	}
+
+	private Span createSpan(String value, long x0, long y0, long x1, long y1) {
+		Span span = new Span();
+		span.setValue(value);
+		span.setCoordinates(createCoordinates(x0, y0, x1, y1));
+		return span;
+	}
+
+	private Coordinates createCoordinates(long x0, long y0, long x1, long y1) {
+		Coordinates coordinates = new Coordinates();
+		coordinates.setX0(BigInteger.valueOf(x0));
+		coordinates.setY0(BigInteger.valueOf(y0));
+		coordinates.setX1(BigInteger.valueOf(x1));
+		coordinates.setY1(BigInteger.valueOf(y1));
+		return coordinates;
+	}
+
+	private void assertSameSpans(List<Span> expectedSpans, List<Span> spans) {
+		assertEquals(expectedSpans.size(), spans.size());
+		for (int spanIndex = 0; spanIndex < spans.size(); spanIndex++) {
+			assertSame(expectedSpans.get(spanIndex), spans.get(spanIndex));
+		}
+	}
+
+	private int[] toArray(List<Integer> values) {
+		int[] array = new int[values.size()];
+		for (int index = 0; index < array.length; index++) {
+			array[index] = values.get(index);
+		}
+		return array;
+	}
+}
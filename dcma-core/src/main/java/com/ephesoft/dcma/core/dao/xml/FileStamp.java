@@ -0,0 +1,183 @@
+/********************************************************************************* 
+* Ephesoft is a Intelligent Document Capture and Mailroom Automation program 
+* developed by Ephesoft, Inc. Copyright (C) 2010-2012 Ephesoft Inc. 
+* 
+* This program is free software; you can redistribute it and/or modify it under 
+* the terms of the GNU Affero General Public License version 3 as published by the 
+* Free Software Foundation with the addition of the following permission added 
+* to Section 15 as permitted in Section 7(a): FOR ANY PART OF THE COVERED WORK 
+* IN WHICH THE COPYRIGHT IS OWNED BY EPHESOFT, EPHESOFT DISCLAIMS THE WARRANTY 
+* OF NON INFRINGEMENT OF THIRD PARTY RIGHTS. 
+* 
+* This program is distributed in the hope that it will be useful, but WITHOUT 
+* ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+* FOR A PARTICULAR PURPOSE.  See the GNU Affero General Public License for more 
+* details. 
+* 
+* You should have received a copy of the GNU Affero General Public License along with 
+* this program; if not, see http://www.gnu.org/licenses or write to the Free 
+* Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 
+* 02110-1301 USA. 
+* 
+* You can contact Ephesoft, Inc. headquarters at 111 Academy Way, 
+* Irvine, CA 92617, USA. or at email address info@ephesoft.com. 
+* 
+* The interactive user interfaces in modified source and object code versions 
+* of this program must display Appropriate Legal Notices, as required under 
+* Section 5 of the GNU Affero General Public License version 3. 
+* 
+* In accordance with Section 7(b) of the GNU Affero General Public License version 3, 
+* these Appropriate Legal Notices must retain the display of the "Ephesoft" logo. 
+* If the display of the logo is not reasonably feasible for 
+* technical reasons, the Appropriate Legal Notices must display the words 
+* "Powered by Ephesoft". 
+********************************************************************************/ 
+
+
+package com.ephesoft.dcma.core.dao.xml;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.CRC32;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class takes and checks stamps of the files read through a cache, covering both the plain and the zipped form of a file. A stamp
+ * holds the last modified time and the length of both forms. File times have a coarse resolution, so a file rewritten with the same
+ * length within the same tick keeps its stamp; for a file modified within {@link #RACY_WINDOW_MILLIS} of taking the stamp the checksum
+ * of its content is added and checked as well.
+ * 
+ * @author Ephesoft
+ * @version 1.0
+ * @see com.ephesoft.dcma.core.dao.xml.XmlObjectCache
+ */
+public final class FileStamp {
+
+	/**
+	 * Number of values in a stamp.
+	 */
+	public static final int STAMP_LENGTH = 5;
+
+	/**
+	 * Checksum value of a stamp taken when the file was old enough for its time and length to tell every change.
+	 */
+	public static final long NO_CHECKSUM = -1L;
+
+	/**
+	 * Checksum value of a file which could not be read, it never matches.
+	 */
+	private static final long UNKNOWN_CHECKSUM = Long.MIN_VALUE;
+
+	/**
+	 * Time in milli seconds within which a change of a file may not change its last modified time.
+	 */
+	public static final long RACY_WINDOW_MILLIS = 2000L;
+
+	/**
+	 * LOGGER to print the logging information.
+	 */
+	private static final Logger LOGGER = LoggerFactory.getLogger(FileStamp.class);
+
+	/**
+	 * ZIP_FILE_EXT String.
+	 */
+	private static final String ZIP_FILE_EXT = ".zip";
+
+	/**
+	 * Size of the buffer used to compute the checksum.
+	 */
+	private static final int BUFFER_SIZE = 8192;
+
+	private FileStamp() {
+		// Utility class.
+	}
+
+	/**
+	 * To take the stamp of a file.
+	 * 
+	 * @param filePath String
+	 * @return long[]
+	 */
+	public static long[] capture(final String filePath) {
+		File xmlFile = new File(filePath);
+		File zipFile = new File(filePath + ZIP_FILE_EXT);
+		long[] stamp = new long[] {xmlFile.lastModified(), xmlFile.length(), zipFile.lastModified(), zipFile.length(), NO_CHECKSUM};
+		if (Math.max(stamp[0], stamp[2]) + RACY_WINDOW_MILLIS > System.currentTimeMillis()) {
+			stamp[4] = getChecksum(xmlFile, zipFile);
+		}
+		return stamp;
+	}
+
+	/**
+	 * To check a stamp against the file and get the stamp to keep.
+	 * 
+	 * @param stamp long[] stamp taken earlier by {@link #capture(String)}
+	 * @param filePath String
+	 * @return long[] the current stamp of the file if it is unchanged since the given stamp, null otherwise. The current stamp carries
+	 *         no checksum once the file is old enough.
+	 */
+	public static long[] refresh(final long[] stamp, final String filePath) {
+		long[] currentStamp = null;
+		if (stamp != null && stamp.length == STAMP_LENGTH) {
+			long[] newStamp = capture(filePath);
+			boolean isCurrent = true;
+			for (int index = 0; index < STAMP_LENGTH - 1 && isCurrent; index++) {
+				isCurrent = stamp[index] == newStamp[index];
+			}
+			if (isCurrent && stamp[4] != NO_CHECKSUM) {
+				long checksum = newStamp[4];
+				if (checksum == NO_CHECKSUM) {
+					checksum = getChecksum(new File(filePath), new File(filePath + ZIP_FILE_EXT));
+				}
+				isCurrent = checksum == stamp[4] && checksum != UNKNOWN_CHECKSUM;
+			}
+			if (isCurrent) {
+				currentStamp = newStamp;
+			}
+		}
+		return currentStamp;
+	}
+
+	/**
+	 * To check whether the file is unchanged since the stamp was taken.
+	 * 
+	 * @param stamp long[] stamp taken earlier by {@link #capture(String)}
+	 * @param filePath String
+	 * @return boolean
+	 */
+	public static boolean isCurrent(final long[] stamp, final String filePath) {
+		return refresh(stamp, filePath) != null;
+	}
+
+	private static long getChecksum(final File xmlFile, final File zipFile) {
+		CRC32 checksum = new CRC32();
+		try {
+			update(checksum, xmlFile);
+			update(checksum, zipFile);
+		} catch (IOException e) {
+			LOGGER.info("Unable to compute the checksum of " + xmlFile.getPath() + ". " + e.getMessage());
+			return UNKNOWN_CHECKSUM;
+		}
+		return checksum.getValue();
+	}
+
+	private static void update(final CRC32 checksum, final File file) throws IOException {
+		if (file.isFile()) {
+			InputStream inputStream = new FileInputStream(file);
+			try {
+				byte[] buffer = new byte[BUFFER_SIZE];
+				int length = inputStream.read(buffer);
+				while (length >= 0) {
+					checksum.update(buffer, 0, length);
+					length = inputStream.read(buffer);
+				}
+			} finally {
+				inputStream.close();
+			}
+		}
+	}
+}
@@ -56,6 +56,8 @@ import com.ephesoft.dcma.core.common.DCMABusinessException;
 import com.ephesoft.dcma.core.component.ICommonConstants;
 import com.ephesoft.dcma.core.component.JAXB2Template;
 import com.ephesoft.dcma.core.dao.Dao;
+import com.ephesoft.dcma.core.dao.xml.XmlObjectCache.DirtyObject;
+import com.ephesoft.dcma.core.dao.xml.XmlObjectCache.WriteBack;
 import com.ephesoft.dcma.util.ApplicationConfigProperties;
 import com.ephesoft.dcma.util.FileUtils;
 import com.ephesoft.dcma.util.XMLUtil;
@@ -113,6 +115,10 @@ public abstract class XmlDao<T> implements Dao<T> {
 	public void create(T object, Serializable identifier, String pageId, String fileName, boolean isFirstTimeUpdate,
 			String localFolderPath) {
 		LOGGER.info("Entering create method.");
+		XmlObjectCache cache = getXmlObjectCache();
+		if (null == pageId && cache != null) {
+			cache.remove(getFilePath(identifier, fileName, localFolderPath));
+		}
 		OutputStream stream = null;
 		try {
 			String filePath = null;
@@ -187,6 +193,32 @@ public abstract class XmlDao<T> implements Dao<T> {
 	 */
 	@SuppressWarnings("unchecked")
 	public T get(Serializable identifier, String pageId, String fileName, String localFolder) {
+		XmlObjectCache cache = getXmlObjectCache();
+		if (null == pageId && cache != null && cache.isEnabled()) {
+			String filePath = getFilePath(identifier, fileName, localFolder);
+			T object = (T) cache.get(filePath);
+			if (object == null) {
+				long[] diskStamp = FileStamp.capture(filePath);
+				object = read(identifier, pageId, fileName, localFolder);
+				cache.putRead(filePath, object, diskStamp);
+			} else {
+				LOGGER.debug("Object for " + filePath + " served from the xml object cache.");
+			}
+			return object;
+		}
+		return read(identifier, pageId, fileName, localFolder);
+	}
+
+	/**
+	 * To read the object from disk.
+	 * @param identifier Serializable
+	 * @param localFolder String
+	 * @param pageId String
+	 * @param fileName String
+	 * @return T
+	 */
+	@SuppressWarnings("unchecked")
+	protected T read(Serializable identifier, String pageId, String fileName, String localFolder) {
 		LOGGER.info("Entering get method.");
 		boolean isZipSwitchOn = true;
 		isZipSwitchOn = isZipSwitchOn();
@@ -427,6 +459,31 @@ public abstract class XmlDao<T> implements Dao<T> {
 	 * @param localFolder String
 	 */
 	public void update(T object, Serializable identifier, String fileName, String pageId, boolean isFirstTimeUpdate, String localFolder) {
+		XmlObjectCache cache = getXmlObjectCache();
+		if (pageId == null && cache != null && cache.isEnabled()) {
+			String filePath = getFilePath(identifier, fileName, localFolder);
+			if (cache.isDeferred(identifier)
+					&& cache.putDirty(filePath, object, new WriteBack(identifier, fileName, isFirstTimeUpdate, localFolder))) {
+				LOGGER.debug("Update of " + filePath + " deferred till the next flush.");
+			} else {
+				write(object, identifier, fileName, pageId, isFirstTimeUpdate, localFolder);
+				cache.putWritten(filePath, object);
+			}
+		} else {
+			write(object, identifier, fileName, pageId, isFirstTimeUpdate, localFolder);
+		}
+	}
+
+	/**
+	 * To write the object to disk.
+	 * @param object T
+	 * @param identifier Serializable
+	 * @param fileName String
+	 * @param pageId String
+	 * @param isFirstTimeUpdate boolean
+	 * @param localFolder String
+	 */
+	protected void write(T object, Serializable identifier, String fileName, String pageId, boolean isFirstTimeUpdate, String localFolder) {
 		LOGGER.info("Entering update method.");
 		OutputStream stream = null;
 		try {
@@ -490,6 +547,10 @@ public abstract class XmlDao<T> implements Dao<T> {
 			LOGGER.info("File path is either null or empty.");
 		} else {
 			LOGGER.info("Updating file: " + filePath);
+			XmlObjectCache cache = getXmlObjectCache();
+			if (cache != null) {
+				cache.remove(filePath);
+			}
 			OutputStream stream = null;
 			try {
 				File xmlFile = new File(filePath);
@@ -513,6 +574,67 @@ public abstract class XmlDao<T> implements Dao<T> {
 		LOGGER.info("Exiting update method.");
 	}
 
+	/**
+	 * To start keeping the updates of the identifier in memory till {@link #endDeferredWrites(Serializable)}. Only effective when the
+	 * xml object cache is switched on with write-behind.
+	 * @param identifier Serializable
+	 */
+	public void beginDeferredWrites(Serializable identifier) {
+		XmlObjectCache cache = getXmlObjectCache();
+		if (cache != null && cache.isEnabled()) {
+			cache.beginDeferredWrites(String.valueOf(identifier));
+		}
+	}
+
+	/**
+	 * To stop keeping the updates of the identifier in memory and write all the pending updates to disk.
+	 * @param identifier Serializable
+	 */
+	public void endDeferredWrites(Serializable identifier) {
+		XmlObjectCache cache = getXmlObjectCache();
+		if (cache != null && cache.isEnabled()) {
+			cache.endDeferredWrites(String.valueOf(identifier));
+			flush(identifier);
+		}
+	}
+
+	/**
+	 * To write all the pending updates of the identifier to disk.
+	 * @param identifier Serializable
+	 */
+	@SuppressWarnings("unchecked")
+	public void flush(Serializable identifier) {
+		XmlObjectCache cache = getXmlObjectCache();
+		if (cache != null && cache.isEnabled()) {
+			for (DirtyObject dirtyObject : cache.getDirtyObjects(identifier)) {
+				WriteBack writeBack = dirtyObject.getWriteBack();
+				LOGGER.info("Writing back " + dirtyObject.getFilePath());
+				write((T) cache.getObject(dirtyObject), writeBack.getIdentifier(), writeBack.getFileName(), null, writeBack
+						.isFirstTimeUpdate(), writeBack.getLocalFolder());
+				cache.markWritten(dirtyObject);
+			}
+		}
+	}
+
+	/**
+	 * To get the cache for the objects of this dao. No caching is done by default.
+	 * @return {@link XmlObjectCache}
+	 */
+	protected XmlObjectCache getXmlObjectCache() {
+		return null;
+	}
+
+	/**
+	 * To get the path of the file holding the object.
+	 * @param identifier Serializable
+	 * @param fileName String
+	 * @param localFolder String
+	 * @return String
+	 */
+	protected String getFilePath(Serializable identifier, String fileName, String localFolder) {
+		return localFolder + File.separator + identifier + File.separator + identifier + fileName;
+	}
+
 	/**
 	 * To get JAXB2 Template.
 	 * @return JAXB2Template
@@ -0,0 +1,527 @@
+/********************************************************************************* 
+* Ephesoft is a Intelligent Document Capture and Mailroom Automation program 
+* developed by Ephesoft, Inc. Copyright (C) 2010-2012 Ephesoft Inc. 
+* 
+* This program is free software; you can redistribute it and/or modify it under 
+* the terms of the GNU Affero General Public License version 3 as published by the 
+* Free Software Foundation with the addition of the following permission added 
+* to Section 15 as permitted in Section 7(a): FOR ANY PART OF THE COVERED WORK 
+* IN WHICH THE COPYRIGHT IS OWNED BY EPHESOFT, EPHESOFT DISCLAIMS THE WARRANTY 
+* OF NON INFRINGEMENT OF THIRD PARTY RIGHTS. 
+* 
+* This program is distributed in the hope that it will be useful, but WITHOUT 
+* ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+* FOR A PARTICULAR PURPOSE.  See the GNU Affero General Public License for more 
+* details. 
+* 
+* You should have received a copy of the GNU Affero General Public License along with 
+* this program; if not, see http://www.gnu.org/licenses or write to the Free 
+* Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 
+* 02110-1301 USA. 
+* 
+* You can contact Ephesoft, Inc. headquarters at 111 Academy Way, 
+* Irvine, CA 92617, USA. or at email address info@ephesoft.com. 
+* 
+* The interactive user interfaces in modified source and object code versions 
+* of this program must display Appropriate Legal Notices, as required under 
+* Section 5 of the GNU Affero General Public License version 3. 
+* 
+* In accordance with Section 7(b) of the GNU Affero General Public License version 3, 
+* these Appropriate Legal Notices must retain the display of the "Ephesoft" logo. 
+* If the display of the logo is not reasonably feasible for 
+* technical reasons, the Appropriate Legal Notices must display the words 
+* "Powered by Ephesoft". 
+********************************************************************************/ 
+
+
+package com.ephesoft.dcma.core.dao.xml;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.ephesoft.dcma.core.common.DCMABusinessException;
+
+/**
+ * This class is a bounded, per node cache of the objects read and written by {@link XmlDao}. The objects are kept as serialized
+ * snapshots so every read hands out a private copy and no caller can corrupt the view of another one. A clean entry is only served
+ * while the {@link FileStamp} of the file on disk is unchanged, so files replaced outside the dao, e.g. by scripts editing batch.xml,
+ * are read again even when rewritten with the same length within the same second.
+ * 
+ * <p>
+ * When write-behind is switched on, updates made by a thread between {@link #beginDeferredWrites(String)} and
+ * {@link #endDeferredWrites(String)} for an identifier are only kept in memory and marked dirty. Updates of the same identifier made
+ * by other threads, e.g. saves from the user interface during a plugin run, are written at once. The owning dao writes the dirty
+ * entries back on {@link XmlDao#flush(Serializable)}. Dirty entries are never evicted, but at most as many entries as the cache size
+ * are kept dirty; further updates are written at once.
+ * </p>
+ * 
+ * @author Ephesoft
+ * @version 1.0
+ * @see com.ephesoft.dcma.core.dao.xml.XmlDao
+ */
+public class XmlObjectCache {
+
+	/**
+	 * LOGGER to print the logging information.
+	 */
+	private static final Logger LOGGER = LoggerFactory.getLogger(XmlObjectCache.class);
+
+	/**
+	 * Maximum number of clean entries kept in the cache.
+	 */
+	private final int maxSize;
+
+	/**
+	 * Whether updates inside a deferred write scope are written back lazily.
+	 */
+	private final boolean writeBehind;
+
+	/**
+	 * Cached entries in access order keyed by file path, guarded by this.
+	 */
+	private final LinkedHashMap<String, CacheEntry> entries = new LinkedHashMap<String, CacheEntry>(16, 0.75f, true);
+
+	/**
+	 * Number of open deferred write scopes per identifier and thread, guarded by this.
+	 */
+	private final Map<String, Map<Thread, Integer>> deferredScopes = new HashMap<String, Map<Thread, Integer>>();
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param maxSize int maximum number of cached objects, zero or less switches the cache off
+	 * @param writeBehind boolean true to keep updates in memory until the next flush
+	 */
+	public XmlObjectCache(final int maxSize, final boolean writeBehind) {
+		this.maxSize = maxSize;
+		this.writeBehind = writeBehind && maxSize > 0;
+		LOGGER.info("XML object cache size is " + maxSize + ", write-behind is " + this.writeBehind);
+	}
+
+	/**
+	 * To check whether the cache is switched on.
+	 * 
+	 * @return boolean
+	 */
+	public boolean isEnabled() {
+		return maxSize > 0;
+	}
+
+	/**
+	 * To get a private copy of the cached object for the file.
+	 * 
+	 * @param filePath String
+	 * @return Object the copy, or null if nothing current is cached
+	 */
+	public Object get(final String filePath) {
+		byte[] snapshot = null;
+		synchronized (this) {
+			CacheEntry entry = entries.get(filePath);
+			if (entry != null) {
+				if (entry.dirty) {
+					snapshot = entry.snapshot;
+				} else {
+					long[] currentStamp = FileStamp.refresh(entry.diskStamp, filePath);
+					if (currentStamp == null) {
+						LOGGER.info("File " + filePath + " changed on disk. Dropping cached copy.");
+						entries.remove(filePath);
+					} else {
+						snapshot = entry.snapshot;
+						if (!Arrays.equals(currentStamp, entry.diskStamp)) {
+							entries.put(filePath, new CacheEntry(snapshot, null, currentStamp));
+						}
+					}
+				}
+			}
+		}
+		return snapshot == null ? null : toObject(snapshot);
+	}
+
+	/**
+	 * To cache an object just read from disk. A dirty entry is never replaced.
+	 * 
+	 * @param filePath String
+	 * @param object Object
+	 * @param diskStamp long[] stamp of the file taken before it was read, see {@link FileStamp#capture(String)}
+	 */
+	public void putRead(final String filePath, final Object object, final long[] diskStamp) {
+		byte[] snapshot = toBytes(object);
+		if (snapshot != null) {
+			synchronized (this) {
+				CacheEntry entry = entries.get(filePath);
+				if (entry == null || !entry.dirty) {
+					entries.put(filePath, new CacheEntry(snapshot, null, diskStamp));
+					evictExcessEntries();
+				}
+			}
+		}
+	}
+
+	/**
+	 * To cache an object just written to disk. It replaces any earlier entry, as it contains all the earlier updates.
+	 * 
+	 * @param filePath String
+	 * @param object Object
+	 */
+	public void putWritten(final String filePath, final Object object) {
+		byte[] snapshot = toBytes(object);
+		synchronized (this) {
+			if (snapshot == null) {
+				entries.remove(filePath);
+			} else {
+				entries.put(filePath, new CacheEntry(snapshot, null, FileStamp.capture(filePath)));
+				evictExcessEntries();
+			}
+		}
+	}
+
+	/**
+	 * To cache an updated object which is not yet written to disk.
+	 * 
+	 * @param filePath String
+	 * @param object Object
+	 * @param writeBack {@link WriteBack} parameters needed to write the object back
+	 * @return boolean false if the object can not be cached and has to be written at once, also when as many entries as the cache size
+	 *         are dirty already
+	 */
+	public boolean putDirty(final String filePath, final Object object, final WriteBack writeBack) {
+		byte[] snapshot = toBytes(object);
+		boolean isCached = false;
+		if (snapshot != null) {
+			synchronized (this) {
+				CacheEntry entry = entries.get(filePath);
+				if ((entry != null && entry.dirty) || getDirtyCount() < maxSize) {
+					entries.put(filePath, new CacheEntry(snapshot, writeBack, null));
+					isCached = true;
+				}
+			}
+		}
+		return isCached;
+	}
+
+	/**
+	 * To get the dirty entries of an identifier which have to be written back.
+	 * 
+	 * @param identifier Serializable
+	 * @return List<{@link DirtyObject}>
+	 */
+	public List<DirtyObject> getDirtyObjects(final Serializable identifier) {
+		List<DirtyObject> dirtyObjects = new ArrayList<DirtyObject>();
+		synchronized (this) {
+			for (Map.Entry<String, CacheEntry> mapEntry : entries.entrySet()) {
+				CacheEntry entry = mapEntry.getValue();
+				if (entry.dirty && String.valueOf(identifier).equals(String.valueOf(entry.writeBack.getIdentifier()))) {
+					dirtyObjects.add(new DirtyObject(mapEntry.getKey(), entry.snapshot, entry.writeBack));
+				}
+			}
+		}
+		return dirtyObjects;
+	}
+
+	/**
+	 * To mark a dirty object clean once it is written to disk. The entry stays dirty if it was updated again meanwhile.
+	 * 
+	 * @param dirtyObject {@link DirtyObject}
+	 */
+	public void markWritten(final DirtyObject dirtyObject) {
+		synchronized (this) {
+			CacheEntry entry = entries.get(dirtyObject.getFilePath());
+			if (entry != null && entry.snapshot == dirtyObject.snapshot) {
+				entries.put(dirtyObject.getFilePath(), new CacheEntry(entry.snapshot, null, FileStamp.capture(dirtyObject.getFilePath())));
+				evictExcessEntries();
+			}
+		}
+	}
+
+	/**
+	 * To remove the cached object for the file.
+	 * 
+	 * @param filePath String
+	 */
+	public synchronized void remove(final String filePath) {
+		entries.remove(filePath);
+	}
+
+	/**
+	 * To open a deferred write scope for the identifier on the current thread. Scopes nest.
+	 * 
+	 * @param identifier String
+	 */
+	public synchronized void beginDeferredWrites(final String identifier) {
+		if (writeBehind) {
+			Map<Thread, Integer> threadScopes = deferredScopes.get(identifier);
+			if (threadScopes == null) {
+				threadScopes = new HashMap<Thread, Integer>();
+				deferredScopes.put(identifier, threadScopes);
+			}
+			Integer depth = threadScopes.get(Thread.currentThread());
+			threadScopes.put(Thread.currentThread(), depth == null ? 1 : depth + 1);
+		}
+	}
+
+	/**
+	 * To close a deferred write scope for the identifier on the current thread.
+	 * 
+	 * @param identifier String
+	 */
+	public synchronized void endDeferredWrites(final String identifier) {
+		Map<Thread, Integer> threadScopes = deferredScopes.get(identifier);
+		if (threadScopes != null) {
+			Integer depth = threadScopes.get(Thread.currentThread());
+			if (depth != null && depth > 1) {
+				threadScopes.put(Thread.currentThread(), depth - 1);
+			} else {
+				threadScopes.remove(Thread.currentThread());
+				if (threadScopes.isEmpty()) {
+					deferredScopes.remove(identifier);
+				}
+			}
+		}
+	}
+
+	/**
+	 * To check whether updates for the identifier made by the current thread are written back lazily.
+	 * 
+	 * @param identifier Serializable
+	 * @return boolean
+	 */
+	public synchronized boolean isDeferred(final Serializable identifier) {
+		Map<Thread, Integer> threadScopes = deferredScopes.get(String.valueOf(identifier));
+		return threadScopes != null && threadScopes.containsKey(Thread.currentThread());
+	}
+
+	/**
+	 * To get a private copy of a dirty object.
+	 * 
+	 * @param dirtyObject {@link DirtyObject}
+	 * @return Object
+	 */
+	public Object getObject(final DirtyObject dirtyObject) {
+		return toObject(dirtyObject.snapshot);
+	}
+
+	private int getDirtyCount() {
+		int dirtyCount = 0;
+		for (CacheEntry entry : entries.values()) {
+			if (entry.dirty) {
+				dirtyCount++;
+			}
+		}
+		return dirtyCount;
+	}
+
+	private void evictExcessEntries() {
+		int excess = entries.size() - maxSize;
+		Iterator<CacheEntry> iterator = entries.values().iterator();
+		while (excess > 0 && iterator.hasNext()) {
+			if (!iterator.next().dirty) {
+				iterator.remove();
+				excess--;
+			}
+		}
+	}
+
+	private static byte[] toBytes(final Object object) {
+		byte[] snapshot = null;
+		if (object instanceof Serializable) {
+			ObjectOutputStream outputStream = null;
+			try {
+				ByteArrayOutputStream byteStream = new ByteArrayOutputStream();
+				outputStream = new ObjectOutputStream(byteStream);
+				outputStream.writeObject(object);
+				outputStream.flush();
+				snapshot = byteStream.toByteArray();
+			} catch (IOException e) {
+				LOGGER.error("Unable to take a snapshot of " + object.getClass().getName() + ". Object is not cached. " + e.getMessage(),
+						e);
+			} finally {
+				closeQuietly(outputStream);
+			}
+		}
+		return snapshot;
+	}
+
+	private static Object toObject(final byte[] snapshot) {
+		ObjectInputStream inputStream = null;
+		try {
+			inputStream = new ObjectInputStream(new ByteArrayInputStream(snapshot));
+			return inputStream.readObject();
+		} catch (IOException e) {
+			throw new DCMABusinessException("Unable to read cached object. " + e.getMessage(), e);
+		} catch (ClassNotFoundException e) {
+			throw new DCMABusinessException("Unable to read cached object. " + e.getMessage(), e);
+		} finally {
+			closeQuietly(inputStream);
+		}
+	}
+
+	private static void closeQuietly(final Closeable closeable) {
+		if (closeable != null) {
+			try {
+				closeable.close();
+			} catch (IOException e) {
+				LOGGER.info("Exception in closing snapshot stream. " + e.getMessage());
+			}
+		}
+	}
+
+	/**
+	 * Parameters needed to write a dirty object back to its file.
+	 */
+	public static final class WriteBack {
+
+		/**
+		 * identifier Serializable.
+		 */
+		private final Serializable identifier;
+
+		/**
+		 * fileName String.
+		 */
+		private final String fileName;
+
+		/**
+		 * isFirstTimeUpdate boolean.
+		 */
+		private final boolean isFirstTimeUpdate;
+
+		/**
+		 * localFolder String.
+		 */
+		private final String localFolder;
+
+		/**
+		 * Constructor.
+		 * 
+		 * @param identifier Serializable
+		 * @param fileName String
+		 * @param isFirstTimeUpdate boolean
+		 * @param localFolder String
+		 */
+		public WriteBack(final Serializable identifier, final String fileName, final boolean isFirstTimeUpdate,
+				final String localFolder) {
+			this.identifier = identifier;
+			this.fileName = fileName;
+			this.isFirstTimeUpdate = isFirstTimeUpdate;
+			this.localFolder = localFolder;
+		}
+
+		/**
+		 * To get identifier.
+		 * 
+		 * @return Serializable
+		 */
+		public Serializable getIdentifier() {
+			return identifier;
+		}
+
+		/**
+		 * To get file name.
+		 * 
+		 * @return String
+		 */
+		public String getFileName() {
+			return fileName;
+		}
+
+		/**
+		 * To check whether it is the first time update.
+		 * 
+		 * @return boolean
+		 */
+		public boolean isFirstTimeUpdate() {
+			return isFirstTimeUpdate;
+		}
+
+		/**
+		 * To get local folder.
+		 * 
+		 * @return String
+		 */
+		public String getLocalFolder() {
+			return localFolder;
+		}
+	}
+
+	/**
+	 * A dirty object waiting to be written back.
+	 */
+	public static final class DirtyObject {
+
+		/**
+		 * filePath String.
+		 */
+		private final String filePath;
+
+		/**
+		 * snapshot byte[].
+		 */
+		private final byte[] snapshot;
+
+		/**
+		 * writeBack {@link WriteBack}.
+		 */
+		private final WriteBack writeBack;
+
+		private DirtyObject(final String filePath, final byte[] snapshot, final WriteBack writeBack) {
+			this.filePath = filePath;
+			this.snapshot = snapshot;
+			this.writeBack = writeBack;
+		}
+
+		/**
+		 * To get file path.
+		 * 
+		 * @return String
+		 */
+		public String getFilePath() {
+			return filePath;
+		}
+
+		/**
+		 * To get write back parameters.
+		 * 
+		 * @return {@link WriteBack}
+		 */
+		public WriteBack getWriteBack() {
+			return writeBack;
+		}
+	}
+
+	/**
+	 * A cached snapshot together with its state.
+	 */
+	private static final class CacheEntry {
+
+		private final byte[] snapshot;
+
+		private final boolean dirty;
+
+		private final WriteBack writeBack;
+
+		private final long[] diskStamp;
+
+		CacheEntry(final byte[] snapshot, final WriteBack writeBack, final long[] diskStamp) {
+			this.snapshot = snapshot;
+			this.writeBack = writeBack;
+			this.dirty = writeBack != null;
+			this.diskStamp = diskStamp;
+		}
+	}
+}
@@ -124,6 +124,31 @@ public class DynamicHibernateDao {
 	 */
 	private static final String PASSWORD = "hibernate.connection.password";
 
+	/**
+	 * Shared instances keyed on driver and url, see {@link #getPooledInstance(String, String, String, String)}.
+	 */
+	private static final Map<String, DynamicHibernateDao> POOLED_INSTANCES = new HashMap<String, DynamicHibernateDao>();
+
+	/**
+	 * pooled boolean, true if this instance is shared through {@link #getPooledInstance(String, String, String, String)}.
+	 */
+	private boolean pooled;
+
+	/**
+	 * pooledCredentials String, user name and password the pooled instance was built with.
+	 */
+	private String pooledCredentials;
+
+	/**
+	 * pooledUsers int, number of callers holding the pooled instance, guarded by {@link #POOLED_INSTANCES}.
+	 */
+	private int pooledUsers;
+
+	/**
+	 * retired boolean, true once a pooled instance is replaced; it is closed when its last user releases it.
+	 */
+	private boolean retired;
+
 	
 	/**
 	 * Constructor.
@@ -210,6 +235,83 @@ public class DynamicHibernateDao {
 		sessionFactory = configuration.buildSessionFactory();
 	}
 
+	/**
+	 * To get the shared instance for a data source. The session factory, and with it the connection pool, is built on the first call
+	 * for a given driver and url and reused afterwards, so callers must not close it; {@link #closeSession()} is a no-op on a pooled
+	 * instance. Every call must be paired with {@link #releasePooledInstance()} once the caller is done. When the credentials
+	 * configured for the data source change, a new instance is built; the old one and its connection pool are closed when the last
+	 * caller still using it releases it.
+	 * 
+	 * @param userName String
+	 * @param password String
+	 * @param driverName String
+	 * @param jdbcUrl String
+	 * @return DynamicHibernateDao
+	 */
+	public static DynamicHibernateDao getPooledInstance(String userName, String password, String driverName, String jdbcUrl) {
+		String key = driverName + '\u0000' + jdbcUrl;
+		String credentials = userName + '\u0000' + password;
+		DynamicHibernateDao dynamicHibernateDao = null;
+		synchronized (POOLED_INSTANCES) {
+			dynamicHibernateDao = POOLED_INSTANCES.get(key);
+			if (dynamicHibernateDao != null && !credentials.equals(dynamicHibernateDao.pooledCredentials)) {
+				LOG.info("Connection settings changed for " + jdbcUrl + ". Replacing the pooled session factory.");
+				POOLED_INSTANCES.remove(key);
+				dynamicHibernateDao.retired = true;
+				if (dynamicHibernateDao.pooledUsers == 0) {
+					dynamicHibernateDao.close();
+				}
+				dynamicHibernateDao = null;
+			}
+			if (dynamicHibernateDao == null) {
+				LOG.info("Creating pooled session factory for " + jdbcUrl);
+				dynamicHibernateDao = new DynamicHibernateDao(userName, password, driverName, jdbcUrl);
+				dynamicHibernateDao.pooled = true;
+				dynamicHibernateDao.pooledCredentials = credentials;
+				POOLED_INSTANCES.put(key, dynamicHibernateDao);
+			}
+			dynamicHibernateDao.pooledUsers++;
+		}
+		return dynamicHibernateDao;
+	}
+
+	/**
+	 * To release a pooled instance got from {@link #getPooledInstance(String, String, String, String)}. A replaced instance is closed
+	 * when its last user releases it.
+	 */
+	public void releasePooledInstance() {
+		synchronized (POOLED_INSTANCES) {
+			if (pooled && pooledUsers > 0) {
+				pooledUsers--;
+				if (pooledUsers == 0 && retired) {
+					LOG.info("Closing the replaced pooled session factory.");
+					close();
+				}
+			}
+		}
+	}
+
+	/**
+	 * To check whether the session factory is closed.
+	 * 
+	 * @return boolean
+	 */
+	public boolean isClosed() {
+		return sessionFactory == null || sessionFactory.isClosed();
+	}
+
+	/**
+	 * To close all the pooled instances and their connection pools. Called when the application context is closed.
+	 */
+	public static void closePooledInstances() {
+		synchronized (POOLED_INSTANCES) {
+			for (DynamicHibernateDao dynamicHibernateDao : POOLED_INSTANCES.values()) {
+				dynamicHibernateDao.close();
+			}
+			POOLED_INSTANCES.clear();
+		}
+	}
+
 	/**
 	 * To get Connection Provider.
 	 * @return ConnectionProvider
@@ -601,9 +703,17 @@ public class DynamicHibernateDao {
 	}
 
 	/**
-	 * To close the session.
+	 * To close the session. Does nothing for a pooled instance.
 	 */
 	public void closeSession() {
+		if (pooled) {
+			LOG.debug("Session factory is pooled, not closing it.");
+		} else {
+			close();
+		}
+	}
+
+	private void close() {
 		try {
 			if (connection != null) {
 				connection.close();
@@ -50,17 +50,32 @@ public abstract class AbstractRunnable implements Runnable {
 	/**
 	 * completed boolean.
 	 */
-	private boolean completed;
+	private volatile boolean completed;
 
 	/**
 	 * started boolean.
 	 */
-	private boolean started;
+	private volatile boolean started;
 
 	/**
 	 * dcmaApplicationException DCMAApplicationException.
 	 */
-	private DCMAApplicationException dcmaApplicationException;
+	private volatile DCMAApplicationException dcmaApplicationException;
+
+	/**
+	 * Identifier of the batch instance the task is executed for.
+	 */
+	private volatile String batchInstanceIdentifier;
+
+	/**
+	 * Latch to be notified when the task completes.
+	 */
+	private TaskCompletionLatch completionLatch;
+
+	/**
+	 * An object used for synchronization of the completion state.
+	 */
+	private final Object completionLock = new Object();
 
 	/**
 	 * To check whether completed or not.
@@ -75,7 +90,29 @@ public abstract class AbstractRunnable implements Runnable {
 	 * @param completed boolean
 	 */
 	public void setCompleted(boolean completed) {
-		this.completed = completed;
+		TaskCompletionLatch latchToNotify = null;
+		synchronized (completionLock) {
+			if (completed && !this.completed) {
+				latchToNotify = completionLatch;
+			}
+			this.completed = completed;
+		}
+		if (latchToNotify != null) {
+			latchToNotify.taskCompleted(this);
+		}
+	}
+
+	/**
+	 * API to register the latch to be notified when the task completes.
+	 * 
+	 * @param completionLatch {@link TaskCompletionLatch}
+	 * @return boolean true if the task had already completed, in which case the latch will not be notified
+	 */
+	boolean registerCompletionLatch(TaskCompletionLatch completionLatch) {
+		synchronized (completionLock) {
+			this.completionLatch = completionLatch;
+			return completed;
+		}
 	}
 
 	/**
@@ -109,4 +146,20 @@ public abstract class AbstractRunnable implements Runnable {
 	public boolean isStarted() {
 		return started;
 	}
+
+	/**
+	 * To get the identifier of the batch instance the task is executed for.
+	 * @return String
+	 */
+	public String getBatchInstanceIdentifier() {
+		return batchInstanceIdentifier;
+	}
+
+	/**
+	 * To set the identifier of the batch instance the task is executed for.
+	 * @param batchInstanceIdentifier String
+	 */
+	public void setBatchInstanceIdentifier(String batchInstanceIdentifier) {
+		this.batchInstanceIdentifier = batchInstanceIdentifier;
+	}
 }
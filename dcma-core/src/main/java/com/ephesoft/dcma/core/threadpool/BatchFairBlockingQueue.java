@@ -0,0 +1,495 @@
+/********************************************************************************* 
+* Ephesoft is a Intelligent Document Capture and Mailroom Automation program 
+* developed by Ephesoft, Inc. Copyright (C) 2010-2012 Ephesoft Inc. 
+* 
+* This program is free software; you can redistribute it and/or modify it under 
+* the terms of the GNU Affero General Public License version 3 as published by the 
+* Free Software Foundation with the addition of the following permission added 
+* to Section 15 as permitted in Section 7(a): FOR ANY PART OF THE COVERED WORK 
+* IN WHICH THE COPYRIGHT IS OWNED BY EPHESOFT, EPHESOFT DISCLAIMS THE WARRANTY 
+* OF NON INFRINGEMENT OF THIRD PARTY RIGHTS. 
+* 
+* This program is distributed in the hope that it will be useful, but WITHOUT 
+* ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+* FOR A PARTICULAR PURPOSE.  See the GNU Affero General Public License for more 
+* details. 
+* 
+* You should have received a copy of the GNU Affero General Public License along with 
+* this program; if not, see http://www.gnu.org/licenses or write to the Free 
+* Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 
+* 02110-1301 USA. 
+* 
+* You can contact Ephesoft, Inc. headquarters at 111 Academy Way, 
+* Irvine, CA 92617, USA. or at email address info@ephesoft.com. 
+* 
+* The interactive user interfaces in modified source and object code versions 
+* of this program must display Appropriate Legal Notices, as required under 
+* Section 5 of the GNU Affero General Public License version 3. 
+* 
+* In accordance with Section 7(b) of the GNU Affero General Public License version 3, 
+* these Appropriate Legal Notices must retain the display of the "Ephesoft" logo. 
+* If the display of the logo is not reasonably feasible for 
+* technical reasons, the Appropriate Legal Notices must display the words 
+* "Powered by Ephesoft". 
+********************************************************************************/ 
+
+
+package com.ephesoft.dcma.core.threadpool;
+
+import java.util.AbstractQueue;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded blocking queue for the thread pool that hands out the tasks round robin across the batch instances they belong to. Each batch
+ * instance has its own FIFO queue of tasks, and a task is taken from the next batch instance in turn that has not reached the maximum
+ * number of tasks running in parallel. This way a small batch instance is not queued behind all the tasks of a large batch instance.
+ * Tasks that do not belong to any batch instance are queued together as one more participant in the round robin.
+ * 
+ * <p>
+ * The thread pool has to report the completion of every task taken from this queue through {@link #taskCompleted(Runnable)}.
+ * 
+ * @author Ephesoft
+ * @version 1.0
+ * @see com.ephesoft.dcma.core.threadpool.ThreadPool
+ */
+public class BatchFairBlockingQueue extends AbstractQueue<Runnable> implements BlockingQueue<Runnable> {
+
+	/**
+	 * Key for the tasks that do not belong to any batch instance.
+	 */
+	private static final String NO_BATCH_INSTANCE = "";
+
+	/**
+	 * The capacity bound of the queue.
+	 */
+	private final int capacity;
+
+	/**
+	 * Maximum number of tasks of a batch instance that can be executed simultaneously.
+	 */
+	private final int maxRunningTasksPerBatch;
+
+	/**
+	 * Map for storing the batch instance id vs its queued tasks.
+	 */
+	private final Map<String, LinkedList<Runnable>> batchTaskQueueMap = new HashMap<String, LinkedList<Runnable>>();
+
+	/**
+	 * Map for storing the batch instance id vs the number of its tasks taken from the queue and not completed yet.
+	 */
+	private final Map<String, Integer> runningTaskCountMap = new HashMap<String, Integer>();
+
+	/**
+	 * Batch instance ids having queued tasks, in round robin order.
+	 */
+	private final LinkedList<String> batchRoundRobin = new LinkedList<String>();
+
+	/**
+	 * Current number of queued tasks.
+	 */
+	private int count;
+
+	/**
+	 * Lock held by all the operations on the queue.
+	 */
+	private final ReentrantLock lock = new ReentrantLock();
+
+	/**
+	 * Wait queue for waiting takes.
+	 */
+	private final Condition taskAvailable = lock.newCondition();
+
+	/**
+	 * Wait queue for waiting puts.
+	 */
+	private final Condition notFull = lock.newCondition();
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param capacity int the capacity of this queue
+	 * @param maxRunningTasksPerBatch int maximum number of tasks of a batch instance that can be executed simultaneously
+	 */
+	public BatchFairBlockingQueue(final int capacity, final int maxRunningTasksPerBatch) {
+		super();
+		if (capacity <= 0 || maxRunningTasksPerBatch <= 0) {
+			throw new IllegalArgumentException("Capacity and maximum running tasks per batch should be positive.");
+		}
+		this.capacity = capacity;
+		this.maxRunningTasksPerBatch = maxRunningTasksPerBatch;
+	}
+
+	/**
+	 * API to notify the queue that a task taken from it has completed execution, so that the next task of its batch instance can be
+	 * taken.
+	 * 
+	 * @param runnable {@link Runnable} the completed task
+	 */
+	public void taskCompleted(final Runnable runnable) {
+		final String batchKey = getBatchKey(runnable);
+		lock.lock();
+		try {
+			final Integer runningTasks = runningTaskCountMap.get(batchKey);
+			if (runningTasks != null) {
+				if (runningTasks <= 1) {
+					runningTaskCountMap.remove(batchKey);
+				} else {
+					runningTaskCountMap.put(batchKey, runningTasks - 1);
+				}
+				if (batchTaskQueueMap.containsKey(batchKey)) {
+					taskAvailable.signal();
+				}
+			}
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * To get the number of tasks of a batch instance taken from the queue and not completed yet.
+	 * 
+	 * @param batchInstanceId String
+	 * @return int
+	 */
+	public int getRunningTaskCount(final String batchInstanceId) {
+		lock.lock();
+		try {
+			final Integer runningTasks = runningTaskCountMap.get(batchInstanceId == null ? NO_BATCH_INSTANCE : batchInstanceId);
+			return runningTasks == null ? 0 : runningTasks;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@Override
+	public int size() {
+		lock.lock();
+		try {
+			return count;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@Override
+	public int remainingCapacity() {
+		lock.lock();
+		try {
+			return capacity - count;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@Override
+	public boolean offer(final Runnable runnable) {
+		checkNotNull(runnable);
+		lock.lock();
+		try {
+			boolean isAdded = false;
+			if (count < capacity) {
+				insert(runnable);
+				isAdded = true;
+			}
+			return isAdded;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@Override
+	public void put(final Runnable runnable) throws InterruptedException {
+		checkNotNull(runnable);
+		lock.lockInterruptibly();
+		try {
+			while (count == capacity) {
+				notFull.await();
+			}
+			insert(runnable);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@Override
+	public boolean offer(final Runnable runnable, final long timeout, final TimeUnit unit) throws InterruptedException {
+		checkNotNull(runnable);
+		long nanos = unit.toNanos(timeout);
+		lock.lockInterruptibly();
+		try {
+			while (count == capacity) {
+				if (nanos <= 0) {
+					return false;
+				}
+				nanos = notFull.awaitNanos(nanos);
+			}
+			insert(runnable);
+			return true;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@Override
+	public Runnable take() throws InterruptedException {
+		lock.lockInterruptibly();
+		try {
+			Runnable runnable = extract();
+			while (runnable == null) {
+				taskAvailable.await();
+				runnable = extract();
+			}
+			return runnable;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@Override
+	public Runnable poll(final long timeout, final TimeUnit unit) throws InterruptedException {
+		long nanos = unit.toNanos(timeout);
+		lock.lockInterruptibly();
+		try {
+			Runnable runnable = extract();
+			while (runnable == null && nanos > 0) {
+				nanos = taskAvailable.awaitNanos(nanos);
+				runnable = extract();
+			}
+			return runnable;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@Override
+	public Runnable poll() {
+		lock.lock();
+		try {
+			return extract();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@Override
+	public Runnable peek() {
+		lock.lock();
+		try {
+			Runnable runnable = null;
+			final String batchKey = getNextBatchKey();
+			if (batchKey != null) {
+				runnable = batchTaskQueueMap.get(batchKey).getFirst();
+			}
+			return runnable;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@Override
+	public boolean remove(final Object object) {
+		boolean isRemoved = false;
+		if (object instanceof Runnable) {
+			final String batchKey = getBatchKey((Runnable) object);
+			lock.lock();
+			try {
+				final LinkedList<Runnable> taskQueue = batchTaskQueueMap.get(batchKey);
+				if (taskQueue != null && taskQueue.remove(object)) {
+					isRemoved = true;
+					if (taskQueue.isEmpty()) {
+						batchTaskQueueMap.remove(batchKey);
+						batchRoundRobin.remove(batchKey);
+					}
+					count--;
+					notFull.signal();
+				}
+			} finally {
+				lock.unlock();
+			}
+		}
+		return isRemoved;
+	}
+
+	@Override
+	public int drainTo(final Collection<? super Runnable> collection) {
+		return drainTo(collection, Integer.MAX_VALUE);
+	}
+
+	@Override
+	public int drainTo(final Collection<? super Runnable> collection, final int maxElements) {
+		if (collection == null) {
+			throw new NullPointerException();
+		}
+		if (collection == this) {
+			throw new IllegalArgumentException();
+		}
+		lock.lock();
+		try {
+			int drained = 0;
+			while (drained < maxElements && !batchRoundRobin.isEmpty()) {
+				collection.add(removeFirst(batchRoundRobin.getFirst()));
+				drained++;
+			}
+			return drained;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@Override
+	public Iterator<Runnable> iterator() {
+		final List<Runnable> snapshot = new ArrayList<Runnable>();
+		lock.lock();
+		try {
+			for (String batchKey : batchRoundRobin) {
+				snapshot.addAll(batchTaskQueueMap.get(batchKey));
+			}
+		} finally {
+			lock.unlock();
+		}
+		return new Iterator<Runnable>() {
+
+			private final Iterator<Runnable> snapshotIterator = snapshot.iterator();
+
+			private Runnable lastReturned;
+
+			@Override
+			public boolean hasNext() {
+				return snapshotIterator.hasNext();
+			}
+
+			@Override
+			public Runnable next() {
+				lastReturned = snapshotIterator.next();
+				return lastReturned;
+			}
+
+			@Override
+			public void remove() {
+				if (lastReturned == null) {
+					throw new IllegalStateException();
+				}
+				BatchFairBlockingQueue.this.remove(lastReturned);
+				lastReturned = null;
+			}
+		};
+	}
+
+	/**
+	 * Adds the task at the end of the queue of its batch instance. Called with the lock held.
+	 * 
+	 * @param runnable {@link Runnable}
+	 */
+	private void insert(final Runnable runnable) {
+		final String batchKey = getBatchKey(runnable);
+		LinkedList<Runnable> taskQueue = batchTaskQueueMap.get(batchKey);
+		if (taskQueue == null) {
+			taskQueue = new LinkedList<Runnable>();
+			batchTaskQueueMap.put(batchKey, taskQueue);
+			batchRoundRobin.addLast(batchKey);
+		}
+		taskQueue.addLast(runnable);
+		count++;
+		taskAvailable.signal();
+	}
+
+	/**
+	 * Removes the next task in round robin order whose batch instance has not reached the maximum number of running tasks. Called with
+	 * the lock held.
+	 * 
+	 * @return {@link Runnable} the task, null if no task can be executed now
+	 */
+	private Runnable extract() {
+		Runnable runnable = null;
+		final String batchKey = getNextBatchKey();
+		if (batchKey != null) {
+			runnable = removeFirst(batchKey);
+			final Integer runningTasks = runningTaskCountMap.get(batchKey);
+			runningTaskCountMap.put(batchKey, runningTasks == null ? 1 : runningTasks + 1);
+			if (batchTaskQueueMap.containsKey(batchKey)) {
+				// the batch instance goes to the end of the round robin.
+				batchRoundRobin.remove(batchKey);
+				batchRoundRobin.addLast(batchKey);
+			}
+			if (count > 0) {
+				taskAvailable.signal();
+			}
+		}
+		return runnable;
+	}
+
+	/**
+	 * Returns the first batch instance in round robin order that has queued tasks and has not reached the maximum number of running
+	 * tasks. Called with the lock held.
+	 * 
+	 * @return String the batch instance key, null if there is none
+	 */
+	private String getNextBatchKey() {
+		String nextBatchKey = null;
+		for (String batchKey : batchRoundRobin) {
+			final Integer runningTasks = runningTaskCountMap.get(batchKey);
+			if (runningTasks == null || runningTasks < maxRunningTasksPerBatch) {
+				nextBatchKey = batchKey;
+				break;
+			}
+		}
+		return nextBatchKey;
+	}
+
+	/**
+	 * Removes the first task queued for the batch instance. Called with the lock held.
+	 * 
+	 * @param batchKey String
+	 * @return {@link Runnable}
+	 */
+	private Runnable removeFirst(final String batchKey) {
+		final LinkedList<Runnable> taskQueue = batchTaskQueueMap.get(batchKey);
+		if (taskQueue == null) {
+			throw new NoSuchElementException();
+		}
+		final Runnable runnable = taskQueue.removeFirst();
+		if (taskQueue.isEmpty()) {
+			batchTaskQueueMap.remove(batchKey);
+			batchRoundRobin.remove(batchKey);
+		}
+		count--;
+		notFull.signal();
+		return runnable;
+	}
+
+	/**
+	 * Returns the key of the batch instance the task belongs to.
+	 * 
+	 * @param runnable {@link Runnable}
+	 * @return String
+	 */
+	private static String getBatchKey(final Runnable runnable) {
+		String batchKey = null;
+		if (runnable instanceof AbstractRunnable) {
+			batchKey = ((AbstractRunnable) runnable).getBatchInstanceIdentifier();
+		}
+		return batchKey == null ? NO_BATCH_INSTANCE : batchKey;
+	}
+
+	/**
+	 * Throws NullPointerException if the task is null.
+	 * 
+	 * @param runnable {@link Runnable}
+	 */
+	private static void checkNotNull(final Runnable runnable) {
+		if (runnable == null) {
+			throw new NullPointerException();
+		}
+	}
+}
@@ -56,7 +56,8 @@ import com.ephesoft.dcma.core.exception.DCMAApplicationException;
 public class BatchInstanceThread {
 
 	/**
-	 * Time duration the thread sleeps before checking if all tasks have completed.
+	 * Fallback poll interval of the waiting thread. The thread is woken by the completion latch as soon as its tasks finish; this time
+	 * only bounds how long it sleeps before re-checking the latch, in case a completion is never signalled.
 	 */
 	private final long waitThreadSleepTime;
 
@@ -165,9 +166,10 @@ public class BatchInstanceThread {
 	}
 
 	/**
-	 * The method is used to execute the tasks provided. The method returns when all the tasks have stopped execution.
+	 * The method is used to execute the tasks provided. The method returns when all the tasks have stopped execution, or as soon as the
+	 * first task fails, in which case the tasks not yet started are cancelled.
 	 * 
-	 * @throws DCMAApplicationException if more tasks cannot be added
+	 * @throws DCMAApplicationException if more tasks cannot be added or any task fails
 	 */
 	public void execute() throws DCMAApplicationException {
 		synchronized (taskList) {
@@ -175,7 +177,15 @@ public class BatchInstanceThread {
 			if (batchInstanceId != null) {
 				threadPoolInstance.putBatchInstanceThreadMap(batchInstanceId, this);
 			}
+			TaskCompletionLatch completionLatch = new TaskCompletionLatch(taskList.size(), true);
 			for (AbstractRunnable runnable : taskList) {
+				if (runnable.registerCompletionLatch(completionLatch)) {
+					completionLatch.taskCompleted(runnable);
+					continue;
+				}
+				if (runnable.getBatchInstanceIdentifier() == null) {
+					runnable.setBatchInstanceIdentifier(batchInstanceId);
+				}
 				try {
 					if(isUsingGhostScript) {
 						threadPoolInstance.addTaskForGhostScript(runnable);
@@ -186,9 +196,10 @@ public class BatchInstanceThread {
 					LOG.error("Cannot add any more tasks. Some tasks for this batch instance may not have been added.");
 					runnable.setDcmaApplicationException(new DCMAApplicationException(
 							"Cannot add any more tasks. Thread pool has reached maximum size."));
+					runnable.setCompleted(true);
 				}
 			}
-			wait(taskList);
+			awaitCompletion(taskList, completionLatch);
 			if (batchInstanceId != null) {
 				threadPoolInstance.removeBatchInstanceThreadMap(batchInstanceId);
 			}
@@ -219,7 +230,7 @@ public class BatchInstanceThread {
 		for (Iterator<AbstractRunnable> iterator = taskList.iterator(); iterator.hasNext();) {
 			AbstractRunnable runnable = (AbstractRunnable) iterator.next();
 			if (!runnable.isStarted() || runnable.isCompleted()) {
-				threadPoolInstance.removeTask(runnable);
+				cancelTask(threadPoolInstance, runnable);
 				iterator.remove();
 			}
 		}
@@ -230,53 +241,112 @@ public class BatchInstanceThread {
 	}
 
 	/**
-	 * Waits for all the threads in the provided list to complete execution.
+	 * Waits for all the threads in the provided list to complete execution. Returns as soon as the first task fails.
 	 * 
-	 * @param threadClassList the list on which to wait.
+	 * @param taskList the list on which to wait.
 	 * @throws DCMAApplicationException in case of error
 	 */
 	public void wait(List<AbstractRunnable> taskList) throws DCMAApplicationException {
-		boolean completed = false;
-		while (!completed) {
-			completed = true;
-			for (AbstractRunnable th : taskList) {
-				completed &= th.isCompleted();
-				if (th.isCompleted() && th.getDcmaApplicationException() != null) {
-					throw th.getDcmaApplicationException();
-				}
-			}
-			try {
-				if (!completed) {
-					Thread.sleep(waitThreadSleepTime);
-				}
-			} catch (InterruptedException e) {
-				LOG.error(Thread.currentThread()
-						+ " interrupted. Resuming execution. Some tasks of this batch instance may not have completed execution.");
-			}
-		}
+		awaitCompletion(taskList, registerCompletionLatch(taskList, true));
 	}
 
 	/**
 	 * Waits for all the threads in the provided list to complete execution.
 	 * 
-	 * @param threadClassList the list on which to wait.
+	 * @param taskList the list on which to wait.
 	 */
 	public void waitForCompletion(List<AbstractRunnable> taskList) {
-		boolean completed = false;
-		while (!completed) {
-			completed = true;
-			for (AbstractRunnable th : taskList) {
-				completed &= th.isCompleted();
+		awaitLatch(registerCompletionLatch(taskList, false));
+	}
+
+	/**
+	 * API for creating a completion latch and registering it with all the tasks in the list.
+	 * 
+	 * @param taskList the list of tasks.
+	 * @param failFast boolean true if the latch is to be released on the first failed task
+	 * @return {@link TaskCompletionLatch}
+	 */
+	private TaskCompletionLatch registerCompletionLatch(List<AbstractRunnable> taskList, boolean failFast) {
+		TaskCompletionLatch completionLatch = new TaskCompletionLatch(taskList.size(), failFast);
+		for (AbstractRunnable runnable : taskList) {
+			if (runnable.registerCompletionLatch(completionLatch)) {
+				completionLatch.taskCompleted(runnable);
 			}
+		}
+		return completionLatch;
+	}
+
+	/**
+	 * Waits on the latch until all the tasks in the list have completed. On the first failed task the tasks not yet started are
+	 * removed from the thread pool and the exception of the failed task is thrown.
+	 * 
+	 * @param taskList the list on which to wait.
+	 * @param completionLatch {@link TaskCompletionLatch} registered with all the tasks in the list
+	 * @throws DCMAApplicationException in case of error
+	 */
+	private void awaitCompletion(List<AbstractRunnable> taskList, TaskCompletionLatch completionLatch)
+			throws DCMAApplicationException {
+		awaitLatch(completionLatch);
+		AbstractRunnable failedTask = completionLatch.getFailedTask();
+		if (failedTask != null) {
+			cancelPendingTasks(taskList);
+			throw failedTask.getDcmaApplicationException();
+		}
+	}
+
+	/**
+	 * Waits on the latch until it is released, re-checking it every <code>waitThreadSleepTime</code> milliseconds as a fallback. The
+	 * interrupted status of the waiting thread is restored once the latch is released.
+	 * 
+	 * @param completionLatch {@link TaskCompletionLatch}
+	 */
+	private void awaitLatch(TaskCompletionLatch completionLatch) {
+		boolean interrupted = false;
+		boolean released = false;
+		while (!released) {
 			try {
-				if (!completed) {
-					Thread.sleep(waitThreadSleepTime);
-				}
+				released = completionLatch.await(waitThreadSleepTime);
 			} catch (InterruptedException e) {
 				LOG.error(Thread.currentThread()
 						+ " interrupted. Resuming execution. Some tasks of this batch instance may not have completed execution.");
+				interrupted = true;
 			}
 		}
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * API for removing the tasks that have not started yet from the thread pool, after a task of this batch instance has failed.
+	 * 
+	 * @param taskList the list of tasks.
+	 */
+	private void cancelPendingTasks(List<AbstractRunnable> taskList) {
+		ThreadPool threadPoolInstance = getThreadPoolInstance();
+		for (AbstractRunnable runnable : taskList) {
+			if (!runnable.isStarted() && cancelTask(threadPoolInstance, runnable)) {
+				LOG.info("Cancelled pending task of batch instance " + batchInstanceId + " after failure of another task.");
+			}
+		}
+	}
+
+	/**
+	 * API for removing a task from the thread pool. A task removed before it could start is marked completed with an exception, so
+	 * that any thread waiting on it is released.
+	 * 
+	 * @param threadPoolInstance {@link ThreadPool}
+	 * @param runnable {@link AbstractRunnable}
+	 * @return boolean true if the task was removed before it could start
+	 */
+	private boolean cancelTask(ThreadPool threadPoolInstance, AbstractRunnable runnable) {
+		boolean isCancelled = threadPoolInstance.removeTask(runnable);
+		if (isCancelled && !runnable.isCompleted()) {
+			runnable.setDcmaApplicationException(new DCMAApplicationException(
+					"Task removed from the thread pool before execution."));
+			runnable.setCompleted(true);
+		}
+		return isCancelled;
 	}
 
 	/**
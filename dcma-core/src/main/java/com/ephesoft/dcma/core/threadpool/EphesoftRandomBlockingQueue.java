@@ -57,11 +57,14 @@ import java.util.concurrent.locks.ReentrantLock;
  * This class is customized to get the random node from the Blocking Queue. This class is used for thread pool for picking random
  * threads from the queue.
  * 
+ * @deprecated use {@link BatchFairBlockingQueue} which picks the tasks round robin across the batch instances.
+ * 
  * @author Ephesoft
  * @version 1.0
  * @see java.util.concurrent.BlockingQueue
  * @param <E>
  */
+@Deprecated
 @SuppressWarnings("PMD")
 public class EphesoftRandomBlockingQueue<E> extends AbstractQueue<E> implements BlockingQueue<E>, java.io.Serializable {
 
@@ -103,6 +106,9 @@ public class EphesoftRandomBlockingQueue<E> extends AbstractQueue<E> implements
 		}
 	}
 
+	/** Random number generator used for picking the node to be removed. */
+	private final Random random = new Random();
+
 	/** The capacity bound, or Integer.MAX_VALUE if none. */
 	private final int capacity;
 
@@ -168,7 +174,6 @@ public class EphesoftRandomBlockingQueue<E> extends AbstractQueue<E> implements
 	 * @return the node
 	 */
 	private E extract() {
-		Random random = new Random();
 		// Generate random number less the number of node in the queue.
 		int randomInt = random.nextInt(count.get());
 		if (randomInt < 0) {
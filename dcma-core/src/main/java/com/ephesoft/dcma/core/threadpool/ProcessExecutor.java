@@ -87,6 +87,11 @@ public class ProcessExecutor extends AbstractRunnable {
 	 */
 	private boolean retry;
 
+	/**
+	 * Resource class of the process, null if the number of such processes running simultaneously is not limited.
+	 */
+	private final String resourceClass;
+
 	/**
 	 * Constructor.
 	 * 
@@ -106,6 +111,17 @@ public class ProcessExecutor extends AbstractRunnable {
 		this(cmds, environment, false);
 	}
 
+	/**
+	 * Constructor.
+	 * 
+	 * @param cmds the command that is to be executed.
+	 * @param environment the environment in which it needs to be executed.
+	 * @param resourceClass the resource class of the process, as in {@link ProcessResourceLimiter}.
+	 */
+	public ProcessExecutor(String[] cmds, File environment, String resourceClass) {
+		this(cmds, environment, false, resourceClass);
+	}
+
 	/**
 	 * Constructor
 	 * 
@@ -114,6 +130,18 @@ public class ProcessExecutor extends AbstractRunnable {
 	 * @param retry whether the command needs to be re-executed on non-zero exit command value
 	 */
 	public ProcessExecutor(String[] cmds, File environment, boolean retry) {
+		this(cmds, environment, retry, null);
+	}
+
+	/**
+	 * Constructor
+	 * 
+	 * @param cmds the command that is to be executed.
+	 * @param environment the environment in which it needs to be executed.
+	 * @param retry whether the command needs to be re-executed on non-zero exit command value
+	 * @param resourceClass the resource class of the process, as in {@link ProcessResourceLimiter}.
+	 */
+	public ProcessExecutor(String[] cmds, File environment, boolean retry, String resourceClass) {
 		super();
 		if (cmds != null) {
 			this.cmds = new String[cmds.length];
@@ -121,6 +149,7 @@ public class ProcessExecutor extends AbstractRunnable {
 		}
 		this.environment = environment;
 		this.retry = retry;
+		this.resourceClass = resourceClass;
 	}
 
 	/**
@@ -132,6 +161,7 @@ public class ProcessExecutor extends AbstractRunnable {
 		BufferedReader input = null;
 		InputStreamReader inputStreamReader = null;
 		StringBuffer commandStr = new StringBuffer();
+		boolean isPermitAcquired = false;
 		try {
 			LOG.info("Starting execution of ");
 			for (int ind = 0; ind < cmds.length; ind++) {
@@ -143,6 +173,10 @@ public class ProcessExecutor extends AbstractRunnable {
 				commandStr.append(CoreConstants.SPACE);
 			}
 			LOG.info("in environment " + environment);
+			if (resourceClass != null) {
+				ProcessResourceLimiter.getInstance().acquire(resourceClass);
+				isPermitAcquired = true;
+			}
 			process = Runtime.getRuntime().exec(cmds, null, environment);
 
 			inputStreamReader = new InputStreamReader(process.getInputStream());
@@ -153,6 +187,7 @@ public class ProcessExecutor extends AbstractRunnable {
 				LOG.debug(line);
 			} while (line != null);
 			int exitValue = process.waitFor();
+			isPermitAcquired = releasePermit(isPermitAcquired);
 			LOG.info("Command");
 			for (int ind = 0; ind < cmds.length; ind++) {
 				LOG.info(cmds[ind]);
@@ -174,6 +209,7 @@ public class ProcessExecutor extends AbstractRunnable {
 			LOG.error(errorMsg, e);
 			setDcmaApplicationException(new DCMAApplicationException(errorMsg, e));
 		} finally {
+			releasePermit(isPermitAcquired);
 			try {
 				if (input != null) {
 					input.close();
@@ -187,6 +223,19 @@ public class ProcessExecutor extends AbstractRunnable {
 		}
 	}
 
+	/**
+	 * Releases the permit of the resource class of the process if it has been acquired.
+	 * 
+	 * @param isPermitAcquired boolean
+	 * @return boolean false, as the permit is no longer held
+	 */
+	private boolean releasePermit(boolean isPermitAcquired) {
+		if (isPermitAcquired) {
+			ProcessResourceLimiter.getInstance().release(resourceClass);
+		}
+		return false;
+	}
+
 	/**
 	 * A method to check whether we need to retry the execution of the failed command. If we do, we perform the operations that failed
 	 * again, else we set an exception for non zero exit value.
@@ -0,0 +1,294 @@
+/********************************************************************************* 
+* Ephesoft is a Intelligent Document Capture and Mailroom Automation program 
+* developed by Ephesoft, Inc. Copyright (C) 2010-2012 Ephesoft Inc. 
+* 
+* This program is free software; you can redistribute it and/or modify it under 
+* the terms of the GNU Affero General Public License version 3 as published by the 
+* Free Software Foundation with the addition of the following permission added 
+* to Section 15 as permitted in Section 7(a): FOR ANY PART OF THE COVERED WORK 
+* IN WHICH THE COPYRIGHT IS OWNED BY EPHESOFT, EPHESOFT DISCLAIMS THE WARRANTY 
+* OF NON INFRINGEMENT OF THIRD PARTY RIGHTS. 
+* 
+* This program is distributed in the hope that it will be useful, but WITHOUT 
+* ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+* FOR A PARTICULAR PURPOSE.  See the GNU Affero General Public License for more 
+* details. 
+* 
+* You should have received a copy of the GNU Affero General Public License along with 
+* this program; if not, see http://www.gnu.org/licenses or write to the Free 
+* Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 
+* 02110-1301 USA. 
+* 
+* You can contact Ephesoft, Inc. headquarters at 111 Academy Way, 
+* Irvine, CA 92617, USA. or at email address info@ephesoft.com. 
+* 
+* The interactive user interfaces in modified source and object code versions 
+* of this program must display Appropriate Legal Notices, as required under 
+* Section 5 of the GNU Affero General Public License version 3. 
+* 
+* In accordance with Section 7(b) of the GNU Affero General Public License version 3, 
+* these Appropriate Legal Notices must retain the display of the "Ephesoft" logo. 
+* If the display of the logo is not reasonably feasible for 
+* technical reasons, the Appropriate Legal Notices must display the words 
+* "Powered by Ephesoft". 
+********************************************************************************/ 
+
+
+package com.ephesoft.dcma.core.threadpool;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class limits the number of external processes running simultaneously on the node, per resource class. Every external tool
+ * (tesseract, image magick, ghost script, open office) belongs to a resource class having its own limit, so that tools with different
+ * CPU and memory profiles peaking at the same time do not oversubscribe the node.
+ * 
+ * <p>
+ * The limit of a resource class is read from <code>resource_class.&lt;name&gt;.max_processes</code> in dcma-core.properties. When not
+ * configured it defaults to the number of processors, reduced so that the processes fit in the physical memory as per
+ * <code>resource_class.&lt;name&gt;.process_memory_mb</code>. The limits can be changed at runtime through JMX.
+ * 
+ * @author Ephesoft
+ * @version 1.0
+ * @see com.ephesoft.dcma.core.threadpool.ProcessExecutor
+ */
+public final class ProcessResourceLimiter implements ProcessResourceLimiterMBean {
+
+	/**
+	 * Resource class for OCR engines.
+	 */
+	public static final String OCR = "ocr";
+
+	/**
+	 * Resource class for image conversion and comparison.
+	 */
+	public static final String IMAGING = "imaging";
+
+	/**
+	 * Resource class for PDF creation and optimization.
+	 */
+	public static final String PDF = "pdf";
+
+	/**
+	 * Resource class for office document conversion.
+	 */
+	public static final String OFFICE = "office";
+
+	/**
+	 * Object name with which the limiter is registered in the platform MBean server.
+	 */
+	private static final String OBJECT_NAME = "com.ephesoft.dcma.core:type=ProcessResourceLimiter";
+
+	/**
+	 * Prefix of the resource class properties.
+	 */
+	private static final String PROPERTY_PREFIX = "resource_class.";
+
+	/**
+	 * Suffix of the property for maximum number of processes of a resource class.
+	 */
+	private static final String MAX_PROCESSES_SUFFIX = ".max_processes";
+
+	/**
+	 * Suffix of the property for memory in MB needed by one process of a resource class.
+	 */
+	private static final String PROCESS_MEMORY_SUFFIX = ".process_memory_mb";
+
+	/**
+	 * Default memory in MB needed by one process.
+	 */
+	private static final int DEFAULT_PROCESS_MEMORY_MB = 256;
+
+	/**
+	 * Number of bytes in one MB.
+	 */
+	private static final long BYTES_PER_MB = 1024L * 1024L;
+
+	/**
+	 * Logger instance for logging using slf4j for logging information.
+	 */
+	private static final Logger LOG = LoggerFactory.getLogger(ProcessResourceLimiter.class);
+
+	/**
+	 * Object of this class.
+	 */
+	private static ProcessResourceLimiter limiterInstance;
+
+	/**
+	 * An object used for synchronization.
+	 */
+	private static final Object LOCK = new Object();
+
+	/**
+	 * Map for storing the resource class name vs its permits.
+	 */
+	private final ConcurrentMap<String, ResizableSemaphore> permitsMap = new ConcurrentHashMap<String, ResizableSemaphore>();
+
+	/**
+	 * Properties of dcma core.
+	 */
+	private final Properties properties;
+
+	/**
+	 * Creating a singleton class.
+	 * 
+	 * @param properties {@link Properties}
+	 */
+	private ProcessResourceLimiter(final Properties properties) {
+		this.properties = properties;
+		for (String resourceClass : new String[] {OCR, IMAGING, PDF, OFFICE}) {
+			getPermits(resourceClass);
+		}
+	}
+
+	/**
+	 * Used to get the single element of this class.
+	 * 
+	 * @return {@link ProcessResourceLimiter}
+	 */
+	public static ProcessResourceLimiter getInstance() {
+		if (limiterInstance == null) {
+			synchronized (LOCK) {
+				if (limiterInstance == null) {
+					ProcessResourceLimiter processResourceLimiter = new ProcessResourceLimiter(ThreadPool.loadProperties());
+					processResourceLimiter.registerMBean();
+					limiterInstance = processResourceLimiter;
+				}
+			}
+		}
+		return limiterInstance;
+	}
+
+	/**
+	 * Acquires a permit to run a process of the resource class, waiting if the maximum number of processes of the class are running.
+	 * 
+	 * @param resourceClass String
+	 * @throws InterruptedException if the waiting thread is interrupted
+	 */
+	public void acquire(final String resourceClass) throws InterruptedException {
+		getPermits(resourceClass).acquire();
+	}
+
+	/**
+	 * Releases the permit acquired for running a process of the resource class.
+	 * 
+	 * @param resourceClass String
+	 */
+	public void release(final String resourceClass) {
+		getPermits(resourceClass).release();
+	}
+
+	@Override
+	public String[] getResourceClasses() {
+		Set<String> resourceClasses = new TreeSet<String>(permitsMap.keySet());
+		return resourceClasses.toArray(new String[resourceClasses.size()]);
+	}
+
+	@Override
+	public int getMaxProcesses(final String resourceClass) {
+		return getPermits(resourceClass).getMaxPermits();
+	}
+
+	@Override
+	public void setMaxProcesses(final String resourceClass, final int maxProcesses) {
+		if (maxProcesses <= 0) {
+			throw new IllegalArgumentException("Maximum number of processes should be positive.");
+		}
+		getPermits(resourceClass).setMaxPermits(maxProcesses);
+		LOG.info("Maximum number of processes for resource class " + resourceClass + " set to " + maxProcesses);
+	}
+
+	@Override
+	public int getRunningProcesses(final String resourceClass) {
+		return getPermits(resourceClass).getHeldPermits();
+	}
+
+	@Override
+	public int getWaitingProcesses(final String resourceClass) {
+		return getPermits(resourceClass).getQueueLength();
+	}
+
+	/**
+	 * Returns the permits of the resource class, creating them with the default limit for a new resource class.
+	 * 
+	 * @param resourceClass String
+	 * @return {@link ResizableSemaphore}
+	 */
+	private ResizableSemaphore getPermits(final String resourceClass) {
+		if (resourceClass == null) {
+			throw new IllegalArgumentException("Resource class cannot be null.");
+		}
+		ResizableSemaphore permits = permitsMap.get(resourceClass);
+		if (permits == null) {
+			permits = new ResizableSemaphore(getDefaultMaxProcesses(resourceClass));
+			ResizableSemaphore existingPermits = permitsMap.putIfAbsent(resourceClass, permits);
+			if (existingPermits == null) {
+				LOG.info("Maximum number of processes for resource class " + resourceClass + " is " + permits.getMaxPermits());
+			} else {
+				permits = existingPermits;
+			}
+		}
+		return permits;
+	}
+
+	/**
+	 * API for getting the limit of a resource class, configured in the property file or derived from the processors and the physical
+	 * memory of the machine.
+	 * 
+	 * @param resourceClass String
+	 * @return int
+	 */
+	private int getDefaultMaxProcesses(final String resourceClass) {
+		int maxProcesses = Runtime.getRuntime().availableProcessors();
+		long totalMemory = getTotalPhysicalMemory();
+		if (totalMemory > 0) {
+			int processMemoryMB = ThreadPool.getPositiveIntProperty(properties, PROPERTY_PREFIX + resourceClass + PROCESS_MEMORY_SUFFIX,
+					DEFAULT_PROCESS_MEMORY_MB);
+			long processesInMemory = totalMemory / (processMemoryMB * BYTES_PER_MB);
+			maxProcesses = (int) Math.max(1L, Math.min(maxProcesses, processesInMemory));
+		}
+		return ThreadPool.getPositiveIntProperty(properties, PROPERTY_PREFIX + resourceClass + MAX_PROCESSES_SUFFIX, maxProcesses);
+	}
+
+	/**
+	 * API for getting the physical memory of the machine.
+	 * 
+	 * @return long the memory in bytes, 0 if it cannot be determined
+	 */
+	private static long getTotalPhysicalMemory() {
+		long totalMemory = 0L;
+		OperatingSystemMXBean operatingSystemBean = ManagementFactory.getOperatingSystemMXBean();
+		if (operatingSystemBean instanceof com.sun.management.OperatingSystemMXBean) {
+			totalMemory = ((com.sun.management.OperatingSystemMXBean) operatingSystemBean).getTotalPhysicalMemorySize();
+		}
+		return totalMemory;
+	}
+
+	/**
+	 * API for registering the limiter in the platform MBean server.
+	 */
+	private void registerMBean() {
+		try {
+			MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+			ObjectName objectName = new ObjectName(OBJECT_NAME);
+			if (!mBeanServer.isRegistered(objectName)) {
+				mBeanServer.registerMBean(this, objectName);
+			}
+		} catch (JMException e) {
+			LOG.error("Could not register process resource limiter with the MBean server. " + e.getMessage(), e);
+		}
+	}
+}
@@ -0,0 +1,87 @@
+/********************************************************************************* 
+* Ephesoft is a Intelligent Document Capture and Mailroom Automation program 
+* developed by Ephesoft, Inc. Copyright (C) 2010-2012 Ephesoft Inc. 
+* 
+* This program is free software; you can redistribute it and/or modify it under 
+* the terms of the GNU Affero General Public License version 3 as published by the 
+* Free Software Foundation with the addition of the following permission added 
+* to Section 15 as permitted in Section 7(a): FOR ANY PART OF THE COVERED WORK 
+* IN WHICH THE COPYRIGHT IS OWNED BY EPHESOFT, EPHESOFT DISCLAIMS THE WARRANTY 
+* OF NON INFRINGEMENT OF THIRD PARTY RIGHTS. 
+* 
+* This program is distributed in the hope that it will be useful, but WITHOUT 
+* ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+* FOR A PARTICULAR PURPOSE.  See the GNU Affero General Public License for more 
+* details. 
+* 
+* You should have received a copy of the GNU Affero General Public License along with 
+* this program; if not, see http://www.gnu.org/licenses or write to the Free 
+* Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 
+* 02110-1301 USA. 
+* 
+* You can contact Ephesoft, Inc. headquarters at 111 Academy Way, 
+* Irvine, CA 92617, USA. or at email address info@ephesoft.com. 
+* 
+* The interactive user interfaces in modified source and object code versions 
+* of this program must display Appropriate Legal Notices, as required under 
+* Section 5 of the GNU Affero General Public License version 3. 
+* 
+* In accordance with Section 7(b) of the GNU Affero General Public License version 3, 
+* these Appropriate Legal Notices must retain the display of the "Ephesoft" logo. 
+* If the display of the logo is not reasonably feasible for 
+* technical reasons, the Appropriate Legal Notices must display the words 
+* "Powered by Ephesoft". 
+********************************************************************************/ 
+
+
+package com.ephesoft.dcma.core.threadpool;
+
+/**
+ * JMX management interface of {@link ProcessResourceLimiter}, used to monitor and change the number of external processes of each
+ * resource class that can run simultaneously.
+ * 
+ * @author Ephesoft
+ * @version 1.0
+ * @see com.ephesoft.dcma.core.threadpool.ProcessResourceLimiter
+ */
+public interface ProcessResourceLimiterMBean {
+
+	/**
+	 * To get the names of the known resource classes.
+	 * 
+	 * @return String[]
+	 */
+	String[] getResourceClasses();
+
+	/**
+	 * To get the maximum number of processes of a resource class that can run simultaneously.
+	 * 
+	 * @param resourceClass String
+	 * @return int
+	 */
+	int getMaxProcesses(String resourceClass);
+
+	/**
+	 * To set the maximum number of processes of a resource class that can run simultaneously. Running processes are not affected.
+	 * 
+	 * @param resourceClass String
+	 * @param maxProcesses int should be positive
+	 */
+	void setMaxProcesses(String resourceClass, int maxProcesses);
+
+	/**
+	 * To get the number of processes of a resource class running currently.
+	 * 
+	 * @param resourceClass String
+	 * @return int
+	 */
+	int getRunningProcesses(String resourceClass);
+
+	/**
+	 * To get the number of processes of a resource class waiting to be started.
+	 * 
+	 * @param resourceClass String
+	 * @return int
+	 */
+	int getWaitingProcesses(String resourceClass);
+}
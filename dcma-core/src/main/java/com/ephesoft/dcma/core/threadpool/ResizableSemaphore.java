@@ -0,0 +1,103 @@
+/********************************************************************************* 
+* Ephesoft is a Intelligent Document Capture and Mailroom Automation program 
+* developed by Ephesoft, Inc. Copyright (C) 2010-2012 Ephesoft Inc. 
+* 
+* This program is free software; you can redistribute it and/or modify it under 
+* the terms of the GNU Affero General Public License version 3 as published by the 
+* Free Software Foundation with the addition of the following permission added 
+* to Section 15 as permitted in Section 7(a): FOR ANY PART OF THE COVERED WORK 
+* IN WHICH THE COPYRIGHT IS OWNED BY EPHESOFT, EPHESOFT DISCLAIMS THE WARRANTY 
+* OF NON INFRINGEMENT OF THIRD PARTY RIGHTS. 
+* 
+* This program is distributed in the hope that it will be useful, but WITHOUT 
+* ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+* FOR A PARTICULAR PURPOSE.  See the GNU Affero General Public License for more 
+* details. 
+* 
+* You should have received a copy of the GNU Affero General Public License along with 
+* this program; if not, see http://www.gnu.org/licenses or write to the Free 
+* Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 
+* 02110-1301 USA. 
+* 
+* You can contact Ephesoft, Inc. headquarters at 111 Academy Way, 
+* Irvine, CA 92617, USA. or at email address info@ephesoft.com. 
+* 
+* The interactive user interfaces in modified source and object code versions 
+* of this program must display Appropriate Legal Notices, as required under 
+* Section 5 of the GNU Affero General Public License version 3. 
+* 
+* In accordance with Section 7(b) of the GNU Affero General Public License version 3, 
+* these Appropriate Legal Notices must retain the display of the "Ephesoft" logo. 
+* If the display of the logo is not reasonably feasible for 
+* technical reasons, the Appropriate Legal Notices must display the words 
+* "Powered by Ephesoft". 
+********************************************************************************/ 
+
+
+package com.ephesoft.dcma.core.threadpool;
+
+import java.util.concurrent.Semaphore;
+
+/**
+ * Fair semaphore whose number of permits can be changed while permits are held. On reducing the permits the holders are not
+ * affected, new acquirers wait until enough permits have been released.
+ * 
+ * @author Ephesoft
+ * @version 1.0
+ * @see java.util.concurrent.Semaphore
+ */
+final class ResizableSemaphore extends Semaphore {
+
+	/**
+	 * serialVersionUID long.
+	 */
+	private static final long serialVersionUID = 3525364151276934516L;
+
+	/**
+	 * Total number of permits.
+	 */
+	private int maxPermits;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param maxPermits int total number of permits
+	 */
+	ResizableSemaphore(final int maxPermits) {
+		super(maxPermits, true);
+		this.maxPermits = maxPermits;
+	}
+
+	/**
+	 * To get the total number of permits.
+	 * 
+	 * @return int
+	 */
+	synchronized int getMaxPermits() {
+		return maxPermits;
+	}
+
+	/**
+	 * To set the total number of permits.
+	 * 
+	 * @param newMaxPermits int
+	 */
+	synchronized void setMaxPermits(final int newMaxPermits) {
+		final int delta = newMaxPermits - maxPermits;
+		if (delta > 0) {
+			release(delta);
+		} else if (delta < 0) {
+			reducePermits(-delta);
+		}
+		maxPermits = newMaxPermits;
+	}
+
+	/**
+	 * To get the number of permits currently held.
+	 * 
+	 * @return int
+	 */
+	synchronized int getHeldPermits() {
+		return maxPermits - availablePermits();
+	}
+}
@@ -0,0 +1,127 @@
+/********************************************************************************* 
+* Ephesoft is a Intelligent Document Capture and Mailroom Automation program 
+* developed by Ephesoft, Inc. Copyright (C) 2010-2012 Ephesoft Inc. 
+* 
+* This program is free software; you can redistribute it and/or modify it under 
+* the terms of the GNU Affero General Public License version 3 as published by the 
+* Free Software Foundation with the addition of the following permission added 
+* to Section 15 as permitted in Section 7(a): FOR ANY PART OF THE COVERED WORK 
+* IN WHICH THE COPYRIGHT IS OWNED BY EPHESOFT, EPHESOFT DISCLAIMS THE WARRANTY 
+* OF NON INFRINGEMENT OF THIRD PARTY RIGHTS. 
+* 
+* This program is distributed in the hope that it will be useful, but WITHOUT 
+* ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+* FOR A PARTICULAR PURPOSE.  See the GNU Affero General Public License for more 
+* details. 
+* 
+* You should have received a copy of the GNU Affero General Public License along with 
+* this program; if not, see http://www.gnu.org/licenses or write to the Free 
+* Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 
+* 02110-1301 USA. 
+* 
+* You can contact Ephesoft, Inc. headquarters at 111 Academy Way, 
+* Irvine, CA 92617, USA. or at email address info@ephesoft.com. 
+* 
+* The interactive user interfaces in modified source and object code versions 
+* of this program must display Appropriate Legal Notices, as required under 
+* Section 5 of the GNU Affero General Public License version 3. 
+* 
+* In accordance with Section 7(b) of the GNU Affero General Public License version 3, 
+* these Appropriate Legal Notices must retain the display of the "Ephesoft" logo. 
+* If the display of the logo is not reasonably feasible for 
+* technical reasons, the Appropriate Legal Notices must display the words 
+* "Powered by Ephesoft". 
+********************************************************************************/ 
+
+
+package com.ephesoft.dcma.core.threadpool;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latch used by {@link BatchInstanceThread} to wait for a set of {@link AbstractRunnable} tasks. Every task reports its completion to the
+ * latch once, so a waiting thread is woken as soon as the last task finishes, or as soon as the first task fails when the latch is
+ * fail fast.
+ * 
+ * @author Ephesoft
+ * @version 1.0
+ * @see com.ephesoft.dcma.core.threadpool.AbstractRunnable
+ */
+final class TaskCompletionLatch {
+
+	/**
+	 * Number of tasks that have not completed yet.
+	 */
+	private int pendingTasks;
+
+	/**
+	 * First task that completed with an exception.
+	 */
+	private AbstractRunnable failedTask;
+
+	/**
+	 * Boolean to check whether the latch is to be released on the first failed task.
+	 */
+	private final boolean failFast;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param taskCount int number of tasks to wait for
+	 * @param failFast boolean true if the latch is to be released on the first failed task
+	 */
+	TaskCompletionLatch(final int taskCount, final boolean failFast) {
+		this.pendingTasks = taskCount;
+		this.failFast = failFast;
+	}
+
+	/**
+	 * API called by a task when it has completed execution.
+	 * 
+	 * @param runnable {@link AbstractRunnable} the completed task
+	 */
+	synchronized void taskCompleted(final AbstractRunnable runnable) {
+		if (pendingTasks > 0) {
+			pendingTasks--;
+		}
+		if (failedTask == null && runnable.getDcmaApplicationException() != null) {
+			failedTask = runnable;
+		}
+		if (isReleased()) {
+			notifyAll();
+		}
+	}
+
+	/**
+	 * Waits until all the tasks have completed, or the first task has failed for a fail fast latch. The waiting thread is woken up at
+	 * least every <code>maxWaitTime</code> milliseconds so that tasks completed outside the thread pool are not missed.
+	 * 
+	 * @param maxWaitTime long maximum time in milliseconds to wait before returning without release
+	 * @return boolean true if the latch has been released
+	 * @throws InterruptedException if the waiting thread is interrupted
+	 */
+	synchronized boolean await(final long maxWaitTime) throws InterruptedException {
+		if (!isReleased()) {
+			TimeUnit.MILLISECONDS.timedWait(this, maxWaitTime);
+		}
+		return isReleased();
+	}
+
+	/**
+	 * To get the first failed task.
+	 * 
+	 * @return {@link AbstractRunnable} the first task completed with an exception, null if none failed
+	 */
+	synchronized AbstractRunnable getFailedTask() {
+		return failedTask;
+	}
+
+	/**
+	 * API to check whether the waiting thread can be released.
+	 * 
+	 * @return boolean
+	 */
+	private boolean isReleased() {
+		return pendingTasks == 0 || (failFast && failedTask != null);
+	}
+}
@@ -38,9 +38,10 @@ package com.ephesoft.dcma.core.threadpool;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.HashMap;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ThreadPoolExecutor;
@@ -102,6 +103,36 @@ public final class ThreadPool extends ThreadPoolExecutor {
 	 */
 	private static final String THREAD_SIZE_FOR_GHOST_SCRIPT = "thread.pool_size_for_ghost_script";
 
+	/**
+	 * Constant for thread.pool_scheduling.
+	 */
+	private static final String THREAD_POOL_SCHEDULING = "thread.pool_scheduling";
+
+	/**
+	 * Constant for thread.pool_queue_capacity.
+	 */
+	private static final String THREAD_POOL_QUEUE_CAPACITY = "thread.pool_queue_capacity";
+
+	/**
+	 * Constant for thread.pool_max_tasks_per_batch.
+	 */
+	private static final String THREAD_POOL_MAX_TASKS_PER_BATCH = "thread.pool_max_tasks_per_batch";
+
+	/**
+	 * Scheduling mode in which the tasks of all the batch instances are executed in the order they are added.
+	 */
+	private static final String FIFO_SCHEDULING = "fifo";
+
+	/**
+	 * Scheduling mode in which the tasks are executed round robin across the batch instances.
+	 */
+	private static final String FAIR_SCHEDULING = "fair";
+
+	/**
+	 * Default capacity of the queue for fair scheduling.
+	 */
+	private static final int DEFAULT_QUEUE_CAPACITY = 1000;
+
 	/**
 	 * Logger instance for logging using slf4j for logging information.
 	 */
@@ -125,53 +156,52 @@ public final class ThreadPool extends ThreadPoolExecutor {
 	/**
 	 * Map for storing the information of batch instance id vs batch instance thread object.
 	 */
-	private static final Map<String, BatchInstanceThread> BATCH_INSTANCE_THREAD_MAP = new HashMap<String, BatchInstanceThread>();
+	private static final Map<String, BatchInstanceThread> BATCH_INSTANCE_THREAD_MAP = new ConcurrentHashMap<String, BatchInstanceThread>();
 
 	/**
 	 * An object used for synchronization.
 	 */
 	private static Object object = new Object();
 
+	/**
+	 * Queue used for fair scheduling, null for fifo scheduling.
+	 */
+	private final BatchFairBlockingQueue batchFairQueue;
+
 	/**
 	 * Creating a singleton class.
 	 */
-	private ThreadPool(boolean isUsingGhostScript) {
-		super(CORE_POOL_SIZE, MAX_POOL_SIZE, KEEP_ALIVE_TIME, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<Runnable>());
-		int corePoolSize = getCorePoolSize(isUsingGhostScript);
+	private ThreadPool(boolean isUsingGhostScript, Properties properties) {
+		super(CORE_POOL_SIZE, MAX_POOL_SIZE, KEEP_ALIVE_TIME, TimeUnit.MILLISECONDS, createWorkQueue(isUsingGhostScript, properties));
+		int corePoolSize = getCorePoolSize(isUsingGhostScript, properties);
 		this.setCorePoolSize(corePoolSize);
+		BlockingQueue<Runnable> workQueue = getQueue();
+		if (workQueue instanceof BatchFairBlockingQueue) {
+			batchFairQueue = (BatchFairBlockingQueue) workQueue;
+			// all the tasks have to pass through the queue, so the pool does not grow beyond the core threads.
+			this.setMaximumPoolSize(corePoolSize);
+			this.setRejectedExecutionHandler(new CallerWaitsPolicy());
+			this.prestartAllCoreThreads();
+			LOG.info("Thread pool created with fair scheduling across batch instances.");
+		} else {
+			batchFairQueue = null;
+		}
 	}
 
 	/**
-	 * API for getting the core pool size configured in the property file.
+	 * API for loading the dcma core property file.
 	 * 
-	 * @param isUsingGhostScript boolean
-	 * @return int 
+	 * @return {@link Properties} empty if the file could not be loaded
 	 */
-	private int getCorePoolSize(boolean isUsingGhostScript) {
+	static Properties loadProperties() {
 		String filePath = META_INF + File.separator + FOLDER_NAME + File.separator + FILE_NAME + ".properties";
 		InputStream propertyInStream = null;
-		Integer corePoolSize = null;
-		int defaultCorePoolSize = CORE_POOL_SIZE;
+		Properties properties = new Properties();
 		try {
-			if (isUsingGhostScript) {
-				defaultCorePoolSize = CORE_POOL_SIZE_FOR_GHOST_SCRIPT;
-			}
 			propertyInStream = new ClassPathResource(filePath).getInputStream();
-			Properties properties = new Properties();
 			properties.load(propertyInStream);
-			try {
-				if (isUsingGhostScript) {
-					corePoolSize = Integer.parseInt((String) properties.get(THREAD_SIZE_FOR_GHOST_SCRIPT));
-				} else {
-					corePoolSize = Integer.parseInt((String) properties.get(THREAD_SIZE));
-				}
-			} catch (NumberFormatException nfe) {
-				LOG.info("Invalid or no value for core pool size specified in properties file. Setting it its default value.");
-				corePoolSize = defaultCorePoolSize;
-			}
 		} catch (Exception e) {
-			LOG.info("Could not get thread pool size. Using default value.");
-			corePoolSize = defaultCorePoolSize;
+			LOG.info("Could not load thread pool properties. Using default values.");
 		} finally {
 			try {
 				if (propertyInStream != null) {
@@ -181,9 +211,74 @@ public final class ThreadPool extends ThreadPoolExecutor {
 				LOG.info("Could not close property input stream in threadpool.");
 			}
 		}
+		return properties;
+	}
+
+	/**
+	 * API for creating the queue of the thread pool as per the scheduling mode configured in the property file.
+	 * 
+	 * @param isUsingGhostScript boolean
+	 * @param properties {@link Properties}
+	 * @return {@link BlockingQueue}
+	 */
+	private static BlockingQueue<Runnable> createWorkQueue(boolean isUsingGhostScript, Properties properties) {
+		BlockingQueue<Runnable> workQueue;
+		String scheduling = properties.getProperty(THREAD_POOL_SCHEDULING, FIFO_SCHEDULING).trim();
+		if (FAIR_SCHEDULING.equalsIgnoreCase(scheduling)) {
+			int corePoolSize = getCorePoolSize(isUsingGhostScript, properties);
+			int queueCapacity = getPositiveIntProperty(properties, THREAD_POOL_QUEUE_CAPACITY, DEFAULT_QUEUE_CAPACITY);
+			int maxTasksPerBatch = getPositiveIntProperty(properties, THREAD_POOL_MAX_TASKS_PER_BATCH, corePoolSize);
+			workQueue = new BatchFairBlockingQueue(queueCapacity, maxTasksPerBatch);
+		} else {
+			if (!FIFO_SCHEDULING.equalsIgnoreCase(scheduling)) {
+				LOG.info("Invalid thread pool scheduling " + scheduling + " specified in properties file. Using fifo scheduling.");
+			}
+			workQueue = new LinkedBlockingQueue<Runnable>();
+		}
+		return workQueue;
+	}
+
+	/**
+	 * API for getting the core pool size configured in the property file.
+	 * 
+	 * @param isUsingGhostScript boolean
+	 * @param properties {@link Properties}
+	 * @return int 
+	 */
+	private static int getCorePoolSize(boolean isUsingGhostScript, Properties properties) {
+		int corePoolSize;
+		if (isUsingGhostScript) {
+			corePoolSize = getPositiveIntProperty(properties, THREAD_SIZE_FOR_GHOST_SCRIPT, CORE_POOL_SIZE_FOR_GHOST_SCRIPT);
+		} else {
+			corePoolSize = getPositiveIntProperty(properties, THREAD_SIZE, CORE_POOL_SIZE);
+		}
 		return corePoolSize;
 	}
 
+	/**
+	 * API for reading a positive integer property.
+	 * 
+	 * @param properties {@link Properties}
+	 * @param propertyName String
+	 * @param defaultValue int value to be used if the property is missing or invalid
+	 * @return int
+	 */
+	static int getPositiveIntProperty(Properties properties, String propertyName, int defaultValue) {
+		int value = defaultValue;
+		String propertyValue = properties.getProperty(propertyName);
+		if (propertyValue != null) {
+			try {
+				value = Integer.parseInt(propertyValue.trim());
+			} catch (NumberFormatException nfe) {
+				LOG.info("Invalid value for " + propertyName + " specified in properties file. Setting it its default value.");
+			}
+		}
+		if (value <= 0) {
+			value = defaultValue;
+		}
+		return value;
+	}
+
 	/**
 	 * Adds a task to the thread pool.
 	 * 
@@ -232,7 +327,7 @@ public final class ThreadPool extends ThreadPoolExecutor {
 		if (threadPoolInstance == null) {
 			synchronized (object) {
 				if (threadPoolInstance == null) {
-					threadPoolInstance = new ThreadPool(false);
+					threadPoolInstance = new ThreadPool(false, loadProperties());
 				}
 			}
 
@@ -259,7 +354,11 @@ public final class ThreadPool extends ThreadPoolExecutor {
 	 * @return BatchInstanceThread
 	 */
 	public static BatchInstanceThread getBatchInstanceThreadList(String batchInstanceId) {
-		return BATCH_INSTANCE_THREAD_MAP.get(batchInstanceId);
+		BatchInstanceThread batchInstanceThread = null;
+		if (batchInstanceId != null) {
+			batchInstanceThread = BATCH_INSTANCE_THREAD_MAP.get(batchInstanceId);
+		}
+		return batchInstanceThread;
 	}
 
 	/**
@@ -267,6 +366,9 @@ public final class ThreadPool extends ThreadPoolExecutor {
 	 */
 	@Override
 	protected void afterExecute(Runnable runnable, Throwable throwable) {
+		if (batchFairQueue != null) {
+			batchFairQueue.taskCompleted(runnable);
+		}
 		if (runnable instanceof AbstractRunnable) {
 			AbstractRunnable abstractRunnable = (AbstractRunnable) runnable;
 			abstractRunnable.setCompleted(true);
@@ -303,7 +405,7 @@ public final class ThreadPool extends ThreadPoolExecutor {
 		if (threadPoolInstanceForGhostScript == null) {
 			synchronized (object) {
 				if (threadPoolInstanceForGhostScript == null) {
-					threadPoolInstanceForGhostScript = new ThreadPool(true);
+					threadPoolInstanceForGhostScript = new ThreadPool(true, loadProperties());
 				}
 			}
 
@@ -0,0 +1,261 @@
+/********************************************************************************* 
+* Ephesoft is a Intelligent Document Capture and Mailroom Automation program 
+* developed by Ephesoft, Inc. Copyright (C) 2010-2012 Ephesoft Inc. 
+* 
+* This program is free software; you can redistribute it and/or modify it under 
+* the terms of the GNU Affero General Public License version 3 as published by the 
+* Free Software Foundation with the addition of the following permission added 
+* to Section 15 as permitted in Section 7(a): FOR ANY PART OF THE COVERED WORK 
+* IN WHICH THE COPYRIGHT IS OWNED BY EPHESOFT, EPHESOFT DISCLAIMS THE WARRANTY 
+* OF NON INFRINGEMENT OF THIRD PARTY RIGHTS. 
+* 
+* This program is distributed in the hope that it will be useful, but WITHOUT 
+* ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+* FOR A PARTICULAR PURPOSE.  See the GNU Affero General Public License for more 
+* details. 
+* 
+* You should have received a copy of the GNU Affero General Public License along with 
+* this program; if not, see http://www.gnu.org/licenses or write to the Free 
+* Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 
+* 02110-1301 USA. 
+* 
+* You can contact Ephesoft, Inc. headquarters at 111 Academy Way, 
+* Irvine, CA 92617, USA. or at email address info@ephesoft.com. 
+* 
+* The interactive user interfaces in modified source and object code versions 
+* of this program must display Appropriate Legal Notices, as required under 
+* Section 5 of the GNU Affero General Public License version 3. 
+* 
+* In accordance with Section 7(b) of the GNU Affero General Public License version 3, 
+* these Appropriate Legal Notices must retain the display of the "Ephesoft" logo. 
+* If the display of the logo is not reasonably feasible for 
+* technical reasons, the Appropriate Legal Notices must display the words 
+* "Powered by Ephesoft". 
+********************************************************************************/ 
+
+package com.ephesoft.dcma.core.dao.xml;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.ephesoft.dcma.core.dao.xml.XmlObjectCache.DirtyObject;
+import com.ephesoft.dcma.core.dao.xml.XmlObjectCache.WriteBack;
+
+/**
+ * This is Junit test for XmlObjectCache. It checks read-your-writes and the flush of deferred updates, that only the thread owning
+ * the deferred scope defers its writes, that dirty objects survive eviction up to the cache size and that clean objects are dropped
+ * once the file changes on disk, even with the same length within the same second.
+ * 
+ * @author Ephesoft
+ * @version 1.0
+ * @see com.ephesoft.dcma.core.dao.xml.XmlObjectCache
+ */
+public class XmlObjectCacheTest {
+
+	/**
+	 * Identifier of the batch instance used by the tests.
+	 */
+	private static final String BATCH_INSTANCE_ID = "BI1";
+
+	/**
+	 * File standing in for batch.xml.
+	 */
+	private File xmlFile;
+
+	/**
+	 * This method creates the file standing in for batch.xml.
+	 * 
+	 * @throws IOException if the file cannot be created
+	 */
+	@Before
+	public void setUp() throws IOException {
+		xmlFile = File.createTempFile("xml-object-cache", "_batch.xml");
+		writeFile("<Batch/>");
+	}
+
+	/**
+	 * This method deletes the test file.
+	 */
+	@After
+	public void tearDown() {
+		xmlFile.delete();
+	}
+
+	/**
+	 * This method tests that an update deferred by write-behind is read back before the flush and handed to the flush exactly once.
+	 */
+	@Test
+	public void testReadYourWritesAndFlush() {
+		XmlObjectCache cache = new XmlObjectCache(10, true);
+		String filePath = xmlFile.getPath();
+		cache.beginDeferredWrites(BATCH_INSTANCE_ID);
+		assertTrue(cache.isDeferred(BATCH_INSTANCE_ID));
+
+		assertTrue(cache.putDirty(filePath, createObject("updated"), createWriteBack()));
+		assertEquals(createObject("updated"), cache.get(filePath));
+
+		List<DirtyObject> dirtyObjects = cache.getDirtyObjects(BATCH_INSTANCE_ID);
+		assertEquals(1, dirtyObjects.size());
+		assertEquals(filePath, dirtyObjects.get(0).getFilePath());
+		assertEquals(createObject("updated"), cache.getObject(dirtyObjects.get(0)));
+
+		cache.markWritten(dirtyObjects.get(0));
+		assertTrue(cache.getDirtyObjects(BATCH_INSTANCE_ID).isEmpty());
+		assertEquals(createObject("updated"), cache.get(filePath));
+
+		cache.endDeferredWrites(BATCH_INSTANCE_ID);
+		assertFalse(cache.isDeferred(BATCH_INSTANCE_ID));
+	}
+
+	/**
+	 * This method tests that an object updated again while its write back was in progress stays dirty.
+	 */
+	@Test
+	public void testUpdateDuringFlushStaysDirty() {
+		XmlObjectCache cache = new XmlObjectCache(10, true);
+		String filePath = xmlFile.getPath();
+		cache.putDirty(filePath, createObject("first"), createWriteBack());
+		DirtyObject firstWrite = cache.getDirtyObjects(BATCH_INSTANCE_ID).get(0);
+		cache.putDirty(filePath, createObject("second"), createWriteBack());
+
+		cache.markWritten(firstWrite);
+		List<DirtyObject> dirtyObjects = cache.getDirtyObjects(BATCH_INSTANCE_ID);
+		assertEquals(1, dirtyObjects.size());
+		assertEquals(createObject("second"), cache.getObject(dirtyObjects.get(0)));
+	}
+
+	/**
+	 * This method tests that dirty objects are kept when the cache is over its size.
+	 * 
+	 * @throws IOException if the second file cannot be created
+	 */
+	@Test
+	public void testDirtyObjectsAreNotEvicted() throws IOException {
+		XmlObjectCache cache = new XmlObjectCache(1, true);
+		File otherFile = File.createTempFile("xml-object-cache", "_batch.xml");
+		try {
+			cache.putDirty(xmlFile.getPath(), createObject("dirty"), createWriteBack());
+			cache.putRead(otherFile.getPath(), createObject("clean"), FileStamp.capture(otherFile.getPath()));
+			cache.putRead(otherFile.getPath() + "2", createObject("clean2"), FileStamp.capture(otherFile.getPath() + "2"));
+
+			assertEquals(createObject("dirty"), cache.get(xmlFile.getPath()));
+			assertEquals(1, cache.getDirtyObjects(BATCH_INSTANCE_ID).size());
+		} finally {
+			otherFile.delete();
+		}
+	}
+
+	/**
+	 * This method tests that every read returns a private copy and that a clean copy is dropped once the file changes on disk.
+	 * 
+	 * @throws IOException if the file cannot be rewritten
+	 */
+	@Test
+	public void testPrivateCopiesAndDiskChange() throws IOException {
+		XmlObjectCache cache = new XmlObjectCache(10, false);
+		String filePath = xmlFile.getPath();
+		cache.putRead(filePath, createObject("read"), FileStamp.capture(filePath));
+		assertFalse(cache.isDeferred(BATCH_INSTANCE_ID));
+
+		@SuppressWarnings("unchecked")
+		List<String> copy = (List<String>) cache.get(filePath);
+		assertNotNull(copy);
+		copy.add("changed by caller");
+		assertEquals(createObject("read"), cache.get(filePath));
+
+		writeFile("<Batch><BatchName>changed outside the dao</BatchName></Batch>");
+		assertNull(cache.get(filePath));
+	}
+
+	/**
+	 * This method tests that a rewrite of the file with the same length and the same modification time is not served from the cache.
+	 * 
+	 * @throws IOException if the file cannot be rewritten
+	 */
+	@Test
+	public void testSameLengthRewriteInSameSecond() throws IOException {
+		XmlObjectCache cache = new XmlObjectCache(10, false);
+		String filePath = xmlFile.getPath();
+		writeFile("<Batch><BatchName>aaaa</BatchName></Batch>");
+		long lastModified = xmlFile.lastModified();
+		cache.putRead(filePath, createObject("read"), FileStamp.capture(filePath));
+		assertEquals(createObject("read"), cache.get(filePath));
+
+		writeFile("<Batch><BatchName>bbbb</BatchName></Batch>");
+		assertTrue(xmlFile.setLastModified(lastModified));
+		assertNull(cache.get(filePath));
+	}
+
+	/**
+	 * This method tests that updates from a thread other than the one owning the deferred scope are written at once.
+	 * 
+	 * @throws InterruptedException if interrupted while waiting for the other thread
+	 */
+	@Test
+	public void testDeferralIsLimitedToOwningThread() throws InterruptedException {
+		final XmlObjectCache cache = new XmlObjectCache(10, true);
+		cache.beginDeferredWrites(BATCH_INSTANCE_ID);
+		final boolean[] deferredOnOtherThread = new boolean[] {true};
+		Thread otherThread = new Thread(new Runnable() {
+
+			@Override
+			public void run() {
+				deferredOnOtherThread[0] = cache.isDeferred(BATCH_INSTANCE_ID);
+			}
+		});
+		otherThread.start();
+		otherThread.join();
+
+		assertTrue(cache.isDeferred(BATCH_INSTANCE_ID));
+		assertFalse(deferredOnOtherThread[0]);
+		cache.endDeferredWrites(BATCH_INSTANCE_ID);
+		assertFalse(cache.isDeferred(BATCH_INSTANCE_ID));
+	}
+
+	/**
+	 * This method tests that no more objects than the cache size are kept dirty.
+	 */
+	@Test
+	public void testDirtyObjectsAreBounded() {
+		XmlObjectCache cache = new XmlObjectCache(2, true);
+		String filePath = xmlFile.getPath();
+		assertTrue(cache.putDirty(filePath + "1", createObject("first"), createWriteBack()));
+		assertTrue(cache.putDirty(filePath + "2", createObject("second"), createWriteBack()));
+		assertFalse(cache.putDirty(filePath + "3", createObject("third"), createWriteBack()));
+		assertTrue(cache.putDirty(filePath + "1", createObject("first again"), createWriteBack()));
+		assertEquals(2, cache.getDirtyObjects(BATCH_INSTANCE_ID).size());
+	}
+
+	private List<String> createObject(String value) {
+		List<String> object = new ArrayList<String>();
+		object.add(value);
+		return object;
+	}
+
+	private WriteBack createWriteBack() {
+		return new WriteBack(BATCH_INSTANCE_ID, "_batch.xml", false, xmlFile.getParent());
+	}
+
+	private void writeFile(String content) throws IOException {
+		FileWriter writer = new FileWriter(xmlFile);
+		try {
+			writer.write(content);
+		} finally {
+			writer.close();
+		}
+	}
+
+}
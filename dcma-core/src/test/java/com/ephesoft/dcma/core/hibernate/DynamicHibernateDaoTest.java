@@ -0,0 +1,124 @@
+/********************************************************************************* 
+* Ephesoft is a Intelligent Document Capture and Mailroom Automation program 
+* developed by Ephesoft, Inc. Copyright (C) 2010-2012 Ephesoft Inc. 
+* 
+* This program is free software; you can redistribute it and/or modify it under 
+* the terms of the GNU Affero General Public License version 3 as published by the 
+* Free Software Foundation with the addition of the following permission added 
+* to Section 15 as permitted in Section 7(a): FOR ANY PART OF THE COVERED WORK 
+* IN WHICH THE COPYRIGHT IS OWNED BY EPHESOFT, EPHESOFT DISCLAIMS THE WARRANTY 
+* OF NON INFRINGEMENT OF THIRD PARTY RIGHTS. 
+* 
+* This program is distributed in the hope that it will be useful, but WITHOUT 
+* ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+* FOR A PARTICULAR PURPOSE.  See the GNU Affero General Public License for more 
+* details. 
+* 
+* You should have received a copy of the GNU Affero General Public License along with 
+* this program; if not, see http://www.gnu.org/licenses or write to the Free 
+* Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 
+* 02110-1301 USA. 
+* 
+* You can contact Ephesoft, Inc. headquarters at 111 Academy Way, 
+* Irvine, CA 92617, USA. or at email address info@ephesoft.com. 
+* 
+* The interactive user interfaces in modified source and object code versions 
+* of this program must display Appropriate Legal Notices, as required under 
+* Section 5 of the GNU Affero General Public License version 3. 
+* 
+* In accordance with Section 7(b) of the GNU Affero General Public License version 3, 
+* these Appropriate Legal Notices must retain the display of the "Ephesoft" logo. 
+* If the display of the logo is not reasonably feasible for 
+* technical reasons, the Appropriate Legal Notices must display the words 
+* "Powered by Ephesoft". 
+********************************************************************************/ 
+
+
+package com.ephesoft.dcma.core.hibernate;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.hibernate.StatelessSession;
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * This is Junit test for the pooled instances of DynamicHibernateDao. It checks that a pooled instance is shared and that an instance
+ * replaced after a change of credentials stays open until its last user releases it.
+ * 
+ * @author Ephesoft
+ * @version 1.0
+ * @see com.ephesoft.dcma.core.hibernate.DynamicHibernateDao
+ */
+public class DynamicHibernateDaoTest {
+
+	/**
+	 * Driver of the in memory test database.
+	 */
+	private static final String DRIVER_NAME = "org.h2.Driver";
+
+	/**
+	 * Url of the in memory test database.
+	 */
+	private static final String JDBC_URL = "jdbc:h2:mem:dynamic-hibernate-dao;DB_CLOSE_DELAY=-1";
+
+	/**
+	 * Password of the test database.
+	 */
+	private static final String PASSWORD = "";
+
+	/**
+	 * This method closes the pooled instances.
+	 */
+	@After
+	public void tearDown() {
+		DynamicHibernateDao.closePooledInstances();
+	}
+
+	/**
+	 * This method tests that callers of the same data source share one instance.
+	 */
+	@Test
+	public void testPooledInstanceIsShared() {
+		DynamicHibernateDao first = DynamicHibernateDao.getPooledInstance("sa", PASSWORD, DRIVER_NAME, JDBC_URL);
+		DynamicHibernateDao second = DynamicHibernateDao.getPooledInstance("sa", PASSWORD, DRIVER_NAME, JDBC_URL);
+		assertSame(first, second);
+
+		first.releasePooledInstance();
+		second.closeSession();
+		second.releasePooledInstance();
+		assertFalse(second.isClosed());
+	}
+
+	/**
+	 * This method tests that an instance replaced while in use is closed only once its last user releases it.
+	 */
+	@Test
+	public void testReplacedInstanceClosedOnLastRelease() {
+		DynamicHibernateDao oldInstance = DynamicHibernateDao.getPooledInstance("sa", PASSWORD, DRIVER_NAME, JDBC_URL);
+		DynamicHibernateDao sameOldInstance = DynamicHibernateDao.getPooledInstance("sa", PASSWORD, DRIVER_NAME, JDBC_URL);
+
+		// H2 user names are not case sensitive, so the changed credentials still connect.
+		DynamicHibernateDao newInstance = DynamicHibernateDao.getPooledInstance("SA", PASSWORD, DRIVER_NAME, JDBC_URL);
+		assertNotSame(oldInstance, newInstance);
+		assertFalse(oldInstance.isClosed());
+
+		StatelessSession session = oldInstance.getStatelessSession();
+		try {
+			session.createSQLQuery("select 1").list();
+		} finally {
+			session.close();
+		}
+		oldInstance.releasePooledInstance();
+		assertFalse(oldInstance.isClosed());
+		sameOldInstance.releasePooledInstance();
+		assertTrue(oldInstance.isClosed());
+
+		assertFalse(newInstance.isClosed());
+		newInstance.releasePooledInstance();
+		assertFalse(newInstance.isClosed());
+	}
+}
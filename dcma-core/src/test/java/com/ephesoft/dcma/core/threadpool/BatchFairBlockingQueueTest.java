@@ -0,0 +1,143 @@
+/********************************************************************************* 
+* Ephesoft is a Intelligent Document Capture and Mailroom Automation program 
+* developed by Ephesoft, Inc. Copyright (C) 2010-2012 Ephesoft Inc. 
+* 
+* This program is free software; you can redistribute it and/or modify it under 
+* the terms of the GNU Affero General Public License version 3 as published by the 
+* Free Software Foundation with the addition of the following permission added 
+* to Section 15 as permitted in Section 7(a): FOR ANY PART OF THE COVERED WORK 
+* IN WHICH THE COPYRIGHT IS OWNED BY EPHESOFT, EPHESOFT DISCLAIMS THE WARRANTY 
+* OF NON INFRINGEMENT OF THIRD PARTY RIGHTS. 
+* 
+* This program is distributed in the hope that it will be useful, but WITHOUT 
+* ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+* FOR A PARTICULAR PURPOSE.  See the GNU Affero General Public License for more 
+* details. 
+* 
+* You should have received a copy of the GNU Affero General Public License along with 
+* this program; if not, see http://www.gnu.org/licenses or write to the Free 
+* Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 
+* 02110-1301 USA. 
+* 
+* You can contact Ephesoft, Inc. headquarters at 111 Academy Way, 
+* Irvine, CA 92617, USA. or at email address info@ephesoft.com. 
+* 
+* The interactive user interfaces in modified source and object code versions 
+* of this program must display Appropriate Legal Notices, as required under 
+* Section 5 of the GNU Affero General Public License version 3. 
+* 
+* In accordance with Section 7(b) of the GNU Affero General Public License version 3, 
+* these Appropriate Legal Notices must retain the display of the "Ephesoft" logo. 
+* If the display of the logo is not reasonably feasible for 
+* technical reasons, the Appropriate Legal Notices must display the words 
+* "Powered by Ephesoft". 
+********************************************************************************/ 
+
+package com.ephesoft.dcma.core.threadpool;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * This is Junit test for BatchFairBlockingQueue. It checks the round robin order across batch instances, the limit of running tasks per
+ * batch instance and the capacity bound.
+ * 
+ * @author Ephesoft
+ * @version 1.0
+ * @see com.ephesoft.dcma.core.threadpool.BatchFairBlockingQueue
+ */
+public class BatchFairBlockingQueueTest {
+
+	/**
+	 * This method tests that a batch instance queued after a large one is served in turn instead of after all its tasks.
+	 */
+	@Test
+	public void testRoundRobinAcrossBatchInstances() {
+		BatchFairBlockingQueue queue = new BatchFairBlockingQueue(100, 100);
+		List<AbstractRunnable> largeBatch = createTasks("BI1", 4);
+		List<AbstractRunnable> smallBatch = createTasks("BI2", 2);
+		addAll(queue, largeBatch);
+		addAll(queue, smallBatch);
+
+		assertSame(largeBatch.get(0), queue.poll());
+		assertSame(smallBatch.get(0), queue.poll());
+		assertSame(largeBatch.get(1), queue.poll());
+		assertSame(smallBatch.get(1), queue.poll());
+		assertSame(largeBatch.get(2), queue.poll());
+		assertSame(largeBatch.get(3), queue.poll());
+		assertNull(queue.poll());
+		assertEquals(0, queue.size());
+	}
+
+	/**
+	 * This method tests that a batch instance running the maximum number of tasks is skipped until one of its tasks completes.
+	 */
+	@Test
+	public void testMaxRunningTasksPerBatchInstance() {
+		BatchFairBlockingQueue queue = new BatchFairBlockingQueue(100, 1);
+		List<AbstractRunnable> firstBatch = createTasks("BI1", 2);
+		List<AbstractRunnable> secondBatch = createTasks("BI2", 2);
+		addAll(queue, firstBatch);
+		addAll(queue, secondBatch);
+
+		assertSame(firstBatch.get(0), queue.poll());
+		assertSame(secondBatch.get(0), queue.poll());
+		assertNull(queue.poll());
+		assertEquals(1, queue.getRunningTaskCount("BI1"));
+
+		queue.taskCompleted(secondBatch.get(0));
+		assertSame(secondBatch.get(1), queue.poll());
+		assertNull(queue.poll());
+
+		queue.taskCompleted(firstBatch.get(0));
+		assertSame(firstBatch.get(1), queue.poll());
+		assertEquals(0, queue.size());
+	}
+
+	/**
+	 * This method tests the capacity bound of the queue.
+	 */
+	@Test
+	public void testCapacity() {
+		BatchFairBlockingQueue queue = new BatchFairBlockingQueue(2, 1);
+		List<AbstractRunnable> tasks = createTasks("BI1", 3);
+		assertTrue(queue.offer(tasks.get(0)));
+		assertTrue(queue.offer(tasks.get(1)));
+		assertFalse(queue.offer(tasks.get(2)));
+		assertEquals(0, queue.remainingCapacity());
+
+		assertSame(tasks.get(0), queue.poll());
+		assertTrue(queue.offer(tasks.get(2)));
+	}
+
+	private void addAll(BatchFairBlockingQueue queue, List<AbstractRunnable> tasks) {
+		for (AbstractRunnable runnable : tasks) {
+			assertTrue(queue.offer(runnable));
+		}
+	}
+
+	private List<AbstractRunnable> createTasks(String batchInstanceId, int count) {
+		List<AbstractRunnable> tasks = new ArrayList<AbstractRunnable>();
+		for (int index = 0; index < count; index++) {
+			AbstractRunnable runnable = new AbstractRunnable() {
+
+				@Override
+				public void run() {
+					setCompleted(true);
+				}
+			};
+			runnable.setBatchInstanceIdentifier(batchInstanceId);
+			tasks.add(runnable);
+		}
+		return tasks;
+	}
+
+}
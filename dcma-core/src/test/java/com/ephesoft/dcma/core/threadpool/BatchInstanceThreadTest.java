@@ -0,0 +1,159 @@
+/********************************************************************************* 
+* Ephesoft is a Intelligent Document Capture and Mailroom Automation program 
+* developed by Ephesoft, Inc. Copyright (C) 2010-2012 Ephesoft Inc. 
+* 
+* This program is free software; you can redistribute it and/or modify it under 
+* the terms of the GNU Affero General Public License version 3 as published by the 
+* Free Software Foundation with the addition of the following permission added 
+* to Section 15 as permitted in Section 7(a): FOR ANY PART OF THE COVERED WORK 
+* IN WHICH THE COPYRIGHT IS OWNED BY EPHESOFT, EPHESOFT DISCLAIMS THE WARRANTY 
+* OF NON INFRINGEMENT OF THIRD PARTY RIGHTS. 
+* 
+* This program is distributed in the hope that it will be useful, but WITHOUT 
+* ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+* FOR A PARTICULAR PURPOSE.  See the GNU Affero General Public License for more 
+* details. 
+* 
+* You should have received a copy of the GNU Affero General Public License along with 
+* this program; if not, see http://www.gnu.org/licenses or write to the Free 
+* Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 
+* 02110-1301 USA. 
+* 
+* You can contact Ephesoft, Inc. headquarters at 111 Academy Way, 
+* Irvine, CA 92617, USA. or at email address info@ephesoft.com. 
+* 
+* The interactive user interfaces in modified source and object code versions 
+* of this program must display Appropriate Legal Notices, as required under 
+* Section 5 of the GNU Affero General Public License version 3. 
+* 
+* In accordance with Section 7(b) of the GNU Affero General Public License version 3, 
+* these Appropriate Legal Notices must retain the display of the "Ephesoft" logo. 
+* If the display of the logo is not reasonably feasible for 
+* technical reasons, the Appropriate Legal Notices must display the words 
+* "Powered by Ephesoft". 
+********************************************************************************/ 
+
+package com.ephesoft.dcma.core.threadpool;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.ephesoft.dcma.core.exception.DCMAApplicationException;
+
+/**
+ * This is Junit test for the completion wake up of BatchInstanceThread. The fallback poll interval is set far above the test timeout, so
+ * the tests only pass when the waiting thread is woken by the completion of its tasks.
+ * 
+ * @author Ephesoft
+ * @version 1.0
+ * @see com.ephesoft.dcma.core.threadpool.BatchInstanceThread
+ */
+public class BatchInstanceThreadTest {
+
+	/**
+	 * Fallback poll interval, longer than any of the test timeouts.
+	 */
+	private static final long FALLBACK_POLL_MILLIS = 600000L;
+
+	/**
+	 * This method tests that the waiting thread returns as soon as the last task completes.
+	 * 
+	 * @throws InterruptedException if the test thread is interrupted
+	 */
+	@Test(timeout = 30000)
+	public void testWakeUpOnCompletion() throws InterruptedException {
+		final List<AbstractRunnable> taskList = createTasks(3);
+		final CountDownLatch waiting = new CountDownLatch(1);
+		final CountDownLatch returned = new CountDownLatch(1);
+		Thread waiter = new Thread() {
+
+			@Override
+			public void run() {
+				waiting.countDown();
+				new BatchInstanceThread(FALLBACK_POLL_MILLIS).waitForCompletion(taskList);
+				returned.countDown();
+			}
+		};
+		waiter.start();
+		assertTrue(waiting.await(10, TimeUnit.SECONDS));
+
+		taskList.get(0).setCompleted(true);
+		taskList.get(1).setCompleted(true);
+		assertEquals("Waiter returned before the last task completed.", 1L, returned.getCount());
+
+		taskList.get(2).setCompleted(true);
+		assertTrue("Waiter was not woken by the completion of the last task.", returned.await(10, TimeUnit.SECONDS));
+		waiter.join();
+	}
+
+	/**
+	 * This method tests that tasks completed before the wait starts do not block the waiting thread.
+	 */
+	@Test(timeout = 30000)
+	public void testTasksCompletedBeforeWait() {
+		List<AbstractRunnable> taskList = createTasks(2);
+		for (AbstractRunnable runnable : taskList) {
+			runnable.setCompleted(true);
+		}
+		new BatchInstanceThread(FALLBACK_POLL_MILLIS).waitForCompletion(taskList);
+	}
+
+	/**
+	 * This method tests that the waiting thread is released by the first failed task and receives its exception.
+	 * 
+	 * @throws InterruptedException if the test thread is interrupted
+	 */
+	@Test(timeout = 30000)
+	public void testWakeUpOnFirstFailure() throws InterruptedException {
+		final List<AbstractRunnable> taskList = createTasks(2);
+		final DCMAApplicationException failure = new DCMAApplicationException("task failed");
+		final List<DCMAApplicationException> thrown = new ArrayList<DCMAApplicationException>();
+		Thread waiter = new Thread() {
+
+			@Override
+			public void run() {
+				try {
+					new BatchInstanceThread(FALLBACK_POLL_MILLIS).wait(taskList);
+				} catch (DCMAApplicationException e) {
+					thrown.add(e);
+				}
+			}
+		};
+		waiter.start();
+		AbstractRunnable failedTask = taskList.get(0);
+		failedTask.setDcmaApplicationException(failure);
+		failedTask.setCompleted(true);
+		// the second task never completes
+		waiter.join();
+		if (thrown.isEmpty()) {
+			fail("The failure of the first task was not reported.");
+		}
+		assertSame(failure, thrown.get(0));
+	}
+
+	private List<AbstractRunnable> createTasks(int count) {
+		List<AbstractRunnable> taskList = new ArrayList<AbstractRunnable>();
+		for (int index = 0; index < count; index++) {
+			AbstractRunnable runnable = new AbstractRunnable() {
+
+				@Override
+				public void run() {
+					setCompleted(true);
+				}
+			};
+			runnable.setStarted(true);
+			taskList.add(runnable);
+		}
+		return taskList;
+	}
+
+}
@@ -35,6 +35,7 @@
 
 package com.ephesoft.dcma.da.dao;
 
+import java.util.Date;
 import java.util.List;
 import java.util.Set;
 
@@ -500,4 +501,74 @@ public interface BatchInstanceDao extends Dao<BatchInstance> {
 	 */
 	List<BatchInstance> getBatchInstanceByStatusListBatchClass(List<BatchInstanceStatus> batchStatusList);
 
+	/**
+	 * API to claim the given batch instances for an executing server with a single update statement. Only the batch instances which
+	 * are still in NEW state are moved to LOCKED, so concurrent claims from other servers never overlap.
+	 * 
+	 * @param batchInstanceIds List<Long>
+	 * @param executingServer {@link String}
+	 * @return int, count of batch instances claimed
+	 */
+	int lockNewBatchInstances(List<Long> batchInstanceIds, String executingServer);
+
+	/**
+	 * API to claim the given READY batch instance for an executing server with a single update statement. The batch instance is moved
+	 * to RUNNING only if it is still in READY state, so a batch instance is resumed by one server only.
+	 * 
+	 * @param batchInstanceId long
+	 * @param executingServer {@link String}
+	 * @return boolean, true if the batch instance was claimed
+	 */
+	boolean resumeReadyBatchInstance(long batchInstanceId, String executingServer);
+
+	/**
+	 * API to fetch the batch instances out of the given ids which are in the given state on an executing server.
+	 * 
+	 * @param batchInstanceIds List<Long>
+	 * @param executingServer {@link String}
+	 * @param batchInstanceStatus {@link BatchInstanceStatus}
+	 * @return List<{@link BatchInstance}>
+	 */
+	List<BatchInstance> getBatchInstancesByIdsAndExecutingServer(List<Long> batchInstanceIds, String executingServer,
+			BatchInstanceStatus batchInstanceStatus);
+
+	/**
+	 * API to count the batch instances in any of the given states on an executing server.
+	 * 
+	 * @param executingServer {@link String}
+	 * @param statusList List<{@link BatchInstanceStatus}>
+	 * @return int, count of batch instances
+	 */
+	int getExecutingJobCountByServerIP(String executingServer, List<BatchInstanceStatus> statusList);
+
+	/**
+	 * API to fetch the identifiers of the batch instances in the given states which can be claimed by the user roles, in the order
+	 * used to pick the highest priority batch instance. A batch instance can be claimed if no user holds it or if the claim of its
+	 * current user expired before the given time.
+	 * 
+	 * @param statusList List<{@link BatchInstanceStatus}>
+	 * @param maxResults int
+	 * @param userRoles Set<{@link String}>
+	 * @param ephesoftUser {@link EphesoftUser}
+	 * @param currentTime {@link Date}
+	 * @return List<{@link String}>
+	 */
+	List<String> getClaimableBatchInstanceIdentifiers(List<BatchInstanceStatus> statusList, int maxResults, Set<String> userRoles,
+			EphesoftUser ephesoftUser, Date currentTime);
+
+	/**
+	 * API to claim a batch instance for a user with a single conditional update. The batch instance is claimed only if it is still in
+	 * one of the given states and is either free, already held by the same user or held by a claim which expired before the given
+	 * time, so two users can never claim the same batch instance.
+	 * 
+	 * @param batchInstanceIdentifier {@link String}
+	 * @param currentUser {@link String}
+	 * @param statusList List<{@link BatchInstanceStatus}>
+	 * @param currentTime {@link Date}
+	 * @param claimExpiry {@link Date}
+	 * @return boolean, true if the batch instance is claimed by the user.
+	 */
+	boolean claimBatchInstance(String batchInstanceIdentifier, String currentUser, List<BatchInstanceStatus> statusList,
+			Date currentTime, Date claimExpiry);
+
 }
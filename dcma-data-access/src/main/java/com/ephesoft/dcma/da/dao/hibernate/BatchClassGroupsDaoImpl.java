@@ -35,6 +35,7 @@
 
 package com.ephesoft.dcma.da.dao.hibernate;
 
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -43,6 +44,7 @@ import java.util.Set;
 import org.hibernate.criterion.DetachedCriteria;
 import org.hibernate.criterion.Disjunction;
 import org.hibernate.criterion.Order;
+import org.hibernate.criterion.Projections;
 import org.hibernate.criterion.Restrictions;
 import org.springframework.stereotype.Repository;
 
@@ -75,6 +77,27 @@ public class BatchClassGroupsDaoImpl extends HibernateDao<BatchClassGroups> impl
 	 */
 	private static final String BATCH_CLASS_IDENTIFIER = "batchClass.identifier";
 
+	/**
+	 * ID String.
+	 */
+	private static final String ID = "id";
+
+	/**
+	 * Minimum time in milliseconds between two checks of the batch class groups table for changes.
+	 */
+	private static final long ENTITLEMENT_VALIDATION_INTERVAL = 5000L;
+
+	/**
+	 * Maximum age in milliseconds of a cached entitlement.
+	 */
+	private static final long ENTITLEMENT_MAX_AGE = 60000L;
+
+	/**
+	 * Batch class identifiers cached per set of user roles.
+	 */
+	private final UserRoleEntitlementCache entitlementCache = new UserRoleEntitlementCache(ENTITLEMENT_VALIDATION_INTERVAL,
+			ENTITLEMENT_MAX_AGE);
+
 	/**
 	 * API for getting the batch class identifiers having the user roles.
 	 * @param userRoles Set<String>
@@ -94,30 +117,49 @@ public class BatchClassGroupsDaoImpl extends HibernateDao<BatchClassGroups> impl
 	 */
 	@Override
 	public Set<String> getBatchClassIdentifierForUserRoles(Set<String> userRoles, boolean includeDeleted) {
-		boolean isValid = true;
-		if (userRoles == null || userRoles.size() == 0) {
-			isValid = false;
-		}
 		Set<String> batchClassIdentifiers = null;
+		if (userRoles != null && userRoles.size() > 0) {
+			validateEntitlementCache();
+			String key = UserRoleEntitlementCache.getKey(userRoles, String.valueOf(includeDeleted));
+			Set<String> cachedIdentifiers = entitlementCache.get(key);
+			if (cachedIdentifiers == null) {
+				long generation = entitlementCache.getGeneration();
+				batchClassIdentifiers = loadBatchClassIdentifierForUserRoles(userRoles, includeDeleted);
+				entitlementCache.put(key, new LinkedHashSet<String>(batchClassIdentifiers), generation);
+			} else {
+				batchClassIdentifiers = new LinkedHashSet<String>(cachedIdentifiers);
+			}
+		}
+		return batchClassIdentifiers;
+	}
 
-		// New version of fetching.
-		if (isValid) {
-			batchClassIdentifiers = new LinkedHashSet<String>();
+	private void validateEntitlementCache() {
+		if (entitlementCache.isValidationDue()) {
 			DetachedCriteria criteria = criteria();
-			Disjunction disjunction = Restrictions.disjunction();
-			for (String userRole : userRoles) {
-				disjunction.add(Restrictions.eq(GROUP_NAME, userRole));
+			criteria.setProjection(Projections.projectionList().add(Projections.rowCount()).add(Projections.max(ID)));
+			List<Object[]> fingerprint = find(criteria);
+			if (fingerprint != null && !fingerprint.isEmpty()) {
+				entitlementCache.validate(Arrays.asList(fingerprint.get(0)));
 			}
-			criteria.add(disjunction);
-			criteria.addOrder(Order.asc(BATCH_CLASS));
-			List<BatchClassGroups> batchClassGroups = find(criteria);
-			for (BatchClassGroups batchClassGroup : batchClassGroups) {
-				if(includeDeleted) {
-					batchClassIdentifiers.add(batchClassGroup.getBatchClass().getIdentifier());	
-				} else {
-					if(!batchClassGroup.getBatchClass().isDeleted()) {
-						batchClassIdentifiers.add(batchClassGroup.getBatchClass().getIdentifier());
-					}
+		}
+	}
+
+	private Set<String> loadBatchClassIdentifierForUserRoles(Set<String> userRoles, boolean includeDeleted) {
+		Set<String> batchClassIdentifiers = new LinkedHashSet<String>();
+		DetachedCriteria criteria = criteria();
+		Disjunction disjunction = Restrictions.disjunction();
+		for (String userRole : userRoles) {
+			disjunction.add(Restrictions.eq(GROUP_NAME, userRole));
+		}
+		criteria.add(disjunction);
+		criteria.addOrder(Order.asc(BATCH_CLASS));
+		List<BatchClassGroups> batchClassGroups = find(criteria);
+		for (BatchClassGroups batchClassGroup : batchClassGroups) {
+			if(includeDeleted) {
+				batchClassIdentifiers.add(batchClassGroup.getBatchClass().getIdentifier());	
+			} else {
+				if(!batchClassGroup.getBatchClass().isDeleted()) {
+					batchClassIdentifiers.add(batchClassGroup.getBatchClass().getIdentifier());
 				}
 			}
 		}
@@ -36,19 +36,22 @@
 package com.ephesoft.dcma.da.dao.hibernate;
 
 import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
 import java.util.Set;
 
 import org.hibernate.LockMode;
-import org.hibernate.criterion.Conjunction;
+import org.hibernate.Query;
+import org.hibernate.Session;
 import org.hibernate.criterion.Criterion;
 import org.hibernate.criterion.DetachedCriteria;
 import org.hibernate.criterion.Disjunction;
 import org.hibernate.criterion.LogicalExpression;
 import org.hibernate.criterion.Projections;
 import org.hibernate.criterion.Restrictions;
+import org.hibernate.criterion.Subqueries;
 import org.hibernate.sql.JoinFragment;
-import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.orm.hibernate3.HibernateCallback;
 import org.springframework.stereotype.Repository;
 
 import com.ephesoft.dcma.core.common.BatchInstanceStatus;
@@ -57,12 +60,11 @@ import com.ephesoft.dcma.core.common.Order;
 import com.ephesoft.dcma.core.dao.hibernate.HibernateDao;
 import com.ephesoft.dcma.core.hibernate.EphesoftCriteria;
 import com.ephesoft.dcma.da.constant.DataAccessConstant;
-import com.ephesoft.dcma.da.dao.BatchClassGroupsDao;
 import com.ephesoft.dcma.da.dao.BatchInstanceDao;
-import com.ephesoft.dcma.da.dao.BatchInstanceGroupsDao;
 import com.ephesoft.dcma.da.domain.BatchClass;
 import com.ephesoft.dcma.da.domain.BatchClassGroups;
 import com.ephesoft.dcma.da.domain.BatchInstance;
+import com.ephesoft.dcma.da.domain.BatchInstanceGroups;
 import com.ephesoft.dcma.da.domain.ServerRegistry;
 import com.ephesoft.dcma.da.property.BatchInstanceFilter;
 import com.ephesoft.dcma.da.property.BatchInstanceProperty;
@@ -143,6 +145,72 @@ public class BatchInstanceDaoImpl extends HibernateDao<BatchInstance> implements
 	 */
 	private static final String EXECUTING_SERVER = "executingServer";
 
+	/**
+	 * ID String.
+	 */
+	private static final String ID = "id";
+
+	/**
+	 * LOCKED_STATUS_PARAM String.
+	 */
+	private static final String LOCKED_STATUS_PARAM = "lockedStatus";
+
+	/**
+	 * NEW_STATUS_PARAM String.
+	 */
+	private static final String NEW_STATUS_PARAM = "newStatus";
+
+	/**
+	 * BATCH_INSTANCE_IDS_PARAM String.
+	 */
+	private static final String BATCH_INSTANCE_IDS_PARAM = "batchInstanceIds";
+
+	/**
+	 * LOCK_NEW_BATCH_INSTANCES_QUERY String.
+	 */
+	private static final String LOCK_NEW_BATCH_INSTANCES_QUERY = "update BatchInstance set status = :lockedStatus, "
+			+ "executingServer = :executingServer, lastModified = :lastModified "
+			+ "where id in (:batchInstanceIds) and status = :newStatus";
+
+	/**
+	 * READY_STATUS_PARAM String.
+	 */
+	private static final String READY_STATUS_PARAM = "readyStatus";
+
+	/**
+	 * RUNNING_STATUS_PARAM String.
+	 */
+	private static final String RUNNING_STATUS_PARAM = "runningStatus";
+
+	/**
+	 * RESUME_READY_BATCH_INSTANCE_QUERY String.
+	 */
+	private static final String RESUME_READY_BATCH_INSTANCE_QUERY = "update BatchInstance set status = :runningStatus, "
+			+ "executingServer = :executingServer, currentUser = null, lastModified = :lastModified "
+			+ "where id = :id and status = :readyStatus";
+
+	/**
+	 * CLAIM_EXPIRY String.
+	 */
+	private static final String CLAIM_EXPIRY = "claimExpiry";
+
+	/**
+	 * CURRENT_TIME_PARAM String.
+	 */
+	private static final String CURRENT_TIME_PARAM = "currentTime";
+
+	/**
+	 * STATUS_LIST_PARAM String.
+	 */
+	private static final String STATUS_LIST_PARAM = "statusList";
+
+	/**
+	 * CLAIM_BATCH_INSTANCE_QUERY String.
+	 */
+	private static final String CLAIM_BATCH_INSTANCE_QUERY = "update BatchInstance set currentUser = :currentUser, "
+			+ "claimExpiry = :claimExpiry where identifier = :identifier and status in (:statusList) and remote = :remote "
+			+ "and (currentUser is null or currentUser = :currentUser or claimExpiry < :currentTime)";
+
 	/**
 	 * BATCH_INSTANCE_IDENTIFIER String.
 	 */
@@ -159,16 +227,19 @@ public class BatchInstanceDaoImpl extends HibernateDao<BatchInstance> implements
 	private static final String LAST_MODIFIED = "lastModified";
 
 	/**
-	 * Instance of {@link BatchInstanceGroupsDao}.
+	 * GROUP_NAME String.
+	 */
+	private static final String GROUP_NAME = "groupName";
+
+	/**
+	 * BATCH_CLASS_ID String.
 	 */
-	@Autowired
-	private BatchInstanceGroupsDao batchInstanceGroupsDao;
+	private static final String BATCH_CLASS_ID = "batchClass.id";
 
 	/**
-	 * Instance of {@link BatchClassGroups}.
+	 * BATCH_INSTANCE_GROUP_IDENTIFIER String.
 	 */
-	@Autowired
-	private BatchClassGroupsDao batchClassGroupsDao;
+	private static final String BATCH_INSTANCE_GROUP_IDENTIFIER = "batchInstanceIdentifier";
 
 	/**
 	 * An API to fetch all batch instance by batch class.
@@ -196,8 +267,6 @@ public class BatchInstanceDaoImpl extends HibernateDao<BatchInstance> implements
 
 		List<BatchInstance> batchInstances = new ArrayList<BatchInstance>();
 
-		Set<String> batchClassIdentifiers = batchClassGroupsDao.getBatchClassIdentifierForUserRoles(userRoles);
-
 		String searchStringLocal = searchString.replaceAll(DataAccessConstant.PERCENTAGE, REPLACEMENT_STRING);
 		Criterion nameLikeCriteria = Restrictions.like(BATCH_NAME, DataAccessConstant.PERCENTAGE + searchStringLocal
 				+ DataAccessConstant.PERCENTAGE);
@@ -206,9 +275,7 @@ public class BatchInstanceDaoImpl extends HibernateDao<BatchInstance> implements
 
 		LogicalExpression searchCriteria = Restrictions.or(nameLikeCriteria, idLikeCriteria);
 		criteria.add(searchCriteria);
-		if (batchClassIdentifiers != null && batchClassIdentifiers.size() > 0) {
-			criteria.createAlias(BATCH_CLASS, BATCH_CLASS);
-			criteria.add(Restrictions.in(BATCH_CLASS_IDENTIFIER, batchClassIdentifiers));
+		if (addBatchClassRoleCriteria(criteria, userRoles)) {
 			batchInstances = find(criteria);
 		}
 		return batchInstances;
@@ -303,36 +370,12 @@ public class BatchInstanceDaoImpl extends HibernateDao<BatchInstance> implements
 			disjunction.add(Restrictions.between(PRIORITY, lowValue, upperValue));
 			criteria.add(disjunction);
 		}
-		Set<String> batchClassIdentifiers = batchClassGroupsDao.getBatchClassIdentifierForUserRoles(userRoles);
-
 		if (EphesoftUser.NORMAL_USER.equals(ephesoftUser)) {
-			Set<String> batchInstanceIdentifiers = batchInstanceGroupsDao.getBatchInstanceIdentifierForUserRoles(userRoles);
-
-			if ((null != batchClassIdentifiers && batchClassIdentifiers.size() > 0)
-					|| (null != batchInstanceIdentifiers && batchInstanceIdentifiers.size() > 0)) {
-				criteria.add(Restrictions.eq(STATUS, batchInstanceStatus));
-				criteria.add(Restrictions.eq(IS_REMOTE, false));
-				criteria.add(Restrictions.or(Restrictions.isNull(CURRENT_USER), Restrictions.eq(CURRENT_USER, userName)));
-				final Disjunction disjunction = Restrictions.disjunction();
-				if (null != batchClassIdentifiers && batchClassIdentifiers.size() > 0) {
-					criteria.createAlias(BATCH_CLASS, BATCH_CLASS);
-					disjunction.add(Restrictions.in(BATCH_CLASS_IDENTIFIER, batchClassIdentifiers));
-				}
-				if (null != batchInstanceIdentifiers && batchInstanceIdentifiers.size() > 0) {
-					disjunction.add(Restrictions.in(BATCH_INSTANCE_IDENTIFIER, batchInstanceIdentifiers));
-				}
-				criteria.add(disjunction);
+			criteria.add(Restrictions.eq(STATUS, batchInstanceStatus));
+			criteria.add(Restrictions.eq(IS_REMOTE, false));
+			criteria.add(Restrictions.or(Restrictions.isNull(CURRENT_USER), Restrictions.eq(CURRENT_USER, userName)));
+			if (addUserRoleCriteria(criteria, userRoles, false)) {
 				count = count(criteria);
-
-			} else {
-				if (null != batchClassIdentifiers && batchClassIdentifiers.size() > 0) {
-					criteria.add(Restrictions.eq(STATUS, batchInstanceStatus));
-					criteria.add(Restrictions.eq(IS_REMOTE, false));
-					criteria.add(Restrictions.or(Restrictions.isNull(CURRENT_USER), Restrictions.eq(CURRENT_USER, userName)));
-					criteria.createAlias(BATCH_CLASS, BATCH_CLASS);
-					criteria.add(Restrictions.in(BATCH_CLASS_IDENTIFIER, batchClassIdentifiers));
-					count = count(criteria);
-				}
 			}
 		}
 		return count;
@@ -428,83 +471,26 @@ public class BatchInstanceDaoImpl extends HibernateDao<BatchInstance> implements
 		}
 		List<BatchInstance> batchInstanceList = new ArrayList<BatchInstance>();
 
-		Set<String> batchClassIdentifiers = batchClassGroupsDao.getBatchClassIdentifierForUserRoles(userRoles);
-
+		boolean isValidUserRoles = false;
 		switch (ephesoftUser) {
 			case NORMAL_USER:
-				batchClassIdentifiers = batchClassGroupsDao.getBatchClassIdentifierForUserRoles(userRoles);
-				Set<String> batchInstanceIdentifierSet = batchInstanceGroupsDao.getBatchInstanceIdentifiersExceptUserRoles(userRoles);
-				Set<String> batchInstanceIdentifiers = batchInstanceGroupsDao.getBatchInstanceIdentifierForUserRoles(userRoles);
-
-				if ((null != batchClassIdentifiers && batchClassIdentifiers.size() > 0)
-						|| (null != batchInstanceIdentifiers && batchInstanceIdentifiers.size() > 0)) {
-					BatchInstanceFilter[] filters = null;
-					if (filterClauseList != null) {
-						filters = filterClauseList.toArray(new BatchInstanceFilter[filterClauseList.size()]);
-					}
-					Order[] orders = null;
-					if (orderList != null) {
-						orders = orderList.toArray(new Order[orderList.size()]);
-					}
-
-					if (null != batchClassIdentifiers && batchClassIdentifiers.size() > 0 && null != batchInstanceIdentifiers
-							&& batchInstanceIdentifiers.size() > 0 && null != batchInstanceIdentifierSet
-							&& batchInstanceIdentifierSet.size() > 0) {
-						final Conjunction conjunction = Restrictions.conjunction();
-						final Disjunction disjunction = Restrictions.disjunction();
-						criteria.createAlias(BATCH_CLASS, BATCH_CLASS);
-						disjunction.add(Restrictions.in(BATCH_CLASS_IDENTIFIER, batchClassIdentifiers));
-						disjunction.add(Restrictions.in(BATCH_INSTANCE_IDENTIFIER, batchInstanceIdentifiers));
-						conjunction.add(Restrictions.not(Restrictions.in(BATCH_INSTANCE_IDENTIFIER, batchInstanceIdentifierSet)));
-						conjunction.add(disjunction);
-						criteria.add(conjunction);
-					} else if (null != batchClassIdentifiers && batchClassIdentifiers.size() > 0 && null != batchInstanceIdentifiers
-							&& batchInstanceIdentifiers.size() > 0) {
-						final Disjunction disjunction = Restrictions.disjunction();
-						criteria.createAlias(BATCH_CLASS, BATCH_CLASS);
-						disjunction.add(Restrictions.in(BATCH_CLASS_IDENTIFIER, batchClassIdentifiers));
-						disjunction.add(Restrictions.in(BATCH_INSTANCE_IDENTIFIER, batchInstanceIdentifiers));
-						criteria.add(disjunction);
-					} else if (null != batchClassIdentifiers && batchClassIdentifiers.size() > 0 && null != batchInstanceIdentifierSet
-							&& batchInstanceIdentifierSet.size() > 0) {
-						final Conjunction conjunction = Restrictions.conjunction();
-						criteria.createAlias(BATCH_CLASS, BATCH_CLASS);
-						conjunction.add(Restrictions.in(BATCH_CLASS_IDENTIFIER, batchClassIdentifiers));
-						conjunction.add(Restrictions.not(Restrictions.in(BATCH_INSTANCE_IDENTIFIER, batchInstanceIdentifierSet)));
-						criteria.add(conjunction);
-					} else if (null != batchInstanceIdentifiers && batchInstanceIdentifiers.size() > 0
-							&& null != batchInstanceIdentifierSet && batchInstanceIdentifierSet.size() > 0) {
-						final Conjunction conjunction = Restrictions.conjunction();
-						conjunction.add(Restrictions.in(BATCH_INSTANCE_IDENTIFIER, batchInstanceIdentifiers));
-						conjunction.add(Restrictions.not(Restrictions.in(BATCH_INSTANCE_IDENTIFIER, batchInstanceIdentifierSet)));
-						criteria.add(conjunction);
-					} else if (null != batchInstanceIdentifiers && batchInstanceIdentifiers.size() > 0) {
-						criteria.add(Restrictions.in(BATCH_INSTANCE_IDENTIFIER, batchInstanceIdentifiers));
-					} else if (null != batchClassIdentifiers && batchClassIdentifiers.size() > 0) {
-						criteria.createAlias(BATCH_CLASS, BATCH_CLASS);
-						criteria.add(Restrictions.in(BATCH_CLASS_IDENTIFIER, batchClassIdentifiers));
-					}
-
-					batchInstanceList = find(criteria, firstResult, maxResults, filters, orders);
-				}
+				isValidUserRoles = addUserRoleCriteria(criteria, userRoles, true);
 				break;
 			default:
-				if (null != batchClassIdentifiers && batchClassIdentifiers.size() > 0) {
-					BatchInstanceFilter[] filters = null;
-					if (filterClauseList != null) {
-						filters = filterClauseList.toArray(new BatchInstanceFilter[filterClauseList.size()]);
-					}
-					Order[] orders = null;
-					if (orderList != null) {
-						orders = orderList.toArray(new Order[orderList.size()]);
-					}
-
-					criteria.createAlias(BATCH_CLASS, BATCH_CLASS);
-					criteria.add(Restrictions.in(BATCH_CLASS_IDENTIFIER, batchClassIdentifiers));
-					batchInstanceList = find(criteria, firstResult, maxResults, filters, orders);
-				}
+				isValidUserRoles = addBatchClassRoleCriteria(criteria, userRoles);
 				break;
 		}
+		if (isValidUserRoles) {
+			BatchInstanceFilter[] filters = null;
+			if (filterClauseList != null) {
+				filters = filterClauseList.toArray(new BatchInstanceFilter[filterClauseList.size()]);
+			}
+			Order[] orders = null;
+			if (orderList != null) {
+				orders = orderList.toArray(new Order[orderList.size()]);
+			}
+			batchInstanceList = find(criteria, firstResult, maxResults, filters, orders);
+		}
 		return batchInstanceList;
 	}
 
@@ -525,77 +511,28 @@ public class BatchInstanceDaoImpl extends HibernateDao<BatchInstance> implements
 
 		List<BatchInstance> batchInstances = new ArrayList<BatchInstance>();
 
-		Set<String> batchClassIdentifiers = batchClassGroupsDao.getBatchClassIdentifierForUserRoles(userRoles);
-
 		EphesoftCriteria criteria = criteria();
 		criteria.add(Restrictions.in(STATUS, statusList));
 		criteria.add(Restrictions.isNull(CURRENT_USER));
 		criteria.add(Restrictions.eq(IS_REMOTE, false));
 
+		boolean isValidUserRoles = false;
 		switch (ephesoftUser) {
 			case NORMAL_USER:
-				Set<String> batchInstanceIdentifiers = batchInstanceGroupsDao.getBatchInstanceIdentifierForUserRoles(userRoles);
-				Set<String> batchInstanceIdentifierSet = batchInstanceGroupsDao.getBatchInstanceIdentifiersExceptUserRoles(userRoles);
-				if ((null != batchClassIdentifiers && batchClassIdentifiers.size() > 0)
-						|| (null != batchInstanceIdentifiers && batchInstanceIdentifiers.size() > 0)) {
-					if (null != batchClassIdentifiers && batchClassIdentifiers.size() > 0 && null != batchInstanceIdentifiers
-							&& batchInstanceIdentifiers.size() > 0 && null != batchInstanceIdentifierSet
-							&& batchInstanceIdentifierSet.size() > 0) {
-						final Conjunction conjunction = Restrictions.conjunction();
-						final Disjunction disjunction = Restrictions.disjunction();
-						criteria.createAlias(BATCH_CLASS, BATCH_CLASS);
-						disjunction.add(Restrictions.in(BATCH_CLASS_IDENTIFIER, batchClassIdentifiers));
-						disjunction.add(Restrictions.in(BATCH_INSTANCE_IDENTIFIER, batchInstanceIdentifiers));
-						conjunction.add(Restrictions.not(Restrictions.in(BATCH_INSTANCE_IDENTIFIER, batchInstanceIdentifierSet)));
-						conjunction.add(disjunction);
-						criteria.add(conjunction);
-					} else if (null != batchClassIdentifiers && batchClassIdentifiers.size() > 0 && null != batchInstanceIdentifiers
-							&& batchInstanceIdentifiers.size() > 0) {
-						final Disjunction disjunction = Restrictions.disjunction();
-						criteria.createAlias(BATCH_CLASS, BATCH_CLASS);
-						disjunction.add(Restrictions.in(BATCH_CLASS_IDENTIFIER, batchClassIdentifiers));
-						disjunction.add(Restrictions.in(BATCH_INSTANCE_IDENTIFIER, batchInstanceIdentifiers));
-						criteria.add(disjunction);
-					} else if (null != batchClassIdentifiers && batchClassIdentifiers.size() > 0 && null != batchInstanceIdentifierSet
-							&& batchInstanceIdentifierSet.size() > 0) {
-						final Conjunction conjunction = Restrictions.conjunction();
-						criteria.createAlias(BATCH_CLASS, BATCH_CLASS);
-						conjunction.add(Restrictions.in(BATCH_CLASS_IDENTIFIER, batchClassIdentifiers));
-						conjunction.add(Restrictions.not(Restrictions.in(BATCH_INSTANCE_IDENTIFIER, batchInstanceIdentifierSet)));
-						criteria.add(conjunction);
-					} else if (null != batchInstanceIdentifiers && batchInstanceIdentifiers.size() > 0
-							&& null != batchInstanceIdentifierSet && batchInstanceIdentifierSet.size() > 0) {
-						final Conjunction conjunction = Restrictions.conjunction();
-						conjunction.add(Restrictions.in(BATCH_INSTANCE_IDENTIFIER, batchInstanceIdentifiers));
-						conjunction.add(Restrictions.not(Restrictions.in(BATCH_INSTANCE_IDENTIFIER, batchInstanceIdentifierSet)));
-						criteria.add(conjunction);
-					} else if (null != batchInstanceIdentifiers && batchInstanceIdentifiers.size() > 0) {
-						criteria.add(Restrictions.in(BATCH_INSTANCE_IDENTIFIER, batchInstanceIdentifiers));
-					} else if (null != batchClassIdentifiers && batchClassIdentifiers.size() > 0) {
-						criteria.createAlias(BATCH_CLASS, BATCH_CLASS);
-						criteria.add(Restrictions.in(BATCH_CLASS_IDENTIFIER, batchClassIdentifiers));
-					}
-					List<Order> orderList = new ArrayList<Order>();
-					Order orderForHighestBatchPriority = new Order(BatchInstanceProperty.PRIORITY, true);
-					Order orderForLastModified = new Order(BatchInstanceProperty.LASTMODIFIED, false);
-					orderList.add(orderForLastModified);
-					orderList.add(orderForHighestBatchPriority);
-					batchInstances = find(criteria, firstResult, maxResults, orderList.toArray(new Order[orderList.size()]));
-				}
+				isValidUserRoles = addUserRoleCriteria(criteria, userRoles, true);
 				break;
 			default:
-				if (null != batchClassIdentifiers && batchClassIdentifiers.size() > 0) {
-					criteria.createAlias(BATCH_CLASS, BATCH_CLASS);
-					criteria.add(Restrictions.in(BATCH_CLASS_IDENTIFIER, batchClassIdentifiers));
-					List<Order> orderList = new ArrayList<Order>();
-					Order orderForHighestBatchPriority = new Order(BatchInstanceProperty.PRIORITY, true);
-					Order orderForLastModified = new Order(BatchInstanceProperty.LASTMODIFIED, false);
-					orderList.add(orderForLastModified);
-					orderList.add(orderForHighestBatchPriority);
-					batchInstances = find(criteria, firstResult, maxResults, orderList.toArray(new Order[orderList.size()]));
-				}
+				isValidUserRoles = addBatchClassRoleCriteria(criteria, userRoles);
 				break;
 		}
+		if (isValidUserRoles) {
+			List<Order> orderList = new ArrayList<Order>();
+			Order orderForHighestBatchPriority = new Order(BatchInstanceProperty.PRIORITY, true);
+			Order orderForLastModified = new Order(BatchInstanceProperty.LASTMODIFIED, false);
+			orderList.add(orderForLastModified);
+			orderList.add(orderForHighestBatchPriority);
+			batchInstances = find(criteria, firstResult, maxResults, orderList.toArray(new Order[orderList.size()]));
+		}
 		return batchInstances;
 	
 	}
@@ -615,75 +552,23 @@ public class BatchInstanceDaoImpl extends HibernateDao<BatchInstance> implements
 
 
 		BatchInstance batchInstances = null;
+		EphesoftCriteria criteria = criteria();
+		criteria.add(Restrictions.or(Restrictions.isNull(CURRENT_USER), Restrictions.eq(CURRENT_USER, currentUserName)));
+		criteria.add(Restrictions.eq(IS_REMOTE, false));
+		criteria.add(Restrictions.eq(BATCH_INSTANCE_IDENTIFIER, batchInstanceIdentifier));
 
-		Set<String> batchClassIdentifiers = null;
-
+		boolean isValidUserRoles = false;
 		switch (ephesoftUser) {
 			case NORMAL_USER:
-				batchClassIdentifiers = batchClassGroupsDao.getBatchClassIdentifierForUserRoles(userRoles);
-				Set<String> batchInstanceIdentifiers = batchInstanceGroupsDao.getBatchInstanceIdentifierForUserRoles(userRoles);
-				Set<String> batchInstanceIdentifierSet = batchInstanceGroupsDao.getBatchInstanceIdentifiersExceptUserRoles(userRoles);
-
-				if ((null != batchClassIdentifiers && batchClassIdentifiers.size() > 0)
-						|| (null != batchInstanceIdentifiers && batchInstanceIdentifiers.size() > 0)) {
-					EphesoftCriteria criteria = criteria();
-					criteria.add(Restrictions.or(Restrictions.isNull(CURRENT_USER), Restrictions.eq(CURRENT_USER, currentUserName)));
-					criteria.add(Restrictions.eq(IS_REMOTE, false));
-					criteria.add(Restrictions.eq(BATCH_INSTANCE_IDENTIFIER, batchInstanceIdentifier));
-					if (null != batchClassIdentifiers && batchClassIdentifiers.size() > 0 && null != batchInstanceIdentifiers
-							&& batchInstanceIdentifiers.size() > 0 && null != batchInstanceIdentifierSet
-							&& batchInstanceIdentifierSet.size() > 0) {
-						final Conjunction conjunction = Restrictions.conjunction();
-						final Disjunction disjunction = Restrictions.disjunction();
-						criteria.createAlias(BATCH_CLASS, BATCH_CLASS);
-						disjunction.add(Restrictions.in(BATCH_CLASS_IDENTIFIER, batchClassIdentifiers));
-						disjunction.add(Restrictions.in(BATCH_INSTANCE_IDENTIFIER, batchInstanceIdentifiers));
-						conjunction.add(Restrictions.not(Restrictions.in(BATCH_INSTANCE_IDENTIFIER, batchInstanceIdentifierSet)));
-						conjunction.add(disjunction);
-						criteria.add(conjunction);
-					} else if (null != batchClassIdentifiers && batchClassIdentifiers.size() > 0 && null != batchInstanceIdentifiers
-							&& batchInstanceIdentifiers.size() > 0) {
-						final Disjunction disjunction = Restrictions.disjunction();
-						criteria.createAlias(BATCH_CLASS, BATCH_CLASS);
-						disjunction.add(Restrictions.in(BATCH_CLASS_IDENTIFIER, batchClassIdentifiers));
-						disjunction.add(Restrictions.in(BATCH_INSTANCE_IDENTIFIER, batchInstanceIdentifiers));
-						criteria.add(disjunction);
-					} else if (null != batchClassIdentifiers && batchClassIdentifiers.size() > 0 && null != batchInstanceIdentifierSet
-							&& batchInstanceIdentifierSet.size() > 0) {
-						final Conjunction conjunction = Restrictions.conjunction();
-						criteria.createAlias(BATCH_CLASS, BATCH_CLASS);
-						conjunction.add(Restrictions.in(BATCH_CLASS_IDENTIFIER, batchClassIdentifiers));
-						conjunction.add(Restrictions.not(Restrictions.in(BATCH_INSTANCE_IDENTIFIER, batchInstanceIdentifierSet)));
-						criteria.add(conjunction);
-					} else if (null != batchInstanceIdentifiers && batchInstanceIdentifiers.size() > 0
-							&& null != batchInstanceIdentifierSet && batchInstanceIdentifierSet.size() > 0) {
-						final Conjunction conjunction = Restrictions.conjunction();
-						conjunction.add(Restrictions.in(BATCH_INSTANCE_IDENTIFIER, batchInstanceIdentifiers));
-						conjunction.add(Restrictions.not(Restrictions.in(BATCH_INSTANCE_IDENTIFIER, batchInstanceIdentifierSet)));
-						criteria.add(conjunction);
-					} else if (null != batchInstanceIdentifiers && batchInstanceIdentifiers.size() > 0) {
-						criteria.add(Restrictions.in(BATCH_INSTANCE_IDENTIFIER, batchInstanceIdentifiers));
-					} else if (null != batchClassIdentifiers && batchClassIdentifiers.size() > 0) {
-						criteria.createAlias(BATCH_CLASS, BATCH_CLASS);
-						criteria.add(Restrictions.in(BATCH_CLASS_IDENTIFIER, batchClassIdentifiers));
-					}
-					batchInstances = findSingle(criteria);
-				}
+				isValidUserRoles = addUserRoleCriteria(criteria, userRoles, true);
 				break;
 			default:
-				batchClassIdentifiers = batchClassGroupsDao.getBatchClassIdentifierForUserRoles(userRoles);
-				if (null != batchClassIdentifiers && batchClassIdentifiers.size() > 0) {
-					EphesoftCriteria criteria = criteria();
-					criteria.add(Restrictions.or(Restrictions.isNull(CURRENT_USER), Restrictions.eq(CURRENT_USER, currentUserName)));
-					criteria.add(Restrictions.eq(IS_REMOTE, false));
-					criteria.add(Restrictions.eq(BATCH_INSTANCE_IDENTIFIER, batchInstanceIdentifier));
-					criteria.createAlias(BATCH_CLASS, BATCH_CLASS);
-					criteria.add(Restrictions.in(BATCH_CLASS_IDENTIFIER, batchClassIdentifiers));
-
-					batchInstances = findSingle(criteria);
-				}
+				isValidUserRoles = addBatchClassRoleCriteria(criteria, userRoles);
 				break;
 		}
+		if (isValidUserRoles) {
+			batchInstances = findSingle(criteria);
+		}
 		return batchInstances;
 	
 	}
@@ -791,88 +676,15 @@ public class BatchInstanceDaoImpl extends HibernateDao<BatchInstance> implements
 		}
 		int count = 0;
 
-		Set<String> batchClassIdentifiers = null;
-		Set<String> batchInstanceIdentifiers = null;
-
-		if (ephesoftUser.equals(EphesoftUser.ADMIN_USER)) {
-			batchClassIdentifiers = batchClassGroupsDao.getBatchClassIdentifierForUserRoles(userRoles);
-			batchInstanceIdentifiers = batchInstanceGroupsDao.getBatchInstanceIdentifierForUserRoles(userRoles);
-			if ((null != batchClassIdentifiers && batchClassIdentifiers.size() > 0)
-					|| (null != batchInstanceIdentifiers && batchInstanceIdentifiers.size() > 0)) {
-				if (null != batchClassIdentifiers && batchClassIdentifiers.size() > 0 && null != batchInstanceIdentifiers
-						&& batchInstanceIdentifiers.size() > 0) {
-					final Disjunction disjunction = Restrictions.disjunction();
-					if (null != batchClassIdentifiers && batchClassIdentifiers.size() > 0) {
-						criteria.createAlias(BATCH_CLASS, BATCH_CLASS);
-						disjunction.add(Restrictions.in(BATCH_CLASS_IDENTIFIER, batchClassIdentifiers));
-					}
-					if (null != batchInstanceIdentifiers && batchInstanceIdentifiers.size() > 0) {
-						disjunction.add(Restrictions.in(BATCH_INSTANCE_IDENTIFIER, batchInstanceIdentifiers));
-					}
-					criteria.add(disjunction);
-				} else if (null != batchClassIdentifiers && batchClassIdentifiers.size() > 0) {
-					criteria.createAlias(BATCH_CLASS, BATCH_CLASS);
-					criteria.add(Restrictions.in(BATCH_CLASS_IDENTIFIER, batchClassIdentifiers));
-				} else if (null != batchInstanceIdentifiers && batchInstanceIdentifiers.size() > 0) {
-					criteria.add(Restrictions.in(BATCH_INSTANCE_IDENTIFIER, batchInstanceIdentifiers));
-				}
-				// Add check for null current users only.
-				// Now we will count only for those current users those are null.
-				if (!isNotCurrentUserCheckReq && null != currentUserName) {
-					criteria.add(Restrictions
-							.or(Restrictions.isNull(CURRENT_USER), Restrictions.eq(CURRENT_USER, currentUserName)));
-				}
-				count = count(criteria);
-			}
-		} else {
-			batchClassIdentifiers = batchClassGroupsDao.getBatchClassIdentifierForUserRoles(userRoles);
-			batchInstanceIdentifiers = batchInstanceGroupsDao.getBatchInstanceIdentifierForUserRoles(userRoles);
-
-			if ((null != batchClassIdentifiers && batchClassIdentifiers.size() > 0)
-					|| (null != batchInstanceIdentifiers && batchInstanceIdentifiers.size() > 0)) {
-				Set<String> batchInstanceIdentifierSet = batchInstanceGroupsDao.getBatchInstanceIdentifiersExceptUserRoles(userRoles);
-				if (null != batchClassIdentifiers && batchClassIdentifiers.size() > 0 && null != batchInstanceIdentifiers
-						&& batchInstanceIdentifiers.size() > 0 && null != batchInstanceIdentifierSet
-						&& batchInstanceIdentifierSet.size() > 0) {
-					final Conjunction conjunction = Restrictions.conjunction();
-					final Disjunction disjunction = Restrictions.disjunction();
-					criteria.createAlias(BATCH_CLASS, BATCH_CLASS);
-					disjunction.add(Restrictions.in(BATCH_CLASS_IDENTIFIER, batchClassIdentifiers));
-					disjunction.add(Restrictions.in(BATCH_INSTANCE_IDENTIFIER, batchInstanceIdentifiers));
-					conjunction.add(Restrictions.not(Restrictions.in(BATCH_INSTANCE_IDENTIFIER, batchInstanceIdentifierSet)));
-					conjunction.add(disjunction);
-					criteria.add(conjunction);
-				} else if (null != batchClassIdentifiers && batchClassIdentifiers.size() > 0 && null != batchInstanceIdentifiers
-						&& batchInstanceIdentifiers.size() > 0) {
-					final Disjunction disjunction = Restrictions.disjunction();
-					criteria.createAlias(BATCH_CLASS, BATCH_CLASS);
-					disjunction.add(Restrictions.in(BATCH_CLASS_IDENTIFIER, batchClassIdentifiers));
-					disjunction.add(Restrictions.in(BATCH_INSTANCE_IDENTIFIER, batchInstanceIdentifiers));
-					criteria.add(disjunction);
-				} else if (null != batchClassIdentifiers && batchClassIdentifiers.size() > 0 && null != batchInstanceIdentifierSet
-						&& batchInstanceIdentifierSet.size() > 0) {
-					final Conjunction conjunction = Restrictions.conjunction();
-					criteria.createAlias(BATCH_CLASS, BATCH_CLASS);
-					conjunction.add(Restrictions.in(BATCH_CLASS_IDENTIFIER, batchClassIdentifiers));
-					conjunction.add(Restrictions.not(Restrictions.in(BATCH_INSTANCE_IDENTIFIER, batchInstanceIdentifierSet)));
-					criteria.add(conjunction);
-				} else if (null != batchInstanceIdentifiers && batchInstanceIdentifiers.size() > 0
-						&& null != batchInstanceIdentifierSet && batchInstanceIdentifierSet.size() > 0) {
-					final Conjunction conjunction = Restrictions.conjunction();
-					conjunction.add(Restrictions.in(BATCH_INSTANCE_IDENTIFIER, batchInstanceIdentifiers));
-					conjunction.add(Restrictions.not(Restrictions.in(BATCH_INSTANCE_IDENTIFIER, batchInstanceIdentifierSet)));
-					criteria.add(conjunction);
-				} else if (null != batchInstanceIdentifiers && batchInstanceIdentifiers.size() > 0) {
-					criteria.add(Restrictions.in(BATCH_INSTANCE_IDENTIFIER, batchInstanceIdentifiers));
-				} else if (null != batchClassIdentifiers && batchClassIdentifiers.size() > 0) {
-					criteria.createAlias(BATCH_CLASS, BATCH_CLASS);
-					criteria.add(Restrictions.in(BATCH_CLASS_IDENTIFIER, batchClassIdentifiers));
-				}
-				if (!isNotCurrentUserCheckReq && null != currentUserName) {
-					criteria.add(Restrictions.or(Restrictions.isNull(CURRENT_USER), Restrictions.eq(CURRENT_USER, currentUserName)));
-				}
-				count = count(criteria);
+		// Admin users see the batches of their roles, other users additionally lose batches assigned to other roles.
+		boolean isValidUserRoles = addUserRoleCriteria(criteria, userRoles, !EphesoftUser.ADMIN_USER.equals(ephesoftUser));
+		if (isValidUserRoles) {
+			// Add check for null current users only.
+			// Now we will count only for those current users those are null.
+			if (!isNotCurrentUserCheckReq && null != currentUserName) {
+				criteria.add(Restrictions.or(Restrictions.isNull(CURRENT_USER), Restrictions.eq(CURRENT_USER, currentUserName)));
 			}
+			count = count(criteria);
 		}
 		return count;
 	}
@@ -1191,9 +1003,7 @@ public class BatchInstanceDaoImpl extends HibernateDao<BatchInstance> implements
 
 		List<BatchInstance> batchInstances = new ArrayList<BatchInstance>();
 
-		Set<String> batchClassIdentifiers = batchClassGroupsDao.getBatchClassIdentifierForUserRoles(userRoles);
-
-		if (null != batchClassIdentifiers && batchClassIdentifiers.size() > 0) {
+		if (addBatchClassRoleCriteria(criteria, userRoles)) {
 			BatchInstanceFilter[] filters = null;
 			if (filterClauseList != null) {
 				filters = filterClauseList.toArray(new BatchInstanceFilter[filterClauseList.size()]);
@@ -1202,9 +1012,6 @@ public class BatchInstanceDaoImpl extends HibernateDao<BatchInstance> implements
 			if (orderList != null) {
 				orders = orderList.toArray(new Order[orderList.size()]);
 			}
-
-			criteria.createAlias(BATCH_CLASS, BATCH_CLASS);
-			criteria.add(Restrictions.in(BATCH_CLASS_IDENTIFIER, batchClassIdentifiers));
 			batchInstances = find(criteria, firstResult, maxResults, filters, orders);
 		}
 
@@ -1266,11 +1073,7 @@ public class BatchInstanceDaoImpl extends HibernateDao<BatchInstance> implements
 			criteria.add(Restrictions.eq(STATUS, batchStatus));
 			criteria.add(Restrictions.or(Restrictions.isNull(CURRENT_USER), Restrictions.eq(CURRENT_USER, userName)));
 
-			Set<String> batchClassIdentifiers = batchClassGroupsDao.getBatchClassIdentifierForUserRoles(userRoles);
-
-			if (null != batchClassIdentifiers && batchClassIdentifiers.size() > 0) {
-				criteria.createAlias(BATCH_CLASS, BATCH_CLASS);
-				criteria.add(Restrictions.in(BATCH_CLASS_IDENTIFIER, batchClassIdentifiers));
+			if (addBatchClassRoleCriteria(criteria, userRoles)) {
 				batchInstanceList = find(criteria);
 			}
 		}
@@ -1390,38 +1193,14 @@ public class BatchInstanceDaoImpl extends HibernateDao<BatchInstance> implements
 		List<BatchInstance> batchInstaceList = new ArrayList<BatchInstance>();
 		BatchInstanceFilter[] filters = null;
 		Order[] orders = null;
-		switch (ephesoftUser) {
-			default:
-				Set<String> batchClassIndentifiers = batchClassGroupsDao.getBatchClassIdentifierForUserRoles(userRoles);
-				Set<String> batchInstanceIndentifiers = batchInstanceGroupsDao.getBatchInstanceIdentifierForUserRoles(userRoles);
-				if ((null != batchClassIndentifiers && batchClassIndentifiers.size() > 0)
-						|| (null != batchInstanceIndentifiers && batchInstanceIndentifiers.size() > 0)) {
-					if (filterClauseList != null) {
-						filters = filterClauseList.toArray(new BatchInstanceFilter[filterClauseList.size()]);
-					}
-					if (orderList != null) {
-						orders = orderList.toArray(new Order[orderList.size()]);
-					}
-					if (null != batchClassIndentifiers && batchClassIndentifiers.size() > 0 && null != batchInstanceIndentifiers
-							&& batchInstanceIndentifiers.size() > 0) {
-						final Disjunction disjunction = Restrictions.disjunction();
-						if (null != batchClassIndentifiers && batchClassIndentifiers.size() > 0) {
-							criteriaLocal.createAlias(BATCH_CLASS, BATCH_CLASS);
-							disjunction.add(Restrictions.in(BATCH_CLASS_IDENTIFIER, batchClassIndentifiers));
-						}
-						if (null != batchInstanceIndentifiers && batchInstanceIndentifiers.size() > 0) {
-							disjunction.add(Restrictions.in(BATCH_INSTANCE_IDENTIFIER, batchInstanceIndentifiers));
-						}
-						criteriaLocal.add(disjunction);
-					} else if (null != batchClassIndentifiers && batchClassIndentifiers.size() > 0) {
-						criteriaLocal.createAlias(BATCH_CLASS, BATCH_CLASS);
-						criteriaLocal.add(Restrictions.in(BATCH_CLASS_IDENTIFIER, batchClassIndentifiers));
-					} else if (null != batchInstanceIndentifiers && batchInstanceIndentifiers.size() > 0) {
-						criteriaLocal.add(Restrictions.in(BATCH_INSTANCE_IDENTIFIER, batchInstanceIndentifiers));
-					}
-					batchInstaceList = find(criteriaLocal, firstResult, maxResults, filters, orders);
-				}
-				break;
+		if (addUserRoleCriteria(criteriaLocal, userRoles, false)) {
+			if (filterClauseList != null) {
+				filters = filterClauseList.toArray(new BatchInstanceFilter[filterClauseList.size()]);
+			}
+			if (orderList != null) {
+				orders = orderList.toArray(new Order[orderList.size()]);
+			}
+			batchInstaceList = find(criteriaLocal, firstResult, maxResults, filters, orders);
 		}
 		return batchInstaceList;
 	}
@@ -1507,4 +1286,221 @@ public class BatchInstanceDaoImpl extends HibernateDao<BatchInstance> implements
 		return find(criteria);
 	}
 
+	/**
+	 * API to claim the given batch instances for an executing server with a single update statement. Only the batch instances which
+	 * are still in NEW state are moved to LOCKED, so concurrent claims from other servers never overlap.
+	 * 
+	 * @param batchInstanceIds List<Long>
+	 * @param executingServer {@link String}
+	 * @return int, count of batch instances claimed
+	 */
+	@Override
+	public int lockNewBatchInstances(final List<Long> batchInstanceIds, final String executingServer) {
+		int lockedCount = 0;
+		if (null != batchInstanceIds && !batchInstanceIds.isEmpty()) {
+			lockedCount = getHibernateTemplate().execute(new HibernateCallback<Integer>() {
+
+				@Override
+				public Integer doInHibernate(Session session) {
+					Query query = session.createQuery(LOCK_NEW_BATCH_INSTANCES_QUERY);
+					query.setParameter(LOCKED_STATUS_PARAM, BatchInstanceStatus.LOCKED);
+					query.setParameter(EXECUTING_SERVER, executingServer);
+					query.setTimestamp(LAST_MODIFIED, new Date());
+					query.setParameterList(BATCH_INSTANCE_IDS_PARAM, batchInstanceIds);
+					query.setParameter(NEW_STATUS_PARAM, BatchInstanceStatus.NEW);
+					return query.executeUpdate();
+				}
+			});
+		}
+		return lockedCount;
+	}
+
+	/**
+	 * API to claim the given READY batch instance for an executing server with a single update statement. The batch instance is moved
+	 * to RUNNING only if it is still in READY state, so a batch instance is resumed by one server only.
+	 * 
+	 * @param batchInstanceId long
+	 * @param executingServer {@link String}
+	 * @return boolean, true if the batch instance was claimed
+	 */
+	@Override
+	public boolean resumeReadyBatchInstance(final long batchInstanceId, final String executingServer) {
+		int resumedCount = getHibernateTemplate().execute(new HibernateCallback<Integer>() {
+
+			@Override
+			public Integer doInHibernate(Session session) {
+				Query query = session.createQuery(RESUME_READY_BATCH_INSTANCE_QUERY);
+				query.setParameter(RUNNING_STATUS_PARAM, BatchInstanceStatus.RUNNING);
+				query.setParameter(EXECUTING_SERVER, executingServer);
+				query.setTimestamp(LAST_MODIFIED, new Date());
+				query.setLong(ID, batchInstanceId);
+				query.setParameter(READY_STATUS_PARAM, BatchInstanceStatus.READY);
+				return query.executeUpdate();
+			}
+		});
+		return resumedCount == 1;
+	}
+
+	/**
+	 * API to fetch the batch instances out of the given ids which are in the given state on an executing server.
+	 * 
+	 * @param batchInstanceIds List<Long>
+	 * @param executingServer {@link String}
+	 * @param batchInstanceStatus {@link BatchInstanceStatus}
+	 * @return List<{@link BatchInstance}>
+	 */
+	@Override
+	public List<BatchInstance> getBatchInstancesByIdsAndExecutingServer(List<Long> batchInstanceIds, String executingServer,
+			BatchInstanceStatus batchInstanceStatus) {
+		List<BatchInstance> batchInstances = null;
+		if (null != batchInstanceIds && !batchInstanceIds.isEmpty()) {
+			EphesoftCriteria criteria = criteria();
+			criteria.add(Restrictions.in(ID, batchInstanceIds));
+			criteria.add(Restrictions.eq(EXECUTING_SERVER, executingServer));
+			criteria.add(Restrictions.eq(STATUS, batchInstanceStatus));
+			batchInstances = find(criteria);
+		} else {
+			batchInstances = new ArrayList<BatchInstance>();
+		}
+		return batchInstances;
+	}
+
+	/**
+	 * API to count the batch instances in any of the given states on an executing server.
+	 * 
+	 * @param executingServer {@link String}
+	 * @param statusList List<{@link BatchInstanceStatus}>
+	 * @return int, count of batch instances
+	 */
+	@Override
+	public int getExecutingJobCountByServerIP(String executingServer, List<BatchInstanceStatus> statusList) {
+		DetachedCriteria criteria = criteria();
+		criteria.add(Restrictions.eq(EXECUTING_SERVER, executingServer));
+		criteria.add(Restrictions.in(STATUS, statusList));
+		return count(criteria);
+	}
+
+	/**
+	 * API to fetch the identifiers of the batch instances in the given states which can be claimed by the user roles, in the order
+	 * used to pick the highest priority batch instance.
+	 * 
+	 * @param statusList List<{@link BatchInstanceStatus}>
+	 * @param maxResults int
+	 * @param userRoles Set<{@link String}>
+	 * @param ephesoftUser {@link EphesoftUser}
+	 * @param currentTime {@link Date}
+	 * @return List<{@link String}>
+	 */
+	@Override
+	public List<String> getClaimableBatchInstanceIdentifiers(List<BatchInstanceStatus> statusList, final int maxResults,
+			final Set<String> userRoles, EphesoftUser ephesoftUser, Date currentTime) {
+		List<String> batchInstanceIdentifiers = new ArrayList<String>();
+		EphesoftCriteria criteria = criteria();
+		criteria.add(Restrictions.in(STATUS, statusList));
+		criteria.add(Restrictions.or(Restrictions.isNull(CURRENT_USER), Restrictions.lt(CLAIM_EXPIRY, currentTime)));
+		criteria.add(Restrictions.eq(IS_REMOTE, false));
+
+		boolean isValidUserRoles = false;
+		switch (ephesoftUser) {
+			case NORMAL_USER:
+				isValidUserRoles = addUserRoleCriteria(criteria, userRoles, true);
+				break;
+			default:
+				isValidUserRoles = addBatchClassRoleCriteria(criteria, userRoles);
+				break;
+		}
+		if (isValidUserRoles) {
+			criteria.setProjection(Projections.property(BATCH_INSTANCE_IDENTIFIER));
+			Order orderForHighestBatchPriority = new Order(BatchInstanceProperty.PRIORITY, true);
+			Order orderForLastModified = new Order(BatchInstanceProperty.LASTMODIFIED, false);
+			batchInstanceIdentifiers = find(criteria, 0, maxResults, orderForLastModified, orderForHighestBatchPriority);
+		}
+		return batchInstanceIdentifiers;
+	}
+
+	/**
+	 * API to claim a batch instance for a user with a single conditional update.
+	 * 
+	 * @param batchInstanceIdentifier {@link String}
+	 * @param currentUser {@link String}
+	 * @param statusList List<{@link BatchInstanceStatus}>
+	 * @param currentTime {@link Date}
+	 * @param claimExpiry {@link Date}
+	 * @return boolean, true if the batch instance is claimed by the user.
+	 */
+	@Override
+	public boolean claimBatchInstance(final String batchInstanceIdentifier, final String currentUser,
+			final List<BatchInstanceStatus> statusList, final Date currentTime, final Date claimExpiry) {
+		int claimedCount = getHibernateTemplate().execute(new HibernateCallback<Integer>() {
+
+			@Override
+			public Integer doInHibernate(Session session) {
+				Query query = session.createQuery(CLAIM_BATCH_INSTANCE_QUERY);
+				query.setParameter(CURRENT_USER, currentUser);
+				query.setTimestamp(CLAIM_EXPIRY, claimExpiry);
+				query.setParameter(BATCH_INSTANCE_IDENTIFIER, batchInstanceIdentifier);
+				query.setParameterList(STATUS_LIST_PARAM, statusList);
+				query.setParameter(IS_REMOTE, false);
+				query.setTimestamp(CURRENT_TIME_PARAM, currentTime);
+				return query.executeUpdate();
+			}
+		});
+		return claimedCount > 0;
+	}
+
+	/**
+	 * API to restrict the criteria to the batch instances whose batch class is assigned to any of the user roles. The role mapping is
+	 * joined in the database with a sub query on batch class groups instead of inlining the batch class identifiers.
+	 * 
+	 * @param criteria {@link DetachedCriteria}
+	 * @param userRoles Set<{@link String}>
+	 * @return boolean, false if there are no user roles and so no batch instance is accessible.
+	 */
+	private boolean addBatchClassRoleCriteria(final DetachedCriteria criteria, final Set<String> userRoles) {
+		boolean isValidUserRoles = (null != userRoles && !userRoles.isEmpty());
+		if (isValidUserRoles) {
+			criteria.add(getBatchClassRoleCriterion(userRoles));
+		}
+		return isValidUserRoles;
+	}
+
+	/**
+	 * API to restrict the criteria to the batch instances accessible by the user roles either through their batch class or through
+	 * batch instance groups. The role mappings are joined in the database with sub queries instead of inlining identifiers.
+	 * 
+	 * @param criteria {@link DetachedCriteria}
+	 * @param userRoles Set<{@link String}>
+	 * @param excludeOtherRoleBatches true if batch instances also assigned to roles other than the user roles are not accessible.
+	 * @return boolean, false if there are no user roles and so no batch instance is accessible.
+	 */
+	private boolean addUserRoleCriteria(final DetachedCriteria criteria, final Set<String> userRoles,
+			final boolean excludeOtherRoleBatches) {
+		boolean isValidUserRoles = (null != userRoles && !userRoles.isEmpty());
+		if (isValidUserRoles) {
+			criteria.add(Restrictions.or(getBatchClassRoleCriterion(userRoles), getBatchInstanceRoleCriterion(userRoles, false)));
+			if (excludeOtherRoleBatches) {
+				criteria.add(Restrictions.not(getBatchInstanceRoleCriterion(userRoles, true)));
+			}
+		}
+		return isValidUserRoles;
+	}
+
+	private Criterion getBatchClassRoleCriterion(final Set<String> userRoles) {
+		DetachedCriteria batchClassGroups = DetachedCriteria.forClass(BatchClassGroups.class);
+		batchClassGroups.add(Restrictions.in(GROUP_NAME, userRoles));
+		batchClassGroups.setProjection(Projections.property(BATCH_CLASS_ID));
+		return Subqueries.propertyIn(BATCH_CLASS_ID, batchClassGroups);
+	}
+
+	private Criterion getBatchInstanceRoleCriterion(final Set<String> userRoles, final boolean isExceptUserRoles) {
+		DetachedCriteria batchInstanceGroups = DetachedCriteria.forClass(BatchInstanceGroups.class);
+		Criterion groupNameCriterion = Restrictions.in(GROUP_NAME, userRoles);
+		if (isExceptUserRoles) {
+			groupNameCriterion = Restrictions.not(groupNameCriterion);
+		}
+		batchInstanceGroups.add(groupNameCriterion);
+		batchInstanceGroups.setProjection(Projections.property(BATCH_INSTANCE_GROUP_IDENTIFIER));
+		return Subqueries.propertyIn(BATCH_INSTANCE_IDENTIFIER, batchInstanceGroups);
+	}
+
 }
@@ -35,12 +35,14 @@
 
 package com.ephesoft.dcma.da.dao.hibernate;
 
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
 import org.hibernate.criterion.DetachedCriteria;
 import org.hibernate.criterion.Disjunction;
+import org.hibernate.criterion.Projections;
 import org.hibernate.criterion.Restrictions;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
@@ -69,6 +71,37 @@ public class BatchInstanceGroupsDaoImpl extends HibernateDao<BatchInstanceGroups
 	 */
 	private static final String BATCH_INSTANCE_ID = "batchInstanceIdentifier";
 
+	/**
+	 * Constant for id.
+	 */
+	private static final String ID = "id";
+
+	/**
+	 * Cache key qualifier for batch instances having the user roles.
+	 */
+	private static final String FOR_USER_ROLES = "for";
+
+	/**
+	 * Cache key qualifier for batch instances having roles other than the user roles.
+	 */
+	private static final String EXCEPT_USER_ROLES = "except";
+
+	/**
+	 * Minimum time in milliseconds between two checks of the batch instance groups table for changes.
+	 */
+	private static final long ENTITLEMENT_VALIDATION_INTERVAL = 5000L;
+
+	/**
+	 * Maximum age in milliseconds of a cached entitlement.
+	 */
+	private static final long ENTITLEMENT_MAX_AGE = 60000L;
+
+	/**
+	 * Batch instance identifiers cached per set of user roles.
+	 */
+	private final UserRoleEntitlementCache entitlementCache = new UserRoleEntitlementCache(ENTITLEMENT_VALIDATION_INTERVAL,
+			ENTITLEMENT_MAX_AGE);
+
 	/**
 	 * API for getting the batch instance identifiers having the user roles.
 	 * @param userRoles Set<String>
@@ -76,22 +109,9 @@ public class BatchInstanceGroupsDaoImpl extends HibernateDao<BatchInstanceGroups
 	 */
 	@Override
 	public Set<String> getBatchInstanceIdentifierForUserRoles(final Set<String> userRoles) {
-		boolean isValid = true;
-		if (userRoles == null || userRoles.size() == 0) {
-			isValid = false;
-		}
 		Set<String> batchInstanceIdentifiers = null;
-
-		if (isValid) {
-			batchInstanceIdentifiers = new HashSet<String>();
-			final DetachedCriteria criteria = criteria();
-			final Disjunction disjunction = Restrictions.disjunction();
-			disjunction.add(Restrictions.in(GROUP_NAME, userRoles));
-			criteria.add(disjunction);
-			final List<BatchInstanceGroups> batchInstanceGroups = find(criteria);
-			for (final BatchInstanceGroups batchInstanceGroup : batchInstanceGroups) {
-				batchInstanceIdentifiers.add(batchInstanceGroup.getBatchInstanceIdentifier());
-			}
+		if (userRoles != null && userRoles.size() > 0) {
+			batchInstanceIdentifiers = getCachedIdentifiers(userRoles, FOR_USER_ROLES);
 		}
 		return batchInstanceIdentifiers;
 	}
@@ -127,6 +147,7 @@ public class BatchInstanceGroupsDaoImpl extends HibernateDao<BatchInstanceGroups
 		batchInstanceGroups.setBatchInstanceIdentifier(batchInstanceIdentifier);
 		batchInstanceGroups.setGroupName(userRole);
 		create(batchInstanceGroups);
+		entitlementCache.invalidate();
 	}
 	
 	/**
@@ -137,10 +158,50 @@ public class BatchInstanceGroupsDaoImpl extends HibernateDao<BatchInstanceGroups
 	 */
 	@Override
 	public Set<String> getBatchInstanceIdentifiersExceptUserRoles(final Set<String> userRoles) {
-		Set<String> batchInstanceIdentifiers = new HashSet<String>();
+		Set<String> batchInstanceIdentifiers = null;
+		if (userRoles != null && userRoles.size() > 0) {
+			batchInstanceIdentifiers = getCachedIdentifiers(userRoles, EXCEPT_USER_ROLES);
+		} else {
+			batchInstanceIdentifiers = loadBatchInstanceIdentifiers(userRoles, true);
+		}
+		return batchInstanceIdentifiers;
+	}
+
+	private Set<String> getCachedIdentifiers(final Set<String> userRoles, final String qualifier) {
+		validateEntitlementCache();
+		final String key = UserRoleEntitlementCache.getKey(userRoles, qualifier);
+		Set<String> batchInstanceIdentifiers = null;
+		final Set<String> cachedIdentifiers = entitlementCache.get(key);
+		if (cachedIdentifiers == null) {
+			final long generation = entitlementCache.getGeneration();
+			batchInstanceIdentifiers = loadBatchInstanceIdentifiers(userRoles, EXCEPT_USER_ROLES.equals(qualifier));
+			entitlementCache.put(key, new HashSet<String>(batchInstanceIdentifiers), generation);
+		} else {
+			batchInstanceIdentifiers = new HashSet<String>(cachedIdentifiers);
+		}
+		return batchInstanceIdentifiers;
+	}
+
+	private void validateEntitlementCache() {
+		if (entitlementCache.isValidationDue()) {
+			final DetachedCriteria criteria = criteria();
+			criteria.setProjection(Projections.projectionList().add(Projections.rowCount()).add(Projections.max(ID)));
+			final List<Object[]> fingerprint = find(criteria);
+			if (fingerprint != null && !fingerprint.isEmpty()) {
+				entitlementCache.validate(Arrays.asList(fingerprint.get(0)));
+			}
+		}
+	}
+
+	private Set<String> loadBatchInstanceIdentifiers(final Set<String> userRoles, final boolean isExceptUserRoles) {
+		final Set<String> batchInstanceIdentifiers = new HashSet<String>();
 		final DetachedCriteria criteria = criteria();
 		final Disjunction disjunction = Restrictions.disjunction();
-		disjunction.add(Restrictions.not(Restrictions.in(GROUP_NAME, userRoles)));
+		if (isExceptUserRoles) {
+			disjunction.add(Restrictions.not(Restrictions.in(GROUP_NAME, userRoles)));
+		} else {
+			disjunction.add(Restrictions.in(GROUP_NAME, userRoles));
+		}
 		criteria.add(disjunction);
 		final List<BatchInstanceGroups> batchInstanceGroups = find(criteria);
 		for (final BatchInstanceGroups batchInstanceGroup : batchInstanceGroups) {
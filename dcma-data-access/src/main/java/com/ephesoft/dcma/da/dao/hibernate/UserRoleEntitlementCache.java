@@ -0,0 +1,207 @@
+/********************************************************************************* 
+* Ephesoft is a Intelligent Document Capture and Mailroom Automation program 
+* developed by Ephesoft, Inc. Copyright (C) 2010-2012 Ephesoft Inc. 
+* 
+* This program is free software; you can redistribute it and/or modify it under 
+* the terms of the GNU Affero General Public License version 3 as published by the 
+* Free Software Foundation with the addition of the following permission added 
+* to Section 15 as permitted in Section 7(a): FOR ANY PART OF THE COVERED WORK 
+* IN WHICH THE COPYRIGHT IS OWNED BY EPHESOFT, EPHESOFT DISCLAIMS THE WARRANTY 
+* OF NON INFRINGEMENT OF THIRD PARTY RIGHTS. 
+* 
+* This program is distributed in the hope that it will be useful, but WITHOUT 
+* ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+* FOR A PARTICULAR PURPOSE.  See the GNU Affero General Public License for more 
+* details. 
+* 
+* You should have received a copy of the GNU Affero General Public License along with 
+* this program; if not, see http://www.gnu.org/licenses or write to the Free 
+* Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 
+* 02110-1301 USA. 
+* 
+* You can contact Ephesoft, Inc. headquarters at 111 Academy Way, 
+* Irvine, CA 92617, USA. or at email address info@ephesoft.com. 
+* 
+* The interactive user interfaces in modified source and object code versions 
+* of this program must display Appropriate Legal Notices, as required under 
+* Section 5 of the GNU Affero General Public License version 3. 
+* 
+* In accordance with Section 7(b) of the GNU Affero General Public License version 3, 
+* these Appropriate Legal Notices must retain the display of the "Ephesoft" logo. 
+* If the display of the logo is not reasonably feasible for 
+* technical reasons, the Appropriate Legal Notices must display the words 
+* "Powered by Ephesoft". 
+********************************************************************************/ 
+
+
+package com.ephesoft.dcma.da.dao.hibernate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This class caches identifier sets per set of user roles for the group dao's. An entry is dropped when the group mapping changes,
+ * which is detected either by a local update or by a change of the fingerprint of the group table read by the dao at most once per
+ * validation interval. Entries also expire after a maximum age to pick up in-place updates made by other servers.
+ * 
+ * @author Ephesoft
+ * @version 1.0
+ * @see com.ephesoft.dcma.da.dao.hibernate.BatchClassGroupsDaoImpl
+ * @see com.ephesoft.dcma.da.dao.hibernate.BatchInstanceGroupsDaoImpl
+ */
+class UserRoleEntitlementCache {
+
+	/**
+	 * Separator used to build the cache key from the user roles.
+	 */
+	private static final char KEY_SEPARATOR = '\0';
+
+	/**
+	 * Minimum time between two fingerprint reads of the group table.
+	 */
+	private final long validationIntervalMillis;
+
+	/**
+	 * Maximum age of a cache entry.
+	 */
+	private final long maxEntryAgeMillis;
+
+	/**
+	 * Cached identifier sets by user roles key.
+	 */
+	private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<String, Entry>();
+
+	/**
+	 * Incremented on every invalidation so that a value loaded before an invalidation is never cached.
+	 */
+	private final AtomicLong generation = new AtomicLong();
+
+	/**
+	 * Last fingerprint of the group table.
+	 */
+	private volatile Object fingerprint;
+
+	/**
+	 * Time of the last fingerprint read.
+	 */
+	private volatile long lastValidationMillis;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param validationIntervalMillis long
+	 * @param maxEntryAgeMillis long
+	 */
+	UserRoleEntitlementCache(final long validationIntervalMillis, final long maxEntryAgeMillis) {
+		this.validationIntervalMillis = validationIntervalMillis;
+		this.maxEntryAgeMillis = maxEntryAgeMillis;
+	}
+
+	/**
+	 * To get the cache key for the user roles. The key does not depend on the iteration order of the user roles.
+	 * 
+	 * @param userRoles Set<String>
+	 * @param qualifier {@link String} distinguishes different identifier sets for the same user roles.
+	 * @return {@link String}
+	 */
+	static String getKey(final Set<String> userRoles, final String qualifier) {
+		List<String> sortedRoles = new ArrayList<String>(userRoles);
+		Collections.sort(sortedRoles);
+		StringBuilder key = new StringBuilder(qualifier);
+		for (String userRole : sortedRoles) {
+			key.append(KEY_SEPARATOR);
+			key.append(userRole);
+		}
+		return key.toString();
+	}
+
+	/**
+	 * To get the cached identifiers for a key.
+	 * 
+	 * @param key {@link String}
+	 * @return Set<String>, null if not cached or expired.
+	 */
+	Set<String> get(final String key) {
+		Set<String> identifiers = null;
+		Entry entry = entries.get(key);
+		if (entry != null) {
+			if (System.currentTimeMillis() - entry.createdMillis > maxEntryAgeMillis) {
+				entries.remove(key, entry);
+			} else {
+				identifiers = entry.identifiers;
+			}
+		}
+		return identifiers;
+	}
+
+	/**
+	 * To get the current generation. Read it before loading a value and pass it to {@link #put(String, Set, long)}.
+	 * 
+	 * @return long
+	 */
+	long getGeneration() {
+		return generation.get();
+	}
+
+	/**
+	 * To cache the identifiers for a key, unless the cache was invalidated since the given generation.
+	 * 
+	 * @param key {@link String}
+	 * @param identifiers Set<String>
+	 * @param loadGeneration long
+	 */
+	void put(final String key, final Set<String> identifiers, final long loadGeneration) {
+		if (identifiers != null && loadGeneration == generation.get()) {
+			entries.put(key, new Entry(Collections.unmodifiableSet(identifiers)));
+		}
+	}
+
+	/**
+	 * To check whether the fingerprint of the group table should be read again.
+	 * 
+	 * @return boolean
+	 */
+	boolean isValidationDue() {
+		return System.currentTimeMillis() - lastValidationMillis >= validationIntervalMillis;
+	}
+
+	/**
+	 * To validate the cache against the current fingerprint of the group table. All entries are dropped if it has changed.
+	 * 
+	 * @param currentFingerprint {@link Object}
+	 */
+	synchronized void validate(final Object currentFingerprint) {
+		if (fingerprint != null && !fingerprint.equals(currentFingerprint)) {
+			invalidate();
+		}
+		fingerprint = currentFingerprint;
+		lastValidationMillis = System.currentTimeMillis();
+	}
+
+	/**
+	 * To drop all cached entries, e.g. after the group mapping was changed on this server.
+	 */
+	void invalidate() {
+		generation.incrementAndGet();
+		entries.clear();
+	}
+
+	/**
+	 * Cached identifiers along with their creation time.
+	 */
+	private static final class Entry {
+
+		private final Set<String> identifiers;
+
+		private final long createdMillis = System.currentTimeMillis();
+
+		Entry(final Set<String> identifiers) {
+			this.identifiers = identifiers;
+		}
+	}
+}
@@ -35,6 +35,8 @@
 
 package com.ephesoft.dcma.da.domain;
 
+import java.util.Date;
+
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.EnumType;
@@ -43,6 +45,8 @@ import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
 import javax.persistence.OneToOne;
 import javax.persistence.Table;
+import javax.persistence.Temporal;
+import javax.persistence.TemporalType;
 import javax.persistence.Transient;
 
 import org.hibernate.annotations.Cascade;
@@ -131,6 +135,14 @@ public class BatchInstance extends AbstractChangeableEntity {
 	@Column(name = "curr_user")
 	private String currentUser;
 
+	/**
+	 * claimExpiry Date, time after which a batch claimed by the current user can be claimed by another user. Null for batches
+	 * locked without a lease.
+	 */
+	@Column(name = "claim_expiry")
+	@Temporal(TemporalType.TIMESTAMP)
+	private Date claimExpiry;
+
 	/**
 	 * batchName String.
 	 */  
@@ -460,4 +472,20 @@ public class BatchInstance extends AbstractChangeableEntity {
 	public void setExecutingServer(String executingServer) {
 		this.executingServer = executingServer;
 	}
+
+	/**
+	 * To get Claim Expiry.
+	 * @return Date
+	 */
+	public Date getClaimExpiry() {
+		return claimExpiry;
+	}
+
+	/**
+	 * To set Claim Expiry.
+	 * @param claimExpiry Date
+	 */
+	public void setClaimExpiry(Date claimExpiry) {
+		this.claimExpiry = claimExpiry;
+	}
 }
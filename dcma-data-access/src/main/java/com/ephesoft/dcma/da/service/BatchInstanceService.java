@@ -368,6 +368,34 @@ public interface BatchInstanceService {
 	 */
 	void lockBatch(long batchId) throws LockAcquisitionException;
 
+	/**
+	 * API to claim the given NEW batch instances for an executing server in a single update statement.
+	 * 
+	 * @param batchInstanceIds List<Long>
+	 * @param executingServer {@link String}
+	 * @return List<{@link BatchInstance}> - the batch instances actually claimed by the executing server.
+	 */
+	List<BatchInstance> lockNewBatchInstances(List<Long> batchInstanceIds, String executingServer);
+
+	/**
+	 * API to claim the given READY batch instance for an executing server. The batch instance is moved to RUNNING only if it is still in
+	 * READY state.
+	 * 
+	 * @param batchInstanceId long
+	 * @param executingServer {@link String}
+	 * @return boolean, true if the batch instance was claimed by the executing server
+	 */
+	boolean resumeReadyBatchInstance(long batchInstanceId, String executingServer);
+
+	/**
+	 * API to count the batch instances in any of the given states on an executing server.
+	 * 
+	 * @param executingServer {@link String}
+	 * @param statusList List<{@link BatchInstanceStatus}>
+	 * @return int, count of batch instances
+	 */
+	int getExecutingJobCountByServerIP(String executingServer, List<BatchInstanceStatus> statusList);
+
 	/**
 	 * API to get all the batch instances in sorted order.
 	 * 
@@ -579,4 +607,24 @@ public interface BatchInstanceService {
 	 */
 	List<BatchInstance> getBatchInstanceByStatusListBatchClass(List<BatchInstanceStatus> batchInstanceStatusList);
 
+	/**
+	 * API to claim the next batch instance ready for review or validation for a user. The batch instance is handed out with a
+	 * conditional update so that concurrent users never get the same batch instance, and the claim expires after the claim lease
+	 * time unless it is renewed.
+	 * 
+	 * @param userRoles Set<{@link String}>
+	 * @param ephesoftUser {@link EphesoftUser}
+	 * @param currentUser {@link String}
+	 * @return {@link BatchInstance}, null if no batch instance could be claimed.
+	 */
+	BatchInstance claimNextBatchInstance(Set<String> userRoles, EphesoftUser ephesoftUser, String currentUser);
+
+	/**
+	 * API to extend the claim of the user on a batch instance when less than half of its lease is left.
+	 * 
+	 * @param batchInstance {@link BatchInstance}
+	 * @param currentUser {@link String}
+	 */
+	void renewBatchInstanceClaim(BatchInstance batchInstance, String currentUser);
+
 }
@@ -36,6 +36,7 @@
 package com.ephesoft.dcma.da.service;
 
 import java.util.ArrayList;
+import java.util.Date;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -78,6 +79,26 @@ public class BatchInstanceServiceImpl implements BatchInstanceService {
 	 */
 	private static final Logger LOGGER = LoggerFactory.getLogger(BatchInstanceServiceImpl.class);
 
+	/**
+	 * Default claim lease time, 30 minutes.
+	 */
+	private static final long DEFAULT_CLAIM_LEASE_TIME = 1800000L;
+
+	/**
+	 * Default number of prefetched claimable identifiers.
+	 */
+	private static final int DEFAULT_CLAIM_PREFETCH_SIZE = 20;
+
+	/**
+	 * Default age after which prefetched claimable identifiers are fetched again.
+	 */
+	private static final long DEFAULT_CLAIM_PREFETCH_MAX_AGE = 5000L;
+
+	/**
+	 * Maximum number of candidate fetches for a single claim when the candidates are taken by other users in between.
+	 */
+	private static final int MAX_CLAIM_FETCH_COUNT = 3;
+
 	/**
 	 * Reference of BatchInstanceDao.
 	 */
@@ -95,6 +116,26 @@ public class BatchInstanceServiceImpl implements BatchInstanceService {
 	 */
 	private final Object object = new Object();
 
+	/**
+	 * Time in milliseconds for which a claimed batch instance stays with its user without renewal, 0 for no expiry.
+	 */
+	private long claimLeaseTime = DEFAULT_CLAIM_LEASE_TIME;
+
+	/**
+	 * Number of claimable batch instance identifiers fetched at once per set of user roles.
+	 */
+	private int claimPrefetchSize = DEFAULT_CLAIM_PREFETCH_SIZE;
+
+	/**
+	 * Time in milliseconds for which prefetched claimable identifiers are handed out.
+	 */
+	private long claimPrefetchMaxAge = DEFAULT_CLAIM_PREFETCH_MAX_AGE;
+
+	/**
+	 * Prefetched claimable batch instance identifiers per set of user roles.
+	 */
+	private final ClaimCandidateCache claimCandidateCache = new ClaimCandidateCache();
+
 	/**
 	 * An API to fetch all batch instance by batch class.
 	 * 
@@ -665,7 +706,8 @@ public class BatchInstanceServiceImpl implements BatchInstanceService {
 		synchronized (object) {
 			if (null != batchInstanceIdentifier) {
 				batchInstance = getBatchInstanceByIdentifier(batchInstanceIdentifier);
-				if (batchInstance.getCurrentUser() != null && !(batchInstance.getCurrentUser().equalsIgnoreCase(currentUser))) {
+				if (batchInstance.getCurrentUser() != null && !(batchInstance.getCurrentUser().equalsIgnoreCase(currentUser))
+						&& !isClaimExpired(batchInstance)) {
 					throw new BatchAlreadyLockedException("Batch Instance " + batchInstance + " is already locked by "
 							+ batchInstance.getCurrentUser());
 				} else {
@@ -677,10 +719,12 @@ public class BatchInstanceServiceImpl implements BatchInstanceService {
 							case READY_FOR_REVIEW:
 								batchInstance.setReviewUserName(currentUser);
 								batchInstance.setCurrentUser(currentUser);
+								batchInstance.setClaimExpiry(getClaimExpiry(new Date()));
 								break;
 							case READY_FOR_VALIDATION:
 								batchInstance.setValidationUserName(currentUser);
 								batchInstance.setCurrentUser(currentUser);
+								batchInstance.setClaimExpiry(getClaimExpiry(new Date()));
 								break;
 							default:
 								break;
@@ -713,6 +757,7 @@ public class BatchInstanceServiceImpl implements BatchInstanceService {
 			for (BatchInstance batchInstance : batchInstanceList) {
 				LOGGER.info("Unlocking batches for " + currentUser);
 				batchInstance.setCurrentUser(null);
+				batchInstance.setClaimExpiry(null);
 				batchInstanceDao.updateBatchInstance(batchInstance);
 
 			}
@@ -737,6 +782,7 @@ public class BatchInstanceServiceImpl implements BatchInstanceService {
 		}
 		batchInstance = getBatchInstanceByIdentifier(batchInstanceIdentifier);
 		batchInstance.setCurrentUser(null);
+		batchInstance.setClaimExpiry(null);
 		batchInstanceDao.updateBatchInstance(batchInstance);
 	}
 
@@ -790,6 +836,54 @@ public class BatchInstanceServiceImpl implements BatchInstanceService {
 		}
 	}
 
+	/**
+	 * API to claim the given NEW batch instances for an executing server in a single update statement.
+	 * 
+	 * @param batchInstanceIds List<Long>
+	 * @param executingServer {@link String}
+	 * @return List<{@link BatchInstance}> - the batch instances actually claimed by the executing server.
+	 */
+	@Transactional(propagation = Propagation.REQUIRES_NEW)
+	@Override
+	public List<BatchInstance> lockNewBatchInstances(List<Long> batchInstanceIds, String executingServer) {
+		int lockedCount = batchInstanceDao.lockNewBatchInstances(batchInstanceIds, executingServer);
+		LOGGER.debug(lockedCount + " out of " + batchInstanceIds.size() + " batch instances locked for " + executingServer);
+		List<BatchInstance> batchInstances = null;
+		if (lockedCount > 0) {
+			batchInstances = batchInstanceDao.getBatchInstancesByIdsAndExecutingServer(batchInstanceIds, executingServer,
+					BatchInstanceStatus.LOCKED);
+		} else {
+			batchInstances = new ArrayList<BatchInstance>();
+		}
+		return batchInstances;
+	}
+
+	/**
+	 * API to claim the given READY batch instance for an executing server. The batch instance is moved to RUNNING only if it is still in
+	 * READY state.
+	 * 
+	 * @param batchInstanceId long
+	 * @param executingServer {@link String}
+	 * @return boolean, true if the batch instance was claimed by the executing server
+	 */
+	@Transactional(propagation = Propagation.REQUIRES_NEW)
+	@Override
+	public boolean resumeReadyBatchInstance(long batchInstanceId, String executingServer) {
+		return batchInstanceDao.resumeReadyBatchInstance(batchInstanceId, executingServer);
+	}
+
+	/**
+	 * API to count the batch instances in any of the given states on an executing server.
+	 * 
+	 * @param executingServer {@link String}
+	 * @param statusList List<{@link BatchInstanceStatus}>
+	 * @return int, count of batch instances
+	 */
+	@Override
+	public int getExecutingJobCountByServerIP(String executingServer, List<BatchInstanceStatus> statusList) {
+		return batchInstanceDao.getExecutingJobCountByServerIP(executingServer, statusList);
+	}
+
 	/**
 	 * API to get all the batch instances in sorted order.
 	 * 
@@ -1064,4 +1158,129 @@ public class BatchInstanceServiceImpl implements BatchInstanceService {
 		return batchInstanceList;
 	}
 
+	/**
+	 * API to claim the next batch instance ready for review or validation for a user. Candidates are taken from identifiers prefetched
+	 * per set of user roles and each one is claimed with a conditional update, a candidate already taken by another user is skipped.
+	 * 
+	 * @param userRoles Set<{@link String}>
+	 * @param ephesoftUser {@link EphesoftUser}
+	 * @param currentUser {@link String}
+	 * @return {@link BatchInstance}, null if no batch instance could be claimed.
+	 */
+	@Transactional
+	@Override
+	public BatchInstance claimNextBatchInstance(final Set<String> userRoles, final EphesoftUser ephesoftUser, final String currentUser) {
+		BatchInstance batchInstance = null;
+		if (null == currentUser || currentUser.trim().isEmpty()) {
+			LOGGER.warn("Username not specified or is Null. Returning.");
+		} else {
+			final List<BatchInstanceStatus> statusList = getReviewValidateStatusList();
+			final String candidateKey = ClaimCandidateCache.getKey(userRoles, ephesoftUser);
+			int fetchCount = 0;
+			while (null == batchInstance) {
+				String batchInstanceIdentifier = claimCandidateCache.poll(candidateKey, claimPrefetchMaxAge);
+				if (null == batchInstanceIdentifier) {
+					if (fetchCount >= MAX_CLAIM_FETCH_COUNT) {
+						break;
+					}
+					final List<String> candidates = batchInstanceDao.getClaimableBatchInstanceIdentifiers(statusList, claimPrefetchSize,
+							userRoles, ephesoftUser, new Date());
+					fetchCount++;
+					if (null == candidates || candidates.isEmpty()) {
+						break;
+					}
+					claimCandidateCache.put(candidateKey, candidates);
+				} else {
+					batchInstance = claimBatchInstance(batchInstanceIdentifier, currentUser, statusList);
+				}
+			}
+		}
+		return batchInstance;
+	}
+
+	/**
+	 * API to extend the claim of the user on a batch instance when less than half of its lease is left.
+	 * 
+	 * @param batchInstance {@link BatchInstance}
+	 * @param currentUser {@link String}
+	 */
+	@Transactional
+	@Override
+	public void renewBatchInstanceClaim(final BatchInstance batchInstance, final String currentUser) {
+		if (null != batchInstance && claimLeaseTime > 0 && null != batchInstance.getClaimExpiry() && null != currentUser
+				&& currentUser.equals(batchInstance.getCurrentUser())) {
+			final Date currentTime = new Date();
+			if (batchInstance.getClaimExpiry().getTime() - currentTime.getTime() < claimLeaseTime / 2) {
+				final Date claimExpiry = getClaimExpiry(currentTime);
+				if (batchInstanceDao.claimBatchInstance(batchInstance.getIdentifier(), currentUser, getReviewValidateStatusList(),
+						currentTime, claimExpiry)) {
+					batchInstance.setClaimExpiry(claimExpiry);
+				}
+			}
+		}
+	}
+
+	private BatchInstance claimBatchInstance(final String batchInstanceIdentifier, final String currentUser,
+			final List<BatchInstanceStatus> statusList) {
+		BatchInstance batchInstance = null;
+		final Date currentTime = new Date();
+		if (batchInstanceDao.claimBatchInstance(batchInstanceIdentifier, currentUser, statusList, currentTime,
+				getClaimExpiry(currentTime))) {
+			LOGGER.info(currentUser + " claimed batch " + batchInstanceIdentifier);
+			batchInstance = batchInstanceDao.getBatchInstancesForIdentifier(batchInstanceIdentifier);
+			if (BatchInstanceStatus.READY_FOR_REVIEW == batchInstance.getStatus()) {
+				batchInstance.setReviewUserName(currentUser);
+			} else {
+				batchInstance.setValidationUserName(currentUser);
+			}
+			batchInstanceDao.updateBatchInstance(batchInstance);
+		}
+		return batchInstance;
+	}
+
+	private List<BatchInstanceStatus> getReviewValidateStatusList() {
+		List<BatchInstanceStatus> statusList = new ArrayList<BatchInstanceStatus>();
+		statusList.add(BatchInstanceStatus.READY_FOR_REVIEW);
+		statusList.add(BatchInstanceStatus.READY_FOR_VALIDATION);
+		return statusList;
+	}
+
+	private Date getClaimExpiry(final Date currentTime) {
+		Date claimExpiry = null;
+		if (claimLeaseTime > 0) {
+			claimExpiry = new Date(currentTime.getTime() + claimLeaseTime);
+		}
+		return claimExpiry;
+	}
+
+	private boolean isClaimExpired(final BatchInstance batchInstance) {
+		return null != batchInstance.getClaimExpiry() && batchInstance.getClaimExpiry().before(new Date());
+	}
+
+	/**
+	 * To set the claim lease time.
+	 * 
+	 * @param claimLeaseTime long
+	 */
+	public void setClaimLeaseTime(final long claimLeaseTime) {
+		this.claimLeaseTime = claimLeaseTime;
+	}
+
+	/**
+	 * To set the claim prefetch size.
+	 * 
+	 * @param claimPrefetchSize int
+	 */
+	public void setClaimPrefetchSize(final int claimPrefetchSize) {
+		this.claimPrefetchSize = claimPrefetchSize;
+	}
+
+	/**
+	 * To set the claim prefetch max age.
+	 * 
+	 * @param claimPrefetchMaxAge long
+	 */
+	public void setClaimPrefetchMaxAge(final long claimPrefetchMaxAge) {
+		this.claimPrefetchMaxAge = claimPrefetchMaxAge;
+	}
 }
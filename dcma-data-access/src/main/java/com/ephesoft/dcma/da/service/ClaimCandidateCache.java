@@ -0,0 +1,138 @@
+/********************************************************************************* 
+* Ephesoft is a Intelligent Document Capture and Mailroom Automation program 
+* developed by Ephesoft, Inc. Copyright (C) 2010-2012 Ephesoft Inc. 
+* 
+* This program is free software; you can redistribute it and/or modify it under 
+* the terms of the GNU Affero General Public License version 3 as published by the 
+* Free Software Foundation with the addition of the following permission added 
+* to Section 15 as permitted in Section 7(a): FOR ANY PART OF THE COVERED WORK 
+* IN WHICH THE COPYRIGHT IS OWNED BY EPHESOFT, EPHESOFT DISCLAIMS THE WARRANTY 
+* OF NON INFRINGEMENT OF THIRD PARTY RIGHTS. 
+* 
+* This program is distributed in the hope that it will be useful, but WITHOUT 
+* ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+* FOR A PARTICULAR PURPOSE.  See the GNU Affero General Public License for more 
+* details. 
+* 
+* You should have received a copy of the GNU Affero General Public License along with 
+* this program; if not, see http://www.gnu.org/licenses or write to the Free 
+* Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 
+* 02110-1301 USA. 
+* 
+* You can contact Ephesoft, Inc. headquarters at 111 Academy Way, 
+* Irvine, CA 92617, USA. or at email address info@ephesoft.com. 
+* 
+* The interactive user interfaces in modified source and object code versions 
+* of this program must display Appropriate Legal Notices, as required under 
+* Section 5 of the GNU Affero General Public License version 3. 
+* 
+* In accordance with Section 7(b) of the GNU Affero General Public License version 3, 
+* these Appropriate Legal Notices must retain the display of the "Ephesoft" logo. 
+* If the display of the logo is not reasonably feasible for 
+* technical reasons, the Appropriate Legal Notices must display the words 
+* "Powered by Ephesoft". 
+********************************************************************************/ 
+
+package com.ephesoft.dcma.da.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+
+import com.ephesoft.dcma.core.common.EphesoftUser;
+
+/**
+ * This class keeps a short lived queue of claimable batch instance identifiers per set of user roles, so that operators asking for
+ * their next batch are served from one query instead of one query each. Identifiers are handed out once; a stale identifier only
+ * makes the conditional claim fail and the caller moves on to the next one.
+ * 
+ * @author Ephesoft
+ * @version 1.0
+ * @see com.ephesoft.dcma.da.service.BatchInstanceServiceImpl
+ */
+class ClaimCandidateCache {
+
+	/**
+	 * Separator used to build the cache key from the user roles.
+	 */
+	private static final char KEY_SEPARATOR = '\0';
+
+	/**
+	 * Candidate queues by user roles key.
+	 */
+	private final ConcurrentMap<String, Candidates> candidates = new ConcurrentHashMap<String, Candidates>();
+
+	/**
+	 * To get the cache key for the user roles and the type of user.
+	 * 
+	 * @param userRoles Set<{@link String}>
+	 * @param ephesoftUser {@link EphesoftUser}
+	 * @return {@link String}
+	 */
+	static String getKey(final Set<String> userRoles, final EphesoftUser ephesoftUser) {
+		final StringBuilder key = new StringBuilder(String.valueOf(ephesoftUser));
+		if (null != userRoles) {
+			final List<String> sortedRoles = new ArrayList<String>(userRoles);
+			Collections.sort(sortedRoles);
+			for (final String userRole : sortedRoles) {
+				key.append(KEY_SEPARATOR).append(userRole);
+			}
+		}
+		return key.toString();
+	}
+
+	/**
+	 * To take the next candidate identifier for the key.
+	 * 
+	 * @param key {@link String}
+	 * @param maxAgeMillis long, candidates fetched earlier than this are not handed out
+	 * @return {@link String}, null if there is no fresh candidate left
+	 */
+	String poll(final String key, final long maxAgeMillis) {
+		String identifier = null;
+		final Candidates entry = candidates.get(key);
+		if (null != entry) {
+			if (System.currentTimeMillis() - entry.fetchTime < maxAgeMillis) {
+				identifier = entry.identifiers.poll();
+			} else {
+				candidates.remove(key, entry);
+			}
+		}
+		return identifier;
+	}
+
+	/**
+	 * To replace the candidate identifiers for the key.
+	 * 
+	 * @param key {@link String}
+	 * @param identifiers List<{@link String}>
+	 */
+	void put(final String key, final List<String> identifiers) {
+		candidates.put(key, new Candidates(identifiers));
+	}
+
+	/**
+	 * Candidate identifiers with the time they were fetched.
+	 */
+	private static class Candidates {
+
+		/**
+		 * Time of the fetch.
+		 */
+		private final long fetchTime = System.currentTimeMillis();
+
+		/**
+		 * Identifiers not handed out yet, in claim order.
+		 */
+		private final Queue<String> identifiers;
+
+		Candidates(final List<String> identifiers) {
+			this.identifiers = new ConcurrentLinkedQueue<String>(identifiers);
+		}
+	}
+}
@@ -240,6 +240,7 @@ public class DocushareExporter implements ICommonConstants {
 		String baseDocsFolder = exportToFolder + File.separator + batchInstanceID;
 		String sourceXMLPath = baseDocsFolder + File.separator + batchInstanceID + ICommonConstants.UNDERSCORE_BATCH_XML;
 		String targetXmlPath = baseDocsFolder + File.separator + batchInstanceID + finalXmlName;
+		batchSchemaService.writeBatchXml(batchInstanceID);
 		InputStream xslStream = null;
 		InputStream xmlStream = null;
 		try {
@@ -126,39 +126,28 @@ public class FolderDetail implements Comparable<FolderDetail> {
 			isEqual =  false;
 		} else {
 			FolderDetail other = (FolderDetail) obj;
-			if (folderName == null) {
-				if (other.folderName != null) {
-					isEqual = false;
-				}
-			} else if (!folderName.equals(other.folderName)) {
-				isEqual = false;
-			} else if (parentPath == null) {
-				if (other.parentPath != null) {
-					isEqual = false;
-				}
-			} else if (!parentPath.equals(other.parentPath)) {
-				isEqual = false;
-			}
-			isEqual = true;
+			boolean isFolderNameEqual = (folderName == null) ? other.folderName == null : folderName.equals(other.folderName);
+			boolean isParentPathEqual = (parentPath == null) ? other.parentPath == null : parentPath.equals(other.parentPath);
+			isEqual = isFolderNameEqual && isParentPathEqual;
 		}
 		return isEqual;
 	}
 	/**
-	 * Implementation of compareTo method.
+	 * Implementation of compareTo method. Details are ordered by creation time, ties are broken on the full path so that distinct
+	 * folders created in the same millisecond are not collapsed.
 	 * @param folderDetails {@link FolderDetail}
 	 * @return int
 	 */
 	@Override
 	public int compareTo(final FolderDetail folderDetails) {
-		int isEqual;
-		if (this.equals(folderDetails)) {
-			isEqual = 0;
-		}
+		int result;
 		if (this.getCreationTime() < folderDetails.getCreationTime()) {
-			isEqual = -1;
+			result = -1;
+		} else if (this.getCreationTime() > folderDetails.getCreationTime()) {
+			result = +1;
+		} else {
+			result = this.getFullPath().compareTo(folderDetails.getFullPath());
 		}
-		isEqual = +1;
-		
-		return isEqual;
+		return result;
 	}
 }
@@ -37,6 +37,8 @@ package com.ephesoft.dcma.monitor;
 
 import java.util.Collection;
 import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Set;
@@ -86,7 +88,7 @@ public final class PrioritizedFolderContainer {
 
 				result = o1Priority.compareTo(o2Priority);
 				if (result == 0) {
-					result = +1;
+					result = batchClass1.getId() < batchClass2.getId() ? -1 : +1;
 				}
 			}
 			return result;
@@ -100,26 +102,79 @@ public final class PrioritizedFolderContainer {
 		this.waitTime = waitTime;
 	}
 	/**
-	 * To add the batch class.
+	 * To add the batch class. A batch class already present is replaced so that a changed priority is re-ordered, folders still
+	 * pending for its unc folder are kept.
 	 * @param batchClass {@link BatchClass}
 	 */
 	public void addBatchClasss(BatchClass batchClass) {
-		uncFolders.put(batchClass, new UncFolder(batchClass.getUncFolder()));
+		synchronized (object) {
+			UncFolder uncFolder = removeUncFolder(batchClass.getIdentifier());
+			if (uncFolder == null || !uncFolder.getUncFolderPath().equals(batchClass.getUncFolder())) {
+				uncFolder = new UncFolder(batchClass.getUncFolder());
+			}
+			uncFolders.put(batchClass, uncFolder);
+		}
+	}
+
+	/**
+	 * To remove the batch class along with the folders pending for it.
+	 * @param batchClassIdentifier {@link String}
+	 */
+	public void removeBatchClass(String batchClassIdentifier) {
+		synchronized (object) {
+			removeUncFolder(batchClassIdentifier);
+		}
+	}
+
+	private UncFolder removeUncFolder(String batchClassIdentifier) {
+		UncFolder uncFolder = null;
+		final Iterator<Map.Entry<BatchClass, UncFolder>> iterator = uncFolders.entrySet().iterator();
+		while (iterator.hasNext()) {
+			final Map.Entry<BatchClass, UncFolder> entry = iterator.next();
+			if (entry.getKey().getIdentifier().equals(batchClassIdentifier)) {
+				uncFolder = entry.getValue();
+				iterator.remove();
+				break;
+			}
+		}
+		return uncFolder;
 	}
+
 	/**
-	 * This method is used to add the folder details.
+	 * This method is used to add the folder details. A folder already waiting in the container is not added again.
 	 * @param folderDetail {@link FolderDetail}
+	 * @return boolean true if the folder detail was queued, false if no batch class watches its parent folder or it is already queued
 	 */
-	public void addFolderDetail(FolderDetail folderDetail) {
+	public boolean addFolderDetail(FolderDetail folderDetail) {
+		boolean isAdded = false;
 		synchronized (object) {
 			final Collection<UncFolder> folders = uncFolders.values();
 			for (UncFolder uncFolder : folders) {
 				if (uncFolder.getUncFolderPath().equals(folderDetail.getParentPath())) {
-					uncFolder.addFolderDetail(folderDetail);
+					isAdded = uncFolder.addFolderDetail(folderDetail);
 					break;
 				}
 			}
 		}
+		return isAdded;
+	}
+
+	/**
+	 * To check whether a batch class is watching the given unc folder.
+	 * @param uncFolderPath {@link String}
+	 * @return boolean
+	 */
+	public boolean containsUncFolder(String uncFolderPath) {
+		boolean isPresent = false;
+		synchronized (object) {
+			for (UncFolder uncFolder : uncFolders.values()) {
+				if (uncFolder.getUncFolderPath().equals(uncFolderPath)) {
+					isPresent = true;
+					break;
+				}
+			}
+		}
+		return isPresent;
 	}
 	
 	/**
@@ -157,6 +212,10 @@ public final class PrioritizedFolderContainer {
 		 * A set of type {@link FolderDetail} .
 		 */
 		final private Set<FolderDetail> folderDetails = new TreeSet<FolderDetail>();
+		/**
+		 * Full paths of the queued folder details, used to drop repeated events for the same folder.
+		 */
+		final private Set<String> queuedPaths = new HashSet<String>();
 		/**
 		 * Parameterized constructor.
 		 * @param uncFolderPath {@link String}
@@ -167,21 +226,33 @@ public final class PrioritizedFolderContainer {
 		/**
 		 * This method is used to add details to the folder.
 		 * @param folderDetail {@link FolderDetail}
+		 * @return boolean false if the folder is already queued
 		 */
-		public void addFolderDetail(FolderDetail folderDetail) {
-			folderDetails.add(folderDetail);
-			LOGGER.trace("PUSH::" + folderDetail.getFullPath());
+		public boolean addFolderDetail(FolderDetail folderDetail) {
+			boolean isAdded = false;
+			if (queuedPaths.add(folderDetail.getFullPath())) {
+				folderDetails.add(folderDetail);
+				isAdded = true;
+				LOGGER.trace("PUSH::" + folderDetail.getFullPath());
+			}
+			return isAdded;
 		}
 		/**
-		 * @return {@link FolderDetail}
+		 * To poll the oldest folder detail that has waited for at least the wait time.
+		 * @return {@link FolderDetail} null if no folder detail is ready
 		 */
 		public FolderDetail poll() {
 			FolderDetail folderDetail = null;
 			try {
-				folderDetail = ((TreeSet<FolderDetail>) this.folderDetails).first();
-				if (folderDetail != null && (System.currentTimeMillis() - folderDetail.getCreationTime()) >= waitTime) {
-					LOGGER.trace("PULL::" + folderDetail.getFullPath());
-					folderDetail = ((TreeSet<FolderDetail>) this.folderDetails).pollFirst();
+				if (!folderDetails.isEmpty()) {
+					folderDetail = ((TreeSet<FolderDetail>) this.folderDetails).first();
+					if ((System.currentTimeMillis() - folderDetail.getCreationTime()) >= waitTime) {
+						LOGGER.trace("PULL::" + folderDetail.getFullPath());
+						folderDetails.remove(folderDetail);
+						queuedPaths.remove(folderDetail.getFullPath());
+					} else {
+						folderDetail = null;
+					}
 				}
 			} catch (NoSuchElementException e) {
 				LOGGER.error("No such element is found:" + e.getMessage(), e);
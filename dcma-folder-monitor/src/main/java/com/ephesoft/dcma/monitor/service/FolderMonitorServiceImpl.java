@@ -40,11 +40,20 @@ import java.io.RandomAccessFile;
 import java.nio.channels.FileChannel;
 import java.nio.channels.FileLock;
 import java.nio.channels.OverlappingFileLockException;
+import java.util.Arrays;
 import java.util.HashMap;
-import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import net.contentobjects.jnotify.JNotify;
 import net.contentobjects.jnotify.JNotifyException;
@@ -64,6 +73,7 @@ import com.ephesoft.dcma.da.service.BatchInstanceService;
 import com.ephesoft.dcma.monitor.EphesoftFolderListner;
 import com.ephesoft.dcma.monitor.FolderDetail;
 import com.ephesoft.dcma.monitor.FolderModificationEvent;
+import com.ephesoft.dcma.monitor.PrioritizedFolderContainer;
 import com.ephesoft.dcma.monitor.service.foldermonitorconstants.FolderMoniterConstants;
 import com.ephesoft.dcma.util.ApplicationConfigProperties;
 import com.ephesoft.dcma.util.FileUtils;
@@ -121,10 +131,75 @@ public class FolderMonitorServiceImpl implements FolderMonitorService, Applicati
 	 * A variable to store the wait time.
 	 */
 	private long waitTime;
-	
+
+	/**
+	 * Number of worker threads creating batch instances for the folders that are ready.
+	 */
+	private int workerThreads = FolderMoniterConstants.DEFAULT_WORKER_THREADS;
+
+	/**
+	 * Upper bound of the wait between two stability checks of the same folder.
+	 */
+	private long maxBackoffTime = FolderMoniterConstants.DEFAULT_MAX_BACKOFF_TIME;
+
+	/**
+	 * Interval after which the cached batch classes are reloaded, a value less than or equal to 0 disables the reload.
+	 */
+	private long batchClassRefreshInterval = FolderMoniterConstants.DEFAULT_BATCH_CLASS_REFRESH_INTERVAL;
+
+	/**
+	 * Time after which a folder that keeps changing is processed anyway.
+	 */
+	private long copyTimeout = FolderMoniterConstants.SLEEP_TIME_3600000L;
+
+	/**
+	 * Cached batch classes against their unc folder.
+	 */
+	private final Map<String, BatchClass> uncFolderVsBatchClassMap = new ConcurrentHashMap<String, BatchClass>();
+
+	/**
+	 * Folders waiting for their content to settle against their full path. Repeated events for a folder already present are dropped.
+	 */
+	private final ConcurrentMap<String, FolderStabilityCheck> pendingFolders = new ConcurrentHashMap<String, FolderStabilityCheck>();
+
+	/**
+	 * Folders whose content has settled, handed out to the workers by batch class priority.
+	 */
+	private final PrioritizedFolderContainer folderContainer = new PrioritizedFolderContainer(0L);
+
+	/**
+	 * Single thread running the stability checks and the batch class reload.
+	 */
+	private volatile ScheduledExecutorService stabilityExecutor;
+
+	/**
+	 * Fixed pool processing the folders that are ready.
+	 */
+	private volatile ExecutorService workerExecutor;
+
+	/**
+	 * Processes the next ready folder of the container.
+	 */
+	private final Runnable folderWorker = new Runnable() {
+
+		@Override
+		public void run() {
+			FolderDetail folderDetail = folderContainer.next();
+			if (folderDetail != null) {
+				try {
+					processFolderDetail(folderDetail);
+				} catch (RuntimeException e) {
+					LOGGER.error("Error while processing folder " + folderDetail.getFullPath(), e);
+				}
+			}
+		}
+	};
+
 	@Override
 	public void start() {
 		List<BatchClass> batchClasses = batchClassService.getAllBatchClassesExcludeDeleted();
+		refreshBatchClassCache(batchClasses);
+		startExecutors();
 		pickOldUnPickedBatches(batchClasses);
 		for (BatchClass batchClass : batchClasses) {
 			addWatch(batchClass);
@@ -163,9 +238,105 @@ public class FolderMonitorServiceImpl implements FolderMonitorService, Applicati
 	public void stop() {
 		removeWatch();
 		unlockLocalFolder();
+		stopExecutors();
 		running = false;
 	}
 
+	private synchronized void startExecutors() {
+		if (stabilityExecutor == null) {
+			copyTimeout = readCopyTimeout();
+			stabilityExecutor = Executors.newSingleThreadScheduledExecutor(createThreadFactory(
+					FolderMoniterConstants.STABILITY_THREAD_NAME, false));
+			workerExecutor = Executors.newFixedThreadPool(Math.max(1, workerThreads), createThreadFactory(
+					FolderMoniterConstants.WORKER_THREAD_NAME, true));
+			if (batchClassRefreshInterval > 0) {
+				stabilityExecutor.scheduleWithFixedDelay(new Runnable() {
+
+					@Override
+					public void run() {
+						try {
+							refreshBatchClassCache(batchClassService.getAllBatchClassesExcludeDeleted());
+						} catch (RuntimeException e) {
+							LOGGER.error("Unable to refresh the batch classes watched by folder monitor.", e);
+						}
+					}
+				}, batchClassRefreshInterval, batchClassRefreshInterval, TimeUnit.MILLISECONDS);
+			}
+		}
+	}
+
+	private synchronized void stopExecutors() {
+		if (stabilityExecutor != null) {
+			stabilityExecutor.shutdownNow();
+			workerExecutor.shutdown();
+			stabilityExecutor = null;
+			workerExecutor = null;
+			pendingFolders.clear();
+		}
+	}
+
+	private ThreadFactory createThreadFactory(final String threadName, final boolean isNumbered) {
+		final AtomicInteger threadCount = new AtomicInteger();
+		return new ThreadFactory() {
+
+			@Override
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, isNumbered ? threadName + threadCount.incrementAndGet() : threadName);
+				thread.setDaemon(true);
+				return thread;
+			}
+		};
+	}
+
+	private long readCopyTimeout() {
+		long timeoutLimit;
+		try {
+			String timeOutString = ApplicationConfigProperties.getApplicationConfigProperties().getProperty(
+					FolderMoniterConstants.BATCH_COPY_TIMEOUT);
+			timeoutLimit = Long.valueOf(timeOutString) * FolderMoniterConstants.SLEEP_TIME_1000L;
+		} catch (Exception exception) {
+			timeoutLimit = FolderMoniterConstants.SLEEP_TIME_3600000L;
+		}
+		return timeoutLimit;
+	}
+
+	private synchronized void refreshBatchClassCache(List<BatchClass> batchClasses) {
+		Map<String, BatchClass> batchClassMap = new HashMap<String, BatchClass>();
+		for (BatchClass batchClass : batchClasses) {
+			if (batchClass.getUncFolder() != null) {
+				batchClassMap.put(batchClass.getUncFolder(), batchClass);
+			}
+		}
+		for (BatchClass batchClass : uncFolderVsBatchClassMap.values()) {
+			if (!batchClassMap.containsKey(batchClass.getUncFolder())) {
+				folderContainer.removeBatchClass(batchClass.getIdentifier());
+			}
+		}
+		uncFolderVsBatchClassMap.keySet().retainAll(batchClassMap.keySet());
+		for (BatchClass batchClass : batchClassMap.values()) {
+			folderContainer.addBatchClasss(batchClass);
+		}
+		uncFolderVsBatchClassMap.putAll(batchClassMap);
+	}
+
+	private synchronized void cacheBatchClass(BatchClass batchClass) {
+		removeCachedBatchClass(batchClass.getIdentifier());
+		if (batchClass.getUncFolder() != null) {
+			uncFolderVsBatchClassMap.put(batchClass.getUncFolder(), batchClass);
+			folderContainer.addBatchClasss(batchClass);
+		}
+	}
+
+	private synchronized void removeCachedBatchClass(String batchClassIdentifier) {
+		Iterator<BatchClass> iterator = uncFolderVsBatchClassMap.values().iterator();
+		while (iterator.hasNext()) {
+			if (iterator.next().getIdentifier().equals(batchClassIdentifier)) {
+				iterator.remove();
+			}
+		}
+		folderContainer.removeBatchClass(batchClassIdentifier);
+	}
+
 	@Override
 	public boolean isRunning() {
 		return running;
@@ -200,67 +371,187 @@ public class FolderMonitorServiceImpl implements FolderMonitorService, Applicati
 		return waitTime;
 	}
 	/**
-	 * Handle an application event.
+	 * setter for workerThreads.
+	 * @param workerThreads int
+	 */
+	public void setWorkerThreads(int workerThreads) {
+		this.workerThreads = workerThreads;
+	}
+	/**
+	 * getter for workerThreads.
+	 * @return int
+	 */
+	public int getWorkerThreads() {
+		return workerThreads;
+	}
+	/**
+	 * setter for maxBackoffTime.
+	 * @param maxBackoffTime long
+	 */
+	public void setMaxBackoffTime(long maxBackoffTime) {
+		this.maxBackoffTime = maxBackoffTime;
+	}
+	/**
+	 * getter for maxBackoffTime.
+	 * @return long
+	 */
+	public long getMaxBackoffTime() {
+		return maxBackoffTime;
+	}
+	/**
+	 * setter for batchClassRefreshInterval.
+	 * @param batchClassRefreshInterval long
+	 */
+	public void setBatchClassRefreshInterval(long batchClassRefreshInterval) {
+		this.batchClassRefreshInterval = batchClassRefreshInterval;
+	}
+	/**
+	 * getter for batchClassRefreshInterval.
+	 * @return long
+	 */
+	public long getBatchClassRefreshInterval() {
+		return batchClassRefreshInterval;
+	}
+	/**
+	 * Handle an application event. The folder is only queued here, its content is checked for stability on the stability thread and
+	 * the batch instance is created on the worker pool.
 	 * @param event {@link FolderModificationEvent}
 	 */
 	@Override
 	public void onApplicationEvent(final FolderModificationEvent event) {
+		final FolderDetail folderDetail = event.getFolderDetail();
+		if (folderDetail != null) {
+			final String fullPath = folderDetail.getFullPath();
+			if (stabilityExecutor == null) {
+				LOGGER.warn("Folder monitor is not running, ignoring " + fullPath);
+			} else {
+				final FolderStabilityCheck stabilityCheck = new FolderStabilityCheck(folderDetail);
+				if (pendingFolders.putIfAbsent(fullPath, stabilityCheck) == null) {
+					LOGGER.debug(FolderMoniterConstants.FOLDER_NAME + fullPath + " queued for stability check.");
+					scheduleStabilityCheck(stabilityCheck, 0L);
+				} else {
+					LOGGER.debug(FolderMoniterConstants.FOLDER_NAME + fullPath + " is already waiting for stability check.");
+				}
+			}
+		}
+	}
 
-		Thread thread = new Thread(new Runnable() {
+	private void scheduleStabilityCheck(FolderStabilityCheck stabilityCheck, long delay) {
+		final ScheduledExecutorService executor = stabilityExecutor;
+		boolean isScheduled = false;
+		if (executor != null) {
+			try {
+				executor.schedule(stabilityCheck, delay, TimeUnit.MILLISECONDS);
+				isScheduled = true;
+			} catch (RejectedExecutionException e) {
+				LOGGER.debug("Stability check rejected, folder monitor is stopping.");
+			}
+		}
+		if (!isScheduled) {
+			pendingFolders.remove(stabilityCheck.getFolderDetail().getFullPath());
+		}
+	}
 
-			@Override
-			public void run() {
+	private void dispatchReadyFolder(FolderDetail folderDetail) {
+		if (!folderContainer.containsUncFolder(folderDetail.getParentPath())) {
+			refreshBatchClassCache(batchClassService.getAllBatchClassesExcludeDeleted());
+		}
+		final ExecutorService executor = workerExecutor;
+		if (executor != null && folderContainer.addFolderDetail(folderDetail)) {
+			try {
+				executor.execute(folderWorker);
+			} catch (RejectedExecutionException e) {
+				LOGGER.debug("Folder " + folderDetail.getFullPath() + " rejected, folder monitor is stopping.");
+			}
+		} else {
+			LOGGER.info(FolderMoniterConstants.FOLDER_NAME + folderDetail.getFullPath()
+					+ " is not watched by any batch class or is already queued.");
+		}
+	}
 
-				FolderDetail folderDetail = event.getFolderDetail();
-				File folderToCheck = null;
-				boolean isFile = FileUtils.checkForFile(folderDetail.getFullPath());
+	private void processFolderDetail(FolderDetail folderDetail) {
+		boolean isFile = FileUtils.checkForFile(folderDetail.getFullPath());
+		LOGGER.info("Folder :: " + folderDetail.getFullPath() + " isFile :: " + isFile);
+		if (isFile) {
+			// Move the file to newly created batch folder, the new folder is picked by its own event.
+			performFileCopyOperation(folderDetail);
+		} else {
+			BatchClass batchClass = uncFolderVsBatchClassMap.get(folderDetail.getParentPath());
+			if (batchClass == null) {
+				LOGGER.error("No batch class found for unc folder " + folderDetail.getParentPath());
+			} else {
+				LOGGER.info("Creating batch instance.");
+				batchInstanceService.createBatchInstance(batchClass, folderDetail.getFullPath(), batchClass.getSystemFolder(),
+						batchClass.getPriority());
+			}
+		}
+	}
 
-				// Move the file to newly created batch folder.
-				if (isFile) {
-					performFileCopyOperation(folderDetail);
+	/**
+	 * Takes the file count, total size and latest modification time of a file or of all the files under a folder.
+	 * 
+	 * @param file {@link File}
+	 * @return long[]
+	 */
+	private long[] takeSnapshot(File file) {
+		long[] snapshot = new long[3];
+		addToSnapshot(file, snapshot);
+		return snapshot;
+	}
+
+	private void addToSnapshot(File file, long[] snapshot) {
+		if (file.isDirectory()) {
+			File[] children = file.listFiles();
+			if (children != null) {
+				for (File child : children) {
+					addToSnapshot(child, snapshot);
 				}
-				LOGGER.debug(FolderMoniterConstants.FOLDER_NAME + folderDetail.getFullPath() + " is File :: " + isFile);
-				if (folderDetail != null && !isFile) {
-					String folderPath = folderDetail.getFullPath();
-					Set<String> inspectedFiles = new HashSet<String>();
-					folderToCheck = new File(folderPath);
-					if (folderToCheck != null && folderToCheck.exists()) {
-						String[] fileList = folderToCheck.list();
-						fileList = waitingFileListUpdate(folderToCheck, fileList);
-						LOGGER.debug(FolderMoniterConstants.FOLDER_NAME + folderDetail.getFullPath() + " file length :: " + fileList.length);
-						boolean fileCopiedSuccessfully = false;
-						while (!fileCopiedSuccessfully) {
-							boolean isFirstTime = true;
-							isFirstTime = waitingForFileListUpdation(inspectedFiles, fileList, isFirstTime);
-							fileCopiedSuccessfully = checkFileCopyOperation(inspectedFiles, fileList, fileCopiedSuccessfully,
-									isFirstTime);
-							for (String filePath : fileList) {
-								LOGGER.debug(FolderMoniterConstants.FOLDER_NAME + folderDetail.getFullPath() + "File name :: " + filePath);
-								checkFilePresent(folderDetail, folderPath, inspectedFiles, filePath);
-							}
-							fileList = folderToCheck.list();
-						}
+			}
+		} else {
+			snapshot[0]++;
+			snapshot[1] += file.length();
+			snapshot[2] = Math.max(snapshot[2], file.lastModified());
+		}
+	}
+
+	/**
+	 * Checks that a file or all the files under a folder can be opened for writing, i.e. no other process is still copying them.
+	 * 
+	 * @param file {@link File}
+	 * @return boolean
+	 */
+	private boolean isAccessible(File file) {
+		boolean isAccessible = true;
+		if (file.isDirectory()) {
+			File[] children = file.listFiles();
+			if (children != null) {
+				for (File child : children) {
+					if (!isAccessible(child)) {
+						isAccessible = false;
+						break;
 					}
 				}
-				LOGGER.info("Folder :: " + folderDetail.getFullPath() + " isFile_2 :: " + isFile);
-				if (!isFile) {
-					LOGGER.info("Creating batch instance.");
-					List<BatchClass> batchClasses = batchClassService.getAllBatchClassesExcludeDeleted();
-					for (BatchClass batchClass : batchClasses) {
-						if (batchClass.getUncFolder().equals(folderDetail.getParentPath())) {
-							final String batchClassIdentifier = batchClass.getIdentifier();
-							batchInstanceService.createBatchInstance(batchClass, folderDetail.getFullPath(), batchClassService
-									.getSystemFolderForBatchClassIdentifier(batchClassIdentifier), batchClass.getPriority());
-							break;
-						}
+			}
+		} else {
+			RandomAccessFile randomAccessFile = null;
+			try {
+				randomAccessFile = new RandomAccessFile(file, "rw");
+			} catch (Exception ex) {
+				LOGGER.debug("Error in opening file " + file.getAbsolutePath());
+				isAccessible = false;
+			} finally {
+				if (randomAccessFile != null) {
+					try {
+						randomAccessFile.close();
+					} catch (java.io.IOException e) {
+						LOGGER.info("Unable to close file: " + e.getMessage());
 					}
 				}
 			}
-
-
-		});
-		thread.start();
+		}
+		return isAccessible;
 	}
+
 	/**
 	 * API to monitor the batch class given it's BatchClassID.
 	 * @param batchClassID {@link BatchClassID}
@@ -269,6 +560,7 @@ public class FolderMonitorServiceImpl implements FolderMonitorService, Applicati
 	public void monitorBatchClass(BatchClassID batchClassID) {
 		BatchClass batchClass = batchClassService.getBatchClassByIdentifier(batchClassID.getID());
 		addWatch(batchClass);
+		cacheBatchClass(batchClass);
 	}
 
 	private void addWatch(BatchClass batchClass) throws DCMABusinessException {
@@ -333,107 +625,6 @@ public class FolderMonitorServiceImpl implements FolderMonitorService, Applicati
 		}
 	}
 
-	private void checkFilePresent(FolderDetail folderDetail, String folderPath, Set<String> inspectedFiles, String filePath) {
-		if (!inspectedFiles.contains(filePath)) {
-			String inputFilePath = folderPath + File.separator + filePath;
-			File fileToCheck = new File(inputFilePath);
-			if (fileToCheck.exists()) {
-				checkingDirectoryAndCopyData(folderDetail, inspectedFiles, filePath, inputFilePath, fileToCheck);
-			}
-		}
-	}
-
-	private void checkingDirectoryAndCopyData(FolderDetail folderDetail, Set<String> inspectedFiles, String filePath,
-			String inputFilePath, File fileToCheck) {
-		if (fileToCheck.isDirectory()) {
-			String[] fileListOfFolder = fileToCheck.list();
-			Set<String> inspectedFilesInside = new HashSet<String>();
-			while (fileListOfFolder.length != inspectedFilesInside.size()) {
-				for (String filePathInside : fileListOfFolder) {
-					if (!inspectedFilesInside.contains(filePathInside)) {
-						String inputFilePathFolder = fileToCheck + File.separator + filePathInside;
-						File fileToCheckInside = new File(inputFilePathFolder);
-						if (fileToCheckInside.exists()) {
-
-							RandomAccessFile randomAccessFileInside = null;
-							try {
-								randomAccessFileInside = new RandomAccessFile(fileToCheckInside, "rw");
-								inspectedFilesInside.add(filePathInside);
-							} catch (Exception ex) {
-								LOGGER.info("Error in opening file " + inputFilePathFolder);
-							} finally {
-								closingFile(randomAccessFileInside);
-							}
-
-						}
-					}
-				}
-				fileListOfFolder = fileToCheck.list();
-
-			}
-			inspectedFiles.add(filePath);
-		} else {
-			RandomAccessFile randomAccessFile = null;
-			try {
-				LOGGER.debug(FolderMoniterConstants.FOLDER_NAME + folderDetail.getFullPath() + " Adding to inspected file ::" + filePath);
-				randomAccessFile = new RandomAccessFile(fileToCheck, "rw");
-				inspectedFiles.add(filePath);
-			} catch (Exception ex) {
-				LOGGER.info("Error in opening file " + inputFilePath);
-			} finally {
-				closingFile(randomAccessFile);
-			}
-		}
-	}
-
-	private void closingFile(RandomAccessFile randomAccessFile) {
-		if (randomAccessFile != null) {
-			try {
-				randomAccessFile.close();
-			} catch (java.io.IOException e) {
-				LOGGER.info("Unable to close file: " + e.getMessage());
-			}
-		} else {
-			try {
-				Thread.sleep(FolderMoniterConstants.SLEEP_TIME_5000);
-			} catch (InterruptedException ex) {
-				LOGGER.info(ex.getMessage());
-			}
-		}
-	}
-
-	private boolean checkFileCopyOperation(Set<String> inspectedFiles, String[] fileList, boolean fileCopiedSuccessfully,
-			boolean isFirstTime) {
-		boolean localFileCopiedSuccessfully = fileCopiedSuccessfully;
-		if (!isFirstTime && (fileList.length == inspectedFiles.size())) {
-			localFileCopiedSuccessfully = true;
-		}
-		return localFileCopiedSuccessfully;
-	}
-
-	private boolean waitingForFileListUpdation(Set<String> inspectedFiles, String[] fileList, boolean isFirstTime) {
-		boolean localFirstTime = isFirstTime;
-		if (localFirstTime && (fileList.length == inspectedFiles.size())) {
-			localFirstTime = false;
-			try {
-				Thread.sleep(FolderMoniterConstants.SLEEP_TIME_30000);
-			} catch (InterruptedException e) {
-			}
-		}
-		return localFirstTime;
-	}
-
-	private String[] waitingFileListUpdate(File folderToCheck, String[] fileList) {
-		String[] localFileList = fileList;
-		if (localFileList == null) {
-			try {
-				Thread.sleep(FolderMoniterConstants.SLEEP_TIME_1000);
-				localFileList = folderToCheck.list();
-			} catch (InterruptedException e) {
-			}
-		}
-		return localFileList;
-	}
 	/**
 	 * This method is used to remove the watch form batch class with given id.
 	 * @param batchClassID {@link BatchClassID}
@@ -450,6 +641,7 @@ public class FolderMonitorServiceImpl implements FolderMonitorService, Applicati
 				LOGGER.error("Unable to remove watch on batch class: " + batchClassID.getID(), e);
 			}
 		}
+		removeCachedBatchClass(batchClassID.getID());
 	}
 
 	private boolean isFolderPresent(String folderName, List<BatchInstance> batches) {
@@ -466,26 +658,8 @@ public class FolderMonitorServiceImpl implements FolderMonitorService, Applicati
 
 	private void performFileCopyOperation(FolderDetail folderDetail) {
 		LOGGER.info("Copying file into batch folder of current timestamp" + folderDetail.getFolderName());
-		File file = new File(folderDetail.getFullPath());
 		try {
-			long startTimeWaitCopyOperation = System.currentTimeMillis();
-			String timeOutString = ApplicationConfigProperties.getApplicationConfigProperties().getProperty(FolderMoniterConstants.BATCH_COPY_TIMEOUT);
-			long timeoutLimit = 0L;
-			try {
-				timeoutLimit = Long.valueOf(timeOutString) * FolderMoniterConstants.SLEEP_TIME_1000L;
-			} catch (Exception exception) {
-				timeoutLimit = FolderMoniterConstants.SLEEP_TIME_3600000L;
-			}
-
-			// Wait for file to be copied completely
-			while (true) {
-				if (!checkForFileCopied(file) && (System.currentTimeMillis() - startTimeWaitCopyOperation) < timeoutLimit) {
-					continue;
-				} else {
-					break;
-				}
-			}
-			// while (!checkForFileCopied(file) && (System.currentTimeMillis() - startTimeWaitCopyOperation) < timeoutLimit);
+			// The file has already been checked to be copied completely by the stability check.
 			String folderName = folderDetail.getFolderName();
 			long creationTime = System.currentTimeMillis();
 			int indexOf = folderName.lastIndexOf(FolderMoniterConstants.DOT);
@@ -504,48 +678,85 @@ public class FolderMonitorServiceImpl implements FolderMonitorService, Applicati
 			} else {
 				LOGGER.info("Unable to copy file to current folder timestamp");
 			}
-		} catch (java.io.IOException ioException) {
-			LOGGER.error("Error occurred while reading timeout limit from properties file");
 		} catch (Exception exception) {
 			LOGGER.error("Error occurred while copying file from watch folder to temp folder");
 		}
 
 	}
 
-	private boolean checkForFileCopied(File fileToCheckInside) {
-		boolean isFileCopied = false;
-		if (fileToCheckInside.exists()) {
-
-			RandomAccessFile randomAccessFileInside = null;
-			try {
-				randomAccessFileInside = new RandomAccessFile(fileToCheckInside, "rw");
-			} catch (Exception ex) {
-				LOGGER.info("Error in opening file " + fileToCheckInside.getAbsolutePath());
-			} finally {
-				isFileCopied = closingFileOperation(isFileCopied, randomAccessFileInside);
-			}
+	/**
+	 * Checks that the content of a folder, or a file dropped directly in the unc folder, has stopped changing. The check is re-scheduled
+	 * with a doubling delay, starting from the wait time and bounded by the maximum backoff time, until two consecutive snapshots
+	 * match and every file can be opened.
+	 * 
+	 * @author Ephesoft
+	 * @version 1.0
+	 */
+	private class FolderStabilityCheck implements Runnable {
+
+		/**
+		 * Folder being checked.
+		 */
+		private final FolderDetail folderDetail;
+
+		/**
+		 * Snapshot taken by the previous check.
+		 */
+		private long[] lastSnapshot;
+
+		/**
+		 * Delay before the next check.
+		 */
+		private long nextDelay;
+
+		/**
+		 * Parameterized constructor.
+		 * @param folderDetail {@link FolderDetail}
+		 */
+		public FolderStabilityCheck(FolderDetail folderDetail) {
+			this.folderDetail = folderDetail;
+			this.nextDelay = Math.max(waitTime, FolderMoniterConstants.SLEEP_TIME_1000L);
+		}
 
+		/**
+		 * getter for folderDetail.
+		 * @return {@link FolderDetail}
+		 */
+		public FolderDetail getFolderDetail() {
+			return folderDetail;
 		}
-		return isFileCopied;
-	}
 
-	private boolean closingFileOperation(boolean isFileCopied, RandomAccessFile randomAccessFileInside) {
-		boolean fileCopied = isFileCopied;
-		if (randomAccessFileInside != null) {
-			try {
-				randomAccessFileInside.close();
-				fileCopied = true;
-			} catch (java.io.IOException e) {
-				LOGGER.info("Unable to close file: " + e.getMessage());
-			}
-		} else {
+		@Override
+		public void run() {
+			final String fullPath = folderDetail.getFullPath();
 			try {
-				Thread.sleep(FolderMoniterConstants.SLEEP_TIME_5000);
-			} catch (InterruptedException ex) {
-				LOGGER.info(ex.getMessage());
+				final File file = new File(fullPath);
+				if (file.exists()) {
+					final long[] snapshot = takeSnapshot(file);
+					boolean isStable = Arrays.equals(snapshot, lastSnapshot) && isAccessible(file);
+					lastSnapshot = snapshot;
+					if (!isStable && (System.currentTimeMillis() - folderDetail.getCreationTime()) >= copyTimeout) {
+						LOGGER.warn(FolderMoniterConstants.FOLDER_NAME + fullPath + " is still changing after " + copyTimeout
+								+ " ms, processing it anyway.");
+						isStable = true;
+					}
+					if (isStable) {
+						pendingFolders.remove(fullPath);
+						dispatchReadyFolder(folderDetail);
+					} else {
+						final long delay = nextDelay;
+						nextDelay = Math.min(nextDelay * 2, Math.max(maxBackoffTime, delay));
+						scheduleStabilityCheck(this, delay);
+					}
+				} else {
+					LOGGER.info(FolderMoniterConstants.FOLDER_NAME + fullPath + " no longer exists.");
+					pendingFolders.remove(fullPath);
+				}
+			} catch (RuntimeException e) {
+				LOGGER.error("Error while checking folder " + fullPath, e);
+				pendingFolders.remove(fullPath);
 			}
 		}
-		return fileCopied;
 	}
 
 }
@@ -109,5 +109,30 @@ public interface FolderMoniterConstants {
 	 */
 	int SLEEP_TIME_30000 = 30000;
 
+	/**
+	 * A constant of type int to store the default number of folder monitor worker threads.
+	 */
+	int DEFAULT_WORKER_THREADS = 4;
+
+	/**
+	 * A constant of type long to store the default maximum wait between two stability checks of a folder.
+	 */
+	long DEFAULT_MAX_BACKOFF_TIME = 30000L;
+
+	/**
+	 * A constant of type long to store the default refresh interval of the cached batch classes.
+	 */
+	long DEFAULT_BATCH_CLASS_REFRESH_INTERVAL = 60000L;
+
+	/**
+	 * A constant of type String to store the name of the stability check thread.
+	 */
+	String STABILITY_THREAD_NAME = "folder-monitor-stability";
+
+	/**
+	 * A constant of type String to store the name prefix of the worker threads.
+	 */
+	String WORKER_THREAD_NAME = "folder-monitor-worker-";
+
 
 }
@@ -84,11 +84,7 @@ public class HTMLDocument {
 			String err = "Invalid row for Index generation";
 			System.err.println(err);
 		}
-		String rowId = "";
-		String[] allRecords = eachRecord.split(";;;");
-		if(allRecords != null && allRecords.length > 0){
-			rowId = allRecords[indexRowId];
-		}
+		String rowId = getRowId(eachRecord, indexRowId);
 		//String rowId = eachRecord.substring(0, eachRecord.indexOf(" "));
 		// make a new, empty document
 		if(rowId.length() > 0){
@@ -102,6 +98,15 @@ public class HTMLDocument {
 		
 	}
 
+	public static String getRowId(String eachRecord, int indexRowId) {
+		String rowId = "";
+		String[] allRecords = eachRecord.split(";;;");
+		if(allRecords != null && allRecords.length > 0){
+			rowId = allRecords[indexRowId];
+		}
+		return rowId;
+	}
+
 	private HTMLDocument() {
 	}
 }
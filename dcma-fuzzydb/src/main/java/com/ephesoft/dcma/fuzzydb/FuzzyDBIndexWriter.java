@@ -0,0 +1,347 @@
+/********************************************************************************* 
+* Ephesoft is a Intelligent Document Capture and Mailroom Automation program 
+* developed by Ephesoft, Inc. Copyright (C) 2010-2012 Ephesoft Inc. 
+* 
+* This program is free software; you can redistribute it and/or modify it under 
+* the terms of the GNU Affero General Public License version 3 as published by the 
+* Free Software Foundation with the addition of the following permission added 
+* to Section 15 as permitted in Section 7(a): FOR ANY PART OF THE COVERED WORK 
+* IN WHICH THE COPYRIGHT IS OWNED BY EPHESOFT, EPHESOFT DISCLAIMS THE WARRANTY 
+* OF NON INFRINGEMENT OF THIRD PARTY RIGHTS. 
+* 
+* This program is distributed in the hope that it will be useful, but WITHOUT 
+* ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+* FOR A PARTICULAR PURPOSE.  See the GNU Affero General Public License for more 
+* details. 
+* 
+* You should have received a copy of the GNU Affero General Public License along with 
+* this program; if not, see http://www.gnu.org/licenses or write to the Free 
+* Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 
+* 02110-1301 USA. 
+* 
+* You can contact Ephesoft, Inc. headquarters at 111 Academy Way, 
+* Irvine, CA 92617, USA. or at email address info@ephesoft.com. 
+* 
+* The interactive user interfaces in modified source and object code versions 
+* of this program must display Appropriate Legal Notices, as required under 
+* Section 5 of the GNU Affero General Public License version 3. 
+* 
+* In accordance with Section 7(b) of the GNU Affero General Public License version 3, 
+* these Appropriate Legal Notices must retain the display of the "Ephesoft" logo. 
+* If the display of the logo is not reasonably feasible for 
+* technical reasons, the Appropriate Legal Notices must display the words 
+* "Powered by Ephesoft". 
+********************************************************************************/ 
+
+
+package com.ephesoft.dcma.fuzzydb;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.util.BitSet;
+import java.util.UUID;
+import java.util.zip.CRC32;
+
+import org.apache.fuzzydb.demo.HTMLDocument;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.FieldSelector;
+import org.apache.lucene.document.MapFieldSelector;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.index.TermDocs;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.util.Version;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class writes the rows of a database table to the fuzzy DB lucene index one row at a time. Every document carries a checksum
+ * term made of the row id and a CRC32 of the row, so that an incremental run only adds the rows that are new or changed and deletes
+ * the documents of rows that changed or no longer exist. Every document also carries a unique key, so that exactly the stale documents
+ * are deleted, even when several documents share a checksum. The index is optimized after a full build, and after an incremental run
+ * only once the deleted documents exceed {@link #OPTIMIZE_DELETED_RATIO} of the index.
+ * 
+ * @author Ephesoft
+ * @version 1.0
+ * @see org.apache.fuzzydb.demo.HTMLDocument
+ */
+public class FuzzyDBIndexWriter {
+
+	/**
+	 * Logger instance for logging using slf4j for logging information.
+	 */
+	private static final Logger LOGGER = LoggerFactory.getLogger(FuzzyDBIndexWriter.class);
+
+	/**
+	 * Index field holding the row checksum.
+	 */
+	private static final String ROW_CHECKSUM_FIELD = "rowChecksum";
+
+	/**
+	 * Index field holding the unique key of a document.
+	 */
+	private static final String DOC_KEY_FIELD = "docKey";
+
+	/**
+	 * Share of deleted documents in the index above which an incremental run optimizes the index.
+	 */
+	public static final double OPTIMIZE_DELETED_RATIO = 0.2;
+
+	/**
+	 * Separator between the row id and the CRC32 in the checksum term.
+	 */
+	private static final char CHECKSUM_SEPARATOR = '\u0000';
+
+	/**
+	 * Maximum field length of the index writer.
+	 */
+	private static final int MAX_FIELD_LENGTH = 1000000;
+
+	/**
+	 * Encoding used to compute the row checksum.
+	 */
+	private static final String UTF_8 = "UTF-8";
+
+	/**
+	 * Index folder.
+	 */
+	private final File indexFolder;
+
+	/**
+	 * Index of the row id column in each row.
+	 */
+	private final int indexRowId;
+
+	/**
+	 * Writer of the index being built or updated.
+	 */
+	private IndexWriter writer;
+
+	/**
+	 * Reader of the existing index, only open for an incremental run.
+	 */
+	private IndexReader reader;
+
+	/**
+	 * Documents of the existing index that match a row read in this run.
+	 */
+	private BitSet unchangedDocs;
+
+	/**
+	 * Number of rows added to the index.
+	 */
+	private int addedRows;
+
+	/**
+	 * Number of rows found unchanged in the existing index.
+	 */
+	private int unchangedRows;
+
+	/**
+	 * Number of documents deleted from the existing index.
+	 */
+	private int deletedDocs;
+
+	/**
+	 * Whether the index is optimized on close.
+	 */
+	private boolean optimized;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param indexFolder {@link String}
+	 * @param indexRowId int
+	 */
+	public FuzzyDBIndexWriter(final String indexFolder, final int indexRowId) {
+		this.indexFolder = new File(indexFolder);
+		this.indexRowId = indexRowId;
+	}
+
+	/**
+	 * API to open the index for writing. An incremental run updates the existing index in place; it creates a new index when there is
+	 * none or the existing one was written without row checksums and document keys.
+	 * 
+	 * @param create boolean, true to create a new index, false to add to the existing one, for a run that is not incremental
+	 * @param incremental boolean
+	 * @throws IOException if the index cannot be opened
+	 */
+	public void open(final boolean create, final boolean incremental) throws IOException {
+		if (!indexFolder.exists() && !indexFolder.mkdirs()) {
+			LOGGER.info("Directories: " + indexFolder.getAbsolutePath() + " not created.");
+		}
+		Directory directory = FSDirectory.open(indexFolder);
+		if (incremental && IndexReader.indexExists(directory)) {
+			reader = IndexReader.open(directory, true);
+			if (reader.numDocs() > 0 && !reader.getFieldNames(IndexReader.FieldOption.INDEXED).contains(DOC_KEY_FIELD)) {
+				LOGGER.info("Existing index at " + indexFolder.getAbsolutePath() + " has no row checksums. So rebuilding it.");
+				reader.close();
+				reader = null;
+			} else {
+				unchangedDocs = new BitSet(reader.maxDoc());
+			}
+		}
+		boolean createNew = reader == null && (create || incremental);
+		writer = new IndexWriter(directory, new StandardAnalyzer(Version.LUCENE_CURRENT), createNew, new IndexWriter.MaxFieldLength(
+				MAX_FIELD_LENGTH));
+	}
+
+	/**
+	 * API to add a row, joined with ";;;", to the index. In an incremental run a row whose checksum is already in the index is
+	 * skipped.
+	 * 
+	 * @param eachRow {@link String}
+	 * @throws IOException if the row cannot be written
+	 */
+	public void addRow(final String eachRow) throws IOException {
+		if (eachRow != null && eachRow.length() > 0) {
+			String checksum = getChecksum(eachRow);
+			if (reader != null && markUnchanged(checksum)) {
+				unchangedRows++;
+			} else {
+				Document doc = null;
+				try {
+					doc = HTMLDocument.Document(eachRow, indexRowId);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new IOException("Interrupted while creating index document.");
+				}
+				if (doc != null) {
+					doc.add(new Field(ROW_CHECKSUM_FIELD, checksum, Field.Store.NO, Field.Index.NOT_ANALYZED));
+					doc.add(new Field(DOC_KEY_FIELD, UUID.randomUUID().toString(), Field.Store.YES, Field.Index.NOT_ANALYZED));
+					writer.addDocument(doc);
+					addedRows++;
+				}
+			}
+		}
+	}
+
+	/**
+	 * API to delete the stale documents of an incremental run and close the index. The index is optimized after a full build, or when
+	 * the share of deleted documents exceeds {@link #OPTIMIZE_DELETED_RATIO}.
+	 * 
+	 * @throws IOException if the index cannot be written
+	 */
+	public void close() throws IOException {
+		try {
+			if (reader == null) {
+				optimized = addedRows > 0;
+			} else {
+				deleteStaleDocs();
+				optimized = reader.numDeletedDocs() + deletedDocs > OPTIMIZE_DELETED_RATIO * (reader.maxDoc() + addedRows);
+			}
+			if (optimized) {
+				writer.optimize();
+			}
+			writer.close();
+			writer = null;
+			LOGGER.info("Index " + indexFolder.getAbsolutePath() + " written. Rows added : " + addedRows + ", unchanged : "
+					+ unchangedRows + ", documents deleted : " + deletedDocs);
+		} finally {
+			closeReader();
+		}
+	}
+
+	/**
+	 * API to discard everything written since {@link #open(boolean, boolean)}, leaving any existing index as it was.
+	 */
+	public void abort() {
+		if (writer != null) {
+			try {
+				writer.rollback();
+			} catch (IOException e) {
+				LOGGER.error("Exception while rolling back the index writer for " + indexFolder.getAbsolutePath(), e);
+			}
+			writer = null;
+		}
+		closeReader();
+	}
+
+	/**
+	 * To get the number of rows added to the index.
+	 * 
+	 * @return int
+	 */
+	public int getAddedRows() {
+		return addedRows;
+	}
+
+	/**
+	 * To get the number of rows found unchanged in the existing index.
+	 * 
+	 * @return int
+	 */
+	public int getUnchangedRows() {
+		return unchangedRows;
+	}
+
+	/**
+	 * To get the number of documents deleted from the existing index.
+	 * 
+	 * @return int
+	 */
+	public int getDeletedDocs() {
+		return deletedDocs;
+	}
+
+	/**
+	 * To check whether the index was optimized on close.
+	 * 
+	 * @return boolean
+	 */
+	public boolean isOptimized() {
+		return optimized;
+	}
+
+	private String getChecksum(final String eachRow) throws UnsupportedEncodingException {
+		CRC32 crc = new CRC32();
+		crc.update(eachRow.getBytes(UTF_8));
+		return HTMLDocument.getRowId(eachRow, indexRowId) + CHECKSUM_SEPARATOR + Long.toHexString(crc.getValue());
+	}
+
+	private boolean markUnchanged(final String checksum) throws IOException {
+		boolean isUnchanged = false;
+		TermDocs termDocs = reader.termDocs(new Term(ROW_CHECKSUM_FIELD, checksum));
+		try {
+			// One document per occurrence of the row, so surplus documents of duplicate rows become stale.
+			while (!isUnchanged && termDocs.next()) {
+				if (!unchangedDocs.get(termDocs.doc())) {
+					unchangedDocs.set(termDocs.doc());
+					isUnchanged = true;
+				}
+			}
+		} finally {
+			termDocs.close();
+		}
+		return isUnchanged;
+	}
+
+	private void deleteStaleDocs() throws IOException {
+		FieldSelector docKeySelector = new MapFieldSelector(new String[] {DOC_KEY_FIELD});
+		for (int doc = 0; doc < reader.maxDoc(); doc++) {
+			if (!reader.isDeleted(doc) && !unchangedDocs.get(doc)) {
+				String docKey = reader.document(doc, docKeySelector).get(DOC_KEY_FIELD);
+				if (docKey != null) {
+					writer.deleteDocuments(new Term(DOC_KEY_FIELD, docKey));
+					deletedDocs++;
+				}
+			}
+		}
+	}
+
+	private void closeReader() {
+		if (reader != null) {
+			try {
+				reader.close();
+			} catch (IOException e) {
+				LOGGER.error("Exception while closing the index reader for " + indexFolder.getAbsolutePath(), e);
+			}
+			reader = null;
+		}
+	}
+}
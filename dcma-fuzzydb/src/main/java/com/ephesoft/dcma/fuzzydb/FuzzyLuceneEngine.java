@@ -40,7 +40,7 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.UnsupportedEncodingException;
-import java.sql.SQLException;
+import java.sql.Timestamp;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -56,7 +56,6 @@ import java.util.regex.PatternSyntaxException;
 
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
-import org.apache.fuzzydb.demo.IndexHTML;
 import org.apache.fuzzydb.demo.SearchFiles;
 import org.apache.lucene.index.CorruptIndexException;
 import org.apache.lucene.index.IndexReader;
@@ -64,6 +63,9 @@ import org.apache.lucene.search.Query;
 import org.apache.lucene.search.similar.MoreLikeThis;
 import org.apache.lucene.store.FSDirectory;
 import org.hibernate.SQLQuery;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.StatelessSession;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -165,6 +167,11 @@ public class FuzzyLuceneEngine {
 	 */
 	private String[] ignoreWordList;
 
+	/**
+	 * True if the scheduled learn DB should only re-index the rows changed since the last run.
+	 */
+	private boolean incrementalLearning;
+
 	/**
 	 * Set ignore word list.
 	 * 
@@ -288,6 +295,31 @@ public class FuzzyLuceneEngine {
 		this.batchInstanceDao = batchInstanceDao;
 	}
 
+	/**
+	 * getter for incrementalLearning.
+	 * @return boolean
+	 */
+	public boolean isIncrementalLearning() {
+		return incrementalLearning;
+	}
+
+	/**
+	 * setter for incrementalLearning.
+	 * @param incrementalLearning boolean
+	 */
+	public void setIncrementalLearning(boolean incrementalLearning) {
+		this.incrementalLearning = incrementalLearning;
+	}
+
+	/**
+	 * This API closes the pooled database connections used for learning and searching. Called by Spring when the application context
+	 * is closed.
+	 */
+	public void destroy() {
+		LOGGER.info("Closing the pooled fuzzy DB connections.");
+		DynamicHibernateDao.closePooledInstances();
+	}
+
 	/**
 	 * This API learns DB for a list of batch classes 'batchClassIDList' given in fuzzy-db properties file.
 	 */
@@ -301,7 +333,7 @@ public class FuzzyLuceneEngine {
 				if (!batchClassID.isEmpty()) {
 					try {
 						LOGGER.info("Learning fuzzy DB for batch class::" + batchClassID);
-						learnFuzzyDatabase(batchClassID, true);
+						learnFuzzyDatabase(batchClassID, true, incrementalLearning);
 					} catch (Exception e) {
 						LOGGER.error("Uncaught Exception in learnDataBase method for batch class " + batchClassID, e);
 					}
@@ -321,6 +353,20 @@ public class FuzzyLuceneEngine {
 	 * @param createIndex boolean
 	 */
 	public void learnFuzzyDatabase(final String batchClassIdentifier, boolean createIndex) throws DCMAApplicationException {
+		learnFuzzyDatabase(batchClassIdentifier, createIndex, false);
+	}
+
+	/**
+	 * This method is used to generate the indexes for the tables mapped for each document type in database. The rows are streamed
+	 * from the table straight into the index. In incremental mode the existing indexes are updated in place: only new or changed rows
+	 * are indexed and the documents of deleted rows are removed.
+	 * 
+	 * @param batchClassIdentifier {@link String}
+	 * @param createIndex boolean
+	 * @param incremental boolean
+	 */
+	public void learnFuzzyDatabase(final String batchClassIdentifier, boolean createIndex, boolean incremental)
+			throws DCMAApplicationException {
 
 		Map<String, String> properties = batchClassPluginConfigService.getPluginPropertiesForBatchClass(batchClassIdentifier,
 				FuzzyDBSearchConstants.FUZZYDB_PLUGIN, null);
@@ -349,15 +395,12 @@ public class FuzzyLuceneEngine {
 				for (BatchDynamicPluginConfiguration eachConfig : pluginPropsDocType) {
 					String tableName = eachConfig.getValue();
 					String actualFuzzyIndexFolder = baseFuzzyIndexFolder + File.separator + dbName + File.separator + tableName;
-					deleteIndexes(actualFuzzyIndexFolder, batchClassIdentifier);
-					List<String> allRows = fetchAllRecordsToBeIndexed(tableName, dbConnectionURL, dbName, dbDriver, dbUserName,
-							dbPassword, dateFormat, eachConfig);
-					int indexRowID = findIndexOfRowID(eachConfig);
-					if (allRows != null && !allRows.isEmpty()) {
-						IndexHTML.generateIndex(actualFuzzyIndexFolder, createIndex, allRows, indexRowID);
-					} else {
-						LOGGER.info("No record found in Database. So cannot learn.");
+					if (!incremental) {
+						deleteIndexes(actualFuzzyIndexFolder, batchClassIdentifier);
 					}
+					int indexRowID = findIndexOfRowID(eachConfig);
+					learnTable(tableName, dbConnectionURL, dbDriver, dbUserName, dbPassword, dateFormat, eachConfig,
+							new FuzzyDBIndexWriter(actualFuzzyIndexFolder, indexRowID), createIndex, incremental);
 				}
 			} else {
 				LOGGER.info("No properties configured for FUZZYDB_DOCUMENT_TYPE. So cannot generate indexes for batch Class : "
@@ -368,6 +411,35 @@ public class FuzzyLuceneEngine {
 		}
 	}
 
+	private void learnTable(String tableName, String dbConnectionURL, String dbDriver, String dbUserName, String dbPassword,
+			String dateFormat, BatchDynamicPluginConfiguration eachConfig, final FuzzyDBIndexWriter indexWriter, boolean createIndex,
+			boolean incremental) throws DCMAApplicationException {
+		boolean isWritten = false;
+		try {
+			indexWriter.open(createIndex, incremental);
+			int rowCount = streamRecordsToBeIndexed(tableName, dbConnectionURL, dbDriver, dbUserName, dbPassword, dateFormat,
+					eachConfig, new IndexRowHandler() {
+
+						@Override
+						public void handleRow(String dbRow) throws IOException {
+							indexWriter.addRow(dbRow);
+						}
+					});
+			if (rowCount > 0 || incremental) {
+				indexWriter.close();
+				isWritten = true;
+			} else {
+				LOGGER.info("No record found in Database. So cannot learn.");
+			}
+		} catch (IOException e) {
+			LOGGER.error("Problem generating fuzzy DB index for table : " + tableName, e);
+		} finally {
+			if (!isWritten) {
+				indexWriter.abort();
+			}
+		}
+	}
+
 	private String getDatabaseName(String dbConnectionURL, String dbDriver) {
 		String dbName = FuzzyDBSearchConstants.EMPTY_STRING;
 		if (dbDriver.equals(FuzzyDBSearchConstants.MYSQL_DRIVER)) {
@@ -434,9 +506,11 @@ public class FuzzyLuceneEngine {
 		if (eachConfig != null) {
 			allColumnNames = eachConfig.getChildren();
 			if (allColumnNames != null && !allColumnNames.isEmpty()) {
-				DynamicHibernateDao dynamicHibernateDao = null;
+				StatelessSession session = null;
+				DynamicHibernateDao dynamicHibernateDao = DynamicHibernateDao.getPooledInstance(dbUserName, dbPassword, dbDriver,
+						dbConnectionURL);
 				try {
-					dynamicHibernateDao = new DynamicHibernateDao(dbUserName, dbPassword, dbDriver, dbConnectionURL);
+					session = dynamicHibernateDao.getStatelessSession();
 					StringBuffer dbQuery = new StringBuffer("select ");
 					int count = 0;
 					String retrunFieldName = "id";
@@ -460,12 +534,13 @@ public class FuzzyLuceneEngine {
 					}
 					dbQuery.append(" from ").append(tableName).append(" where ").append(retrunFieldName).append(
 							FuzzyDBSearchConstants.EQUALS).append(rowId);
-					SQLQuery query = dynamicHibernateDao.createQuery(dbQuery.toString());
+					SQLQuery query = session.createSQLQuery(dbQuery.toString());
 					dataList = query.list();
 				} finally {
-					if (dynamicHibernateDao != null) {
-						dynamicHibernateDao.closeSession();
+					if (session != null) {
+						session.close();
 					}
+					dynamicHibernateDao.releasePooledInstance();
 				}
 
 			}
@@ -498,9 +573,11 @@ public class FuzzyLuceneEngine {
 			extractedData = new ArrayList<List<String>>();
 			allColumnNames = eachConfig.getChildren();
 			if (allColumnNames != null && !allColumnNames.isEmpty()) {
-				DynamicHibernateDao dynamicHibernateDao = null;
+				StatelessSession session = null;
+				DynamicHibernateDao dynamicHibernateDao = DynamicHibernateDao.getPooledInstance(dbUserName, dbPassword, dbDriver,
+						dbConnectionURL);
 				try {
-					dynamicHibernateDao = new DynamicHibernateDao(dbUserName, dbPassword, dbDriver, dbConnectionURL);
+					session = dynamicHibernateDao.getStatelessSession();
 					StringBuffer dbQuery = new StringBuffer("select ");
 					int count = 0;
 					String retrunFieldName = "id";
@@ -531,7 +608,7 @@ public class FuzzyLuceneEngine {
 					}
 					dbQuery.append(new StringBuffer(" from ")).append(tableName).append(new StringBuffer(" where ")).append(
 							retrunFieldName).append(new StringBuffer(FuzzyDBSearchConstants.EQUALS)).append(rowId);
-					SQLQuery query = dynamicHibernateDao.createQuery(dbQuery.toString());
+					SQLQuery query = session.createSQLQuery(dbQuery.toString());
 					List<Object[]> dataList = query.list();
 
 					if (null != dataList) {
@@ -548,9 +625,10 @@ public class FuzzyLuceneEngine {
 						}
 					}
 				} finally {
-					if (dynamicHibernateDao != null) {
-						dynamicHibernateDao.closeSession();
+					if (session != null) {
+						session.close();
 					}
+					dynamicHibernateDao.releasePooledInstance();
 				}
 			}
 		}
@@ -590,78 +668,104 @@ public class FuzzyLuceneEngine {
 	 * @return {@link List<String>}
 	 * @throws DCMAApplicationException if any exception occurs.
 	 */
-	@SuppressWarnings("unchecked")
 	public List<String> fetchAllRecordsToBeIndexed(String tableName, String dbConnectionURL, String dbName, String dbDriver,
 			String dbUserName, String dbPassword, String dateFormat, BatchDynamicPluginConfiguration eachConfig)
 			throws DCMAApplicationException {
+		final List<String> allRows = new ArrayList<String>();
+		int rowCount = 0;
+		try {
+			rowCount = streamRecordsToBeIndexed(tableName, dbConnectionURL, dbDriver, dbUserName, dbPassword, dateFormat, eachConfig,
+					new IndexRowHandler() {
+
+						@Override
+						public void handleRow(String dbRow) {
+							allRows.add(dbRow);
+						}
+					});
+		} catch (IOException e) {
+			throw new DCMAApplicationException(e.getMessage(), e);
+		}
 		List<String> returnList = null;
+		if (rowCount > 0) {
+			returnList = allRows;
+		}
+		return returnList;
+	}
+
+	/**
+	 * Reads the configured columns of a table through a forward only cursor and hands each row, joined with ";;;", to the handler, so
+	 * that the table is never held in memory.
+	 * 
+	 * @return int the number of rows read
+	 */
+	private int streamRecordsToBeIndexed(String tableName, String dbConnectionURL, String dbDriver, String dbUserName,
+			String dbPassword, String dateFormat, BatchDynamicPluginConfiguration eachConfig, IndexRowHandler rowHandler)
+			throws DCMAApplicationException, IOException {
+		int rowCount = 0;
 		Set<BatchDynamicPluginConfiguration> allColumnNames = null;
 		if (eachConfig != null) {
 			allColumnNames = eachConfig.getChildren();
 			if (allColumnNames != null && !allColumnNames.isEmpty()) {
-				DynamicHibernateDao dynamicHibernateDao = null;
+				StringBuffer dbQuery = new StringBuffer("select ");
+				int count = 0;
+				for (BatchDynamicPluginConfiguration eachColumn : allColumnNames) {
+					count++;
+					appendColumnNameByDatabase(dbConnectionURL, allColumnNames, dbQuery, count, eachColumn);
+				}
+				dbQuery.append(new StringBuffer(" from ")).append(tableName);
+				StatelessSession session = null;
+				ScrollableResults results = null;
+				DynamicHibernateDao dynamicHibernateDao = DynamicHibernateDao.getPooledInstance(dbUserName, dbPassword, dbDriver,
+						dbConnectionURL);
 				try {
-					dynamicHibernateDao = new DynamicHibernateDao(dbUserName, dbPassword, dbDriver, dbConnectionURL);
-					List<ColumnDefinition> colNames = null;
-					try {
-						colNames = dynamicHibernateDao.getAllColumnsForTable(tableName);
-					} catch (SQLException e) {
-						LOGGER.info("Could not find Column names from table : " + tableName);
-					}
-					StringBuffer dbQuery = new StringBuffer("select ");
-					int count = 0;
-					List<Integer> dateColIndex = new ArrayList<Integer>();
-					for (BatchDynamicPluginConfiguration eachColumn : allColumnNames) {
-						count++;
-						appendColumnNameByDatabase(dbConnectionURL, allColumnNames, dbQuery, count, eachColumn);
-						String colDataType = getColumnDataType(eachColumn.getValue(), colNames);
-						if (colDataType != null
-								&& (colDataType.equalsIgnoreCase(FuzzyDBSearchConstants.TIMESTAMP_NAME) || colDataType
-										.equalsIgnoreCase(FuzzyDBSearchConstants.DATE_NAME))) {
-							dateColIndex.add(count);
-						}
+					session = dynamicHibernateDao.getStatelessSession();
+					SQLQuery query = session.createSQLQuery(dbQuery.toString());
+					if (dbConnectionURL.contains(FuzzyDBSearchConstants.MYSQL_DATABASE)) {
+						// MySQL driver streams the result set only for this fetch size.
+						query.setFetchSize(Integer.MIN_VALUE);
+					} else {
+						query.setFetchSize(FuzzyDBSearchConstants.LEARN_DB_FETCH_SIZE);
 					}
-					dbQuery.append(new StringBuffer(" from ")).append(tableName);
-					SQLQuery query = dynamicHibernateDao.createQuery(dbQuery.toString());
-					List<Object[]> dataList = query.list();
-
-					StringBuffer dbRow = new StringBuffer(FuzzyDBSearchConstants.EMPTY_STRING);
-					int indexCount = 0;
-					if (dataList != null && !dataList.isEmpty()) {
-						returnList = new ArrayList<String>();
-						if (dataList.size() > 1) {
-							LOGGER.info("More than One records found. So picking first record.");
-						}
-						for (Object[] eachRecord : dataList) {
-							indexCount = 0;
-							dbRow = new StringBuffer(FuzzyDBSearchConstants.EMPTY_STRING);
-							for (Object eachElement : eachRecord) {
-								indexCount++;
-								if (eachElement != null) {
-									if (dateColIndex.contains(indexCount)) {
-										SimpleDateFormat simpleDateFormat = new SimpleDateFormat(dateFormat, Locale.getDefault());
-										eachElement = simpleDateFormat.format(eachElement);
+					results = query.scroll(ScrollMode.FORWARD_ONLY);
+					SimpleDateFormat simpleDateFormat = null;
+					StringBuilder dbRow = new StringBuilder();
+					while (results.next()) {
+						dbRow.setLength(0);
+						for (Object eachElement : results.get()) {
+							if (eachElement != null) {
+								if (eachElement instanceof java.sql.Date || eachElement instanceof Timestamp) {
+									if (simpleDateFormat == null) {
+										simpleDateFormat = new SimpleDateFormat(dateFormat, Locale.getDefault());
 									}
-									dbRow.append(eachElement).append(";;;");
+									dbRow.append(simpleDateFormat.format(eachElement));
 								} else {
-									dbRow.append(" ;;;");
+									dbRow.append(eachElement);
 								}
+								dbRow.append(";;;");
+							} else {
+								dbRow.append(" ;;;");
 							}
-							returnList.add(dbRow.toString());
 						}
-					} else {
+						rowHandler.handleRow(dbRow.toString());
+						rowCount++;
+					}
+					if (rowCount == 0) {
 						LOGGER.info("Unable to fetch data for query : " + dbQuery);
 					}
 				} finally {
-					if (dynamicHibernateDao != null) {
-						dynamicHibernateDao.closeSession();
+					if (results != null) {
+						results.close();
 					}
+					if (session != null) {
+						session.close();
+					}
+					dynamicHibernateDao.releasePooledInstance();
 				}
 			} else {
 				LOGGER.info("No column names configured for table name : " + eachConfig.getValue());
 			}
 		}
-		return returnList;
+		return rowCount;
 	}
 
 	private void appendColumnNameByDatabase(String dbConnectionURL, Set<BatchDynamicPluginConfiguration> allColumnNames,
@@ -1747,4 +1851,16 @@ public class FuzzyLuceneEngine {
 			}
 		}
 	}
+
+	/**
+	 * Receives the rows read for indexing one at a time.
+	 */
+	private interface IndexRowHandler {
+
+		/**
+		 * @param dbRow {@link String} the row with its columns joined with ";;;"
+		 * @throws IOException if the row cannot be indexed
+		 */
+		void handleRow(String dbRow) throws IOException;
+	}
 }
@@ -187,4 +187,8 @@ public interface FuzzyDBSearchConstants extends ICommonConstants {
 	 * Constant to state wrong database name.
 	 */
 	String WRONG_DB_NAME_MESSAGE = "Wrong DB name found";
+	/**
+	 * Number of rows fetched from the database per round trip while learning a table.
+	 */
+	int LEARN_DB_FETCH_SIZE = 1000;
 }
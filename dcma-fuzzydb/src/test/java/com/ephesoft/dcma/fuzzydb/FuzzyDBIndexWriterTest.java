@@ -0,0 +1,187 @@
+/********************************************************************************* 
+* Ephesoft is a Intelligent Document Capture and Mailroom Automation program 
+* developed by Ephesoft, Inc. Copyright (C) 2010-2012 Ephesoft Inc. 
+* 
+* This program is free software; you can redistribute it and/or modify it under 
+* the terms of the GNU Affero General Public License version 3 as published by the 
+* Free Software Foundation with the addition of the following permission added 
+* to Section 15 as permitted in Section 7(a): FOR ANY PART OF THE COVERED WORK 
+* IN WHICH THE COPYRIGHT IS OWNED BY EPHESOFT, EPHESOFT DISCLAIMS THE WARRANTY 
+* OF NON INFRINGEMENT OF THIRD PARTY RIGHTS. 
+* 
+* This program is distributed in the hope that it will be useful, but WITHOUT 
+* ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+* FOR A PARTICULAR PURPOSE.  See the GNU Affero General Public License for more 
+* details. 
+* 
+* You should have received a copy of the GNU Affero General Public License along with 
+* this program; if not, see http://www.gnu.org/licenses or write to the Free 
+* Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 
+* 02110-1301 USA. 
+* 
+* You can contact Ephesoft, Inc. headquarters at 111 Academy Way, 
+* Irvine, CA 92617, USA. or at email address info@ephesoft.com. 
+* 
+* The interactive user interfaces in modified source and object code versions 
+* of this program must display Appropriate Legal Notices, as required under 
+* Section 5 of the GNU Affero General Public License version 3. 
+* 
+* In accordance with Section 7(b) of the GNU Affero General Public License version 3, 
+* these Appropriate Legal Notices must retain the display of the "Ephesoft" logo. 
+* If the display of the logo is not reasonably feasible for 
+* technical reasons, the Appropriate Legal Notices must display the words 
+* "Powered by Ephesoft". 
+********************************************************************************/ 
+
+
+package com.ephesoft.dcma.fuzzydb;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.index.TermDocs;
+import org.apache.lucene.store.FSDirectory;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.ephesoft.dcma.util.FileUtils;
+
+/**
+ * This is Junit test for FuzzyDBIndexWriter. It checks that an incremental run keeps unchanged rows, deletes exactly the stale
+ * documents, also among documents of duplicate rows, and optimizes the index only after a full build or above the deleted ratio.
+ * 
+ * @author Ephesoft
+ * @version 1.0
+ * @see com.ephesoft.dcma.fuzzydb.FuzzyDBIndexWriter
+ */
+public class FuzzyDBIndexWriterTest {
+
+	/**
+	 * Index of the row id column in the test rows.
+	 */
+	private static final int INDEX_ROW_ID = 0;
+
+	/**
+	 * Folder of the index under test.
+	 */
+	private File indexFolder;
+
+	/**
+	 * This method creates the folder of the index.
+	 * 
+	 * @throws IOException if the folder cannot be created
+	 */
+	@Before
+	public void setUp() throws IOException {
+		indexFolder = File.createTempFile("fuzzy-index", "");
+		indexFolder.delete();
+	}
+
+	/**
+	 * This method deletes the index.
+	 */
+	@After
+	public void tearDown() {
+		FileUtils.deleteDirectoryAndContentsRecursive(indexFolder);
+	}
+
+	/**
+	 * This method tests that an incremental run skips unchanged rows, adds new and changed rows and deletes the documents of changed
+	 * and removed rows.
+	 * 
+	 * @throws IOException if the index cannot be written
+	 */
+	@Test
+	public void testIncrementalRun() throws IOException {
+		FuzzyDBIndexWriter writer = writeIndex(false, "1;;;alpha;;;", "2;;;beta;;;", "3;;;gamma;;;");
+		assertEquals(3, writer.getAddedRows());
+		assertTrue(writer.isOptimized());
+
+		writer = writeIndex(true, "1;;;alpha;;;", "2;;;beta changed;;;", "4;;;delta;;;");
+		assertEquals(1, writer.getUnchangedRows());
+		assertEquals(2, writer.getAddedRows());
+		assertEquals(2, writer.getDeletedDocs());
+		assertEquals(1, countDocs("1"));
+		assertEquals(1, countDocs("2"));
+		assertEquals(0, countDocs("3"));
+		assertEquals(1, countDocs("4"));
+	}
+
+	/**
+	 * This method tests that only the surplus documents of a duplicate row are deleted and the unchanged ones sharing its checksum are
+	 * kept.
+	 * 
+	 * @throws IOException if the index cannot be written
+	 */
+	@Test
+	public void testDuplicateRowsAreDeletedExactly() throws IOException {
+		writeIndex(false, "1;;;alpha;;;", "1;;;alpha;;;", "1;;;alpha;;;", "2;;;beta;;;");
+
+		FuzzyDBIndexWriter writer = writeIndex(true, "1;;;alpha;;;", "1;;;alpha;;;", "2;;;beta;;;");
+		assertEquals(3, writer.getUnchangedRows());
+		assertEquals(0, writer.getAddedRows());
+		assertEquals(1, writer.getDeletedDocs());
+		assertEquals(2, countDocs("1"));
+		assertEquals(1, countDocs("2"));
+	}
+
+	/**
+	 * This method tests that an incremental run optimizes the index only once the deleted documents exceed the ratio.
+	 * 
+	 * @throws IOException if the index cannot be written
+	 */
+	@Test
+	public void testOptimizeAboveDeletedRatio() throws IOException {
+		String[] rows = new String[10];
+		for (int index = 0; index < rows.length; index++) {
+			rows[index] = index + ";;;row " + index + ";;;";
+		}
+		writeIndex(false, rows);
+
+		rows[0] = "0;;;row 0 changed;;;";
+		FuzzyDBIndexWriter writer = writeIndex(true, rows);
+		assertEquals(1, writer.getDeletedDocs());
+		assertFalse(writer.isOptimized());
+
+		String[] remainingRows = new String[5];
+		System.arraycopy(rows, 0, remainingRows, 0, remainingRows.length);
+		writer = writeIndex(true, remainingRows);
+		assertEquals(5, writer.getDeletedDocs());
+		assertTrue(writer.isOptimized());
+	}
+
+	private FuzzyDBIndexWriter writeIndex(boolean incremental, String... rows) throws IOException {
+		FuzzyDBIndexWriter writer = new FuzzyDBIndexWriter(indexFolder.getPath(), INDEX_ROW_ID);
+		writer.open(true, incremental);
+		for (String row : rows) {
+			writer.addRow(row);
+		}
+		writer.close();
+		return writer;
+	}
+
+	private int countDocs(String rowId) throws IOException {
+		int count = 0;
+		IndexReader reader = IndexReader.open(FSDirectory.open(indexFolder), true);
+		try {
+			TermDocs termDocs = reader.termDocs(new Term("rowId", rowId));
+			try {
+				while (termDocs.next()) {
+					count++;
+				}
+			} finally {
+				termDocs.close();
+			}
+		} finally {
+			reader.close();
+		}
+		return count;
+	}
+}
@@ -0,0 +1,105 @@
+/********************************************************************************* 
+* Ephesoft is a Intelligent Document Capture and Mailroom Automation program 
+* developed by Ephesoft, Inc. Copyright (C) 2010-2012 Ephesoft Inc. 
+* 
+* This program is free software; you can redistribute it and/or modify it under 
+* the terms of the GNU Affero General Public License version 3 as published by the 
+* Free Software Foundation with the addition of the following permission added 
+* to Section 15 as permitted in Section 7(a): FOR ANY PART OF THE COVERED WORK 
+* IN WHICH THE COPYRIGHT IS OWNED BY EPHESOFT, EPHESOFT DISCLAIMS THE WARRANTY 
+* OF NON INFRINGEMENT OF THIRD PARTY RIGHTS. 
+* 
+* This program is distributed in the hope that it will be useful, but WITHOUT 
+* ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+* FOR A PARTICULAR PURPOSE.  See the GNU Affero General Public License for more 
+* details. 
+* 
+* You should have received a copy of the GNU Affero General Public License along with 
+* this program; if not, see http://www.gnu.org/licenses or write to the Free 
+* Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 
+* 02110-1301 USA. 
+* 
+* You can contact Ephesoft, Inc. headquarters at 111 Academy Way, 
+* Irvine, CA 92617, USA. or at email address info@ephesoft.com. 
+* 
+* The interactive user interfaces in modified source and object code versions 
+* of this program must display Appropriate Legal Notices, as required under 
+* Section 5 of the GNU Affero General Public License version 3. 
+* 
+* In accordance with Section 7(b) of the GNU Affero General Public License version 3, 
+* these Appropriate Legal Notices must retain the display of the "Ephesoft" logo. 
+* If the display of the logo is not reasonably feasible for 
+* technical reasons, the Appropriate Legal Notices must display the words 
+* "Powered by Ephesoft". 
+********************************************************************************/ 
+
+package com.ephesoft.dcma.gwt.core.shared;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.ephesoft.dcma.batch.schema.Document;
+import com.google.gwt.user.client.rpc.IsSerializable;
+
+/**
+ * Carries the edits made on the review/validate screen since the last save, instead of the whole batch.
+ * 
+ * @author Ephesoft
+ * @version 1.0
+ * @see com.ephesoft.dcma.gwt.core.shared.BatchDTO
+ */
+public class BatchChangeSetDTO implements IsSerializable {
+
+	/**
+	 * Base version to be used when the changes are to be applied whatever the stored batch version is.
+	 */
+	public static final long NO_VERSION = -1L;
+
+	private String batchInstanceIdentifier;
+
+	private long baseVersion = NO_VERSION;
+
+	/**
+	 * Identifiers of all the documents in their new order, null when documents were neither added, removed nor re-ordered.
+	 */
+	private List<String> documentOrder;
+
+	private List<Document> changedDocuments = new ArrayList<Document>();
+
+	public String getBatchInstanceIdentifier() {
+		return batchInstanceIdentifier;
+	}
+
+	public void setBatchInstanceIdentifier(String batchInstanceIdentifier) {
+		this.batchInstanceIdentifier = batchInstanceIdentifier;
+	}
+
+	public long getBaseVersion() {
+		return baseVersion;
+	}
+
+	public void setBaseVersion(long baseVersion) {
+		this.baseVersion = baseVersion;
+	}
+
+	public List<String> getDocumentOrder() {
+		return documentOrder;
+	}
+
+	public void setDocumentOrder(List<String> documentOrder) {
+		this.documentOrder = documentOrder;
+	}
+
+	public List<Document> getChangedDocuments() {
+		return changedDocuments;
+	}
+
+	public void setChangedDocuments(List<Document> changedDocuments) {
+		this.changedDocuments = changedDocuments;
+	}
+
+	public boolean isEmpty() {
+		return documentOrder == null && (changedDocuments == null || changedDocuments.isEmpty());
+	}
+
+}
@@ -68,6 +68,8 @@ public class BatchDTO implements IsSerializable {
 	// value '1' signifies document to be displayed in tree view
 	private int docDisplayName = 1;
 	private boolean defaultReviewPanelStateOpen = true;
+	// version of the stored batch this object was read at, used to save only the changes made on it
+	private long batchVersion = BatchChangeSetDTO.NO_VERSION;
 
 	private static final String PIXELS = "px";
 
@@ -412,4 +414,12 @@ public class BatchDTO implements IsSerializable {
 		this.defaultReviewPanelStateOpen = defaultReviewPanelStateOpen;
 	}
 
+	public long getBatchVersion() {
+		return batchVersion;
+	}
+
+	public void setBatchVersion(long batchVersion) {
+		this.batchVersion = batchVersion;
+	}
+
 }
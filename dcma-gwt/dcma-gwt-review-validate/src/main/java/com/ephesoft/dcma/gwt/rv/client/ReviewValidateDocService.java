@@ -47,6 +47,7 @@ import com.ephesoft.dcma.batch.schema.Row;
 import com.ephesoft.dcma.batch.schema.HocrPages.HocrPage.Spans.Span;
 import com.ephesoft.dcma.core.common.BatchInstanceStatus;
 import com.ephesoft.dcma.gwt.core.client.DCMARemoteService;
+import com.ephesoft.dcma.gwt.core.shared.BatchChangeSetDTO;
 import com.ephesoft.dcma.gwt.core.shared.BatchDTO;
 import com.ephesoft.dcma.gwt.core.shared.DocumentTypeDBBean;
 import com.ephesoft.dcma.gwt.core.shared.FieldTypeDTO;
@@ -343,6 +344,16 @@ public interface ReviewValidateDocService extends DCMARemoteService {
 	 */
 	void saveBatch(Batch batch) throws GWTException;
 
+	/**
+	 * API to save only the changes made on a batch. The changes are applied on the stored batch only if it has not been saved from
+	 * elsewhere since the base version of the change set.
+	 * 
+	 * @param batchChangeSet {@link BatchChangeSetDTO}
+	 * @return {@link Long} the new version of the stored batch
+	 * @throws GWTException
+	 */
+	Long saveBatchChanges(BatchChangeSetDTO batchChangeSet) throws GWTException;
+
 	/**
 	 * API to get Encoded String for the given path Of Batch Xml after checking whether it is a zip or xml format.
 	 * 
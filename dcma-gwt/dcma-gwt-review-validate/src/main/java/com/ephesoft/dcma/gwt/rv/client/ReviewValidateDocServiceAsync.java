@@ -47,6 +47,7 @@ import com.ephesoft.dcma.batch.schema.Row;
 import com.ephesoft.dcma.batch.schema.HocrPages.HocrPage.Spans.Span;
 import com.ephesoft.dcma.core.common.BatchInstanceStatus;
 import com.ephesoft.dcma.gwt.core.client.DCMARemoteServiceAsync;
+import com.ephesoft.dcma.gwt.core.shared.BatchChangeSetDTO;
 import com.ephesoft.dcma.gwt.core.shared.BatchDTO;
 import com.ephesoft.dcma.gwt.core.shared.DocumentTypeDBBean;
 import com.ephesoft.dcma.gwt.core.shared.FieldTypeDTO;
@@ -324,6 +325,14 @@ public interface ReviewValidateDocServiceAsync extends DCMARemoteServiceAsync {
 
 	void saveBatch(Batch batch, AsyncCallback<Void> callback);
 
+	/**
+	 * API to save only the changes made on a batch asynchronously.
+	 * 
+	 * @param batchChangeSet {@link BatchChangeSetDTO}
+	 * @param callback {@link AsyncCallback} < {@link Long} >
+	 */
+	void saveBatchChanges(BatchChangeSetDTO batchChangeSet, AsyncCallback<Long> callback);
+
 	/**
 	 * API to signal Workflow for a batch asynchronously.
 	 * 
@@ -385,6 +385,8 @@ public interface ReviewValidateConstants extends LocaleCommonConstants {
 
 	String ERROR_TYPE_4 = "4";
 
+	String ERROR_TYPE_6 = "6";
+
 	String UNKNOWN_DOC_TYPE = "Unknown";
 
 	int RADIX_BASE = 10;
@@ -182,6 +182,8 @@ public interface ReviewValidateMessages extends LocaleCommonMessages {
 	String UNABLE_TO_ACQUIRE_LOCK = "unable_to_acquire_lock";
 
 	String NO_RIGHT_TO_OPEN_BATCH = "no_right_to_open_batch";
+
+	String BATCH_CHANGED_SINCE_LOAD = "batch_changed_since_load";
 	
 	String UNABLE_TO_UPDATE_ACTUAL_REVIEW_VALIDATE_TIME="unable_to_update_actual_review_validate_time";
 	
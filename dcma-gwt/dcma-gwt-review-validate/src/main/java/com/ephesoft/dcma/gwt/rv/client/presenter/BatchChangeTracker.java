@@ -0,0 +1,298 @@
+/********************************************************************************* 
+* Ephesoft is a Intelligent Document Capture and Mailroom Automation program 
+* developed by Ephesoft, Inc. Copyright (C) 2010-2012 Ephesoft Inc. 
+* 
+* This program is free software; you can redistribute it and/or modify it under 
+* the terms of the GNU Affero General Public License version 3 as published by the 
+* Free Software Foundation with the addition of the following permission added 
+* to Section 15 as permitted in Section 7(a): FOR ANY PART OF THE COVERED WORK 
+* IN WHICH THE COPYRIGHT IS OWNED BY EPHESOFT, EPHESOFT DISCLAIMS THE WARRANTY 
+* OF NON INFRINGEMENT OF THIRD PARTY RIGHTS. 
+* 
+* This program is distributed in the hope that it will be useful, but WITHOUT 
+* ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+* FOR A PARTICULAR PURPOSE.  See the GNU Affero General Public License for more 
+* details. 
+* 
+* You should have received a copy of the GNU Affero General Public License along with 
+* this program; if not, see http://www.gnu.org/licenses or write to the Free 
+* Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 
+* 02110-1301 USA. 
+* 
+* You can contact Ephesoft, Inc. headquarters at 111 Academy Way, 
+* Irvine, CA 92617, USA. or at email address info@ephesoft.com. 
+* 
+* The interactive user interfaces in modified source and object code versions 
+* of this program must display Appropriate Legal Notices, as required under 
+* Section 5 of the GNU Affero General Public License version 3. 
+* 
+* In accordance with Section 7(b) of the GNU Affero General Public License version 3, 
+* these Appropriate Legal Notices must retain the display of the "Ephesoft" logo. 
+* If the display of the logo is not reasonably feasible for 
+* technical reasons, the Appropriate Legal Notices must display the words 
+* "Powered by Ephesoft". 
+********************************************************************************/ 
+
+package com.ephesoft.dcma.gwt.rv.client.presenter;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.ephesoft.dcma.batch.schema.Batch;
+import com.ephesoft.dcma.batch.schema.Column;
+import com.ephesoft.dcma.batch.schema.Coordinates;
+import com.ephesoft.dcma.batch.schema.DataTable;
+import com.ephesoft.dcma.batch.schema.DocField;
+import com.ephesoft.dcma.batch.schema.Document;
+import com.ephesoft.dcma.batch.schema.Field;
+import com.ephesoft.dcma.batch.schema.Page;
+import com.ephesoft.dcma.batch.schema.Row;
+import com.ephesoft.dcma.gwt.core.shared.BatchChangeSetDTO;
+
+/**
+ * The <code>BatchChangeTracker</code> class remembers the state of the documents of a batch as last sent to the server, so that a
+ * save only sends the documents changed since then and the new order of the documents.
+ * 
+ * @author Ephesoft
+ * @version 1.0
+ * @see com.ephesoft.dcma.gwt.core.shared.BatchChangeSetDTO
+ */
+public class BatchChangeTracker {
+
+	private static final char SEPARATOR = '\u0001';
+
+	private static final char LIST_END = '\u0002';
+
+	private String batchInstanceIdentifier;
+
+	/**
+	 * Version the next change set is based on, that is the version the server will be at once all the sent change sets are applied.
+	 */
+	private long batchVersion = BatchChangeSetDTO.NO_VERSION;
+
+	/**
+	 * Last version of the stored batch known from the server, that is the version read or returned by the last successful save.
+	 */
+	private long storedVersion = BatchChangeSetDTO.NO_VERSION;
+
+	private int pendingSaveCount;
+
+	private Map<String, String> documentSignatures = new HashMap<String, String>();
+
+	private List<String> documentOrder = new ArrayList<String>();
+
+	/**
+	 * To start tracking the changes on a batch as read from the server.
+	 * 
+	 * @param batch {@link Batch}
+	 * @param version long version of the stored batch
+	 */
+	public void reset(final Batch batch, final long version) {
+		batchInstanceIdentifier = batch == null ? null : batch.getBatchInstanceIdentifier();
+		batchVersion = version;
+		storedVersion = version;
+		pendingSaveCount = 0;
+		documentSignatures = new HashMap<String, String>();
+		documentOrder = new ArrayList<String>();
+		if (batch != null) {
+			for (Document document : batch.getDocuments().getDocument()) {
+				documentSignatures.put(document.getIdentifier(), getSignature(document));
+				documentOrder.add(document.getIdentifier());
+			}
+		}
+	}
+
+	/**
+	 * To get the changes made on a batch since the last change set. The returned changes are taken as sent, so the next change set
+	 * only carries the changes made after this call.
+	 * 
+	 * @param batch {@link Batch}
+	 * @return {@link BatchChangeSetDTO}
+	 */
+	public BatchChangeSetDTO getChangeSet(final Batch batch) {
+		final BatchChangeSetDTO batchChangeSet = new BatchChangeSetDTO();
+		final String identifier = batch.getBatchInstanceIdentifier();
+		batchChangeSet.setBatchInstanceIdentifier(identifier);
+		final boolean tracked = identifier.equals(batchInstanceIdentifier);
+		final Map<String, String> newSignatures = new HashMap<String, String>();
+		final List<String> newOrder = new ArrayList<String>();
+		final List<Document> changedDocuments = new ArrayList<Document>();
+		for (Document document : batch.getDocuments().getDocument()) {
+			final String documentIdentifier = document.getIdentifier();
+			final String signature = getSignature(document);
+			newSignatures.put(documentIdentifier, signature);
+			newOrder.add(documentIdentifier);
+			if (!tracked || !signature.equals(documentSignatures.get(documentIdentifier))) {
+				changedDocuments.add(document);
+			}
+		}
+		batchChangeSet.setChangedDocuments(changedDocuments);
+		if (!tracked || !newOrder.equals(documentOrder)) {
+			batchChangeSet.setDocumentOrder(newOrder);
+		}
+		if (tracked) {
+			batchChangeSet.setBaseVersion(batchVersion);
+			if (batchVersion != BatchChangeSetDTO.NO_VERSION) {
+				batchVersion++;
+			}
+		} else {
+			batchInstanceIdentifier = identifier;
+			batchVersion = BatchChangeSetDTO.NO_VERSION;
+			storedVersion = BatchChangeSetDTO.NO_VERSION;
+		}
+		documentSignatures = newSignatures;
+		documentOrder = newOrder;
+		pendingSaveCount++;
+		return batchChangeSet;
+	}
+
+	/**
+	 * To be called once a change set got saved.
+	 * 
+	 * @param version long the version of the stored batch after the save
+	 */
+	public void onSaveSuccess(final long version) {
+		if (pendingSaveCount > 0) {
+			pendingSaveCount--;
+		}
+		storedVersion = version;
+		if (pendingSaveCount == 0) {
+			batchVersion = version;
+		}
+	}
+
+	/**
+	 * To be called when a change set could not be saved. The server does not move to a new version on a failed save, so the next
+	 * change set is based on the last known version of the stored batch again. As it is unknown what part of the changes reached the
+	 * stored batch, the next change set carries all the documents and their order.
+	 */
+	public void onSaveFailure() {
+		if (pendingSaveCount > 0) {
+			pendingSaveCount--;
+		}
+		batchVersion = storedVersion;
+		documentSignatures = new HashMap<String, String>();
+		documentOrder = new ArrayList<String>();
+	}
+
+	private String getSignature(final Document document) {
+		final StringBuilder signature = new StringBuilder();
+		append(signature, document.getType());
+		append(signature, document.getSize());
+		append(signature, document.getConfidence());
+		append(signature, document.getConfidenceThreshold());
+		append(signature, document.isValid());
+		append(signature, document.isReviewed());
+		append(signature, document.getErrorMessage());
+		append(signature, document.getDocumentDisplayInfo());
+		append(signature, document.isDocumentTypeChanged());
+		append(signature, document.getMultiPageTiffFile());
+		append(signature, document.getMultiPagePdfFile());
+		if (document.getDocumentLevelFields() != null) {
+			appendDocFields(signature, document.getDocumentLevelFields().getDocumentLevelField());
+		}
+		signature.append(LIST_END);
+		if (document.getPages() != null) {
+			for (Page page : document.getPages().getPage()) {
+				append(signature, page.getIdentifier());
+				append(signature, page.getOldFileName());
+				append(signature, page.getNewFileName());
+				append(signature, page.getHocrFileName());
+				append(signature, page.getThumbnailFileName());
+				append(signature, page.getComparisonThumbnailFileName());
+				append(signature, page.getDisplayFileName());
+				append(signature, page.getOCRInputFileName());
+				append(signature, page.getDirection());
+				append(signature, page.isIsRotated());
+				if (page.getPageLevelFields() != null) {
+					appendDocFields(signature, page.getPageLevelFields().getPageLevelField());
+				}
+				signature.append(LIST_END);
+			}
+		}
+		signature.append(LIST_END);
+		if (document.getDataTables() != null) {
+			for (DataTable dataTable : document.getDataTables().getDataTable()) {
+				append(signature, dataTable.getName());
+				if (dataTable.getHeaderRow() != null && dataTable.getHeaderRow().getColumns() != null) {
+					appendColumns(signature, dataTable.getHeaderRow().getColumns().getColumn());
+				}
+				signature.append(LIST_END);
+				if (dataTable.getRows() != null) {
+					for (Row row : dataTable.getRows().getRow()) {
+						appendCoordinates(signature, row.getRowCoordinates());
+						append(signature, row.isMannualExtraction());
+						if (row.getColumns() != null) {
+							appendColumns(signature, row.getColumns().getColumn());
+						}
+						signature.append(LIST_END);
+					}
+				}
+				signature.append(LIST_END);
+			}
+		}
+		signature.append(LIST_END);
+		return signature.toString();
+	}
+
+	private void appendDocFields(final StringBuilder signature, final List<DocField> docFields) {
+		for (DocField docField : docFields) {
+			appendField(signature, docField);
+			if (docField.getAlternateValues() != null) {
+				for (Field alternateValue : docField.getAlternateValues().getAlternateValue()) {
+					appendField(signature, alternateValue);
+				}
+			}
+			signature.append(LIST_END);
+		}
+	}
+
+	private void appendColumns(final StringBuilder signature, final List<Column> columns) {
+		for (Column column : columns) {
+			appendField(signature, column);
+			append(signature, column.isValid());
+			append(signature, column.isValidationRequired());
+			if (column.getAlternateValues() != null) {
+				for (Field alternateValue : column.getAlternateValues().getAlternateValue()) {
+					appendField(signature, alternateValue);
+				}
+			}
+			signature.append(LIST_END);
+		}
+	}
+
+	private void appendField(final StringBuilder signature, final Field field) {
+		append(signature, field.getName());
+		append(signature, field.getValue());
+		append(signature, field.getType());
+		append(signature, field.getConfidence());
+		append(signature, field.getPage());
+		append(signature, field.getOverlayedImageFileName());
+		append(signature, field.getFieldOrderNumber());
+		append(signature, field.getFieldValueOptionList());
+		append(signature, field.isForceReview());
+		if (field.getCoordinatesList() != null) {
+			for (Coordinates coordinates : field.getCoordinatesList().getCoordinates()) {
+				appendCoordinates(signature, coordinates);
+			}
+		}
+		signature.append(LIST_END);
+	}
+
+	private void appendCoordinates(final StringBuilder signature, final Coordinates coordinates) {
+		if (coordinates != null) {
+			append(signature, coordinates.getX0());
+			append(signature, coordinates.getY0());
+			append(signature, coordinates.getX1());
+			append(signature, coordinates.getY1());
+		}
+		signature.append(LIST_END);
+	}
+
+	private void append(final StringBuilder signature, final Object value) {
+		signature.append(value).append(SEPARATOR);
+	}
+
+}
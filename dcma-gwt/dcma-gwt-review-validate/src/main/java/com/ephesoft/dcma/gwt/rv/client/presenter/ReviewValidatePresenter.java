@@ -119,6 +119,11 @@ public class ReviewValidatePresenter implements Presenter {
 
 	private Integer virtualUpdateCounter = 0;
 
+	/**
+	 * The batchChangeTracker keeps what was last saved so that only the changed documents are sent on save.
+	 */
+	private final BatchChangeTracker batchChangeTracker = new BatchChangeTracker();
+
 	/**
 	 * The isScriptExecuted is a check for executing field value script.
 	 */
@@ -253,6 +258,7 @@ public class ReviewValidatePresenter implements Presenter {
 		realUpdateInterval = batchDTO.getRealUpdateInterval();
 		final int preloadedImageCount = batchDTO.getPreloadedImageCount();
 		final Batch batch = batchDTO.getBatch();
+		batchChangeTracker.reset(batch, batchDTO.getBatchVersion());
 		if (batch != null) {
 			if (preImageLoadingPresenter != null) {
 				preImageLoadingPresenter.loadInvalidDocuments(batch.getBatchInstanceIdentifier(), preloadedImageCount);
@@ -1062,6 +1068,7 @@ public class ReviewValidatePresenter implements Presenter {
 			@Override
 			public void onSuccess(final BatchDTO arg0) {
 				batchDTO = arg0;
+				batchChangeTracker.reset(batchDTO.getBatch(), batchDTO.getBatchVersion());
 				final Document updatedDocument = batchDTO.getDocumentById(document.getIdentifier());
 				eventBus.fireEvent(new TreeRefreshEvent(batchDTO, updatedDocument, page));
 				ScreenMaskUtility.unmaskScreen();
@@ -1125,6 +1132,17 @@ public class ReviewValidatePresenter implements Presenter {
 				}
 			});
 
+		} else if (errorMessage.equals(ReviewValidateConstants.ERROR_TYPE_6)) {
+			errorCauseFound = true;
+			final ConfirmationDialog confirmationDialog = ConfirmationDialogUtil.showConfirmationDialogError(LocaleDictionary.get()
+					.getMessageValue(ReviewValidateMessages.BATCH_CHANGED_SINCE_LOAD), true);
+			confirmationDialog.okButton.addClickHandler(new ClickHandler() {
+
+				@Override
+				public void onClick(final ClickEvent arg0) {
+					getUpdatedBatchDTO();
+				}
+			});
 		}
 		return errorCauseFound;
 	}
@@ -1363,10 +1381,11 @@ public class ReviewValidatePresenter implements Presenter {
 	}
 
 	private final void updateBatch(final Batch batch, final boolean refreshDocument) {
-		rpcService.saveBatch(batch, new EphesoftAsyncCallback<Void>() {
+		rpcService.saveBatchChanges(batchChangeTracker.getChangeSet(batch), new EphesoftAsyncCallback<Long>() {
 
 			@Override
 			public void customFailure(Throwable paramThrowable) {
+				batchChangeTracker.onSaveFailure();
 				if (!displayErrorMessage(paramThrowable)) {
 					ConfirmationDialogUtil.showConfirmationDialogError(LocaleDictionary.get().getMessageValue(
 							ReviewValidateMessages.ERROR_SAVE_BATCH, batch.getBatchInstanceIdentifier())
@@ -1377,7 +1396,8 @@ public class ReviewValidatePresenter implements Presenter {
 			}
 
 			@Override
-			public void onSuccess(final Void arg0) {
+			public void onSuccess(final Long batchVersion) {
+				batchChangeTracker.onSaveSuccess(batchVersion);
 				ScreenMaskUtility.unmaskScreen();
 				setControlSorQPressed(false);
 				if (refreshDocument) {
@@ -0,0 +1,332 @@
+/********************************************************************************* 
+* Ephesoft is a Intelligent Document Capture and Mailroom Automation program 
+* developed by Ephesoft, Inc. Copyright (C) 2010-2012 Ephesoft Inc. 
+* 
+* This program is free software; you can redistribute it and/or modify it under 
+* the terms of the GNU Affero General Public License version 3 as published by the 
+* Free Software Foundation with the addition of the following permission added 
+* to Section 15 as permitted in Section 7(a): FOR ANY PART OF THE COVERED WORK 
+* IN WHICH THE COPYRIGHT IS OWNED BY EPHESOFT, EPHESOFT DISCLAIMS THE WARRANTY 
+* OF NON INFRINGEMENT OF THIRD PARTY RIGHTS. 
+* 
+* This program is distributed in the hope that it will be useful, but WITHOUT 
+* ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+* FOR A PARTICULAR PURPOSE.  See the GNU Affero General Public License for more 
+* details. 
+* 
+* You should have received a copy of the GNU Affero General Public License along with 
+* this program; if not, see http://www.gnu.org/licenses or write to the Free 
+* Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 
+* 02110-1301 USA. 
+* 
+* You can contact Ephesoft, Inc. headquarters at 111 Academy Way, 
+* Irvine, CA 92617, USA. or at email address info@ephesoft.com. 
+* 
+* The interactive user interfaces in modified source and object code versions 
+* of this program must display Appropriate Legal Notices, as required under 
+* Section 5 of the GNU Affero General Public License version 3. 
+* 
+* In accordance with Section 7(b) of the GNU Affero General Public License version 3, 
+* these Appropriate Legal Notices must retain the display of the "Ephesoft" logo. 
+* If the display of the logo is not reasonably feasible for 
+* technical reasons, the Appropriate Legal Notices must display the words 
+* "Powered by Ephesoft". 
+********************************************************************************/ 
+
+package com.ephesoft.dcma.gwt.rv.server;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.ephesoft.dcma.batch.schema.Coordinates;
+import com.ephesoft.dcma.batch.schema.HocrPages.HocrPage.Spans.Span;
+
+/**
+ * This class keeps the parsed words of the hOCR pages of the batches open on review/validate, so that clicking a field or drawing a
+ * box does not read and unmarshal the page's hOCR file again. The cache is bounded by the total number of words held, least recently
+ * used pages going first.
+ * 
+ * @author Ephesoft
+ * @version 1.0
+ * @see com.ephesoft.dcma.gwt.rv.server.ReviewValidateDocServiceImpl
+ */
+public class HocrPageCache {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(HocrPageCache.class);
+
+	private static final String KEY_SEPARATOR = "/";
+
+	/**
+	 * Default maximum number of words held by the cache.
+	 */
+	public static final int DEFAULT_MAX_SPANS = 200000;
+
+	private final int maxSpans;
+
+	private int cachedSpans;
+
+	private final Map<String, PageGeometry> pageGeometryMap = new LinkedHashMap<String, PageGeometry>(16, 0.75f, true);
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param maxSpans int maximum number of words held by the cache
+	 */
+	public HocrPageCache(final int maxSpans) {
+		this.maxSpans = maxSpans;
+	}
+
+	/**
+	 * To get the cached words of a page.
+	 * 
+	 * @param batchInstanceIdentifier {@link String}
+	 * @param pageId {@link String}
+	 * @param lineGap int the vertical gap the words were sorted into lines with
+	 * @return {@link PageGeometry}, null if the page is not cached for this gap
+	 */
+	public synchronized PageGeometry get(final String batchInstanceIdentifier, final String pageId, final int lineGap) {
+		PageGeometry pageGeometry = pageGeometryMap.get(getKey(batchInstanceIdentifier, pageId));
+		if (pageGeometry != null && pageGeometry.getLineGap() != lineGap) {
+			pageGeometry = null;
+		}
+		return pageGeometry;
+	}
+
+	/**
+	 * To cache the words of a page, evicting the least recently used pages once the cache is full.
+	 * 
+	 * @param batchInstanceIdentifier {@link String}
+	 * @param pageId {@link String}
+	 * @param pageGeometry {@link PageGeometry}
+	 */
+	public synchronized void put(final String batchInstanceIdentifier, final String pageId, final PageGeometry pageGeometry) {
+		final String key = getKey(batchInstanceIdentifier, pageId);
+		final PageGeometry oldPageGeometry = pageGeometryMap.put(key, pageGeometry);
+		if (oldPageGeometry != null) {
+			cachedSpans -= oldPageGeometry.size();
+		}
+		cachedSpans += pageGeometry.size();
+		final Iterator<Map.Entry<String, PageGeometry>> iterator = pageGeometryMap.entrySet().iterator();
+		while (cachedSpans > maxSpans && iterator.hasNext()) {
+			final Map.Entry<String, PageGeometry> eldestEntry = iterator.next();
+			if (!eldestEntry.getKey().equals(key)) {
+				cachedSpans -= eldestEntry.getValue().size();
+				iterator.remove();
+			}
+		}
+	}
+
+	/**
+	 * To drop all the cached pages of a batch.
+	 * 
+	 * @param batchInstanceIdentifier {@link String}
+	 */
+	public synchronized void evictBatch(final String batchInstanceIdentifier) {
+		final String keyPrefix = batchInstanceIdentifier + KEY_SEPARATOR;
+		int evictedPages = 0;
+		final Iterator<Map.Entry<String, PageGeometry>> iterator = pageGeometryMap.entrySet().iterator();
+		while (iterator.hasNext()) {
+			final Map.Entry<String, PageGeometry> entry = iterator.next();
+			if (entry.getKey().startsWith(keyPrefix)) {
+				cachedSpans -= entry.getValue().size();
+				iterator.remove();
+				evictedPages++;
+			}
+		}
+		if (evictedPages > 0) {
+			LOGGER.debug("Evicted " + evictedPages + " hOCR pages of batch " + batchInstanceIdentifier);
+		}
+	}
+
+	private String getKey(final String batchInstanceIdentifier, final String pageId) {
+		return batchInstanceIdentifier + KEY_SEPARATOR + pageId;
+	}
+
+	/**
+	 * The words of one hOCR page sorted into reading order, with their coordinates indexed for region queries.
+	 */
+	public static final class PageGeometry {
+
+		private final List<Span> spans;
+
+		private final int lineGap;
+
+		private final long[] spanX0;
+
+		private final long[] spanY0;
+
+		private final long[] spanX1;
+
+		private final long[] spanY1;
+
+		/**
+		 * Positions of the words in {@link #spans} ordered by their top coordinate.
+		 */
+		private final int[] topOrder;
+
+		private final long maxHeight;
+
+		/**
+		 * Constructor.
+		 * 
+		 * @param sortedSpans {@link List}<{@link Span}> the words of the page in reading order
+		 * @param lineGap int the vertical gap the words were sorted into lines with
+		 */
+		public PageGeometry(final List<Span> sortedSpans, final int lineGap) {
+			this.spans = Collections.unmodifiableList(new ArrayList<Span>(sortedSpans));
+			this.lineGap = lineGap;
+			final int size = spans.size();
+			spanX0 = new long[size];
+			spanY0 = new long[size];
+			spanX1 = new long[size];
+			spanY1 = new long[size];
+			long maxSpanHeight = 0;
+			final Integer[] positions = new Integer[size];
+			for (int index = 0; index < size; index++) {
+				final Coordinates coordinates = spans.get(index).getCoordinates();
+				spanX0[index] = coordinates.getX0().longValue();
+				spanY0[index] = coordinates.getY0().longValue();
+				spanX1[index] = coordinates.getX1().longValue();
+				spanY1[index] = coordinates.getY1().longValue();
+				maxSpanHeight = Math.max(maxSpanHeight, spanY1[index] - spanY0[index]);
+				positions[index] = index;
+			}
+			maxHeight = maxSpanHeight;
+			Arrays.sort(positions, new Comparator<Integer>() {
+
+				@Override
+				public int compare(final Integer firstPosition, final Integer secondPosition) {
+					final long firstTop = spanY0[firstPosition];
+					final long secondTop = spanY0[secondPosition];
+					return firstTop < secondTop ? -1 : (firstTop == secondTop ? 0 : 1);
+				}
+			});
+			topOrder = new int[size];
+			for (int index = 0; index < size; index++) {
+				topOrder[index] = positions[index];
+			}
+		}
+
+		/**
+		 * To get the words of the page in reading order.
+		 * 
+		 * @return {@link List}<{@link Span}>
+		 */
+		public List<Span> getSpans() {
+			return spans;
+		}
+
+		public int size() {
+			return spans.size();
+		}
+
+		public int getLineGap() {
+			return lineGap;
+		}
+
+		public long getX0(final int index) {
+			return spanX0[index];
+		}
+
+		public long getY0(final int index) {
+			return spanY0[index];
+		}
+
+		public long getX1(final int index) {
+			return spanX1[index];
+		}
+
+		public long getY1(final int index) {
+			return spanY1[index];
+		}
+
+		/**
+		 * To get the positions, in reading order, of the words touching a region.
+		 * 
+		 * @param x0 long left of the region
+		 * @param y0 long top of the region
+		 * @param x1 long right of the region
+		 * @param y1 long bottom of the region
+		 * @return int[] positions in {@link #getSpans()}
+		 */
+		public int[] getSpanIndexesInRegion(final long x0, final long y0, final long x1, final long y1) {
+			// no word starting above this can reach down into the region
+			int position = firstTopNotBelow(y0 - maxHeight);
+			int[] indexes = new int[0];
+			int count = 0;
+			while (position < topOrder.length && spanY0[topOrder[position]] <= y1) {
+				final int index = topOrder[position];
+				if (spanY1[index] >= y0 && spanX0[index] <= x1 && spanX1[index] >= x0) {
+					if (count == indexes.length) {
+						indexes = Arrays.copyOf(indexes, Math.max(8, count * 2));
+					}
+					indexes[count++] = index;
+				}
+				position++;
+			}
+			indexes = Arrays.copyOf(indexes, count);
+			Arrays.sort(indexes);
+			return indexes;
+		}
+
+		/**
+		 * To get the words touching a region, in reading order.
+		 * 
+		 * @param x0 long left of the region
+		 * @param y0 long top of the region
+		 * @param x1 long right of the region
+		 * @param y1 long bottom of the region
+		 * @return {@link List}<{@link Span}>
+		 */
+		public List<Span> getSpansInRegion(final long x0, final long y0, final long x1, final long y1) {
+			final int[] indexes = getSpanIndexesInRegion(x0, y0, x1, y1);
+			final List<Span> regionSpans = new ArrayList<Span>(indexes.length);
+			for (int index : indexes) {
+				regionSpans.add(spans.get(index));
+			}
+			return regionSpans;
+		}
+
+		/**
+		 * To get the position of the first word, in reading order, strictly containing a point.
+		 * 
+		 * @param xCoordinate long
+		 * @param yCoordinate long
+		 * @return int position in {@link #getSpans()}, -1 if no word contains the point
+		 */
+		public int getSpanIndexAt(final long xCoordinate, final long yCoordinate) {
+			int spanIndex = -1;
+			for (int index : getSpanIndexesInRegion(xCoordinate, yCoordinate, xCoordinate, yCoordinate)) {
+				if (spanX0[index] < xCoordinate && spanX1[index] > xCoordinate && spanY0[index] < yCoordinate
+						&& spanY1[index] > yCoordinate) {
+					spanIndex = index;
+					break;
+				}
+			}
+			return spanIndex;
+		}
+
+		private int firstTopNotBelow(final long top) {
+			int low = 0;
+			int high = topOrder.length;
+			while (low < high) {
+				final int middle = (low + high) >>> 1;
+				if (spanY0[topOrder[middle]] < top) {
+					low = middle + 1;
+				} else {
+					high = middle;
+				}
+			}
+			return low;
+		}
+	}
+}
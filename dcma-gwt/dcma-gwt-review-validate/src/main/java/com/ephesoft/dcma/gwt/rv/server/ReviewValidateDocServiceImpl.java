@@ -49,6 +49,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -96,6 +98,7 @@ import com.ephesoft.dcma.encryption.security.SecurityTokenHandler;
 import com.ephesoft.dcma.fuzzydb.service.FuzzyDBSearchService;
 import com.ephesoft.dcma.gwt.core.server.DCMARemoteServiceServlet;
 import com.ephesoft.dcma.gwt.core.shared.BatchClassBean;
+import com.ephesoft.dcma.gwt.core.shared.BatchChangeSetDTO;
 import com.ephesoft.dcma.gwt.core.shared.BatchDTO;
 import com.ephesoft.dcma.gwt.core.shared.DocumentTypeDBBean;
 import com.ephesoft.dcma.gwt.core.shared.FieldTypeDTO;
@@ -106,6 +109,7 @@ import com.ephesoft.dcma.gwt.rv.client.ReviewValidateDocService;
 import com.ephesoft.dcma.gwt.rv.client.constant.ReviewProperties;
 import com.ephesoft.dcma.gwt.rv.client.constant.ValidateProperties;
 import com.ephesoft.dcma.gwt.rv.client.i18n.ReviewValidateConstants;
+import com.ephesoft.dcma.gwt.rv.server.HocrPageCache.PageGeometry;
 import com.ephesoft.dcma.imagemagick.service.ImageProcessService;
 import com.ephesoft.dcma.script.service.ScriptService;
 import com.ephesoft.dcma.tablefinder.service.TableFinderService;
@@ -125,6 +129,8 @@ public class ReviewValidateDocServiceImpl extends DCMARemoteServiceServlet imple
 
 	private static final String ERROR_TYPE_4 = "4";
 
+	private static final String ERROR_TYPE_6 = "6";
+
 	private static final String ZOOM_COUNT_MIN_VALUE = "1";
 
 	private static final String ZOOM_COUNT_MAX_VALUE = "3";
@@ -155,6 +161,10 @@ public class ReviewValidateDocServiceImpl extends DCMARemoteServiceServlet imple
 
 	private static String preloadedImageCount = null;
 
+	private static final String HOCR_CACHE_MAX_SPANS = "hocr_cache_max_spans";
+
+	private static HocrPageCache hocrPageCache = null;
+
 	private final static String ZOOM_COUNT = "zoom_count";
 
 	private static final int DOC_TYPE = 1;
@@ -165,22 +175,23 @@ public class ReviewValidateDocServiceImpl extends DCMARemoteServiceServlet imple
 
 	private static final Logger LOGGER = LoggerFactory.getLogger(ReviewValidateDocServiceImpl.class);
 
+	/**
+	 * Version of each batch opened on review/validate, bumped on every successful save so that a change set based on an older version
+	 * is refused. An entry is dropped once the batch is unlocked or signalled.
+	 */
+	private static final ConcurrentMap<String, BatchVersion> BATCH_VERSIONS = new ConcurrentHashMap<String, BatchVersion>();
+
 	@Override
 	public BatchDTO getHighestPriortyBatch() throws GWTException {
 		BatchDTO batchDTO = null;
 		BatchInstanceService batchInstanceService = this.getSingleBeanOfType(BatchInstanceService.class);
 		EphesoftUser ephesoftUser = EphesoftUser.NORMAL_USER;
-		BatchInstance batchInstance = batchInstanceService.getHighestPriorityBatchInstance(getUserRoles(), ephesoftUser);
+		// The batch is claimed for the user in the same step it is picked, so concurrent users never race for the same batch.
+		BatchInstance batchInstance = batchInstanceService.claimNextBatchInstance(getUserRoles(), ephesoftUser, getUserName());
 		if (batchInstance != null) {
 			String batchInstanceIdentifier = batchInstance.getIdentifier();
 			batchDTO = getBatch(batchInstanceIdentifier);
 			recordReviewOrValidateDuration(batchInstanceIdentifier, batchDTO.getBatchInstanceStatus());
-			try {
-				acquireLock(batchInstanceIdentifier);
-			} catch (GWTException e) {
-				throw new GWTException(e.getMessage() + ReviewValidateConstants.SPACE + ReviewValidateConstants.ERROR_TYPE_5
-						+ ReviewValidateConstants.SPACE + batchInstanceIdentifier, e);
-			}
 		}
 		return batchDTO;
 	}
@@ -299,10 +310,12 @@ public class ReviewValidateDocServiceImpl extends DCMARemoteServiceServlet imple
 		} catch (IOException e) {
 			LOGGER.info("Unable to fetch default state for review panel.", e);
 		}
-		return new BatchDTO(batch, batchURL.toString(), validateScriptSwitch, fieldValueChangeScriptSwitch, fuzzySearchSwitch,
-				suggestionBoxSwitchState, externalApplicationSwitchState, urlAndShortcutMap, dimensionsForPopUp, urlAndTitleMap,
-				fuzzySearchPopUpXDimension, fuzzySearchPopUpYDimension, updateInterval, preloadedImageCount, batchInstanceStatus,
-				docDisplayName, defaultReviewPanelState);
+		BatchDTO batchDTO = new BatchDTO(batch, batchURL.toString(), validateScriptSwitch, fieldValueChangeScriptSwitch,
+				fuzzySearchSwitch, suggestionBoxSwitchState, externalApplicationSwitchState, urlAndShortcutMap, dimensionsForPopUp,
+				urlAndTitleMap, fuzzySearchPopUpXDimension, fuzzySearchPopUpYDimension, updateInterval, preloadedImageCount,
+				batchInstanceStatus, docDisplayName, defaultReviewPanelState);
+		batchDTO.setBatchVersion(getBatchVersion(batchInstanceIdentifier).getVersion());
+		return batchDTO;
 	}
 
 	@Override
@@ -755,7 +768,107 @@ public class ReviewValidateDocServiceImpl extends DCMARemoteServiceServlet imple
 	public void saveBatch(Batch batch) throws GWTException {
 		checkCurrentUser(batch.getBatchInstanceIdentifier());
 		BatchSchemaService batchSchemaService = this.getSingleBeanOfType(BatchSchemaService.class);
-		batchSchemaService.updateBatch(batch);
+		BatchVersion batchVersion = getBatchVersion(batch.getBatchInstanceIdentifier());
+		synchronized (batchVersion) {
+			batchSchemaService.updateBatch(batch);
+			batchVersion.increment();
+		}
+	}
+
+	@Override
+	public Long saveBatchChanges(BatchChangeSetDTO batchChangeSet) throws GWTException {
+		String batchInstanceIdentifier = batchChangeSet.getBatchInstanceIdentifier();
+		checkCurrentUser(batchInstanceIdentifier);
+		BatchVersion batchVersion = getBatchVersion(batchInstanceIdentifier);
+		long newVersion;
+		synchronized (batchVersion) {
+			long baseVersion = batchChangeSet.getBaseVersion();
+			if (baseVersion != BatchChangeSetDTO.NO_VERSION && baseVersion != batchVersion.getVersion()) {
+				LOGGER.info("Refusing changes on batch " + batchInstanceIdentifier + " made at version " + baseVersion
+						+ ", current version is " + batchVersion.getVersion());
+				throw new GWTException(ERROR_TYPE_6);
+			}
+			if (!batchChangeSet.isEmpty()) {
+				BatchSchemaService batchSchemaService = this.getSingleBeanOfType(BatchSchemaService.class);
+				Batch batch = batchSchemaService.getBatch(batchInstanceIdentifier);
+				applyBatchChanges(batch, batchChangeSet);
+				batchSchemaService.updateBatch(batch);
+			}
+			// bumped only once the changes are stored, a failed save leaves the version as the client knows it
+			newVersion = batchVersion.increment();
+		}
+		return newVersion;
+	}
+
+	/**
+	 * To apply the changed documents and the new document order of a change set on the stored batch.
+	 * 
+	 * @param batch {@link Batch} the stored batch
+	 * @param batchChangeSet {@link BatchChangeSetDTO}
+	 * @throws GWTException if the change set refers to a document that is neither stored nor sent
+	 */
+	private void applyBatchChanges(Batch batch, BatchChangeSetDTO batchChangeSet) throws GWTException {
+		List<Document> documents = batch.getDocuments().getDocument();
+		Map<String, Document> documentMap = new LinkedHashMap<String, Document>();
+		for (Document document : documents) {
+			documentMap.put(document.getIdentifier(), document);
+		}
+		List<Document> changedDocuments = batchChangeSet.getChangedDocuments();
+		if (changedDocuments != null) {
+			for (Document changedDocument : changedDocuments) {
+				documentMap.put(changedDocument.getIdentifier(), changedDocument);
+			}
+		}
+		List<String> documentOrder = batchChangeSet.getDocumentOrder();
+		if (documentOrder == null) {
+			documentOrder = new ArrayList<String>(documentMap.keySet());
+		}
+		List<Document> newDocuments = new ArrayList<Document>(documentOrder.size());
+		for (String documentIdentifier : documentOrder) {
+			Document document = documentMap.get(documentIdentifier);
+			if (document == null) {
+				String errorMessage = "Could not find document " + documentIdentifier + " in batch " + batch.getBatchInstanceIdentifier();
+				LOGGER.error(errorMessage);
+				throw new GWTException(errorMessage);
+			}
+			newDocuments.add(document);
+		}
+		documents.clear();
+		documents.addAll(newDocuments);
+	}
+
+	/**
+	 * To get the version of a batch, starting a new one for a batch not seen before. Saves on a batch synchronize on its version.
+	 * 
+	 * @param batchInstanceIdentifier {@link String}
+	 * @return {@link BatchVersion}
+	 */
+	private BatchVersion getBatchVersion(String batchInstanceIdentifier) {
+		BatchVersion version = BATCH_VERSIONS.get(batchInstanceIdentifier);
+		if (version == null) {
+			// start from the clock so that a version handed out before a restart is not mistaken for the current one
+			BatchVersion initialVersion = new BatchVersion(System.currentTimeMillis(), getUserName());
+			version = BATCH_VERSIONS.putIfAbsent(batchInstanceIdentifier, initialVersion);
+			if (version == null) {
+				version = initialVersion;
+			}
+		}
+		return version;
+	}
+
+	/**
+	 * To drop the versions of the batches opened by the given user, once they are unlocked.
+	 * 
+	 * @param userName {@link String}
+	 */
+	private void removeBatchVersions(String userName) {
+		if (userName != null) {
+			for (Map.Entry<String, BatchVersion> entry : BATCH_VERSIONS.entrySet()) {
+				if (userName.equals(entry.getValue().getUserName())) {
+					BATCH_VERSIONS.remove(entry.getKey(), entry.getValue());
+				}
+			}
+		}
 	}
 
 	private void checkCurrentUser(String batchInstanceIdentifier) throws GWTException {
@@ -778,6 +891,8 @@ public class ReviewValidateDocServiceImpl extends DCMARemoteServiceServlet imple
 				acquireLock(batchInstanceIdentifier);
 			} else if (!sessionUser.equals(currentBatchUser)) {
 				throw new GWTException(ERROR_TYPE_2);
+			} else {
+				batchInstanceService.renewBatchInstanceClaim(batchInstance, sessionUser);
 			}
 		} else {
 			String errorMessage = "Could not get batch for batch id: " + batchInstanceIdentifier;
@@ -867,92 +982,54 @@ public class ReviewValidateDocServiceImpl extends DCMARemoteServiceServlet imple
 			valid = false;
 		}
 		if (valid) {
-			BatchSchemaService batchSchemaService = this.getSingleBeanOfType(BatchSchemaService.class);
-			HocrPages hocrPages = batchSchemaService.getHocrPages(batchInstanceIdentifier, pageID);
-			if (hocrPages != null && hocrPages.getHocrPage() != null) {
-				List<HocrPage> hocrPageList = hocrPages.getHocrPage();
-				if (!hocrPageList.isEmpty()) {
-					spanSelectedList = getContentForHOCR(pointCoordinate1, pointCoordinate2, rectangularCoordinateSet,
-							spanSelectedList, hocrPageList);
-				}
+			PageGeometry pageGeometry = getPageGeometry(batchInstanceIdentifier, pageID);
+			if (pageGeometry != null) {
+				spanSelectedList = getContentForHOCR(pointCoordinate1, pointCoordinate2, rectangularCoordinateSet, spanSelectedList,
+						pageGeometry);
 			}
 		}
 		return spanSelectedList;
 	}
 
 	private List<Span> getContentForHOCR(PointCoordinate pointCoordinate1, PointCoordinate pointCoordinate2,
-			boolean rectangularCoordinateSet, List<Span> spanSelectedList, List<HocrPage> hocrPageList) {
+			boolean rectangularCoordinateSet, List<Span> spanSelectedList, PageGeometry pageGeometry) {
 		List<Span> spanSelectedListTemp = spanSelectedList;
-		HocrPage hocrPage = hocrPageList.get(0);
-		List<Span> spanList = new ArrayList<Span>();
-		if (hocrPage.getSpans() != null) {
-			spanList = hocrPage.getSpans().getSpan();
-		}
-		Integer firstSpanIndex = null;
-		Integer lastSpanIndex = null;
 		Integer x0Coordinate = pointCoordinate1.getxCoordinate();
 		Integer y0Coordinate = pointCoordinate1.getyCoordinate();
 		Integer x1Coordinate = pointCoordinate2.getxCoordinate();
 		Integer y1Coordinate = pointCoordinate2.getyCoordinate();
-		List<Span> spanSortedList = getSortedList(spanList);
 		if (!rectangularCoordinateSet) {
-			int counter = 0;
-			for (Span span : spanSortedList) {
-				long spanX0 = span.getCoordinates().getX0().longValue();
-				long spanY0 = span.getCoordinates().getY0().longValue();
-				long spanX1 = span.getCoordinates().getX1().longValue();
-				long spanY1 = span.getCoordinates().getY1().longValue();
-				if (spanX0 < x0Coordinate && spanX1 > x0Coordinate && spanY0 < y0Coordinate && spanY1 > y0Coordinate) {
-					firstSpanIndex = counter;
-				}
-				if (spanX0 < x1Coordinate && spanX1 > x1Coordinate && spanY0 < y1Coordinate && spanY1 > y1Coordinate) {
-					lastSpanIndex = counter;
-				}
-				if (firstSpanIndex != null && lastSpanIndex != null) {
-					break;
-				}
-				counter++;
-			}
-			if (firstSpanIndex != null && lastSpanIndex != null) {
-				counter = 0;
-				for (Span span : spanSortedList) {
-					if ((counter >= firstSpanIndex && counter <= lastSpanIndex)
-							|| (counter <= firstSpanIndex && counter >= lastSpanIndex)) {
-						if (spanSelectedListTemp == null) {
-							spanSelectedListTemp = new ArrayList<Span>();
-						}
-						spanSelectedListTemp.add(span);
-					}
-					counter++;
+			int firstSpanIndex = pageGeometry.getSpanIndexAt(x0Coordinate, y0Coordinate);
+			int lastSpanIndex = pageGeometry.getSpanIndexAt(x1Coordinate, y1Coordinate);
+			if (firstSpanIndex >= 0 && lastSpanIndex >= 0) {
+				if (spanSelectedListTemp == null) {
+					spanSelectedListTemp = new ArrayList<Span>();
 				}
+				spanSelectedListTemp.addAll(pageGeometry.getSpans().subList(Math.min(firstSpanIndex, lastSpanIndex),
+						Math.max(firstSpanIndex, lastSpanIndex) + 1));
 			}
 		} else {
 			spanSelectedListTemp = setCoordinateValues(spanSelectedListTemp, x0Coordinate, y0Coordinate, x1Coordinate, y1Coordinate,
-					spanSortedList);
+					pageGeometry);
 		}
 		return spanSelectedListTemp;
 	}
 
 	private List<Span> setCoordinateValues(List<Span> spanSelectedListTemp, Integer x0Coordinate, Integer y0Coordinate,
-			Integer x1Coordinate, Integer y1Coordinate, List<Span> spanSortedList) {
+			Integer x1Coordinate, Integer y1Coordinate, PageGeometry pageGeometry) {
 		List<Span> tempSpanSelectedList = spanSelectedListTemp;
 		boolean isValidSpan = false;
-		int defaultvalue = 20;
 		int counter = 0;
 		StringBuffer valueStringBuffer = new StringBuffer();
-		long currentYCoor = spanSortedList.get(0).getCoordinates().getY1().longValue();
-		for (Span span : spanSortedList) {
+		// only the words touching the drawn box can match, so the rest of the page is not looked at
+		int[] spanIndexes = pageGeometry.getSpanIndexesInRegion(Math.min(x0Coordinate, x1Coordinate), Math.min(y0Coordinate,
+				y1Coordinate), Math.max(x0Coordinate, x1Coordinate), Math.max(y0Coordinate, y1Coordinate));
+		for (int spanIndex : spanIndexes) {
 			isValidSpan = false;
-			long spanX0 = span.getCoordinates().getX0().longValue();
-			long spanY0 = span.getCoordinates().getY0().longValue();
-			long spanX1 = span.getCoordinates().getX1().longValue();
-			long spanY1 = span.getCoordinates().getY1().longValue();
-			if ((spanY1 - currentYCoor) > defaultvalue) {
-				currentYCoor = spanY1;
-				if (tempSpanSelectedList != null && tempSpanSelectedList.size() > 0) {
-					break;
-				}
-			}
+			long spanX0 = pageGeometry.getX0(spanIndex);
+			long spanY0 = pageGeometry.getY0(spanIndex);
+			long spanX1 = pageGeometry.getX1(spanIndex);
+			long spanY1 = pageGeometry.getY1(spanIndex);
 			if (((spanX1 >= x0Coordinate && spanX1 <= x1Coordinate) || (spanX0 >= x0Coordinate && spanX0 <= x1Coordinate))
 					&& ((spanY1 <= y1Coordinate && spanY1 >= y0Coordinate) || (spanY0 <= y1Coordinate && spanY0 >= y0Coordinate))) {
 				isValidSpan = true;
@@ -971,7 +1048,7 @@ public class ReviewValidateDocServiceImpl extends DCMARemoteServiceServlet imple
 				if (counter != 0) {
 					valueStringBuffer.append(' ');
 				}
-				valueStringBuffer.append(span.getValue());
+				valueStringBuffer.append(pageGeometry.getSpans().get(spanIndex).getValue());
 				counter++;
 			}
 		}
@@ -990,7 +1067,7 @@ public class ReviewValidateDocServiceImpl extends DCMARemoteServiceServlet imple
 		return tempSpanSelectedList;
 	}
 
-	private List<Span> getSortedList(List<Span> spanList) {
+	private int getLineGap() {
 		TableFinderService tableFinderService = this.getSingleBeanOfType(TableFinderService.class);
 		int defaultvalue = 20;
 		if (tableFinderService != null) {
@@ -1000,8 +1077,11 @@ public class ReviewValidateDocServiceImpl extends DCMARemoteServiceServlet imple
 				defaultvalue = 20;
 			}
 		}
+		return defaultvalue;
+	}
 
-		final int deafultGap = defaultvalue;
+	private List<Span> getSortedList(List<Span> spanList, int lineGap) {
+		final int deafultGap = lineGap;
 		// TODO optimize the set creation for document level fields.
 		final Set<Span> set = new TreeSet<Span>(new Comparator<Span>() {
 
@@ -1034,44 +1114,66 @@ public class ReviewValidateDocServiceImpl extends DCMARemoteServiceServlet imple
 
 	}
 
+	/**
+	 * To get the words of an hOCR page sorted into reading order, from the cache if the page was read before.
+	 * 
+	 * @param batchInstanceIdentifier {@link String}
+	 * @param pageID {@link String}
+	 * @return {@link PageGeometry}, null if the page has no hOCR content
+	 */
+	private PageGeometry getPageGeometry(String batchInstanceIdentifier, String pageID) {
+		int lineGap = getLineGap();
+		HocrPageCache pageCache = getHocrPageCache();
+		PageGeometry pageGeometry = pageCache.get(batchInstanceIdentifier, pageID, lineGap);
+		if (pageGeometry == null) {
+			BatchSchemaService batchSchemaService = this.getSingleBeanOfType(BatchSchemaService.class);
+			HocrPages hocrPages = batchSchemaService.getHocrPages(batchInstanceIdentifier, pageID);
+			if (hocrPages != null && hocrPages.getHocrPage() != null && !hocrPages.getHocrPage().isEmpty()) {
+				HocrPage hocrPage = hocrPages.getHocrPage().get(0);
+				List<Span> spanList = new ArrayList<Span>();
+				if (hocrPage.getSpans() != null) {
+					spanList = hocrPage.getSpans().getSpan();
+				}
+				pageGeometry = new PageGeometry(getSortedList(spanList, lineGap), lineGap);
+				pageCache.put(batchInstanceIdentifier, pageID, pageGeometry);
+			}
+		}
+		return pageGeometry;
+	}
+
+	private static synchronized HocrPageCache getHocrPageCache() {
+		if (hocrPageCache == null) {
+			int maxSpans = HocrPageCache.DEFAULT_MAX_SPANS;
+			try {
+				ApplicationConfigProperties applicationConfigProperties = ApplicationConfigProperties.getApplicationConfigProperties();
+				String maxSpansValue = applicationConfigProperties.getProperty(HOCR_CACHE_MAX_SPANS);
+				if (maxSpansValue != null && !maxSpansValue.trim().isEmpty()) {
+					maxSpans = Integer.parseInt(maxSpansValue.trim());
+				}
+			} catch (IOException e) {
+				LOGGER.info("Unable to read hOCR cache size, using default of " + maxSpans, e);
+			} catch (NumberFormatException e) {
+				LOGGER.info("Invalid hOCR cache size, using default of " + maxSpans, e);
+			}
+			hocrPageCache = new HocrPageCache(maxSpans);
+		}
+		return hocrPageCache;
+	}
+
 	@Override
 	public List<Span> getHOCRContent(List<PointCoordinate> pointCoordinates, String batchInstanceIdentifier, String pageID) {
 
 		List<Span> selectedSpanList = null;
-		for (PointCoordinate pointCoordinate : pointCoordinates) {
-			Integer xCoordinate = pointCoordinate.getxCoordinate();
-			Integer yCoordinate = pointCoordinate.getyCoordinate();
-			boolean valid = true;
-			if (batchInstanceIdentifier == null) {
-				valid = false;
-			}
-			if (pageID == null) {
-				valid = false;
-			}
-			if (valid) {
-				BatchSchemaService batchSchemaService = this.getSingleBeanOfType(BatchSchemaService.class);
-				HocrPages hocrPages = batchSchemaService.getHocrPages(batchInstanceIdentifier, pageID);
-				if (hocrPages != null && hocrPages.getHocrPage() != null) {
-					List<HocrPage> hocrPageList = hocrPages.getHocrPage();
-					if (!hocrPageList.isEmpty()) {
-						HocrPage hocrPage = hocrPageList.get(0);
-						List<Span> spanList = new ArrayList<Span>();
-						if (hocrPage.getSpans() != null) {
-							spanList = hocrPage.getSpans().getSpan();
-						}
-						for (Span span1 : spanList) {
-							long spanX0 = span1.getCoordinates().getX0().longValue();
-							long spanY0 = span1.getCoordinates().getY0().longValue();
-							long spanX1 = span1.getCoordinates().getX1().longValue();
-							long spanY1 = span1.getCoordinates().getY1().longValue();
-							if (spanX0 < xCoordinate && spanX1 > xCoordinate && spanY0 < yCoordinate && spanY1 > yCoordinate) {
-								if (selectedSpanList == null) {
-									selectedSpanList = new ArrayList<Span>();
-								}
-								selectedSpanList.add(span1);
-								break;
-							}
+		if (batchInstanceIdentifier != null && pageID != null) {
+			PageGeometry pageGeometry = getPageGeometry(batchInstanceIdentifier, pageID);
+			if (pageGeometry != null) {
+				for (PointCoordinate pointCoordinate : pointCoordinates) {
+					int spanIndex = pageGeometry.getSpanIndexAt(pointCoordinate.getxCoordinate(), pointCoordinate.getyCoordinate());
+					if (spanIndex >= 0) {
+						if (selectedSpanList == null) {
+							selectedSpanList = new ArrayList<Span>();
 						}
+						selectedSpanList.add(pageGeometry.getSpans().get(spanIndex));
 					}
 				}
 			}
@@ -1197,64 +1299,47 @@ public class ReviewValidateDocServiceImpl extends DCMARemoteServiceServlet imple
 			valid = false;
 		}
 		if (valid) {
-			BatchSchemaService batchSchemaService = this.getSingleBeanOfType(BatchSchemaService.class);
-			TableFinderService tableFinderService = this.getSingleBeanOfType(TableFinderService.class);
-			HocrPages hocrPages = batchSchemaService.getHocrPages(batchInstanceIdentifier, pageID);
-			if (hocrPages != null && hocrPages.getHocrPage() != null) {
-				List<HocrPage> hocrPageList = hocrPages.getHocrPage();
-				if (!hocrPageList.isEmpty()) {
-					HocrPage hocrPage = hocrPageList.get(0);
-					List<Span> spanList = new ArrayList<Span>();
-					if (hocrPage.getSpans() != null) {
-						spanList = hocrPage.getSpans().getSpan();
-					}
-					List<Span> spanSortedList = getSortedList(spanList);
-					Integer x0Coordinate = initialCoordinate.getxCoordinate();
-					Integer y0Coordinate = initialCoordinate.getyCoordinate();
-					Integer x1Coordinate = finalCoordinate.getxCoordinate();
-					Integer y1Coordinate = finalCoordinate.getyCoordinate();
-					boolean isValidSpan = false;
-					int defaultvalue = 20;
-					if (tableFinderService != null) {
-						try {
-							defaultvalue = Integer.parseInt(tableFinderService.getWidthOfLine());
-						} catch (NumberFormatException nfe) {
-							defaultvalue = 20;
+			PageGeometry pageGeometry = getPageGeometry(batchInstanceIdentifier, pageID);
+			if (pageGeometry != null && pageGeometry.size() > 0) {
+				List<Span> spanSortedList = pageGeometry.getSpans();
+				Integer x0Coordinate = initialCoordinate.getxCoordinate();
+				Integer y0Coordinate = initialCoordinate.getyCoordinate();
+				Integer x1Coordinate = finalCoordinate.getxCoordinate();
+				Integer y1Coordinate = finalCoordinate.getyCoordinate();
+				boolean isValidSpan = false;
+				int defaultvalue = pageGeometry.getLineGap();
+				long currentYCoor = pageGeometry.getY1(0);
+				for (int spanIndex = 0; spanIndex < spanSortedList.size(); spanIndex++) {
+					isValidSpan = false;
+					long spanX0 = pageGeometry.getX0(spanIndex);
+					long spanY0 = pageGeometry.getY0(spanIndex);
+					long spanX1 = pageGeometry.getX1(spanIndex);
+					long spanY1 = pageGeometry.getY1(spanIndex);
+					if ((spanY1 - currentYCoor) > defaultvalue) {
+						currentYCoor = spanY1;
+						if (spanSelectedList != null && spanSelectedList.size() > 0) {
+							break;
 						}
 					}
-					long currentYCoor = spanSortedList.get(0).getCoordinates().getY1().longValue();
-					for (Span span : spanSortedList) {
-						isValidSpan = false;
-						long spanX0 = span.getCoordinates().getX0().longValue();
-						long spanY0 = span.getCoordinates().getY0().longValue();
-						long spanX1 = span.getCoordinates().getX1().longValue();
-						long spanY1 = span.getCoordinates().getY1().longValue();
-						if ((spanY1 - currentYCoor) > defaultvalue) {
-							currentYCoor = spanY1;
-							if (spanSelectedList != null && spanSelectedList.size() > 0) {
-								break;
-							}
-						}
-						if (((spanX1 >= x0Coordinate && spanX1 <= x1Coordinate) || (spanX0 >= x0Coordinate && spanX0 <= x1Coordinate))
-								&& ((spanY1 <= y1Coordinate && spanY1 >= y0Coordinate) || (spanY0 <= y1Coordinate && spanY0 >= y0Coordinate))) {
-							isValidSpan = true;
-						} else if (((x0Coordinate <= spanX0 && x1Coordinate >= spanX0) || (x0Coordinate >= spanX1 && x1Coordinate <= spanX1))
-								&& ((y0Coordinate >= spanY0 && y0Coordinate <= spanY1) || (y1Coordinate >= spanY0 && y1Coordinate <= spanY1))
-								|| ((y0Coordinate <= spanY0 && y1Coordinate >= spanY0) || (y0Coordinate >= spanY1 && y1Coordinate <= spanY1))
-								&& ((x0Coordinate >= spanX0 && x0Coordinate <= spanX1) || (x1Coordinate >= spanX0 && x1Coordinate <= spanX1))) {
+					if (((spanX1 >= x0Coordinate && spanX1 <= x1Coordinate) || (spanX0 >= x0Coordinate && spanX0 <= x1Coordinate))
+							&& ((spanY1 <= y1Coordinate && spanY1 >= y0Coordinate) || (spanY0 <= y1Coordinate && spanY0 >= y0Coordinate))) {
+						isValidSpan = true;
+					} else if (((x0Coordinate <= spanX0 && x1Coordinate >= spanX0) || (x0Coordinate >= spanX1 && x1Coordinate <= spanX1))
+							&& ((y0Coordinate >= spanY0 && y0Coordinate <= spanY1) || (y1Coordinate >= spanY0 && y1Coordinate <= spanY1))
+							|| ((y0Coordinate <= spanY0 && y1Coordinate >= spanY0) || (y0Coordinate >= spanY1 && y1Coordinate <= spanY1))
+							&& ((x0Coordinate >= spanX0 && x0Coordinate <= spanX1) || (x1Coordinate >= spanX0 && x1Coordinate <= spanX1))) {
+						isValidSpan = true;
+					} else {
+						if (((x0Coordinate > spanX0 && x0Coordinate < spanX1) || (x1Coordinate > spanX0 && x1Coordinate < spanX1))
+								&& ((y0Coordinate > spanY0 && y0Coordinate < spanY1) || (y1Coordinate > spanY0 && y1Coordinate < spanY1))) {
 							isValidSpan = true;
-						} else {
-							if (((x0Coordinate > spanX0 && x0Coordinate < spanX1) || (x1Coordinate > spanX0 && x1Coordinate < spanX1))
-									&& ((y0Coordinate > spanY0 && y0Coordinate < spanY1) || (y1Coordinate > spanY0 && y1Coordinate < spanY1))) {
-								isValidSpan = true;
-							}
 						}
-						if (isValidSpan) {
-							if (spanSelectedList == null) {
-								spanSelectedList = new ArrayList<Span>();
-							}
-							spanSelectedList.add(span);
+					}
+					if (isValidSpan) {
+						if (spanSelectedList == null) {
+							spanSelectedList = new ArrayList<Span>();
 						}
+						spanSelectedList.add(spanSortedList.get(spanIndex));
 					}
 				}
 			}
@@ -1279,19 +1364,10 @@ public class ReviewValidateDocServiceImpl extends DCMARemoteServiceServlet imple
 		}
 		String tableEndPattern = getTableEndPattern(documentTypeName, tableName, batchClassIdentifier);
 		if (valid) {
-			BatchSchemaService batchSchemaService = this.getSingleBeanOfType(BatchSchemaService.class);
-			HocrPages hocrPages = batchSchemaService.getHocrPages(batchInstanceIdentifier, pageID);
-			if (hocrPages != null && hocrPages.getHocrPage() != null) {
-				List<HocrPage> hocrPageList = hocrPages.getHocrPage();
-				if (!hocrPageList.isEmpty()) {
-					HocrPage hocrPage = hocrPageList.get(0);
-					List<Span> spanList = new ArrayList<Span>();
-					if (hocrPage.getSpans() != null) {
-						spanList = hocrPage.getSpans().getSpan();
-					}
-					spanSortedList = getSortedList(spanList);
-					rowList = addColumnData(spanSortedList, columnList, columnVsCoordinates, tableEndPattern);
-				}
+			PageGeometry pageGeometry = getPageGeometry(batchInstanceIdentifier, pageID);
+			if (pageGeometry != null) {
+				spanSortedList = pageGeometry.getSpans();
+				rowList = addColumnData(spanSortedList, columnList, columnVsCoordinates, tableEndPattern);
 			}
 		}
 		return rowList;
@@ -1500,6 +1576,21 @@ public class ReviewValidateDocServiceImpl extends DCMARemoteServiceServlet imple
 		saveBatch(batch);
 		WorkflowService workflowService = this.getSingleBeanOfType(WorkflowService.class);
 		workflowService.signalWorkflow(batch.getBatchInstanceIdentifier());
+		BATCH_VERSIONS.remove(batch.getBatchInstanceIdentifier());
+		getHocrPageCache().evictBatch(batch.getBatchInstanceIdentifier());
+	}
+
+	@Override
+	public void cleanUpCurrentBatch(String batchIdentifier) {
+		super.cleanUpCurrentBatch(batchIdentifier);
+		BATCH_VERSIONS.remove(batchIdentifier);
+		getHocrPageCache().evictBatch(batchIdentifier);
+	}
+
+	@Override
+	public void cleanup() {
+		super.cleanup();
+		removeBatchVersions(getUserName());
 	}
 
 	@Override
@@ -1542,4 +1633,30 @@ public class ReviewValidateDocServiceImpl extends DCMARemoteServiceServlet imple
 
 	}
 
+	/**
+	 * Version of a batch opened on review/validate together with the user who opened it.
+	 */
+	private static final class BatchVersion {
+
+		private long version;
+
+		private final String userName;
+
+		BatchVersion(long version, String userName) {
+			this.version = version;
+			this.userName = userName;
+		}
+
+		synchronized long getVersion() {
+			return version;
+		}
+
+		synchronized long increment() {
+			return ++version;
+		}
+
+		String getUserName() {
+			return userName;
+		}
+	}
 }
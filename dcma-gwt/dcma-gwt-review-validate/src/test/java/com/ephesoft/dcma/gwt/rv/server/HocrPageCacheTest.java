@@ -0,0 +1,226 @@
+/********************************************************************************* 
+* Ephesoft is a Intelligent Document Capture and Mailroom Automation program 
+* developed by Ephesoft, Inc. Copyright (C) 2010-2012 Ephesoft Inc. 
+* 
+* This program is free software; you can redistribute it and/or modify it under 
+* the terms of the GNU Affero General Public License version 3 as published by the 
+* Free Software Foundation with the addition of the following permission added 
+* to Section 15 as permitted in Section 7(a): FOR ANY PART OF THE COVERED WORK 
+* IN WHICH THE COPYRIGHT IS OWNED BY EPHESOFT, EPHESOFT DISCLAIMS THE WARRANTY 
+* OF NON INFRINGEMENT OF THIRD PARTY RIGHTS. 
+* 
+* This program is distributed in the hope that it will be useful, but WITHOUT 
+* ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+* FOR A PARTICULAR PURPOSE.  See the GNU Affero General Public License for more 
+* details. 
+* 
+* You should have received a copy of the GNU Affero General Public License along with 
+* this program; if not, see http://www.gnu.org/licenses or write to the Free 
+* Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 
+* 02110-1301 USA. 
+* 
+* You can contact Ephesoft, Inc. headquarters at 111 Academy Way, 
+* Irvine, CA 92617, USA. or at email address info@ephesoft.com. 
+* 
+* The interactive user interfaces in modified source and object code versions 
+* of this program must display Appropriate Legal Notices, as required under 
+* Section 5 of the GNU Affero General Public License version 3. 
+* 
+* In accordance with Section 7(b) of the GNU Affero General Public License version 3, 
+* these Appropriate Legal Notices must retain the display of the "Ephesoft" logo. 
+* If the display of the logo is not reasonably feasible for 
+* technical reasons, the Appropriate Legal Notices must display the words 
+* "Powered by Ephesoft". 
+********************************************************************************/ 
+
+
+package com.ephesoft.dcma.gwt.rv.server;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.ephesoft.dcma.batch.schema.Coordinates;
+import com.ephesoft.dcma.batch.schema.HocrPages.HocrPage.Spans.Span;
+import com.ephesoft.dcma.gwt.rv.server.HocrPageCache.PageGeometry;
+
+/**
+ * This is Junit test for HocrPageCache. It checks the region and point lookups of a page against a scan of all its words and the
+ * eviction of the least recently used pages once the cache holds too many words.
+ * 
+ * @author Ephesoft
+ * @version 1.0
+ * @see com.ephesoft.dcma.gwt.rv.server.HocrPageCache
+ */
+public class HocrPageCacheTest {
+
+	/**
+	 * Vertical gap the test pages are sorted into lines with.
+	 */
+	private static final int LINE_GAP = 15;
+
+	/**
+	 * This method tests that a word starting well above a region but reaching into it is found.
+	 */
+	@Test
+	public void testTallWordReachingIntoRegion() {
+		List<Span> spans = new ArrayList<Span>();
+		spans.add(createSpan(100, 0, 160, 500));
+		spans.add(createSpan(200, 100, 260, 120));
+		spans.add(createSpan(200, 400, 260, 420));
+		spans.add(createSpan(300, 400, 360, 420));
+		spans.add(createSpan(200, 600, 260, 620));
+		PageGeometry pageGeometry = new PageGeometry(spans, LINE_GAP);
+
+		assertArrayEquals(new int[] {0, 2, 3}, pageGeometry.getSpanIndexesInRegion(0, 410, 1000, 415));
+		assertArrayEquals(new int[] {0, 1}, pageGeometry.getSpanIndexesInRegion(0, 0, 1000, 100));
+		assertArrayEquals(new int[] {2}, pageGeometry.getSpanIndexesInRegion(161, 405, 299, 405));
+		assertArrayEquals(new int[0], pageGeometry.getSpanIndexesInRegion(0, 501, 1000, 599));
+		assertEquals(Arrays.asList(spans.get(0), spans.get(4)), pageGeometry.getSpansInRegion(150, 450, 210, 600));
+	}
+
+	/**
+	 * This method tests that region lookups on words sharing their top coordinate find all of them.
+	 */
+	@Test
+	public void testWordsWithSameTop() {
+		List<Span> spans = new ArrayList<Span>();
+		for (int index = 0; index < 10; index++) {
+			spans.add(createSpan(index * 50, 200, index * 50 + 40, 220));
+		}
+		PageGeometry pageGeometry = new PageGeometry(spans, LINE_GAP);
+
+		assertArrayEquals(new int[] {0, 1, 2, 3, 4, 5, 6, 7, 8, 9}, pageGeometry.getSpanIndexesInRegion(0, 220, 1000, 300));
+		assertArrayEquals(new int[] {2, 3}, pageGeometry.getSpanIndexesInRegion(100, 150, 150, 200));
+		assertArrayEquals(new int[0], pageGeometry.getSpanIndexesInRegion(0, 221, 1000, 300));
+		assertArrayEquals(new int[0], new PageGeometry(new ArrayList<Span>(), LINE_GAP).getSpanIndexesInRegion(0, 0, 1000, 1000));
+	}
+
+	/**
+	 * This method tests the region and point lookups of random pages against a scan of all the words.
+	 */
+	@Test
+	public void testRandomPagesAgainstScan() {
+		Random random = new Random(23);
+		for (int page = 0; page < 20; page++) {
+			List<Span> spans = new ArrayList<Span>();
+			int spanCount = random.nextInt(300);
+			for (int index = 0; index < spanCount; index++) {
+				long x0 = random.nextInt(2000);
+				long y0 = random.nextInt(3000);
+				spans.add(createSpan(x0, y0, x0 + 1 + random.nextInt(300), y0 + 1 + random.nextInt(index % 50 == 0 ? 400 : 40)));
+			}
+			PageGeometry pageGeometry = new PageGeometry(spans, LINE_GAP);
+			for (int query = 0; query < 50; query++) {
+				long x0 = random.nextInt(2200);
+				long y0 = random.nextInt(3200);
+				long x1 = x0 + random.nextInt(500);
+				long y1 = y0 + random.nextInt(query % 2 == 0 ? 20 : 500);
+				assertArrayEquals(scanRegion(spans, x0, y0, x1, y1), pageGeometry.getSpanIndexesInRegion(x0, y0, x1, y1));
+				assertEquals(scanPoint(spans, x0, y0), pageGeometry.getSpanIndexAt(x0, y0));
+			}
+		}
+	}
+
+	/**
+	 * This method tests that the least recently used pages are evicted once the cache holds too many words, and that replacing or
+	 * evicting pages gives their words back.
+	 */
+	@Test
+	public void testLeastRecentlyUsedEviction() {
+		HocrPageCache cache = new HocrPageCache(10);
+		PageGeometry firstPage = createPage(4);
+		PageGeometry secondPage = createPage(4);
+		cache.put("BI1", "PG0", firstPage);
+		cache.put("BI1", "PG1", secondPage);
+		assertSame(firstPage, cache.get("BI1", "PG0", LINE_GAP));
+		assertNull(cache.get("BI1", "PG0", LINE_GAP + 1));
+
+		// PG1 is now the least recently used page
+		cache.put("BI2", "PG0", createPage(3));
+		assertNull(cache.get("BI1", "PG1", LINE_GAP));
+		assertSame(firstPage, cache.get("BI1", "PG0", LINE_GAP));
+		assertNotNull(cache.get("BI2", "PG0", LINE_GAP));
+
+		// replacing a page only counts its new words
+		PageGeometry smallerPage = createPage(2);
+		cache.put("BI1", "PG0", smallerPage);
+		cache.put("BI1", "PG1", createPage(5));
+		assertSame(smallerPage, cache.get("BI1", "PG0", LINE_GAP));
+		assertNotNull(cache.get("BI2", "PG0", LINE_GAP));
+		assertNotNull(cache.get("BI1", "PG1", LINE_GAP));
+
+		// evicting a batch gives its words back
+		cache.evictBatch("BI1");
+		assertNull(cache.get("BI1", "PG0", LINE_GAP));
+		assertNull(cache.get("BI1", "PG1", LINE_GAP));
+		cache.put("BI3", "PG0", createPage(7));
+		assertNotNull(cache.get("BI2", "PG0", LINE_GAP));
+		assertNotNull(cache.get("BI3", "PG0", LINE_GAP));
+
+		// a page larger than the cache is kept alone
+		PageGeometry largePage = createPage(12);
+		cache.put("BI4", "PG0", largePage);
+		assertSame(largePage, cache.get("BI4", "PG0", LINE_GAP));
+		assertNull(cache.get("BI2", "PG0", LINE_GAP));
+		assertNull(cache.get("BI3", "PG0", LINE_GAP));
+		cache.put("BI5", "PG0", createPage(1));
+		assertNull(cache.get("BI4", "PG0", LINE_GAP));
+		assertNotNull(cache.get("BI5", "PG0", LINE_GAP));
+	}
+
+	private PageGeometry createPage(int spanCount) {
+		List<Span> spans = new ArrayList<Span>();
+		for (int index = 0; index < spanCount; index++) {
+			spans.add(createSpan(0, index * 20, 50, index * 20 + 15));
+		}
+		return new PageGeometry(spans, LINE_GAP);
+	}
+
+	private int[] scanRegion(List<Span> spans, long x0, long y0, long x1, long y1) {
+		int[] indexes = new int[spans.size()];
+		int count = 0;
+		for (int index = 0; index < spans.size(); index++) {
+			Coordinates coordinates = spans.get(index).getCoordinates();
+			if (coordinates.getX0().longValue() <= x1 && coordinates.getX1().longValue() >= x0
+					&& coordinates.getY0().longValue() <= y1 && coordinates.getY1().longValue() >= y0) {
+				indexes[count++] = index;
+			}
+		}
+		return Arrays.copyOf(indexes, count);
+	}
+
+	private int scanPoint(List<Span> spans, long xCoordinate, long yCoordinate) {
+		int spanIndex = -1;
+		for (int index = 0; index < spans.size() && spanIndex < 0; index++) {
+			Coordinates coordinates = spans.get(index).getCoordinates();
+			if (coordinates.getX0().longValue() < xCoordinate && coordinates.getX1().longValue() > xCoordinate
+					&& coordinates.getY0().longValue() < yCoordinate && coordinates.getY1().longValue() > yCoordinate) {
+				spanIndex = index;
+			}
+		}
+		return spanIndex;
+	}
+
+	private Span createSpan(long x0, long y0, long x1, long y1) {
+		Coordinates coordinates = new Coordinates();
+		coordinates.setX0(BigInteger.valueOf(x0));
+		coordinates.setY0(BigInteger.valueOf(y0));
+		coordinates.setX1(BigInteger.valueOf(x1));
+		coordinates.setY1(BigInteger.valueOf(y1));
+		Span span = new Span();
+		span.setValue("word");
+		span.setCoordinates(coordinates);
+		return span;
+	}
+}
@@ -36,12 +36,26 @@
 package com.ephesoft.dcma.heartbeat;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.commons.httpclient.HttpClient;
 import org.apache.commons.httpclient.HttpException;
 import org.apache.commons.httpclient.HttpStatus;
+import org.apache.commons.httpclient.MultiThreadedHttpConnectionManager;
 import org.apache.commons.httpclient.methods.GetMethod;
+import org.apache.commons.httpclient.params.HttpConnectionManagerParams;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -53,7 +67,8 @@ import com.ephesoft.dcma.da.service.ServerRegistryService;
 /**
  * This class is responsible for watching all the servers registered with the common database pool. If any of the server is down or not
  * active this service will mark that register entry as in active such that other servers can pick the entry corresponding to this shut
- * down server.
+ * down server. All the servers are probed concurrently over pooled connections and a server is marked in active once the
+ * {@link NodeFailureDetector} suspects it.
  * 
  * @author Ephesoft
  * @version 1.0
@@ -71,6 +86,12 @@ public final class HeartBeat {
 	 * Name of the health file.
 	 */
 	private static final String HEALTH_FILE_NAME = "HealthStatus.html";
+
+	/**
+	 * Time in milli seconds added to the probe timeouts while waiting for a round of probes.
+	 */
+	private static final long PROBE_WAIT_MARGIN = 1000L;
+
 	/**
 	 * Reference of ServerRegistryService.
 	 */
@@ -82,6 +103,46 @@ public final class HeartBeat {
 	 */
 	private String numberOfPings;
 
+	/**
+	 * Connect timeout of a health probe in milli seconds.
+	 */
+	private int connectTimeout = 5000;
+
+	/**
+	 * Read timeout of a health probe in milli seconds.
+	 */
+	private int readTimeout = 10000;
+
+	/**
+	 * Number of servers probed concurrently.
+	 */
+	private int probeThreads = 10;
+
+	/**
+	 * Number of consecutive failed probes within a heart beat from which a server is suspected.
+	 */
+	private int suspectThreshold = 3;
+
+	/**
+	 * Pooled keep-alive connections to the servers.
+	 */
+	private MultiThreadedHttpConnectionManager connectionManager;
+
+	/**
+	 * Client shared by the probes.
+	 */
+	private HttpClient httpClient;
+
+	/**
+	 * Executor running the probes.
+	 */
+	private ExecutorService probeExecutor;
+
+	/**
+	 * Failure detector deciding on the server liveness.
+	 */
+	private NodeFailureDetector failureDetector;
+
 	/**
 	 * Number of ping's count.
 	 * 
@@ -100,6 +161,78 @@ public final class HeartBeat {
 		this.numberOfPings = numberOfPings;
 	}
 
+	/**
+	 * To get the connect timeout of a health probe in milli seconds.
+	 * 
+	 * @return int
+	 */
+	public int getConnectTimeout() {
+		return connectTimeout;
+	}
+
+	/**
+	 * To set the connect timeout of a health probe in milli seconds.
+	 * 
+	 * @param connectTimeout int
+	 */
+	public void setConnectTimeout(final int connectTimeout) {
+		this.connectTimeout = connectTimeout;
+	}
+
+	/**
+	 * To get the read timeout of a health probe in milli seconds.
+	 * 
+	 * @return int
+	 */
+	public int getReadTimeout() {
+		return readTimeout;
+	}
+
+	/**
+	 * To set the read timeout of a health probe in milli seconds.
+	 * 
+	 * @param readTimeout int
+	 */
+	public void setReadTimeout(final int readTimeout) {
+		this.readTimeout = readTimeout;
+	}
+
+	/**
+	 * To get the number of servers probed concurrently.
+	 * 
+	 * @return int
+	 */
+	public int getProbeThreads() {
+		return probeThreads;
+	}
+
+	/**
+	 * To set the number of servers probed concurrently.
+	 * 
+	 * @param probeThreads int
+	 */
+	public void setProbeThreads(final int probeThreads) {
+		this.probeThreads = probeThreads;
+	}
+
+	/**
+	 * To get the number of consecutive failed probes within a heart beat from which a server is suspected.
+	 * 
+	 * @return int
+	 */
+	public int getSuspectThreshold() {
+		return suspectThreshold;
+	}
+
+	/**
+	 * To set the number of consecutive failed probes within a heart beat from which a server is suspected.
+	 * 
+	 * @param suspectThreshold int
+	 */
+	public void setSuspectThreshold(final int suspectThreshold) {
+		this.suspectThreshold = suspectThreshold;
+	}
+
 	/**
 	 * This method will check the health of all the servers registered to the common data base pool.
 	 */
@@ -111,13 +244,10 @@ public final class HeartBeat {
 
 		List<ServerRegistry> serverRegistries = serverRegistryService.getAllServerRegistry();
 
-		StringBuilder url = null;
-		String pathUrl = null;
-		boolean isActive = false;
-
 		if (null == serverRegistries || serverRegistries.isEmpty()) {
 			LOGGER.info("No server registry found.");
 		} else {
+			Map<String, ServerRegistry> serverRegistryByUrl = new LinkedHashMap<String, ServerRegistry>();
 			for (ServerRegistry serverRegistry : serverRegistries) {
 				String ipAddress = serverRegistry.getIpAddress();
 				String portNumber = serverRegistry.getPort();
@@ -126,7 +256,7 @@ public final class HeartBeat {
 				if (ipAddress == null || null == portNumber || null == context) {
 					LOGGER.error("Problem in creating. Server Registry Info is Null.");
 				} else {
-					url = new StringBuilder("http://");
+					StringBuilder url = new StringBuilder("http://");
 					url.append(ipAddress);
 					url.append(":");
 					url.append(portNumber);
@@ -136,31 +266,134 @@ public final class HeartBeat {
 					url.append(context);
 					url.append("/");
 					url.append(HEALTH_FILE_NAME);
-					pathUrl = url.toString();
+					String pathUrl = url.toString();
 					LOGGER.info(pathUrl);
-					isActive = checkHealth(pathUrl);
-					if (!isActive) {
-						int noOfPings = 1;
-						try {
-							noOfPings = Integer.parseInt(getNumberOfPings());
-						} catch (NumberFormatException nfe) {
-							LOGGER.error(nfe.getMessage());
-						}
-						for (int i = 1; i < noOfPings; i++) {
-							isActive = checkHealth(pathUrl);
-							if (isActive) {
-								break;
-							}
-						}
-					}
-					if (serverRegistry.isActive() != isActive) {
-						serverRegistry.setActive(isActive);
-						serverRegistryService.updateServerRegistry(serverRegistry);
-					}
+					serverRegistryByUrl.put(pathUrl, serverRegistry);
+				}
+			}
+			Map<String, Boolean> serverHealth = probeServers(serverRegistryByUrl.keySet());
+			for (Map.Entry<String, ServerRegistry> entry : serverRegistryByUrl.entrySet()) {
+				ServerRegistry serverRegistry = entry.getValue();
+				boolean isActive = serverHealth.get(entry.getKey());
+				if (serverRegistry.isActive() != isActive) {
+					LOGGER.info("Marking server " + entry.getKey() + (isActive ? " as active." : " as in active."));
+					serverRegistry.setActive(isActive);
+					serverRegistryService.updateServerRegistry(serverRegistry);
+				}
+			}
+		}
+
+	}
+
+	/**
+	 * This method probes the health urls of the servers concurrently and returns whether each server is active. A server which failed
+	 * its probe is probed again, up to the number of pings, until it answers or failed the suspect threshold of consecutive probes, so
+	 * that a down server is suspected and a recovered server is trusted again within one heart beat. The suspect threshold is capped by
+	 * the number of pings.
+	 * 
+	 * @param urls {@link Collection}<{@link String}> health urls of the servers
+	 * @return {@link Map}<{@link String}, {@link Boolean}> true for the active servers
+	 */
+	public Map<String, Boolean> probeServers(final Collection<String> urls) {
+		initialize();
+		failureDetector.retainNodes(urls);
+		int noOfPings = 1;
+		try {
+			noOfPings = Integer.parseInt(getNumberOfPings());
+		} catch (NumberFormatException nfe) {
+			LOGGER.error(nfe.getMessage());
+		}
+		noOfPings = Math.max(noOfPings, 1);
+		failureDetector.startCycle(noOfPings);
+		List<String> pendingUrls = new ArrayList<String>(urls);
+		for (int round = 0; round < noOfPings && !pendingUrls.isEmpty(); round++) {
+			Map<String, Boolean> probeResults = probeConcurrently(pendingUrls);
+			pendingUrls = new ArrayList<String>();
+			for (Map.Entry<String, Boolean> probeResult : probeResults.entrySet()) {
+				failureDetector.recordProbe(probeResult.getKey(), probeResult.getValue());
+				if (!failureDetector.isSettled(probeResult.getKey())) {
+					pendingUrls.add(probeResult.getKey());
 				}
 			}
 		}
+		Map<String, Boolean> serverHealth = new LinkedHashMap<String, Boolean>();
+		for (String url : urls) {
+			serverHealth.put(url, !failureDetector.isSuspected(url));
+		}
+		return serverHealth;
+	}
 
+	/**
+	 * This method releases the probe threads and the pooled connections.
+	 */
+	public synchronized void destroy() {
+		if (probeExecutor != null) {
+			probeExecutor.shutdownNow();
+			probeExecutor = null;
+		}
+		if (connectionManager != null) {
+			connectionManager.shutdown();
+			connectionManager = null;
+		}
+	}
+
+	private Map<String, Boolean> probeConcurrently(final List<String> urls) {
+		List<Callable<Boolean>> probes = new ArrayList<Callable<Boolean>>(urls.size());
+		for (final String url : urls) {
+			probes.add(new Callable<Boolean>() {
+
+				@Override
+				public Boolean call() {
+					return checkHealth(url);
+				}
+			});
+		}
+		long batches = (urls.size() + probeThreads - 1) / probeThreads;
+		long waitTime = batches * (connectTimeout + readTimeout) + PROBE_WAIT_MARGIN;
+		Map<String, Boolean> probeResults = new LinkedHashMap<String, Boolean>();
+		try {
+			List<Future<Boolean>> futures = probeExecutor.invokeAll(probes, waitTime, TimeUnit.MILLISECONDS);
+			for (int index = 0; index < futures.size(); index++) {
+				boolean isActive = false;
+				try {
+					isActive = futures.get(index).get();
+				} catch (CancellationException e) {
+					LOGGER.info("Health probe timed out for " + urls.get(index));
+				} catch (ExecutionException e) {
+					LOGGER.error("Health probe failed for " + urls.get(index) + " " + e.getMessage());
+				}
+				probeResults.put(urls.get(index), isActive);
+			}
+		} catch (InterruptedException e) {
+			LOGGER.error("Interrupted while probing the servers. " + e.getMessage());
+			Thread.currentThread().interrupt();
+		}
+		return probeResults;
+	}
+
+	private synchronized void initialize() {
+		if (probeExecutor == null) {
+			connectionManager = new MultiThreadedHttpConnectionManager();
+			HttpConnectionManagerParams params = connectionManager.getParams();
+			params.setConnectionTimeout(connectTimeout);
+			params.setSoTimeout(readTimeout);
+			params.setDefaultMaxConnectionsPerHost(2);
+			params.setMaxTotalConnections(2 * probeThreads);
+			httpClient = new HttpClient(connectionManager);
+			httpClient.getParams().setConnectionManagerTimeout(connectTimeout);
+			probeExecutor = Executors.newFixedThreadPool(probeThreads, new ThreadFactory() {
+
+				@Override
+				public Thread newThread(final Runnable runnable) {
+					Thread thread = new Thread(runnable, "heart-beat-probe");
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+		}
+		if (failureDetector == null) {
+			failureDetector = new NodeFailureDetector(suspectThreshold);
+		}
 	}
 
 	/**
@@ -173,21 +406,20 @@ public final class HeartBeat {
 
 		boolean isActive = false;
 
-		// Create an instance of HttpClient.
-		HttpClient client = new HttpClient();
-
 		// Create a method instance.
 		GetMethod method = new GetMethod(url);
 
 		try {
 			// Execute the method.
-			int statusCode = client.executeMethod(method);
+			int statusCode = httpClient.executeMethod(method);
 
 			if (statusCode == HttpStatus.SC_OK) {
 				isActive = true;
 			} else {
 				LOGGER.info("Method failed: " + method.getStatusLine());
 			}
+			// Read the response so that the connection can be kept alive.
+			method.getResponseBody();
 
 		} catch (HttpException e) {
 			LOGGER.error("Fatal protocol violation: " + e.getMessage());
@@ -195,9 +427,7 @@ public final class HeartBeat {
 			LOGGER.error("Fatal transport error: " + e.getMessage());
 		} finally {
 			// Release the connection.
-			if (method != null) {
-				method.releaseConnection();
-			}
+			method.releaseConnection();
 		}
 
 		return isActive;
@@ -0,0 +1,184 @@
+/********************************************************************************* 
+* Ephesoft is a Intelligent Document Capture and Mailroom Automation program 
+* developed by Ephesoft, Inc. Copyright (C) 2010-2012 Ephesoft Inc. 
+* 
+* This program is free software; you can redistribute it and/or modify it under 
+* the terms of the GNU Affero General Public License version 3 as published by the 
+* Free Software Foundation with the addition of the following permission added 
+* to Section 15 as permitted in Section 7(a): FOR ANY PART OF THE COVERED WORK 
+* IN WHICH THE COPYRIGHT IS OWNED BY EPHESOFT, EPHESOFT DISCLAIMS THE WARRANTY 
+* OF NON INFRINGEMENT OF THIRD PARTY RIGHTS. 
+* 
+* This program is distributed in the hope that it will be useful, but WITHOUT 
+* ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+* FOR A PARTICULAR PURPOSE.  See the GNU Affero General Public License for more 
+* details. 
+* 
+* You should have received a copy of the GNU Affero General Public License along with 
+* this program; if not, see http://www.gnu.org/licenses or write to the Free 
+* Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 
+* 02110-1301 USA. 
+* 
+* You can contact Ephesoft, Inc. headquarters at 111 Academy Way, 
+* Irvine, CA 92617, USA. or at email address info@ephesoft.com. 
+* 
+* The interactive user interfaces in modified source and object code versions 
+* of this program must display Appropriate Legal Notices, as required under 
+* Section 5 of the GNU Affero General Public License version 3. 
+* 
+* In accordance with Section 7(b) of the GNU Affero General Public License version 3, 
+* these Appropriate Legal Notices must retain the display of the "Ephesoft" logo. 
+* If the display of the logo is not reasonably feasible for 
+* technical reasons, the Appropriate Legal Notices must display the words 
+* "Powered by Ephesoft". 
+********************************************************************************/ 
+
+package com.ephesoft.dcma.heartbeat;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * This class decides whether a server is down from its health probes. A heart beat is one probe cycle: a server is suspected once it
+ * failed the suspect threshold of consecutive probes within the current cycle and trusted again as soon as it answers a probe. Failures
+ * of earlier cycles are not counted, so a server which misses a ping now and then is never marked down; within a cycle the verdict of
+ * the previous cycle holds until it is settled.
+ * 
+ * @author Ephesoft
+ * @version 1.0
+ * @see com.ephesoft.dcma.heartbeat.HeartBeat
+ */
+public class NodeFailureDetector {
+
+	/**
+	 * Number of consecutive failed probes within a cycle from which a server is suspected.
+	 */
+	private final int suspectThreshold;
+
+	/**
+	 * Number of consecutive failed probes from which a server is suspected in the current cycle.
+	 */
+	private int cycleSuspectThreshold;
+
+	/**
+	 * Probe state by server.
+	 */
+	private final Map<String, ProbeState> probeStates = new HashMap<String, ProbeState>();
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param suspectThreshold int number of consecutive failed probes within a cycle from which a server is suspected
+	 */
+	public NodeFailureDetector(final int suspectThreshold) {
+		if (suspectThreshold < 1) {
+			throw new IllegalArgumentException("Invalid failure detector suspect threshold " + suspectThreshold);
+		}
+		this.suspectThreshold = suspectThreshold;
+		this.cycleSuspectThreshold = suspectThreshold;
+	}
+
+	/**
+	 * API to start a new probe cycle. The consecutive failures of the previous cycle are forgotten, the verdicts are kept.
+	 * 
+	 * @param maxProbes int number of probes of a server the cycle allows at most; the suspect threshold of the cycle is capped by it so
+	 *            that a down server can be suspected within the cycle
+	 */
+	public synchronized void startCycle(final int maxProbes) {
+		cycleSuspectThreshold = Math.max(1, Math.min(suspectThreshold, maxProbes));
+		for (ProbeState probeState : probeStates.values()) {
+			probeState.cycleFailures = 0;
+			probeState.probed = false;
+		}
+	}
+
+	/**
+	 * API to record the result of a health probe of a server.
+	 * 
+	 * @param node {@link String}
+	 * @param isAlive boolean true if the server answered the probe
+	 */
+	public synchronized void recordProbe(final String node, final boolean isAlive) {
+		ProbeState probeState = probeStates.get(node);
+		if (probeState == null) {
+			probeState = new ProbeState();
+			probeStates.put(node, probeState);
+		}
+		probeState.probed = true;
+		probeState.lastAlive = isAlive;
+		if (isAlive) {
+			probeState.cycleFailures = 0;
+			probeState.suspected = false;
+		} else {
+			probeState.cycleFailures++;
+			if (probeState.cycleFailures >= cycleSuspectThreshold) {
+				probeState.suspected = true;
+			}
+		}
+	}
+
+	/**
+	 * API to check whether a server is suspected to be down. A server without probes is not suspected.
+	 * 
+	 * @param node {@link String}
+	 * @return boolean
+	 */
+	public synchronized boolean isSuspected(final String node) {
+		ProbeState probeState = probeStates.get(node);
+		return probeState != null && probeState.suspected;
+	}
+
+	/**
+	 * API to check whether the verdict on a server is settled in the current cycle, i.e. it answered its last probe or it failed the
+	 * suspect threshold of consecutive probes.
+	 * 
+	 * @param node {@link String}
+	 * @return boolean true if the server has not been probed in the cycle or the verdict is settled
+	 */
+	public synchronized boolean isSettled(final String node) {
+		ProbeState probeState = probeStates.get(node);
+		return probeState == null || !probeState.probed || probeState.lastAlive
+				|| probeState.cycleFailures >= cycleSuspectThreshold;
+	}
+
+	/**
+	 * API to forget the servers which are no longer registered.
+	 * 
+	 * @param nodes {@link Collection}<{@link String}> registered servers
+	 */
+	public synchronized void retainNodes(final Collection<String> nodes) {
+		for (Iterator<String> iterator = probeStates.keySet().iterator(); iterator.hasNext();) {
+			if (!nodes.contains(iterator.next())) {
+				iterator.remove();
+			}
+		}
+	}
+
+	/**
+	 * Probe state of a server.
+	 */
+	private static final class ProbeState {
+
+		/**
+		 * Number of consecutive failed probes in the current cycle.
+		 */
+		private int cycleFailures;
+
+		/**
+		 * Whether the server has been probed in the current cycle.
+		 */
+		private boolean probed;
+
+		/**
+		 * Whether the last probe succeeded.
+		 */
+		private boolean lastAlive;
+
+		/**
+		 * Whether the server is suspected to be down.
+		 */
+		private boolean suspected;
+	}
+}
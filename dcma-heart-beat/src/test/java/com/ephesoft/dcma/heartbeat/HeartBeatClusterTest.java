@@ -0,0 +1,242 @@
+/********************************************************************************* 
+* Ephesoft is a Intelligent Document Capture and Mailroom Automation program 
+* developed by Ephesoft, Inc. Copyright (C) 2010-2012 Ephesoft Inc. 
+* 
+* This program is free software; you can redistribute it and/or modify it under 
+* the terms of the GNU Affero General Public License version 3 as published by the 
+* Free Software Foundation with the addition of the following permission added 
+* to Section 15 as permitted in Section 7(a): FOR ANY PART OF THE COVERED WORK 
+* IN WHICH THE COPYRIGHT IS OWNED BY EPHESOFT, EPHESOFT DISCLAIMS THE WARRANTY 
+* OF NON INFRINGEMENT OF THIRD PARTY RIGHTS. 
+* 
+* This program is distributed in the hope that it will be useful, but WITHOUT 
+* ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+* FOR A PARTICULAR PURPOSE.  See the GNU Affero General Public License for more 
+* details. 
+* 
+* You should have received a copy of the GNU Affero General Public License along with 
+* this program; if not, see http://www.gnu.org/licenses or write to the Free 
+* Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 
+* 02110-1301 USA. 
+* 
+* You can contact Ephesoft, Inc. headquarters at 111 Academy Way, 
+* Irvine, CA 92617, USA. or at email address info@ephesoft.com. 
+* 
+* The interactive user interfaces in modified source and object code versions 
+* of this program must display Appropriate Legal Notices, as required under 
+* Section 5 of the GNU Affero General Public License version 3. 
+* 
+* In accordance with Section 7(b) of the GNU Affero General Public License version 3, 
+* these Appropriate Legal Notices must retain the display of the "Ephesoft" logo. 
+* If the display of the logo is not reasonably feasible for 
+* technical reasons, the Appropriate Legal Notices must display the words 
+* "Powered by Ephesoft". 
+********************************************************************************/ 
+
+package com.ephesoft.dcma.heartbeat;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * This is a Junit test for the concurrent probing of HeartBeat. It runs a cluster of simulated server health pages on localhost: a
+ * healthy server, a failing server and a hung server.
+ * 
+ * @author Ephesoft
+ * @version 1.0
+ * @see com.ephesoft.dcma.heartbeat.HeartBeat
+ */
+public class HeartBeatClusterTest {
+
+	/**
+	 * Health page path of the simulated servers.
+	 */
+	private static final String HEALTH_PATH = "/dcma/HealthStatus.html";
+
+	/**
+	 * Read timeout of the probes in milli seconds.
+	 */
+	private static final int READ_TIMEOUT = 500;
+
+	/**
+	 * Simulated servers.
+	 */
+	private transient List<HttpServer> servers;
+
+	/**
+	 * Health page status of the simulated failing server.
+	 */
+	private transient volatile int failingStatus;
+
+	/**
+	 * Number of the next probes the simulated failing server fails before answering with its health page status.
+	 */
+	private transient AtomicInteger pendingFailures;
+
+	/**
+	 * Heart beat under test.
+	 */
+	private transient HeartBeat heartBeat;
+
+	/**
+	 * This method starts the simulated servers.
+	 * 
+	 * @throws IOException if a server could not be started
+	 */
+	@Before
+	public void setUp() throws IOException {
+		servers = new ArrayList<HttpServer>();
+		failingStatus = 500;
+		pendingFailures = new AtomicInteger();
+		startServer(new HttpHandler() {
+
+			@Override
+			public void handle(final HttpExchange exchange) throws IOException {
+				respond(exchange, 200);
+			}
+		});
+		startServer(new HttpHandler() {
+
+			@Override
+			public void handle(final HttpExchange exchange) throws IOException {
+				respond(exchange, pendingFailures.getAndDecrement() > 0 ? 500 : failingStatus);
+			}
+		});
+		startServer(new HttpHandler() {
+
+			@Override
+			public void handle(final HttpExchange exchange) throws IOException {
+				try {
+					Thread.sleep(READ_TIMEOUT * 10);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				respond(exchange, 200);
+			}
+		});
+		heartBeat = new HeartBeat();
+		heartBeat.setNumberOfPings("5");
+		heartBeat.setConnectTimeout(READ_TIMEOUT);
+		heartBeat.setReadTimeout(READ_TIMEOUT);
+		heartBeat.setProbeThreads(4);
+		heartBeat.setSuspectThreshold(3);
+	}
+
+	/**
+	 * This method stops the simulated servers.
+	 */
+	@After
+	public void tearDown() {
+		heartBeat.destroy();
+		for (HttpServer server : servers) {
+			server.stop(0);
+		}
+	}
+
+	/**
+	 * This method tests that the failing and hung servers are suspected in one heart beat while the healthy server stays active.
+	 */
+	@Test
+	public void testFailedServersSuspected() {
+		List<String> urls = getUrls();
+		long startTime = System.currentTimeMillis();
+		Map<String, Boolean> serverHealth = heartBeat.probeServers(urls);
+		long duration = System.currentTimeMillis() - startTime;
+
+		assertTrue(serverHealth.get(urls.get(0)));
+		assertFalse(serverHealth.get(urls.get(1)));
+		assertFalse(serverHealth.get(urls.get(2)));
+		// the hung server is probed concurrently and bounded by the read timeout in each of the three rounds needed to suspect it
+		assertTrue("Heart beat took " + duration + " ms", duration < READ_TIMEOUT * 3 * 3);
+	}
+
+	/**
+	 * This method tests that a down server is suspected and that a recovered server becomes active again.
+	 */
+	@Test
+	public void testServerRecovery() {
+		List<String> urls = getUrls();
+		failingStatus = 200;
+		assertTrue(heartBeat.probeServers(urls).get(urls.get(1)));
+
+		failingStatus = 500;
+		assertFalse(heartBeat.probeServers(urls).get(urls.get(1)));
+
+		failingStatus = 200;
+		assertTrue(heartBeat.probeServers(urls).get(urls.get(1)));
+	}
+
+	/**
+	 * This method tests that failed probes spread over several heart beats never add up to a down server, and that failures below the
+	 * suspect threshold within one heart beat do not either.
+	 */
+	@Test
+	public void testIntermittentFailuresAcrossCycles() {
+		List<String> urls = getUrls();
+		failingStatus = 200;
+		for (int cycle = 0; cycle < 6; cycle++) {
+			pendingFailures.set(1);
+			assertTrue("Server suspected in heart beat " + cycle, heartBeat.probeServers(urls).get(urls.get(1)));
+		}
+		pendingFailures.set(2);
+		assertTrue(heartBeat.probeServers(urls).get(urls.get(1)));
+
+		pendingFailures.set(3);
+		assertFalse(heartBeat.probeServers(urls).get(urls.get(1)));
+	}
+
+	/**
+	 * This method tests that the suspect threshold is capped by the number of pings, so that a down server is still suspected.
+	 */
+	@Test
+	public void testSuspectThresholdCappedByPings() {
+		List<String> urls = getUrls();
+		heartBeat.setNumberOfPings("1");
+		failingStatus = 200;
+		assertTrue(heartBeat.probeServers(urls).get(urls.get(1)));
+
+		failingStatus = 500;
+		assertFalse(heartBeat.probeServers(urls).get(urls.get(1)));
+	}
+
+	private List<String> getUrls() {
+		List<String> urls = new ArrayList<String>();
+		for (HttpServer server : servers) {
+			urls.add("http://localhost:" + server.getAddress().getPort() + HEALTH_PATH);
+		}
+		return Arrays.asList(urls.toArray(new String[urls.size()]));
+	}
+
+	private void startServer(final HttpHandler handler) throws IOException {
+		HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		server.createContext(HEALTH_PATH, handler);
+		server.setExecutor(null);
+		server.start();
+		servers.add(server);
+	}
+
+	private static void respond(final HttpExchange exchange, final int status) throws IOException {
+		byte[] body = "OK".getBytes("UTF-8");
+		exchange.sendResponseHeaders(status, body.length);
+		OutputStream outputStream = exchange.getResponseBody();
+		outputStream.write(body);
+		outputStream.close();
+	}
+}
@@ -310,6 +310,7 @@ public class IBMCMExporter implements ICommonConstants {
 			boolean isExportFolderCreated = folderCreation(exportFolder);
 			String batchXmlName = batchInstanceID + ICommonConstants.UNDERSCORE_BATCH_XML;
 			String sourceXMLPath = baseDocsFolder + File.separator + batchInstanceID + ICommonConstants.UNDERSCORE_BATCH_XML;
+			batchSchemaService.writeBatchXml(batchInstanceID);
 			Batch batch = batchSchemaService.getBatch(batchInstanceID);
 			String targetXmlPath = null;
 			String batchName = "";
@@ -0,0 +1,176 @@
+/********************************************************************************* 
+* Ephesoft is a Intelligent Document Capture and Mailroom Automation program 
+* developed by Ephesoft, Inc. Copyright (C) 2010-2012 Ephesoft Inc. 
+* 
+* This program is free software; you can redistribute it and/or modify it under 
+* the terms of the GNU Affero General Public License version 3 as published by the 
+* Free Software Foundation with the addition of the following permission added 
+* to Section 15 as permitted in Section 7(a): FOR ANY PART OF THE COVERED WORK 
+* IN WHICH THE COPYRIGHT IS OWNED BY EPHESOFT, EPHESOFT DISCLAIMS THE WARRANTY 
+* OF NON INFRINGEMENT OF THIRD PARTY RIGHTS. 
+* 
+* This program is distributed in the hope that it will be useful, but WITHOUT 
+* ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+* FOR A PARTICULAR PURPOSE.  See the GNU Affero General Public License for more 
+* details. 
+* 
+* You should have received a copy of the GNU Affero General Public License along with 
+* this program; if not, see http://www.gnu.org/licenses or write to the Free 
+* Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 
+* 02110-1301 USA. 
+* 
+* You can contact Ephesoft, Inc. headquarters at 111 Academy Way, 
+* Irvine, CA 92617, USA. or at email address info@ephesoft.com. 
+* 
+* The interactive user interfaces in modified source and object code versions 
+* of this program must display Appropriate Legal Notices, as required under 
+* Section 5 of the GNU Affero General Public License version 3. 
+* 
+* In accordance with Section 7(b) of the GNU Affero General Public License version 3, 
+* these Appropriate Legal Notices must retain the display of the "Ephesoft" logo. 
+* If the display of the logo is not reasonably feasible for 
+* technical reasons, the Appropriate Legal Notices must display the words 
+* "Powered by Ephesoft". 
+********************************************************************************/ 
+
+package com.ephesoft.dcma.imagemagick;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.ephesoft.dcma.imagemagick.constant.ImageMagicKConstants;
+
+/**
+ * This class builds a single ImageMagick convert command which reads an image once and writes several derived images from it.
+ * Every output except the last is written from a clone of the decoded image, so the parameters of one output do not affect the
+ * others:
+ * 
+ * <pre>
+ * convert [inputParams] input ( +clone [params1] -write output1 +delete ) [params2] output2
+ * </pre>
+ * 
+ * @author Ephesoft
+ * @version 1.0
+ * @see com.ephesoft.dcma.imagemagick.ThumbnailPNGCreator
+ */
+public class MultiOutputConvertCommand {
+
+	/**
+	 * Convert executable.
+	 */
+	private final String convertCommand;
+
+	/**
+	 * Parameters applied while reading the input image.
+	 */
+	private final String inputParams;
+
+	/**
+	 * Path of the input image.
+	 */
+	private final String inputImage;
+
+	/**
+	 * Whether file names are to be quoted, as needed by commands run through the windows command line.
+	 */
+	private final boolean quoteFileNames;
+
+	/**
+	 * Parameters of each output.
+	 */
+	private final List<String> outputParams = new ArrayList<String>();
+
+	/**
+	 * Path of each output.
+	 */
+	private final List<String> outputImages = new ArrayList<String>();
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param convertCommand {@link String}
+	 * @param inputParams {@link String}
+	 * @param inputImage {@link String}
+	 * @param quoteFileNames boolean
+	 */
+	public MultiOutputConvertCommand(final String convertCommand, final String inputParams, final String inputImage,
+			final boolean quoteFileNames) {
+		this.convertCommand = convertCommand;
+		this.inputParams = inputParams;
+		this.inputImage = inputImage;
+		this.quoteFileNames = quoteFileNames;
+	}
+
+	/**
+	 * API to add an output image.
+	 * 
+	 * @param params {@link String} parameters applied to this output only
+	 * @param outputImage {@link String}
+	 * @return {@link MultiOutputConvertCommand} this command
+	 */
+	public MultiOutputConvertCommand addOutput(final String params, final String outputImage) {
+		outputParams.add(params);
+		outputImages.add(outputImage);
+		return this;
+	}
+
+	/**
+	 * API to get the command as an array of arguments.
+	 * 
+	 * @return {@link String}[]
+	 */
+	public String[] toCommandArray() {
+		List<String> commandList = new ArrayList<String>();
+		commandList.add(convertCommand);
+		addParams(commandList, inputParams);
+		commandList.add(getFileName(inputImage));
+		int lastOutput = outputImages.size() - 1;
+		for (int index = 0; index < lastOutput; index++) {
+			commandList.add(ImageMagicKConstants.OPEN_PARENTHESIS);
+			commandList.add(ImageMagicKConstants.CLONE_OPERATOR);
+			addParams(commandList, outputParams.get(index));
+			commandList.add(ImageMagicKConstants.WRITE_OPERATOR);
+			commandList.add(getFileName(outputImages.get(index)));
+			commandList.add(ImageMagicKConstants.DELETE_OPERATOR);
+			commandList.add(ImageMagicKConstants.CLOSE_PARENTHESIS);
+		}
+		if (lastOutput >= 0) {
+			addParams(commandList, outputParams.get(lastOutput));
+			commandList.add(getFileName(outputImages.get(lastOutput)));
+		}
+		return commandList.toArray(new String[commandList.size()]);
+	}
+
+	/**
+	 * API to get the command as a single string.
+	 * 
+	 * @return {@link String}
+	 */
+	@Override
+	public String toString() {
+		StringBuilder command = new StringBuilder();
+		for (String argument : toCommandArray()) {
+			command.append(argument);
+			command.append(ImageMagicKConstants.SPACE);
+		}
+		return command.toString().trim();
+	}
+
+	private void addParams(final List<String> commandList, final String params) {
+		if (params != null) {
+			for (String param : params.split(ImageMagicKConstants.SPACE)) {
+				if (!param.trim().isEmpty()) {
+					commandList.add(param.trim());
+				}
+			}
+		}
+	}
+
+	private String getFileName(final String fileName) {
+		String name = fileName.trim();
+		if (quoteFileNames) {
+			name = IImageMagickCommonConstants.QUOTES + name + IImageMagickCommonConstants.QUOTES;
+		}
+		return name;
+	}
+}
@@ -64,6 +64,7 @@ import com.ephesoft.dcma.core.exception.DCMAApplicationException;
 import com.ephesoft.dcma.core.threadpool.AbstractRunnable;
 import com.ephesoft.dcma.core.threadpool.BatchInstanceThread;
 import com.ephesoft.dcma.core.threadpool.ProcessExecutor;
+import com.ephesoft.dcma.core.threadpool.ProcessResourceLimiter;
 import com.ephesoft.dcma.imagemagick.constant.ImageMagicKConstants;
 import com.ephesoft.dcma.util.OSUtil;
 import com.itextpdf.text.BadElementException;
@@ -115,7 +116,7 @@ public class MultiPageExecutor implements ImageMagicKConstants {
 	public MultiPageExecutor(String[] cmds, File file, BatchInstanceThread batchInstanceThread, String[] pages) {
 		this.pages = new String[pages.length];
 		this.pages = pages.clone();
-		batchInstanceThread.add(new ProcessExecutor(cmds, file));
+		batchInstanceThread.add(new ProcessExecutor(cmds, file, ProcessResourceLimiter.PDF));
 	}
 
 	/**
@@ -228,16 +229,23 @@ public class MultiPageExecutor implements ImageMagicKConstants {
 				}
 
 				private void executeCreatePdfCommand(File fileToBeDeleted, String[] cmds) {
+					ProcessResourceLimiter processResourceLimiter = ProcessResourceLimiter.getInstance();
 					try {
-						Process process = Runtime.getRuntime().exec(cmds);
-						InputStreamReader inputStreamReader = new InputStreamReader(process.getInputStream());
-						BufferedReader input = new BufferedReader(inputStreamReader);
-						String line = null;
-						do {
-							line = input.readLine();
-							LOGGER.info(line);
-						} while (line != null);
-						int exitValue = process.exitValue();
+						int exitValue;
+						processResourceLimiter.acquire(ProcessResourceLimiter.PDF);
+						try {
+							Process process = Runtime.getRuntime().exec(cmds);
+							InputStreamReader inputStreamReader = new InputStreamReader(process.getInputStream());
+							BufferedReader input = new BufferedReader(inputStreamReader);
+							String line = null;
+							do {
+								line = input.readLine();
+								LOGGER.info(line);
+							} while (line != null);
+							exitValue = process.waitFor();
+						} finally {
+							processResourceLimiter.release(ProcessResourceLimiter.PDF);
+						}
 						if (exitValue != 0) {
 							LOGGER.error("Process exited with an invalid exit value : " + exitValue);
 							setDcmaApplicationException(new DCMAApplicationException(MULTIPAGE_PDF_CREATION_ERROR_MSG));
@@ -249,6 +257,9 @@ public class MultiPageExecutor implements ImageMagicKConstants {
 					} catch (IOException e) {
 						LOGGER.error(MULTIPAGE_PDF_CREATION_ERROR_MSG + e.getMessage(), e);
 						setDcmaApplicationException(new DCMAApplicationException(MULTIPAGE_PDF_CREATION_ERROR_MSG + e.getMessage(), e));
+					} catch (InterruptedException e) {
+						LOGGER.error(MULTIPAGE_PDF_CREATION_ERROR_MSG + e.getMessage(), e);
+						setDcmaApplicationException(new DCMAApplicationException(MULTIPAGE_PDF_CREATION_ERROR_MSG + e.getMessage(), e));
 					} catch (SecurityException se) {
 						LOGGER.error("Cannot delete the temporary file : " + fileToBeDeleted.getAbsolutePath() + se.getMessage(), se);
 					}
@@ -54,6 +54,7 @@ import com.ephesoft.dcma.core.component.ICommonConstants;
 import com.ephesoft.dcma.core.exception.DCMAApplicationException;
 import com.ephesoft.dcma.core.threadpool.BatchInstanceThread;
 import com.ephesoft.dcma.core.threadpool.ProcessExecutor;
+import com.ephesoft.dcma.core.threadpool.ProcessResourceLimiter;
 import com.ephesoft.dcma.da.domain.BatchClass;
 import com.ephesoft.dcma.imagemagick.constant.ImageMagicKConstants;
 import com.ephesoft.dcma.util.ApplicationConfigProperties;
@@ -159,9 +160,9 @@ public class MultiPageToSinglePageConverter implements ICommonConstants, IImageM
 					LOGGER.info(cmds[ind] + ImageMagicKConstants.SPACE);
 				}
 				if (OSUtil.isWindows()) {
-					thread.add(new ProcessExecutor(cmds, null));
+					thread.add(new ProcessExecutor(cmds, null, ProcessResourceLimiter.IMAGING));
 				} else {
-					thread.add(new ProcessExecutor(cmds, new File(System.getenv(IM4JAVA_TOOLPATH))));
+					thread.add(new ProcessExecutor(cmds, new File(System.getenv(IM4JAVA_TOOLPATH)), ProcessResourceLimiter.IMAGING));
 				}
 			} else {
 				LOGGER.error("Error processing Command " + command);
@@ -311,9 +312,9 @@ public class MultiPageToSinglePageConverter implements ICommonConstants, IImageM
 					LOGGER.info(cmds[ind] + ImageMagicKConstants.SPACE);
 				}
 				if (OSUtil.isWindows()) {
-					thread.add(new ProcessExecutor(cmds, null));
+					thread.add(new ProcessExecutor(cmds, null, ProcessResourceLimiter.IMAGING));
 				} else {
-					thread.add(new ProcessExecutor(cmds, new File(System.getenv(IM4JAVA_TOOLPATH))));
+					thread.add(new ProcessExecutor(cmds, new File(System.getenv(IM4JAVA_TOOLPATH)), ProcessResourceLimiter.IMAGING));
 				}
 			} else {
 				LOGGER.error("Error processing Command " + command);
@@ -397,9 +398,9 @@ public class MultiPageToSinglePageConverter implements ICommonConstants, IImageM
 					LOGGER.info(cmds[ind] + ImageMagicKConstants.SPACE);
 				}
 				if (OSUtil.isWindows()) {
-					batchInstanceThread.add(new ProcessExecutor(cmds, null));
+					batchInstanceThread.add(new ProcessExecutor(cmds, null, ProcessResourceLimiter.IMAGING));
 				} else {
-					batchInstanceThread.add(new ProcessExecutor(cmds, new File(System.getenv(IM4JAVA_TOOLPATH))));
+					batchInstanceThread.add(new ProcessExecutor(cmds, new File(System.getenv(IM4JAVA_TOOLPATH)), ProcessResourceLimiter.IMAGING));
 				}
 			} else {
 				LOGGER.error("Command " + command + " cannot be run");
@@ -44,6 +44,7 @@ import org.slf4j.LoggerFactory;
 import com.ephesoft.dcma.core.exception.DCMAApplicationException;
 import com.ephesoft.dcma.core.threadpool.BatchInstanceThread;
 import com.ephesoft.dcma.core.threadpool.ProcessExecutor;
+import com.ephesoft.dcma.core.threadpool.ProcessResourceLimiter;
 import com.ephesoft.dcma.util.OSUtil;
 
 /**
@@ -155,7 +156,8 @@ public class PdfOptimizer {
 			}
 			LOGGER.info("command formed Ends.");
 
-			thread.add(new ProcessExecutor(cmds, new File(System.getenv(IImageMagickCommonConstants.GHOSTSCRIPT_ENV_VARIABLE))));
+			thread.add(new ProcessExecutor(cmds, new File(System.getenv(IImageMagickCommonConstants.GHOSTSCRIPT_ENV_VARIABLE)),
+					ProcessResourceLimiter.PDF));
 		} catch (Exception e) {
 			LOGGER.error("Exception while generating multi page PDF. " + e.getMessage());
 			throw new DCMAApplicationException("Exception while generating multi page PDF." + e.getMessage(), e);
@@ -63,6 +63,7 @@ import com.ephesoft.dcma.core.exception.DCMAApplicationException;
 import com.ephesoft.dcma.core.threadpool.AbstractRunnable;
 import com.ephesoft.dcma.core.threadpool.BatchInstanceThread;
 import com.ephesoft.dcma.core.threadpool.ProcessExecutor;
+import com.ephesoft.dcma.core.threadpool.ProcessResourceLimiter;
 import com.ephesoft.dcma.imagemagick.constant.ImageMagicKConstants;
 import com.ephesoft.dcma.util.FileNameFormatter;
 import com.ephesoft.dcma.util.OSUtil;
@@ -138,8 +139,6 @@ public class ThumbnailPNGCreator implements ICommonConstants, IImageMagickCommon
 		String imageName = imagePath.getAbsolutePath();
 		// TODO remove hard coding _thumb.png, .png and .tif
 		String pngPath = imageName.substring(0, imageName.indexOf(FileType.TIF.getExtensionWithDot()));
-		StringBuffer command = new StringBuffer(ImageMagicKConstants.EMPTY_STRING);
-		List<String> commandList = new ArrayList<String>();
 		Integer thumbnailHeight;
 		Integer thumbnailWidth;
 		Integer pngHeight;
@@ -150,78 +149,15 @@ public class ThumbnailPNGCreator implements ICommonConstants, IImageMagickCommon
 		pngHeight = getPngHeightInt();
 
 		String outputParamsForThumbnail = "-colorspace " + ImageMagicKConstants.GRAY_COLOR + " -thumbnail " + thumbnailWidth + "x" + thumbnailHeight;
-		String inputParams = "";
-		if (OSUtil.isWindows()) {
-			createCommandforWindows(commandList, inputParams, outputParamsForThumbnail, QUOTES
-					+ System.getenv(IMAGEMAGICK_ENV_VARIABLE) + File.separator + ImageMagicKConstants.CONVERT_COMMAND + QUOTES,
-					QUOTES + imageName + QUOTES, QUOTES + pngPath + SUFFIX_THUMBNAIL_SAMPLE_PNG + QUOTES);
-		} else {
-			commandList.add(System.getenv(IMAGEMAGICK_ENV_VARIABLE) + File.separator + ImageMagicKConstants.CONVERT_COMMAND);
-			createCommandForLinux(commandList, inputParams, outputParamsForThumbnail, imageName, pngPath + SUFFIX_THUMBNAIL_SAMPLE_PNG);
-		}
-		String[] cmds = (String[]) commandList.toArray(new String[commandList.size()]);
-		LOGGER.info("Starting execution of ");
-		for (int ind = 0; ind < cmds.length; ind++) {
-			if (cmds[ind] == null) {
-				cmds[ind] = "";
-			}
-			LOGGER.info(cmds[ind]);
-			command.append(cmds[ind]);
-			command.append(' ');
-		}
-		LOGGER.info("Convert command = " + command);
-		try {
-			Runtime runtime = Runtime.getRuntime();
-			Process proc = runtime.exec(command.toString());
-			String cmdOutput = "";
-			InputStreamReader inputStreamReader = null;
-			BufferedReader sysErr = null;
-			try {
-				inputStreamReader = new InputStreamReader(proc.getErrorStream());
-				sysErr = new BufferedReader(inputStreamReader);
-				cmdOutput = sysErr.readLine();
-				LOGGER.info(ImageMagicKConstants.COMMAND_OUTPUT + cmdOutput);
-			} catch (IOException ioe) {
-				LOGGER.error("Exception while reading the buffer : " + ioe.getMessage(), ioe);
-			} finally {
-				if (null != sysErr) {
-					sysErr.close();
-				}
-				if (null != inputStreamReader) {
-					inputStreamReader.close();
-				}
-			}
-			LOGGER.info(ImageMagicKConstants.COMMAND_OUTPUT + cmdOutput);
-
-		} catch (Exception ex) {
-			LOGGER.error(ImageMagicKConstants.PROBLEM_GENERATING_THUMBNAILS);
-			throw new DCMAApplicationException(ImageMagicKConstants.PROBLEM_GENERATING_THUMBNAILS, ex);
-		}
-
-		command = new StringBuffer(ImageMagicKConstants.EMPTY_STRING);
-		commandList = new ArrayList<String>();
 		String outputParamsForPNGCreation = "-colorspace " + ImageMagicKConstants.GRAY_COLOR + " -resize " + pngWidth + "x" + pngHeight;
-		if (OSUtil.isWindows()) {
-			createCommandforWindows(commandList, inputParams, outputParamsForPNGCreation, QUOTES
-					+ System.getenv(IMAGEMAGICK_ENV_VARIABLE) + File.separator + ImageMagicKConstants.CONVERT_COMMAND + QUOTES,
-					QUOTES + imageName + QUOTES, QUOTES + pngPath + FileType.PNG.getExtensionWithDot() + QUOTES);
 
-		} else {
-			commandList.add(System.getenv(IMAGEMAGICK_ENV_VARIABLE) + File.separator + ImageMagicKConstants.CONVERT_COMMAND);
-			createCommandForLinux(commandList, inputParams, outputParamsForPNGCreation, imageName, pngPath
-					+ FileType.PNG.getExtensionWithDot());
-		}
-		cmds = (String[]) commandList.toArray(new String[commandList.size()]);
-		LOGGER.info("Starting execution of ");
-		for (int ind = 0; ind < cmds.length; ind++) {
-			if (cmds[ind] == null) {
-				cmds[ind] = "";
-			}
-			LOGGER.info(cmds[ind]);
-			command.append(cmds[ind]);
-			command.append(' ');
-		}
-		LOGGER.info("Convert command for PNG is = " + command);
+		// Decode the image once and write the thumbnail and the png from it
+		MultiOutputConvertCommand convertCommand = new MultiOutputConvertCommand(getConvertCommand(),
+				ImageMagicKConstants.EMPTY_STRING, imageName, OSUtil.isWindows());
+		convertCommand.addOutput(outputParamsForThumbnail, pngPath + SUFFIX_THUMBNAIL_SAMPLE_PNG);
+		convertCommand.addOutput(outputParamsForPNGCreation, pngPath + FileType.PNG.getExtensionWithDot());
+		StringBuffer command = new StringBuffer(convertCommand.toString());
+		LOGGER.info("Convert command for thumbnail and PNG is = " + command);
 		executeGeneratePngCommand(command);
 	}
 
@@ -397,6 +333,110 @@ public class ThumbnailPNGCreator implements ICommonConstants, IImageMagickCommon
 
 	}
 
+	/**
+	 * This method generates the display thumbnails and optionally the compare thumbnails for all the tif files in the batch folder.
+	 * Each page is decoded once by a single convert command writing both thumbnails.
+	 * 
+	 * @param sBatchFolder
+	 * @param batchInstanceIdentifier
+	 * @param batchSchemaService
+	 * @param isCompareThumbnail true if compare thumbnails are also to be generated
+	 * @param pluginWorkflowName
+	 * @throws DCMAApplicationException
+	 * @throws JAXBException
+	 */
+	public void generateThumbnails(final String sBatchFolder, final String batchInstanceIdentifier,
+			BatchSchemaService batchSchemaService, boolean isCompareThumbnail, String pluginWorkflowName)
+			throws DCMAApplicationException, JAXBException {
+		final File fBatchFolder = new File(sBatchFolder);
+
+		// Initialize properties
+		LOGGER.info("Initializing properties...");
+		String displayThumbnailH = pluginPropertiesService.getPropertyValue(batchInstanceIdentifier,
+				ImageMagicKConstants.CREATE_THUMBNAILS_PLUGIN, ImageMagicProperties.CREATE_THUMBNAILS_DISP_THUMB_HEIGHT);
+		String displayThumbnailW = pluginPropertiesService.getPropertyValue(batchInstanceIdentifier,
+				ImageMagicKConstants.CREATE_THUMBNAILS_PLUGIN, ImageMagicProperties.CREATE_THUMBNAILS_DISP_THUMB_WIDTH);
+		String compareThumbnailH = pluginPropertiesService.getPropertyValue(batchInstanceIdentifier,
+				ImageMagicKConstants.CREATE_THUMBNAILS_PLUGIN, ImageMagicProperties.CREATE_THUMBNAILS_COMP_THUMB_HEIGHT);
+		String compareThumbnailW = pluginPropertiesService.getPropertyValue(batchInstanceIdentifier,
+				ImageMagicKConstants.CREATE_THUMBNAILS_PLUGIN, ImageMagicProperties.CREATE_THUMBNAILS_COMP_THUMB_WIDTH);
+		final String outputImageParameters = pluginPropertiesService.getPropertyValue(batchInstanceIdentifier,
+				ImageMagicKConstants.CREATE_THUMBNAILS_PLUGIN, ImageMagicProperties.CREATE_THUMBNAILS_OUTPUT_IMAGE_PARAMETERS);
+		LOGGER.info("Properties Initialized Successfully");
+
+		if (!fBatchFolder.exists() || !fBatchFolder.isDirectory()) {
+			throw new DCMABusinessException("Improper Folder Specified folder name->" + sBatchFolder);
+		}
+		LOGGER.info("Finding xml file for thumbnail generation in the folder--> " + fBatchFolder);
+
+		Batch batch = batchSchemaService.getBatch(batchInstanceIdentifier);
+		String[][] displayThumbnailFiles;
+		String[][] compareThumbnailFiles = null;
+		try {
+			displayThumbnailFiles = getListOfTiffFiles(fBatchFolder, batch, batchInstanceIdentifier, true,
+					IImageMagickCommonConstants.THUMB_TYPE_DISP, batchSchemaService, ImageMagicKConstants.CREATE_THUMBNAILS_PLUGIN);
+			if (isCompareThumbnail) {
+				compareThumbnailFiles = getListOfTiffFiles(fBatchFolder, batch, batchInstanceIdentifier, true,
+						IImageMagickCommonConstants.THUMB_TYPE_COMP, batchSchemaService, ImageMagicKConstants.CREATE_THUMBNAILS_PLUGIN);
+			}
+		} catch (Exception e) {
+			throw new DCMAApplicationException("Problem generating list of files", e);
+		}
+
+		LOGGER.info("Generating thumbnails");
+		BatchInstanceThread batchInstanceThread = new BatchInstanceThread(batchInstanceIdentifier);
+		String displayParams = outputImageParameters + " -thumbnail " + Integer.parseInt(displayThumbnailH) + 'x'
+				+ Integer.parseInt(displayThumbnailW);
+		String compareParams = null;
+		if (isCompareThumbnail) {
+			compareParams = " -thumbnail " + Integer.parseInt(compareThumbnailH) + 'x' + Integer.parseInt(compareThumbnailW);
+		}
+		File environment = OSUtil.isWindows() ? null : new File(System.getenv(IMAGEMAGICK_ENV_VARIABLE));
+		for (int i = 0; i < displayThumbnailFiles.length; i++) {
+			MultiOutputConvertCommand convertCommand = new MultiOutputConvertCommand(getConvertCommand(),
+					ImageMagicKConstants.EMPTY_STRING, displayThumbnailFiles[i][0], OSUtil.isWindows());
+			convertCommand.addOutput(displayParams, displayThumbnailFiles[i][1]);
+			if (isCompareThumbnail) {
+				convertCommand.addOutput(compareParams, compareThumbnailFiles[i][1]);
+			}
+			LOGGER.info("Convert command = " + convertCommand);
+			batchInstanceThread.add(new ProcessExecutor(convertCommand.toCommandArray(), environment, ProcessResourceLimiter.IMAGING));
+		}
+		try {
+			LOGGER.info("Executing thumbnail generation by thread pool for " + batchInstanceIdentifier);
+			batchInstanceThread.execute();
+			LOGGER.info("Finished thumbnail generation by thread pool for " + batchInstanceIdentifier);
+		} catch (DCMAApplicationException dcmae) {
+			LOGGER.error("Error in generating thumbnails" + dcmae.getMessage(), dcmae);
+			batchInstanceThread.remove();
+			batchSchemaService.updateBatch(batch);
+
+			// Throw the exception to set the batch status to Error by Application aspect
+			throw new DCMAApplicationException(dcmae.getMessage(), dcmae);
+		}
+
+		for (int i = 0; i < displayThumbnailFiles.length; i++) {
+			addFileToPageSchema(batch, displayThumbnailFiles[i][2], displayThumbnailFiles[i][1], THUMB_TYPE_DISP);
+			if (isCompareThumbnail) {
+				addFileToPageSchema(batch, compareThumbnailFiles[i][2], compareThumbnailFiles[i][1], THUMB_TYPE_COMP);
+			}
+		}
+		LOGGER.info("Persisting all thumbnail info to batch.xml file");
+		batchSchemaService.updateBatch(batch);
+		LOGGER.info(displayThumbnailFiles.length + " pages succesfully thumbnailed");
+	}
+
+	private String getConvertCommand() {
+		String convertCommand;
+		if (OSUtil.isWindows()) {
+			convertCommand = QUOTES + System.getenv(IMAGEMAGICK_ENV_VARIABLE) + File.separator + ImageMagicKConstants.CONVERT_COMMAND
+					+ QUOTES;
+		} else {
+			convertCommand = System.getenv(IMAGEMAGICK_ENV_VARIABLE) + File.separator + ImageMagicKConstants.CONVERT_COMMAND;
+		}
+		return convertCommand;
+	}
+
 	public BatchInstanceThread generateThumbnailInternal(final String batchInstanceIdentifier, String thumbnailType,
 			String thumbnailH, String thumbnailW, final String outputImageParameters, String[][] sListOfTiffFiles) {
 		LOGGER.info("Generating thumbnais");
@@ -544,9 +584,10 @@ public class ThumbnailPNGCreator implements ICommonConstants, IImageMagickCommon
 							LOGGER.info(cmds[ind] + ImageMagicKConstants.SPACE);
 						}
 						if (OSUtil.isWindows()) {
-							batchInstanceThread.add(new ProcessExecutor(cmds, null));
+							batchInstanceThread.add(new ProcessExecutor(cmds, null, ProcessResourceLimiter.IMAGING));
 						} else {
-							batchInstanceThread.add(new ProcessExecutor(cmds, new File(System.getenv(IMAGEMAGICK_ENV_VARIABLE))));
+							batchInstanceThread.add(new ProcessExecutor(cmds, new File(System.getenv(IMAGEMAGICK_ENV_VARIABLE)),
+									ProcessResourceLimiter.IMAGING));
 						}
 					} else {
 						LOGGER.error("Command " + command + " cannot be run");
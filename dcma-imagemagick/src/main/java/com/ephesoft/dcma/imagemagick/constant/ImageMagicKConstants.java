@@ -192,6 +192,31 @@ public interface ImageMagicKConstants {
 	 */
 	String CONVERT_COMMAND = "convert";
 
+	/**
+	 * Convert operator opening an image sequence.
+	 */
+	String OPEN_PARENTHESIS = "(";
+
+	/**
+	 * Convert operator closing an image sequence.
+	 */
+	String CLOSE_PARENTHESIS = ")";
+
+	/**
+	 * Convert operator cloning the last image of the sequence.
+	 */
+	String CLONE_OPERATOR = "+clone";
+
+	/**
+	 * Convert operator writing the current image to a file.
+	 */
+	String WRITE_OPERATOR = "-write";
+
+	/**
+	 * Convert operator deleting the last image of the sequence.
+	 */
+	String DELETE_OPERATOR = "+delete";
+
 	/**
 	 * Error message for invalid height of scanned image.
 	 */
@@ -38,6 +38,7 @@ package com.ephesoft.dcma.imagemagick.imageclassifier;
 import java.io.File;
 import java.io.IOException;
 import java.text.DecimalFormat;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
@@ -63,6 +64,7 @@ import com.ephesoft.dcma.batch.service.BatchSchemaService;
 import com.ephesoft.dcma.batch.service.PluginPropertiesService;
 import com.ephesoft.dcma.core.common.DCMABusinessException;
 import com.ephesoft.dcma.core.exception.DCMAApplicationException;
+import com.ephesoft.dcma.core.threadpool.BatchInstanceThread;
 import com.ephesoft.dcma.imagemagick.IImageMagickCommonConstants;
 import com.ephesoft.dcma.imagemagick.ImageMagicProperties;
 import com.ephesoft.dcma.imagemagick.constant.ImageMagicKConstants;
@@ -95,11 +97,10 @@ public class ImageClassifier {
 	private PluginPropertiesService pluginPropertiesService;
 
 	/**
-	 * The utility which does the actual image comparison work.
+	 * The engine which compares the images.
 	 */
 	@Autowired
-	// @Qualifier("imageComparisonUtil")
-	private ImageComparisonUtil imageComparisonUtil;
+	private ImageSimilarityEngine imageSimilarityEngine;
 
 	/**
 	 * An instance of {@link BatchSchemaService}.
@@ -154,8 +155,8 @@ public class ImageClassifier {
 		Map<String, Integer> unclassifiedPgIndexMap = new HashMap<String, Integer>();
 		
 		getPathOfPagesOfBatch(parsedXmlFile, listOfUnclasifiedPgPth, unclassifiedPgIndexMap, sBatchFolder);
-		Map<String, CustomValueSortedMap> finalUnclasifiedPageConfidenceMap = performClassification(maxVal, imMetric, imFuzz,
-				sampleBaseFolderPath, listOfUnclasifiedPgPth);
+		Map<String, CustomValueSortedMap> finalUnclasifiedPageConfidenceMap = performClassification(batchInstanceIdentifier, maxVal,
+				imMetric, imFuzz, sampleBaseFolderPath, listOfUnclasifiedPgPth);
 		
 		List<Document> listOfDocuments = parsedXmlFile.getDocuments().getDocument();
 		Document docuemnt = listOfDocuments.get(0);
@@ -166,8 +167,9 @@ public class ImageClassifier {
 		batchSchemaService.updateBatch(parsedXmlFile);
 	}
 
-	private Map<String, CustomValueSortedMap> performClassification(String maxVal, String imMetric, String imFuzz, String sampleBaseFolderPath,
-			List<String> listOfUnclasifiedPgPth) throws IOException, DCMAApplicationException {
+	private Map<String, CustomValueSortedMap> performClassification(String batchInstanceIdentifier, String maxVal, String imMetric,
+			String imFuzz, String sampleBaseFolderPath, List<String> listOfUnclasifiedPgPth) throws IOException,
+			DCMAApplicationException {
 		File batchClassFolder = new File(sampleBaseFolderPath);
 		String[] documentTypeArray = batchClassFolder.list();
 
@@ -181,27 +183,59 @@ public class ImageClassifier {
 		if(documentTypeArray == null || documentTypeArray.length == 0) {
 			throw new DCMAApplicationException(" Learning not done for batch class sample folder path:" + sampleBaseFolderPath);
 		}
-		// CustomValueSortedMap finalUnclasifiedPageConfidenceMap = new CustomValueSortedMap(maxValue);
-		Map<String, CustomValueSortedMap> finalUnclasifiedPageConfidenceMap = new HashMap<String, CustomValueSortedMap>();
+		if (imageSimilarityEngine == null) {
+			imageSimilarityEngine = new ImageSimilarityEngine();
+		}
+		return performParallelClassification(batchInstanceIdentifier, maxValue, imMetric, imFuzz, sampleBaseFolderPath,
+				documentTypeArray, listOfUnclasifiedPgPth);
+	}
+
+	private Map<String, CustomValueSortedMap> performParallelClassification(String batchInstanceIdentifier, int maxValue,
+			String imMetric, String imFuzz, String sampleBaseFolderPath, String[] documentTypeArray,
+			List<String> listOfUnclasifiedPgPth) throws DCMAApplicationException {
+		LOGGER.info("Comparing images, comparison mode = " + imageSimilarityEngine.getComparisonMode());
+		List<ImageComparisonTask.SamplePage> samplePages = getSamplePages(sampleBaseFolderPath, documentTypeArray);
+		BatchInstanceThread batchInstanceThread = new BatchInstanceThread(batchInstanceIdentifier);
+		List<ImageComparisonTask> comparisonTasks = new ArrayList<ImageComparisonTask>();
 		for (String unclasifiedPagePath : listOfUnclasifiedPgPth) {
-			CustomValueSortedMap sampleConfidenceList = new CustomValueSortedMap(maxValue);
-			for (String documentName : documentTypeArray) {
-				LOGGER.info("documentName = " + documentName);
-				File fdocumentName = new File(documentName);
-				if (fdocumentName.isHidden()) {
-					continue;
-				}
-				List<String> listOfSamplePages = getListOfSamplePagesForDoc(documentName, sampleBaseFolderPath);
-				for (String samplePageName : listOfSamplePages) {
-					List<String> listOfSambleThumbsPaths = getListOfThumbnailPaths(samplePageName, documentName, sampleBaseFolderPath);
-					double maxConfidence = getMaxCondifence(unclasifiedPagePath, listOfSambleThumbsPaths, imMetric, imFuzz);
-					LOGGER.info("samplePageName = " + samplePageName + ", maxConfidence = " + maxConfidence);
-					sampleConfidenceList.add(samplePageName, maxConfidence);
+			ImageComparisonTask comparisonTask = new ImageComparisonTask(unclasifiedPagePath, samplePages, imageSimilarityEngine,
+					imMetric, imFuzz, maxValue);
+			comparisonTasks.add(comparisonTask);
+			batchInstanceThread.add(comparisonTask);
+		}
+		batchInstanceThread.execute();
+		Map<String, CustomValueSortedMap> finalUnclasifiedPageConfidenceMap = new HashMap<String, CustomValueSortedMap>();
+		for (ImageComparisonTask comparisonTask : comparisonTasks) {
+			finalUnclasifiedPageConfidenceMap.put(comparisonTask.getUnclassifiedPagePath(), comparisonTask.getSampleConfidenceList());
+		}
+		return finalUnclasifiedPageConfidenceMap;
+	}
+
+	private List<ImageComparisonTask.SamplePage> getSamplePages(String sampleBaseFolderPath, String[] documentTypeArray) {
+		List<ImageComparisonTask.SamplePage> samplePages = new ArrayList<ImageComparisonTask.SamplePage>();
+		for (String documentName : documentTypeArray) {
+			LOGGER.info("documentName = " + documentName);
+			File fdocumentName = new File(documentName);
+			if (fdocumentName.isHidden()) {
+				continue;
+			}
+			List<String> listOfSamplePages = getListOfSamplePagesForDoc(documentName, sampleBaseFolderPath);
+			for (String samplePageName : listOfSamplePages) {
+				List<String> listOfSambleThumbsPaths = getListOfThumbnailPaths(samplePageName, documentName, sampleBaseFolderPath);
+				List<ImageFingerprint> sampleImages = new ArrayList<ImageFingerprint>(listOfSambleThumbsPaths.size());
+				if (imageSimilarityEngine.isInProcess()) {
+					for (String sampleThumbnailPath : listOfSambleThumbsPaths) {
+						try {
+							sampleImages.add(imageSimilarityEngine.loadSample(sampleThumbnailPath));
+						} catch (Exception e) {
+							LOGGER.info("Problem reading sample image " + sampleThumbnailPath + " Exception = " + e.getMessage(), e);
+						}
+					}
 				}
+				samplePages.add(new ImageComparisonTask.SamplePage(samplePageName, listOfSambleThumbsPaths, sampleImages));
 			}
-			finalUnclasifiedPageConfidenceMap.put(unclasifiedPagePath, sampleConfidenceList);
 		}
-		return finalUnclasifiedPageConfidenceMap;
+		return samplePages;
 	}
 
 	/**
@@ -231,8 +265,8 @@ public class ImageClassifier {
 		List<String> listOfUnclasifiedPgPth = new LinkedList<String>();
 		Map<String, Integer> unclassifiedPgIndexMap = new HashMap<String, Integer>();
 		processPageList(listOfPages, listOfUnclasifiedPgPth, unclassifiedPgIndexMap, sBatchFolder);
-		Map<String, CustomValueSortedMap> finalUnclasifiedPageConfidenceMap = performClassification(maxVal, imMetric, imFuzz, 
-				sampleBaseFolderPath, listOfUnclasifiedPgPth);
+		Map<String, CustomValueSortedMap> finalUnclasifiedPageConfidenceMap = performClassification(batchInstanceIdentifier, maxVal,
+				imMetric, imFuzz, sampleBaseFolderPath, listOfUnclasifiedPgPth);
 		
 		updateXmlObject(finalUnclasifiedPageConfidenceMap, unclassifiedPgIndexMap, listOfPages);
 		
@@ -281,37 +315,6 @@ public class ImageClassifier {
 		}
 	}
 
-	private double getMaxCondifence(final String unclasifiedPagePath, List<String> listOfSambleThumbsPaths,
-			final String imMetric, final String imFuzz) throws IOException, DCMAApplicationException {
-		if (imageComparisonUtil == null) {
-			imageComparisonUtil = new ImageComparisonUtil(true);
-		}
-		double maxConfidence = 0;
-		LOGGER.info("unclasifiedPagePath = " + unclasifiedPagePath);
-		for (String sampleThumbnailPath : listOfSambleThumbsPaths) {
-			LOGGER.info("sampleThumbnailPath = " + sampleThumbnailPath);
-			double confidence = 0;
-			try {
-				File fSampleThumb = new File(sampleThumbnailPath);
-				if (!fSampleThumb.exists()) {
-					LOGGER.info("Thumbnail File does not exist filename = " + fSampleThumb);
-					continue;
-				}
-				confidence = imageComparisonUtil.compareImagesRuntime(unclasifiedPagePath, sampleThumbnailPath, imMetric, imFuzz);
-				LOGGER.info("confidence = " + confidence);
-			} catch (Exception e) {
-				LOGGER.info("Problem comparing images " + unclasifiedPagePath + "," + sampleThumbnailPath + " Exception = "
-						+ e.getMessage(), e);
-				continue;
-			}
-			if (confidence > maxConfidence) {
-				maxConfidence = confidence;
-			}
-		}
-		LOGGER.info("maxConfidence = " + maxConfidence);
-		return maxConfidence;
-	}
-
 	private List<String> getListOfThumbnailPaths(final String samplePageType, final String documentType,
 			final String sampleBaseFolderPath) {
 		List<String> listOfThumbnailPaths = new LinkedList<String>();
@@ -0,0 +1,258 @@
+/********************************************************************************* 
+* Ephesoft is a Intelligent Document Capture and Mailroom Automation program 
+* developed by Ephesoft, Inc. Copyright (C) 2010-2012 Ephesoft Inc. 
+* 
+* This program is free software; you can redistribute it and/or modify it under 
+* the terms of the GNU Affero General Public License version 3 as published by the 
+* Free Software Foundation with the addition of the following permission added 
+* to Section 15 as permitted in Section 7(a): FOR ANY PART OF THE COVERED WORK 
+* IN WHICH THE COPYRIGHT IS OWNED BY EPHESOFT, EPHESOFT DISCLAIMS THE WARRANTY 
+* OF NON INFRINGEMENT OF THIRD PARTY RIGHTS. 
+* 
+* This program is distributed in the hope that it will be useful, but WITHOUT 
+* ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+* FOR A PARTICULAR PURPOSE.  See the GNU Affero General Public License for more 
+* details. 
+* 
+* You should have received a copy of the GNU Affero General Public License along with 
+* this program; if not, see http://www.gnu.org/licenses or write to the Free 
+* Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 
+* 02110-1301 USA. 
+* 
+* You can contact Ephesoft, Inc. headquarters at 111 Academy Way, 
+* Irvine, CA 92617, USA. or at email address info@ephesoft.com. 
+* 
+* The interactive user interfaces in modified source and object code versions 
+* of this program must display Appropriate Legal Notices, as required under 
+* Section 5 of the GNU Affero General Public License version 3. 
+* 
+* In accordance with Section 7(b) of the GNU Affero General Public License version 3, 
+* these Appropriate Legal Notices must retain the display of the "Ephesoft" logo. 
+* If the display of the logo is not reasonably feasible for 
+* technical reasons, the Appropriate Legal Notices must display the words 
+* "Powered by Ephesoft". 
+********************************************************************************/ 
+
+
+package com.ephesoft.dcma.imagemagick.imageclassifier;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.ephesoft.dcma.core.threadpool.AbstractRunnable;
+import com.ephesoft.dcma.util.CustomValueSortedMap;
+
+/**
+ * This class compares the comparison thumbnail of one unclassified page with the images of all the sample pages of a batch class.
+ * All the pages of a batch are compared in parallel. In compatibility mode every sample thumbnail is compared by the compare command,
+ * otherwise against the same sample images, which are loaded only once.
+ * 
+ * @author Ephesoft
+ * @version 1.0
+ * @see com.ephesoft.dcma.imagemagick.imageclassifier.ImageClassifier
+ */
+public class ImageComparisonTask extends AbstractRunnable {
+
+	/**
+	 * An instance of Logger for logging in this file.
+	 */
+	private static final Logger LOGGER = LoggerFactory.getLogger(ImageComparisonTask.class);
+
+	/**
+	 * Path of the comparison thumbnail of the unclassified page.
+	 */
+	private final String unclassifiedPagePath;
+
+	/**
+	 * Images of the sample pages.
+	 */
+	private final List<SamplePage> samplePages;
+
+	/**
+	 * Engine comparing the images.
+	 */
+	private final ImageSimilarityEngine imageSimilarityEngine;
+
+	/**
+	 * Metric of the comparison.
+	 */
+	private final String imMetric;
+
+	/**
+	 * Fuzz percent of the comparison.
+	 */
+	private final String imFuzz;
+
+	/**
+	 * Confidence of the best matching sample pages.
+	 */
+	private final CustomValueSortedMap sampleConfidenceList;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param unclassifiedPagePath {@link String}
+	 * @param samplePages {@link List<SamplePage>}
+	 * @param imageSimilarityEngine {@link ImageSimilarityEngine}
+	 * @param imMetric {@link String}
+	 * @param imFuzz {@link String}
+	 * @param maxValue int maximum number of sample pages kept
+	 */
+	public ImageComparisonTask(final String unclassifiedPagePath, final List<SamplePage> samplePages,
+			final ImageSimilarityEngine imageSimilarityEngine, final String imMetric, final String imFuzz, final int maxValue) {
+		super();
+		this.unclassifiedPagePath = unclassifiedPagePath;
+		this.samplePages = samplePages;
+		this.imageSimilarityEngine = imageSimilarityEngine;
+		this.imMetric = imMetric;
+		this.imFuzz = imFuzz;
+		this.sampleConfidenceList = new CustomValueSortedMap(maxValue);
+	}
+
+	/**
+	 * To get the path of the comparison thumbnail of the unclassified page.
+	 * 
+	 * @return {@link String}
+	 */
+	public String getUnclassifiedPagePath() {
+		return unclassifiedPagePath;
+	}
+
+	/**
+	 * To get the confidence of the best matching sample pages.
+	 * 
+	 * @return {@link CustomValueSortedMap}
+	 */
+	public CustomValueSortedMap getSampleConfidenceList() {
+		return sampleConfidenceList;
+	}
+
+	/**
+	 * This method compares the page with the images of every sample page and keeps the maximum confidence of each sample page.
+	 */
+	@Override
+	public void run() {
+		LOGGER.info("unclasifiedPagePath = " + unclassifiedPagePath);
+		if (imageSimilarityEngine.isInProcess()) {
+			compareInProcess();
+		} else {
+			compareWithThumbnails();
+		}
+	}
+
+	private void compareWithThumbnails() {
+		for (SamplePage samplePage : samplePages) {
+			double maxConfidence = 0;
+			for (String sampleThumbnailPath : samplePage.getSampleThumbnailPaths()) {
+				double confidence = 0;
+				try {
+					File fSampleThumb = new File(sampleThumbnailPath);
+					if (!fSampleThumb.exists()) {
+						LOGGER.info("Thumbnail File does not exist filename = " + fSampleThumb);
+						continue;
+					}
+					confidence = imageSimilarityEngine.compareFiles(unclassifiedPagePath, sampleThumbnailPath, imMetric, imFuzz);
+				} catch (Exception e) {
+					LOGGER.info("Problem comparing images " + unclassifiedPagePath + "," + sampleThumbnailPath + " Exception = "
+							+ e.getMessage(), e);
+					continue;
+				}
+				if (confidence > maxConfidence) {
+					maxConfidence = confidence;
+				}
+			}
+			LOGGER.debug("samplePageName = " + samplePage.getSamplePageName() + ", maxConfidence = " + maxConfidence);
+			sampleConfidenceList.add(samplePage.getSamplePageName(), maxConfidence);
+		}
+	}
+
+	private void compareInProcess() {
+		ImageFingerprint pageImage = null;
+		try {
+			pageImage = imageSimilarityEngine.loadPage(unclassifiedPagePath);
+		} catch (IOException ioe) {
+			LOGGER.info("Problem reading image " + unclassifiedPagePath + " Exception = " + ioe.getMessage(), ioe);
+		} catch (RuntimeException re) {
+			LOGGER.info("Problem reading image " + unclassifiedPagePath + " Exception = " + re.getMessage(), re);
+		}
+		for (SamplePage samplePage : samplePages) {
+			double maxConfidence = 0;
+			if (pageImage != null) {
+				for (ImageFingerprint sampleImage : samplePage.getSampleImages()) {
+					double confidence = imageSimilarityEngine.compare(pageImage, sampleImage, imMetric, imFuzz);
+					if (confidence > maxConfidence) {
+						maxConfidence = confidence;
+					}
+				}
+			}
+			LOGGER.debug("samplePageName = " + samplePage.getSamplePageName() + ", maxConfidence = " + maxConfidence);
+			sampleConfidenceList.add(samplePage.getSamplePageName(), maxConfidence);
+		}
+	}
+
+	/**
+	 * This class holds the images of the thumbnails of one sample page.
+	 */
+	public static final class SamplePage {
+
+		/**
+		 * Name of the sample page.
+		 */
+		private final String samplePageName;
+
+		/**
+		 * Paths of the thumbnails of the sample page.
+		 */
+		private final List<String> sampleThumbnailPaths;
+
+		/**
+		 * Images of the thumbnails of the sample page, empty in compatibility mode.
+		 */
+		private final List<ImageFingerprint> sampleImages;
+
+		/**
+		 * Constructor.
+		 * 
+		 * @param samplePageName {@link String}
+		 * @param sampleThumbnailPaths {@link List<String>}
+		 * @param sampleImages {@link List<ImageFingerprint>}
+		 */
+		public SamplePage(final String samplePageName, final List<String> sampleThumbnailPaths,
+				final List<ImageFingerprint> sampleImages) {
+			this.samplePageName = samplePageName;
+			this.sampleThumbnailPaths = sampleThumbnailPaths;
+			this.sampleImages = sampleImages;
+		}
+
+		/**
+		 * To get the paths of the thumbnails of the sample page.
+		 * 
+		 * @return {@link List<String>}
+		 */
+		public List<String> getSampleThumbnailPaths() {
+			return sampleThumbnailPaths;
+		}
+
+		/**
+		 * To get the name of the sample page.
+		 * 
+		 * @return {@link String}
+		 */
+		public String getSamplePageName() {
+			return samplePageName;
+		}
+
+		/**
+		 * To get the images of the thumbnails of the sample page.
+		 * 
+		 * @return {@link List<ImageFingerprint>}
+		 */
+		public List<ImageFingerprint> getSampleImages() {
+			return sampleImages;
+		}
+	}
+}
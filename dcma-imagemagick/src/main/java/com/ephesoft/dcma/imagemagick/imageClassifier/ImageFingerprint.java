@@ -0,0 +1,342 @@
+/********************************************************************************* 
+* Ephesoft is a Intelligent Document Capture and Mailroom Automation program 
+* developed by Ephesoft, Inc. Copyright (C) 2010-2012 Ephesoft Inc. 
+* 
+* This program is free software; you can redistribute it and/or modify it under 
+* the terms of the GNU Affero General Public License version 3 as published by the 
+* Free Software Foundation with the addition of the following permission added 
+* to Section 15 as permitted in Section 7(a): FOR ANY PART OF THE COVERED WORK 
+* IN WHICH THE COPYRIGHT IS OWNED BY EPHESOFT, EPHESOFT DISCLAIMS THE WARRANTY 
+* OF NON INFRINGEMENT OF THIRD PARTY RIGHTS. 
+* 
+* This program is distributed in the hope that it will be useful, but WITHOUT 
+* ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+* FOR A PARTICULAR PURPOSE.  See the GNU Affero General Public License for more 
+* details. 
+* 
+* You should have received a copy of the GNU Affero General Public License along with 
+* this program; if not, see http://www.gnu.org/licenses or write to the Free 
+* Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 
+* 02110-1301 USA. 
+* 
+* You can contact Ephesoft, Inc. headquarters at 111 Academy Way, 
+* Irvine, CA 92617, USA. or at email address info@ephesoft.com. 
+* 
+* The interactive user interfaces in modified source and object code versions 
+* of this program must display Appropriate Legal Notices, as required under 
+* Section 5 of the GNU Affero General Public License version 3. 
+* 
+* In accordance with Section 7(b) of the GNU Affero General Public License version 3, 
+* these Appropriate Legal Notices must retain the display of the "Ephesoft" logo. 
+* If the display of the logo is not reasonably feasible for 
+* technical reasons, the Appropriate Legal Notices must display the words 
+* "Powered by Ephesoft". 
+********************************************************************************/ 
+
+
+package com.ephesoft.dcma.imagemagick.imageclassifier;
+
+import java.awt.image.BufferedImage;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import javax.imageio.ImageIO;
+import javax.media.jai.PlanarImage;
+
+import com.sun.media.jai.codec.FileSeekableStream;
+import com.sun.media.jai.codec.ImageCodec;
+import com.sun.media.jai.codec.ImageDecoder;
+import com.sun.media.jai.codec.SeekableStream;
+
+/**
+ * This class holds the pixel samples of an image used for image comparison. It is either the full resolution raster of a thumbnail,
+ * compared the way the Image Magick compare command does, or a down sampled grayscale fingerprint which is small enough to be stored
+ * next to the sample thumbnails and compared in a few microseconds.
+ * 
+ * @author Ephesoft
+ * @version 1.0
+ * @see com.ephesoft.dcma.imagemagick.imageclassifier.ImageSimilarityEngine
+ */
+public final class ImageFingerprint {
+
+	/**
+	 * Metric for the root mean squared error.
+	 */
+	public static final String RMSE_METRIC = "RMSE";
+
+	/**
+	 * Metric for the mean squared error.
+	 */
+	public static final String MSE_METRIC = "MSE";
+
+	/**
+	 * Metric for the mean absolute error.
+	 */
+	public static final String MAE_METRIC = "MAE";
+
+	/**
+	 * Metric for the peak absolute error.
+	 */
+	public static final String PAE_METRIC = "PAE";
+
+	/**
+	 * Marker written at the start of a fingerprint file.
+	 */
+	private static final int FILE_MAGIC = 0x45465052;
+
+	/**
+	 * Version of the fingerprint file format.
+	 */
+	private static final int FILE_VERSION = 1;
+
+	/**
+	 * Number of bands of a color raster.
+	 */
+	private static final int COLOR_BANDS = 3;
+
+	/**
+	 * Maximum value of a sample.
+	 */
+	private static final double MAX_QUANTUM = 255.0;
+
+	/**
+	 * Constant for percentage calculations.
+	 */
+	private static final double PERCENT = 100.0;
+
+	/**
+	 * Mask for one byte.
+	 */
+	private static final int BYTE_MASK = 0xFF;
+
+	/**
+	 * Width of the image in pixels.
+	 */
+	private final int width;
+
+	/**
+	 * Height of the image in pixels.
+	 */
+	private final int height;
+
+	/**
+	 * Number of samples per pixel.
+	 */
+	private final int bands;
+
+	/**
+	 * Samples of the image, row by row, pixel by pixel.
+	 */
+	private final byte[] samples;
+
+	private ImageFingerprint(final int width, final int height, final int bands, final byte[] samples) {
+		this.width = width;
+		this.height = height;
+		this.bands = bands;
+		this.samples = samples;
+	}
+
+	/**
+	 * To get the width of the image in pixels.
+	 * 
+	 * @return int
+	 */
+	public int getWidth() {
+		return width;
+	}
+
+	/**
+	 * To get the height of the image in pixels.
+	 * 
+	 * @return int
+	 */
+	public int getHeight() {
+		return height;
+	}
+
+	/**
+	 * API to create the full resolution color raster of an image.
+	 * 
+	 * @param image {@link BufferedImage}
+	 * @return {@link ImageFingerprint}
+	 */
+	public static ImageFingerprint createRaster(final BufferedImage image) {
+		int imageWidth = image.getWidth();
+		int imageHeight = image.getHeight();
+		int[] rgb = image.getRGB(0, 0, imageWidth, imageHeight, null, 0, imageWidth);
+		byte[] samples = new byte[rgb.length * COLOR_BANDS];
+		int index = 0;
+		for (int pixel : rgb) {
+			samples[index++] = (byte) (pixel >> 16);
+			samples[index++] = (byte) (pixel >> 8);
+			samples[index++] = (byte) pixel;
+		}
+		return new ImageFingerprint(imageWidth, imageHeight, COLOR_BANDS, samples);
+	}
+
+	/**
+	 * API to create the grayscale fingerprint of an image. The image is down sampled to size x size cells, each cell holding the
+	 * average luminance of the pixels it covers.
+	 * 
+	 * @param image {@link BufferedImage}
+	 * @param size int
+	 * @return {@link ImageFingerprint}
+	 */
+	public static ImageFingerprint createFingerprint(final BufferedImage image, final int size) {
+		int imageWidth = image.getWidth();
+		int imageHeight = image.getHeight();
+		int[] rgb = image.getRGB(0, 0, imageWidth, imageHeight, null, 0, imageWidth);
+		byte[] samples = new byte[size * size];
+		for (int cellY = 0; cellY < size; cellY++) {
+			int startY = cellY * imageHeight / size;
+			int endY = Math.max(startY + 1, (cellY + 1) * imageHeight / size);
+			for (int cellX = 0; cellX < size; cellX++) {
+				int startX = cellX * imageWidth / size;
+				int endX = Math.max(startX + 1, (cellX + 1) * imageWidth / size);
+				double sum = 0;
+				for (int y = startY; y < endY; y++) {
+					for (int x = startX; x < endX; x++) {
+						sum += getLuminance(rgb[y * imageWidth + x]);
+					}
+				}
+				samples[cellY * size + cellX] = (byte) Math.round(sum / ((endY - startY) * (endX - startX)));
+			}
+		}
+		return new ImageFingerprint(size, size, 1, samples);
+	}
+
+	private static double getLuminance(final int pixel) {
+		return 0.299 * ((pixel >> 16) & BYTE_MASK) + 0.587 * ((pixel >> 8) & BYTE_MASK) + 0.114 * (pixel & BYTE_MASK);
+	}
+
+	/**
+	 * API to decode an image file. TIFF files which cannot be read by image IO are decoded with JAI.
+	 * 
+	 * @param imageFile {@link File}
+	 * @return {@link BufferedImage}
+	 * @throws IOException if the image cannot be decoded
+	 */
+	public static BufferedImage readImage(final File imageFile) throws IOException {
+		BufferedImage image = ImageIO.read(imageFile);
+		if (image == null) {
+			SeekableStream seekableStream = new FileSeekableStream(imageFile);
+			try {
+				ImageDecoder decoder = ImageCodec.createImageDecoder("tiff", seekableStream, null);
+				image = PlanarImage.wrapRenderedImage(decoder.decodeAsRenderedImage()).getAsBufferedImage();
+			} finally {
+				seekableStream.close();
+			}
+		}
+		if (image == null) {
+			throw new IOException("Unable to decode image " + imageFile);
+		}
+		return image;
+	}
+
+	/**
+	 * API to store the fingerprint in a file.
+	 * 
+	 * @param file {@link File}
+	 * @throws IOException if the file cannot be written
+	 */
+	public void write(final File file) throws IOException {
+		File tempFile = new File(file.getPath() + ".tmp");
+		DataOutputStream outputStream = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)));
+		try {
+			outputStream.writeInt(FILE_MAGIC);
+			outputStream.writeInt(FILE_VERSION);
+			outputStream.writeInt(width);
+			outputStream.writeInt(height);
+			outputStream.writeInt(bands);
+			outputStream.write(samples);
+		} finally {
+			outputStream.close();
+		}
+		if (file.exists() && !file.delete() || !tempFile.renameTo(file)) {
+			tempFile.delete();
+			throw new IOException("Unable to store fingerprint " + file);
+		}
+	}
+
+	/**
+	 * API to read a fingerprint stored in a file.
+	 * 
+	 * @param file {@link File}
+	 * @return {@link ImageFingerprint} or null if the file is not a fingerprint of the current format
+	 * @throws IOException if the file cannot be read
+	 */
+	public static ImageFingerprint read(final File file) throws IOException {
+		ImageFingerprint fingerprint = null;
+		DataInputStream inputStream = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+		try {
+			if (inputStream.readInt() == FILE_MAGIC && inputStream.readInt() == FILE_VERSION) {
+				int width = inputStream.readInt();
+				int height = inputStream.readInt();
+				int bands = inputStream.readInt();
+				byte[] samples = new byte[width * height * bands];
+				inputStream.readFully(samples);
+				fingerprint = new ImageFingerprint(width, height, bands, samples);
+			}
+		} finally {
+			inputStream.close();
+		}
+		return fingerprint;
+	}
+
+	/**
+	 * API to compute the similarity of this image with another one, in percent, the way the Image Magick compare command scores it:
+	 * similarity = (1 - normalized distortion) * 100. Pixels whose color distance is within the fuzz are taken as equal. Images of
+	 * different sizes cannot be compared and have a similarity of 0.
+	 * 
+	 * @param other {@link ImageFingerprint}
+	 * @param metric {@link String} one of RMSE, MSE, MAE or PAE, RMSE for any other value
+	 * @param fuzzPercent double
+	 * @return double
+	 */
+	public double getSimilarity(final ImageFingerprint other, final String metric, final double fuzzPercent) {
+		double similarity = 0;
+		if (width == other.width && height == other.height && bands == other.bands) {
+			double fuzz = fuzzPercent / PERCENT;
+			double fuzzSquared = fuzz * fuzz * bands;
+			double sumAbsolute = 0;
+			double sumSquared = 0;
+			double peak = 0;
+			int sampleCount = samples.length;
+			for (int offset = 0; offset < sampleCount; offset += bands) {
+				double pixelSquared = 0;
+				for (int band = 0; band < bands; band++) {
+					double distance = ((samples[offset + band] & BYTE_MASK) - (other.samples[offset + band] & BYTE_MASK)) / MAX_QUANTUM;
+					pixelSquared += distance * distance;
+				}
+				if (pixelSquared <= fuzzSquared) {
+					continue;
+				}
+				sumSquared += pixelSquared;
+				for (int band = 0; band < bands; band++) {
+					double distance = Math.abs((samples[offset + band] & BYTE_MASK) - (other.samples[offset + band] & BYTE_MASK))
+							/ MAX_QUANTUM;
+					sumAbsolute += distance;
+					peak = Math.max(peak, distance);
+				}
+			}
+			double distortion;
+			if (MSE_METRIC.equalsIgnoreCase(metric)) {
+				distortion = sumSquared / sampleCount;
+			} else if (MAE_METRIC.equalsIgnoreCase(metric)) {
+				distortion = sumAbsolute / sampleCount;
+			} else if (PAE_METRIC.equalsIgnoreCase(metric)) {
+				distortion = peak;
+			} else {
+				distortion = Math.sqrt(sumSquared / sampleCount);
+			}
+			similarity = (1 - distortion) * PERCENT;
+		}
+		return similarity;
+	}
+}
@@ -0,0 +1,323 @@
+/********************************************************************************* 
+* Ephesoft is a Intelligent Document Capture and Mailroom Automation program 
+* developed by Ephesoft, Inc. Copyright (C) 2010-2012 Ephesoft Inc. 
+* 
+* This program is free software; you can redistribute it and/or modify it under 
+* the terms of the GNU Affero General Public License version 3 as published by the 
+* Free Software Foundation with the addition of the following permission added 
+* to Section 15 as permitted in Section 7(a): FOR ANY PART OF THE COVERED WORK 
+* IN WHICH THE COPYRIGHT IS OWNED BY EPHESOFT, EPHESOFT DISCLAIMS THE WARRANTY 
+* OF NON INFRINGEMENT OF THIRD PARTY RIGHTS. 
+* 
+* This program is distributed in the hope that it will be useful, but WITHOUT 
+* ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+* FOR A PARTICULAR PURPOSE.  See the GNU Affero General Public License for more 
+* details. 
+* 
+* You should have received a copy of the GNU Affero General Public License along with 
+* this program; if not, see http://www.gnu.org/licenses or write to the Free 
+* Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 
+* 02110-1301 USA. 
+* 
+* You can contact Ephesoft, Inc. headquarters at 111 Academy Way, 
+* Irvine, CA 92617, USA. or at email address info@ephesoft.com. 
+* 
+* The interactive user interfaces in modified source and object code versions 
+* of this program must display Appropriate Legal Notices, as required under 
+* Section 5 of the GNU Affero General Public License version 3. 
+* 
+* In accordance with Section 7(b) of the GNU Affero General Public License version 3, 
+* these Appropriate Legal Notices must retain the display of the "Ephesoft" logo. 
+* If the display of the logo is not reasonably feasible for 
+* technical reasons, the Appropriate Legal Notices must display the words 
+* "Powered by Ephesoft". 
+********************************************************************************/ 
+
+
+package com.ephesoft.dcma.imagemagick.imageclassifier;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.ephesoft.dcma.imagemagick.IImageMagickCommonConstants;
+
+/**
+ * This class compares the images of the image classification. It works in one of the following modes, picked from the property
+ * imagemagick.image_comparison_mode of imagemagick.properties:
+ * <ul>
+ * <li>compatibility (default) : the images are compared by the compare command of Image Magick exactly as
+ * {@link ImageComparisonUtil#compareImagesRuntime(String, String, String, String)} does, so the scores are those of the previous
+ * releases. Only the pages of a batch are compared in parallel.</li>
+ * <li>raster : the full resolution thumbnails are compared inside the JVM with a -metric and -fuzz scoring similar to the compare
+ * command. The scores are close to but not the same as the compatibility scores.</li>
+ * <li>fingerprint : the images are down sampled to small grayscale fingerprints and compared inside the JVM. The fingerprints of the
+ * sample thumbnails are generated once by {@link SampleThumbnailGenerator} and stored next to the thumbnails.</li>
+ * </ul>
+ * 
+ * @author Ephesoft
+ * @version 1.0
+ * @see com.ephesoft.dcma.imagemagick.imageclassifier.ImageClassifier
+ */
+public class ImageSimilarityEngine {
+
+	/**
+	 * Mode comparing the thumbnails with the Image Magick compare command, the default.
+	 */
+	public static final String COMPATIBILITY_MODE = "compatibility";
+
+	/**
+	 * Mode comparing the full resolution thumbnails in process.
+	 */
+	public static final String RASTER_MODE = "raster";
+
+	/**
+	 * Mode comparing the down sampled fingerprints of the images.
+	 */
+	public static final String FINGERPRINT_MODE = "fingerprint";
+
+	/**
+	 * Suffix of the fingerprint file stored next to a sample thumbnail.
+	 */
+	public static final String FINGERPRINT_FILE_SUFFIX = ".fpr";
+
+	/**
+	 * Default number of cells of a fingerprint along each side.
+	 */
+	private static final int DEFAULT_FINGERPRINT_SIZE = 32;
+
+	/**
+	 * An instance of Logger for logging in this file.
+	 */
+	private static final Logger LOGGER = LoggerFactory.getLogger(ImageSimilarityEngine.class);
+
+	/**
+	 * Mode of comparison.
+	 */
+	private String comparisonMode = COMPATIBILITY_MODE;
+
+	/**
+	 * Number of cells of a fingerprint along each side.
+	 */
+	private int fingerprintSize = DEFAULT_FINGERPRINT_SIZE;
+
+	/**
+	 * The utility running the compare command in compatibility mode.
+	 */
+	private ImageComparisonUtil imageComparisonUtil;
+
+	/**
+	 * @return the comparisonMode
+	 */
+	public String getComparisonMode() {
+		return comparisonMode;
+	}
+
+	/**
+	 * @param comparisonMode the comparisonMode to set
+	 */
+	public void setComparisonMode(String comparisonMode) {
+		this.comparisonMode = comparisonMode == null ? COMPATIBILITY_MODE : comparisonMode.trim();
+	}
+
+	/**
+	 * @return the fingerprintSize
+	 */
+	public int getFingerprintSize() {
+		return fingerprintSize;
+	}
+
+	/**
+	 * @param fingerprintSize the fingerprintSize to set
+	 */
+	public void setFingerprintSize(int fingerprintSize) {
+		this.fingerprintSize = fingerprintSize > 0 ? fingerprintSize : DEFAULT_FINGERPRINT_SIZE;
+	}
+
+	/**
+	 * @return the imageComparisonUtil
+	 */
+	public ImageComparisonUtil getImageComparisonUtil() {
+		return imageComparisonUtil;
+	}
+
+	/**
+	 * @param imageComparisonUtil the imageComparisonUtil to set
+	 */
+	public void setImageComparisonUtil(ImageComparisonUtil imageComparisonUtil) {
+		this.imageComparisonUtil = imageComparisonUtil;
+	}
+
+	/**
+	 * To check whether the images are compared inside the JVM. Any mode other than raster and fingerprint is the compatibility mode.
+	 * 
+	 * @return boolean
+	 */
+	public boolean isInProcess() {
+		return RASTER_MODE.equalsIgnoreCase(comparisonMode) || isFingerprintMode();
+	}
+
+	/**
+	 * To check whether the images are compared by their fingerprints.
+	 * 
+	 * @return boolean
+	 */
+	public boolean isFingerprintMode() {
+		return FINGERPRINT_MODE.equalsIgnoreCase(comparisonMode);
+	}
+
+	/**
+	 * API to load the comparison image of a batch page.
+	 * 
+	 * @param imagePath {@link String}
+	 * @return {@link ImageFingerprint}
+	 * @throws IOException if the image cannot be decoded
+	 */
+	public ImageFingerprint loadPage(final String imagePath) throws IOException {
+		ImageFingerprint image;
+		if (isFingerprintMode()) {
+			image = ImageFingerprint.createFingerprint(ImageFingerprint.readImage(new File(imagePath)), fingerprintSize);
+		} else {
+			image = ImageFingerprint.createRaster(ImageFingerprint.readImage(new File(imagePath)));
+		}
+		return image;
+	}
+
+	/**
+	 * API to load the comparison image of a sample thumbnail. In fingerprint mode the stored fingerprint is used, it is generated and
+	 * stored if it is missing or older than the thumbnail.
+	 * 
+	 * @param thumbnailPath {@link String}
+	 * @return {@link ImageFingerprint}
+	 * @throws IOException if the image cannot be decoded
+	 */
+	public ImageFingerprint loadSample(final String thumbnailPath) throws IOException {
+		ImageFingerprint image = null;
+		if (isFingerprintMode()) {
+			File thumbnailFile = new File(thumbnailPath);
+			File fingerprintFile = new File(getFingerprintPath(thumbnailPath));
+			if (fingerprintFile.exists() && fingerprintFile.lastModified() >= thumbnailFile.lastModified()) {
+				image = ImageFingerprint.read(fingerprintFile);
+			}
+			if (image == null || image.getWidth() != fingerprintSize || image.getHeight() != fingerprintSize) {
+				image = storeFingerprint(thumbnailPath);
+			}
+		} else {
+			image = ImageFingerprint.createRaster(ImageFingerprint.readImage(new File(thumbnailPath)));
+		}
+		return image;
+	}
+
+	/**
+	 * API to generate the fingerprint of a sample thumbnail and store it next to the thumbnail.
+	 * 
+	 * @param thumbnailPath {@link String}
+	 * @return {@link ImageFingerprint}
+	 * @throws IOException if the thumbnail cannot be decoded
+	 */
+	public ImageFingerprint storeFingerprint(final String thumbnailPath) throws IOException {
+		ImageFingerprint fingerprint = ImageFingerprint.createFingerprint(ImageFingerprint.readImage(new File(thumbnailPath)),
+				fingerprintSize);
+		try {
+			fingerprint.write(new File(getFingerprintPath(thumbnailPath)));
+		} catch (IOException ioe) {
+			LOGGER.error("Unable to store the fingerprint of " + thumbnailPath + " : " + ioe.getMessage(), ioe);
+		}
+		return fingerprint;
+	}
+
+	/**
+	 * API to generate the fingerprints of all the sample thumbnails of a thumbs folder that do not have an up to date one.
+	 * 
+	 * @param thumbsFolderPath {@link String}
+	 * @return int number of fingerprints generated
+	 */
+	public int storeFingerprints(final String thumbsFolderPath) {
+		int numberOfFingerprints = 0;
+		String[] thumbnailNames = new File(thumbsFolderPath).list();
+		if (thumbnailNames != null) {
+			for (String thumbnailName : thumbnailNames) {
+				if (!thumbnailName.endsWith(IImageMagickCommonConstants.SUFFIX_THUMBNAIL_SAMPLE_TIF)
+						&& !thumbnailName.endsWith(IImageMagickCommonConstants.SUFFIX_THUMBNAIL_SAMPLE_PNG)) {
+					continue;
+				}
+				String thumbnailPath = thumbsFolderPath + File.separator + thumbnailName;
+				File thumbnailFile = new File(thumbnailPath);
+				File fingerprintFile = new File(getFingerprintPath(thumbnailPath));
+				if (fingerprintFile.exists() && fingerprintFile.lastModified() >= thumbnailFile.lastModified()) {
+					continue;
+				}
+				try {
+					storeFingerprint(thumbnailPath);
+					numberOfFingerprints++;
+				} catch (IOException ioe) {
+					LOGGER.error("Problem generating the fingerprint of " + thumbnailPath + " : " + ioe.getMessage(), ioe);
+				}
+			}
+		}
+		return numberOfFingerprints;
+	}
+
+	/**
+	 * API to compare the image file of a page with a sample thumbnail by the Image Magick compare command, used in compatibility mode.
+	 * The score is the one of {@link ImageComparisonUtil#compareImagesRuntime(String, String, String, String)}.
+	 * 
+	 * @param pagePath {@link String}
+	 * @param thumbnailPath {@link String}
+	 * @param imMetric {@link String}
+	 * @param imFuzz {@link String}
+	 * @return double the similarity in percent
+	 */
+	public double compareFiles(final String pagePath, final String thumbnailPath, final String imMetric, final String imFuzz) {
+		if (imageComparisonUtil == null) {
+			imageComparisonUtil = new ImageComparisonUtil(true);
+		}
+		return imageComparisonUtil.compareImagesRuntime(pagePath, thumbnailPath, imMetric, imFuzz);
+	}
+
+	/**
+	 * API to compare the image of a page with the image of a sample, used in raster and fingerprint modes.
+	 * 
+	 * @param pageImage {@link ImageFingerprint}
+	 * @param sampleImage {@link ImageFingerprint}
+	 * @param imMetric {@link String} the -metric of the compare command, RMSE if empty
+	 * @param imFuzz {@link String} the -fuzz percent of the compare command, 10 if empty
+	 * @return double the similarity in percent
+	 */
+	public double compare(final ImageFingerprint pageImage, final ImageFingerprint sampleImage, final String imMetric,
+			final String imFuzz) {
+		String metric = imMetric;
+		if (metric == null || metric.trim().isEmpty()) {
+			metric = IImageMagickCommonConstants.DEFAULT_IM_COMP_METRIC;
+		}
+		return pageImage.getSimilarity(sampleImage, metric.trim(), getFuzzPercent(imFuzz));
+	}
+
+	private double getFuzzPercent(final String imFuzz) {
+		String fuzz = imFuzz;
+		if (fuzz == null || fuzz.trim().isEmpty()) {
+			fuzz = IImageMagickCommonConstants.DEFAULT_IM_COMP_FUZZ;
+		}
+		double fuzzPercent;
+		try {
+			fuzzPercent = Double.parseDouble(fuzz.replace("%", "").trim());
+		} catch (NumberFormatException nfe) {
+			LOGGER.error("Fuzz value is not a number. Using default value of " + IImageMagickCommonConstants.DEFAULT_IM_COMP_FUZZ
+					+ ". " + nfe.getMessage(), nfe);
+			fuzzPercent = Double.parseDouble(IImageMagickCommonConstants.DEFAULT_IM_COMP_FUZZ);
+		}
+		return fuzzPercent;
+	}
+
+	/**
+	 * API to get the path of the fingerprint file of a sample thumbnail.
+	 * 
+	 * @param thumbnailPath {@link String}
+	 * @return {@link String}
+	 */
+	public static String getFingerprintPath(final String thumbnailPath) {
+		return thumbnailPath + FINGERPRINT_FILE_SUFFIX;
+	}
+}
@@ -87,6 +87,12 @@ public class SampleThumbnailGenerator {
 	@Autowired
 	private BatchSchemaService batchSchemaService;
 
+	/**
+	 * Instance of ImageSimilarityEngine, used to generate the fingerprints of the thumbnails.
+	 */
+	@Autowired
+	private ImageSimilarityEngine imageSimilarityEngine;
+
 	/**
 	 * The sampleBaseFolderPath under this all the document types are located.
 	 */
@@ -132,6 +138,20 @@ public class SampleThumbnailGenerator {
 		this.batchSchemaService = batchSchemaService;
 	}
 
+	/**
+	 * @return the {@link ImageSimilarityEngine}
+	 */
+	public ImageSimilarityEngine getImageSimilarityEngine() {
+		return imageSimilarityEngine;
+	}
+
+	/**
+	 * @param imageSimilarityEngine the {@link ImageSimilarityEngine} to set
+	 */
+	public void setImageSimilarityEngine(ImageSimilarityEngine imageSimilarityEngine) {
+		this.imageSimilarityEngine = imageSimilarityEngine;
+	}
+
 	/**
 	 * This method is used to initialize the plug in specific properties from DB.
 	 * 
@@ -200,7 +220,8 @@ public class SampleThumbnailGenerator {
 
 	/**
 	 * This method generates all the thumbnails for all the document-types and all page-types under all document types. if the thumbs
-	 * folder already exists it deletes it and creates it again.
+	 * folder already exists it deletes it and creates it again. The fingerprints of the thumbnails used for in process image
+	 * comparison are generated next to the thumbnails.
 	 * 
 	 * @param batchClassId {@link String}
 	 * @throws DCMAApplicationException
@@ -212,7 +233,11 @@ public class SampleThumbnailGenerator {
 			LOGGER.error("Folder Doesnot exist folder name=" + fSampleBaseFolderPath);
 			throw new DCMABusinessException("Could not find folder-->" + fSampleBaseFolderPath);
 		}
+		if (imageSimilarityEngine == null) {
+			imageSimilarityEngine = new ImageSimilarityEngine();
+		}
 		int noOfThumbnailGenertd = 0;
+		int noOfFingerprintsGenertd = 0;
 		String[] listOfDocumetFolders = fSampleBaseFolderPath.list();
 		LOGGER.info("*Thumbnail generation for folder = " + fSampleBaseFolderPath);
 		for (String documentFolder : listOfDocumetFolders) {
@@ -234,6 +259,7 @@ public class SampleThumbnailGenerator {
 					thumbsFolderExists = true;
 					String[] thumbFiles = fthumbsFolder.list();
 					if(thumbFiles != null && thumbFiles.length > 0){
+						noOfFingerprintsGenertd = noOfFingerprintsGenertd + generateFingerprints(thumbsFolderPath);
 						continue;
 					}
 				}
@@ -242,14 +268,24 @@ public class SampleThumbnailGenerator {
 				}
 
 				noOfThumbnailGenertd = noOfThumbnailGenertd + generateThumbnailsForFolder(pageFolderPath);
+				noOfFingerprintsGenertd = noOfFingerprintsGenertd + generateFingerprints(thumbsFolderPath);
 			}
 		}
 
 		LOGGER.info("Total Thumbnails genertated =" + noOfThumbnailGenertd);
+		LOGGER.info("Total Fingerprints genertated =" + noOfFingerprintsGenertd);
 		LOGGER.info("All Sample Thumbnails generated sucsesfully");
 
 	}
 
+	private int generateFingerprints(final String thumbsFolderPath) {
+		int numberOfFingerprintsGenerated = 0;
+		if (imageSimilarityEngine.isFingerprintMode()) {
+			numberOfFingerprintsGenerated = imageSimilarityEngine.storeFingerprints(thumbsFolderPath);
+		}
+		return numberOfFingerprintsGenerated;
+	}
+
 	private int generateThumbnailsForFolder(final String pageFolderPath) throws DCMAApplicationException {
 		int numberOfThumbnailsGenerated = 0;
 		File pageDirectory = new File(pageFolderPath);
@@ -248,15 +248,15 @@ public class ImageProcessServiceImpl extends Thread implements ImageProcessServi
 		try {
 			String sBatchFolder = batchInstanceService.getSystemFolderForBatchInstanceId(batchInstanceID.getID()) + File.separator
 					+ batchInstanceID;
-			thumbnailPNGCreator.generateThumbnail(sBatchFolder, batchInstanceID.getID(), batchSchemaService,
-					IImageMagickCommonConstants.THUMB_TYPE_DISP, pluginWorkflow);
-			if (pluginPropertiesService.getPropertyValue(batchInstanceID.getID(), ImageMagicKConstants.CREATE_THUMBNAILS_PLUGIN,
-					ImageMagicProperties.CREATE_THUMBNAILS_SWITCH).equalsIgnoreCase(ImageMagicKConstants.ON_SWITCH)) {
-				thumbnailPNGCreator.generateThumbnail(sBatchFolder, batchInstanceID.getID(), batchSchemaService,
-						IImageMagickCommonConstants.THUMB_TYPE_COMP, pluginWorkflow);
-			} else {
+			boolean isCompareThumbnail = pluginPropertiesService.getPropertyValue(batchInstanceID.getID(),
+					ImageMagicKConstants.CREATE_THUMBNAILS_PLUGIN, ImageMagicProperties.CREATE_THUMBNAILS_SWITCH).equalsIgnoreCase(
+					ImageMagicKConstants.ON_SWITCH);
+			if (!isCompareThumbnail) {
 				LOGGER.info("Skipping creation of comparison thumbnails. Switch set as OFF");
 			}
+			// Display and compare thumbnails are written from a single decode of each page
+			thumbnailPNGCreator.generateThumbnails(sBatchFolder, batchInstanceID.getID(), batchSchemaService, isCompareThumbnail,
+					pluginWorkflow);
 		} catch (Exception ex) {
 			LOGGER.error(ImageMagicKConstants.THUMBNALIS_CREATION_EROR_MSG + ex.getMessage(), ex);
 			throw new DCMAException(ImageMagicKConstants.THUMBNALIS_CREATION_EROR_MSG + ex.getMessage(), ex);
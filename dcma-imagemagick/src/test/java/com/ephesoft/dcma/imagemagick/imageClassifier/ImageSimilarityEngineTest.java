@@ -0,0 +1,426 @@
+/********************************************************************************* 
+* Ephesoft is a Intelligent Document Capture and Mailroom Automation program 
+* developed by Ephesoft, Inc. Copyright (C) 2010-2012 Ephesoft Inc. 
+* 
+* This program is free software; you can redistribute it and/or modify it under 
+* the terms of the GNU Affero General Public License version 3 as published by the 
+* Free Software Foundation with the addition of the following permission added 
+* to Section 15 as permitted in Section 7(a): FOR ANY PART OF THE COVERED WORK 
+* IN WHICH THE COPYRIGHT IS OWNED BY EPHESOFT, EPHESOFT DISCLAIMS THE WARRANTY 
+* OF NON INFRINGEMENT OF THIRD PARTY RIGHTS. 
+* 
+* This program is distributed in the hope that it will be useful, but WITHOUT 
+* ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+* FOR A PARTICULAR PURPOSE.  See the GNU Affero General Public License for more 
+* details. 
+* 
+* You should have received a copy of the GNU Affero General Public License along with 
+* this program; if not, see http://www.gnu.org/licenses or write to the Free 
+* Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 
+* 02110-1301 USA. 
+* 
+* You can contact Ephesoft, Inc. headquarters at 111 Academy Way, 
+* Irvine, CA 92617, USA. or at email address info@ephesoft.com. 
+* 
+* The interactive user interfaces in modified source and object code versions 
+* of this program must display Appropriate Legal Notices, as required under 
+* Section 5 of the GNU Affero General Public License version 3. 
+* 
+* In accordance with Section 7(b) of the GNU Affero General Public License version 3, 
+* these Appropriate Legal Notices must retain the display of the "Ephesoft" logo. 
+* If the display of the logo is not reasonably feasible for 
+* technical reasons, the Appropriate Legal Notices must display the words 
+* "Powered by Ephesoft". 
+********************************************************************************/ 
+
+
+package com.ephesoft.dcma.imagemagick.imageclassifier;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.ephesoft.dcma.imagemagick.IImageMagickCommonConstants;
+import com.ephesoft.dcma.imagemagick.imageclassifier.ImageComparisonTask.SamplePage;
+import com.ephesoft.dcma.util.FileUtils;
+
+/**
+ * This is Junit test for ImageSimilarityEngine. It checks that the compatibility mode is the default and that its scores are the
+ * scores of {@link ImageComparisonUtil#compareImagesRuntime(String, String, String, String)} on the sample images, that the raster
+ * and fingerprint modes score the sample pages of the image classification samples in process and that the fingerprint files are
+ * written, reused and regenerated.
+ * 
+ * @author Ephesoft
+ * @version 1.0
+ * @see com.ephesoft.dcma.imagemagick.imageclassifier.ImageSimilarityEngine
+ */
+public class ImageSimilarityEngineTest {
+
+	/**
+	 * Metric of the comparison.
+	 */
+	private static final String IM_METRIC = "RMSE";
+
+	/**
+	 * Fuzz percent of the comparison.
+	 */
+	private static final String IM_FUZZ = "10";
+
+	/**
+	 * Folder of the image classification samples.
+	 */
+	private static final String CLASSIFICATION_SAMPLES = "samples/ImageClasificationSamples/";
+
+	/**
+	 * Sample image standing in for the unclassified page.
+	 */
+	private String pagePath;
+
+	/**
+	 * Sample images standing in for the thumbnails of the sample pages.
+	 */
+	private List<String> thumbnailPaths;
+
+	/**
+	 * Folder the thumbnails are copied to before their fingerprints are written.
+	 */
+	private File thumbsFolder;
+
+	/**
+	 * This method locates the sample images and creates the thumbnail folder.
+	 * 
+	 * @throws URISyntaxException if a sample image cannot be located
+	 * @throws IOException if the thumbnail folder cannot be created
+	 */
+	@Before
+	public void setUp() throws URISyntaxException, IOException {
+		pagePath = getResourcePath("inputOutput/13/13_Group3.png");
+		thumbnailPaths = new ArrayList<String>();
+		thumbnailPaths.add(getResourcePath("inputOutput/13/13_Group3_thumb.png"));
+		thumbnailPaths.add(getResourcePath("inputOutput/13/13_Group4Compression_thumb.png"));
+		thumbsFolder = File.createTempFile("image-similarity-engine", "");
+		thumbsFolder.delete();
+		thumbsFolder.mkdirs();
+	}
+
+	/**
+	 * This method deletes the thumbnail folder.
+	 */
+	@After
+	public void tearDown() {
+		FileUtils.deleteDirectoryAndContentsRecursive(thumbsFolder);
+	}
+
+	/**
+	 * This method tests that the compare command is used unless an in process mode is configured.
+	 */
+	@Test
+	public void testCompatibilityIsDefault() {
+		ImageSimilarityEngine imageSimilarityEngine = new ImageSimilarityEngine();
+		assertEquals(ImageSimilarityEngine.COMPATIBILITY_MODE, imageSimilarityEngine.getComparisonMode());
+		assertFalse(imageSimilarityEngine.isInProcess());
+		assertFalse(imageSimilarityEngine.isFingerprintMode());
+
+		imageSimilarityEngine.setComparisonMode(null);
+		assertFalse(imageSimilarityEngine.isInProcess());
+		imageSimilarityEngine.setComparisonMode("imagemagick");
+		assertFalse(imageSimilarityEngine.isInProcess());
+
+		imageSimilarityEngine.setComparisonMode(" Raster ");
+		assertTrue(imageSimilarityEngine.isInProcess());
+		assertFalse(imageSimilarityEngine.isFingerprintMode());
+		imageSimilarityEngine.setComparisonMode(ImageSimilarityEngine.FINGERPRINT_MODE);
+		assertTrue(imageSimilarityEngine.isInProcess());
+		assertTrue(imageSimilarityEngine.isFingerprintMode());
+	}
+
+	/**
+	 * This method tests that in compatibility mode every thumbnail is scored by the compare command with the configured metric and
+	 * fuzz, that missing thumbnails and failed comparisons are skipped and that the best score of each sample page is kept.
+	 */
+	@Test
+	public void testCompatibilityKeepsBaselineScoring() {
+		Map<String, Double> scores = new HashMap<String, Double>();
+		scores.put(thumbnailPaths.get(0), 91.5);
+		scores.put(thumbnailPaths.get(1), 42.25);
+		RecordingComparisonUtil comparisonUtil = new RecordingComparisonUtil(scores);
+		ImageSimilarityEngine imageSimilarityEngine = new ImageSimilarityEngine();
+		imageSimilarityEngine.setImageComparisonUtil(comparisonUtil);
+
+		String missingPath = new File(new File(pagePath).getParentFile(), "missing_thumb.png").getPath();
+		List<SamplePage> samplePages = new ArrayList<SamplePage>();
+		samplePages.add(new SamplePage("First", Arrays.asList(missingPath, thumbnailPaths.get(1), thumbnailPaths.get(0)),
+				new ArrayList<ImageFingerprint>()));
+		samplePages.add(new SamplePage("Second", Arrays.asList(thumbnailPaths.get(1)), new ArrayList<ImageFingerprint>()));
+		samplePages.add(new SamplePage("Failed", Arrays.asList(pagePath), new ArrayList<ImageFingerprint>()));
+
+		ImageComparisonTask comparisonTask = new ImageComparisonTask(pagePath, samplePages, imageSimilarityEngine, IM_METRIC, IM_FUZZ,
+				10);
+		comparisonTask.run();
+
+		Map<String, Double> confidences = comparisonTask.getSampleConfidenceList().getMap();
+		assertEquals(3, confidences.size());
+		assertEquals(91.5, confidences.get("First"), 0);
+		assertEquals(42.25, confidences.get("Second"), 0);
+		assertEquals(0, confidences.get("Failed"), 0);
+		assertEquals(4, comparisonUtil.comparisons.size());
+		for (String comparison : comparisonUtil.comparisons) {
+			assertTrue(comparison, comparison.startsWith(pagePath + ',') && comparison.endsWith(',' + IM_METRIC + ',' + IM_FUZZ));
+		}
+	}
+
+	/**
+	 * This method compares the scores of the compatibility mode with the compare command of Image Magick on the sample images. It
+	 * runs only where Image Magick is installed.
+	 */
+	@Test
+	public void testCompatibilityScoresMatchImageMagick() {
+		Assume.assumeTrue(System.getenv(IImageMagickCommonConstants.IMAGEMAGICK_ENV_VARIABLE) != null);
+		ImageComparisonUtil baseline = new ImageComparisonUtil(true);
+		ImageSimilarityEngine imageSimilarityEngine = new ImageSimilarityEngine();
+		for (String thumbnailPath : thumbnailPaths) {
+			double expected = baseline.compareImagesRuntime(pagePath, thumbnailPath, IM_METRIC, IM_FUZZ);
+			assertEquals(thumbnailPath, expected, imageSimilarityEngine.compareFiles(pagePath, thumbnailPath, IM_METRIC, IM_FUZZ), 0);
+		}
+	}
+
+	/**
+	 * This method tests that the raster mode scores the pixels of the thumbnails: the same page scores 100, another page of the same
+	 * size scores less and a thumbnail of another size scores 0.
+	 * 
+	 * @throws URISyntaxException if a sample image cannot be located
+	 * @throws IOException if a sample image cannot be read
+	 */
+	@Test
+	public void testRasterModeScoresPixels() throws URISyntaxException, IOException {
+		ImageSimilarityEngine imageSimilarityEngine = new ImageSimilarityEngine();
+		imageSimilarityEngine.setComparisonMode(ImageSimilarityEngine.RASTER_MODE);
+		String rasterPagePath = getResourcePath(CLASSIFICATION_SAMPLES
+				+ "2/US_Invoice/US_Invoice_first_page/thumbs/21.tif_thumb.png");
+		ImageFingerprint pageImage = imageSimilarityEngine.loadPage(rasterPagePath);
+		assertEquals(100, pageImage.getWidth());
+		assertEquals(150, pageImage.getHeight());
+
+		List<SamplePage> samplePages = new ArrayList<SamplePage>();
+		samplePages.add(loadSamplePage(imageSimilarityEngine, "US_Invoice_first_page", "1/US_Invoice/US_Invoice_first_page/thumbs/",
+				"17.tif_thumb.png", "21.tif_thumb.png"));
+		samplePages.add(loadSamplePage(imageSimilarityEngine, "US_Invoice_Second_page", "1/US_Invoice/US_Invoice_Second_page/thumbs/",
+				"18.tif_thumb.png", "22.tif_thumb.png"));
+		samplePages.add(loadSamplePage(imageSimilarityEngine, "India_Invoice_First_Page",
+				"1/India_Invoice/India_Invoice_First_Page/thumbs/", "10.tif_thumb.png"));
+		ImageComparisonTask comparisonTask = new ImageComparisonTask(rasterPagePath, samplePages, imageSimilarityEngine, IM_METRIC,
+				IM_FUZZ, 10);
+		comparisonTask.run();
+
+		Map<String, Double> confidences = comparisonTask.getSampleConfidenceList().getMap();
+		assertEquals(3, confidences.size());
+		assertEquals(100, confidences.get("US_Invoice_first_page"), 0);
+		double secondPageConfidence = confidences.get("US_Invoice_Second_page");
+		assertTrue(String.valueOf(secondPageConfidence), secondPageConfidence > 0 && secondPageConfidence < 100);
+		assertEquals(0, confidences.get("India_Invoice_First_Page"), 0);
+
+		ImageFingerprint sampleImage = samplePages.get(1).getSampleImages().get(0);
+		assertEquals(100, imageSimilarityEngine.compare(pageImage, sampleImage, IM_METRIC, "100"), 0);
+		assertTrue(imageSimilarityEngine.compare(pageImage, sampleImage, IM_METRIC, "0") < secondPageConfidence);
+		for (SamplePage samplePage : samplePages) {
+			for (String thumbnailPath : samplePage.getSampleThumbnailPaths()) {
+				assertFalse(thumbnailPath, new File(ImageSimilarityEngine.getFingerprintPath(thumbnailPath)).exists());
+			}
+		}
+	}
+
+	/**
+	 * This method tests that the fingerprint mode scales the page and the thumbnails of every sample page to fingerprints, stores
+	 * the fingerprints of the thumbnails next to them and gives the best score to the sample page of the same layout.
+	 * 
+	 * @throws URISyntaxException if a sample image cannot be located
+	 * @throws IOException if a sample image cannot be read
+	 */
+	@Test
+	public void testFingerprintModeRanksSamplePages() throws URISyntaxException, IOException {
+		ImageSimilarityEngine imageSimilarityEngine = new ImageSimilarityEngine();
+		imageSimilarityEngine.setComparisonMode(ImageSimilarityEngine.FINGERPRINT_MODE);
+		String fingerprintPagePath = getResourcePath(CLASSIFICATION_SAMPLES
+				+ "2/US_Invoice/US_Invoice_first_page/thumbs/21.tif_thumb.png");
+		ImageFingerprint pageImage = imageSimilarityEngine.loadPage(fingerprintPagePath);
+		assertEquals(32, pageImage.getWidth());
+		assertEquals(32, pageImage.getHeight());
+
+		List<SamplePage> samplePages = new ArrayList<SamplePage>();
+		samplePages.add(loadSamplePage(imageSimilarityEngine, "US_Invoice_first_page", "1/US_Invoice/US_Invoice_first_page/thumbs/",
+				"17.tif_thumb.png"));
+		samplePages.add(loadSamplePage(imageSimilarityEngine, "US_Invoice_Second_page", "1/US_Invoice/US_Invoice_Second_page/thumbs/",
+				"18.tif_thumb.png", "22.tif_thumb.png"));
+		samplePages.add(loadSamplePage(imageSimilarityEngine, "US_Invoice_Third_Page", "1/US_Invoice/US_Invoice_Third_Page/thumbs/",
+				"19.tif_thumb.png", "23.tif_thumb.png"));
+		samplePages.add(loadSamplePage(imageSimilarityEngine, "India_Invoice_First_Page",
+				"1/India_Invoice/India_Invoice_First_Page/thumbs/", "10.tif_thumb.png"));
+		samplePages.add(loadSamplePage(imageSimilarityEngine, "India_Invoice_Second_page",
+				"1/India_Invoice/India_Invoice_Second_page/thumbs/", "00-ABCDEF_0002.tif_thumb.png"));
+		for (SamplePage samplePage : samplePages) {
+			for (String thumbnailPath : samplePage.getSampleThumbnailPaths()) {
+				assertTrue(thumbnailPath, new File(ImageSimilarityEngine.getFingerprintPath(thumbnailPath)).isFile());
+			}
+		}
+		ImageComparisonTask comparisonTask = new ImageComparisonTask(fingerprintPagePath, samplePages, imageSimilarityEngine,
+				IM_METRIC, IM_FUZZ, 10);
+		comparisonTask.run();
+
+		Map<String, Double> confidences = comparisonTask.getSampleConfidenceList().getMap();
+		assertEquals(samplePages.size(), confidences.size());
+		double firstPageConfidence = confidences.get("US_Invoice_first_page");
+		assertTrue(String.valueOf(firstPageConfidence), firstPageConfidence < 100);
+		for (Map.Entry<String, Double> confidence : confidences.entrySet()) {
+			if (!"US_Invoice_first_page".equals(confidence.getKey())) {
+				assertTrue(confidence.getKey(), confidence.getValue() < firstPageConfidence);
+			}
+		}
+		assertEquals(100, imageSimilarityEngine.compare(pageImage, pageImage, IM_METRIC, "0"), 0);
+	}
+
+	/**
+	 * This method tests that a fingerprint file is read back as the fingerprint written and that other files are not read as
+	 * fingerprints.
+	 * 
+	 * @throws URISyntaxException if a sample image cannot be located
+	 * @throws IOException if a fingerprint cannot be written
+	 */
+	@Test
+	public void testFingerprintFileRoundTrip() throws URISyntaxException, IOException {
+		File thumbnailFile = new File(thumbnailPaths.get(0));
+		ImageFingerprint fingerprint = ImageFingerprint.createFingerprint(ImageFingerprint.readImage(thumbnailFile), 24);
+		File fingerprintFile = new File(thumbsFolder, "13_Group3_thumb" + ImageSimilarityEngine.FINGERPRINT_FILE_SUFFIX);
+		fingerprint.write(fingerprintFile);
+		fingerprint.write(fingerprintFile);
+		assertEquals(1, thumbsFolder.list().length);
+
+		ImageFingerprint storedFingerprint = ImageFingerprint.read(fingerprintFile);
+		assertEquals(24, storedFingerprint.getWidth());
+		assertEquals(24, storedFingerprint.getHeight());
+		for (String metric : Arrays.asList(ImageFingerprint.RMSE_METRIC, ImageFingerprint.MSE_METRIC, ImageFingerprint.MAE_METRIC,
+				ImageFingerprint.PAE_METRIC)) {
+			assertEquals(metric, 100, storedFingerprint.getSimilarity(fingerprint, metric, 0), 0);
+		}
+		assertNull(ImageFingerprint.read(thumbnailFile));
+	}
+
+	/**
+	 * This method tests that the fingerprint of a thumbnail is stored once, reused while it is up to date and regenerated when the
+	 * thumbnail changes or the fingerprint size is changed.
+	 * 
+	 * @throws URISyntaxException if a sample image cannot be located
+	 * @throws IOException if a thumbnail cannot be copied
+	 */
+	@Test
+	public void testStoredFingerprintsAreReused() throws URISyntaxException, IOException {
+		File firstThumbnail = copyThumbnail("1/US_Invoice/US_Invoice_first_page/thumbs/17.tif_thumb.png");
+		File secondThumbnail = copyThumbnail("1/US_Invoice/US_Invoice_Second_page/thumbs/18.tif_thumb.png");
+		FileUtils.copyFile(new File(pagePath), new File(thumbsFolder, "13_Group3.png"));
+		ImageSimilarityEngine imageSimilarityEngine = new ImageSimilarityEngine();
+		imageSimilarityEngine.setComparisonMode(ImageSimilarityEngine.FINGERPRINT_MODE);
+
+		assertEquals(2, imageSimilarityEngine.storeFingerprints(thumbsFolder.getPath()));
+		assertEquals(0, imageSimilarityEngine.storeFingerprints(thumbsFolder.getPath()));
+		assertFalse(new File(ImageSimilarityEngine.getFingerprintPath(new File(thumbsFolder, "13_Group3.png").getPath())).exists());
+		ImageFingerprint firstFingerprint = imageSimilarityEngine.loadPage(firstThumbnail.getPath());
+		ImageFingerprint secondFingerprint = imageSimilarityEngine.loadPage(secondThumbnail.getPath());
+		assertTrue(secondFingerprint.getSimilarity(firstFingerprint, IM_METRIC, 0) < 100);
+
+		// An up to date fingerprint file is read instead of the thumbnail.
+		File fingerprintFile = new File(ImageSimilarityEngine.getFingerprintPath(firstThumbnail.getPath()));
+		secondFingerprint.write(fingerprintFile);
+		assertTrue(fingerprintFile.setLastModified(firstThumbnail.lastModified()));
+		assertEquals(100, imageSimilarityEngine.loadSample(firstThumbnail.getPath()).getSimilarity(secondFingerprint, IM_METRIC, 0),
+				0);
+
+		// A fingerprint file older than its thumbnail is regenerated.
+		assertTrue(fingerprintFile.setLastModified(firstThumbnail.lastModified() - 10000L));
+		assertEquals(1, imageSimilarityEngine.storeFingerprints(thumbsFolder.getPath()));
+		assertEquals(100, ImageFingerprint.read(fingerprintFile).getSimilarity(firstFingerprint, IM_METRIC, 0), 0);
+		secondFingerprint.write(fingerprintFile);
+		assertTrue(fingerprintFile.setLastModified(firstThumbnail.lastModified() - 10000L));
+		assertEquals(100, imageSimilarityEngine.loadSample(firstThumbnail.getPath()).getSimilarity(firstFingerprint, IM_METRIC, 0),
+				0);
+		assertTrue(fingerprintFile.lastModified() >= firstThumbnail.lastModified());
+
+		// A fingerprint file of another size is regenerated.
+		imageSimilarityEngine.setFingerprintSize(16);
+		ImageFingerprint smallFingerprint = imageSimilarityEngine.loadSample(firstThumbnail.getPath());
+		assertEquals(16, smallFingerprint.getWidth());
+		assertEquals(16, smallFingerprint.getHeight());
+		assertEquals(16, ImageFingerprint.read(fingerprintFile).getWidth());
+	}
+
+	private SamplePage loadSamplePage(ImageSimilarityEngine imageSimilarityEngine, String samplePageName, String thumbsFolderName,
+			String... thumbnailNames) throws URISyntaxException, IOException {
+		List<String> samplePaths = new ArrayList<String>();
+		List<ImageFingerprint> sampleImages = new ArrayList<ImageFingerprint>();
+		for (String thumbnailName : thumbnailNames) {
+			String thumbnailPath = copyThumbnail(thumbsFolderName + thumbnailName).getPath();
+			samplePaths.add(thumbnailPath);
+			sampleImages.add(imageSimilarityEngine.loadSample(thumbnailPath));
+		}
+		return new SamplePage(samplePageName, samplePaths, sampleImages);
+	}
+
+	private File copyThumbnail(String thumbnailName) throws URISyntaxException, IOException {
+		File thumbnailFile = new File(thumbsFolder, thumbnailName.replace('/', '_'));
+		FileUtils.copyFile(new File(getResourcePath(CLASSIFICATION_SAMPLES + thumbnailName)), thumbnailFile);
+		return thumbnailFile;
+	}
+
+	private String getResourcePath(String resourceName) throws URISyntaxException {
+		return new File(ImageSimilarityEngineTest.class.getClassLoader().getResource(resourceName).toURI()).getPath();
+	}
+
+	/**
+	 * This class returns fixed scores instead of running the compare command and records the comparisons.
+	 */
+	private static class RecordingComparisonUtil extends ImageComparisonUtil {
+
+		/**
+		 * Score of each thumbnail, the comparison fails for other thumbnails.
+		 */
+		private final Map<String, Double> scores;
+
+		/**
+		 * Comparisons done, as page, thumbnail, metric and fuzz.
+		 */
+		private final List<String> comparisons = new ArrayList<String>();
+
+		/**
+		 * Constructor.
+		 * 
+		 * @param scores {@link Map<String, Double>}
+		 */
+		RecordingComparisonUtil(Map<String, Double> scores) {
+			super(true);
+			this.scores = scores;
+		}
+
+		@Override
+		public double compareImagesRuntime(String path1, String path2, String imMetric, String imFuzz) {
+			comparisons.add(path1 + ',' + path2 + ',' + imMetric + ',' + imFuzz);
+			Double score = scores.get(path2);
+			if (score == null) {
+				throw new IllegalStateException("Unable to Compare Images " + path2);
+			}
+			return score;
+		}
+	}
+}
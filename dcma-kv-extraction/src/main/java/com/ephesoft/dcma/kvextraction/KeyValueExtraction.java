@@ -379,6 +379,9 @@ public class KeyValueExtraction {
 			LOGGER.info("FieldType data found from data base for document type : " + docTypeName);
 			Map<String, KeyValueFieldCarrier> fieldTypeKVMap = new HashMap<String, KeyValueFieldCarrier>(allFdTypes.size());
 
+			// Hocr pages are read once per document and shared by all the key value rules, so the span index of a page is reused.
+			final Map<String, HocrPages> hocrPagesMap = new HashMap<String, HocrPages>(pageList.size());
+
 			for (com.ephesoft.dcma.da.domain.FieldType fdType : allFdTypes) {
 				final String key = fdType.getName();
 				final int fieldOrderNumber = fdType.getFieldOrderNumber();
@@ -397,7 +400,7 @@ public class KeyValueExtraction {
 					KeyValueFieldCarrier keyValueFieldCarrier = new KeyValueFieldCarrier();
 					fieldTypeKVMap.put(key, keyValueFieldCarrier);
 					keyExtraction(updtDocFdType, alternateValues, pageList, fdType, fieldTypeKVMap, batchInstanceID,
-							keyValueFieldCarrier);
+							keyValueFieldCarrier, hocrPagesMap);
 					sortDocFdWithConfidence(updtDocFdType);
 				} catch (DCMAApplicationException dcma) {
 					LOGGER.error(dcma.getMessage());
@@ -430,7 +433,8 @@ public class KeyValueExtraction {
 
 	private void keyExtraction(final DocField updtDocFdType, final AlternateValues alternateValues, final List<Page> pageList,
 			final com.ephesoft.dcma.da.domain.FieldType fdType, final Map<String, KeyValueFieldCarrier> fieldTypeKVMap,
-			final String batchInstanceID, final KeyValueFieldCarrier keyValueFieldCarrier) throws DCMAApplicationException {
+			final String batchInstanceID, final KeyValueFieldCarrier keyValueFieldCarrier, final Map<String, HocrPages> hocrPagesMap)
+			throws DCMAApplicationException {
 
 		final List<KVExtraction> kvExtractionList = fdType.getKvExtraction();
 
@@ -458,19 +462,19 @@ public class KeyValueExtraction {
 					for (Page pageType : pageList) {
 						LOGGER.info("Extract Key value data for page : " + pageType.getIdentifier());
 						extractData(updtDocFdType, alternateValues, fdType, batchInstanceID, kVExtraction, pageType, fieldTypeKVMap,
-								keyValueFieldCarrier);
+								keyValueFieldCarrier, hocrPagesMap);
 					}
 					break;
 				case FIRST:
 					if (pageList != null && pageList.size() > 0) {
 						extractData(updtDocFdType, alternateValues, fdType, batchInstanceID, kVExtraction, pageList.get(0),
-								fieldTypeKVMap, keyValueFieldCarrier);
+								fieldTypeKVMap, keyValueFieldCarrier, hocrPagesMap);
 					}
 					break;
 				case LAST:
 					if (pageList != null && pageList.size() > 0) {
 						extractData(updtDocFdType, alternateValues, fdType, batchInstanceID, kVExtraction, pageList.get(pageList
-								.size() - 1), fieldTypeKVMap, keyValueFieldCarrier);
+								.size() - 1), fieldTypeKVMap, keyValueFieldCarrier, hocrPagesMap);
 					}
 					break;
 				default:
@@ -481,12 +485,18 @@ public class KeyValueExtraction {
 
 	private void extractData(final DocField updtDocFdType, final AlternateValues alternateValues,
 			final com.ephesoft.dcma.da.domain.FieldType fdType, final String batchInstanceID, KVExtraction kVExtraction,
-			Page pageType, final Map<String, KeyValueFieldCarrier> fieldTypeKVMap, final KeyValueFieldCarrier keyValueFieldCarrier)
-			throws DCMAApplicationException {
+			Page pageType, final Map<String, KeyValueFieldCarrier> fieldTypeKVMap, final KeyValueFieldCarrier keyValueFieldCarrier,
+			final Map<String, HocrPages> hocrPagesMap) throws DCMAApplicationException {
 		final String pageID = pageType.getIdentifier();
 		String key = null;
 		String fdTypeName = null;
-		final HocrPages hocrPages = batchSchemaService.getHocrPages(batchInstanceID, pageID);
+		HocrPages hocrPages = hocrPagesMap.get(pageID);
+		if (null == hocrPages) {
+			hocrPages = batchSchemaService.getHocrPages(batchInstanceID, pageID);
+			if (null != hocrPages) {
+				hocrPagesMap.put(pageID, hocrPages);
+			}
+		}
 		if (null == hocrPages) {
 			throw new DCMAApplicationException("In valid parameters. HocrPages is null for page id : " + pageID);
 		}
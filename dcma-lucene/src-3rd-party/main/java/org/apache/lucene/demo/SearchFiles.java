@@ -107,6 +107,24 @@ public class SearchFiles {
 		return docNameScore.getReverseSortedMapValueInFloat();
 	}
 
+	/**
+	 * Scores the query against an already opened searcher. The searcher is neither closed nor re-opened, so it can be shared by
+	 * concurrent callers, and the query is used as is instead of being parsed again from its string form.
+	 */
+	public static Map<String, Float> generateConfidence(Searcher searcher, Query searchQuery, int noOfPages, int maxValue)
+			throws Exception {
+		CustomValueSortedMap docNameScore = new CustomValueSortedMap(maxValue);
+		ScoreDoc[] scoreDocs = doPagingSearch(searcher, searchQuery, noOfPages);
+		if (scoreDocs != null && scoreDocs.length > 0) {
+			for (int i = 0; i < scoreDocs.length; i++) {
+				Document document = searcher.doc(scoreDocs[i].doc);
+				String docPageType = fetchDocPageType(document.get("path"));
+				docNameScore.add(docPageType, Double.valueOf(scoreDocs[i].score));
+			}
+		}
+		return docNameScore.getReverseSortedMapValueInFloat();
+	}
+
 	public static String fetchDocPageType(String absolutePath) throws Exception {
 		String returnValue = "";
 		int index = -1;
@@ -0,0 +1,192 @@
+/********************************************************************************* 
+* Ephesoft is a Intelligent Document Capture and Mailroom Automation program 
+* developed by Ephesoft, Inc. Copyright (C) 2010-2012 Ephesoft Inc. 
+* 
+* This program is free software; you can redistribute it and/or modify it under 
+* the terms of the GNU Affero General Public License version 3 as published by the 
+* Free Software Foundation with the addition of the following permission added 
+* to Section 15 as permitted in Section 7(a): FOR ANY PART OF THE COVERED WORK 
+* IN WHICH THE COPYRIGHT IS OWNED BY EPHESOFT, EPHESOFT DISCLAIMS THE WARRANTY 
+* OF NON INFRINGEMENT OF THIRD PARTY RIGHTS. 
+* 
+* This program is distributed in the hope that it will be useful, but WITHOUT 
+* ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+* FOR A PARTICULAR PURPOSE.  See the GNU Affero General Public License for more 
+* details. 
+* 
+* You should have received a copy of the GNU Affero General Public License along with 
+* this program; if not, see http://www.gnu.org/licenses or write to the Free 
+* Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 
+* 02110-1301 USA. 
+* 
+* You can contact Ephesoft, Inc. headquarters at 111 Academy Way, 
+* Irvine, CA 92617, USA. or at email address info@ephesoft.com. 
+* 
+* The interactive user interfaces in modified source and object code versions 
+* of this program must display Appropriate Legal Notices, as required under 
+* Section 5 of the GNU Affero General Public License version 3. 
+* 
+* In accordance with Section 7(b) of the GNU Affero General Public License version 3, 
+* these Appropriate Legal Notices must retain the display of the "Ephesoft" logo. 
+* If the display of the logo is not reasonably feasible for 
+* technical reasons, the Appropriate Legal Notices must display the words 
+* "Powered by Ephesoft". 
+********************************************************************************/ 
+
+
+package com.ephesoft.dcma.lucene;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.store.FSDirectory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class shares one read-only index reader per search classification index folder across all the batches of a batch class. Readers
+ * are reference counted: {@link #acquire(String)} hands out a searcher on the shared reader and {@link #release(IndexSearcher)} gives
+ * it back. A reader is closed once it is dropped from the cache and its last searcher is released, so an index can be re-learned while
+ * batches are still being classified against the old one.
+ * 
+ * @author Ephesoft
+ * @version 1.0
+ * @see com.ephesoft.dcma.lucene.LuceneEngine
+ */
+public final class IndexSearcherCache {
+
+	/**
+	 * LOGGER to print the logging information.
+	 */
+	private static final Logger LOGGER = LoggerFactory.getLogger(IndexSearcherCache.class);
+
+	/**
+	 * Maximum number of index folders kept open.
+	 */
+	private static final int MAX_OPEN_INDEXES = 20;
+
+	/**
+	 * Single instance of the class.
+	 */
+	private static volatile IndexSearcherCache cacheInstance;
+
+	/**
+	 * Lock for creating the single instance.
+	 */
+	private static final Object LOCK = new Object();
+
+	/**
+	 * Open readers in access order keyed by the absolute index folder path, guarded by this.
+	 */
+	private final LinkedHashMap<String, IndexReader> readerMap = new LinkedHashMap<String, IndexReader>(16, 0.75f, true);
+
+	private IndexSearcherCache() {
+		super();
+	}
+
+	/**
+	 * Used to get the single element of this class.
+	 * 
+	 * @return {@link IndexSearcherCache}
+	 */
+	public static IndexSearcherCache getInstance() {
+		if (cacheInstance == null) {
+			synchronized (LOCK) {
+				if (cacheInstance == null) {
+					cacheInstance = new IndexSearcherCache();
+				}
+			}
+		}
+		return cacheInstance;
+	}
+
+	/**
+	 * To get a searcher on the shared reader of the index folder. The reader is opened on first use and re-opened if the index changed
+	 * on disk. Every searcher acquired has to be given back with {@link #release(IndexSearcher)}.
+	 * 
+	 * @param indexFolder String
+	 * @return {@link IndexSearcher}
+	 * @throws IOException if the index can not be opened
+	 */
+	public IndexSearcher acquire(final String indexFolder) throws IOException {
+		String indexPath = new File(indexFolder).getAbsolutePath();
+		IndexReader reader = null;
+		synchronized (this) {
+			reader = readerMap.get(indexPath);
+			if (reader != null && !isCurrent(reader)) {
+				LOGGER.info("Index at " + indexPath + " changed on disk. Re-opening it.");
+				readerMap.remove(indexPath);
+				closeReader(reader);
+				reader = null;
+			}
+			if (reader == null) {
+				LOGGER.info("Opening index at " + indexPath);
+				reader = IndexReader.open(FSDirectory.open(new File(indexPath)), true);
+				readerMap.put(indexPath, reader);
+				closeExcessReaders();
+			}
+			reader.incRef();
+		}
+		return new IndexSearcher(reader);
+	}
+
+	/**
+	 * To give back a searcher acquired through {@link #acquire(String)}.
+	 * 
+	 * @param searcher {@link IndexSearcher}
+	 */
+	public void release(final IndexSearcher searcher) {
+		if (searcher != null) {
+			closeReader(searcher.getIndexReader());
+		}
+	}
+
+	/**
+	 * To drop the shared reader of an index folder, e.g. before the index is deleted or learned again. Searchers still in use keep
+	 * working on the old reader till they are released.
+	 * 
+	 * @param indexFolder String
+	 */
+	public void invalidate(final String indexFolder) {
+		IndexReader reader = null;
+		synchronized (this) {
+			reader = readerMap.remove(new File(indexFolder).getAbsolutePath());
+		}
+		if (reader != null) {
+			LOGGER.info("Closing shared reader of index " + indexFolder);
+			closeReader(reader);
+		}
+	}
+
+	private void closeExcessReaders() {
+		Iterator<Map.Entry<String, IndexReader>> iterator = readerMap.entrySet().iterator();
+		while (readerMap.size() > MAX_OPEN_INDEXES && iterator.hasNext()) {
+			Map.Entry<String, IndexReader> eldest = iterator.next();
+			iterator.remove();
+			closeReader(eldest.getValue());
+		}
+	}
+
+	private boolean isCurrent(final IndexReader reader) {
+		boolean isCurrent = false;
+		try {
+			isCurrent = reader.isCurrent();
+		} catch (IOException e) {
+			LOGGER.info("Unable to check whether the index is current. " + e.getMessage());
+		}
+		return isCurrent;
+	}
+
+	private void closeReader(final IndexReader reader) {
+		try {
+			reader.decRef();
+		} catch (IOException e) {
+			LOGGER.info("There was a problem in closing the Index reader. " + e.getMessage());
+		}
+	}
+}
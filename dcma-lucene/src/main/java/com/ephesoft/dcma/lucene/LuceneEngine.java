@@ -35,14 +35,10 @@
 
 package com.ephesoft.dcma.lucene;
 
-import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.UnsupportedEncodingException;
 import java.text.DecimalFormat;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
@@ -51,12 +47,10 @@ import java.util.Map;
 import java.util.Set;
 
 import org.apache.lucene.demo.IndexHTML;
-import org.apache.lucene.demo.SearchFiles;
 import org.apache.lucene.index.CorruptIndexException;
 import org.apache.lucene.index.IndexReader;
-import org.apache.lucene.search.Query;
+import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.similar.MoreLikeThis;
-import org.apache.lucene.store.FSDirectory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -82,6 +76,7 @@ import com.ephesoft.dcma.core.component.ICommonConstants;
 import com.ephesoft.dcma.core.exception.DCMAApplicationException;
 import com.ephesoft.dcma.core.threadpool.BatchInstanceThread;
 import com.ephesoft.dcma.core.threadpool.ProcessExecutor;
+import com.ephesoft.dcma.core.threadpool.ProcessResourceLimiter;
 import com.ephesoft.dcma.da.dao.BatchInstanceDao;
 import com.ephesoft.dcma.da.service.BatchClassPluginConfigService;
 import com.ephesoft.dcma.da.service.BatchInstanceService;
@@ -151,10 +146,6 @@ public class LuceneEngine implements ICommonConstants {
 	 * Message for stating invalid extesion.
 	 */
 	private static final String HAS_INVALID_EXTENSION = " has invalid extension.";
-	/**
-	 * Error message for telling that exception has occoured during generating query.
-	 */
-	private static final String EXCEPTION_WHILE_GENERATING_QUERY_FOR = "Exception while generating query for :";
 	/**
 	 * Error message for no valid extensions in resources.
 	 */
@@ -469,10 +460,7 @@ public class LuceneEngine implements ICommonConstants {
 			}
 			String actualFolderLocation = batchInstanceService.getSystemFolderForBatchInstanceId(batchInstanceID) + File.separator
 					+ batchInstanceID;
-			IndexReader reader = null;
 			List<Page> allPages = null;
-			Query query = null;
-			Map<String, Float> returnMap = new HashMap<String, Float>();
 			List<Document> xmlDocuments = batch.getDocuments().getDocument();
 			try {
 				allPages = findAllHocrFromXML(xmlDocuments);
@@ -486,72 +474,45 @@ public class LuceneEngine implements ICommonConstants {
 			}
 			String[] indexFiles = new File(indexFolder).list();
 			validatingIndexField(indexFolder, indexFiles);
-			reader = getReader(indexFolder, reader);
-			MoreLikeThis moreLikeThis = new MoreLikeThis(reader);
-			settingMoreLikeParameters(minTermFreq, minDocFreq, minWordLength, maxQueryTerms, allIndexFields, allStopWords,
-					moreLikeThis);
-			if (null != allPages) {
+			if (null == allPages) {
+				throw new DCMAApplicationException(NO_PAGES_FOUND_IN_BATCH_XML);
+			}
+			IndexSearcherCache searcherCache = IndexSearcherCache.getInstance();
+			IndexSearcher searcher = acquireSearcher(searcherCache, indexFolder);
+			try {
+				MoreLikeThis moreLikeThis = new MoreLikeThis(searcher.getIndexReader());
+				settingMoreLikeParameters(minTermFreq, minDocFreq, minWordLength, maxQueryTerms, allIndexFields, allStopWords,
+						moreLikeThis);
+				BatchInstanceThread batchInstanceThread = new BatchInstanceThread(batchInstanceID);
+				List<PageConfidenceGenerator> confidenceGenerators = new ArrayList<PageConfidenceGenerator>();
 				for (Page page : allPages) {
-					returnMap.clear();
 					String eachPage = page.getHocrFileName().trim();
-					boolean isFileValid = false;
-					isFileValid = checkFileValidity(validExtensions, reader, eachPage, isFileValid);
-					if (isFileValid) {
-						try {
-							LOGGER.info("Generating query for : " + eachPage);
-							HocrPages hocrPages = batchSchemaService.getHocrPages(batchInstanceID, page.getIdentifier());
-							String hocrContent = getHOCRContent(hocrPages);
-							query = addPageToMoreLike(actualFolderLocation, query, moreLikeThis, eachPage, hocrContent);
-							if (query != null && query.toString() != null && query.toString().length() > 0) {
-								LOGGER.info("Generating confidence score for : " + eachPage);
-								returnMap = SearchFiles.generateConfidence(indexFolder, query.toString(), topLevelField, Integer
-										.valueOf(numOfPages), max_result);
-							} else {
-								LOGGER.info("Empty query generated for : " + eachPage);
-							}
-						} catch (IOException e) {
-							cleanUpResource(reader);
-							throw new DCMAApplicationException(EXCEPTION_WHILE_GENERATING_QUERY_FOR + eachPage + e.getMessage(), e);
-						} catch (Exception e) {
-							cleanUpResource(reader);
-							LOGGER.error("Exception while generating index or updating xml" + e.getMessage(), e);
-						}
-						LOGGER.info("Started updating batch xml for : " + eachPage);
-						updateBatchXML(returnMap, xmlDocuments, eachPage, allPageTypes, first_page_conf_weightage_float,
-								middle_page_conf_weightage_float, last_page_conf_weightage_float);
-						LOGGER.info("Successfully ended updating batch xml for : " + eachPage);
-					} else {
+					if (!checkFileValidity(validExtensions, eachPage)) {
 						throw new DCMABusinessException(FILE + eachPage + HAS_INVALID_EXTENSION);
 					}
+					PageConfidenceGenerator confidenceGenerator = new PageConfidenceGenerator(eachPage, actualFolderLocation, page
+							.getIdentifier(), batchSchemaService, searcher, moreLikeThis, Integer.valueOf(numOfPages), max_result);
+					confidenceGenerators.add(confidenceGenerator);
+					batchInstanceThread.add(confidenceGenerator);
 				}
-			} else {
-				throw new DCMAApplicationException(NO_PAGES_FOUND_IN_BATCH_XML);
+				batchInstanceThread.execute();
+				for (PageConfidenceGenerator confidenceGenerator : confidenceGenerators) {
+					String eachPage = confidenceGenerator.getHocrFileName();
+					LOGGER.info("Started updating batch xml for : " + eachPage);
+					updateBatchXML(confidenceGenerator.getConfidenceMap(), xmlDocuments, eachPage, allPageTypes,
+							first_page_conf_weightage_float, middle_page_conf_weightage_float, last_page_conf_weightage_float);
+					LOGGER.info("Successfully ended updating batch xml for : " + eachPage);
+				}
+			} finally {
+				searcherCache.release(searcher);
 			}
 			batchSchemaService.updateBatch(batch);
 			LOGGER.info("Batch XML updated.");
-			cleanUpResource(reader);
 		} else {
 			LOGGER.info("Skipping search classification. Switch mode set as OFF.");
 		}
 	}
 
-	private Query addPageToMoreLike(String actualFolderLocation, Query query, MoreLikeThis moreLikeThis, String eachPage,
-			String hocrContent) throws IOException {
-		Query localQuery = query;
-		if (null != hocrContent) {
-			try {
-				InputStream inputStream = new ByteArrayInputStream(hocrContent.getBytes("UTF-8"));
-				localQuery = moreLikeThis.like(inputStream);
-			} catch (UnsupportedEncodingException e) {
-				LOGGER.error(e.getMessage(), e);
-				localQuery = moreLikeThis.like(new File(actualFolderLocation + File.separator + eachPage));
-			}
-		} else {
-			localQuery = moreLikeThis.like(new File(actualFolderLocation + File.separator + eachPage));
-		}
-		return localQuery;
-	}
-
 	/**
 	 * This method generates the confidence score for each HOCR file read from batch xml and stores maximum of 5 best fir pages inbatch
 	 * xml. For comparison it refers to the already created indexes of standard HOCR pages stored in hierarchy : batch class > document
@@ -619,10 +580,6 @@ public class LuceneEngine implements ICommonConstants {
 			LOGGER.error("Cannot read Index level fields from resources");
 			throw new DCMAApplicationException("Cannot read Index level fields from resources");
 		}
-		IndexReader reader = null;
-		Query query = null;
-		Map<String, Float> returnMap = new HashMap<String, Float>();
-
 		List<com.ephesoft.dcma.da.domain.PageType> allPageTypes = pageTypeService.getPageTypesByBatchClassID(batchClassIdentifier);
 		if (!(allPageTypes != null && !allPageTypes.isEmpty())) {
 			LOGGER.error("Page Types not configured in Database");
@@ -635,31 +592,6 @@ public class LuceneEngine implements ICommonConstants {
 			throw new DCMAApplicationException("No index files exist inside folder : " + indexFolder);
 		}
 
-		try {
-			reader = IndexReader.open(FSDirectory.open(new File(indexFolder)), true);
-		} catch (CorruptIndexException e) {
-			LOGGER.error("CorruptIndexException while reading Index" + e.getMessage(), e);
-			throw new DCMAApplicationException("CorruptIndexException while reading Index" + e.getMessage(), e);
-		} catch (IOException e) {
-			LOGGER.error("IOException while reading Index" + e.getMessage(), e);
-			throw new DCMAApplicationException("IOException while reading Index" + e.getMessage(), e);
-		}
-		MoreLikeThis moreLikeThis = new MoreLikeThis(reader);
-		moreLikeThis.setFieldNames(allIndexFields);
-		// moreLikeThis.setBoost(true);
-		// moreLikeThis.setBoostFactor(10.0f);
-		moreLikeThis.setMinTermFreq(Integer.valueOf(minTermFreq));
-		moreLikeThis.setMinDocFreq(Integer.valueOf(minDocFreq));
-		moreLikeThis.setMinWordLen(Integer.valueOf(minWordLength));
-		moreLikeThis.setMaxQueryTerms(Integer.valueOf(maxQueryTerms));
-		if (allStopWords != null && allStopWords.length > 0) {
-			Set<String> stopWordsTemp = new HashSet<String>();
-			for (int i = 0; i < allStopWords.length; i++) {
-				stopWordsTemp.add(allStopWords[i]);
-			}
-			moreLikeThis.setStopWords(stopWordsTemp);
-		}
-
 		List<Page> allPages = null;
 		try {
 			allPages = findAllHocrFromXML(xmlDocuments);
@@ -667,104 +599,72 @@ public class LuceneEngine implements ICommonConstants {
 			LOGGER.error("Exception while reading from XML" + e1.getMessage());
 			throw new DCMAApplicationException(e1.getMessage(), e1);
 		}
+		if (null == allPages) {
+			LOGGER.error("No pages found in batch XML.");
+			throw new DCMAApplicationException("No pages found in batch XML.");
+		}
 
-		if (null != allPages) {
+		IndexSearcherCache searcherCache = IndexSearcherCache.getInstance();
+		IndexSearcher searcher = acquireSearcher(searcherCache, indexFolder);
+		try {
+			MoreLikeThis moreLikeThis = new MoreLikeThis(searcher.getIndexReader());
+			settingMoreLikeParameters(minTermFreq, minDocFreq, minWordLength, maxQueryTerms, allIndexFields, allStopWords,
+					moreLikeThis);
+			BatchInstanceThread batchInstanceThread = new BatchInstanceThread();
+			List<PageConfidenceGenerator> confidenceGenerators = new ArrayList<PageConfidenceGenerator>();
+			List<HocrPage> hocrPageList = hocrPages.getHocrPage();
 			int index = 0;
 			for (Page page : allPages) {
-				returnMap.clear();
-				String eachPage = page.getHocrFileName();
-
-				eachPage = eachPage.trim();
-				boolean isFileValid = false;
-				if (validExtensions != null && validExtensions.length > 0) {
-					for (int l = 0; l < validExtensions.length; l++) {
-						if (eachPage.endsWith(validExtensions[l])) {
-							isFileValid = true;
-							break;
-						}
-					}
-				} else {
-					LOGGER.error("No valid extensions are specified in resources");
-					cleanUpResource(reader);
-					throw new DCMAApplicationException("No valid extensions are specified in resources");
-				}
-				if (isFileValid) {
-					try {
-						LOGGER.info("Generating query for : " + eachPage);
-						String hocrContent = null;
-
-						List<HocrPage> hocrPageList = hocrPages.getHocrPage();
-						HocrPage hocrPage = hocrPageList.get(index);
-						hocrContent = hocrPage.getHocrContent();
-
-						if (null != hocrContent) {
-							try {
-								InputStream inputStream = new ByteArrayInputStream(hocrContent.getBytes("UTF-8"));
-								query = moreLikeThis.like(inputStream);
-							} catch (UnsupportedEncodingException e) {
-								LOGGER.error(e.getMessage(), e);
-								query = moreLikeThis.like(new File(workingDir + File.separator + eachPage));
-							}
-						} else {
-							query = moreLikeThis.like(new File(workingDir + File.separator + eachPage));
-						}
-
-						if (query != null && query.toString() != null && query.toString().length() > 0) {
-							LOGGER.info("Generating confidence score for : " + eachPage);
-							returnMap = SearchFiles.generateConfidence(indexFolder, query.toString(), topLevelField, Integer
-									.valueOf(numOfPages), max_result);
-						} else {
-							LOGGER.info("Empty query generated for : " + eachPage);
-						}
-
-					} catch (IOException e) {
-						LOGGER.error("Exception while generating query for :" + eachPage + e.getMessage(), e);
-						cleanUpResource(reader);
-						throw new DCMAApplicationException("Exception while generating query for :" + eachPage + e.getMessage(), e);
-					} catch (Exception e) {
-						cleanUpResource(reader);
-						LOGGER.error("Exception while generating index or updating xml" + e.getMessage(), e);
-					}
-					LOGGER.info("Started updating batch xml for : " + eachPage);
-					updateBatchXML(returnMap, xmlDocuments, eachPage, allPageTypes, first_page_conf_weightage_float,
-							middle_page_conf_weightage_float, last_page_conf_weightage_float);
-					LOGGER.info("Successfully ended updating batch xml for : " + eachPage);
-				} else {
+				String eachPage = page.getHocrFileName().trim();
+				if (!checkFileValidity(validExtensions, eachPage)) {
 					LOGGER.error("File " + eachPage + " has invalid extension.");
 					throw new DCMABusinessException("File " + eachPage + " has invalid extension.");
 				}
+				PageConfidenceGenerator confidenceGenerator = new PageConfidenceGenerator(eachPage, workingDir, hocrPageList.get(index),
+						searcher, moreLikeThis, Integer.valueOf(numOfPages), max_result);
+				confidenceGenerators.add(confidenceGenerator);
+				batchInstanceThread.add(confidenceGenerator);
 				index++;
 			}
-		} else {
-			LOGGER.error("No pages found in batch XML.");
-			throw new DCMAApplicationException("No pages found in batch XML.");
+			batchInstanceThread.execute();
+			for (PageConfidenceGenerator confidenceGenerator : confidenceGenerators) {
+				String eachPage = confidenceGenerator.getHocrFileName();
+				LOGGER.info("Started updating batch xml for : " + eachPage);
+				updateBatchXML(confidenceGenerator.getConfidenceMap(), xmlDocuments, eachPage, allPageTypes,
+						first_page_conf_weightage_float, middle_page_conf_weightage_float, last_page_conf_weightage_float);
+				LOGGER.info("Successfully ended updating batch xml for : " + eachPage);
+			}
+		} finally {
+			searcherCache.release(searcher);
 		}
-		cleanUpResource(reader);
 	}
 
-	private boolean checkFileValidity(String[] validExtensions, IndexReader reader, String eachPage, boolean isFileValid)
+	private IndexSearcher acquireSearcher(final IndexSearcherCache searcherCache, final String indexFolder)
 			throws DCMAApplicationException {
-		boolean localIsFileValid = isFileValid;
+		try {
+			return searcherCache.acquire(indexFolder);
+		} catch (CorruptIndexException e) {
+			LOGGER.error(CORRUPT_INDEX_EXCEPTION_WHILE_READING_INDEX + e.getMessage(), e);
+			throw new DCMAApplicationException(CORRUPT_INDEX_EXCEPTION_WHILE_READING_INDEX + e.getMessage(), e);
+		} catch (IOException e) {
+			LOGGER.error(IO_EXCEPTION_WHILE_READING_INDEX + e.getMessage(), e);
+			throw new DCMAApplicationException(IO_EXCEPTION_WHILE_READING_INDEX + e.getMessage(), e);
+		}
+	}
+
+	private boolean checkFileValidity(String[] validExtensions, String eachPage) throws DCMAApplicationException {
+		boolean isFileValid = false;
 		if (validExtensions != null && validExtensions.length > 0) {
 			for (int index = 0; index < validExtensions.length; index++) {
 				if (eachPage.endsWith(validExtensions[index])) {
-					localIsFileValid = true;
+					isFileValid = true;
 					break;
 				}
 			}
 		} else {
-			cleanUpResource(reader);
 			throw new DCMAApplicationException(NO_VALID_EXTENSIONS_ARE_SPECIFIED_IN_RESOURCES);
 		}
-		return localIsFileValid;
-	}
-
-	private String getHOCRContent(final HocrPages hocrPages) {
-		String hocrContent;
-		List<HocrPage> hocrPageList = hocrPages.getHocrPage();
-		HocrPage hocrPage = hocrPageList.get(0);
-		hocrContent = hocrPage.getHocrContent();
-		return hocrContent;
+		return isFileValid;
 	}
 
 	private void settingMoreLikeParameters(String minTermFreq, String minDocFreq, String minWordLength, String maxQueryTerms,
@@ -785,18 +685,6 @@ public class LuceneEngine implements ICommonConstants {
 		}
 	}
 
-	private IndexReader getReader(String indexFolder, IndexReader reader) throws DCMAApplicationException {
-		IndexReader localReader = reader;
-		try {
-			localReader = IndexReader.open(FSDirectory.open(new File(indexFolder)), true);
-		} catch (CorruptIndexException e) {
-			throw new DCMAApplicationException(CORRUPT_INDEX_EXCEPTION_WHILE_READING_INDEX + e.getMessage(), e);
-		} catch (IOException e) {
-			throw new DCMAApplicationException(IO_EXCEPTION_WHILE_READING_INDEX + e.getMessage(), e);
-		}
-		return localReader;
-	}
-
 	private void validatingIndexField(String indexFolder, String[] indexFiles) throws DCMAApplicationException {
 		if (indexFiles == null || indexFiles.length <= 0) {
 			throw new DCMAApplicationException(NO_INDEX_FILES_EXIST_INSIDE_FOLDER + indexFolder);
@@ -1059,11 +947,14 @@ public class LuceneEngine implements ICommonConstants {
 	 */
 	public void learnFiles(final String admLearnFolder, final String admIndexFolder, final boolean createIndex)
 			throws DCMAApplicationException {
+		IndexSearcherCache.getInstance().invalidate(admIndexFolder);
 		try {
 			IndexHTML.generateIndex(admIndexFolder, admLearnFolder, createIndex);
 		} catch (Exception e) {
 			LOGGER.error(e.getMessage(), e);
 			throw new DCMAApplicationException(e.getMessage(), e);
+		} finally {
+			IndexSearcherCache.getInstance().invalidate(admIndexFolder);
 		}
 	}
 
@@ -1145,6 +1036,7 @@ public class LuceneEngine implements ICommonConstants {
 	 * @param admIndexFolder
 	 */
 	public void deleteIndexes(final String admIndexFolder) {
+		IndexSearcherCache.getInstance().invalidate(admIndexFolder);
 		FileUtils.deleteContents(admIndexFolder, false);
 	}
 
@@ -1272,7 +1164,7 @@ public class LuceneEngine implements ICommonConstants {
 
 										LOGGER.info("command formed is :" + cmds[2]);
 										batchInstanceThread
-												.add(new ProcessExecutor(cmds, new File(System.getenv(RECOSTAR_BASE_PATH))));
+												.add(new ProcessExecutor(cmds, new File(System.getenv(RECOSTAR_BASE_PATH)), ProcessResourceLimiter.OCR));
 										LOGGER.info("Added HOCR file : " + targetHTMlAbsolutePath);
 									} catch (Exception e) {
 										throw new DCMAApplicationException(EXCEPTION_GENERATING_HOCR_FOR_IMAGE + imageAbsolutePath
@@ -1494,7 +1386,7 @@ public class LuceneEngine implements ICommonConstants {
 						commandStr.append(cmds[ind]);
 						commandStr.append(' ');
 					}
-					ProcessExecutor processExecutor = new ProcessExecutor(cmds, envFile);
+					ProcessExecutor processExecutor = new ProcessExecutor(cmds, envFile, ProcessResourceLimiter.OCR);
 					commandThread.add(processExecutor);
 					LOGGER.info("Generated HOCR file : " + targetHTMlAbsolutePath);
 
@@ -1702,9 +1594,9 @@ public class LuceneEngine implements ICommonConstants {
 									cmds[INDEX_VALUE_4] = DOUBLE_QUOTE + targetHTMlAbsolutePath + DOUBLE_QUOTE;
 								}
 								if (OSUtil.isUnix()) {
-									batchInstanceThread.add(new ProcessExecutor(cmds, new File(tesseractBasePath)));
+									batchInstanceThread.add(new ProcessExecutor(cmds, new File(tesseractBasePath), ProcessResourceLimiter.OCR));
 								} else if (OSUtil.isWindows()) {
-									batchInstanceThread.add(new ProcessExecutor(cmds, null));
+									batchInstanceThread.add(new ProcessExecutor(cmds, null, ProcessResourceLimiter.OCR));
 								}
 								LOGGER.info("Added HOCR file : " + targetHTMlAbsolutePath);
 							} catch (Exception e) {
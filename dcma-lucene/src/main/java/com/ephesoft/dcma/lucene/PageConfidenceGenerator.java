@@ -0,0 +1,240 @@
+/********************************************************************************* 
+* Ephesoft is a Intelligent Document Capture and Mailroom Automation program 
+* developed by Ephesoft, Inc. Copyright (C) 2010-2012 Ephesoft Inc. 
+* 
+* This program is free software; you can redistribute it and/or modify it under 
+* the terms of the GNU Affero General Public License version 3 as published by the 
+* Free Software Foundation with the addition of the following permission added 
+* to Section 15 as permitted in Section 7(a): FOR ANY PART OF THE COVERED WORK 
+* IN WHICH THE COPYRIGHT IS OWNED BY EPHESOFT, EPHESOFT DISCLAIMS THE WARRANTY 
+* OF NON INFRINGEMENT OF THIRD PARTY RIGHTS. 
+* 
+* This program is distributed in the hope that it will be useful, but WITHOUT 
+* ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+* FOR A PARTICULAR PURPOSE.  See the GNU Affero General Public License for more 
+* details. 
+* 
+* You should have received a copy of the GNU Affero General Public License along with 
+* this program; if not, see http://www.gnu.org/licenses or write to the Free 
+* Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 
+* 02110-1301 USA. 
+* 
+* You can contact Ephesoft, Inc. headquarters at 111 Academy Way, 
+* Irvine, CA 92617, USA. or at email address info@ephesoft.com. 
+* 
+* The interactive user interfaces in modified source and object code versions 
+* of this program must display Appropriate Legal Notices, as required under 
+* Section 5 of the GNU Affero General Public License version 3. 
+* 
+* In accordance with Section 7(b) of the GNU Affero General Public License version 3, 
+* these Appropriate Legal Notices must retain the display of the "Ephesoft" logo. 
+* If the display of the logo is not reasonably feasible for 
+* technical reasons, the Appropriate Legal Notices must display the words 
+* "Powered by Ephesoft". 
+********************************************************************************/ 
+
+
+package com.ephesoft.dcma.lucene;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.lucene.demo.SearchFiles;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.similar.MoreLikeThis;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.ephesoft.dcma.batch.schema.HocrPages;
+import com.ephesoft.dcma.batch.schema.HocrPages.HocrPage;
+import com.ephesoft.dcma.batch.service.BatchSchemaService;
+import com.ephesoft.dcma.core.exception.DCMAApplicationException;
+import com.ephesoft.dcma.core.threadpool.AbstractRunnable;
+
+/**
+ * This class scores one HOCR page against the search classification index of the batch class. All the pages of a batch are scored in
+ * parallel against the same shared searcher.
+ * 
+ * @author Ephesoft
+ * @version 1.0
+ * @see com.ephesoft.dcma.lucene.LuceneEngine
+ * @see com.ephesoft.dcma.lucene.IndexSearcherCache
+ */
+public class PageConfidenceGenerator extends AbstractRunnable {
+
+	/**
+	 * An instance of Logger for proper logging in this file.
+	 */
+	private static final Logger LOGGER = LoggerFactory.getLogger(PageConfidenceGenerator.class);
+
+	/**
+	 * Name of the HOCR file of the page.
+	 */
+	private final String hocrFileName;
+
+	/**
+	 * Folder holding the HOCR file of the page.
+	 */
+	private final String pageFolder;
+
+	/**
+	 * HOCR page, null if it has to be read for the batch instance.
+	 */
+	private final HocrPage hocrPage;
+
+	/**
+	 * Identifier of the page, used to read its HOCR page.
+	 */
+	private final String pageIdentifier;
+
+	/**
+	 * Instance of {@link BatchSchemaService}, used to read the HOCR page.
+	 */
+	private final BatchSchemaService batchSchemaService;
+
+	/**
+	 * Shared searcher of the index.
+	 */
+	private final IndexSearcher searcher;
+
+	/**
+	 * Query generator configured for the index.
+	 */
+	private final MoreLikeThis moreLikeThis;
+
+	/**
+	 * Number of index pages to collect.
+	 */
+	private final int noOfPages;
+
+	/**
+	 * Maximum number of results kept.
+	 */
+	private final int maxResult;
+
+	/**
+	 * Page type names of the best matches with their scores.
+	 */
+	private Map<String, Float> confidenceMap = new HashMap<String, Float>();
+
+	/**
+	 * Constructor for a page whose HOCR page is read from the batch instance.
+	 * 
+	 * @param hocrFileName String
+	 * @param pageFolder String
+	 * @param pageIdentifier String
+	 * @param batchSchemaService {@link BatchSchemaService}
+	 * @param searcher {@link IndexSearcher}
+	 * @param moreLikeThis {@link MoreLikeThis}
+	 * @param noOfPages int
+	 * @param maxResult int
+	 */
+	public PageConfidenceGenerator(final String hocrFileName, final String pageFolder, final String pageIdentifier,
+			final BatchSchemaService batchSchemaService, final IndexSearcher searcher, final MoreLikeThis moreLikeThis,
+			final int noOfPages, final int maxResult) {
+		this(hocrFileName, pageFolder, null, pageIdentifier, batchSchemaService, searcher, moreLikeThis, noOfPages, maxResult);
+	}
+
+	/**
+	 * Constructor for a page whose HOCR page is already loaded.
+	 * 
+	 * @param hocrFileName String
+	 * @param pageFolder String
+	 * @param hocrPage {@link HocrPage}
+	 * @param searcher {@link IndexSearcher}
+	 * @param moreLikeThis {@link MoreLikeThis}
+	 * @param noOfPages int
+	 * @param maxResult int
+	 */
+	public PageConfidenceGenerator(final String hocrFileName, final String pageFolder, final HocrPage hocrPage,
+			final IndexSearcher searcher, final MoreLikeThis moreLikeThis, final int noOfPages, final int maxResult) {
+		this(hocrFileName, pageFolder, hocrPage, null, null, searcher, moreLikeThis, noOfPages, maxResult);
+	}
+
+	private PageConfidenceGenerator(final String hocrFileName, final String pageFolder, final HocrPage hocrPage,
+			final String pageIdentifier, final BatchSchemaService batchSchemaService, final IndexSearcher searcher,
+			final MoreLikeThis moreLikeThis, final int noOfPages, final int maxResult) {
+		super();
+		this.hocrFileName = hocrFileName;
+		this.pageFolder = pageFolder;
+		this.hocrPage = hocrPage;
+		this.pageIdentifier = pageIdentifier;
+		this.batchSchemaService = batchSchemaService;
+		this.searcher = searcher;
+		this.moreLikeThis = moreLikeThis;
+		this.noOfPages = noOfPages;
+		this.maxResult = maxResult;
+	}
+
+	/**
+	 * To get the page type names of the best matches with their scores.
+	 * 
+	 * @return Map<String, Float>
+	 */
+	public Map<String, Float> getConfidenceMap() {
+		return confidenceMap;
+	}
+
+	/**
+	 * To get the name of the HOCR file of the page.
+	 * 
+	 * @return String
+	 */
+	public String getHocrFileName() {
+		return hocrFileName;
+	}
+
+	/**
+	 * This method generates the query for the page and scores it against the shared searcher.
+	 */
+	@Override
+	public void run() {
+		try {
+			LOGGER.info("Generating query for : " + hocrFileName);
+			Query query = generateQuery(getHocrContent());
+			if (query != null && query.toString() != null && query.toString().length() > 0) {
+				LOGGER.info("Generating confidence score for : " + hocrFileName);
+				confidenceMap = SearchFiles.generateConfidence(searcher, query, noOfPages, maxResult);
+			} else {
+				LOGGER.info("Empty query generated for : " + hocrFileName);
+			}
+		} catch (IOException e) {
+			LOGGER.error("Exception while generating query for :" + hocrFileName + e.getMessage(), e);
+			setDcmaApplicationException(new DCMAApplicationException("Exception while generating query for :" + hocrFileName
+					+ e.getMessage(), e));
+		} catch (Exception e) {
+			LOGGER.error("Exception while generating index or updating xml" + e.getMessage(), e);
+		}
+	}
+
+	private String getHocrContent() {
+		HocrPage page = hocrPage;
+		if (page == null) {
+			HocrPages hocrPages = batchSchemaService.getHocrPages(getBatchInstanceIdentifier(), pageIdentifier);
+			List<HocrPage> hocrPageList = hocrPages.getHocrPage();
+			page = hocrPageList.get(0);
+		}
+		return page.getHocrContent();
+	}
+
+	private Query generateQuery(final String hocrContent) throws IOException {
+		Query query = null;
+		if (null != hocrContent) {
+			try {
+				query = moreLikeThis.like(new ByteArrayInputStream(hocrContent.getBytes("UTF-8")));
+			} catch (UnsupportedEncodingException e) {
+				LOGGER.error(e.getMessage(), e);
+				query = moreLikeThis.like(new File(pageFolder + File.separator + hocrFileName));
+			}
+		} else {
+			query = moreLikeThis.like(new File(pageFolder + File.separator + hocrFileName));
+		}
+		return query;
+	}
+}
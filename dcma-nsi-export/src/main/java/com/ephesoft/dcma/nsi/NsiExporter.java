@@ -212,6 +212,7 @@ public class NsiExporter implements ICommonConstants {
 		String batchXmlName = batchInstanceID + ICommonConstants.UNDERSCORE_BATCH_XML;
 		String sourceXMLPath = baseDocsFolder + File.separator + batchInstanceID + ICommonConstants.UNDERSCORE_BATCH_XML;
 		String targetXmlPath = exportFolder + File.separator + batchInstanceID + xmlTagStyle;
+		batchSchemaService.writeBatchXml(batchInstanceID);
 		LOGGER.debug("Transforming XML " + sourceXMLPath + " to " + targetXmlPath);
 		try {
 			TransformerFactory tFactory = TransformerFactory.newInstance();
@@ -51,6 +51,7 @@ import org.springframework.context.SmartLifecycle;
 import com.ephesoft.dcma.core.common.DCMABusinessException;
 import com.ephesoft.dcma.core.common.FileType;
 import com.ephesoft.dcma.core.service.FileFormatConvertor;
+import com.ephesoft.dcma.core.threadpool.ProcessResourceLimiter;
 import com.ephesoft.dcma.util.FileUtils;
 
 /**
@@ -215,8 +216,25 @@ public class OpenOfficeConvertor implements SmartLifecycle, FileFormatConvertor
 	 */
 	@Override
 	public void convert(URI inputFileURI, URI outputFileURI, FileType outputFileType) {
-		jodConverter.convert(new File(inputFileURI), new File(outputFileURI), new DefaultDocumentFormatRegistry()
-				.getFormatByExtension(outputFileType.getExtension()));
+		acquireOfficePermit();
+		try {
+			jodConverter.convert(new File(inputFileURI), new File(outputFileURI), new DefaultDocumentFormatRegistry()
+					.getFormatByExtension(outputFileType.getExtension()));
+		} finally {
+			ProcessResourceLimiter.getInstance().release(ProcessResourceLimiter.OFFICE);
+		}
+	}
+
+	/**
+	 * Acquires a permit for a conversion by the office process, waiting if the maximum number of office conversions are running.
+	 */
+	private void acquireOfficePermit() {
+		try {
+			ProcessResourceLimiter.getInstance().acquire(ProcessResourceLimiter.OFFICE);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new DCMABusinessException("Interrupted while waiting for open office conversion.", e);
+		}
 	}
 
 	/**
@@ -245,8 +263,13 @@ public class OpenOfficeConvertor implements SmartLifecycle, FileFormatConvertor
 		}
 		outputFile = FileUtils.changeFileExtension(outputFile, FileType.PDF.getExtension());
 		LOGGER.info("Ouput file path : " + outputFile);
-		jodConverter.convert(inputFilePath, outputFile, new DefaultDocumentFormatRegistry().getFormatByExtension(outputFileType
-				.getExtension()));
+		acquireOfficePermit();
+		try {
+			jodConverter.convert(inputFilePath, outputFile, new DefaultDocumentFormatRegistry().getFormatByExtension(outputFileType
+					.getExtension()));
+		} finally {
+			ProcessResourceLimiter.getInstance().release(ProcessResourceLimiter.OFFICE);
+		}
 		try {
 			LOGGER.info("Copying " + tempFile.getAbsolutePath() + " to " + outFile.getAbsolutePath());
 			FileUtils.copyFile(tempFile, outFile);
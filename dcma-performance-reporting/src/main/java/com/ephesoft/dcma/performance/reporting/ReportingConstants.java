@@ -112,6 +112,11 @@ public interface ReportingConstants {
 	 * The path where the ant is placed.
 	 */
 	String ANT_HOME_PATH = "ANT_HOME_PATH";
+
+	/**
+	 * Property holding the path of the reporting Ant build file.
+	 */
+	String REPORT_ANT_BUILDFILE_PATH = "report.ant.buildfile.path";
 	
 	/**
 	 * String constant for empty.
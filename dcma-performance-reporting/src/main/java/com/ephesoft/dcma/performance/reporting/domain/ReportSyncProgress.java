@@ -0,0 +1,268 @@
+/********************************************************************************* 
+* Ephesoft is a Intelligent Document Capture and Mailroom Automation program 
+* developed by Ephesoft, Inc. Copyright (C) 2010-2012 Ephesoft Inc. 
+* 
+* This program is free software; you can redistribute it and/or modify it under 
+* the terms of the GNU Affero General Public License version 3 as published by the 
+* Free Software Foundation with the addition of the following permission added 
+* to Section 15 as permitted in Section 7(a): FOR ANY PART OF THE COVERED WORK 
+* IN WHICH THE COPYRIGHT IS OWNED BY EPHESOFT, EPHESOFT DISCLAIMS THE WARRANTY 
+* OF NON INFRINGEMENT OF THIRD PARTY RIGHTS. 
+* 
+* This program is distributed in the hope that it will be useful, but WITHOUT 
+* ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+* FOR A PARTICULAR PURPOSE.  See the GNU Affero General Public License for more 
+* details. 
+* 
+* You should have received a copy of the GNU Affero General Public License along with 
+* this program; if not, see http://www.gnu.org/licenses or write to the Free 
+* Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 
+* 02110-1301 USA. 
+* 
+* You can contact Ephesoft, Inc. headquarters at 111 Academy Way, 
+* Irvine, CA 92617, USA. or at email address info@ephesoft.com. 
+* 
+* The interactive user interfaces in modified source and object code versions 
+* of this program must display Appropriate Legal Notices, as required under 
+* Section 5 of the GNU Affero General Public License version 3. 
+* 
+* In accordance with Section 7(b) of the GNU Affero General Public License version 3, 
+* these Appropriate Legal Notices must retain the display of the "Ephesoft" logo. 
+* If the display of the logo is not reasonably feasible for 
+* technical reasons, the Appropriate Legal Notices must display the words 
+* "Powered by Ephesoft". 
+********************************************************************************/ 
+
+package com.ephesoft.dcma.performance.reporting.domain;
+
+import java.io.Serializable;
+import java.util.Date;
+
+/**
+ * This class contains the progress of the reporting database synchronization.
+ * 
+ * @author Ephesoft
+ * @version 1.0
+ */
+public class ReportSyncProgress implements Serializable {
+
+	/**
+	 * Serial version id.
+	 */
+	private static final long serialVersionUID = 4121672518913740637L;
+
+	/**
+	 * Enum for the state of a reporting synchronization.
+	 */
+	public enum SyncStatus {
+		/**
+		 * IDLE, no synchronization has run yet.
+		 */
+		IDLE,
+		/**
+		 * RUNNING.
+		 */
+		RUNNING,
+		/**
+		 * COMPLETED.
+		 */
+		COMPLETED,
+		/**
+		 * FAILED.
+		 */
+		FAILED
+	}
+
+	/**
+	 * status SyncStatus.
+	 */
+	private SyncStatus status = SyncStatus.IDLE;
+
+	/**
+	 * currentStep String.
+	 */
+	private String currentStep;
+
+	/**
+	 * rowsCopied long.
+	 */
+	private long rowsCopied;
+
+	/**
+	 * chunksCommitted int.
+	 */
+	private int chunksCommitted;
+
+	/**
+	 * startTime Date.
+	 */
+	private Date startTime;
+
+	/**
+	 * endTime Date.
+	 */
+	private Date endTime;
+
+	/**
+	 * lastSuccessfulSyncTime Date.
+	 */
+	private Date lastSuccessfulSyncTime;
+
+	/**
+	 * errorMessage String.
+	 */
+	private String errorMessage;
+
+	/**
+	 * Default constructor.
+	 */
+	public ReportSyncProgress() {
+		super();
+	}
+
+	/**
+	 * Copy constructor, used to hand out snapshots of the running synchronization.
+	 * 
+	 * @param progress {@link ReportSyncProgress}
+	 */
+	public ReportSyncProgress(ReportSyncProgress progress) {
+		super();
+		this.status = progress.status;
+		this.currentStep = progress.currentStep;
+		this.rowsCopied = progress.rowsCopied;
+		this.chunksCommitted = progress.chunksCommitted;
+		this.startTime = progress.startTime;
+		this.endTime = progress.endTime;
+		this.lastSuccessfulSyncTime = progress.lastSuccessfulSyncTime;
+		this.errorMessage = progress.errorMessage;
+	}
+
+	/**
+	 * To get status.
+	 * @return the status
+	 */
+	public SyncStatus getStatus() {
+		return status;
+	}
+
+	/**
+	 * To set status.
+	 * @param status 
+	 */
+	public void setStatus(SyncStatus status) {
+		this.status = status;
+	}
+
+	/**
+	 * To get current step.
+	 * @return the name of the step being synchronized
+	 */
+	public String getCurrentStep() {
+		return currentStep;
+	}
+
+	/**
+	 * To set current step.
+	 * @param currentStep 
+	 */
+	public void setCurrentStep(String currentStep) {
+		this.currentStep = currentStep;
+	}
+
+	/**
+	 * To get rows copied.
+	 * @return the number of rows copied by the current or last run
+	 */
+	public long getRowsCopied() {
+		return rowsCopied;
+	}
+
+	/**
+	 * To set rows copied.
+	 * @param rowsCopied 
+	 */
+	public void setRowsCopied(long rowsCopied) {
+		this.rowsCopied = rowsCopied;
+	}
+
+	/**
+	 * To get chunks committed.
+	 * @return the number of chunks committed by the current or last run
+	 */
+	public int getChunksCommitted() {
+		return chunksCommitted;
+	}
+
+	/**
+	 * To set chunks committed.
+	 * @param chunksCommitted 
+	 */
+	public void setChunksCommitted(int chunksCommitted) {
+		this.chunksCommitted = chunksCommitted;
+	}
+
+	/**
+	 * To get start time.
+	 * @return the startTime
+	 */
+	public Date getStartTime() {
+		return startTime;
+	}
+
+	/**
+	 * To set start time.
+	 * @param startTime 
+	 */
+	public void setStartTime(Date startTime) {
+		this.startTime = startTime;
+	}
+
+	/**
+	 * To get end time.
+	 * @return the endTime
+	 */
+	public Date getEndTime() {
+		return endTime;
+	}
+
+	/**
+	 * To set end time.
+	 * @param endTime 
+	 */
+	public void setEndTime(Date endTime) {
+		this.endTime = endTime;
+	}
+
+	/**
+	 * To get last successful sync time.
+	 * @return the lastSuccessfulSyncTime
+	 */
+	public Date getLastSuccessfulSyncTime() {
+		return lastSuccessfulSyncTime;
+	}
+
+	/**
+	 * To set last successful sync time.
+	 * @param lastSuccessfulSyncTime 
+	 */
+	public void setLastSuccessfulSyncTime(Date lastSuccessfulSyncTime) {
+		this.lastSuccessfulSyncTime = lastSuccessfulSyncTime;
+	}
+
+	/**
+	 * To get error message.
+	 * @return the errorMessage
+	 */
+	public String getErrorMessage() {
+		return errorMessage;
+	}
+
+	/**
+	 * To set error message.
+	 * @param errorMessage 
+	 */
+	public void setErrorMessage(String errorMessage) {
+		this.errorMessage = errorMessage;
+	}
+
+}
@@ -43,6 +43,7 @@ import com.ephesoft.dcma.core.DCMAException;
 import com.ephesoft.dcma.core.common.Order;
 import com.ephesoft.dcma.core.common.WorkflowType;
 import com.ephesoft.dcma.performance.reporting.domain.ReportDisplayData;
+import com.ephesoft.dcma.performance.reporting.domain.ReportSyncProgress;
 
 /**
  * This service provides reporting APIs.
@@ -140,11 +141,26 @@ public interface ReportDataService {
 	Map<String, String> getCustomReportButtonPopUpConfigs() throws DCMAException;
 
 	/**
-	 * Method to run reporting Sync DB option.
+	 * Method to run reporting Sync DB option. Runs the Ant build at the given path if it exists, else {@link #synchronizeReportData()}.
 	 * 
 	 * @param antPath {@link String}
 	 * @throws DCMAException
 	 */
 	void syncDatabase(String antPath) throws DCMAException;
 
+	/**
+	 * Method to copy the workflow history recorded since the last synchronization into the reporting database. Does nothing while the
+	 * reporting Ant build file is configured.
+	 * 
+	 * @throws DCMAException if the source or the reporting database cannot be read or written
+	 */
+	void synchronizeReportData() throws DCMAException;
+
+	/**
+	 * Method to get the progress of the current or last reporting synchronization.
+	 * 
+	 * @return {@link ReportSyncProgress}
+	 */
+	ReportSyncProgress getSyncProgress();
+
 }
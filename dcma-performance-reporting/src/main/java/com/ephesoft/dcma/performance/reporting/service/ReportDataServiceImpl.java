@@ -48,12 +48,16 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import javax.sql.DataSource;
+
 import org.hibernate.MappingException;
 import org.hibernate.Query;
 import org.hibernate.StatelessSession;
 import org.hibernate.transform.Transformers;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 
 import com.ephesoft.dcma.core.DCMAException;
@@ -62,6 +66,8 @@ import com.ephesoft.dcma.core.common.WorkflowType;
 import com.ephesoft.dcma.core.hibernate.DynamicHibernateDao;
 import com.ephesoft.dcma.performance.reporting.ReportingConstants;
 import com.ephesoft.dcma.performance.reporting.domain.ReportDisplayData;
+import com.ephesoft.dcma.performance.reporting.domain.ReportSyncProgress;
+import com.ephesoft.dcma.performance.reporting.sync.ReportDataSynchronizer;
 import com.ephesoft.dcma.util.ApplicationConfigProperties;
 import com.ephesoft.dcma.util.OSUtil;
 
@@ -91,6 +97,19 @@ public class ReportDataServiceImpl implements ReportDataService {
 	 */
 	final private DynamicHibernateDao dynamicHibernateDao = new DynamicHibernateDao(ReportingConstants.TARGET_DB_CFG);
 
+	/**
+	 * dataSource DataSource of the application database holding the workflow history.
+	 */
+	@Autowired
+	@Qualifier("dataSource")
+	private DataSource dataSource;
+
+	/**
+	 * reportDataSynchronizer ReportDataSynchronizer.
+	 */
+	@Autowired
+	private ReportDataSynchronizer reportDataSynchronizer;
+
 	/**
 	 * LOGGER to print the logging information.
 	 */
@@ -434,13 +453,23 @@ public class ReportDataServiceImpl implements ReportDataService {
 	}
 
 	/**
-	 * Method to run reporting Sync DB option.
+	 * Method to run reporting Sync DB option. The Ant build at the given path is run when it exists, as it also loads the page and
+	 * document totals and the plugin rows which the in process synchronization does not load yet. Otherwise the reporting database is
+	 * synchronized in process.
 	 * 
 	 * @param antPath {@link String}
 	 * @throws DCMAException if error occurs in reading or executing
 	 */
 	@Override
 	public void syncDatabase(String antPath) throws DCMAException {
+		if (isAntBuildFile(antPath)) {
+			runAntBuild(antPath);
+		} else {
+			synchronizeReportData();
+		}
+	}
+
+	private void runAntBuild(String antPath) throws DCMAException {
 		InputStreamReader inputStreamReader = null;
 		BufferedReader input = null;
 		try {
@@ -491,4 +520,74 @@ public class ReportDataServiceImpl implements ReportDataService {
 			}
 		}
 	}
+
+	/**
+	 * To check whether the reporting Ant build file is configured, in which case the reporting data is loaded by the Ant build.
+	 * 
+	 * @param antPath {@link String}
+	 * @return boolean
+	 */
+	private boolean isAntBuildFile(String antPath) {
+		return antPath != null && !antPath.trim().isEmpty() && new File(antPath).isFile();
+	}
+
+	private String getAntBuildFilePath() {
+		String antPath = null;
+		try {
+			ApplicationConfigProperties app = ApplicationConfigProperties.getApplicationConfigProperties();
+			antPath = app.getProperty(ReportingConstants.REPORT_ANT_BUILDFILE_PATH);
+		} catch (IOException ioe) {
+			LOGGER.error("Unable to read the reporting Ant build file path. " + ioe.getMessage(), ioe);
+		}
+		return antPath;
+	}
+
+	/**
+	 * Method to copy the workflow history recorded since the last synchronization into the reporting database. Nothing is copied while
+	 * the reporting Ant build file is configured, as the Ant build loads the same rows.
+	 * 
+	 * @throws DCMAException if error occurs in reading or writing the databases
+	 */
+	@Override
+	public void synchronizeReportData() throws DCMAException {
+		if (isAntBuildFile(getAntBuildFilePath())) {
+			LOGGER.debug("Reporting data is loaded by the configured Ant build. Skipping the in process synchronization.");
+			return;
+		}
+		Connection sourceConnection = null;
+		Connection targetConnection = null;
+		try {
+			sourceConnection = dataSource.getConnection();
+			targetConnection = dynamicHibernateDao.getConnectionProvider().getConnection();
+			reportDataSynchronizer.synchronize(sourceConnection, targetConnection);
+		} catch (SQLException e) {
+			LOGGER.error("Exception while synchronizing the reporting database. " + e.getMessage(), e);
+			throw new DCMAException("Exception while synchronizing the reporting database. " + e.getMessage(), e);
+		} finally {
+			if (targetConnection != null) {
+				try {
+					targetConnection.close();
+				} catch (SQLException e) {
+					LOGGER.error(ERROR_CLOSING_DATABASE_CONNECTION + e.getMessage(), e);
+				}
+			}
+			if (sourceConnection != null) {
+				try {
+					sourceConnection.close();
+				} catch (SQLException e) {
+					LOGGER.error(ERROR_CLOSING_DATABASE_CONNECTION + e.getMessage(), e);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Method to get the progress of the current or last reporting synchronization.
+	 * 
+	 * @return {@link ReportSyncProgress}
+	 */
+	@Override
+	public ReportSyncProgress getSyncProgress() {
+		return reportDataSynchronizer.getProgress();
+	}
 }
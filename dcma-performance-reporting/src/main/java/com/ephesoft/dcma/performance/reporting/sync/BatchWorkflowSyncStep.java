@@ -0,0 +1,109 @@
+/********************************************************************************* 
+* Ephesoft is a Intelligent Document Capture and Mailroom Automation program 
+* developed by Ephesoft, Inc. Copyright (C) 2010-2012 Ephesoft Inc. 
+* 
+* This program is free software; you can redistribute it and/or modify it under 
+* the terms of the GNU Affero General Public License version 3 as published by the 
+* Free Software Foundation with the addition of the following permission added 
+* to Section 15 as permitted in Section 7(a): FOR ANY PART OF THE COVERED WORK 
+* IN WHICH THE COPYRIGHT IS OWNED BY EPHESOFT, EPHESOFT DISCLAIMS THE WARRANTY 
+* OF NON INFRINGEMENT OF THIRD PARTY RIGHTS. 
+* 
+* This program is distributed in the hope that it will be useful, but WITHOUT 
+* ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+* FOR A PARTICULAR PURPOSE.  See the GNU Affero General Public License for more 
+* details. 
+* 
+* You should have received a copy of the GNU Affero General Public License along with 
+* this program; if not, see http://www.gnu.org/licenses or write to the Free 
+* Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 
+* 02110-1301 USA. 
+* 
+* You can contact Ephesoft, Inc. headquarters at 111 Academy Way, 
+* Irvine, CA 92617, USA. or at email address info@ephesoft.com. 
+* 
+* The interactive user interfaces in modified source and object code versions 
+* of this program must display Appropriate Legal Notices, as required under 
+* Section 5 of the GNU Affero General Public License version 3. 
+* 
+* In accordance with Section 7(b) of the GNU Affero General Public License version 3, 
+* these Appropriate Legal Notices must retain the display of the "Ephesoft" logo. 
+* If the display of the logo is not reasonably feasible for 
+* technical reasons, the Appropriate Legal Notices must display the words 
+* "Powered by Ephesoft". 
+********************************************************************************/ 
+
+package com.ephesoft.dcma.performance.reporting.sync;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import com.ephesoft.dcma.core.common.WorkflowType;
+
+/**
+ * Synchronization step loading one WORKFLOW row per finished batch class process. The batch class process is started with the batch
+ * instance identifier as its business key, which links the history to the batch instance and its batch class.
+ * 
+ * @author Ephesoft
+ * @version 1.0
+ * @see com.ephesoft.dcma.performance.reporting.sync.ReportDataSyncStep
+ */
+public class BatchWorkflowSyncStep extends ReportDataSyncStep {
+
+	/**
+	 * Separator between the process key and the version in a jBPM process definition id.
+	 */
+	private static final char VERSION_SEPARATOR = '-';
+
+	/**
+	 * Query reading the finished batch class processes from the jBPM history.
+	 */
+	private static final String SOURCE_QUERY = "SELECT p.ID_ AS PROCESS_ID, p.DBID_ AS " + SYNC_SOURCE_ID
+			+ ", p.PROCDEFID_ AS WORKFLOW_ID, p.KEY_ AS PROCESS_KEY, p.START_ AS START_TIME, p.END_ AS " + SYNC_END_TIME
+			+ ", p.DURATION_ AS DURATION, p.KEY_ AS BATCH_INSTANCE_ID, bc.identifier AS BATCH_CLASS_ID,"
+			+ " p.PROCDEFID_ AS WORKFLOW_NAME FROM jbpm4_hist_procinst p"
+			+ " LEFT OUTER JOIN batch_instance bi ON bi.identifier = p.KEY_"
+			+ " LEFT OUTER JOIN batch_class bc ON bc.id = bi.batch_class_id"
+			+ " WHERE p.KEY_ IS NOT NULL AND p.END_ IS NOT NULL AND p.END_ <= ?"
+			+ " AND (p.END_ > ? OR (p.END_ = ? AND p.DBID_ > ?)) ORDER BY p.END_, p.DBID_";
+
+	@Override
+	public String getName() {
+		return "batch_workflow";
+	}
+
+	@Override
+	public String getSourceQuery() {
+		return SOURCE_QUERY;
+	}
+
+	@Override
+	protected WorkflowType getWorkflowType() {
+		return WorkflowType.WORKFLOW;
+	}
+
+	@Override
+	protected String getUserName(ResultSet source) throws SQLException {
+		return null;
+	}
+
+	/**
+	 * To get the workflow name, the process definition id without its version.
+	 * 
+	 * @param source {@link ResultSet}
+	 * @return {@link String}
+	 * @throws SQLException if a column cannot be read
+	 */
+	@Override
+	protected String getWorkflowName(ResultSet source) throws SQLException {
+		String workflowName = super.getWorkflowName(source);
+		if (workflowName != null) {
+			int separatorIndex = workflowName.lastIndexOf(VERSION_SEPARATOR);
+			if (separatorIndex > 0) {
+				workflowName = workflowName.substring(0, separatorIndex);
+			}
+		}
+		return workflowName;
+	}
+
+}
@@ -0,0 +1,139 @@
+/********************************************************************************* 
+* Ephesoft is a Intelligent Document Capture and Mailroom Automation program 
+* developed by Ephesoft, Inc. Copyright (C) 2010-2012 Ephesoft Inc. 
+* 
+* This program is free software; you can redistribute it and/or modify it under 
+* the terms of the GNU Affero General Public License version 3 as published by the 
+* Free Software Foundation with the addition of the following permission added 
+* to Section 15 as permitted in Section 7(a): FOR ANY PART OF THE COVERED WORK 
+* IN WHICH THE COPYRIGHT IS OWNED BY EPHESOFT, EPHESOFT DISCLAIMS THE WARRANTY 
+* OF NON INFRINGEMENT OF THIRD PARTY RIGHTS. 
+* 
+* This program is distributed in the hope that it will be useful, but WITHOUT 
+* ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+* FOR A PARTICULAR PURPOSE.  See the GNU Affero General Public License for more 
+* details. 
+* 
+* You should have received a copy of the GNU Affero General Public License along with 
+* this program; if not, see http://www.gnu.org/licenses or write to the Free 
+* Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 
+* 02110-1301 USA. 
+* 
+* You can contact Ephesoft, Inc. headquarters at 111 Academy Way, 
+* Irvine, CA 92617, USA. or at email address info@ephesoft.com. 
+* 
+* The interactive user interfaces in modified source and object code versions 
+* of this program must display Appropriate Legal Notices, as required under 
+* Section 5 of the GNU Affero General Public License version 3. 
+* 
+* In accordance with Section 7(b) of the GNU Affero General Public License version 3, 
+* these Appropriate Legal Notices must retain the display of the "Ephesoft" logo. 
+* If the display of the logo is not reasonably feasible for 
+* technical reasons, the Appropriate Legal Notices must display the words 
+* "Powered by Ephesoft". 
+********************************************************************************/ 
+
+package com.ephesoft.dcma.performance.reporting.sync;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import com.ephesoft.dcma.core.common.WorkflowType;
+
+/**
+ * Synchronization step loading one MODULE row per finished module of a batch class process. Modules run as sub-process activities
+ * of the batch class process, so their activity history carries the batch instance identifier of the parent process. The review and
+ * validation rows are reported against the operator recorded on the batch instance.
+ * 
+ * @author Ephesoft
+ * @version 1.0
+ * @see com.ephesoft.dcma.performance.reporting.sync.ReportDataSyncStep
+ */
+public class ModuleSyncStep extends ReportDataSyncStep {
+
+	/**
+	 * Query reading the finished module activities of batch class processes from the jBPM history.
+	 */
+	private static final String SOURCE_QUERY = "SELECT p.ID_ AS PROCESS_ID, a.DBID_ AS " + SYNC_SOURCE_ID
+			+ ", p.PROCDEFID_ AS WORKFLOW_ID, p.KEY_ AS PROCESS_KEY, a.START_ AS START_TIME, a.END_ AS " + SYNC_END_TIME
+			+ ", a.DURATION_ AS DURATION, p.KEY_ AS BATCH_INSTANCE_ID, bc.identifier AS BATCH_CLASS_ID,"
+			+ " a.ACTIVITY_NAME_ AS WORKFLOW_NAME, bi.review_operator_user_name AS REVIEW_USER_NAME,"
+			+ " bi.validation_operator_user_name AS VALIDATION_USER_NAME FROM jbpm4_hist_actinst a"
+			+ " INNER JOIN jbpm4_hist_procinst p ON p.DBID_ = a.HPROCI_"
+			+ " LEFT OUTER JOIN batch_instance bi ON bi.identifier = p.KEY_"
+			+ " LEFT OUTER JOIN batch_class bc ON bc.id = bi.batch_class_id"
+			+ " WHERE p.KEY_ IS NOT NULL AND a.ACTIVITY_NAME_ LIKE '%Module' AND a.END_ IS NOT NULL AND a.END_ <= ?"
+			+ " AND (a.END_ > ? OR (a.END_ = ? AND a.DBID_ > ?)) ORDER BY a.END_, a.DBID_";
+
+	/**
+	 * reviewModuleName String.
+	 */
+	private String reviewModuleName = "Review_Document_Module";
+
+	/**
+	 * validationModuleName String.
+	 */
+	private String validationModuleName = "Validate_Document_Module";
+
+	/**
+	 * To get review module name.
+	 * @return the reviewModuleName
+	 */
+	public String getReviewModuleName() {
+		return reviewModuleName;
+	}
+
+	/**
+	 * To set review module name.
+	 * @param reviewModuleName 
+	 */
+	public void setReviewModuleName(String reviewModuleName) {
+		this.reviewModuleName = reviewModuleName;
+	}
+
+	/**
+	 * To get validation module name.
+	 * @return the validationModuleName
+	 */
+	public String getValidationModuleName() {
+		return validationModuleName;
+	}
+
+	/**
+	 * To set validation module name.
+	 * @param validationModuleName 
+	 */
+	public void setValidationModuleName(String validationModuleName) {
+		this.validationModuleName = validationModuleName;
+	}
+
+	@Override
+	public String getName() {
+		return "batch_module";
+	}
+
+	@Override
+	public String getSourceQuery() {
+		return SOURCE_QUERY;
+	}
+
+	@Override
+	protected WorkflowType getWorkflowType() {
+		return WorkflowType.MODULE;
+	}
+
+	@Override
+	protected String getUserName(ResultSet source) throws SQLException {
+		String userName = null;
+		String workflowName = getWorkflowName(source);
+		if (workflowName != null) {
+			if (workflowName.equalsIgnoreCase(reviewModuleName)) {
+				userName = source.getString("REVIEW_USER_NAME");
+			} else if (workflowName.equalsIgnoreCase(validationModuleName)) {
+				userName = source.getString("VALIDATION_USER_NAME");
+			}
+		}
+		return userName;
+	}
+
+}
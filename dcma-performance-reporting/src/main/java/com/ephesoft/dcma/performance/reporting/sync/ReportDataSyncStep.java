@@ -0,0 +1,131 @@
+/********************************************************************************* 
+* Ephesoft is a Intelligent Document Capture and Mailroom Automation program 
+* developed by Ephesoft, Inc. Copyright (C) 2010-2012 Ephesoft Inc. 
+* 
+* This program is free software; you can redistribute it and/or modify it under 
+* the terms of the GNU Affero General Public License version 3 as published by the 
+* Free Software Foundation with the addition of the following permission added 
+* to Section 15 as permitted in Section 7(a): FOR ANY PART OF THE COVERED WORK 
+* IN WHICH THE COPYRIGHT IS OWNED BY EPHESOFT, EPHESOFT DISCLAIMS THE WARRANTY 
+* OF NON INFRINGEMENT OF THIRD PARTY RIGHTS. 
+* 
+* This program is distributed in the hope that it will be useful, but WITHOUT 
+* ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+* FOR A PARTICULAR PURPOSE.  See the GNU Affero General Public License for more 
+* details. 
+* 
+* You should have received a copy of the GNU Affero General Public License along with 
+* this program; if not, see http://www.gnu.org/licenses or write to the Free 
+* Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 
+* 02110-1301 USA. 
+* 
+* You can contact Ephesoft, Inc. headquarters at 111 Academy Way, 
+* Irvine, CA 92617, USA. or at email address info@ephesoft.com. 
+* 
+* The interactive user interfaces in modified source and object code versions 
+* of this program must display Appropriate Legal Notices, as required under 
+* Section 5 of the GNU Affero General Public License version 3. 
+* 
+* In accordance with Section 7(b) of the GNU Affero General Public License version 3, 
+* these Appropriate Legal Notices must retain the display of the "Ephesoft" logo. 
+* If the display of the logo is not reasonably feasible for 
+* technical reasons, the Appropriate Legal Notices must display the words 
+* "Powered by Ephesoft". 
+********************************************************************************/ 
+
+package com.ephesoft.dcma.performance.reporting.sync;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+
+import com.ephesoft.dcma.core.common.WorkflowType;
+import com.ephesoft.dcma.performance.reporting.ReportingConstants;
+
+/**
+ * Base class of the synchronization steps loading the report_data table from the jBPM history.
+ * <p>
+ * The source query must select PROCESS_ID, WORKFLOW_ID, PROCESS_KEY, START_TIME, DURATION, BATCH_INSTANCE_ID, BATCH_CLASS_ID and
+ * WORKFLOW_NAME next to the key columns. The source id is stored in DBID_ and the end time in END_TIME.
+ * 
+ * @author Ephesoft
+ * @version 1.0
+ * @see com.ephesoft.dcma.performance.reporting.sync.ReportSyncStep
+ */
+public abstract class ReportDataSyncStep extends ReportSyncStep {
+
+	/**
+	 * Insert statement for the report_data table.
+	 */
+	private static final String REPORT_DATA_INSERT = "INSERT INTO " + ReportingConstants.TARGET_DB_TABLENAME
+			+ " (id, PROCESS_ID, DBID_, WORKFLOW_ID, PROCESS_KEY, START_TIME, END_TIME, DURATION, BATCH_INSTANCE_ID, USER_NAME,"
+			+ " WORKFLOW_NAME, WORKFLOW_TYPE, BATCH_CLASS_ID) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+	/**
+	 * To get the workflow type of the rows loaded by this step.
+	 * 
+	 * @return {@link WorkflowType}
+	 */
+	protected abstract WorkflowType getWorkflowType();
+
+	/**
+	 * To get the user name to report for the current source row.
+	 * 
+	 * @param source {@link ResultSet}
+	 * @return {@link String}, null if no user worked on the row
+	 * @throws SQLException if a column cannot be read
+	 */
+	protected abstract String getUserName(ResultSet source) throws SQLException;
+
+	/**
+	 * To get the workflow name to report for the current source row.
+	 * 
+	 * @param source {@link ResultSet}
+	 * @return {@link String}
+	 * @throws SQLException if a column cannot be read
+	 */
+	protected String getWorkflowName(ResultSet source) throws SQLException {
+		return source.getString("WORKFLOW_NAME");
+	}
+
+	@Override
+	public String getTargetTable() {
+		return ReportingConstants.TARGET_DB_TABLENAME;
+	}
+
+	@Override
+	public String getTargetInsert() {
+		return REPORT_DATA_INSERT;
+	}
+
+	@Override
+	public String getSeedQuery() {
+		return "SELECT END_TIME, DBID_ FROM " + ReportingConstants.TARGET_DB_TABLENAME + " WHERE WORKFLOW_TYPE = '"
+				+ getWorkflowType().name() + "' AND END_TIME IS NOT NULL ORDER BY END_TIME DESC, DBID_ DESC";
+	}
+
+	@Override
+	public void bindTargetRow(ResultSet source, PreparedStatement insert, long targetId) throws SQLException {
+		int index = 1;
+		insert.setLong(index++, targetId);
+		insert.setString(index++, source.getString("PROCESS_ID"));
+		insert.setLong(index++, source.getLong(SYNC_SOURCE_ID));
+		insert.setString(index++, source.getString("WORKFLOW_ID"));
+		insert.setString(index++, source.getString("PROCESS_KEY"));
+		insert.setTimestamp(index++, source.getTimestamp("START_TIME"));
+		insert.setTimestamp(index++, source.getTimestamp(SYNC_END_TIME));
+		long duration = source.getLong("DURATION");
+		if (source.wasNull()) {
+			insert.setNull(index++, Types.BIGINT);
+		} else {
+			insert.setLong(index++, duration);
+		}
+		insert.setString(index++, source.getString("BATCH_INSTANCE_ID"));
+		insert.setString(index++, getUserName(source));
+		insert.setString(index++, getWorkflowName(source));
+		insert.setString(index++, getWorkflowType().name());
+		insert.setString(index++, source.getString("BATCH_CLASS_ID"));
+	}
+
+}
@@ -0,0 +1,672 @@
+/********************************************************************************* 
+* Ephesoft is a Intelligent Document Capture and Mailroom Automation program 
+* developed by Ephesoft, Inc. Copyright (C) 2010-2012 Ephesoft Inc. 
+* 
+* This program is free software; you can redistribute it and/or modify it under 
+* the terms of the GNU Affero General Public License version 3 as published by the 
+* Free Software Foundation with the addition of the following permission added 
+* to Section 15 as permitted in Section 7(a): FOR ANY PART OF THE COVERED WORK 
+* IN WHICH THE COPYRIGHT IS OWNED BY EPHESOFT, EPHESOFT DISCLAIMS THE WARRANTY 
+* OF NON INFRINGEMENT OF THIRD PARTY RIGHTS. 
+* 
+* This program is distributed in the hope that it will be useful, but WITHOUT 
+* ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+* FOR A PARTICULAR PURPOSE.  See the GNU Affero General Public License for more 
+* details. 
+* 
+* You should have received a copy of the GNU Affero General Public License along with 
+* this program; if not, see http://www.gnu.org/licenses or write to the Free 
+* Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 
+* 02110-1301 USA. 
+* 
+* You can contact Ephesoft, Inc. headquarters at 111 Academy Way, 
+* Irvine, CA 92617, USA. or at email address info@ephesoft.com. 
+* 
+* The interactive user interfaces in modified source and object code versions 
+* of this program must display Appropriate Legal Notices, as required under 
+* Section 5 of the GNU Affero General Public License version 3. 
+* 
+* In accordance with Section 7(b) of the GNU Affero General Public License version 3, 
+* these Appropriate Legal Notices must retain the display of the "Ephesoft" logo. 
+* If the display of the logo is not reasonably feasible for 
+* technical reasons, the Appropriate Legal Notices must display the words 
+* "Powered by Ephesoft". 
+********************************************************************************/ 
+
+package com.ephesoft.dcma.performance.reporting.sync;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.ephesoft.dcma.performance.reporting.domain.ReportSyncProgress;
+import com.ephesoft.dcma.performance.reporting.domain.ReportSyncProgress.SyncStatus;
+
+/**
+ * Incremental copy of the workflow history into the reporting database.
+ * <p>
+ * Every {@link ReportSyncStep} keeps a high-water mark, the end time and source id of the last row it copied, in the report_sync_state
+ * table of the reporting database. A run reads only the source rows past that mark, in chunks of {@link #getChunkSize()} rows, and
+ * commits each chunk together with the advanced mark so that an interrupted run resumes where it stopped without copying a row twice.
+ * Rows that ended less than {@link #getEndTimeLagMillis()} ago are left for the next run, so that history written by transactions
+ * still in flight is not skipped.
+ * <p>
+ * Runs on several servers of a cluster may share the reporting database. Every chunk first takes the row lock on the high-water mark
+ * of its step with an update conditional on the mark it read; a chunk whose mark has been moved by another run is rolled back and the
+ * step is left to that run. The ids of a target table are allocated under the row lock of one allocator row per table in the same
+ * table, so that steps and servers writing the same table never hand out an id twice.
+ * <p>
+ * Only the workflow and module rows are loaded so far; the plugin rows and the page and document totals are still loaded by the
+ * reporting Ant build.
+ * 
+ * @author Ephesoft
+ * @version 1.0
+ * @see com.ephesoft.dcma.performance.reporting.sync.ReportSyncStep
+ */
+public class ReportDataSynchronizer {
+
+	/**
+	 * LOGGER to print the logging information.
+	 */
+	private static final Logger LOGGER = LoggerFactory.getLogger(ReportDataSynchronizer.class);
+
+	/**
+	 * Table holding the high-water mark of every step.
+	 */
+	private static final String SYNC_STATE_TABLE = "report_sync_state";
+
+	/**
+	 * Definition of the high-water mark table. Times are stored as milliseconds to stay portable across databases.
+	 */
+	private static final String CREATE_SYNC_STATE_TABLE = "CREATE TABLE " + SYNC_STATE_TABLE
+			+ " (STEP_NAME VARCHAR(100) NOT NULL, LAST_END_TIME BIGINT NOT NULL, LAST_SOURCE_ID BIGINT NOT NULL,"
+			+ " ROWS_COPIED BIGINT NOT NULL, LAST_SYNC_TIME BIGINT NOT NULL, PRIMARY KEY (STEP_NAME))";
+
+	/**
+	 * Query reading the high-water mark of a step.
+	 */
+	private static final String SELECT_SYNC_STATE = "SELECT LAST_END_TIME, LAST_SOURCE_ID, ROWS_COPIED FROM " + SYNC_STATE_TABLE
+			+ " WHERE STEP_NAME = ?";
+
+	/**
+	 * Statement storing the high-water mark of a step for the first time.
+	 */
+	private static final String INSERT_SYNC_STATE = "INSERT INTO " + SYNC_STATE_TABLE
+			+ " (LAST_END_TIME, LAST_SOURCE_ID, ROWS_COPIED, LAST_SYNC_TIME, STEP_NAME) VALUES (?, ?, ?, ?, ?)";
+
+	/**
+	 * Statement advancing the high-water mark of a step, only if it is still at the mark the chunk was read from.
+	 */
+	private static final String UPDATE_SYNC_STATE = "UPDATE " + SYNC_STATE_TABLE
+			+ " SET LAST_END_TIME = ?, LAST_SOURCE_ID = ?, ROWS_COPIED = ?, LAST_SYNC_TIME = ? WHERE STEP_NAME = ?"
+			+ " AND LAST_END_TIME = ? AND LAST_SOURCE_ID = ?";
+
+	/**
+	 * Statement locking the high-water mark row of a step for the current chunk, only if it is still at the mark read before.
+	 */
+	private static final String LOCK_SYNC_STATE = "UPDATE " + SYNC_STATE_TABLE
+			+ " SET LAST_SYNC_TIME = ? WHERE STEP_NAME = ? AND LAST_END_TIME = ? AND LAST_SOURCE_ID = ?";
+
+	/**
+	 * Prefix of the allocator row of a target table, which holds the last id handed out in LAST_SOURCE_ID.
+	 */
+	private static final String ID_ALLOCATOR_PREFIX = "id:";
+
+	/**
+	 * Statement locking the allocator row of a target table for the current chunk.
+	 */
+	private static final String LOCK_ID_ALLOCATOR = "UPDATE " + SYNC_STATE_TABLE + " SET LAST_SYNC_TIME = ? WHERE STEP_NAME = ?";
+
+	/**
+	 * Statement storing the last id handed out from the allocator row of a target table.
+	 */
+	private static final String UPDATE_ID_ALLOCATOR = "UPDATE " + SYNC_STATE_TABLE
+			+ " SET LAST_SOURCE_ID = ?, ROWS_COPIED = ROWS_COPIED + ? WHERE STEP_NAME = ?";
+
+	/**
+	 * SQL state class of integrity constraint violations, raised when another run stored the mark of a step first.
+	 */
+	private static final String INTEGRITY_CONSTRAINT_VIOLATION = "23";
+
+	/**
+	 * Default number of rows copied per transaction.
+	 */
+	private static final int DEFAULT_CHUNK_SIZE = 500;
+
+	/**
+	 * Default age in milliseconds a source row must have before it is copied.
+	 */
+	private static final long DEFAULT_END_TIME_LAG_MILLIS = 60000L;
+
+	/**
+	 * syncSteps List<ReportSyncStep>.
+	 */
+	private List<ReportSyncStep> syncSteps = new ArrayList<ReportSyncStep>();
+
+	/**
+	 * chunkSize int.
+	 */
+	private int chunkSize = DEFAULT_CHUNK_SIZE;
+
+	/**
+	 * endTimeLagMillis long.
+	 */
+	private long endTimeLagMillis = DEFAULT_END_TIME_LAG_MILLIS;
+
+	/**
+	 * Serializes the scheduled and the on demand runs of this server, runs of other servers are kept apart by the mark row lock.
+	 */
+	private final Lock syncLock = new ReentrantLock();
+
+	/**
+	 * Progress of the current or last run, guarded by itself.
+	 */
+	private final ReportSyncProgress progress = new ReportSyncProgress();
+
+	/**
+	 * To get sync steps.
+	 * @return the syncSteps
+	 */
+	public List<ReportSyncStep> getSyncSteps() {
+		return syncSteps;
+	}
+
+	/**
+	 * To set sync steps.
+	 * @param syncSteps 
+	 */
+	public void setSyncSteps(List<ReportSyncStep> syncSteps) {
+		this.syncSteps = syncSteps;
+	}
+
+	/**
+	 * To get chunk size.
+	 * @return the chunkSize
+	 */
+	public int getChunkSize() {
+		return chunkSize;
+	}
+
+	/**
+	 * To set chunk size.
+	 * @param chunkSize 
+	 */
+	public void setChunkSize(int chunkSize) {
+		this.chunkSize = chunkSize > 0 ? chunkSize : DEFAULT_CHUNK_SIZE;
+	}
+
+	/**
+	 * To get end time lag millis.
+	 * @return the endTimeLagMillis
+	 */
+	public long getEndTimeLagMillis() {
+		return endTimeLagMillis;
+	}
+
+	/**
+	 * To set end time lag millis.
+	 * @param endTimeLagMillis 
+	 */
+	public void setEndTimeLagMillis(long endTimeLagMillis) {
+		this.endTimeLagMillis = endTimeLagMillis >= 0 ? endTimeLagMillis : DEFAULT_END_TIME_LAG_MILLIS;
+	}
+
+	/**
+	 * API to get a snapshot of the progress of the current or last run.
+	 * 
+	 * @return {@link ReportSyncProgress}
+	 */
+	public ReportSyncProgress getProgress() {
+		synchronized (progress) {
+			return new ReportSyncProgress(progress);
+		}
+	}
+
+	/**
+	 * API to copy the source rows added since the last run into the reporting database. A call made while another run is in progress
+	 * waits for it and then copies whatever that run left.
+	 * 
+	 * @param source {@link Connection} to the database holding the workflow history
+	 * @param target {@link Connection} to the reporting database
+	 * @return long number of rows copied
+	 * @throws SQLException if reading the source or writing the reporting database fails; the chunks committed before stay in place
+	 */
+	public long synchronize(Connection source, Connection target) throws SQLException {
+		syncLock.lock();
+		try {
+			startProgress();
+			long rowsCopied = 0;
+			boolean autoCommit = target.getAutoCommit();
+			try {
+				target.setAutoCommit(false);
+				createSyncStateTable(target);
+				for (ReportSyncStep syncStep : syncSteps) {
+					createIdAllocator(target, syncStep.getTargetTable());
+				}
+				Timestamp upperBound = new Timestamp(System.currentTimeMillis() - endTimeLagMillis);
+				for (ReportSyncStep syncStep : syncSteps) {
+					rowsCopied += synchronizeStep(syncStep, source, target, upperBound);
+				}
+				finishProgress(null);
+				LOGGER.info("Reporting synchronization copied " + rowsCopied + " rows.");
+			} catch (SQLException e) {
+				finishProgress(e);
+				throw e;
+			} finally {
+				try {
+					target.setAutoCommit(autoCommit);
+				} catch (SQLException e) {
+					LOGGER.error("Could not restore the auto commit mode of the reporting connection.", e);
+				}
+			}
+			return rowsCopied;
+		} finally {
+			syncLock.unlock();
+		}
+	}
+
+	private long synchronizeStep(ReportSyncStep syncStep, Connection source, Connection target, Timestamp upperBound)
+			throws SQLException {
+		LOGGER.debug("Synchronizing reporting step " + syncStep.getName());
+		synchronized (progress) {
+			progress.setCurrentStep(syncStep.getName());
+		}
+		SyncState syncState = readSyncState(syncStep, target);
+		long rowsCopied = 0;
+		int chunkRows = 0;
+		do {
+			chunkRows = copyChunk(syncStep, source, target, upperBound, syncState);
+			rowsCopied += chunkRows;
+		} while (chunkRows == chunkSize);
+		return rowsCopied;
+	}
+
+	private int copyChunk(ReportSyncStep syncStep, Connection source, Connection target, Timestamp upperBound, SyncState syncState)
+			throws SQLException {
+		PreparedStatement sourceQuery = null;
+		ResultSet sourceRows = null;
+		PreparedStatement targetInsert = null;
+		int chunkRows = 0;
+		try {
+			if (!lockSyncState(syncStep, target, syncState)) {
+				target.rollback();
+				LOGGER.info("Reporting step " + syncStep.getName() + " has been advanced by another run, leaving it to that run.");
+				return 0;
+			}
+			sourceQuery = source.prepareStatement(syncStep.getSourceQuery());
+			sourceQuery.setMaxRows(chunkSize);
+			sourceQuery.setFetchSize(chunkSize);
+			sourceQuery.setTimestamp(1, upperBound);
+			sourceQuery.setTimestamp(2, syncState.lastEndTime);
+			sourceQuery.setTimestamp(3, syncState.lastEndTime);
+			sourceQuery.setLong(4, syncState.lastSourceId);
+			sourceRows = sourceQuery.executeQuery();
+
+			long nextId = lockIdAllocator(target, syncStep.getTargetTable()) + 1;
+			targetInsert = target.prepareStatement(syncStep.getTargetInsert());
+			Timestamp lastEndTime = syncState.lastEndTime;
+			long lastSourceId = syncState.lastSourceId;
+			while (sourceRows.next()) {
+				syncStep.bindTargetRow(sourceRows, targetInsert, nextId++);
+				targetInsert.addBatch();
+				lastEndTime = sourceRows.getTimestamp(ReportSyncStep.SYNC_END_TIME);
+				lastSourceId = sourceRows.getLong(ReportSyncStep.SYNC_SOURCE_ID);
+				chunkRows++;
+			}
+			if (chunkRows > 0) {
+				targetInsert.executeBatch();
+				storeAllocatedIds(target, syncStep.getTargetTable(), nextId - 1, chunkRows);
+				SyncState advancedState = new SyncState(lastEndTime, lastSourceId, syncState.rowsCopied + chunkRows, true);
+				if (!updateSyncState(syncStep, target, advancedState, syncState)) {
+					target.rollback();
+					LOGGER.info("Reporting step " + syncStep.getName() + " has been advanced by another run, chunk rolled back.");
+					return 0;
+				}
+				target.commit();
+				syncState.advanceTo(advancedState);
+				synchronized (progress) {
+					progress.setRowsCopied(progress.getRowsCopied() + chunkRows);
+					progress.setChunksCommitted(progress.getChunksCommitted() + 1);
+				}
+			} else {
+				target.commit();
+				syncState.stored = true;
+			}
+		} catch (SQLException e) {
+			LOGGER.error("Error copying a chunk of reporting step " + syncStep.getName() + ". " + e.getMessage(), e);
+			try {
+				target.rollback();
+			} catch (SQLException rollbackException) {
+				LOGGER.error("Could not roll back the reporting chunk.", rollbackException);
+			}
+			throw e;
+		} finally {
+			closeQuietly(sourceRows);
+			closeQuietly(sourceQuery);
+			closeQuietly(targetInsert);
+		}
+		return chunkRows;
+	}
+
+	private SyncState readSyncState(ReportSyncStep syncStep, Connection target) throws SQLException {
+		SyncState syncState = null;
+		PreparedStatement statement = null;
+		ResultSet resultSet = null;
+		try {
+			statement = target.prepareStatement(SELECT_SYNC_STATE);
+			statement.setString(1, syncStep.getName());
+			resultSet = statement.executeQuery();
+			if (resultSet.next()) {
+				syncState = new SyncState(new Timestamp(resultSet.getLong(1)), resultSet.getLong(2), resultSet.getLong(3), true);
+			}
+		} finally {
+			closeQuietly(resultSet);
+			closeQuietly(statement);
+		}
+		if (syncState == null) {
+			syncState = seedSyncState(syncStep, target);
+		}
+		return syncState;
+	}
+
+	private SyncState seedSyncState(ReportSyncStep syncStep, Connection target) throws SQLException {
+		SyncState syncState = new SyncState(new Timestamp(0L), 0L, 0L, false);
+		PreparedStatement statement = null;
+		ResultSet resultSet = null;
+		try {
+			statement = target.prepareStatement(syncStep.getSeedQuery());
+			statement.setMaxRows(1);
+			resultSet = statement.executeQuery();
+			if (resultSet.next()) {
+				syncState = new SyncState(resultSet.getTimestamp(1), resultSet.getLong(2), 0L, false);
+				LOGGER.info("Reporting step " + syncStep.getName() + " resumes after the rows ended at " + syncState.lastEndTime);
+			}
+		} finally {
+			closeQuietly(resultSet);
+			closeQuietly(statement);
+		}
+		return syncState;
+	}
+
+	/**
+	 * To take the row lock on the high-water mark of a step for the current chunk. A mark not stored yet is inserted, which locks it
+	 * the same way.
+	 * 
+	 * @return boolean, false if another run has moved or stored the mark since it was read
+	 */
+	private boolean lockSyncState(ReportSyncStep syncStep, Connection target, SyncState syncState) throws SQLException {
+		boolean locked = false;
+		PreparedStatement statement = null;
+		try {
+			if (syncState.stored) {
+				statement = target.prepareStatement(LOCK_SYNC_STATE);
+				statement.setLong(1, System.currentTimeMillis());
+				statement.setString(2, syncStep.getName());
+				statement.setLong(3, syncState.lastEndTime.getTime());
+				statement.setLong(4, syncState.lastSourceId);
+				locked = statement.executeUpdate() == 1;
+			} else {
+				statement = target.prepareStatement(INSERT_SYNC_STATE);
+				statement.setLong(1, syncState.lastEndTime.getTime());
+				statement.setLong(2, syncState.lastSourceId);
+				statement.setLong(3, syncState.rowsCopied);
+				statement.setLong(4, System.currentTimeMillis());
+				statement.setString(5, syncStep.getName());
+				statement.executeUpdate();
+				locked = true;
+			}
+		} catch (SQLException e) {
+			String sqlState = e.getSQLState();
+			if (sqlState == null || !sqlState.startsWith(INTEGRITY_CONSTRAINT_VIOLATION)) {
+				throw e;
+			}
+			LOGGER.debug("Mark of reporting step " + syncStep.getName() + " has been stored by another run. " + e.getMessage());
+		} finally {
+			closeQuietly(statement);
+		}
+		return locked;
+	}
+
+	/**
+	 * To advance the high-water mark of a step locked by {@link #lockSyncState(ReportSyncStep, Connection, SyncState)}.
+	 * 
+	 * @return boolean, false if the mark is no longer at the given previous state
+	 */
+	private boolean updateSyncState(ReportSyncStep syncStep, Connection target, SyncState syncState, SyncState previousState)
+			throws SQLException {
+		PreparedStatement statement = null;
+		try {
+			statement = target.prepareStatement(UPDATE_SYNC_STATE);
+			statement.setLong(1, syncState.lastEndTime.getTime());
+			statement.setLong(2, syncState.lastSourceId);
+			statement.setLong(3, syncState.rowsCopied);
+			statement.setLong(4, System.currentTimeMillis());
+			statement.setString(5, syncStep.getName());
+			statement.setLong(6, previousState.lastEndTime.getTime());
+			statement.setLong(7, previousState.lastSourceId);
+			return statement.executeUpdate() == 1;
+		} finally {
+			closeQuietly(statement);
+		}
+	}
+
+	/**
+	 * To store the allocator row of a target table unless it exists, in a transaction of its own.
+	 */
+	private void createIdAllocator(Connection target, String tableName) throws SQLException {
+		String allocatorName = ID_ALLOCATOR_PREFIX + tableName;
+		boolean exists = false;
+		PreparedStatement statement = null;
+		ResultSet resultSet = null;
+		try {
+			statement = target.prepareStatement(SELECT_SYNC_STATE);
+			statement.setString(1, allocatorName);
+			resultSet = statement.executeQuery();
+			exists = resultSet.next();
+		} finally {
+			closeQuietly(resultSet);
+			closeQuietly(statement);
+		}
+		if (!exists) {
+			statement = null;
+			try {
+				statement = target.prepareStatement(INSERT_SYNC_STATE);
+				statement.setLong(1, 0L);
+				statement.setLong(2, 0L);
+				statement.setLong(3, 0L);
+				statement.setLong(4, System.currentTimeMillis());
+				statement.setString(5, allocatorName);
+				statement.executeUpdate();
+				target.commit();
+			} catch (SQLException e) {
+				target.rollback();
+				String sqlState = e.getSQLState();
+				if (sqlState == null || !sqlState.startsWith(INTEGRITY_CONSTRAINT_VIOLATION)) {
+					throw e;
+				}
+				LOGGER.debug("Id allocator of " + tableName + " has been stored by another run. " + e.getMessage());
+			} finally {
+				closeQuietly(statement);
+			}
+		}
+	}
+
+	/**
+	 * To take the row lock on the allocator row of a target table for the current chunk. The lock is held until the chunk is
+	 * committed or rolled back, so the ids read here cannot be handed out by any other step or server meanwhile.
+	 * 
+	 * @return long, the highest id handed out or stored in the table so far
+	 */
+	private long lockIdAllocator(Connection target, String tableName) throws SQLException {
+		String allocatorName = ID_ALLOCATOR_PREFIX + tableName;
+		long lastId = 0;
+		PreparedStatement statement = null;
+		ResultSet resultSet = null;
+		try {
+			statement = target.prepareStatement(LOCK_ID_ALLOCATOR);
+			statement.setLong(1, System.currentTimeMillis());
+			statement.setString(2, allocatorName);
+			if (statement.executeUpdate() != 1) {
+				throw new SQLException("Id allocator of " + tableName + " is missing from " + SYNC_STATE_TABLE);
+			}
+			closeQuietly(statement);
+			statement = target.prepareStatement(SELECT_SYNC_STATE);
+			statement.setString(1, allocatorName);
+			resultSet = statement.executeQuery();
+			if (resultSet.next()) {
+				lastId = resultSet.getLong(2);
+			}
+		} finally {
+			closeQuietly(resultSet);
+			closeQuietly(statement);
+		}
+		// rows loaded by the Ant build or an earlier version do not go through the allocator
+		return Math.max(lastId, getMaxId(target, tableName));
+	}
+
+	private void storeAllocatedIds(Connection target, String tableName, long lastId, int allocatedIds) throws SQLException {
+		PreparedStatement statement = null;
+		try {
+			statement = target.prepareStatement(UPDATE_ID_ALLOCATOR);
+			statement.setLong(1, lastId);
+			statement.setLong(2, allocatedIds);
+			statement.setString(3, ID_ALLOCATOR_PREFIX + tableName);
+			statement.executeUpdate();
+		} finally {
+			closeQuietly(statement);
+		}
+	}
+
+	private long getMaxId(Connection target, String tableName) throws SQLException {
+		long maxId = 0;
+		Statement statement = null;
+		ResultSet resultSet = null;
+		try {
+			statement = target.createStatement();
+			resultSet = statement.executeQuery("SELECT MAX(id) FROM " + tableName);
+			if (resultSet.next()) {
+				maxId = resultSet.getLong(1);
+			}
+		} finally {
+			closeQuietly(resultSet);
+			closeQuietly(statement);
+		}
+		return maxId;
+	}
+
+	private void createSyncStateTable(Connection target) throws SQLException {
+		DatabaseMetaData metaData = target.getMetaData();
+		boolean exists = tableExists(metaData, SYNC_STATE_TABLE) || tableExists(metaData, SYNC_STATE_TABLE.toUpperCase());
+		if (!exists) {
+			LOGGER.info("Creating the reporting synchronization table " + SYNC_STATE_TABLE);
+			Statement statement = null;
+			try {
+				statement = target.createStatement();
+				statement.executeUpdate(CREATE_SYNC_STATE_TABLE);
+				target.commit();
+			} finally {
+				closeQuietly(statement);
+			}
+		}
+	}
+
+	private boolean tableExists(DatabaseMetaData metaData, String tableName) throws SQLException {
+		boolean exists = false;
+		ResultSet resultSet = null;
+		try {
+			resultSet = metaData.getTables(null, null, tableName, null);
+			exists = resultSet.next();
+		} finally {
+			closeQuietly(resultSet);
+		}
+		return exists;
+	}
+
+	private void startProgress() {
+		synchronized (progress) {
+			progress.setStatus(SyncStatus.RUNNING);
+			progress.setCurrentStep(null);
+			progress.setRowsCopied(0L);
+			progress.setChunksCommitted(0);
+			progress.setStartTime(new Date());
+			progress.setEndTime(null);
+			progress.setErrorMessage(null);
+		}
+	}
+
+	private void finishProgress(SQLException exception) {
+		synchronized (progress) {
+			Date endTime = new Date();
+			progress.setEndTime(endTime);
+			progress.setCurrentStep(null);
+			if (exception == null) {
+				progress.setStatus(SyncStatus.COMPLETED);
+				progress.setLastSuccessfulSyncTime(endTime);
+			} else {
+				progress.setStatus(SyncStatus.FAILED);
+				progress.setErrorMessage(exception.getMessage());
+			}
+		}
+	}
+
+	private void closeQuietly(ResultSet resultSet) {
+		if (resultSet != null) {
+			try {
+				resultSet.close();
+			} catch (SQLException e) {
+				LOGGER.error(e.getMessage(), e);
+			}
+		}
+	}
+
+	private void closeQuietly(Statement statement) {
+		if (statement != null) {
+			try {
+				statement.close();
+			} catch (SQLException e) {
+				LOGGER.error(e.getMessage(), e);
+			}
+		}
+	}
+
+	/**
+	 * High-water mark of a step.
+	 */
+	private static final class SyncState {
+
+		private Timestamp lastEndTime;
+
+		private long lastSourceId;
+
+		private long rowsCopied;
+
+		private boolean stored;
+
+		SyncState(Timestamp lastEndTime, long lastSourceId, long rowsCopied, boolean stored) {
+			this.lastEndTime = lastEndTime == null ? new Timestamp(0L) : lastEndTime;
+			this.lastSourceId = lastSourceId;
+			this.rowsCopied = rowsCopied;
+			this.stored = stored;
+		}
+
+		void advanceTo(SyncState syncState) {
+			this.lastEndTime = syncState.lastEndTime;
+			this.lastSourceId = syncState.lastSourceId;
+			this.rowsCopied = syncState.rowsCopied;
+			this.stored = syncState.stored;
+		}
+	}
+
+}
@@ -0,0 +1,115 @@
+/********************************************************************************* 
+* Ephesoft is a Intelligent Document Capture and Mailroom Automation program 
+* developed by Ephesoft, Inc. Copyright (C) 2010-2012 Ephesoft Inc. 
+* 
+* This program is free software; you can redistribute it and/or modify it under 
+* the terms of the GNU Affero General Public License version 3 as published by the 
+* Free Software Foundation with the addition of the following permission added 
+* to Section 15 as permitted in Section 7(a): FOR ANY PART OF THE COVERED WORK 
+* IN WHICH THE COPYRIGHT IS OWNED BY EPHESOFT, EPHESOFT DISCLAIMS THE WARRANTY 
+* OF NON INFRINGEMENT OF THIRD PARTY RIGHTS. 
+* 
+* This program is distributed in the hope that it will be useful, but WITHOUT 
+* ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+* FOR A PARTICULAR PURPOSE.  See the GNU Affero General Public License for more 
+* details. 
+* 
+* You should have received a copy of the GNU Affero General Public License along with 
+* this program; if not, see http://www.gnu.org/licenses or write to the Free 
+* Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 
+* 02110-1301 USA. 
+* 
+* You can contact Ephesoft, Inc. headquarters at 111 Academy Way, 
+* Irvine, CA 92617, USA. or at email address info@ephesoft.com. 
+* 
+* The interactive user interfaces in modified source and object code versions 
+* of this program must display Appropriate Legal Notices, as required under 
+* Section 5 of the GNU Affero General Public License version 3. 
+* 
+* In accordance with Section 7(b) of the GNU Affero General Public License version 3, 
+* these Appropriate Legal Notices must retain the display of the "Ephesoft" logo. 
+* If the display of the logo is not reasonably feasible for 
+* technical reasons, the Appropriate Legal Notices must display the words 
+* "Powered by Ephesoft". 
+********************************************************************************/ 
+
+package com.ephesoft.dcma.performance.reporting.sync;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * One unit of the reporting synchronization: copies the rows of a source query into a reporting table.
+ * <p>
+ * The source query is read in keyset order of end time and source id, so that it can resume after the high-water mark stored for
+ * the step. It must select the columns {@link #SYNC_END_TIME} and {@link #SYNC_SOURCE_ID}, order by them and take the parameters
+ * upper end time bound, last end time, last end time again and last source id, in that order. For example:
+ * 
+ * <pre>
+ * WHERE END_ IS NOT NULL AND END_ &lt;= ? AND (END_ &gt; ? OR (END_ = ? AND DBID_ &gt; ?)) ORDER BY END_, DBID_
+ * </pre>
+ * 
+ * @author Ephesoft
+ * @version 1.0
+ * @see com.ephesoft.dcma.performance.reporting.sync.ReportDataSynchronizer
+ */
+public abstract class ReportSyncStep {
+
+	/**
+	 * Alias of the source column holding the end time the step is keyed on.
+	 */
+	public static final String SYNC_END_TIME = "SYNC_END_TIME";
+
+	/**
+	 * Alias of the source column holding the source id the step is keyed on.
+	 */
+	public static final String SYNC_SOURCE_ID = "SYNC_SOURCE_ID";
+
+	/**
+	 * To get the name of the step, used as the key of its high-water mark.
+	 * 
+	 * @return {@link String}
+	 */
+	public abstract String getName();
+
+	/**
+	 * To get the query reading new rows from the source database.
+	 * 
+	 * @return {@link String}
+	 */
+	public abstract String getSourceQuery();
+
+	/**
+	 * To get the reporting table the step writes into.
+	 * 
+	 * @return {@link String}
+	 */
+	public abstract String getTargetTable();
+
+	/**
+	 * To get the insert statement for the reporting table. Its first parameter is the row id.
+	 * 
+	 * @return {@link String}
+	 */
+	public abstract String getTargetInsert();
+
+	/**
+	 * To get the query on the reporting database returning the end time and source id of the rows already loaded by this step, latest
+	 * first. It seeds the high-water mark the first time the step runs against a reporting database filled by an earlier load.
+	 * 
+	 * @return {@link String}
+	 */
+	public abstract String getSeedQuery();
+
+	/**
+	 * API to bind the current source row to the target insert statement.
+	 * 
+	 * @param source {@link ResultSet} positioned on the row to copy
+	 * @param insert {@link PreparedStatement} created from {@link #getTargetInsert()}
+	 * @param targetId long id of the new reporting row
+	 * @throws SQLException if a column cannot be read or bound
+	 */
+	public abstract void bindTargetRow(ResultSet source, PreparedStatement insert, long targetId) throws SQLException;
+
+}
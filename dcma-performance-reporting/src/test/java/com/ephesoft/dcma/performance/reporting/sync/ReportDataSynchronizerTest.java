@@ -0,0 +1,373 @@
+/********************************************************************************* 
+* Ephesoft is a Intelligent Document Capture and Mailroom Automation program 
+* developed by Ephesoft, Inc. Copyright (C) 2010-2012 Ephesoft Inc. 
+* 
+* This program is free software; you can redistribute it and/or modify it under 
+* the terms of the GNU Affero General Public License version 3 as published by the 
+* Free Software Foundation with the addition of the following permission added 
+* to Section 15 as permitted in Section 7(a): FOR ANY PART OF THE COVERED WORK 
+* IN WHICH THE COPYRIGHT IS OWNED BY EPHESOFT, EPHESOFT DISCLAIMS THE WARRANTY 
+* OF NON INFRINGEMENT OF THIRD PARTY RIGHTS. 
+* 
+* This program is distributed in the hope that it will be useful, but WITHOUT 
+* ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+* FOR A PARTICULAR PURPOSE.  See the GNU Affero General Public License for more 
+* details. 
+* 
+* You should have received a copy of the GNU Affero General Public License along with 
+* this program; if not, see http://www.gnu.org/licenses or write to the Free 
+* Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 
+* 02110-1301 USA. 
+* 
+* You can contact Ephesoft, Inc. headquarters at 111 Academy Way, 
+* Irvine, CA 92617, USA. or at email address info@ephesoft.com. 
+* 
+* The interactive user interfaces in modified source and object code versions 
+* of this program must display Appropriate Legal Notices, as required under 
+* Section 5 of the GNU Affero General Public License version 3. 
+* 
+* In accordance with Section 7(b) of the GNU Affero General Public License version 3, 
+* these Appropriate Legal Notices must retain the display of the "Ephesoft" logo. 
+* If the display of the logo is not reasonably feasible for 
+* technical reasons, the Appropriate Legal Notices must display the words 
+* "Powered by Ephesoft". 
+********************************************************************************/ 
+
+package com.ephesoft.dcma.performance.reporting.sync;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.ephesoft.dcma.performance.reporting.domain.ReportSyncProgress;
+import com.ephesoft.dcma.performance.reporting.domain.ReportSyncProgress.SyncStatus;
+
+/**
+ * This is Junit test for ReportDataSynchronizer. It runs the synchronization between two embedded H2 databases holding the jBPM
+ * history and the reporting tables.
+ * 
+ * @author Ephesoft
+ * @version 1.0
+ * @see com.ephesoft.dcma.performance.reporting.sync.ReportDataSynchronizer
+ */
+public class ReportDataSynchronizerTest {
+
+	/**
+	 * One hour in milliseconds.
+	 */
+	private static final long ONE_HOUR = 3600000L;
+
+	/**
+	 * Counter keeping the in-memory databases of the test methods apart.
+	 */
+	private static int databaseCount;
+
+	/**
+	 * Connection to the source database.
+	 */
+	private Connection source;
+
+	/**
+	 * Connection to the reporting database.
+	 */
+	private Connection target;
+
+	/**
+	 * Reference time of the test data.
+	 */
+	private long baseTime;
+
+	/**
+	 * This method creates the source and reporting schemas.
+	 * 
+	 * @throws Exception if the embedded databases cannot be created
+	 */
+	@Before
+	public void setUp() throws Exception {
+		Class.forName("org.h2.Driver");
+		databaseCount++;
+		source = DriverManager.getConnection("jdbc:h2:mem:report_source_" + databaseCount, "sa", "");
+		target = DriverManager.getConnection("jdbc:h2:mem:report_target_" + databaseCount, "sa", "");
+		execute(source, "CREATE TABLE batch_class (id BIGINT PRIMARY KEY, identifier VARCHAR(255))");
+		execute(source, "CREATE TABLE batch_instance (id BIGINT PRIMARY KEY, identifier VARCHAR(255), batch_class_id BIGINT,"
+				+ " review_operator_user_name VARCHAR(255), validation_operator_user_name VARCHAR(255))");
+		execute(source, "CREATE TABLE jbpm4_hist_procinst (DBID_ BIGINT PRIMARY KEY, ID_ VARCHAR(255), PROCDEFID_ VARCHAR(255),"
+				+ " KEY_ VARCHAR(255), START_ TIMESTAMP, END_ TIMESTAMP, DURATION_ BIGINT)");
+		execute(source, "CREATE TABLE jbpm4_hist_actinst (DBID_ BIGINT PRIMARY KEY, HPROCI_ BIGINT, ACTIVITY_NAME_ VARCHAR(255),"
+				+ " START_ TIMESTAMP, END_ TIMESTAMP, DURATION_ BIGINT)");
+		execute(target, "CREATE TABLE report_data (id BIGINT PRIMARY KEY, PROCESS_ID VARCHAR(255), DBID_ BIGINT,"
+				+ " WORKFLOW_ID VARCHAR(255), PROCESS_KEY VARCHAR(255), START_TIME TIMESTAMP, END_TIME TIMESTAMP, DURATION BIGINT,"
+				+ " BATCH_INSTANCE_ID VARCHAR(255), USER_NAME VARCHAR(255), TOTAL_NUMBER_PAGES BIGINT,"
+				+ " TOTAL_NUMBER_DOCUMENTS BIGINT, WORKFLOW_NAME VARCHAR(255), WORKFLOW_TYPE VARCHAR(30),"
+				+ " BATCH_CLASS_ID VARCHAR(255))");
+		execute(source, "INSERT INTO batch_class VALUES (1, 'BC1')");
+		baseTime = System.currentTimeMillis() - ONE_HOUR;
+	}
+
+	/**
+	 * This method closes the embedded databases.
+	 * 
+	 * @throws SQLException if a connection cannot be closed
+	 */
+	@After
+	public void tearDown() throws SQLException {
+		source.close();
+		target.close();
+	}
+
+	/**
+	 * This method tests that finished batches and modules are copied once and that later runs copy only the new history.
+	 * 
+	 * @throws SQLException if the synchronization fails
+	 */
+	@Test
+	public void testIncrementalSynchronization() throws SQLException {
+		addBatch(1, "BI1", "reviewer1", "validator1");
+		addProcess(1, "BI1", 0, 10);
+		addModule(11, 1, "Review_Document_Module", 1, 4);
+		addModule(12, 1, "Validate_Document_Module", 5, 9);
+		// still running
+		addProcess(2, "BI2", 20, -1);
+		ReportDataSynchronizer synchronizer = createSynchronizer(500, new BatchWorkflowSyncStep(), new ModuleSyncStep());
+
+		assertEquals(3L, synchronizer.synchronize(source, target));
+		assertEquals(1, count("WORKFLOW_TYPE = 'WORKFLOW' AND WORKFLOW_NAME = 'BC1Workflow' AND BATCH_CLASS_ID = 'BC1'"));
+		assertEquals(1, count("WORKFLOW_TYPE = 'MODULE' AND WORKFLOW_NAME = 'Review_Document_Module' AND USER_NAME = 'reviewer1'"));
+		assertEquals(1, count("WORKFLOW_TYPE = 'MODULE' AND WORKFLOW_NAME = 'Validate_Document_Module'"
+				+ " AND USER_NAME = 'validator1' AND BATCH_INSTANCE_ID = 'BI1'"));
+
+		assertEquals(0L, synchronizer.synchronize(source, target));
+
+		addBatch(2, "BI2", null, null);
+		execute(source, "UPDATE jbpm4_hist_procinst SET END_ = " + timestamp(30) + " WHERE DBID_ = 2");
+		assertEquals(1L, synchronizer.synchronize(source, target));
+		assertEquals(4, count("1 = 1"));
+		assertEquals(1, count("BATCH_INSTANCE_ID = 'BI2'"));
+	}
+
+	/**
+	 * This method tests that the history is copied in chunks and that rows ended within the lag are left for the next run.
+	 * 
+	 * @throws SQLException if the synchronization fails
+	 */
+	@Test
+	public void testChunkedSynchronization() throws SQLException {
+		for (int index = 1; index <= 5; index++) {
+			addBatch(index, "BI" + index, null, null);
+			// two batches end at the same time, so the source id breaks the tie
+			addProcess(index, "BI" + index, index, index < 3 ? 10 : 10 + index);
+		}
+		addBatch(6, "BI6", null, null);
+		execute(source, "INSERT INTO jbpm4_hist_procinst VALUES (6, 'BC1Workflow.6', 'BC1Workflow-1', 'BI6', " + timestamp(30)
+				+ ", CURRENT_TIMESTAMP(), 1)");
+		ReportDataSynchronizer synchronizer = createSynchronizer(2, new BatchWorkflowSyncStep());
+
+		assertEquals(5L, synchronizer.synchronize(source, target));
+		ReportSyncProgress progress = synchronizer.getProgress();
+		assertEquals(SyncStatus.COMPLETED, progress.getStatus());
+		assertEquals(5L, progress.getRowsCopied());
+		assertEquals(3, progress.getChunksCommitted());
+		assertNull(progress.getErrorMessage());
+		assertEquals(5, count("1 = 1"));
+		assertEquals(0, count("BATCH_INSTANCE_ID = 'BI6'"));
+		assertEquals(5L, queryLong(target, "SELECT MAX(id) FROM report_data"));
+	}
+
+	/**
+	 * This method tests that a reporting database filled by an earlier load is continued instead of reloaded.
+	 * 
+	 * @throws SQLException if the synchronization fails
+	 */
+	@Test
+	public void testResumeAfterEarlierLoad() throws SQLException {
+		addBatch(1, "BI1", null, null);
+		addBatch(2, "BI2", null, null);
+		addProcess(1, "BI1", 0, 10);
+		addProcess(2, "BI2", 0, 20);
+		execute(target, "INSERT INTO report_data (id, DBID_, END_TIME, WORKFLOW_TYPE, BATCH_INSTANCE_ID) VALUES (7, 1, "
+				+ timestamp(10) + ", 'WORKFLOW', 'BI1')");
+		ReportDataSynchronizer synchronizer = createSynchronizer(500, new BatchWorkflowSyncStep());
+
+		assertEquals(1L, synchronizer.synchronize(source, target));
+		assertEquals(1, count("BATCH_INSTANCE_ID = 'BI1'"));
+		assertEquals(1, count("BATCH_INSTANCE_ID = 'BI2' AND id = 8"));
+	}
+
+	/**
+	 * This method tests that a chunk is given up without copying a row when another run stores the mark of the step between reading
+	 * and locking it, and that the next run continues from the mark of the other run.
+	 * 
+	 * @throws SQLException if the synchronization fails
+	 */
+	@Test
+	public void testMarkStoredByAnotherRun() throws SQLException {
+		addBatch(1, "BI1", null, null);
+		addBatch(2, "BI2", null, null);
+		addProcess(1, "BI1", 0, 10);
+		addProcess(2, "BI2", 0, 20);
+		final Connection otherRun = DriverManager.getConnection("jdbc:h2:mem:report_target_" + databaseCount, "sa", "");
+		try {
+			final long otherEndTime = baseTime + 10 * 60000L;
+			ReportSyncStep syncStep = new BatchWorkflowSyncStep() {
+
+				@Override
+				public String getSeedQuery() {
+					try {
+						execute(otherRun, "INSERT INTO report_sync_state VALUES ('batch_workflow', " + otherEndTime + ", 1, 1, 0)");
+					} catch (SQLException e) {
+						throw new IllegalStateException(e);
+					}
+					return super.getSeedQuery();
+				}
+			};
+
+			assertEquals(0L, createSynchronizer(500, syncStep).synchronize(source, target));
+			assertEquals(0, count("1 = 1"));
+			assertEquals(otherEndTime,
+					queryLong(target, "SELECT LAST_END_TIME FROM report_sync_state WHERE STEP_NAME = 'batch_workflow'"));
+
+			assertEquals(1L, createSynchronizer(500, new BatchWorkflowSyncStep()).synchronize(source, target));
+			assertEquals(1, count("BATCH_INSTANCE_ID = 'BI2' AND id = 1"));
+		} finally {
+			otherRun.close();
+		}
+	}
+
+	/**
+	 * This method tests that a failing chunk is rolled back together with its mark and its ids, and that the next run copies the
+	 * rows of that chunk once with the ids following the committed chunks.
+	 * 
+	 * @throws SQLException if the synchronization fails
+	 */
+	@Test
+	public void testFailedChunkIsRolledBack() throws SQLException {
+		for (int index = 1; index <= 5; index++) {
+			addBatch(index, "BI" + index, null, null);
+			addProcess(index, "BI" + index, 0, 10 + index);
+		}
+		ReportSyncStep failingStep = new BatchWorkflowSyncStep() {
+
+			@Override
+			public void bindTargetRow(ResultSet source, PreparedStatement insert, long targetId) throws SQLException {
+				if ("BI4".equals(source.getString("BATCH_INSTANCE_ID"))) {
+					throw new SQLException("Simulated failure");
+				}
+				super.bindTargetRow(source, insert, targetId);
+			}
+		};
+		ReportDataSynchronizer synchronizer = createSynchronizer(2, failingStep);
+
+		try {
+			synchronizer.synchronize(source, target);
+			fail("The failing chunk should have been reported.");
+		} catch (SQLException e) {
+			assertEquals("Simulated failure", e.getMessage());
+		}
+		assertEquals(SyncStatus.FAILED, synchronizer.getProgress().getStatus());
+		assertEquals(2, count("1 = 1"));
+		assertEquals(2L, queryLong(target, "SELECT LAST_SOURCE_ID FROM report_sync_state WHERE STEP_NAME = 'batch_workflow'"));
+		assertEquals(2L, queryLong(target, "SELECT LAST_SOURCE_ID FROM report_sync_state WHERE STEP_NAME = 'id:report_data'"));
+
+		assertEquals(3L, createSynchronizer(2, new BatchWorkflowSyncStep()).synchronize(source, target));
+		assertEquals(5, count("1 = 1"));
+		assertEquals(1, count("BATCH_INSTANCE_ID = 'BI3' AND id = 3"));
+		assertEquals(1, count("BATCH_INSTANCE_ID = 'BI5' AND id = 5"));
+		assertEquals(5L, queryLong(target, "SELECT LAST_SOURCE_ID FROM report_sync_state WHERE STEP_NAME = 'id:report_data'"));
+	}
+
+	/**
+	 * This method tests that steps writing the same table take their ids from one allocator.
+	 * 
+	 * @throws SQLException if the synchronization fails
+	 */
+	@Test
+	public void testStepsShareIdAllocator() throws SQLException {
+		addBatch(1, "BI1", "reviewer1", null);
+		addProcess(1, "BI1", 0, 10);
+		addModule(11, 1, "Review_Document_Module", 1, 4);
+
+		assertEquals(1L, createSynchronizer(500, new ModuleSyncStep()).synchronize(source, target));
+		assertEquals(1L, createSynchronizer(500, new BatchWorkflowSyncStep()).synchronize(source, target));
+		assertEquals(1, count("WORKFLOW_TYPE = 'MODULE' AND id = 1"));
+		assertEquals(1, count("WORKFLOW_TYPE = 'WORKFLOW' AND id = 2"));
+		assertEquals(2L, queryLong(target, "SELECT ROWS_COPIED FROM report_sync_state WHERE STEP_NAME = 'id:report_data'"));
+	}
+
+	private ReportDataSynchronizer createSynchronizer(int chunkSize, ReportSyncStep... syncSteps) {
+		ReportDataSynchronizer synchronizer = new ReportDataSynchronizer();
+		List<ReportSyncStep> stepList = new ArrayList<ReportSyncStep>();
+		for (ReportSyncStep syncStep : syncSteps) {
+			stepList.add(syncStep);
+		}
+		synchronizer.setSyncSteps(stepList);
+		synchronizer.setChunkSize(chunkSize);
+		return synchronizer;
+	}
+
+	private void addBatch(long identifier, String batchInstanceId, String reviewer, String validator) throws SQLException {
+		PreparedStatement statement = source.prepareStatement("INSERT INTO batch_instance VALUES (?, ?, 1, ?, ?)");
+		try {
+			statement.setLong(1, identifier);
+			statement.setString(2, batchInstanceId);
+			statement.setString(3, reviewer);
+			statement.setString(4, validator);
+			statement.executeUpdate();
+		} finally {
+			statement.close();
+		}
+	}
+
+	private void addProcess(long dbId, String key, int startMinute, int endMinute) throws SQLException {
+		execute(source, "INSERT INTO jbpm4_hist_procinst VALUES (" + dbId + ", 'BC1Workflow." + dbId + "', 'BC1Workflow-1', '" + key
+				+ "', " + timestamp(startMinute) + ", " + (endMinute < 0 ? "NULL" : timestamp(endMinute)) + ", "
+				+ (endMinute - startMinute) * 60000L + ")");
+	}
+
+	private void addModule(long dbId, long processDbId, String moduleName, int startMinute, int endMinute) throws SQLException {
+		execute(source, "INSERT INTO jbpm4_hist_actinst VALUES (" + dbId + ", " + processDbId + ", '" + moduleName + "', "
+				+ timestamp(startMinute) + ", " + timestamp(endMinute) + ", " + (endMinute - startMinute) * 60000L + ")");
+	}
+
+	private String timestamp(int minute) {
+		return "TIMESTAMP '" + new Timestamp(baseTime + minute * 60000L) + "'";
+	}
+
+	private int count(String condition) throws SQLException {
+		return (int) queryLong(target, "SELECT COUNT(*) FROM report_data WHERE " + condition);
+	}
+
+	private long queryLong(Connection connection, String query) throws SQLException {
+		Statement statement = connection.createStatement();
+		try {
+			ResultSet resultSet = statement.executeQuery(query);
+			resultSet.next();
+			return resultSet.getLong(1);
+		} finally {
+			statement.close();
+		}
+	}
+
+	private void execute(Connection connection, String sql) throws SQLException {
+		Statement statement = connection.createStatement();
+		try {
+			statement.executeUpdate(sql);
+		} finally {
+			statement.close();
+		}
+	}
+
+}
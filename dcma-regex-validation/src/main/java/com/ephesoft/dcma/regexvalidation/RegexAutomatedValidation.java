@@ -54,6 +54,7 @@ import com.ephesoft.dcma.batch.schema.Row;
 import com.ephesoft.dcma.batch.schema.Document.DocumentLevelFields;
 import com.ephesoft.dcma.batch.service.BatchSchemaService;
 import com.ephesoft.dcma.batch.service.PluginPropertiesService;
+import com.ephesoft.dcma.common.PatternCache;
 import com.ephesoft.dcma.core.exception.DCMAApplicationException;
 import com.ephesoft.dcma.da.domain.FieldType;
 import com.ephesoft.dcma.da.domain.RegexValidation;
@@ -361,9 +362,8 @@ public class RegexAutomatedValidation {
 				throw new DCMAApplicationException(errMsg);
 			}
 
-			// Compile and use regular
-			// expression
-			Pattern pattern = Pattern.compile(patternStr);
+			// Get the compiled regular expression and use it
+			Pattern pattern = PatternCache.getPattern(patternStr);
 			Matcher matcher = pattern.matcher(inputStr);
 			// boolean matchFound = matcher.find();
 			whileLoop: while (matcher.find()) {
@@ -40,7 +40,6 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
 import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -62,6 +61,7 @@ import com.ephesoft.dcma.batch.schema.HocrPages.HocrPage.Spans;
 import com.ephesoft.dcma.batch.schema.HocrPages.HocrPage.Spans.Span;
 import com.ephesoft.dcma.batch.service.BatchSchemaService;
 import com.ephesoft.dcma.batch.service.PluginPropertiesService;
+import com.ephesoft.dcma.common.PatternCache;
 import com.ephesoft.dcma.core.exception.DCMAApplicationException;
 import com.ephesoft.dcma.da.domain.FieldType;
 import com.ephesoft.dcma.da.service.FieldTypeService;
@@ -339,9 +339,19 @@ public class Extraction {
 
 			LOGGER.info("FieldType data found from data base for document type : " + docTypeName);
 
-			for (com.ephesoft.dcma.da.domain.FieldType fdType : allFdTypes) {
+			// Only the first page of the document is searched. The page is read once and all the field patterns of the document
+			// type are applied to it in a single pass over its spans.
+			String pageID = null;
+			List<List<DataCarrier>> fieldDataList = null;
+			if (!pageList.isEmpty()) {
+				pageID = pageList.get(RegexConstants.ZERO).getIdentifier();
+				HocrPages hocrPages = batchSchemaService.getHocrPages(batchInstanceId, pageID);
+				fieldDataList = findFieldData(confidenceScore, getFieldPatterns(allFdTypes), hocrPages);
+			}
+
+			for (int fieldIndex = RegexConstants.ZERO; fieldIndex < allFdTypes.size(); fieldIndex++) {
+				com.ephesoft.dcma.da.domain.FieldType fdType = allFdTypes.get(fieldIndex);
 				String key = fdType.getName();
-				String pattern = fdType.getPattern();
 				int fieldOrderNumber = fdType.getFieldOrderNumber();
 				String fdTypeName = null;
 
@@ -357,16 +367,8 @@ public class Extraction {
 
 				setFirstFieldValue(true);
 
-				for (Page pageType : pageList) {
-					String pageID = pageType.getIdentifier();
-					if (pageType.getIdentifier().equals(pageID)) {
-
-						HocrPages hocrPages = batchSchemaService.getHocrPages(batchInstanceId, pageID);
-						extractFieldsFromHOCR(confidenceScore, pattern, fdTypeName, updtDocFdType, alternateValues, pageID, hocrPages);
-						break;
-					} else {
-						continue;
-					}
+				if (fieldDataList != null) {
+					processFoundData(fieldDataList.get(fieldIndex), fdTypeName, updtDocFdType, alternateValues, pageID);
 				}
 
 				sortDocFdWithConfidence(updtDocFdType);
@@ -392,16 +394,59 @@ public class Extraction {
 		return isSuccessful;
 	}
 
-	private void extractFieldsFromHOCR(final String confidenceScore, final String pattern, final String fdTypeName,
-			final DocField updtDocFdType, final AlternateValues alternateValues, final String pageID, final HocrPages hocrPages)
-			throws DCMAApplicationException {
-		LOGGER.info("Entering method extractFieldsFromHOCR....");
+	/**
+	 * This method updates the document level field with the data found for it on the page.
+	 * 
+	 * @param foundData List<DataCarrier>
+	 * @param fdTypeName String
+	 * @param updtDocFdType DocField
+	 * @param alternateValues AlternateValues
+	 * @param pageID String
+	 * @throws DCMAApplicationException Check for input parameters and process the document page.
+	 */
+	private void processFoundData(final List<DataCarrier> foundData, final String fdTypeName, final DocField updtDocFdType,
+			final AlternateValues alternateValues, final String pageID) throws DCMAApplicationException {
+		if (foundData != null && foundData.size() > RegexConstants.ZERO) {
+			processPageType(updtDocFdType, foundData, pageID, alternateValues, fdTypeName);
+		}
+	}
+
+	/**
+	 * This method creates the field patterns for the field types, in the order of the field types.
+	 * 
+	 * @param allFdTypes List<FieldType>
+	 * @return List<FieldPattern>
+	 */
+	private List<FieldPattern> getFieldPatterns(final List<FieldType> allFdTypes) {
+		final List<FieldPattern> fieldPatterns = new ArrayList<FieldPattern>(allFdTypes.size());
+		for (FieldType fdType : allFdTypes) {
+			fieldPatterns.add(new FieldPattern(fdType.getPattern()));
+		}
+		return fieldPatterns;
+	}
+
+	/**
+	 * This method applies all the field patterns to the first hocr page in one pass over its spans and returns the data found for
+	 * each field pattern, in the order of the field patterns.
+	 * 
+	 * @param confidenceScore String
+	 * @param fieldPatterns List<FieldPattern>
+	 * @param hocrPages HocrPages
+	 * @return List<List<DataCarrier>>
+	 */
+	private List<List<DataCarrier>> findFieldData(final String confidenceScore, final List<FieldPattern> fieldPatterns,
+			final HocrPages hocrPages) {
+		LOGGER.info("Entering method findFieldData....");
 		List<HocrPage> hocrPageList = hocrPages.getHocrPage();
 		HocrPage hocrPage = hocrPageList.get(RegexConstants.ZERO);
 
-		LOGGER.debug("HocrPage page ID : " + pageID);
+		LOGGER.debug("HocrPage page ID : " + hocrPage.getPageID());
 
-		List<DataCarrier> foundData = new ArrayList<DataCarrier>();
+		final int fieldCount = fieldPatterns.size();
+		List<List<DataCarrier>> fieldDataList = new ArrayList<List<DataCarrier>>(fieldCount);
+		for (int fieldIndex = RegexConstants.ZERO; fieldIndex < fieldCount; fieldIndex++) {
+			fieldDataList.add(new ArrayList<DataCarrier>());
+		}
 
 		Spans spans = hocrPage.getSpans();
 
@@ -411,31 +456,33 @@ public class Extraction {
 
 			int index = RegexConstants.ZERO;
 			for (Span span : spanList) {
-				try {
-					LOGGER.debug("Span value : " + span.getValue());
-					if (pattern.contains(RegexConstants.SEMI_COLON)) {
-						String[] patternArr = pattern.split(RegexConstants.SEMI_COLON);
-						List<DataCarrier> localFoundData = new ArrayList<DataCarrier>();
-						findPattern(span, patternArr[patternArr.length - RegexConstants.ONE], localFoundData, confidenceScore);
-						if (null != localFoundData && !localFoundData.isEmpty()) {
-							verifyFoundValue(spanList, index, patternArr, localFoundData);
-							foundData.addAll(localFoundData);
+				LOGGER.debug("Span value : " + span.getValue());
+				for (int fieldIndex = RegexConstants.ZERO; fieldIndex < fieldCount; fieldIndex++) {
+					FieldPattern fieldPattern = fieldPatterns.get(fieldIndex);
+					List<DataCarrier> foundData = fieldDataList.get(fieldIndex);
+					try {
+						String[] patternArr = fieldPattern.getPatternArr();
+						if (patternArr != null) {
+							List<DataCarrier> localFoundData = new ArrayList<DataCarrier>();
+							findPattern(span, fieldPattern, patternArr[patternArr.length - RegexConstants.ONE], localFoundData,
+									confidenceScore);
+							if (null != localFoundData && !localFoundData.isEmpty()) {
+								verifyFoundValue(spanList, index, patternArr, localFoundData);
+								foundData.addAll(localFoundData);
+							}
+						} else {
+							findPattern(span, fieldPattern, fieldPattern.getPattern(), foundData, confidenceScore);
 						}
-					} else {
-						findPattern(span, pattern, foundData, confidenceScore);
+					} catch (Exception e) {
+						LOGGER.error(e.getMessage());
 					}
-				} catch (Exception e) {
-					LOGGER.error(e.getMessage());
 				}
 				index++;
 			}
 
 		}
-
-		if (foundData != null && foundData.size() > RegexConstants.ZERO ) {
-			processPageType(updtDocFdType, foundData, pageID, alternateValues, fdTypeName);
-		}
-		LOGGER.info("Exiting method extractFieldsFromHOCR....");
+		LOGGER.info("Exiting method findFieldData....");
+		return fieldDataList;
 	}
 
 	/**
@@ -462,7 +509,10 @@ public class Extraction {
 			LOGGER.error("No document level fields for document type : " + docTypeName);
 		} else {
 			updtDocFdTyList = new ArrayList<DocField>();
-			for (com.ephesoft.dcma.da.domain.FieldType fdType : allFdTypes) {
+			String pageID = hocrPages.getHocrPage().get(0).getPageID();
+			List<List<DataCarrier>> fieldDataList = findFieldData(confidenceScore, getFieldPatterns(allFdTypes), hocrPages);
+			for (int fieldIndex = RegexConstants.ZERO; fieldIndex < allFdTypes.size(); fieldIndex++) {
+				com.ephesoft.dcma.da.domain.FieldType fdType = allFdTypes.get(fieldIndex);
 				String key = fdType.getName();
 				String pattern = fdType.getPattern();
 				int fieldOrderNumber = fdType.getFieldOrderNumber();
@@ -482,9 +532,8 @@ public class Extraction {
 				final AlternateValues alternateValues = new AlternateValues();
 
 				setFirstFieldValue(true);
-				String pageID = hocrPages.getHocrPage().get(0).getPageID();
 
-				extractFieldsFromHOCR(confidenceScore, pattern, fdTypeName, updtDocFdType, alternateValues, pageID, hocrPages);
+				processFoundData(fieldDataList.get(fieldIndex), fdTypeName, updtDocFdType, alternateValues, pageID);
 
 				if (!isFirstFieldValue()) {
 					updtDocFdTyList.add(updtDocFdType);
@@ -667,13 +716,14 @@ public class Extraction {
 	 * Method is responsible for finding the patterns and returned the found data List.
 	 * 
 	 * @param span Span
+	 * @param fieldPattern FieldPattern
 	 * @param patternStr String
-	 * @param confidenceScore String
 	 * @param foundData List<DataCarrier>
+	 * @param confidenceScore String
 	 * @throws DCMAApplicationException Check for all the input parameters and find the pattern.
 	 */
-	private void findPattern(Span span, String patternStr, List<DataCarrier> foundData, String confidenceScore)
-			throws DCMAApplicationException {
+	private void findPattern(Span span, FieldPattern fieldPattern, String patternStr, List<DataCarrier> foundData,
+			String confidenceScore) throws DCMAApplicationException {
 
 		String errMsg = null;
 		CharSequence inputStr = span.getValue();
@@ -691,10 +741,8 @@ public class Extraction {
 				throw new DCMAApplicationException(errMsg);
 			}
 
-			// Compile and use regular
-			// expression
-			Pattern pattern = Pattern.compile(patternStr);
-			Matcher matcher = pattern.matcher(inputStr);
+			// Reuse the compiled regular expression and matcher of the field.
+			Matcher matcher = fieldPattern.getMatcher(patternStr, inputStr);
 			// boolean matchFound = matcher.find();
 			while (matcher.find()) {
 				// Get all groups for this match
@@ -727,6 +775,85 @@ public class Extraction {
 
 	}
 
+	/**
+	 * Pattern of a field type, split and compiled once per extraction instead of once per span. Not thread safe, the matcher is
+	 * reused for all the spans of the page.
+	 * 
+	 * @author Ephesoft
+	 * @version 1.0
+	 */
+	private static final class FieldPattern {
+
+		/**
+		 * pattern String.
+		 */
+		private final String pattern;
+
+		/**
+		 * Parts of the pattern separated by semicolon, null if the pattern contains none.
+		 */
+		private final String[] patternArr;
+
+		/**
+		 * matcher Matcher.
+		 */
+		private Matcher matcher;
+
+		/**
+		 * Regular expression the matcher was created for.
+		 */
+		private String matcherPatternStr;
+
+		/**
+		 * Constructor.
+		 * 
+		 * @param pattern String
+		 */
+		FieldPattern(final String pattern) {
+			this.pattern = pattern;
+			if (pattern != null && pattern.contains(RegexConstants.SEMI_COLON)) {
+				this.patternArr = pattern.split(RegexConstants.SEMI_COLON);
+			} else {
+				this.patternArr = null;
+			}
+		}
+
+		/**
+		 * To get pattern.
+		 * 
+		 * @return the pattern
+		 */
+		String getPattern() {
+			return pattern;
+		}
+
+		/**
+		 * To get the parts of the pattern separated by semicolon.
+		 * 
+		 * @return String[], null if the pattern contains no semicolon
+		 */
+		String[] getPatternArr() {
+			return patternArr;
+		}
+
+		/**
+		 * To get the matcher of the regular expression reset to the input.
+		 * 
+		 * @param patternStr String
+		 * @param inputStr CharSequence
+		 * @return Matcher
+		 */
+		Matcher getMatcher(final String patternStr, final CharSequence inputStr) {
+			if (matcher == null || !patternStr.equals(matcherPatternStr)) {
+				matcher = PatternCache.getPattern(patternStr).matcher(inputStr);
+				matcherPatternStr = patternStr;
+			} else {
+				matcher.reset(inputStr);
+			}
+			return matcher;
+		}
+	}
+
 	/**
 	 * This is data carrier class that compares two objects.
 	 * 
@@ -56,6 +56,7 @@ import com.ephesoft.dcma.core.exception.DCMAApplicationException;
 import com.ephesoft.dcma.da.domain.BatchInstance;
 import com.ephesoft.dcma.da.service.BatchClassPluginConfigService;
 import com.ephesoft.dcma.da.service.BatchInstanceService;
+import com.ephesoft.dcma.script.compiler.CompiledScriptCache;
 import com.ephesoft.dcma.script.compiler.DynamicCodeCompiler;
 import com.ephesoft.dcma.script.constant.ScriptConstants;
 import com.ephesoft.dcma.util.FileUtils;
@@ -93,6 +94,11 @@ public class ScriptExecutor {
 	 */
 	private String updateBatchInstFromBatch;
 
+	/**
+	 * Compiled scripts of each batch class, reused until a script source changes.
+	 */
+	private final CompiledScriptCache compiledScriptCache = new CompiledScriptCache();
+
 	/**
 	 * Getter for updateBatchInstFromBatch.
 	 * 
@@ -260,15 +266,20 @@ public class ScriptExecutor {
 
 			final String pathToComplile = mainFolderPath + File.separator + batch.getBatchClassIdentifier() + File.separator
 					+ batchSchemaService.getScriptFolderName();
-			final DynamicCodeCompiler dynacode = new DynamicCodeCompiler();
-			dynacode.addSourceDir(new File(pathToComplile));
+			final DynamicCodeCompiler dynacode = compiledScriptCache.getCompiler(new File(pathToComplile));
 
-			if (ScriptConstants.JDOM_PARSER_TYPE.equalsIgnoreCase(getParserType())) {
-				scriptExecutionUsingIJomScript(batchInstanceId, pluginScriptName, docIdentifier, scriptVariableName, isZipSwitchOn,
-						localFolderPath, dynacode);
-			} else {
-				scriptExecutionUsingIScript(batchInstanceId, pluginScriptName, docIdentifier, scriptVariableName, isZipSwitchOn,
-						localFolderPath, dynacode);
+			try {
+				// the scripts read the batch xml straight from disk.
+				batchSchemaService.writeBatchXml(batchInstanceId);
+				if (ScriptConstants.JDOM_PARSER_TYPE.equalsIgnoreCase(getParserType())) {
+					scriptExecutionUsingIJomScript(batchInstanceId, pluginScriptName, docIdentifier, scriptVariableName,
+							isZipSwitchOn, localFolderPath, dynacode);
+				} else {
+					scriptExecutionUsingIScript(batchInstanceId, pluginScriptName, docIdentifier, scriptVariableName, isZipSwitchOn,
+							localFolderPath, dynacode);
+				}
+			} finally {
+				compiledScriptCache.releaseCompiler(dynacode);
 			}
 			if (ScriptConstants.ON_STRING.equalsIgnoreCase(getUpdateBatchInstFromBatch())) {
 				Batch updatedBatch = batchSchemaService.getBatch(batchInstanceId);
@@ -0,0 +1,283 @@
+/********************************************************************************* 
+* Ephesoft is a Intelligent Document Capture and Mailroom Automation program 
+* developed by Ephesoft, Inc. Copyright (C) 2010-2012 Ephesoft Inc. 
+* 
+* This program is free software; you can redistribute it and/or modify it under 
+* the terms of the GNU Affero General Public License version 3 as published by the 
+* Free Software Foundation with the addition of the following permission added 
+* to Section 15 as permitted in Section 7(a): FOR ANY PART OF THE COVERED WORK 
+* IN WHICH THE COPYRIGHT IS OWNED BY EPHESOFT, EPHESOFT DISCLAIMS THE WARRANTY 
+* OF NON INFRINGEMENT OF THIRD PARTY RIGHTS. 
+* 
+* This program is distributed in the hope that it will be useful, but WITHOUT 
+* ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+* FOR A PARTICULAR PURPOSE.  See the GNU Affero General Public License for more 
+* details. 
+* 
+* You should have received a copy of the GNU Affero General Public License along with 
+* this program; if not, see http://www.gnu.org/licenses or write to the Free 
+* Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 
+* 02110-1301 USA. 
+* 
+* You can contact Ephesoft, Inc. headquarters at 111 Academy Way, 
+* Irvine, CA 92617, USA. or at email address info@ephesoft.com. 
+* 
+* The interactive user interfaces in modified source and object code versions 
+* of this program must display Appropriate Legal Notices, as required under 
+* Section 5 of the GNU Affero General Public License version 3. 
+* 
+* In accordance with Section 7(b) of the GNU Affero General Public License version 3, 
+* these Appropriate Legal Notices must retain the display of the "Ephesoft" logo. 
+* If the display of the logo is not reasonably feasible for 
+* technical reasons, the Appropriate Legal Notices must display the words 
+* "Powered by Ephesoft". 
+********************************************************************************/ 
+
+package com.ephesoft.dcma.script.compiler;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.ephesoft.dcma.core.common.DCMABusinessException;
+import com.ephesoft.dcma.script.constant.ScriptConstants;
+
+/**
+ * This class keeps one {@link DynamicCodeCompiler} per script folder, so that the scripts of a batch class are compiled and loaded
+ * once and reused by every batch. A compiler is replaced, together with its class loaders, only when the content of the script
+ * sources changes. Every compiler got from {@link #getCompiler(File)} is given back with {@link #releaseCompiler(DynamicCodeCompiler)}
+ * once the script run is over, and the bin directory of a replaced compiler is deleted when its last run gives it back.
+ * 
+ * @author Ephesoft
+ * @version 1.0
+ * @see com.ephesoft.dcma.script.ScriptExecutor
+ */
+public final class CompiledScriptCache {
+
+	/**
+	 * LOGGER to print the logging information.
+	 */
+	private static final Logger LOGGER = LoggerFactory.getLogger(CompiledScriptCache.class);
+
+	/**
+	 * DIGEST_ALGORITHM String.
+	 */
+	private static final String DIGEST_ALGORITHM = "MD5";
+
+	/**
+	 * BUFFER_SIZE int.
+	 */
+	private static final int BUFFER_SIZE = 8192;
+
+	/**
+	 * Map of canonical script folder path to the scripts compiled from it.
+	 */
+	private final Map<String, CompiledScripts> compiledScriptsMap = new HashMap<String, CompiledScripts>();
+
+	/**
+	 * Replaced scripts still in use by a script run.
+	 */
+	private final List<CompiledScripts> retiredScripts = new ArrayList<CompiledScripts>();
+
+	/**
+	 * To get the compiler holding the up-to-date classes of the scripts in a folder, to be given back by
+	 * {@link #releaseCompiler(DynamicCodeCompiler)}.
+	 * 
+	 * @param scriptFolder {@link File}
+	 * @return {@link DynamicCodeCompiler}
+	 */
+	public synchronized DynamicCodeCompiler getCompiler(final File scriptFolder) {
+		final File sourceFolder = getCanonicalFile(scriptFolder);
+		final String folderPath = sourceFolder.getAbsolutePath();
+		final List<File> sourceFiles = new ArrayList<File>();
+		collectSourceFiles(sourceFolder, sourceFiles);
+		Collections.sort(sourceFiles);
+		final String fingerprint = getFingerprint(sourceFiles);
+		CompiledScripts compiledScripts = compiledScriptsMap.get(folderPath);
+		if (compiledScripts == null || !compiledScripts.fingerprint.equals(fingerprint)) {
+			// time stamps alone do not tell whether a script really changed, the content does
+			final String contentHash = getContentHash(sourceFolder, sourceFiles);
+			if (compiledScripts != null && compiledScripts.contentHash.equals(contentHash)) {
+				compiledScripts.fingerprint = fingerprint;
+			} else {
+				LOGGER.info("Loading scripts of " + folderPath + " for content " + contentHash);
+				if (compiledScripts != null) {
+					retire(compiledScripts);
+				}
+				retireRemovedFolders();
+				final DynamicCodeCompiler compiler = new DynamicCodeCompiler();
+				compiler.addSourceDir(sourceFolder, contentHash);
+				compiledScripts = new CompiledScripts(fingerprint, contentHash, compiler);
+				compiledScriptsMap.put(folderPath, compiledScripts);
+			}
+		}
+		compiledScripts.users++;
+		return compiledScripts.compiler;
+	}
+
+	/**
+	 * To give back a compiler got from {@link #getCompiler(File)} once the script run is over.
+	 * 
+	 * @param compiler {@link DynamicCodeCompiler}
+	 */
+	public synchronized void releaseCompiler(final DynamicCodeCompiler compiler) {
+		for (final CompiledScripts compiledScripts : compiledScriptsMap.values()) {
+			if (compiledScripts.compiler == compiler) {
+				compiledScripts.users--;
+				return;
+			}
+		}
+		final Iterator<CompiledScripts> iterator = retiredScripts.iterator();
+		while (iterator.hasNext()) {
+			final CompiledScripts compiledScripts = iterator.next();
+			if (compiledScripts.compiler == compiler) {
+				compiledScripts.users--;
+				if (compiledScripts.users <= 0) {
+					iterator.remove();
+					compiler.deleteVersionedBinDirs();
+				}
+				return;
+			}
+		}
+	}
+
+	private void retire(final CompiledScripts compiledScripts) {
+		if (compiledScripts.users > 0) {
+			retiredScripts.add(compiledScripts);
+		} else {
+			compiledScripts.compiler.deleteVersionedBinDirs();
+		}
+	}
+
+	/**
+	 * To drop the scripts of folders which no longer exist, e.g. of deleted batch classes.
+	 */
+	private void retireRemovedFolders() {
+		final Iterator<Map.Entry<String, CompiledScripts>> iterator = compiledScriptsMap.entrySet().iterator();
+		while (iterator.hasNext()) {
+			final Map.Entry<String, CompiledScripts> entry = iterator.next();
+			if (!new File(entry.getKey()).exists()) {
+				iterator.remove();
+				retire(entry.getValue());
+			}
+		}
+	}
+
+	private File getCanonicalFile(final File file) {
+		File canonicalFile = file;
+		try {
+			canonicalFile = file.getCanonicalFile();
+		} catch (final IOException e) {
+			LOGGER.error(e.getMessage());
+		}
+		return canonicalFile;
+	}
+
+	private void collectSourceFiles(final File folder, final List<File> sourceFiles) {
+		final File[] files = folder.listFiles();
+		if (files != null) {
+			for (final File file : files) {
+				if (file.isDirectory()) {
+					collectSourceFiles(file, sourceFiles);
+				} else if (file.getName().endsWith(ScriptConstants.DOT_JAVA)) {
+					sourceFiles.add(file);
+				}
+			}
+		}
+	}
+
+	private String getFingerprint(final List<File> sourceFiles) {
+		final StringBuilder fingerprint = new StringBuilder();
+		for (final File sourceFile : sourceFiles) {
+			fingerprint.append(sourceFile.getPath()).append(ScriptConstants.COLON).append(sourceFile.length()).append(
+					ScriptConstants.COLON).append(sourceFile.lastModified()).append(ScriptConstants.SEMI_COLON);
+		}
+		return fingerprint.toString();
+	}
+
+	private String getContentHash(final File sourceFolder, final List<File> sourceFiles) {
+		final StringBuilder contentHash = new StringBuilder();
+		try {
+			final MessageDigest messageDigest = MessageDigest.getInstance(DIGEST_ALGORITHM);
+			final byte[] buffer = new byte[BUFFER_SIZE];
+			final int folderPathLength = sourceFolder.getPath().length();
+			for (final File sourceFile : sourceFiles) {
+				messageDigest.update(sourceFile.getPath().substring(folderPathLength).getBytes());
+				InputStream inputStream = null;
+				try {
+					inputStream = new FileInputStream(sourceFile);
+					int readCount = inputStream.read(buffer);
+					while (readCount != -1) {
+						messageDigest.update(buffer, 0, readCount);
+						readCount = inputStream.read(buffer);
+					}
+				} catch (final IOException e) {
+					// an unreadable file hashes as empty, the compiler reports the actual problem
+					LOGGER.error("Unable to read script " + sourceFile.getAbsolutePath(), e);
+				} finally {
+					if (inputStream != null) {
+						try {
+							inputStream.close();
+						} catch (final IOException e) {
+							LOGGER.error(e.getMessage(), e);
+						}
+					}
+				}
+			}
+			for (final byte digestByte : messageDigest.digest()) {
+				contentHash.append(Character.forDigit((digestByte >> 4) & 0xF, 16));
+				contentHash.append(Character.forDigit(digestByte & 0xF, 16));
+			}
+		} catch (final NoSuchAlgorithmException e) {
+			throw new DCMABusinessException("Digest algorithm " + DIGEST_ALGORITHM + " is not available.", e);
+		}
+		return contentHash.toString();
+	}
+
+	/**
+	 * Scripts of one folder as compiled for a given content.
+	 * 
+	 * @author Ephesoft
+	 * @version 1.0
+	 */
+	private static class CompiledScripts {
+
+		/**
+		 * Names, sizes and time stamps of the source files.
+		 */
+		private String fingerprint;
+
+		/**
+		 * Digest of the content of the source files.
+		 */
+		private final String contentHash;
+
+		/**
+		 * Compiler holding the class loaders of this content.
+		 */
+		private final DynamicCodeCompiler compiler;
+
+		/**
+		 * Number of script runs using the compiler.
+		 */
+		private int users;
+
+		CompiledScripts(final String fingerprint, final String contentHash, final DynamicCodeCompiler compiler) {
+			this.fingerprint = fingerprint;
+			this.contentHash = contentHash;
+			this.compiler = compiler;
+		}
+	}
+}
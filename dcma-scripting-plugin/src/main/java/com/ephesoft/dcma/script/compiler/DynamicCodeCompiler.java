@@ -59,6 +59,7 @@ import org.slf4j.LoggerFactory;
 import com.ephesoft.dcma.core.common.DCMABusinessException;
 import com.ephesoft.dcma.core.exception.DCMAApplicationException;
 import com.ephesoft.dcma.script.constant.ScriptConstants;
+import com.ephesoft.dcma.util.FileUtils;
 
 /**
  * This class will compile the scripts at run time and execute it.
@@ -129,6 +130,19 @@ public final class DynamicCodeCompiler {
 	 * @return true if the add is successful
 	 */
 	public boolean addSourceDir(final File srcDirectory) {
+		return addSourceDir(srcDirectory, null);
+	}
+
+	/**
+	 * Add a directory that contains the source of dynamic java code, compiling it into a bin directory of its own for the given
+	 * version of the sources. Classes compiled for another version are never picked up, and as the sources of a version do not change
+	 * the loaded classes are kept when only the time stamps of the sources change.
+	 * 
+	 * @param srcDirectory {@link File}
+	 * @param sourceVersion {@link String} identifies the content of the sources, null to share the bin directory of all versions
+	 * @return true if the add is successful
+	 */
+	public boolean addSourceDir(final File srcDirectory, final String sourceVersion) {
 		File srcDir = srcDirectory;
 		boolean isSourceDirAdded = true;
 		try {
@@ -148,7 +162,7 @@ public final class DynamicCodeCompiler {
 			}
 
 			// add new
-			final SourceDirectory src = new SourceDirectory(srcDir);
+			final SourceDirectory src = new SourceDirectory(srcDir, sourceVersion);
 			sourceDirectories.add(src);
 
 			LOGGER.info("Add source dir " + srcDir);
@@ -234,6 +248,22 @@ public final class DynamicCodeCompiler {
 		src.recreateClassLoader();
 	}
 
+	/**
+	 * Delete the bin directories of the source directories added with a source version. To be called only once no class of this
+	 * compiler is in use any more, as its class loaders load from these directories.
+	 */
+	public void deleteVersionedBinDirs() {
+		for (final SourceDirectory src : sourceDirectories) {
+			if (src.sourceVersion != null && src.binDir.exists()) {
+				LOGGER.info("Delete bin dir " + src.binDir);
+				FileUtils.deleteDirectoryAndContentsRecursive(src.binDir);
+				if (src.binDir.exists()) {
+					LOGGER.error("Unable to delete bin dir " + src.binDir);
+				}
+			}
+		}
+	}
+
 	/**
 	 * Get a resource from added source directories.
 	 * 
@@ -309,6 +339,11 @@ public final class DynamicCodeCompiler {
 		 */
 		final private File binDir;
 
+		/**
+		 * To store the version of the sources, null if the bin directory is shared by all versions.
+		 */
+		final private String sourceVersion;
+
 		/**
 		 * JavaCompiler type variable.
 		 */
@@ -323,13 +358,18 @@ public final class DynamicCodeCompiler {
 		 * Constructor.
 		 * 
 		 * @param srcDir File
+		 * @param sourceVersion String
 		 */
-		SourceDirectory(final File srcDir) {
+		SourceDirectory(final File srcDir, final String sourceVersion) {
 			this.srcDir = srcDir;
+			this.sourceVersion = sourceVersion;
 
-			final String subdir = srcDir.getAbsolutePath().replace(ScriptConstants.COLON, ScriptConstants.UNDERSCORE).replace(
+			String subdir = srcDir.getAbsolutePath().replace(ScriptConstants.COLON, ScriptConstants.UNDERSCORE).replace(
 					ScriptConstants.SLASH, ScriptConstants.UNDERSCORE).replace(ScriptConstants.DOUBLE_SLASH,
 					ScriptConstants.UNDERSCORE);
+			if (sourceVersion != null) {
+				subdir = subdir + ScriptConstants.UNDERSCORE + sourceVersion;
+			}
 			this.binDir = new File(System.getProperty("java.io.tmpdir"), "DynamicCodeCompiler/" + subdir);
 			this.binDir.mkdirs();
 
@@ -409,7 +449,8 @@ public final class DynamicCodeCompiler {
 		}
 
 		private boolean isChanged() {
-			return srcFile.lastModified() != lastModified;
+			// the sources of a version never change, a new version comes with a new compiler
+			return srcDir.sourceVersion == null && srcFile.lastModified() != lastModified;
 		}
 
 		private final void compileAndLoadClass() throws DCMAApplicationException {
@@ -418,9 +459,11 @@ public final class DynamicCodeCompiler {
 				return; // class already loaded
 			}
 
-			// compile, if required
+			// compile, if required. The bin directory of a version only holds classes compiled from that version.
 			String error = null;
-			if (binFile.lastModified() < srcFile.lastModified()) {
+			final boolean isCompiled = srcDir.sourceVersion == null ? binFile.lastModified() >= srcFile.lastModified() : binFile
+					.exists();
+			if (!isCompiled) {
 				if(srcFile.exists()) {
 					error = srcDir.javaCompiler.compile(new File[] {srcFile});
 				}
@@ -0,0 +1,208 @@
+/********************************************************************************* 
+* Ephesoft is a Intelligent Document Capture and Mailroom Automation program 
+* developed by Ephesoft, Inc. Copyright (C) 2010-2012 Ephesoft Inc. 
+* 
+* This program is free software; you can redistribute it and/or modify it under 
+* the terms of the GNU Affero General Public License version 3 as published by the 
+* Free Software Foundation with the addition of the following permission added 
+* to Section 15 as permitted in Section 7(a): FOR ANY PART OF THE COVERED WORK 
+* IN WHICH THE COPYRIGHT IS OWNED BY EPHESOFT, EPHESOFT DISCLAIMS THE WARRANTY 
+* OF NON INFRINGEMENT OF THIRD PARTY RIGHTS. 
+* 
+* This program is distributed in the hope that it will be useful, but WITHOUT 
+* ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+* FOR A PARTICULAR PURPOSE.  See the GNU Affero General Public License for more 
+* details. 
+* 
+* You should have received a copy of the GNU Affero General Public License along with 
+* this program; if not, see http://www.gnu.org/licenses or write to the Free 
+* Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 
+* 02110-1301 USA. 
+* 
+* You can contact Ephesoft, Inc. headquarters at 111 Academy Way, 
+* Irvine, CA 92617, USA. or at email address info@ephesoft.com. 
+* 
+* The interactive user interfaces in modified source and object code versions 
+* of this program must display Appropriate Legal Notices, as required under 
+* Section 5 of the GNU Affero General Public License version 3. 
+* 
+* In accordance with Section 7(b) of the GNU Affero General Public License version 3, 
+* these Appropriate Legal Notices must retain the display of the "Ephesoft" logo. 
+* If the display of the logo is not reasonably feasible for 
+* technical reasons, the Appropriate Legal Notices must display the words 
+* "Powered by Ephesoft". 
+********************************************************************************/ 
+
+
+package com.ephesoft.dcma.script.compiler;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileFilter;
+import java.io.FileWriter;
+import java.io.IOException;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.ephesoft.dcma.util.FileUtils;
+
+/**
+ * This is Junit test for CompiledScriptCache. It compiles a script folder and checks that the compiled classes are reused until the
+ * content of the scripts changes and that the bin directories of replaced compilers are deleted once they are given back.
+ * 
+ * @author Ephesoft
+ * @version 1.0
+ * @see com.ephesoft.dcma.script.compiler.CompiledScriptCache
+ */
+public class CompiledScriptCacheTest {
+
+	/**
+	 * Name of the test script class.
+	 */
+	private static final String SCRIPT_CLASS = "GreetingScript";
+
+	/**
+	 * Folder holding the script folders of the test.
+	 */
+	private File testFolder;
+
+	/**
+	 * Cache under test.
+	 */
+	private CompiledScriptCache cache;
+
+	/**
+	 * This method creates the test folder.
+	 * 
+	 * @throws IOException if the test folder cannot be created
+	 */
+	@Before
+	public void setUp() throws IOException {
+		testFolder = File.createTempFile("compiled-script-cache", "").getCanonicalFile();
+		testFolder.delete();
+		testFolder.mkdirs();
+		cache = new CompiledScriptCache();
+	}
+
+	/**
+	 * This method deletes the test folder and the bin directories of its scripts.
+	 */
+	@After
+	public void tearDown() {
+		for (File binDir : getBinDirs(testFolder)) {
+			FileUtils.deleteDirectoryAndContentsRecursive(binDir);
+		}
+		FileUtils.deleteDirectoryAndContentsRecursive(testFolder);
+	}
+
+	/**
+	 * This method tests that unchanged scripts keep their compiler and loaded class, even when only their time stamp changes.
+	 * 
+	 * @throws Exception if the script cannot be written or loaded
+	 */
+	@Test
+	public void testUnchangedScriptsAreReused() throws Exception {
+		File scriptFolder = new File(testFolder, "BC1");
+		File scriptFile = writeScript(scriptFolder, "hello");
+		DynamicCodeCompiler compiler = cache.getCompiler(scriptFolder);
+		Class<?> scriptClass = compiler.loadClass(SCRIPT_CLASS);
+		assertEquals("hello", scriptClass.newInstance().toString());
+		cache.releaseCompiler(compiler);
+
+		assertSame(compiler, cache.getCompiler(scriptFolder));
+		cache.releaseCompiler(compiler);
+
+		assertTrue(scriptFile.setLastModified(scriptFile.lastModified() + 10000L));
+		assertSame(compiler, cache.getCompiler(scriptFolder));
+		assertSame(scriptClass, compiler.loadClass(SCRIPT_CLASS));
+		cache.releaseCompiler(compiler);
+		assertEquals(1, getBinDirs(scriptFolder).length);
+	}
+
+	/**
+	 * This method tests that changed scripts get a new compiler and that the bin directory of the former one is deleted once its
+	 * last user gives it back.
+	 * 
+	 * @throws Exception if the script cannot be written or loaded
+	 */
+	@Test
+	public void testChangedScriptsReplaceCompiler() throws Exception {
+		File scriptFolder = new File(testFolder, "BC1");
+		writeScript(scriptFolder, "hello");
+		DynamicCodeCompiler oldCompiler = cache.getCompiler(scriptFolder);
+		assertEquals("hello", oldCompiler.loadClass(SCRIPT_CLASS).newInstance().toString());
+		File[] oldBinDirs = getBinDirs(scriptFolder);
+		assertEquals(1, oldBinDirs.length);
+
+		File scriptFile = writeScript(scriptFolder, "bonjour");
+		scriptFile.setLastModified(scriptFile.lastModified() + 10000L);
+		DynamicCodeCompiler newCompiler = cache.getCompiler(scriptFolder);
+		assertNotSame(oldCompiler, newCompiler);
+		assertEquals("bonjour", newCompiler.loadClass(SCRIPT_CLASS).newInstance().toString());
+		assertEquals(2, getBinDirs(scriptFolder).length);
+
+		// the former compiler is still in use by a script run
+		assertTrue(oldBinDirs[0].exists());
+		cache.releaseCompiler(oldCompiler);
+		assertFalse(oldBinDirs[0].exists());
+		cache.releaseCompiler(newCompiler);
+		assertEquals(1, getBinDirs(scriptFolder).length);
+	}
+
+	/**
+	 * This method tests that the compilers of removed script folders are dropped.
+	 * 
+	 * @throws Exception if the script cannot be written or loaded
+	 */
+	@Test
+	public void testRemovedFoldersAreDropped() throws Exception {
+		File removedFolder = new File(testFolder, "BC1");
+		writeScript(removedFolder, "hello");
+		DynamicCodeCompiler removedCompiler = cache.getCompiler(removedFolder);
+		removedCompiler.loadClass(SCRIPT_CLASS);
+		cache.releaseCompiler(removedCompiler);
+		assertEquals(1, getBinDirs(removedFolder).length);
+		FileUtils.deleteDirectoryAndContentsRecursive(removedFolder);
+
+		File scriptFolder = new File(testFolder, "BC2");
+		writeScript(scriptFolder, "hello");
+		DynamicCodeCompiler compiler = cache.getCompiler(scriptFolder);
+		cache.releaseCompiler(compiler);
+		assertEquals(0, getBinDirs(removedFolder).length);
+	}
+
+	private File writeScript(File scriptFolder, String greeting) throws IOException {
+		scriptFolder.mkdirs();
+		File scriptFile = new File(scriptFolder, SCRIPT_CLASS + ".java");
+		FileWriter writer = new FileWriter(scriptFile);
+		try {
+			writer.write("public class " + SCRIPT_CLASS + " {\n\tpublic String toString() {\n\t\treturn \"" + greeting
+					+ "\";\n\t}\n}\n");
+		} finally {
+			writer.close();
+		}
+		return scriptFile;
+	}
+
+	/**
+	 * To get the bin directories compiled for a script folder, named after its path as {@link DynamicCodeCompiler} names them.
+	 */
+	private File[] getBinDirs(File scriptFolder) {
+		final String prefix = scriptFolder.getAbsolutePath().replace(':', '_').replace('/', '_').replace('\\', '_') + "_";
+		File[] binDirs = new File(System.getProperty("java.io.tmpdir"), "DynamicCodeCompiler").listFiles(new FileFilter() {
+
+			@Override
+			public boolean accept(File file) {
+				return file.getName().startsWith(prefix);
+			}
+		});
+		return binDirs == null ? new File[0] : binDirs;
+	}
+}
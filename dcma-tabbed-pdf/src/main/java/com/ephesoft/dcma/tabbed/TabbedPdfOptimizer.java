@@ -44,6 +44,7 @@ import org.slf4j.LoggerFactory;
 import com.ephesoft.dcma.core.exception.DCMAApplicationException;
 import com.ephesoft.dcma.core.threadpool.BatchInstanceThread;
 import com.ephesoft.dcma.core.threadpool.ProcessExecutor;
+import com.ephesoft.dcma.core.threadpool.ProcessResourceLimiter;
 import com.ephesoft.dcma.tabbed.constant.TabbedPdfConstant;
 import com.ephesoft.dcma.util.OSUtil;
 
@@ -158,7 +159,7 @@ public class TabbedPdfOptimizer {
 			}
 			LOGGER.info("command formed Ends.");
 
-			thread.add(new ProcessExecutor(cmds, new File(System.getenv(TabbedPdfConstant.GHOSTSCRIPT_HOME))));
+			thread.add(new ProcessExecutor(cmds, new File(System.getenv(TabbedPdfConstant.GHOSTSCRIPT_HOME)), ProcessResourceLimiter.PDF));
 
 		} catch (Exception e) {
 			LOGGER.error("Exception while generating Tabbed PDF. " + e.getMessage());
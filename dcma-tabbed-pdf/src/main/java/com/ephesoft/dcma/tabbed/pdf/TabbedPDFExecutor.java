@@ -80,6 +80,7 @@ import org.slf4j.LoggerFactory;
 import com.ephesoft.dcma.core.exception.DCMAApplicationException;
 import com.ephesoft.dcma.core.threadpool.BatchInstanceThread;
 import com.ephesoft.dcma.core.threadpool.ProcessExecutor;
+import com.ephesoft.dcma.core.threadpool.ProcessResourceLimiter;
 import com.ephesoft.dcma.tabbed.pdf.constant.TabbedPdfConstant;
 
 public class TabbedPDFExecutor {
@@ -151,7 +152,7 @@ public class TabbedPDFExecutor {
 			}
 			logger.info("command formed Ends.");
 
-			thread.add(new ProcessExecutor(cmds, new File(System.getenv(TabbedPdfConstant.GHOSTSCRIPT_HOME))));
+			thread.add(new ProcessExecutor(cmds, new File(System.getenv(TabbedPdfConstant.GHOSTSCRIPT_HOME)), ProcessResourceLimiter.PDF));
 		} catch (Exception e) {
 			logger.error("Exception while generating Tabbed PDF." + e.getMessage());
 			throw new DCMAApplicationException("Exception while generating Tabbed PDF." + e.getMessage(), e);
@@ -50,6 +50,7 @@ import com.ephesoft.dcma.core.common.FileType;
 import com.ephesoft.dcma.core.exception.DCMAApplicationException;
 import com.ephesoft.dcma.core.threadpool.BatchInstanceThread;
 import com.ephesoft.dcma.core.threadpool.ProcessExecutor;
+import com.ephesoft.dcma.core.threadpool.ProcessResourceLimiter;
 import com.ephesoft.dcma.tesseract.constant.TesseractConstants;
 import com.ephesoft.dcma.util.CustomFileFilter;
 import com.ephesoft.dcma.util.FileNameFormatter;
@@ -154,6 +155,11 @@ public class TesseractProcessExecutor {
 	 */
 	final private String outputFolderLocation;
 
+	/**
+	 * workerPool TesseractWorkerPool, null if pages are recognized by one shot tesseract processes.
+	 */
+	final private TesseractWorkerPool workerPool;
+
 	/**
 	 * LOGGER to print the logging information.
 	 */
@@ -191,6 +197,7 @@ public class TesseractProcessExecutor {
 		this.overwriteHOCR = TesseractConstants.TRUE;
 		this.cmdParams = TesseractConstants.EMPTY;
 		this.outputFolderLocation = actualFolderLocation;
+		this.workerPool = null;
 		run();
 	}
 
@@ -214,6 +221,31 @@ public class TesseractProcessExecutor {
 	public TesseractProcessExecutor(String fileName, Batch batch, String batchInstanceID, String actualFolderLocation,
 			String cmdLanguage, BatchInstanceThread thread, String tesseractVersion, String colorSwitch, String windowsCmd,
 			String unixCmd, String overwriteHOCR, String cmdParams) throws DCMAApplicationException {
+		this(fileName, batch, batchInstanceID, actualFolderLocation, cmdLanguage, thread, tesseractVersion, colorSwitch, windowsCmd,
+				unixCmd, overwriteHOCR, cmdParams, null);
+	}
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param fileName String
+	 * @param batch Batch
+	 * @param batchInstanceID String
+	 * @param actualFolderLocation String
+	 * @param cmdLanguage String
+	 * @param thread BatchInstanceThread
+	 * @param tesseractVersion String
+	 * @param colorSwitch String
+	 * @param windowsCmd String
+	 * @param unixCmd String
+	 * @param overwriteHOCR String
+	 * @param cmdParams String
+	 * @param workerPool TesseractWorkerPool, may be null
+	 * @throws DCMAApplicationException in case of error
+	 */
+	public TesseractProcessExecutor(String fileName, Batch batch, String batchInstanceID, String actualFolderLocation,
+			String cmdLanguage, BatchInstanceThread thread, String tesseractVersion, String colorSwitch, String windowsCmd,
+			String unixCmd, String overwriteHOCR, String cmdParams, TesseractWorkerPool workerPool) throws DCMAApplicationException {
 		this.fileName = fileName;
 		this.batch = batch;
 		this.batchInstanceID = batchInstanceID;
@@ -228,6 +260,7 @@ public class TesseractProcessExecutor {
 		this.overwriteHOCR = overwriteHOCR;
 		this.cmdParams = cmdParams;
 		this.outputFolderLocation = actualFolderLocation;
+		this.workerPool = workerPool;
 		run();
 	}
 
@@ -249,6 +282,29 @@ public class TesseractProcessExecutor {
 	public TesseractProcessExecutor(String fileName, String actualFolderLocation, String cmdLanguage, BatchInstanceThread thread,
 			String tesseractVersion, String colorSwitch, String windowsCmd, String unixCmd, String cmdParams,
 			String outputFolderLocation) throws DCMAApplicationException {
+		this(fileName, actualFolderLocation, cmdLanguage, thread, tesseractVersion, colorSwitch, windowsCmd, unixCmd, cmdParams,
+				outputFolderLocation, null);
+	}
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param fileName String
+	 * @param actualFolderLocation String
+	 * @param cmdLanguage String
+	 * @param thread BatchInstanceThread
+	 * @param tesseractVersion String
+	 * @param colorSwitch String
+	 * @param windowsCmd String
+	 * @param unixCmd String
+	 * @param cmdParams String
+	 * @param outputFolderLocation String
+	 * @param workerPool TesseractWorkerPool, may be null
+	 * @throws DCMAApplicationException in case of error
+	 */
+	public TesseractProcessExecutor(String fileName, String actualFolderLocation, String cmdLanguage, BatchInstanceThread thread,
+			String tesseractVersion, String colorSwitch, String windowsCmd, String unixCmd, String cmdParams,
+			String outputFolderLocation, TesseractWorkerPool workerPool) throws DCMAApplicationException {
 		this.fileName = fileName;
 		this.batch = null;
 		this.batchInstanceID = null;
@@ -263,6 +319,7 @@ public class TesseractProcessExecutor {
 		this.overwriteHOCR = TesseractConstants.TRUE;
 		this.cmdParams = cmdParams;
 		this.outputFolderLocation = outputFolderLocation;
+		this.workerPool = workerPool;
 		createOCR();
 	}
 
@@ -380,9 +437,16 @@ public class TesseractProcessExecutor {
 			}
 			LOGGER.info("command formed Ends.");
 			if (OSUtil.isUnix()) {
-				thread.add(new ProcessExecutor(cmds, new File(tesseractBasePath)));
+				ProcessExecutor processExecutor = new ProcessExecutor(cmds, new File(tesseractBasePath), ProcessResourceLimiter.OCR);
+				if (workerPool != null && workerPool.isEnabled()
+						&& tesseractVersion.equalsIgnoreCase(TesseractVersionProperty.TESSERACT_VERSION_3.getPropertyKey())) {
+					thread.add(new TesseractWorkerTask(workerPool, cmdLanguage, cmdParams, tesseractBasePath, actualFolderLocation
+							+ File.separator + fileName, outputFolderLocation + File.separator + targetHOCR, processExecutor));
+				} else {
+					thread.add(processExecutor);
+				}
 			} else if (OSUtil.isWindows()) {
-				thread.add(new ProcessExecutor(cmds, null));
+				thread.add(new ProcessExecutor(cmds, null, ProcessResourceLimiter.OCR));
 			}
 		} catch (Exception e) {
 			LOGGER.error("Exception while generating HOCR for image" + fileName + e.getMessage());
@@ -166,6 +166,29 @@ public class TesseractReader implements ICommonConstants {
 	 */
 	private transient String defaultHocrfileName;
 
+	/**
+	 * Pool of long lived OCR workers.
+	 */
+	private transient TesseractWorkerPool tesseractWorkerPool;
+
+	/**
+	 * To get Tesseract Worker Pool.
+	 * 
+	 * @return {@link TesseractWorkerPool}
+	 */
+	public TesseractWorkerPool getTesseractWorkerPool() {
+		return tesseractWorkerPool;
+	}
+
+	/**
+	 * To set Tesseract Worker Pool.
+	 * 
+	 * @param tesseractWorkerPool {@link TesseractWorkerPool}
+	 */
+	public void setTesseractWorkerPool(TesseractWorkerPool tesseractWorkerPool) {
+		this.tesseractWorkerPool = tesseractWorkerPool;
+	}
+
 	/**
 	 * To get Default Hocr file name.
 	 * 
@@ -332,7 +355,7 @@ public class TesseractReader implements ICommonConstants {
 							LOGGER.info("Adding to thread pool");
 							tesseractProcessExecutors.add(new TesseractProcessExecutor(eachPage, batch, batchInstanceID,
 									actualFolderLocation, cmdLanguage, batchInstanceThread, tesseractVersion, colorSwitch, windowsCmd,
-									unixCmd, overwriteHOCR, cmdParams));
+									unixCmd, overwriteHOCR, cmdParams, tesseractWorkerPool));
 						} catch (DCMAApplicationException e) {
 							LOGGER.error("Image Processing or XML updation failed for image: " + actualFolderLocation + File.separator
 									+ eachPage);
@@ -499,7 +522,8 @@ public class TesseractReader implements ICommonConstants {
 		try {
 			LOGGER.info("Adding to thread pool");
 			tesseractProcessExecutors.add(new TesseractProcessExecutor(imageName, actualFolderLocation, cmdLanguage,
-					batchInstanceThread, tesseractVersion, colorSwitch, windowsCmd, unixCmd, cmdParams, outputFolderLocation));
+					batchInstanceThread, tesseractVersion, colorSwitch, windowsCmd, unixCmd, cmdParams, outputFolderLocation,
+					tesseractWorkerPool));
 		} catch (DCMAApplicationException e) {
 			LOGGER.error("Image Processing or XML updation failed for image: " + actualFolderLocation + File.separator + imageName);
 			throw new DCMAApplicationException(e.getMessage(), e);
@@ -0,0 +1,332 @@
+/********************************************************************************* 
+* Ephesoft is a Intelligent Document Capture and Mailroom Automation program 
+* developed by Ephesoft, Inc. Copyright (C) 2010-2012 Ephesoft Inc. 
+* 
+* This program is free software; you can redistribute it and/or modify it under 
+* the terms of the GNU Affero General Public License version 3 as published by the 
+* Free Software Foundation with the addition of the following permission added 
+* to Section 15 as permitted in Section 7(a): FOR ANY PART OF THE COVERED WORK 
+* IN WHICH THE COPYRIGHT IS OWNED BY EPHESOFT, EPHESOFT DISCLAIMS THE WARRANTY 
+* OF NON INFRINGEMENT OF THIRD PARTY RIGHTS. 
+* 
+* This program is distributed in the hope that it will be useful, but WITHOUT 
+* ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+* FOR A PARTICULAR PURPOSE.  See the GNU Affero General Public License for more 
+* details. 
+* 
+* You should have received a copy of the GNU Affero General Public License along with 
+* this program; if not, see http://www.gnu.org/licenses or write to the Free 
+* Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 
+* 02110-1301 USA. 
+* 
+* You can contact Ephesoft, Inc. headquarters at 111 Academy Way, 
+* Irvine, CA 92617, USA. or at email address info@ephesoft.com. 
+* 
+* The interactive user interfaces in modified source and object code versions 
+* of this program must display Appropriate Legal Notices, as required under 
+* Section 5 of the GNU Affero General Public License version 3. 
+* 
+* In accordance with Section 7(b) of the GNU Affero General Public License version 3, 
+* these Appropriate Legal Notices must retain the display of the "Ephesoft" logo. 
+* If the display of the logo is not reasonably feasible for 
+* technical reasons, the Appropriate Legal Notices must display the words 
+* "Powered by Ephesoft". 
+********************************************************************************/ 
+
+package com.ephesoft.dcma.tesseract;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A long lived OCR worker process which recognizes many pages over a line based stdin protocol. The worker is started once for a
+ * language and parameter combination and prints <code>READY</code>. Each request line is <code>image&lt;TAB&gt;outputBase</code>
+ * and is answered with <code>OK</code> once <code>outputBase.html</code> is written, or with <code>ERROR message</code>.
+ * <code>PING</code> is answered with <code>PONG</code> and <code>QUIT</code> stops the worker. Any other output of the worker is
+ * only logged.
+ * 
+ * @author Ephesoft
+ * @version 1.0
+ * @see com.ephesoft.dcma.tesseract.TesseractWorkerPool
+ */
+public class TesseractWorker {
+
+	/**
+	 * LOGGER to print the logging information.
+	 */
+	private static final Logger LOGGER = LoggerFactory.getLogger(TesseractWorker.class);
+
+	/**
+	 * Response printed by the worker once it is able to take requests.
+	 */
+	private static final String READY = "READY";
+
+	/**
+	 * Health check request.
+	 */
+	private static final String PING = "PING";
+
+	/**
+	 * Health check response.
+	 */
+	private static final String PONG = "PONG";
+
+	/**
+	 * Response for a successfully recognized page.
+	 */
+	private static final String OK = "OK";
+
+	/**
+	 * Prefix of the response for a failed page.
+	 */
+	private static final String ERROR = "ERROR";
+
+	/**
+	 * Request to stop the worker.
+	 */
+	private static final String QUIT = "QUIT";
+
+	/**
+	 * Marker queued by the reader thread once the worker output is closed. Never sent by a worker.
+	 */
+	private static final String EXITED = "\u0000EXITED";
+
+	/**
+	 * Time in milliseconds given to a worker to exit after QUIT before it is destroyed.
+	 */
+	private static final long EXIT_WAIT_MILLIS = 1000L;
+
+	/**
+	 * Pool key of the worker i.e. the language and parameter combination it is started with.
+	 */
+	private final String key;
+
+	/**
+	 * The worker process.
+	 */
+	private final Process process;
+
+	/**
+	 * Writer on the standard input of the worker.
+	 */
+	private final BufferedWriter requestWriter;
+
+	/**
+	 * Protocol responses read from the worker output.
+	 */
+	private final BlockingQueue<String> responses = new LinkedBlockingQueue<String>();
+
+	/**
+	 * Time in milliseconds to wait for a response.
+	 */
+	private final long timeoutMillis;
+
+	/**
+	 * Number of pages sent to the worker.
+	 */
+	private int pagesProcessed;
+
+	/**
+	 * Whether the worker can still take requests.
+	 */
+	private volatile boolean alive = true;
+
+	/**
+	 * Constructor. Starts the worker in the working directory and waits for it to be ready.
+	 * 
+	 * @param key String
+	 * @param command {@link List}<{@link String}>
+	 * @param workingDirectory {@link File} directory relative paths of the command, like the hOCR config, are resolved against
+	 * @param timeoutMillis long
+	 * @throws IOException if the worker could not be started
+	 */
+	public TesseractWorker(final String key, final List<String> command, final File workingDirectory, final long timeoutMillis)
+			throws IOException {
+		this.key = key;
+		this.timeoutMillis = timeoutMillis;
+		LOGGER.info("Starting OCR worker " + command + " in " + workingDirectory);
+		ProcessBuilder processBuilder = new ProcessBuilder(command);
+		processBuilder.directory(workingDirectory);
+		processBuilder.redirectErrorStream(true);
+		process = processBuilder.start();
+		requestWriter = new BufferedWriter(new OutputStreamWriter(process.getOutputStream(), "UTF-8"));
+		Thread readerThread = new Thread(new ResponseReader(), "ocr-worker-" + key.replace('\u0000', ' '));
+		readerThread.setDaemon(true);
+		readerThread.start();
+		if (!READY.equals(readResponse())) {
+			destroy();
+			throw new IOException("OCR worker did not start: " + command);
+		}
+	}
+
+	/**
+	 * API to check whether the worker is alive and answers requests.
+	 * 
+	 * @return boolean
+	 */
+	public boolean isHealthy() {
+		boolean isHealthy = false;
+		if (alive) {
+			try {
+				sendRequest(PING);
+				isHealthy = PONG.equals(readResponse());
+			} catch (IOException e) {
+				LOGGER.info("OCR worker failed health check. " + e.getMessage());
+			}
+		}
+		return isHealthy;
+	}
+
+	/**
+	 * API to recognize an image. The hOCR is written to outputBase with the .html extension.
+	 * 
+	 * @param imagePath String
+	 * @param outputBase String
+	 * @throws IOException if the worker failed for the image or did not answer in time
+	 */
+	public void process(final String imagePath, final String outputBase) throws IOException {
+		pagesProcessed++;
+		sendRequest(imagePath + '\t' + outputBase);
+		String response = readResponse();
+		if (response == null) {
+			destroy();
+			throw new IOException("OCR worker did not answer in " + timeoutMillis + " ms for image " + imagePath);
+		}
+		if (!OK.equals(response)) {
+			throw new IOException("OCR worker failed for image " + imagePath + " : " + response);
+		}
+	}
+
+	/**
+	 * API to stop the worker gracefully.
+	 */
+	public void close() {
+		if (alive) {
+			try {
+				sendRequest(QUIT);
+			} catch (IOException e) {
+				LOGGER.debug("Could not send QUIT to OCR worker. " + e.getMessage());
+			}
+			long waitUntil = System.currentTimeMillis() + EXIT_WAIT_MILLIS;
+			while (alive && System.currentTimeMillis() < waitUntil) {
+				try {
+					Thread.sleep(10L);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					break;
+				}
+			}
+		}
+		destroy();
+	}
+
+	/**
+	 * API to kill the worker.
+	 */
+	public void destroy() {
+		alive = false;
+		try {
+			requestWriter.close();
+		} catch (IOException e) {
+			LOGGER.debug("Problem in closing OCR worker input. " + e.getMessage());
+		}
+		process.destroy();
+	}
+
+	/**
+	 * To get the pool key of the worker.
+	 * 
+	 * @return String
+	 */
+	public String getKey() {
+		return key;
+	}
+
+	/**
+	 * To get the number of pages sent to the worker.
+	 * 
+	 * @return int
+	 */
+	public int getPagesProcessed() {
+		return pagesProcessed;
+	}
+
+	/**
+	 * To check whether the worker can still take requests.
+	 * 
+	 * @return boolean
+	 */
+	public boolean isAlive() {
+		return alive;
+	}
+
+	private void sendRequest(final String request) throws IOException {
+		if (!alive) {
+			throw new IOException("OCR worker is not running.");
+		}
+		requestWriter.write(request);
+		requestWriter.newLine();
+		requestWriter.flush();
+	}
+
+	private String readResponse() throws IOException {
+		String response;
+		try {
+			response = responses.poll(timeoutMillis, TimeUnit.MILLISECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while waiting for OCR worker.");
+		}
+		if (EXITED.equals(response)) {
+			alive = false;
+			throw new IOException("OCR worker exited.");
+		}
+		return response;
+	}
+
+	/**
+	 * Reads the worker output and queues the protocol responses.
+	 */
+	private class ResponseReader implements Runnable {
+
+		@Override
+		public void run() {
+			BufferedReader reader = null;
+			try {
+				reader = new BufferedReader(new InputStreamReader(process.getInputStream(), "UTF-8"));
+				String line = reader.readLine();
+				while (line != null) {
+					if (READY.equals(line) || PONG.equals(line) || OK.equals(line) || line.startsWith(ERROR)) {
+						responses.add(line);
+					} else {
+						LOGGER.debug(line);
+					}
+					line = reader.readLine();
+				}
+			} catch (IOException e) {
+				LOGGER.debug("OCR worker output closed. " + e.getMessage());
+			} finally {
+				alive = false;
+				responses.add(EXITED);
+				if (reader != null) {
+					try {
+						reader.close();
+					} catch (IOException e) {
+						LOGGER.debug("Problem in closing OCR worker output. " + e.getMessage());
+					}
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,298 @@
+/********************************************************************************* 
+* Ephesoft is a Intelligent Document Capture and Mailroom Automation program 
+* developed by Ephesoft, Inc. Copyright (C) 2010-2012 Ephesoft Inc. 
+* 
+* This program is free software; you can redistribute it and/or modify it under 
+* the terms of the GNU Affero General Public License version 3 as published by the 
+* Free Software Foundation with the addition of the following permission added 
+* to Section 15 as permitted in Section 7(a): FOR ANY PART OF THE COVERED WORK 
+* IN WHICH THE COPYRIGHT IS OWNED BY EPHESOFT, EPHESOFT DISCLAIMS THE WARRANTY 
+* OF NON INFRINGEMENT OF THIRD PARTY RIGHTS. 
+* 
+* This program is distributed in the hope that it will be useful, but WITHOUT 
+* ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+* FOR A PARTICULAR PURPOSE.  See the GNU Affero General Public License for more 
+* details. 
+* 
+* You should have received a copy of the GNU Affero General Public License along with 
+* this program; if not, see http://www.gnu.org/licenses or write to the Free 
+* Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 
+* 02110-1301 USA. 
+* 
+* You can contact Ephesoft, Inc. headquarters at 111 Academy Way, 
+* Irvine, CA 92617, USA. or at email address info@ephesoft.com. 
+* 
+* The interactive user interfaces in modified source and object code versions 
+* of this program must display Appropriate Legal Notices, as required under 
+* Section 5 of the GNU Affero General Public License version 3. 
+* 
+* In accordance with Section 7(b) of the GNU Affero General Public License version 3, 
+* these Appropriate Legal Notices must retain the display of the "Ephesoft" logo. 
+* If the display of the logo is not reasonably feasible for 
+* technical reasons, the Appropriate Legal Notices must display the words 
+* "Powered by Ephesoft". 
+********************************************************************************/ 
+
+package com.ephesoft.dcma.tesseract;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.ephesoft.dcma.tesseract.constant.TesseractConstants;
+
+/**
+ * Pool of long lived OCR workers. Workers are pinned to the language, command parameters and tesseract base path they are started
+ * with and are kept idle between pages. An idle worker is health checked before it is handed out again and is recycled once it has
+ * processed the configured number of pages. The pool is disabled when no worker command is configured.
+ * 
+ * The worker binary is not part of the distribution. It is a small TessBaseAPI wrapper deployed next to tesseract 3 and configured
+ * through tesseract.worker.command. It is started as "command -l language parameters +hocr.txt" in the tesseract base path, the same
+ * arguments and working directory as the one shot tesseract command, and then prints READY. It reads one request per line on stdin
+ * and answers each on stdout:
+ * <ul>
+ * <li>"image&lt;TAB&gt;outputBase" : writes the hOCR of the image to outputBase.html and answers OK, or ERROR and a message.</li>
+ * <li>PING : answers PONG.</li>
+ * <li>QUIT : exits.</li>
+ * </ul>
+ * 
+ * @author Ephesoft
+ * @version 1.0
+ * @see com.ephesoft.dcma.tesseract.TesseractWorker
+ */
+public class TesseractWorkerPool {
+
+	/**
+	 * LOGGER to print the logging information.
+	 */
+	private static final Logger LOGGER = LoggerFactory.getLogger(TesseractWorkerPool.class);
+
+	/**
+	 * Tesseract config file producing hOCR output, passed to the workers like to the one shot tesseract command.
+	 */
+	private static final String HOCR_CONFIG_FILE = "hocr.txt";
+
+	/**
+	 * Command to start a worker, the language, command parameters and hOCR config are appended to it.
+	 */
+	private String workerCommand;
+
+	/**
+	 * Maximum number of idle workers kept per language and parameter combination.
+	 */
+	private int maxIdleWorkers = 2;
+
+	/**
+	 * Number of pages after which a worker is recycled.
+	 */
+	private int maxPagesPerWorker = 500;
+
+	/**
+	 * Time in milliseconds to wait for a worker response.
+	 */
+	private long timeoutMillis = 120000L;
+
+	/**
+	 * Idle workers by language and parameter combination.
+	 */
+	private final Map<String, LinkedList<TesseractWorker>> idleWorkers = new HashMap<String, LinkedList<TesseractWorker>>();
+
+	/**
+	 * API to check whether OCR should be done by pooled workers.
+	 * 
+	 * @return boolean
+	 */
+	public boolean isEnabled() {
+		return workerCommand != null && !workerCommand.trim().isEmpty();
+	}
+
+	/**
+	 * API to get a healthy worker for the language and command parameters, running in the tesseract base path. An idle worker is
+	 * reused if possible otherwise a new worker is started.
+	 * 
+	 * @param language String
+	 * @param cmdParams String
+	 * @param tesseractBasePath String
+	 * @return {@link TesseractWorker}
+	 * @throws IOException if a worker could not be started
+	 */
+	public TesseractWorker borrowWorker(final String language, final String cmdParams, final String tesseractBasePath)
+			throws IOException {
+		String key = language + '\u0000' + (cmdParams == null ? TesseractConstants.EMPTY : cmdParams.trim()) + '\u0000'
+				+ tesseractBasePath;
+		TesseractWorker worker = pollIdleWorker(key);
+		while (worker != null) {
+			if (worker.isHealthy()) {
+				return worker;
+			}
+			LOGGER.info("Discarding unhealthy OCR worker for language " + language);
+			worker.destroy();
+			worker = pollIdleWorker(key);
+		}
+		return new TesseractWorker(key, createCommand(language, cmdParams), new File(tesseractBasePath), timeoutMillis);
+	}
+
+	/**
+	 * API to give a worker back to the pool. Broken workers are destroyed and workers which reached the page limit are recycled.
+	 * 
+	 * @param worker {@link TesseractWorker}
+	 */
+	public void returnWorker(final TesseractWorker worker) {
+		if (!worker.isAlive()) {
+			worker.destroy();
+		} else if (worker.getPagesProcessed() >= maxPagesPerWorker) {
+			LOGGER.info("Recycling OCR worker after " + worker.getPagesProcessed() + " pages.");
+			worker.close();
+		} else {
+			boolean isPooled = false;
+			synchronized (idleWorkers) {
+				LinkedList<TesseractWorker> workers = idleWorkers.get(worker.getKey());
+				if (workers == null) {
+					workers = new LinkedList<TesseractWorker>();
+					idleWorkers.put(worker.getKey(), workers);
+				}
+				if (workers.size() < maxIdleWorkers) {
+					workers.addFirst(worker);
+					isPooled = true;
+				}
+			}
+			if (!isPooled) {
+				worker.close();
+			}
+		}
+	}
+
+	/**
+	 * API to stop all idle workers. Called when the application context is closed.
+	 */
+	public void shutdown() {
+		List<TesseractWorker> workers = new ArrayList<TesseractWorker>();
+		synchronized (idleWorkers) {
+			for (LinkedList<TesseractWorker> keyWorkers : idleWorkers.values()) {
+				workers.addAll(keyWorkers);
+			}
+			idleWorkers.clear();
+		}
+		for (TesseractWorker worker : workers) {
+			worker.close();
+		}
+		LOGGER.info("Stopped " + workers.size() + " idle OCR workers.");
+	}
+
+	/**
+	 * To get the number of idle workers.
+	 * 
+	 * @return int
+	 */
+	public int getIdleWorkerCount() {
+		int count = 0;
+		synchronized (idleWorkers) {
+			for (LinkedList<TesseractWorker> workers : idleWorkers.values()) {
+				count += workers.size();
+			}
+		}
+		return count;
+	}
+
+	private TesseractWorker pollIdleWorker(final String key) {
+		synchronized (idleWorkers) {
+			LinkedList<TesseractWorker> workers = idleWorkers.get(key);
+			return workers == null ? null : workers.poll();
+		}
+	}
+
+	private List<String> createCommand(final String language, final String cmdParams) {
+		List<String> command = new ArrayList<String>();
+		for (String token : workerCommand.trim().split("\\s+")) {
+			command.add(token);
+		}
+		command.add("-l");
+		command.add(language);
+		if (cmdParams != null && !cmdParams.trim().isEmpty()) {
+			for (String param : cmdParams.trim().split("\\s+")) {
+				command.add(param);
+			}
+		}
+		command.add(TesseractConstants.PLUS + HOCR_CONFIG_FILE);
+		return command;
+	}
+
+	/**
+	 * To get the worker command.
+	 * 
+	 * @return String
+	 */
+	public String getWorkerCommand() {
+		return workerCommand;
+	}
+
+	/**
+	 * To set the worker command.
+	 * 
+	 * @param workerCommand String
+	 */
+	public void setWorkerCommand(final String workerCommand) {
+		this.workerCommand = workerCommand;
+	}
+
+	/**
+	 * To get the maximum number of idle workers per language and parameter combination.
+	 * 
+	 * @return int
+	 */
+	public int getMaxIdleWorkers() {
+		return maxIdleWorkers;
+	}
+
+	/**
+	 * To set the maximum number of idle workers per language and parameter combination.
+	 * 
+	 * @param maxIdleWorkers int
+	 */
+	public void setMaxIdleWorkers(final int maxIdleWorkers) {
+		this.maxIdleWorkers = maxIdleWorkers;
+	}
+
+	/**
+	 * To get the number of pages after which a worker is recycled.
+	 * 
+	 * @return int
+	 */
+	public int getMaxPagesPerWorker() {
+		return maxPagesPerWorker;
+	}
+
+	/**
+	 * To set the number of pages after which a worker is recycled.
+	 * 
+	 * @param maxPagesPerWorker int
+	 */
+	public void setMaxPagesPerWorker(final int maxPagesPerWorker) {
+		this.maxPagesPerWorker = maxPagesPerWorker;
+	}
+
+	/**
+	 * To get the worker response timeout in milliseconds.
+	 * 
+	 * @return long
+	 */
+	public long getTimeoutMillis() {
+		return timeoutMillis;
+	}
+
+	/**
+	 * To set the worker response timeout in milliseconds.
+	 * 
+	 * @param timeoutMillis long
+	 */
+	public void setTimeoutMillis(final long timeoutMillis) {
+		this.timeoutMillis = timeoutMillis;
+	}
+}
@@ -0,0 +1,155 @@
+/********************************************************************************* 
+* Ephesoft is a Intelligent Document Capture and Mailroom Automation program 
+* developed by Ephesoft, Inc. Copyright (C) 2010-2012 Ephesoft Inc. 
+* 
+* This program is free software; you can redistribute it and/or modify it under 
+* the terms of the GNU Affero General Public License version 3 as published by the 
+* Free Software Foundation with the addition of the following permission added 
+* to Section 15 as permitted in Section 7(a): FOR ANY PART OF THE COVERED WORK 
+* IN WHICH THE COPYRIGHT IS OWNED BY EPHESOFT, EPHESOFT DISCLAIMS THE WARRANTY 
+* OF NON INFRINGEMENT OF THIRD PARTY RIGHTS. 
+* 
+* This program is distributed in the hope that it will be useful, but WITHOUT 
+* ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+* FOR A PARTICULAR PURPOSE.  See the GNU Affero General Public License for more 
+* details. 
+* 
+* You should have received a copy of the GNU Affero General Public License along with 
+* this program; if not, see http://www.gnu.org/licenses or write to the Free 
+* Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 
+* 02110-1301 USA. 
+* 
+* You can contact Ephesoft, Inc. headquarters at 111 Academy Way, 
+* Irvine, CA 92617, USA. or at email address info@ephesoft.com. 
+* 
+* The interactive user interfaces in modified source and object code versions 
+* of this program must display Appropriate Legal Notices, as required under 
+* Section 5 of the GNU Affero General Public License version 3. 
+* 
+* In accordance with Section 7(b) of the GNU Affero General Public License version 3, 
+* these Appropriate Legal Notices must retain the display of the "Ephesoft" logo. 
+* If the display of the logo is not reasonably feasible for 
+* technical reasons, the Appropriate Legal Notices must display the words 
+* "Powered by Ephesoft". 
+********************************************************************************/ 
+
+package com.ephesoft.dcma.tesseract;
+
+import java.io.IOException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.ephesoft.dcma.core.exception.DCMAApplicationException;
+import com.ephesoft.dcma.core.threadpool.AbstractRunnable;
+import com.ephesoft.dcma.core.threadpool.ProcessExecutor;
+import com.ephesoft.dcma.core.threadpool.ProcessResourceLimiter;
+
+/**
+ * Task recognizing one page with a pooled OCR worker. If the worker fails the page is recognized by the one shot tesseract
+ * process instead.
+ * 
+ * @author Ephesoft
+ * @version 1.0
+ * @see com.ephesoft.dcma.tesseract.TesseractWorkerPool
+ */
+public class TesseractWorkerTask extends AbstractRunnable {
+
+	/**
+	 * LOGGER to print the logging information.
+	 */
+	private static final Logger LOGGER = LoggerFactory.getLogger(TesseractWorkerTask.class);
+
+	/**
+	 * Pool of OCR workers.
+	 */
+	private final TesseractWorkerPool workerPool;
+
+	/**
+	 * OCR language.
+	 */
+	private final String language;
+
+	/**
+	 * Tesseract command parameters.
+	 */
+	private final String cmdParams;
+
+	/**
+	 * Tesseract base path the worker runs in.
+	 */
+	private final String tesseractBasePath;
+
+	/**
+	 * Path of the image to recognize.
+	 */
+	private final String imagePath;
+
+	/**
+	 * Path of the hOCR file without the .html extension.
+	 */
+	private final String outputBase;
+
+	/**
+	 * One shot tesseract process used if the worker fails.
+	 */
+	private final ProcessExecutor fallbackExecutor;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param workerPool {@link TesseractWorkerPool}
+	 * @param language String
+	 * @param cmdParams String
+	 * @param tesseractBasePath String
+	 * @param imagePath String
+	 * @param outputBase String
+	 * @param fallbackExecutor {@link ProcessExecutor}
+	 */
+	public TesseractWorkerTask(final TesseractWorkerPool workerPool, final String language, final String cmdParams,
+			final String tesseractBasePath, final String imagePath, final String outputBase, final ProcessExecutor fallbackExecutor) {
+		super();
+		this.workerPool = workerPool;
+		this.language = language;
+		this.cmdParams = cmdParams;
+		this.tesseractBasePath = tesseractBasePath;
+		this.imagePath = imagePath;
+		this.outputBase = outputBase;
+		this.fallbackExecutor = fallbackExecutor;
+	}
+
+	@Override
+	public void run() {
+		boolean isPermitAcquired = false;
+		boolean isProcessed = false;
+		try {
+			ProcessResourceLimiter.getInstance().acquire(ProcessResourceLimiter.OCR);
+			isPermitAcquired = true;
+			TesseractWorker worker = workerPool.borrowWorker(language, cmdParams, tesseractBasePath);
+			try {
+				worker.process(imagePath, outputBase);
+				isProcessed = true;
+			} finally {
+				workerPool.returnWorker(worker);
+			}
+		} catch (IOException e) {
+			LOGGER.error("OCR worker failed for image " + imagePath + ". Running tesseract process instead. " + e.getMessage(), e);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			String errorMsg = "Interrupted while waiting for OCR worker for image " + imagePath;
+			LOGGER.error(errorMsg, e);
+			setDcmaApplicationException(new DCMAApplicationException(errorMsg, e));
+			isProcessed = true;
+		} finally {
+			if (isPermitAcquired) {
+				ProcessResourceLimiter.getInstance().release(ProcessResourceLimiter.OCR);
+			}
+		}
+		if (!isProcessed) {
+			fallbackExecutor.run();
+			if (fallbackExecutor.getDcmaApplicationException() != null) {
+				setDcmaApplicationException(fallbackExecutor.getDcmaApplicationException());
+			}
+		}
+	}
+}
@@ -0,0 +1,247 @@
+/********************************************************************************* 
+* Ephesoft is a Intelligent Document Capture and Mailroom Automation program 
+* developed by Ephesoft, Inc. Copyright (C) 2010-2012 Ephesoft Inc. 
+* 
+* This program is free software; you can redistribute it and/or modify it under 
+* the terms of the GNU Affero General Public License version 3 as published by the 
+* Free Software Foundation with the addition of the following permission added 
+* to Section 15 as permitted in Section 7(a): FOR ANY PART OF THE COVERED WORK 
+* IN WHICH THE COPYRIGHT IS OWNED BY EPHESOFT, EPHESOFT DISCLAIMS THE WARRANTY 
+* OF NON INFRINGEMENT OF THIRD PARTY RIGHTS. 
+* 
+* This program is distributed in the hope that it will be useful, but WITHOUT 
+* ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+* FOR A PARTICULAR PURPOSE.  See the GNU Affero General Public License for more 
+* details. 
+* 
+* You should have received a copy of the GNU Affero General Public License along with 
+* this program; if not, see http://www.gnu.org/licenses or write to the Free 
+* Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 
+* 02110-1301 USA. 
+* 
+* You can contact Ephesoft, Inc. headquarters at 111 Academy Way, 
+* Irvine, CA 92617, USA. or at email address info@ephesoft.com. 
+* 
+* The interactive user interfaces in modified source and object code versions 
+* of this program must display Appropriate Legal Notices, as required under 
+* Section 5 of the GNU Affero General Public License version 3. 
+* 
+* In accordance with Section 7(b) of the GNU Affero General Public License version 3, 
+* these Appropriate Legal Notices must retain the display of the "Ephesoft" logo. 
+* If the display of the logo is not reasonably feasible for 
+* technical reasons, the Appropriate Legal Notices must display the words 
+* "Powered by Ephesoft". 
+********************************************************************************/ 
+
+package com.ephesoft.dcma.tesseract;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.net.URISyntaxException;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * This is Junit test for TesseractWorkerPool. It runs a fake OCR worker script so that no tesseract installation is required.
+ * 
+ * @author Ephesoft
+ * @version 1.0
+ * @see com.ephesoft.dcma.tesseract.TesseractWorkerPool
+ */
+public class TesseractWorkerPoolTest {
+
+	/**
+	 * Fake worker script on the test class path.
+	 */
+	private static final String FAKE_WORKER = "fake-ocr-worker/fake-ocr-worker.sh";
+
+	/**
+	 * Language used by the tests.
+	 */
+	private static final String LANGUAGE = "eng";
+
+	/**
+	 * Command parameters used by the tests.
+	 */
+	private static final String CMD_PARAMS = "-psm 4";
+
+	/**
+	 * Pool under test.
+	 */
+	private transient TesseractWorkerPool workerPool;
+
+	/**
+	 * Folder for the images and hOCR files, also used as the tesseract base path holding the hOCR config.
+	 */
+	private transient File workFolder;
+
+	/**
+	 * Image to recognize.
+	 */
+	private transient File image;
+
+	/**
+	 * This method creates the pool with the fake worker.
+	 * 
+	 * @throws IOException if the work folder could not be created
+	 * @throws URISyntaxException if the fake worker could not be located
+	 */
+	@Before
+	public void setUp() throws IOException, URISyntaxException {
+		File fakeWorker = new File(getClass().getClassLoader().getResource(FAKE_WORKER).toURI());
+		workerPool = new TesseractWorkerPool();
+		workerPool.setWorkerCommand("sh " + fakeWorker.getAbsolutePath());
+		workerPool.setMaxIdleWorkers(1);
+		workerPool.setMaxPagesPerWorker(3);
+		workerPool.setTimeoutMillis(10000L);
+		workFolder = File.createTempFile("tesseract-worker", "");
+		workFolder.delete();
+		workFolder.mkdirs();
+		image = new File(workFolder, "page.tif");
+		image.createNewFile();
+		new File(workFolder, "hocr.txt").createNewFile();
+	}
+
+	/**
+	 * This method stops the workers and removes the work folder.
+	 */
+	@After
+	public void tearDown() {
+		workerPool.shutdown();
+		for (File file : workFolder.listFiles()) {
+			file.delete();
+		}
+		workFolder.delete();
+	}
+
+	/**
+	 * Test case for recognizing several pages with one reused worker.
+	 * 
+	 * @throws IOException if the worker fails
+	 */
+	@Test
+	public void testWorkerReused() throws IOException {
+		TesseractWorker worker = workerPool.borrowWorker(LANGUAGE, CMD_PARAMS, workFolder.getAbsolutePath());
+		worker.process(image.getAbsolutePath(), new File(workFolder, "page1").getAbsolutePath());
+		workerPool.returnWorker(worker);
+		Assert.assertEquals(1, workerPool.getIdleWorkerCount());
+
+		TesseractWorker reusedWorker = workerPool.borrowWorker(LANGUAGE, CMD_PARAMS, workFolder.getAbsolutePath());
+		Assert.assertSame(worker, reusedWorker);
+		reusedWorker.process(image.getAbsolutePath(), new File(workFolder, "page2").getAbsolutePath());
+		workerPool.returnWorker(reusedWorker);
+
+		Assert.assertTrue(new File(workFolder, "page1.html").exists());
+		Assert.assertTrue(new File(workFolder, "page2.html").exists());
+		Assert.assertEquals(2, reusedWorker.getPagesProcessed());
+	}
+
+	/**
+	 * Test case for the worker being started with the language, command parameters and hOCR config of the one shot command, in the
+	 * tesseract base path holding the hOCR config.
+	 * 
+	 * @throws IOException if the worker fails
+	 */
+	@Test
+	public void testWorkerCommandLine() throws IOException {
+		TesseractWorker worker = workerPool.borrowWorker(LANGUAGE, CMD_PARAMS, workFolder.getAbsolutePath());
+		worker.process(image.getAbsolutePath(), new File(workFolder, "page").getAbsolutePath());
+		workerPool.returnWorker(worker);
+		String hocr = readFile(new File(workFolder, "page.html"));
+		Assert.assertTrue(hocr, hocr.contains("lang " + LANGUAGE + ";"));
+		Assert.assertTrue(hocr, hocr.contains("config hocr.txt found"));
+	}
+
+	/**
+	 * Test case for workers being pinned to their language.
+	 * 
+	 * @throws IOException if the worker fails
+	 */
+	@Test
+	public void testWorkerPinnedToLanguage() throws IOException {
+		TesseractWorker worker = workerPool.borrowWorker(LANGUAGE, CMD_PARAMS, workFolder.getAbsolutePath());
+		workerPool.returnWorker(worker);
+		TesseractWorker otherWorker = workerPool.borrowWorker("deu", CMD_PARAMS, workFolder.getAbsolutePath());
+		Assert.assertNotSame(worker, otherWorker);
+		otherWorker.destroy();
+	}
+
+	/**
+	 * Test case for recycling a worker after the configured number of pages.
+	 * 
+	 * @throws IOException if the worker fails
+	 */
+	@Test
+	public void testWorkerRecycled() throws IOException {
+		TesseractWorker worker = workerPool.borrowWorker(LANGUAGE, CMD_PARAMS, workFolder.getAbsolutePath());
+		for (int index = 0; index < 3; index++) {
+			worker.process(image.getAbsolutePath(), new File(workFolder, "page" + index).getAbsolutePath());
+		}
+		workerPool.returnWorker(worker);
+		Assert.assertEquals(0, workerPool.getIdleWorkerCount());
+		Assert.assertFalse(worker.isAlive());
+	}
+
+	/**
+	 * Test case for a page failure which keeps the worker usable.
+	 * 
+	 * @throws IOException if the worker fails
+	 */
+	@Test
+	public void testPageFailure() throws IOException {
+		TesseractWorker worker = workerPool.borrowWorker(LANGUAGE, CMD_PARAMS, workFolder.getAbsolutePath());
+		try {
+			worker.process(new File(workFolder, "missing.tif").getAbsolutePath(), new File(workFolder, "missing").getAbsolutePath());
+			Assert.fail("Missing image should fail.");
+		} catch (IOException e) {
+			Assert.assertTrue(worker.isHealthy());
+		}
+		workerPool.returnWorker(worker);
+		Assert.assertEquals(1, workerPool.getIdleWorkerCount());
+	}
+
+	/**
+	 * Test case for discarding a dead idle worker.
+	 * 
+	 * @throws IOException if the worker fails
+	 */
+	@Test
+	public void testDeadWorkerDiscarded() throws IOException {
+		TesseractWorker worker = workerPool.borrowWorker(LANGUAGE, CMD_PARAMS, workFolder.getAbsolutePath());
+		workerPool.returnWorker(worker);
+		worker.destroy();
+		TesseractWorker newWorker = workerPool.borrowWorker(LANGUAGE, CMD_PARAMS, workFolder.getAbsolutePath());
+		Assert.assertNotSame(worker, newWorker);
+		Assert.assertTrue(newWorker.isHealthy());
+		newWorker.destroy();
+	}
+
+	/**
+	 * Test case for the pool being disabled without a worker command.
+	 */
+	@Test
+	public void testPoolDisabled() {
+		Assert.assertFalse(new TesseractWorkerPool().isEnabled());
+		Assert.assertTrue(workerPool.isEnabled());
+	}
+
+	private String readFile(File file) throws IOException {
+		StringBuilder content = new StringBuilder();
+		BufferedReader reader = new BufferedReader(new FileReader(file));
+		try {
+			String line = reader.readLine();
+			while (line != null) {
+				content.append(line);
+				line = reader.readLine();
+			}
+		} finally {
+			reader.close();
+		}
+		return content.toString();
+	}
+}
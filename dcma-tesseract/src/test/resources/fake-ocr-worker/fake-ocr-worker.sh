@@ -0,0 +1,41 @@
+#!/bin/sh
+# Fake OCR worker speaking the TesseractWorker protocol. Writes a minimal hOCR page instead of recognizing the image.
+lang=
+config=
+while [ $# -gt 0 ]; do
+	case "$1" in
+		-l)
+			shift
+			lang="$1"
+			;;
+		+*)
+			config="${1#+}"
+			;;
+	esac
+	shift
+done
+# The config is resolved against the working directory, like tesseract does.
+if [ -f "$config" ]; then
+	configstate=found
+else
+	configstate=missing
+fi
+tab=$(printf '\t')
+echo "READY"
+while IFS= read -r line; do
+	case "$line" in
+		PING) echo "PONG" ;;
+		QUIT) exit 0 ;;
+		*)
+			image="${line%%$tab*}"
+			output="${line#*$tab}"
+			if [ ! -f "$image" ]; then
+				echo "ERROR no such image $image"
+			elif printf '<html><body><div class="ocr_page" title="image %s; lang %s; config %s %s"></div></body></html>\n' "$image" "$lang" "$config" "$configstate" > "$output.html"; then
+				echo "OK"
+			else
+				echo "ERROR cannot write $output.html"
+			fi
+			;;
+	esac
+done
@@ -450,13 +450,7 @@ public class XMLUtil {
 	 */
 	public static void htmlOutputStreamViaTidy(final String pathOfHOCRFile, final String outputFilePath) throws IOException {
 
-		Tidy tidy = new Tidy();
-		tidy.setXHTML(true);
-		tidy.setDocType(DOC_TYPE_OMIT);
-		tidy.setInputEncoding(UTF_ENCODING);
-		tidy.setOutputEncoding(UTF_ENCODING);
-		tidy.setForceOutput(true);
-		tidy.setWraplen(0);
+		Tidy tidy = createTidy();
 		FileInputStream inputStream = null;
 
 		OutputStream fout = null;
@@ -489,14 +483,7 @@ public class XMLUtil {
 	 * @throws IOException
 	 */
 	public static void htmlOutputStreamViaHtmlCleaner(String pathOfHOCRFile, String outputFilePath) throws IOException {
-		CleanerProperties cleanerProps = new CleanerProperties();
-
-		// set some properties to non-default values
-		cleanerProps.setTransResCharsToNCR(true);
-		cleanerProps.setTranslateSpecialEntities(true);
-		cleanerProps.setOmitComments(true);
-		cleanerProps.setOmitDoctypeDeclaration(true);
-		cleanerProps.setOmitXmlDeclaration(false);
+		CleanerProperties cleanerProps = createCleanerProperties();
 		HtmlCleaner cleaner = new HtmlCleaner(cleanerProps);
 
 		// take default cleaner properties
@@ -512,6 +499,51 @@ public class XMLUtil {
 		}
 	}
 
+	/**
+	 * To Output html Stream read from a stream, without any intermediate file. The html parser is the one configured for the
+	 * application.
+	 * 
+	 * @param inputStream {@link InputStream} the html to clean
+	 * @param outputStream {@link OutputStream} receives the well formed xhtml in UTF-8
+	 * @throws IOException
+	 */
+	public static void htmlOutputStream(final InputStream inputStream, final OutputStream outputStream) throws IOException {
+		ApplicationConfigProperties applicationConfigProperties = ApplicationConfigProperties.getApplicationConfigProperties();
+		String htmlParser = applicationConfigProperties.getProperty(HTML_PARSER);
+		if (htmlParser != null && htmlParser.equals(HTML_CLEANER)) {
+			CleanerProperties cleanerProps = createCleanerProperties();
+			TagNode tagNode = new HtmlCleaner(cleanerProps).clean(inputStream, UTF_ENCODING);
+			new PrettyHtmlSerializer(cleanerProps).writeToStream(tagNode, outputStream, UTF_ENCODING);
+		} else {
+			OutputStreamWriter out = new OutputStreamWriter(outputStream, UTF_ENCODING);
+			createTidy().parse(inputStream, out);
+			out.flush();
+		}
+	}
+
+	private static Tidy createTidy() {
+		Tidy tidy = new Tidy();
+		tidy.setXHTML(true);
+		tidy.setDocType(DOC_TYPE_OMIT);
+		tidy.setInputEncoding(UTF_ENCODING);
+		tidy.setOutputEncoding(UTF_ENCODING);
+		tidy.setForceOutput(true);
+		tidy.setWraplen(0);
+		return tidy;
+	}
+
+	private static CleanerProperties createCleanerProperties() {
+		CleanerProperties cleanerProps = new CleanerProperties();
+
+		// set some properties to non-default values
+		cleanerProps.setTransResCharsToNCR(true);
+		cleanerProps.setTranslateSpecialEntities(true);
+		cleanerProps.setOmitComments(true);
+		cleanerProps.setOmitDoctypeDeclaration(true);
+		cleanerProps.setOmitXmlDeclaration(false);
+		return cleanerProps;
+	}
+
 	/**
 	 * To Output html Stream for ISO Encoding.
 	 * 
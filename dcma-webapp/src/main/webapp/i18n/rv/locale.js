@@ -202,6 +202,7 @@ var rvMessages = {
 	session_time_out : "Your session has timed out.",
 	unable_to_acquire_lock : "Batch is locked by some other user for editing.",
 	no_right_to_open_batch : "You do not have the rights to open this batch.",
+	batch_changed_since_load : "Batch has been saved from another window since it was opened. It will be reloaded.",
 	no_batch_in_review_validation : "No batches found in Review/Validation states.",
 	unable_to_update_actual_review_validate_time: "Unable to update actual user review and validate time in database.",
 	executing_script : "Executing Script....",	
@@ -407,6 +408,7 @@ var rvMessages_tk = {
 	session_time_out : "Oturumunuz zaman aşımına uğradı.",
 	unable_to_acquire_lock : "Toplu düzenleme için başka bir kullanıcı tarafından kilitlenmiş durumda.",
 	no_right_to_open_batch : "Bu toplu iş açmak için haklara sahip değilsiniz.",
+	batch_changed_since_load : "Toplu iş açıldıktan sonra başka bir pencereden kaydedildi. Yeniden yüklenecek.",
 	no_batch_in_review_validation : "Hiçbir toplu İnceleme / Onay devletler bulundu.",
 	unable_to_update_actual_review_validate_time:"Update beceriksiz gerçek kullanıcı zaman incele ve geçerli kıl veri tabanı.",
 	executing_script : "Komut yürütülüyor ....",
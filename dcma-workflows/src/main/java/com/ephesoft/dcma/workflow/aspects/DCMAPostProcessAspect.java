@@ -35,16 +35,18 @@
 
 package com.ephesoft.dcma.workflow.aspects;
 
-import java.lang.annotation.Annotation;
 import java.lang.reflect.Method;
 
 import org.aspectj.lang.JoinPoint;
 import org.aspectj.lang.annotation.AfterReturning;
+import org.aspectj.lang.annotation.AfterThrowing;
 import org.aspectj.lang.annotation.Aspect;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.util.ClassUtils;
 
+import com.ephesoft.dcma.batch.service.BatchSchemaService;
 import com.ephesoft.dcma.core.DCMAException;
 import com.ephesoft.dcma.core.annotation.PostProcess;
 import com.ephesoft.dcma.da.id.BatchInstanceID;
@@ -64,6 +66,17 @@ public class DCMAPostProcessAspect {
 	 */
 	private static final Logger LOGGER = LoggerFactory.getLogger(DCMAPostProcessAspect.class);
 
+	/**
+	 * Instance of {@link BatchSchemaService}.
+	 */
+	@Autowired
+	private BatchSchemaService batchSchemaService;
+
+	/**
+	 * Post-process hook methods by service class.
+	 */
+	private final ProcessHookResolver hookResolver = new ProcessHookResolver(PostProcess.class);
+
 	/**
 	 * To perform post-processing.
 	 * 
@@ -75,28 +88,54 @@ public class DCMAPostProcessAspect {
 	public void postprocess(JoinPoint joinPoint) throws DCMAException {
 
 		try {
+			long bodyEndTime = System.nanoTime();
+			// pending batch xml updates are written back, as changed segments only in the segmented storage mode.
+			endBatchWriteBehind(joinPoint);
 			Object target = joinPoint.getTarget();
 			if (target == null) {
 				return;
 			}
 
 			Class<?> clazz = ClassUtils.getUserClass(target);
-			Method[] methods = clazz.getMethods();
-			if (methods != null && methods.length > 0) {
-				for (int i = 0; i < methods.length; i++) {
-					Annotation annotation = methods[i].getAnnotation(PostProcess.class);
-					if (annotation != null) {
-						if (joinPoint.getArgs().length >= 1 && (joinPoint.getArgs()[0] instanceof BatchInstanceID)) {
-							methods[i].invoke(target, joinPoint.getArgs()[0], joinPoint.getArgs()[1]);
-						} else {
-							LOGGER.info("Method " + methods[i] + " does not comply to Post-process agreement. So.. not invoked.");
-						}
-					}
+			Method[] methods = hookResolver.getHookMethods(clazz);
+			if (methods.length > 0 && joinPoint.getArgs().length >= 1 && (joinPoint.getArgs()[0] instanceof BatchInstanceID)) {
+				// the batch xml is brought up to date with the segments before the post-process hooks read it from disk.
+				batchSchemaService.writeBatchXml(joinPoint.getArgs()[0].toString());
+			}
+			for (int i = 0; i < methods.length; i++) {
+				if (joinPoint.getArgs().length >= 1 && (joinPoint.getArgs()[0] instanceof BatchInstanceID)) {
+					methods[i].invoke(target, joinPoint.getArgs()[0], joinPoint.getArgs()[1]);
+				} else {
+					LOGGER.info("Method " + methods[i] + " does not comply to Post-process agreement. So.. not invoked.");
 				}
 			}
+			PluginTimingRegistry.getInstance().endBody(joinPoint.getSignature().toShortString(), bodyEndTime,
+					System.nanoTime() - bodyEndTime, false);
 		} catch (Exception e) {
 			LOGGER.error("Exception in Post-processing", e);
 			throw new DCMAException("Exception in Post-processing", e);
 		}
 	}
+
+	/**
+	 * To write back the pending batch xml updates of a plugin which ended with an exception.
+	 * 
+	 * @param joinPoint JoinPoint
+	 */
+	@AfterThrowing("execution(* com.ephesoft.dcma.*.service.*.*(..)) " + "&& !within(com.ephesoft.dcma.da.service.*) "
+			+ "&& !within(com.ephesoft.dcma.workflows.service.*)")
+	public void afterThrowing(JoinPoint joinPoint) {
+		try {
+			PluginTimingRegistry.getInstance().endBody(joinPoint.getSignature().toShortString(), System.nanoTime(), 0L, true);
+			endBatchWriteBehind(joinPoint);
+		} catch (Exception e) {
+			LOGGER.error("Exception in writing back the batch xml after a failed plugin.", e);
+		}
+	}
+
+	private void endBatchWriteBehind(JoinPoint joinPoint) {
+		if (joinPoint.getArgs().length >= 1 && (joinPoint.getArgs()[0] instanceof BatchInstanceID)) {
+			batchSchemaService.endBatchWriteBehind(joinPoint.getArgs()[0].toString());
+		}
+	}
 }
@@ -35,7 +35,6 @@
 
 package com.ephesoft.dcma.workflow.aspects;
 
-import java.lang.annotation.Annotation;
 import java.lang.reflect.Method;
 
 import org.aspectj.lang.JoinPoint;
@@ -43,8 +42,10 @@ import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.annotation.Before;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.util.ClassUtils;
 
+import com.ephesoft.dcma.batch.service.BatchSchemaService;
 import com.ephesoft.dcma.core.DCMAException;
 import com.ephesoft.dcma.core.annotation.PreProcess;
 import com.ephesoft.dcma.da.id.BatchInstanceID;
@@ -63,6 +64,17 @@ public class DCMAPreProcessAspect {
 	 * LOGGER to print the logging information.
 	 */
 	private static final Logger LOGGER = LoggerFactory.getLogger(DCMAPreProcessAspect.class);
+
+	/**
+	 * Instance of {@link BatchSchemaService}.
+	 */
+	@Autowired
+	private BatchSchemaService batchSchemaService;
+
+	/**
+	 * Pre-process hook methods by service class.
+	 */
+	private final ProcessHookResolver hookResolver = new ProcessHookResolver(PreProcess.class);
 	
 	/**
 	 * Pre-processing method.
@@ -76,27 +88,32 @@ public class DCMAPreProcessAspect {
 	public void preprocess(JoinPoint joinPoint) throws DCMAException {
 
 		try {
+			long startTime = System.nanoTime();
 			Object target = joinPoint.getTarget();
 			if(target == null) {
 				return;
 			}
 			
 			Class<?> clazz = ClassUtils.getUserClass(target);
-			Method[] methods = clazz.getMethods();
-			if(methods != null && methods.length > 0) {
-				for (int i = 0; i < methods.length; i++) {
-					Annotation annotation =  methods[i].getAnnotation(PreProcess.class);
-					if(annotation != null) {
-						if(joinPoint.getArgs().length >= 1 && 
-								(joinPoint.getArgs()[0] instanceof BatchInstanceID)) {
-							methods[i].invoke(target, joinPoint.getArgs()[0], joinPoint.getArgs()[1]);
-						}
-						else { 
-							LOGGER.info("Method " + methods[i]+ " does not comply to Pre-process agreement. So.. not invoked.");
-						}
-					}
+			Method[] methods = hookResolver.getHookMethods(clazz);
+			if (methods.length > 0 && joinPoint.getArgs().length >= 1 && (joinPoint.getArgs()[0] instanceof BatchInstanceID)) {
+				// updates saved as batch segments only are written to the batch xml before the pre-process hooks read it from disk.
+				batchSchemaService.writeBatchXml(joinPoint.getArgs()[0].toString());
+			}
+			for (int i = 0; i < methods.length; i++) {
+				if(joinPoint.getArgs().length >= 1 && 
+						(joinPoint.getArgs()[0] instanceof BatchInstanceID)) {
+					methods[i].invoke(target, joinPoint.getArgs()[0], joinPoint.getArgs()[1]);
 				}
+				else { 
+					LOGGER.info("Method " + methods[i]+ " does not comply to Pre-process agreement. So.. not invoked.");
+				}
+			}
+			if (joinPoint.getArgs().length >= 1 && (joinPoint.getArgs()[0] instanceof BatchInstanceID)) {
+				// batch xml updates of the plugin are kept in memory till the post-processing writes them back.
+				batchSchemaService.beginBatchWriteBehind(joinPoint.getArgs()[0].toString());
 			}
+			PluginTimingRegistry.getInstance().startBody(joinPoint.getSignature().toShortString(), System.nanoTime() - startTime);
 		} catch (Exception e) {
 			LOGGER.error("Exception in Pre-processing", e);
 			throw new DCMAException("Exception in Pre-processing",e);
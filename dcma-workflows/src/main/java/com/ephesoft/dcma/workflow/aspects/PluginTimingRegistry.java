@@ -0,0 +1,320 @@
+/********************************************************************************* 
+* Ephesoft is a Intelligent Document Capture and Mailroom Automation program 
+* developed by Ephesoft, Inc. Copyright (C) 2010-2012 Ephesoft Inc. 
+* 
+* This program is free software; you can redistribute it and/or modify it under 
+* the terms of the GNU Affero General Public License version 3 as published by the 
+* Free Software Foundation with the addition of the following permission added 
+* to Section 15 as permitted in Section 7(a): FOR ANY PART OF THE COVERED WORK 
+* IN WHICH THE COPYRIGHT IS OWNED BY EPHESOFT, EPHESOFT DISCLAIMS THE WARRANTY 
+* OF NON INFRINGEMENT OF THIRD PARTY RIGHTS. 
+* 
+* This program is distributed in the hope that it will be useful, but WITHOUT 
+* ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+* FOR A PARTICULAR PURPOSE.  See the GNU Affero General Public License for more 
+* details. 
+* 
+* You should have received a copy of the GNU Affero General Public License along with 
+* this program; if not, see http://www.gnu.org/licenses or write to the Free 
+* Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 
+* 02110-1301 USA. 
+* 
+* You can contact Ephesoft, Inc. headquarters at 111 Academy Way, 
+* Irvine, CA 92617, USA. or at email address info@ephesoft.com. 
+* 
+* The interactive user interfaces in modified source and object code versions 
+* of this program must display Appropriate Legal Notices, as required under 
+* Section 5 of the GNU Affero General Public License version 3. 
+* 
+* In accordance with Section 7(b) of the GNU Affero General Public License version 3, 
+* these Appropriate Legal Notices must retain the display of the "Ephesoft" logo. 
+* If the display of the logo is not reasonably feasible for 
+* technical reasons, the Appropriate Legal Notices must display the words 
+* "Powered by Ephesoft". 
+********************************************************************************/ 
+
+package com.ephesoft.dcma.workflow.aspects;
+
+import java.lang.management.ManagementFactory;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class records the time spent in the pre-processing, the body and the post-processing of the plugin service calls. The
+ * pre-process aspect starts the timing of a call once its hooks have run and the post-process aspect ends it. The timings are
+ * available through JMX.
+ * 
+ * @author Ephesoft
+ * @version 1.0
+ * @see com.ephesoft.dcma.workflow.aspects.DCMAPreProcessAspect
+ * @see com.ephesoft.dcma.workflow.aspects.DCMAPostProcessAspect
+ */
+public final class PluginTimingRegistry implements PluginTimingRegistryMBean {
+
+	/**
+	 * Object name with which the registry is registered in the platform MBean server.
+	 */
+	private static final String OBJECT_NAME = "com.ephesoft.dcma.workflow:type=PluginTimingRegistry";
+
+	/**
+	 * Number of nano seconds in one milli second.
+	 */
+	private static final long NANOS_PER_MILLI = 1000000L;
+
+	/**
+	 * Maximum number of started calls kept per thread, older calls which were never ended are dropped.
+	 */
+	private static final int MAX_STARTED_INVOCATIONS = 64;
+
+	/**
+	 * LOGGER to print the logging information.
+	 */
+	private static final Logger LOGGER = LoggerFactory.getLogger(PluginTimingRegistry.class);
+
+	/**
+	 * Object of this class.
+	 */
+	private static final PluginTimingRegistry INSTANCE = createInstance();
+
+	/**
+	 * Timings by plugin service call.
+	 */
+	private final ConcurrentMap<String, PluginTiming> timings = new ConcurrentHashMap<String, PluginTiming>();
+
+	/**
+	 * Started calls of the current thread, innermost first.
+	 */
+	private final ThreadLocal<LinkedList<Invocation>> invocations = new ThreadLocal<LinkedList<Invocation>>() {
+
+		@Override
+		protected LinkedList<Invocation> initialValue() {
+			return new LinkedList<Invocation>();
+		}
+	};
+
+	private PluginTimingRegistry() {
+		super();
+	}
+
+	/**
+	 * Used to get the single element of this class.
+	 * 
+	 * @return {@link PluginTimingRegistry}
+	 */
+	public static PluginTimingRegistry getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * To start timing the body of a plugin service call once its pre-processing is done.
+	 * 
+	 * @param plugin String
+	 * @param preProcessNanos long time spent in the pre-processing
+	 */
+	public void startBody(final String plugin, final long preProcessNanos) {
+		LinkedList<Invocation> startedInvocations = invocations.get();
+		if (startedInvocations.size() >= MAX_STARTED_INVOCATIONS) {
+			startedInvocations.removeLast();
+		}
+		startedInvocations.addFirst(new Invocation(plugin, preProcessNanos, System.nanoTime()));
+	}
+
+	/**
+	 * To end timing a plugin service call once its post-processing is done.
+	 * 
+	 * @param plugin String
+	 * @param bodyEndNanos long time at which the body of the call ended
+	 * @param postProcessNanos long time spent in the post-processing
+	 * @param isFailed boolean true if the call ended with an exception
+	 */
+	public void endBody(final String plugin, final long bodyEndNanos, final long postProcessNanos, final boolean isFailed) {
+		Invocation invocation = removeInvocation(plugin);
+		if (invocation != null) {
+			PluginTiming timing = timings.get(plugin);
+			if (timing == null) {
+				timings.putIfAbsent(plugin, new PluginTiming());
+				timing = timings.get(plugin);
+			}
+			long bodyNanos = bodyEndNanos - invocation.bodyStartNanos;
+			timing.record(invocation.preProcessNanos, bodyNanos, postProcessNanos, isFailed);
+			if (LOGGER.isDebugEnabled()) {
+				LOGGER.debug(plugin + " pre-process " + invocation.preProcessNanos / NANOS_PER_MILLI + " ms, body " + bodyNanos
+						/ NANOS_PER_MILLI + " ms, post-process " + postProcessNanos / NANOS_PER_MILLI + " ms");
+			}
+		}
+	}
+
+	@Override
+	public String[] getPlugins() {
+		return timings.keySet().toArray(new String[0]);
+	}
+
+	@Override
+	public String[] getTimings() {
+		Map<String, PluginTiming> sortedTimings = new TreeMap<String, PluginTiming>(timings);
+		String[] lines = new String[sortedTimings.size()];
+		int index = 0;
+		for (Map.Entry<String, PluginTiming> entry : sortedTimings.entrySet()) {
+			PluginTiming timing = entry.getValue();
+			lines[index++] = entry.getKey() + " calls=" + timing.invocations.get() + " failures=" + timing.failures.get()
+					+ " preProcessMs=" + timing.preProcessNanos.get() / NANOS_PER_MILLI + " bodyMs=" + timing.bodyNanos.get()
+					/ NANOS_PER_MILLI + " maxBodyMs=" + timing.maxBodyNanos.get() / NANOS_PER_MILLI + " postProcessMs="
+					+ timing.postProcessNanos.get() / NANOS_PER_MILLI;
+		}
+		return lines;
+	}
+
+	@Override
+	public long getInvocationCount(final String plugin) {
+		PluginTiming timing = timings.get(plugin);
+		return timing == null ? 0L : timing.invocations.get();
+	}
+
+	@Override
+	public long getFailureCount(final String plugin) {
+		PluginTiming timing = timings.get(plugin);
+		return timing == null ? 0L : timing.failures.get();
+	}
+
+	@Override
+	public long getPreProcessMillis(final String plugin) {
+		PluginTiming timing = timings.get(plugin);
+		return timing == null ? 0L : timing.preProcessNanos.get() / NANOS_PER_MILLI;
+	}
+
+	@Override
+	public long getBodyMillis(final String plugin) {
+		PluginTiming timing = timings.get(plugin);
+		return timing == null ? 0L : timing.bodyNanos.get() / NANOS_PER_MILLI;
+	}
+
+	@Override
+	public long getMaxBodyMillis(final String plugin) {
+		PluginTiming timing = timings.get(plugin);
+		return timing == null ? 0L : timing.maxBodyNanos.get() / NANOS_PER_MILLI;
+	}
+
+	@Override
+	public long getPostProcessMillis(final String plugin) {
+		PluginTiming timing = timings.get(plugin);
+		return timing == null ? 0L : timing.postProcessNanos.get() / NANOS_PER_MILLI;
+	}
+
+	@Override
+	public void reset() {
+		timings.clear();
+	}
+
+	/**
+	 * Removes the innermost started call of the plugin. Calls started after it were not ended, e.g. because a pre-processing
+	 * failed, and are dropped.
+	 * 
+	 * @param plugin String
+	 * @return {@link Invocation} null if no call of the plugin was started by the current thread
+	 */
+	private Invocation removeInvocation(final String plugin) {
+		LinkedList<Invocation> startedInvocations = invocations.get();
+		Invocation invocation = null;
+		for (Iterator<Invocation> iterator = startedInvocations.iterator(); iterator.hasNext();) {
+			Invocation startedInvocation = iterator.next();
+			if (startedInvocation.plugin.equals(plugin)) {
+				invocation = startedInvocation;
+				break;
+			}
+		}
+		if (invocation != null) {
+			while (startedInvocations.removeFirst() != invocation) {
+				LOGGER.debug("Dropping timing of an unfinished plugin call.");
+			}
+		}
+		if (startedInvocations.isEmpty()) {
+			invocations.remove();
+		}
+		return invocation;
+	}
+
+	private static PluginTimingRegistry createInstance() {
+		PluginTimingRegistry registry = new PluginTimingRegistry();
+		try {
+			MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+			ObjectName objectName = new ObjectName(OBJECT_NAME);
+			if (!mBeanServer.isRegistered(objectName)) {
+				mBeanServer.registerMBean(registry, objectName);
+			}
+		} catch (JMException e) {
+			LOGGER.error("Could not register plugin timing registry with the MBean server. " + e.getMessage(), e);
+		}
+		return registry;
+	}
+
+	/**
+	 * A started plugin service call.
+	 */
+	private static final class Invocation {
+
+		/**
+		 * Name of the plugin service call.
+		 */
+		private final String plugin;
+
+		/**
+		 * Time spent in the pre-processing.
+		 */
+		private final long preProcessNanos;
+
+		/**
+		 * Time at which the body started.
+		 */
+		private final long bodyStartNanos;
+
+		private Invocation(final String plugin, final long preProcessNanos, final long bodyStartNanos) {
+			this.plugin = plugin;
+			this.preProcessNanos = preProcessNanos;
+			this.bodyStartNanos = bodyStartNanos;
+		}
+	}
+
+	/**
+	 * Accumulated timings of a plugin service call.
+	 */
+	private static final class PluginTiming {
+
+		private final AtomicLong invocations = new AtomicLong();
+
+		private final AtomicLong failures = new AtomicLong();
+
+		private final AtomicLong preProcessNanos = new AtomicLong();
+
+		private final AtomicLong bodyNanos = new AtomicLong();
+
+		private final AtomicLong maxBodyNanos = new AtomicLong();
+
+		private final AtomicLong postProcessNanos = new AtomicLong();
+
+		private void record(final long preProcess, final long body, final long postProcess, final boolean isFailed) {
+			invocations.incrementAndGet();
+			if (isFailed) {
+				failures.incrementAndGet();
+			}
+			preProcessNanos.addAndGet(preProcess);
+			bodyNanos.addAndGet(body);
+			postProcessNanos.addAndGet(postProcess);
+			long max = maxBodyNanos.get();
+			while (body > max && !maxBodyNanos.compareAndSet(max, body)) {
+				max = maxBodyNanos.get();
+			}
+		}
+	}
+}
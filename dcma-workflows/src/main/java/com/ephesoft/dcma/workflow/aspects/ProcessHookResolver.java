@@ -0,0 +1,95 @@
+/********************************************************************************* 
+* Ephesoft is a Intelligent Document Capture and Mailroom Automation program 
+* developed by Ephesoft, Inc. Copyright (C) 2010-2012 Ephesoft Inc. 
+* 
+* This program is free software; you can redistribute it and/or modify it under 
+* the terms of the GNU Affero General Public License version 3 as published by the 
+* Free Software Foundation with the addition of the following permission added 
+* to Section 15 as permitted in Section 7(a): FOR ANY PART OF THE COVERED WORK 
+* IN WHICH THE COPYRIGHT IS OWNED BY EPHESOFT, EPHESOFT DISCLAIMS THE WARRANTY 
+* OF NON INFRINGEMENT OF THIRD PARTY RIGHTS. 
+* 
+* This program is distributed in the hope that it will be useful, but WITHOUT 
+* ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+* FOR A PARTICULAR PURPOSE.  See the GNU Affero General Public License for more 
+* details. 
+* 
+* You should have received a copy of the GNU Affero General Public License along with 
+* this program; if not, see http://www.gnu.org/licenses or write to the Free 
+* Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 
+* 02110-1301 USA. 
+* 
+* You can contact Ephesoft, Inc. headquarters at 111 Academy Way, 
+* Irvine, CA 92617, USA. or at email address info@ephesoft.com. 
+* 
+* The interactive user interfaces in modified source and object code versions 
+* of this program must display Appropriate Legal Notices, as required under 
+* Section 5 of the GNU Affero General Public License version 3. 
+* 
+* In accordance with Section 7(b) of the GNU Affero General Public License version 3, 
+* these Appropriate Legal Notices must retain the display of the "Ephesoft" logo. 
+* If the display of the logo is not reasonably feasible for 
+* technical reasons, the Appropriate Legal Notices must display the words 
+* "Powered by Ephesoft". 
+********************************************************************************/ 
+
+package com.ephesoft.dcma.workflow.aspects;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * This class resolves the pre-process or post-process hook methods of a service class. The methods of a class are scanned once and
+ * the hooks are kept for the later service calls of the class.
+ * 
+ * @author Ephesoft
+ * @version 1.0
+ * @see com.ephesoft.dcma.core.annotation.PreProcess
+ * @see com.ephesoft.dcma.core.annotation.PostProcess
+ */
+class ProcessHookResolver {
+
+	/**
+	 * Annotation marking the hook methods.
+	 */
+	private final Class<? extends Annotation> hookAnnotation;
+
+	/**
+	 * Hook methods by service class.
+	 */
+	private final ConcurrentMap<Class<?>, Method[]> hookMethods = new ConcurrentHashMap<Class<?>, Method[]>();
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param hookAnnotation Class<? extends Annotation>
+	 */
+	ProcessHookResolver(final Class<? extends Annotation> hookAnnotation) {
+		this.hookAnnotation = hookAnnotation;
+	}
+
+	/**
+	 * To get the hook methods of a service class.
+	 * 
+	 * @param clazz Class<?>
+	 * @return Method[]
+	 */
+	Method[] getHookMethods(final Class<?> clazz) {
+		Method[] methods = hookMethods.get(clazz);
+		if (methods == null) {
+			List<Method> hooks = new ArrayList<Method>();
+			for (Method method : clazz.getMethods()) {
+				if (method.getAnnotation(hookAnnotation) != null) {
+					hooks.add(method);
+				}
+			}
+			methods = hooks.toArray(new Method[hooks.size()]);
+			hookMethods.putIfAbsent(clazz, methods);
+		}
+		return methods;
+	}
+}
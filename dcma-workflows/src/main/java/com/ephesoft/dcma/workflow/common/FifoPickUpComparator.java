@@ -76,24 +76,44 @@ public class FifoPickUpComparator implements Comparator<BatchInstance> {
 		this.batchStatusToPriorityMap = batchStatusToPriorityMap;
 	}
 
+	/**
+	 * Orders batch instances by priority, then by batch instance status priority and lastly by creation order, so that the order is
+	 * consistent for every pair of batch instances.
+	 * 
+	 * @param batchInstance1 {@link BatchInstance}
+	 * @param batchInstance2 {@link BatchInstance}
+	 * @return int
+	 */
 	@Override
 	public int compare(final BatchInstance batchInstance1, final BatchInstance batchInstance2) {
-		int returnVal = -1;
-		Integer statusPriority1 = null;
-		Integer statusPriority2 = null;
+		int returnVal = 0;
 		if (batchInstance1 != null && batchInstance2 != null) {
-			int batchInstancePriority1 = batchInstance1.getPriority();
-			int batchInstancePriority2 = batchInstance2.getPriority();
-			if (batchInstancePriority1 == batchInstancePriority2) {
-				statusPriority1 = batchStatusToPriorityMap.get(batchInstance1.getStatus());
-				statusPriority2 = batchStatusToPriorityMap.get(batchInstance2.getStatus());
-			}
-			if (statusPriority1 != null && statusPriority2 != null) {
-				returnVal = statusPriority1.compareTo(statusPriority2);
+			returnVal = compareValues(batchInstance1.getPriority(), batchInstance2.getPriority());
+			if (returnVal == 0) {
+				returnVal = compareValues(getStatusPriority(batchInstance1), getStatusPriority(batchInstance2));
 			}
 			if (returnVal == 0) {
-				returnVal = -1;
+				returnVal = compareValues(batchInstance1.getId(), batchInstance2.getId());
 			}
+		} else if (batchInstance1 != null) {
+			returnVal = -1;
+		} else if (batchInstance2 != null) {
+			returnVal = 1;
+		}
+		return returnVal;
+	}
+
+	private int getStatusPriority(final BatchInstance batchInstance) {
+		Integer statusPriority = batchStatusToPriorityMap.get(batchInstance.getStatus());
+		return statusPriority == null ? Integer.MAX_VALUE : statusPriority;
+	}
+
+	private int compareValues(final long value1, final long value2) {
+		int returnVal = 0;
+		if (value1 < value2) {
+			returnVal = -1;
+		} else if (value1 > value2) {
+			returnVal = 1;
 		}
 		return returnVal;
 	}
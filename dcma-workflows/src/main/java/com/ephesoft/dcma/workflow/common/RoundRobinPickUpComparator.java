@@ -48,24 +48,59 @@ import com.ephesoft.dcma.da.domain.BatchInstance;
  */
 public class RoundRobinPickUpComparator implements Comparator<BatchInstance> {
 
+	/**
+	 * Orders batch instances by priority, then by the process name of their batch class and lastly by creation order, so that the
+	 * order is consistent for every pair of batch instances.
+	 * 
+	 * @param batchInstance1 {@link BatchInstance}
+	 * @param batchInstance2 {@link BatchInstance}
+	 * @return int
+	 */
 	@Override
 	public int compare(final BatchInstance batchInstance1, final BatchInstance batchInstance2) {
-		int returnVal = -1;
-		String processName1 = null;
-		String processName2 = null;
+		int returnVal = 0;
 		if (batchInstance1 != null && batchInstance2 != null) {
-			int batchInstancePriority1 = batchInstance1.getPriority();
-			int batchInstancePriority2 = batchInstance2.getPriority();
-			if (batchInstancePriority1 == batchInstancePriority2) {
-				processName1 = batchInstance1.getBatchClass().getProcessName();
-				processName2 = batchInstance2.getBatchClass().getProcessName();
-			}
-			if (processName1 != null && processName2 != null) {
-				returnVal = processName1.compareTo(processName2);
+			returnVal = compareValues(batchInstance1.getPriority(), batchInstance2.getPriority());
+			if (returnVal == 0) {
+				returnVal = compareProcessNames(getProcessName(batchInstance1), getProcessName(batchInstance2));
 			}
 			if (returnVal == 0) {
-				returnVal = -1;
+				returnVal = compareValues(batchInstance1.getId(), batchInstance2.getId());
 			}
+		} else if (batchInstance1 != null) {
+			returnVal = -1;
+		} else if (batchInstance2 != null) {
+			returnVal = 1;
+		}
+		return returnVal;
+	}
+
+	private String getProcessName(final BatchInstance batchInstance) {
+		String processName = null;
+		if (batchInstance.getBatchClass() != null) {
+			processName = batchInstance.getBatchClass().getProcessName();
+		}
+		return processName;
+	}
+
+	private int compareProcessNames(final String processName1, final String processName2) {
+		int returnVal = 0;
+		if (processName1 != null && processName2 != null) {
+			returnVal = processName1.compareTo(processName2);
+		} else if (processName1 != null) {
+			returnVal = -1;
+		} else if (processName2 != null) {
+			returnVal = 1;
+		}
+		return returnVal;
+	}
+
+	private int compareValues(final long value1, final long value2) {
+		int returnVal = 0;
+		if (value1 < value2) {
+			returnVal = -1;
+		} else if (value1 > value2) {
+			returnVal = 1;
 		}
 		return returnVal;
 	}
@@ -50,10 +50,24 @@ public interface PickupService {
 	 */
 	void pickupBatchInstance();
 
+	/**
+	 * This method is used to pick up batch instances in the background without waiting for the next scheduled pick up, e.g. when a
+	 * workflow has finished on this server.
+	 */
+	void triggerPickup();
+
 	/**
 	 * This will return maxCapacity (Maximum number of batches in RUNNING state) for the server.
 	 * 
 	 * @return int
 	 */
 	int getMaxCapacity();
+
+	/**
+	 * This will return the number of further batch instances this server can run, i.e. maxCapacity minus the batch instances in RUNNING
+	 * or LOCKED state on this server. A non positive maxCapacity means the capacity is not limited.
+	 * 
+	 * @return int
+	 */
+	int getFreeCapacity();
 }
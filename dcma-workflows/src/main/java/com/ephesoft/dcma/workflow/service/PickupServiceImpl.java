@@ -35,23 +35,77 @@
 
 package com.ephesoft.dcma.workflow.service;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
 
-import org.hibernate.exception.LockAcquisitionException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 
-import com.ephesoft.dcma.da.domain.BatchInstance;
+import com.ephesoft.dcma.batch.service.EphesoftContext;
 import com.ephesoft.dcma.core.common.BatchInstanceStatus;
+import com.ephesoft.dcma.da.domain.BatchInstance;
+import com.ephesoft.dcma.da.domain.ServerRegistry;
 import com.ephesoft.dcma.da.service.BatchInstanceService;
+import com.ephesoft.dcma.workflow.constant.WorkFlowConstants;
 import com.ephesoft.dcma.workflow.service.common.WorkflowService;
 
+/**
+ * This class picks up READY and NEW batch instances for this server. Every pick up computes the free capacity of the server first and
+ * claims at most that many batch instances, in the order of the configured pick up comparator. READY batch instances are resumed by
+ * signalling their workflow, NEW batch instances are claimed with a single lock statement and started.
+ * 
+ * @author Ephesoft
+ * @version 1.0
+ * @see com.ephesoft.dcma.workflow.service.PickupService
+ */
 public class PickupServiceImpl implements PickupService {
 
+	/**
+	 * Batch instance states which occupy capacity on the executing server.
+	 */
+	private static final List<BatchInstanceStatus> EXECUTING_STATUS_LIST = Arrays.asList(BatchInstanceStatus.RUNNING,
+			BatchInstanceStatus.LOCKED);
+
 	private int maxCapacity;
 	private int pickCapacity;
 
+	/**
+	 * Order in which READY and NEW batch instances are picked up.
+	 */
+	private Comparator<BatchInstance> pickUpComparator;
+
+	/**
+	 * Makes sure only one pick up runs at a time on this server.
+	 */
+	private final ReentrantLock pickupLock = new ReentrantLock();
+
+	/**
+	 * Set when a pick up is requested, so that a request arriving during a running pick up is not lost.
+	 */
+	private final AtomicBoolean pickupPending = new AtomicBoolean(false);
+
+	/**
+	 * Runs the pick ups triggered by finished workflows off the workflow thread.
+	 */
+	private final ExecutorService pickupExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+
+		@Override
+		public Thread newThread(Runnable runnable) {
+			Thread thread = new Thread(runnable, "batch-pickup");
+			thread.setDaemon(true);
+			return thread;
+		}
+	});
+
 	private static final Logger log = LoggerFactory.getLogger(PickupServiceImpl.class);
 
 	@Autowired BatchInstanceService batchInstanceService;
@@ -59,18 +113,161 @@ public class PickupServiceImpl implements PickupService {
 
 	@Override
 	public void pickupBatchInstance() {
-		List<BatchInstance> newBatches = batchInstanceService.getBatchInstByStatus(BatchInstanceStatus.NEW);
-		
-		for (BatchInstance newBatchInstance : newBatches) {
+		pickupPending.set(true);
+		while (pickupPending.get() && pickupLock.tryLock()) {
 			try {
-				batchInstanceService.lockBatch(newBatchInstance.getId());
-				workFlowService.startWorkflow(newBatchInstance.getBatchInstanceID());
-			} catch (LockAcquisitionException e) {
-				log.trace("Batch instance -" + newBatchInstance.getIdentifier() + " is already locked.");
+				while (pickupPending.getAndSet(false)) {
+					pickupReadyAndNewBatchInstances();
+				}
+			} finally {
+				pickupLock.unlock();
 			}
 		}
 	}
 
+	@Override
+	public void triggerPickup() {
+		try {
+			pickupExecutor.execute(new Runnable() {
+
+				@Override
+				public void run() {
+					try {
+						pickupBatchInstance();
+					} catch (RuntimeException e) {
+						log.error("Error in picking up batch instances. " + e.getMessage(), e);
+					}
+				}
+			});
+		} catch (RuntimeException e) {
+			log.warn("Could not trigger pick up of batch instances. " + e.getMessage());
+		}
+	}
+
+	private void pickupReadyAndNewBatchInstances() {
+		String executingServer = getExecutingServer();
+		if (executingServer == null) {
+			log.warn("Server registry for this server not found. Skipping pick up of batch instances.");
+			return;
+		}
+		int freeCapacity = getFreeCapacity(executingServer);
+		if (pickCapacity > 0) {
+			freeCapacity = Math.min(freeCapacity, pickCapacity);
+		}
+		if (freeCapacity <= 0) {
+			log.debug("No free capacity on server " + executingServer + ". Skipping pick up of batch instances.");
+			return;
+		}
+		List<BatchInstance> candidateBatches = new ArrayList<BatchInstance>();
+		addBatchInstances(candidateBatches, BatchInstanceStatus.READY);
+		addBatchInstances(candidateBatches, BatchInstanceStatus.NEW);
+		if (candidateBatches.isEmpty()) {
+			return;
+		}
+		if (pickUpComparator != null) {
+			Collections.sort(candidateBatches, pickUpComparator);
+		}
+		int claimCount = Math.min(freeCapacity, candidateBatches.size());
+		List<Long> batchInstanceIds = new ArrayList<Long>(claimCount);
+		int resumedCount = 0;
+		for (BatchInstance candidateBatchInstance : candidateBatches.subList(0, claimCount)) {
+			if (candidateBatchInstance.getStatus() == BatchInstanceStatus.READY) {
+				if (resumeReadyBatchInstance(candidateBatchInstance, executingServer)) {
+					resumedCount++;
+				}
+			} else {
+				batchInstanceIds.add(candidateBatchInstance.getId());
+			}
+		}
+		List<BatchInstance> lockedBatches = batchInstanceService.lockNewBatchInstances(batchInstanceIds, executingServer);
+		log.info("Resumed " + resumedCount + " ready and picked up " + lockedBatches.size() + " new out of "
+				+ candidateBatches.size() + " batch instances with free capacity " + freeCapacity + " on server " + executingServer);
+		if (pickUpComparator != null) {
+			Collections.sort(lockedBatches, pickUpComparator);
+		}
+		for (BatchInstance lockedBatchInstance : lockedBatches) {
+			try {
+				workFlowService.startWorkflow(lockedBatchInstance.getBatchInstanceID());
+			} catch (RuntimeException e) {
+				log.error("Error in starting workflow for batch instance -" + lockedBatchInstance.getIdentifier() + ". "
+						+ e.getMessage(), e);
+			}
+		}
+	}
+
+	private void addBatchInstances(List<BatchInstance> candidateBatches, BatchInstanceStatus batchInstanceStatus) {
+		List<BatchInstance> batchInstances = batchInstanceService.getBatchInstByStatus(batchInstanceStatus);
+		if (batchInstances != null) {
+			candidateBatches.addAll(batchInstances);
+		}
+	}
+
+	/**
+	 * Claims a READY batch instance for this server and signals its workflow, so that it continues from the review or validation
+	 * state it was waiting in.
+	 * 
+	 * @param readyBatchInstance {@link BatchInstance}
+	 * @param executingServer {@link String}
+	 * @return boolean, true if the batch instance was claimed by this server
+	 */
+	private boolean resumeReadyBatchInstance(BatchInstance readyBatchInstance, String executingServer) {
+		boolean resumed = batchInstanceService.resumeReadyBatchInstance(readyBatchInstance.getId(), executingServer);
+		if (resumed) {
+			try {
+				workFlowService.signalWorkflow(readyBatchInstance);
+			} catch (RuntimeException e) {
+				log.error("Error in resuming workflow for batch instance -" + readyBatchInstance.getIdentifier() + ". "
+						+ e.getMessage(), e);
+			}
+		} else {
+			log.trace("Batch instance -" + readyBatchInstance.getIdentifier() + " is already resumed.");
+		}
+		return resumed;
+	}
+
+	@Override
+	public int getFreeCapacity() {
+		int freeCapacity = 0;
+		String executingServer = getExecutingServer();
+		if (executingServer != null) {
+			freeCapacity = getFreeCapacity(executingServer);
+		}
+		return freeCapacity;
+	}
+
+	/**
+	 * To get the number of further batch instances the given server can run, counting the RUNNING and LOCKED batch instances on it. A
+	 * non positive max capacity means the server capacity is not limited.
+	 * 
+	 * @param executingServer {@link String}
+	 * @return int
+	 */
+	private int getFreeCapacity(String executingServer) {
+		int freeCapacity = Integer.MAX_VALUE;
+		if (maxCapacity > 0) {
+			int executingJobCount = batchInstanceService.getExecutingJobCountByServerIP(executingServer, EXECUTING_STATUS_LIST);
+			freeCapacity = maxCapacity - executingJobCount;
+		}
+		return freeCapacity;
+	}
+
+	private String getExecutingServer() {
+		String executingServer = null;
+		ServerRegistry serverRegistry = EphesoftContext.getHostServerRegistry();
+		if (serverRegistry != null) {
+			executingServer = serverRegistry.getIpAddress() + WorkFlowConstants.COLON + serverRegistry.getPort()
+					+ serverRegistry.getAppContext();
+		}
+		return executingServer;
+	}
+
+	/**
+	 * Stops the pick up thread.
+	 */
+	public void destroy() {
+		pickupExecutor.shutdownNow();
+	}
+
 	public void setMaxCapacity(int maxCapacity) {
 		this.maxCapacity = maxCapacity;
 	}
@@ -79,6 +276,10 @@ public class PickupServiceImpl implements PickupService {
 		this.pickCapacity = pickCapacity;
 	}
 
+	public void setPickUpComparator(Comparator<BatchInstance> pickUpComparator) {
+		this.pickUpComparator = pickUpComparator;
+	}
+
 	@Override
 	public int getMaxCapacity() {
 		return maxCapacity;
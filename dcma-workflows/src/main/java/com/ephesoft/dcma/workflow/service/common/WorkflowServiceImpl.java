@@ -37,7 +37,6 @@ package com.ephesoft.dcma.workflow.service.common;
 
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
 import org.jbpm.api.Execution;
@@ -328,16 +327,10 @@ public class WorkflowServiceImpl implements WorkflowService {
 				break;
 		}
 		if (needToSignal) {
-			int maxCapacity = pickupService.getMaxCapacity();
 			ServerRegistry lockOwner = EphesoftContext.getHostServerRegistry();
 			String serverContextPath = lockOwner.getIpAddress() + WorkFlowConstants.COLON + lockOwner.getPort()
 					+ lockOwner.getAppContext();
-			int runningJobCount = 0;
-			List<BatchInstance> batchInstanceList = batchInstanceService.getExecutingJobByServerIP(serverContextPath);
-			if (batchInstanceList != null) {
-				runningJobCount = batchInstanceList.size();
-			}
-			if (runningJobCount < maxCapacity) {
+			if (pickupService.getFreeCapacity() > 0) {
 				batchInstance.setStatus(BatchInstanceStatus.RUNNING);
 				batchInstance.setExecutingServer(serverContextPath);
 				batchInstance.setCurrentUser(null);